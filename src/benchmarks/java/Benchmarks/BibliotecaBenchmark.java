@@ -0,0 +1,96 @@
+package Benchmarks;
+
+import Classes.Biblioteca;
+import Classes.Playlists.Playlist;
+import Classes.Playlists.PlaylistConstruida;
+import Classes.Utilizador;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de {@link Biblioteca#adicionarPlaylist(Playlist)} numa biblioteca que já tem um dado número de
+ * playlists. Mede-se a adição de uma playlist que já está na biblioteca (a última), que só percorre a lista,
+ * e a adição de uma playlist nova seguida da sua remoção, para a biblioteca manter o tamanho durante a medição.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class BibliotecaBenchmark {
+
+    /**
+     * Número de playlists da biblioteca.
+     */
+    @Param({"10", "1000", "100000"})
+    public int tamanho;
+
+    private Utilizador utilizador;
+    private LocalDate data;
+    private Biblioteca biblioteca;
+    private Playlist ultima;
+    private Playlist nova;
+
+    /**
+     * Cria a biblioteca e a playlist nova.
+     */
+    @Setup
+    public void preparar() {
+        this.utilizador = new Utilizador();
+        this.data = DadosBenchmark.INICIO.toLocalDate();
+        ArrayList<Playlist> playlists = new ArrayList<>(this.tamanho);
+        for (int p = 0; p < this.tamanho; p++) {
+            playlists.add(playlist("Playlist " + p));
+        }
+        this.ultima = playlists.get(this.tamanho - 1);
+        this.biblioteca = new Biblioteca(playlists, new ArrayList<>());
+        this.nova = playlist("Nova");
+    }
+
+    /**
+     * Adiciona uma playlist que ainda não está na biblioteca e volta a removê-la.
+     *
+     * @return Biblioteca (com as playlists iniciais).
+     */
+    @Benchmark
+    public Biblioteca adicionarPlaylistNova() {
+        this.biblioteca.adicionarPlaylist(this.nova);
+        this.biblioteca.removePlaylist(this.nova.getNome());
+        return this.biblioteca;
+    }
+
+    /**
+     * Adiciona a última playlist da biblioteca, que já lá está.
+     *
+     * @return Biblioteca (inalterada).
+     */
+    @Benchmark
+    public Biblioteca adicionarPlaylistRepetida() {
+        this.biblioteca.adicionarPlaylist(this.ultima);
+        return this.biblioteca;
+    }
+
+    /**
+     * Cria uma playlist vazia.
+     *
+     * @param nome Nome da playlist.
+     * @return Playlist criada.
+     */
+    private Playlist playlist(String nome) {
+        return new PlaylistConstruida(nome, this.utilizador, this.data, false, new ArrayList<>());
+    }
+}
@@ -0,0 +1,163 @@
+package Benchmarks;
+
+import Classes.Geracao.ConstrutorModelo;
+import Classes.Geracao.GeradorDados;
+import Classes.Geracao.ParametrosGeracao;
+import SpotifUM.SpotifUM;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+/**
+ * Conjuntos de dados dos benchmarks JMH, gerados pelo {@link GeradorDados} a partir do número de reproduções.
+ *
+ * O número de utilizadores e de músicas cresce com o número de reproduções (um utilizador por cada 100
+ * reproduções e uma música por cada 200, com um mínimo de 20 de cada), para que um conjunto maior tenha também
+ * um catálogo e um histórico por utilizador maiores. Há um artista por cada 10 músicas e uma playlist de 10 músicas
+ * por cada 10 utilizadores. As reproduções seguem as distribuições de Zipf do gerador e acontecem, em média,
+ * uma por segundo a partir de {@link #INICIO}.
+ */
+final class DadosBenchmark {
+
+    /**
+     * Instante da primeira reprodução gerada.
+     */
+    static final LocalDateTime INICIO = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private static final long SEMENTE = 42;
+    private static final int MINIMO = 20;
+
+    private DadosBenchmark() {
+    }
+
+    /**
+     * Devolve o número de utilizadores de um conjunto de dados.
+     *
+     * @param reproducoes Número de reproduções do conjunto.
+     * @return Número de utilizadores.
+     */
+    static int utilizadores(int reproducoes) {
+        return Math.max(MINIMO, reproducoes / 100);
+    }
+
+    /**
+     * Devolve o número de músicas de um conjunto de dados.
+     *
+     * @param reproducoes Número de reproduções do conjunto.
+     * @return Número de músicas.
+     */
+    static int musicas(int reproducoes) {
+        return Math.max(MINIMO, reproducoes / 200);
+    }
+
+    /**
+     * Devolve os parâmetros de geração de um conjunto de dados: 80% de músicas normais, 10% explícitas e 10%
+     * multimédia; 60% de utilizadores Free, 25% PremiumBase e 15% PremiumTop.
+     *
+     * @param reproducoes Número de reproduções.
+     * @return Parâmetros do conjunto de dados.
+     */
+    static ParametrosGeracao parametros(int reproducoes) {
+        int musicas = musicas(reproducoes);
+        int utilizadores = utilizadores(reproducoes);
+        ParametrosGeracao p = new ParametrosGeracao();
+        p.setSemente(SEMENTE);
+        p.setArtistas(Math.max(1, musicas / 10));
+        p.setMusicas(musicas - 2 * (musicas / 10));
+        p.setMusicasExplicitas(musicas / 10);
+        p.setMusicasMultimedia(musicas / 10);
+        p.setUtilizadoresFree(utilizadores - utilizadores / 4 - utilizadores * 15 / 100);
+        p.setUtilizadoresPremiumBase(utilizadores / 4);
+        p.setUtilizadoresPremiumTop(utilizadores * 15 / 100);
+        p.setPlaylists(utilizadores / 10);
+        p.setMusicasPorPlaylist(10);
+        p.setReproducoes(reproducoes);
+        p.setInicio(INICIO);
+        p.setDuracao(Duration.ofSeconds(reproducoes));
+        return p;
+    }
+
+    /**
+     * Cria um modelo com os dados de um conjunto de dados. As reproduções são registadas em lotes, sem diário.
+     *
+     * @param reproducoes Número de reproduções.
+     * @return Modelo criado.
+     */
+    static SpotifUM criarModelo(int reproducoes) {
+        SpotifUM modelo = new SpotifUM();
+        try {
+            new GeradorDados(parametros(reproducoes)).gerar(new ConstrutorModelo(modelo));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return modelo;
+    }
+
+    /**
+     * Cria um modelo só com um catálogo de músicas (um artista por cada 10 músicas, os utilizadores mínimos e
+     * nenhuma reprodução), para os benchmarks que dependem apenas do tamanho do catálogo.
+     *
+     * @param musicas Número de músicas.
+     * @return Modelo criado.
+     */
+    static SpotifUM criarCatalogo(int musicas) {
+        ParametrosGeracao p = parametros(0);
+        p.setArtistas(Math.max(1, musicas / 10));
+        p.setMusicas(musicas - 2 * (musicas / 10));
+        p.setMusicasExplicitas(musicas / 10);
+        p.setMusicasMultimedia(musicas / 10);
+        p.setPlaylists(0);
+        SpotifUM modelo = new SpotifUM();
+        try {
+            new GeradorDados(p).gerar(new ConstrutorModelo(modelo));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return modelo;
+    }
+
+    /**
+     * Devolve o instante da última reprodução de um conjunto de dados.
+     *
+     * @param reproducoes Número de reproduções do conjunto.
+     * @return Instante da última reprodução.
+     */
+    static LocalDateTime fim(int reproducoes) {
+        return INICIO.plusSeconds(Math.max(0, reproducoes - 1));
+    }
+
+    /**
+     * Escolhe um índice entre 0 e {@code n - 1}, com os índices mais baixos escolhidos mais vezes.
+     *
+     * @param aleatorio Gerador de números aleatórios.
+     * @param n         Número de índices.
+     * @return Índice escolhido.
+     */
+    static int escolher(Random aleatorio, int n) {
+        double x = aleatorio.nextDouble();
+        return (int) (x * x * n);
+    }
+
+    /**
+     * Devolve o email do utilizador de índice dado.
+     *
+     * @param indice Índice do utilizador.
+     * @return Email.
+     */
+    static String email(int indice) {
+        return GeradorDados.email(indice);
+    }
+
+    /**
+     * Devolve o nome da música de índice dado.
+     *
+     * @param indice Índice da música.
+     * @return Nome da música.
+     */
+    static String nomeMusica(int indice) {
+        return GeradorDados.nomeMusica(indice);
+    }
+}
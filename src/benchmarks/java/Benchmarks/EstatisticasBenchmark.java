@@ -0,0 +1,183 @@
+package Benchmarks;
+
+import Classes.Genero;
+import Controller.Controller;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks das estatísticas do {@link Controller}, sobre conjuntos de dados de 1 mil a 10 milhões de
+ * reproduções (ver {@link DadosBenchmark}). As consultas por período usam a metade central do histórico.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class EstatisticasBenchmark {
+
+    private static final int TOP = 10;
+
+    /**
+     * Número de reproduções do conjunto de dados.
+     */
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int reproducoes;
+
+    private Controller controller;
+    private LocalDateTime inicio;
+    private LocalDateTime fim;
+
+    /**
+     * Cria o modelo e o período das consultas.
+     */
+    @Setup
+    public void preparar() {
+        this.controller = new Controller(DadosBenchmark.criarModelo(this.reproducoes));
+        this.inicio = DadosBenchmark.INICIO.plusSeconds(this.reproducoes / 4);
+        this.fim = DadosBenchmark.fim(this.reproducoes).minusSeconds(this.reproducoes / 4);
+    }
+
+    /**
+     * Música mais reproduzida.
+     *
+     * @return Resultado da consulta.
+     */
+    @Benchmark
+    public String countMusicas() {
+        return this.controller.countMusicas();
+    }
+
+    /**
+     * Utilizador com mais reproduções num período.
+     *
+     * @return Resultado da consulta.
+     */
+    @Benchmark
+    public String obterUtilizadorComMaisReproducoes() {
+        return this.controller.obterUtilizadorComMaisReproducoes(this.inicio, this.fim);
+    }
+
+    /**
+     * Utilizador com mais reproduções em todo o histórico.
+     *
+     * @return Resultado da consulta.
+     */
+    @Benchmark
+    public String obterUtilizadorComMaisReproducoesSempre() {
+        return this.controller.obterUtilizadorComMaisReproducoes(null, null);
+    }
+
+    /**
+     * Artista mais escutado.
+     *
+     * @return Resultado da consulta.
+     */
+    @Benchmark
+    public String calcArtistaMaisEscutado() {
+        return this.controller.calcArtistaMaisEscutado();
+    }
+
+    /**
+     * Utilizador com mais pontos.
+     *
+     * @return Resultado da consulta.
+     */
+    @Benchmark
+    public String countUtilizador() {
+        return this.controller.countUtilizador();
+    }
+
+    /**
+     * Género mais reproduzido.
+     *
+     * @return Resultado da consulta.
+     */
+    @Benchmark
+    public String generoMaisReproduzido() {
+        return this.controller.generoMaisReproduzido();
+    }
+
+    /**
+     * Número de playlists públicas.
+     *
+     * @return Resultado da consulta.
+     */
+    @Benchmark
+    public Integer playlistPublicas() {
+        return this.controller.playlistPublicas();
+    }
+
+    /**
+     * Utilizador com mais playlists.
+     *
+     * @return Resultado da consulta.
+     */
+    @Benchmark
+    public String utilizadorMaisPlaylists() {
+        return this.controller.utilizadorMaisPlaylists();
+    }
+
+    /**
+     * Top de músicas.
+     *
+     * @return Resultado da consulta.
+     */
+    @Benchmark
+    public String topMusicas() {
+        return this.controller.topMusicas(TOP);
+    }
+
+    /**
+     * Top de músicas num período.
+     *
+     * @return Resultado da consulta.
+     */
+    @Benchmark
+    public String topMusicasPeriodo() {
+        return this.controller.topMusicasPeriodo(this.inicio, this.fim, TOP);
+    }
+
+    /**
+     * Top de artistas.
+     *
+     * @return Resultado da consulta.
+     */
+    @Benchmark
+    public String topArtistas() {
+        return this.controller.topArtistas(TOP);
+    }
+
+    /**
+     * Top de artistas de um género.
+     *
+     * @return Resultado da consulta.
+     */
+    @Benchmark
+    public String topArtistasPorGenero() {
+        return this.controller.topArtistasPorGenero(Genero.ROCK, TOP);
+    }
+
+    /**
+     * Top de géneros.
+     *
+     * @return Resultado da consulta.
+     */
+    @Benchmark
+    public String topGeneros() {
+        return this.controller.topGeneros(TOP);
+    }
+}
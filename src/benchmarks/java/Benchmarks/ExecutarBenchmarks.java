@@ -0,0 +1,49 @@
+package Benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.ProfilerConfig;
+
+/**
+ * Ponto de entrada do jar dos benchmarks. Aceita as mesmas opções que o JMH (por exemplo,
+ * {@code java -jar benchmarks.jar ModeloBenchmark -p reproducoes=1000 -rf json}), mas junta sempre o perfil
+ * de GC, para que os resultados incluam a memória alocada por operação ({@code gc.alloc.rate.norm}).
+ */
+public class ExecutarBenchmarks {
+
+    /**
+     * Executa os benchmarks selecionados.
+     *
+     * @param args Opções do JMH.
+     * @throws Exception Se as opções forem inválidas ou a execução falhar.
+     */
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions linha = new CommandLineOptions(args);
+        if (linha.shouldHelp() || linha.shouldList() || linha.shouldListWithParams()
+                || linha.shouldListProfilers() || linha.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        OptionsBuilder opcoes = new OptionsBuilder();
+        opcoes.parent(linha);
+        if (!temPerfilGc(linha)) opcoes.addProfiler(GCProfiler.class);
+        new Runner(opcoes.build()).run();
+    }
+
+    /**
+     * Verifica se o perfil de GC já foi pedido na linha de comandos.
+     *
+     * @param opcoes Opções da linha de comandos.
+     * @return true se o perfil já foi pedido.
+     */
+    private static boolean temPerfilGc(Options opcoes) {
+        for (ProfilerConfig perfil : opcoes.getProfilers()) {
+            if (perfil.getKlass().equals("gc") || perfil.getKlass().equals(GCProfiler.class.getName())) return true;
+        }
+        return false;
+    }
+}
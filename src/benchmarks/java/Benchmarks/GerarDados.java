@@ -0,0 +1,94 @@
+package Benchmarks;
+
+import Classes.Geracao.EscritorScript;
+import Classes.Geracao.GeradorDados;
+import Classes.Geracao.ParametrosGeracao;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Gera um script de comandos do administrador com um conjunto de dados sintético (ver {@link GeradorDados}).
+ * O script é escrito à medida que é gerado, pelo que o número de reproduções só é limitado pelo espaço em disco.
+ *
+ * Argumentos: o ficheiro de saída ({@code -} para a saída padrão), seguido de parâmetros opcionais
+ * {@code nome=valor}: {@code semente}, {@code artistas}, {@code musicas}, {@code explicitas}, {@code multimedia},
+ * {@code free}, {@code premiumbase}, {@code premiumtop}, {@code playlists}, {@code musicasPorPlaylist},
+ * {@code reproducoes}, {@code zipfMusicas}, {@code zipfUtilizadores}, {@code inicio} (ex.: 2025-01-01T00:00) e
+ * {@code dias}.
+ * Exemplo: {@code java -cp benchmarks.jar Benchmarks.GerarDados dados.txt reproducoes=100000000 musicas=50000}
+ */
+public class GerarDados {
+
+    private static final int BUFFER = 1 << 20;
+
+    /**
+     * Gera o script.
+     *
+     * @param args Argumentos da linha de comandos.
+     * @throws IOException Se não for possível escrever o ficheiro.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Uso: GerarDados <ficheiro|-> [nome=valor ...]");
+            System.exit(2);
+        }
+        ParametrosGeracao parametros = new ParametrosGeracao();
+        for (int i = 1; i < args.length; i++) {
+            definir(parametros, args[i]);
+        }
+        GeradorDados gerador = new GeradorDados(parametros);
+
+        long inicio = System.nanoTime();
+        boolean consola = args[0].equals("-");
+        Writer destino = new BufferedWriter(consola
+                ? new OutputStreamWriter(System.out, StandardCharsets.UTF_8)
+                : Files.newBufferedWriter(Path.of(args[0]), StandardCharsets.UTF_8), BUFFER);
+        try {
+            gerador.gerar(new EscritorScript(destino));
+        } finally {
+            if (consola) destino.flush();
+            else destino.close();
+        }
+        System.err.printf("%s%ngerado em %d ms%n", gerador.getParametros(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Define um parâmetro a partir de um argumento {@code nome=valor}.
+     *
+     * @param parametros Parâmetros a alterar.
+     * @param argumento  Argumento.
+     * @throws IllegalArgumentException Se o argumento ou o valor forem inválidos.
+     */
+    private static void definir(ParametrosGeracao parametros, String argumento) {
+        int igual = argumento.indexOf('=');
+        if (igual < 0) throw new IllegalArgumentException("Argumento inválido (esperado nome=valor): " + argumento);
+        String nome = argumento.substring(0, igual);
+        String valor = argumento.substring(igual + 1);
+        switch (nome) {
+            case "semente" -> parametros.setSemente(Long.parseLong(valor));
+            case "artistas" -> parametros.setArtistas(Integer.parseInt(valor));
+            case "musicas" -> parametros.setMusicas(Integer.parseInt(valor));
+            case "explicitas" -> parametros.setMusicasExplicitas(Integer.parseInt(valor));
+            case "multimedia" -> parametros.setMusicasMultimedia(Integer.parseInt(valor));
+            case "free" -> parametros.setUtilizadoresFree(Integer.parseInt(valor));
+            case "premiumbase" -> parametros.setUtilizadoresPremiumBase(Integer.parseInt(valor));
+            case "premiumtop" -> parametros.setUtilizadoresPremiumTop(Integer.parseInt(valor));
+            case "playlists" -> parametros.setPlaylists(Integer.parseInt(valor));
+            case "musicasPorPlaylist" -> parametros.setMusicasPorPlaylist(Integer.parseInt(valor));
+            case "reproducoes" -> parametros.setReproducoes(Long.parseLong(valor));
+            case "zipfMusicas" -> parametros.setExpoenteMusicas(Double.parseDouble(valor));
+            case "zipfUtilizadores" -> parametros.setExpoenteUtilizadores(Double.parseDouble(valor));
+            case "inicio" -> parametros.setInicio(LocalDateTime.parse(valor));
+            case "dias" -> parametros.setDuracao(Duration.ofDays(Long.parseLong(valor)));
+            default -> throw new IllegalArgumentException("Parâmetro desconhecido: " + nome);
+        }
+    }
+}
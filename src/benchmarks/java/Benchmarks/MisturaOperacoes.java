@@ -0,0 +1,107 @@
+package Benchmarks;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * Mistura de operações de um teste de carga: o peso relativo de cada {@link OperacaoCarga}.
+ * As operações são escolhidas ao acaso, com probabilidade proporcional ao peso.
+ */
+public class MisturaOperacoes {
+
+    /**
+     * Mistura usada por omissão: sobretudo reproduções, com alguma navegação e consulta de estatísticas.
+     */
+    public static final String OMISSAO = "ouvir=80,listar=8,estatisticas=8,playlist=2,login=2";
+
+    private final Map<OperacaoCarga, Integer> pesos;
+    private final OperacaoCarga[] operacoes;
+    private final int[] acumulados;
+
+    /**
+     * Cria uma mistura a partir dos pesos de cada operação.
+     *
+     * @param pesos Peso de cada operação (as operações em falta têm peso 0).
+     * @throws IllegalArgumentException Se algum peso for negativo ou se todos forem 0.
+     */
+    public MisturaOperacoes(Map<OperacaoCarga, Integer> pesos) {
+        this.pesos = new EnumMap<>(OperacaoCarga.class);
+        int total = 0;
+        for (Map.Entry<OperacaoCarga, Integer> e : pesos.entrySet()) {
+            if (e.getValue() < 0) throw new IllegalArgumentException("Peso negativo: " + e.getKey().getChave());
+            if (e.getValue() > 0) {
+                this.pesos.put(e.getKey(), e.getValue());
+                total = Math.addExact(total, e.getValue());
+            }
+        }
+        if (total == 0) throw new IllegalArgumentException("A mistura não tem nenhuma operação");
+
+        this.operacoes = new OperacaoCarga[this.pesos.size()];
+        this.acumulados = new int[this.pesos.size()];
+        int i = 0;
+        int acumulado = 0;
+        for (Map.Entry<OperacaoCarga, Integer> e : this.pesos.entrySet()) {
+            acumulado += e.getValue();
+            this.operacoes[i] = e.getKey();
+            this.acumulados[i] = acumulado;
+            i++;
+        }
+    }
+
+    /**
+     * Cria uma mistura a partir de um texto {@code operacao=peso,...}, por exemplo {@value #OMISSAO}.
+     *
+     * @param texto Texto com os pesos.
+     * @return Mistura.
+     * @throws IllegalArgumentException Se o texto for inválido.
+     */
+    public static MisturaOperacoes analisar(String texto) {
+        Map<OperacaoCarga, Integer> pesos = new EnumMap<>(OperacaoCarga.class);
+        for (String parte : texto.split(",")) {
+            int igual = parte.indexOf('=');
+            if (igual < 0) throw new IllegalArgumentException("Peso inválido (esperado operacao=peso): " + parte);
+            OperacaoCarga operacao = OperacaoCarga.porChave(parte.substring(0, igual).trim());
+            pesos.put(operacao, Integer.parseInt(parte.substring(igual + 1).trim()));
+        }
+        return new MisturaOperacoes(pesos);
+    }
+
+    /**
+     * Escolhe uma operação ao acaso.
+     *
+     * @param aleatorio Gerador de números aleatórios.
+     * @return Operação escolhida.
+     */
+    public OperacaoCarga escolher(RandomGenerator aleatorio) {
+        int x = aleatorio.nextInt(this.acumulados[this.acumulados.length - 1]);
+        int i = 0;
+        while (this.acumulados[i] <= x) i++;
+        return this.operacoes[i];
+    }
+
+    /**
+     * Devolve o peso de uma operação.
+     *
+     * @param operacao Operação.
+     * @return Peso (0 se a operação não fizer parte da mistura).
+     */
+    public int getPeso(OperacaoCarga operacao) {
+        return this.pesos.getOrDefault(operacao, 0);
+    }
+
+    /**
+     * Devolve a mistura no formato aceite por {@link #analisar(String)}.
+     *
+     * @return Texto com os pesos.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<OperacaoCarga, Integer> e : this.pesos.entrySet()) {
+            if (sb.length() > 0) sb.append(',');
+            sb.append(e.getKey().getChave()).append('=').append(e.getValue());
+        }
+        return sb.toString();
+    }
+}
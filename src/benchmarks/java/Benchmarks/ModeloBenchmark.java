@@ -0,0 +1,110 @@
+package Benchmarks;
+
+import Classes.Musicas.Musica;
+import SpotifUM.SpotifUM;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks das operações mais frequentes do modelo: reproduzir uma música, saber se um utilizador já a ouviu
+ * e procurar uma música pelo nome, sobre conjuntos de dados de 1 mil a 10 milhões de reproduções
+ * (ver {@link DadosBenchmark}).
+ *
+ * Os pedidos seguem a mesma distribuição das reproduções do conjunto de dados. As reproduções feitas pelo
+ * benchmark ficam no modelo, que vai crescendo ao longo das iterações.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class ModeloBenchmark {
+
+    private static final int PEDIDOS = 4096;
+
+    /**
+     * Número de reproduções do conjunto de dados.
+     */
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int reproducoes;
+
+    private SpotifUM modelo;
+    private String[] emails;
+    private String[] musicas;
+    private int proximo;
+
+    /**
+     * Cria o modelo e os pedidos usados pelos benchmarks.
+     */
+    @Setup
+    public void preparar() {
+        this.modelo = DadosBenchmark.criarModelo(this.reproducoes);
+
+        Random aleatorio = new Random(7);
+        this.emails = new String[PEDIDOS];
+        this.musicas = new String[PEDIDOS];
+        for (int i = 0; i < PEDIDOS; i++) {
+            this.emails[i] = DadosBenchmark.email(
+                    DadosBenchmark.escolher(aleatorio, DadosBenchmark.utilizadores(this.reproducoes)));
+            this.musicas[i] = DadosBenchmark.nomeMusica(
+                    DadosBenchmark.escolher(aleatorio, DadosBenchmark.musicas(this.reproducoes)));
+        }
+        this.proximo = 0;
+    }
+
+    /**
+     * Reproduz uma música para um utilizador.
+     *
+     * @return Resultado da reprodução.
+     */
+    @Benchmark
+    public String reproduzirMusica() {
+        int i = avancar();
+        return this.modelo.reproduzirMusica(this.emails[i], this.musicas[i]);
+    }
+
+    /**
+     * Verifica se um utilizador já ouviu uma música.
+     *
+     * @return true se já ouviu.
+     */
+    @Benchmark
+    public boolean jaOuviuMusica() {
+        int i = avancar();
+        return this.modelo.jaOuviuMusica(this.emails[i], this.musicas[i]);
+    }
+
+    /**
+     * Procura uma música pelo nome.
+     *
+     * @return Música encontrada.
+     */
+    @Benchmark
+    public Musica getMusicaPorNome() {
+        return this.modelo.getMusicaPorNome(this.musicas[avancar()]);
+    }
+
+    /**
+     * Devolve o índice do pedido seguinte.
+     *
+     * @return Índice do pedido.
+     */
+    private int avancar() {
+        int i = this.proximo;
+        this.proximo = (i + 1) & (PEDIDOS - 1);
+        return i;
+    }
+}
@@ -0,0 +1,56 @@
+package Benchmarks;
+
+/**
+ * Operações feitas pelos ouvintes simulados do {@link TesteCarga}.
+ */
+public enum OperacaoCarga {
+    /**
+     * Autenticação ({@code Controller.login}).
+     */
+    LOGIN("login"),
+    /**
+     * Listagem do catálogo ({@code Controller.listarMusicas}).
+     */
+    LISTAR("listar"),
+    /**
+     * Reprodução de uma música ({@code Controller.ouvirMusica}).
+     */
+    OUVIR("ouvir"),
+    /**
+     * Criação de uma playlist construída ({@code Controller.adicionarPlaylistConstruida}).
+     */
+    PLAYLIST("playlist"),
+    /**
+     * Consulta de uma estatística ({@code Controller.topMusicas}, {@code Controller.generoMaisReproduzido}, ...).
+     */
+    ESTATISTICAS("estatisticas");
+
+    private final String chave;
+
+    OperacaoCarga(String chave) {
+        this.chave = chave;
+    }
+
+    /**
+     * Devolve o nome da operação usado nos argumentos e nos resultados.
+     *
+     * @return Nome da operação.
+     */
+    public String getChave() {
+        return this.chave;
+    }
+
+    /**
+     * Devolve a operação com um dado nome.
+     *
+     * @param chave Nome da operação.
+     * @return Operação.
+     * @throws IllegalArgumentException Se não existir nenhuma operação com esse nome.
+     */
+    public static OperacaoCarga porChave(String chave) {
+        for (OperacaoCarga operacao : values()) {
+            if (operacao.chave.equals(chave)) return operacao;
+        }
+        throw new IllegalArgumentException("Operação desconhecida: " + chave);
+    }
+}
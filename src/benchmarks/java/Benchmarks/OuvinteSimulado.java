@@ -0,0 +1,120 @@
+package Benchmarks;
+
+import Classes.Genero;
+import Classes.Geracao.DistribuicaoZipf;
+import Classes.Geracao.GeradorDados;
+import Controller.Controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.random.RandomGenerator;
+
+/**
+ * Ouvinte simulado de um teste de carga: um utilizador do conjunto de dados gerado pelo {@link GeradorDados},
+ * que executa operações diretamente no {@link Controller}.
+ * Pode ser usado por várias threads ao mesmo tempo (no teste em ciclo aberto, os pedidos de um ouvinte
+ * podem sobrepor-se).
+ */
+public class OuvinteSimulado {
+
+    /**
+     * Palavra-passe dos utilizadores gerados.
+     */
+    public static final String PASSWORD = "123";
+
+    private static final int TOP = 10;
+    private static final int MUSICAS_POR_PLAYLIST = 10;
+    private static final Genero[] GENEROS = Genero.values();
+
+    private final Controller controller;
+    private final String email;
+    private final int indice;
+    private final DistribuicaoZipf musicas;
+    private final AtomicInteger playlists;
+
+    /**
+     * Cria um ouvinte.
+     *
+     * @param controller Controller onde as operações são executadas.
+     * @param indice     Índice do utilizador no conjunto de dados.
+     * @param musicas    Distribuição da popularidade das músicas do catálogo (partilhada pelos ouvintes).
+     */
+    public OuvinteSimulado(Controller controller, int indice, DistribuicaoZipf musicas) {
+        this.controller = controller;
+        this.email = GeradorDados.email(indice);
+        this.indice = indice;
+        this.musicas = musicas;
+        this.playlists = new AtomicInteger();
+    }
+
+    /**
+     * Devolve o email do utilizador simulado.
+     *
+     * @return Email.
+     */
+    public String getEmail() {
+        return this.email;
+    }
+
+    /**
+     * Executa uma operação.
+     *
+     * @param operacao  Operação a executar.
+     * @param aleatorio Gerador de números aleatórios, usado para escolher as músicas e as estatísticas.
+     * @return true se a operação tiver sucesso, false se o sistema a recusar (por exemplo, um login inválido).
+     * @throws RuntimeException Se a operação falhar com uma exceção do sistema.
+     */
+    public boolean executar(OperacaoCarga operacao, RandomGenerator aleatorio) {
+        return switch (operacao) {
+            case LOGIN -> this.controller.login(this.email, PASSWORD);
+            case LISTAR -> !this.controller.listarMusicas().isEmpty();
+            case OUVIR -> this.controller.ouvirMusica(this.email, musica(aleatorio)) != null;
+            case PLAYLIST -> criarPlaylist(aleatorio);
+            case ESTATISTICAS -> estatistica(aleatorio) != null;
+        };
+    }
+
+    /**
+     * Escolhe uma música pela sua popularidade.
+     *
+     * @param aleatorio Gerador de números aleatórios.
+     * @return Nome da música.
+     */
+    private String musica(RandomGenerator aleatorio) {
+        return GeradorDados.nomeMusica(this.musicas.amostra(aleatorio) - 1);
+    }
+
+    /**
+     * Cria uma playlist com um nome novo e músicas escolhidas pela popularidade.
+     *
+     * @param aleatorio Gerador de números aleatórios.
+     * @return true.
+     */
+    private boolean criarPlaylist(RandomGenerator aleatorio) {
+        List<String> nomes = new ArrayList<>(MUSICAS_POR_PLAYLIST);
+        for (int i = 0; i < MUSICAS_POR_PLAYLIST; i++) {
+            nomes.add(musica(aleatorio));
+        }
+        String nome = "Carga " + this.indice + "-" + this.playlists.incrementAndGet();
+        this.controller.adicionarPlaylistConstruida(nome, this.email, aleatorio.nextBoolean(), nomes);
+        return true;
+    }
+
+    /**
+     * Consulta uma das estatísticas, escolhida ao acaso.
+     *
+     * @param aleatorio Gerador de números aleatórios.
+     * @return Resultado da consulta.
+     */
+    private Object estatistica(RandomGenerator aleatorio) {
+        return switch (aleatorio.nextInt(6)) {
+            case 0 -> this.controller.topMusicas(TOP);
+            case 1 -> this.controller.topArtistas(TOP);
+            case 2 -> this.controller.topGeneros(TOP);
+            case 3 -> this.controller.topArtistasPorGenero(GENEROS[aleatorio.nextInt(GENEROS.length)], TOP);
+            case 4 -> this.controller.generoMaisReproduzido();
+            default -> this.controller.calcArtistaMaisEscutado();
+        };
+    }
+}
@@ -0,0 +1,99 @@
+package Benchmarks;
+
+import Classes.GestorFicheiros;
+import SpotifUM.SpotifUM;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks de {@link GestorFicheiros#guardarEstado(SpotifUM, String)} e
+ * {@link GestorFicheiros#carregarEstado(String)}, sobre conjuntos de dados de 1 mil a 10 milhões de reproduções
+ * (ver {@link DadosBenchmark}). O estado é guardado numa pasta temporária, apagada no fim com os segmentos
+ * do catálogo criados em cada gravação.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class PersistenciaBenchmark {
+
+    /**
+     * Número de reproduções do conjunto de dados.
+     */
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int reproducoes;
+
+    private GestorFicheiros gestor;
+    private SpotifUM modelo;
+    private Path pasta;
+    private String ficheiro;
+
+    /**
+     * Cria o modelo e guarda-o uma vez, para haver um ficheiro a carregar.
+     *
+     * @throws IOException Se não for possível guardar o estado.
+     */
+    @Setup
+    public void preparar() throws IOException {
+        this.gestor = new GestorFicheiros();
+        this.modelo = DadosBenchmark.criarModelo(this.reproducoes);
+        this.pasta = Files.createTempDirectory("benchmark-persistencia");
+        this.ficheiro = this.pasta.resolve("SpotifUM.dat").toString();
+        this.gestor.guardarEstado(this.modelo, this.ficheiro);
+    }
+
+    /**
+     * Apaga a pasta temporária.
+     *
+     * @throws IOException Se não for possível apagar a pasta.
+     */
+    @TearDown
+    public void terminar() throws IOException {
+        try (Stream<Path> ficheiros = Files.walk(this.pasta)) {
+            for (Path p : ficheiros.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(p);
+            }
+        }
+    }
+
+    /**
+     * Guarda o estado do modelo.
+     *
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    @Benchmark
+    public void guardarEstado() throws IOException {
+        this.gestor.guardarEstado(this.modelo, this.ficheiro);
+    }
+
+    /**
+     * Carrega o estado guardado.
+     *
+     * @return Modelo carregado.
+     * @throws IOException            Se ocorrer um erro de leitura.
+     * @throws ClassNotFoundException Se o ficheiro estiver no formato antigo e uma classe não existir.
+     */
+    @Benchmark
+    public SpotifUM carregarEstado() throws IOException, ClassNotFoundException {
+        return this.gestor.carregarEstado(this.ficheiro);
+    }
+}
@@ -0,0 +1,126 @@
+package Benchmarks;
+
+import SpotifUM.SpotifUM;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks da pesquisa de texto livre ({@link SpotifUM#pesquisarMusicas(String, int)}) e das sugestões de nomes
+ * ({@link SpotifUM#sugerirMusicas(String, int)}) sobre catálogos de 10 mil a 1 milhão de músicas (ver {@link DadosBenchmark#criarCatalogo(int)}). Os nomes gerados são da forma
+ * "Musica N" e as letras da forma "Verso N", pelo que "musica" e "verso" ocorrem em todas as músicas e cada
+ * número de verso em cerca de 0,6% delas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class PesquisaBenchmark {
+
+    private static final int TOP = 10;
+
+    /**
+     * Número de músicas do catálogo.
+     */
+    @Param({"10000", "1000000"})
+    public int musicas;
+
+    private SpotifUM modelo;
+    private String nomeRaro;
+    private String nomeTrocado;
+    private String nomeAlongado;
+
+    /**
+     * Cria o catálogo.
+     */
+    @Setup
+    public void preparar() {
+        this.modelo = DadosBenchmark.criarCatalogo(this.musicas);
+        this.nomeRaro = DadosBenchmark.nomeMusica(this.musicas / 2);
+        this.nomeTrocado = "Muscia " + (this.musicas / 2);
+        this.nomeAlongado = this.nomeRaro + "x";
+    }
+
+    /**
+     * Nome de uma música: um termo raro e um termo que ocorre em todas.
+     *
+     * @return Músicas encontradas.
+     */
+    @Benchmark
+    public List<?> termoRaroEComum() {
+        return this.modelo.pesquisarMusicas(this.nomeRaro, TOP);
+    }
+
+    /**
+     * Dois termos frequentes ("verso" em todas as músicas, o número em cerca de 0,6%).
+     *
+     * @return Músicas encontradas.
+     */
+    @Benchmark
+    public List<?> termosFrequentes() {
+        return this.modelo.pesquisarMusicas("verso 42", TOP);
+    }
+
+    /**
+     * Pior caso: um único termo que ocorre em todas as músicas.
+     *
+     * @return Músicas encontradas.
+     */
+    @Benchmark
+    public List<?> termoEmTodas() {
+        return this.modelo.pesquisarMusicas("verso", TOP);
+    }
+
+    /**
+     * Frase de dois termos frequentes.
+     *
+     * @return Músicas encontradas.
+     */
+    @Benchmark
+    public List<?> frase() {
+        return this.modelo.pesquisarMusicas("\"verso 42\"", TOP);
+    }
+
+    /**
+     * Prefixo expandido no número máximo de termos.
+     *
+     * @return Músicas encontradas.
+     */
+    @Benchmark
+    public List<?> prefixo() {
+        return this.modelo.pesquisarMusicas("musica 12*", TOP);
+    }
+
+    /**
+     * Sugestões para um nome com duas letras trocadas.
+     *
+     * @return Nomes sugeridos.
+     */
+    @Benchmark
+    public List<?> sugestaoLetrasTrocadas() {
+        return this.modelo.sugerirMusicas(this.nomeTrocado, TOP);
+    }
+
+    /**
+     * Pior caso das sugestões: um carácter a mais num nome com muitos vizinhos a distância 2 (os outros números).
+     *
+     * @return Nomes sugeridos.
+     */
+    @Benchmark
+    public List<?> sugestaoNomesParecidos() {
+        return this.modelo.sugerirMusicas(this.nomeAlongado, TOP);
+    }
+}
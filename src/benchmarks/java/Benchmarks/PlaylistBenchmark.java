@@ -0,0 +1,89 @@
+package Benchmarks;
+
+import Classes.Artista;
+import Classes.Genero;
+import Classes.Musicas.Musica;
+import Classes.Playlists.Playlist;
+import Classes.Playlists.PlaylistConstruida;
+import Classes.Utilizador;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de {@link Playlist#adicionarMusica(Musica)} numa playlist que já tem um dado número de músicas.
+ * A playlist é recriada no início de cada iteração, para não crescer de uma iteração para a outra.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class PlaylistBenchmark {
+
+    private static final int CATALOGO = 1024;
+
+    /**
+     * Número de músicas da playlist no início de cada iteração.
+     */
+    @Param({"1000", "100000", "1000000"})
+    public int tamanho;
+
+    private Musica[] catalogo;
+    private Playlist playlist;
+    private int proxima;
+
+    /**
+     * Cria as músicas usadas pelo benchmark.
+     */
+    @Setup
+    public void prepararCatalogo() {
+        Artista artista = new Artista("Artista", "Portugal");
+        Genero[] generos = Genero.values();
+        this.catalogo = new Musica[CATALOGO];
+        for (int m = 0; m < CATALOGO; m++) {
+            this.catalogo[m] = new Musica(DadosBenchmark.nomeMusica(m), artista, "Editora", List.of("letra " + m),
+                    List.of("melodia " + m), generos[m % generos.length], 180, 0);
+        }
+    }
+
+    /**
+     * Cria a playlist com o tamanho inicial.
+     */
+    @Setup(Level.Iteration)
+    public void prepararPlaylist() {
+        ArrayList<Musica> musicas = new ArrayList<>(this.tamanho);
+        for (int i = 0; i < this.tamanho; i++) {
+            musicas.add(this.catalogo[i % CATALOGO]);
+        }
+        this.playlist = new PlaylistConstruida("Playlist", new Utilizador(), DadosBenchmark.INICIO.toLocalDate(),
+                true, musicas);
+        this.proxima = 0;
+    }
+
+    /**
+     * Adiciona uma música ao fim da playlist.
+     *
+     * @return Playlist alterada.
+     */
+    @Benchmark
+    public Playlist adicionarMusica() {
+        this.playlist.adicionarMusica(this.catalogo[this.proxima]);
+        this.proxima = (this.proxima + 1) & (CATALOGO - 1);
+        return this.playlist;
+    }
+}
@@ -0,0 +1,84 @@
+package Benchmarks;
+
+import Classes.Playlists.Playlist;
+import SpotifUM.SpotifUM;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks das recomendações por co-audição, sobre conjuntos de dados de 100 mil a 10 milhões de reproduções
+ * (ver {@link DadosBenchmark}): a construção da tabela de vizinhos ({@link SpotifUM#atualizarRecomendacoes()}) e a
+ * geração de uma playlist de favoritos com a tabela já construída, para os utilizadores com reproduções.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class RecomendacoesBenchmark {
+
+    private static final int UTILIZADORES = 64;
+
+    /**
+     * Número de reproduções do conjunto de dados.
+     */
+    @Param({"100000", "1000000", "10000000"})
+    public int reproducoes;
+
+    private SpotifUM modelo;
+    private List<String> emails;
+    private int proximo;
+
+    /**
+     * Cria o modelo, a tabela de recomendações e a lista dos utilizadores com reproduções.
+     */
+    @Setup
+    public void preparar() {
+        this.modelo = DadosBenchmark.criarModelo(this.reproducoes);
+        this.modelo.atualizarRecomendacoes();
+        this.emails = new ArrayList<>();
+        for (int u = 0; u < DadosBenchmark.utilizadores(this.reproducoes) && this.emails.size() < UTILIZADORES; u++) {
+            String email = DadosBenchmark.email(u);
+            if (!this.modelo.capturarReproducoes(email).isEmpty()) this.emails.add(email);
+        }
+        this.proximo = 0;
+    }
+
+    /**
+     * Constrói a tabela de recomendações a partir do histórico inteiro.
+     *
+     * @return Modelo com a tabela nova.
+     */
+    @Benchmark
+    public SpotifUM construir() {
+        this.modelo.atualizarRecomendacoes();
+        return this.modelo;
+    }
+
+    /**
+     * Gera a playlist de favoritos de um utilizador, com o histórico capturado como o controlador o faz.
+     *
+     * @return Playlist gerada.
+     */
+    @Benchmark
+    public Playlist gerarPlaylistFavorita() {
+        String email = this.emails.get(this.proximo);
+        this.proximo = (this.proximo + 1) % this.emails.size();
+        return this.modelo.gerarPlaylistFavorita("Favoritas", this.modelo.getUtilizadorPorEmail(email),
+                this.modelo.capturarReproducoes(email), this.modelo.vistaMusicas());
+    }
+}
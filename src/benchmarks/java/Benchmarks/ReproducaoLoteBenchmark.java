@@ -0,0 +1,185 @@
+package Benchmarks;
+
+import Classes.Artista;
+import Classes.Genero;
+import Classes.Historico.EventoReproducao;
+import Classes.Musicas.Musica;
+import Classes.Persistencia.GestorDurabilidade;
+import SpotifUM.SpotifUM;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compara o débito do registo de reproduções uma a uma ({@link SpotifUM#reproduzirMusicaSemSaida}) com o registo
+ * em lote ({@link SpotifUM#reproduzirLote(List)}), sobre o mesmo conjunto de reproduções geradas com uma semente fixa.
+ * A equivalência dos dois caminhos é verificada nos testes do {@link SpotifUM}.
+ *
+ * Argumentos (todos opcionais): número de reproduções, de utilizadores, de músicas, tamanho dos lotes e
+ * {@code diario} para registar as operações num diário em disco.
+ * Exemplo: {@code java -cp out Benchmarks.ReproducaoLoteBenchmark 1000000 10000 5000 1000 diario}
+ */
+public class ReproducaoLoteBenchmark {
+
+    private static final long SEMENTE = 42;
+    private static final LocalDateTime INICIO = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    /**
+     * Executa o benchmark.
+     *
+     * @param args Argumentos da linha de comandos.
+     * @throws Exception Se não for possível criar ou recuperar os diários.
+     */
+    public static void main(String[] args) throws Exception {
+        int reproducoes = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+        int utilizadores = (args.length > 1) ? Integer.parseInt(args[1]) : 10_000;
+        int musicas = (args.length > 2) ? Integer.parseInt(args[2]) : 5_000;
+        int tamanhoLote = (args.length > 3) ? Integer.parseInt(args[3]) : 1_000;
+        boolean diario = args.length > 4 && args[4].equals("diario");
+
+        List<EventoReproducao> eventos = gerarEventos(reproducoes, utilizadores, musicas);
+
+        // aquecimento, para as duas variantes serem medidas já compiladas
+        List<EventoReproducao> aquecimento = gerarEventos(Math.min(reproducoes, 200_000), utilizadores, musicas);
+        sequencial(criarModelo(utilizadores, musicas, null), aquecimento);
+        emLote(criarModelo(utilizadores, musicas, null), aquecimento, tamanhoLote);
+
+        Path pasta = diario ? Files.createTempDirectory("benchmark-lote") : null;
+        GestorDurabilidade gestorSequencial = diario ? gestor(pasta, "sequencial") : null;
+        GestorDurabilidade gestorLote = diario ? gestor(pasta, "lote") : null;
+        SpotifUM modeloSequencial = criarModelo(utilizadores, musicas, gestorSequencial);
+        SpotifUM modeloLote = criarModelo(utilizadores, musicas, gestorLote);
+
+        long tempoSequencial = sequencial(modeloSequencial, eventos);
+        long tempoLote = emLote(modeloLote, eventos, tamanhoLote);
+        if (diario) {
+            gestorSequencial.fechar(modeloSequencial);
+            gestorLote.fechar(modeloLote);
+        }
+
+        System.out.printf("reproduções=%d utilizadores=%d músicas=%d lote=%d diário=%s%n",
+                reproducoes, utilizadores, musicas, tamanhoLote, diario ? "sim" : "não");
+        System.out.printf("uma a uma: %8d ms  %,12.0f reproduções/s%n", tempoSequencial / 1_000_000,
+                reproducoes * 1e9 / tempoSequencial);
+        System.out.printf("em lote:   %8d ms  %,12.0f reproduções/s  (%.1fx)%n", tempoLote / 1_000_000,
+                reproducoes * 1e9 / tempoLote, (double) tempoSequencial / tempoLote);
+    }
+
+    /**
+     * Gera reproduções com uma semente fixa. As músicas e os utilizadores mais baixos são escolhidos mais vezes,
+     * e os instantes avançam um segundo por reprodução.
+     *
+     * @param numero       Número de reproduções.
+     * @param utilizadores Número de utilizadores.
+     * @param musicas      Número de músicas.
+     * @return Reproduções geradas.
+     */
+    private static List<EventoReproducao> gerarEventos(int numero, int utilizadores, int musicas) {
+        Random aleatorio = new Random(SEMENTE);
+        List<EventoReproducao> eventos = new ArrayList<>(numero);
+        for (int i = 0; i < numero; i++) {
+            double u = aleatorio.nextDouble();
+            double m = aleatorio.nextDouble();
+            eventos.add(new EventoReproducao(email((int) (u * u * utilizadores)), nomeMusica((int) (m * m * musicas)),
+                    INICIO.plusSeconds(i)));
+        }
+        return eventos;
+    }
+
+    /**
+     * Cria um modelo com os artistas, as músicas e os utilizadores do benchmark.
+     *
+     * @param utilizadores Número de utilizadores.
+     * @param musicas      Número de músicas.
+     * @param gestor       Gestor de durabilidade (null para não usar diário).
+     * @return Modelo criado.
+     * @throws Exception Se não for possível recuperar o diário.
+     */
+    private static SpotifUM criarModelo(int utilizadores, int musicas, GestorDurabilidade gestor) throws Exception {
+        SpotifUM modelo = (gestor == null) ? new SpotifUM() : gestor.recuperar();
+        Genero[] generos = Genero.values();
+        modelo.executarEmLote(() -> {
+            int artistas = Math.max(1, musicas / 10);
+            for (int a = 0; a < artistas; a++) {
+                modelo.adicionarArtista(new Artista("Artista " + a, "Portugal"));
+            }
+            for (int m = 0; m < musicas; m++) {
+                Artista artista = modelo.getArtistaPorNome("Artista " + (m % artistas));
+                modelo.adicionarMusica(new Musica(nomeMusica(m), artista, "Editora", List.of("letra " + m),
+                        List.of("melodia " + m), generos[m % generos.length], 180, 0));
+            }
+            String[] planos = {"free", "premiumbase", "premiumtop"};
+            for (int u = 0; u < utilizadores; u++) {
+                modelo.registarUtilizadorPorScript(email(u), "Utilizador " + u, "Rua " + u, "123", planos[u % 3], "user");
+            }
+        });
+        return modelo;
+    }
+
+    /**
+     * Cria um gestor de durabilidade numa pasta.
+     *
+     * @param pasta Pasta dos ficheiros.
+     * @param nome  Prefixo dos ficheiros.
+     * @return Gestor criado.
+     */
+    private static GestorDurabilidade gestor(Path pasta, String nome) {
+        return new GestorDurabilidade(pasta.resolve(nome + ".dat"), pasta.resolve(nome + ".wal"));
+    }
+
+    /**
+     * Regista as reproduções uma a uma.
+     *
+     * @param modelo  Modelo.
+     * @param eventos Reproduções.
+     * @return Tempo gasto, em nanossegundos.
+     */
+    private static long sequencial(SpotifUM modelo, List<EventoReproducao> eventos) {
+        long inicio = System.nanoTime();
+        for (EventoReproducao e : eventos) {
+            modelo.reproduzirMusicaSemSaida(e.getEmail(), e.getNomeMusica(), e.getDataHora());
+        }
+        return System.nanoTime() - inicio;
+    }
+
+    /**
+     * Regista as reproduções em lotes.
+     *
+     * @param modelo      Modelo.
+     * @param eventos     Reproduções.
+     * @param tamanhoLote Número de reproduções por lote.
+     * @return Tempo gasto, em nanossegundos.
+     */
+    private static long emLote(SpotifUM modelo, List<EventoReproducao> eventos, int tamanhoLote) {
+        long inicio = System.nanoTime();
+        for (int i = 0; i < eventos.size(); i += tamanhoLote) {
+            modelo.reproduzirLote(eventos.subList(i, Math.min(eventos.size(), i + tamanhoLote)));
+        }
+        return System.nanoTime() - inicio;
+    }
+
+    /**
+     * Devolve o email do utilizador de índice dado.
+     *
+     * @param indice Índice do utilizador.
+     * @return Email.
+     */
+    private static String email(int indice) {
+        return "utilizador" + indice + "@spotifum.pt";
+    }
+
+    /**
+     * Devolve o nome da música de índice dado.
+     *
+     * @param indice Índice da música.
+     * @return Nome da música.
+     */
+    private static String nomeMusica(int indice) {
+        return "Musica " + indice;
+    }
+}
@@ -0,0 +1,212 @@
+package Benchmarks;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resultados de um teste de carga: a latência de cada operação, registada num histograma HdrHistogram
+ * (com 3 algarismos significativos), e o número de erros.
+ *
+ * O registo pode ser feito por várias threads ao mesmo tempo e sem bloqueios. {@link #fechar(long)} fixa os
+ * resultados, que podem depois ser mostrados ou exportados em CSV e em JSON. As latências são exportadas em
+ * microssegundos.
+ */
+public class ResultadosCarga {
+
+    private static final int ALGARISMOS = 3;
+    private static final String TOTAL = "total";
+
+    private final Map<OperacaoCarga, Recorder> registos;
+    private final Map<OperacaoCarga, LongAdder> erros;
+    private final Map<String, String> configuracao;
+    private Map<String, Histogram> histogramas;
+    private Map<String, Long> errosFinais;
+    private long duracaoNanos;
+
+    /**
+     * Cria os resultados de um teste.
+     *
+     * @param configuracao Configuração do teste (exportada com os resultados, para comparar execuções).
+     */
+    public ResultadosCarga(Map<String, String> configuracao) {
+        this.registos = new EnumMap<>(OperacaoCarga.class);
+        this.erros = new EnumMap<>(OperacaoCarga.class);
+        for (OperacaoCarga operacao : OperacaoCarga.values()) {
+            this.registos.put(operacao, new Recorder(ALGARISMOS));
+            this.erros.put(operacao, new LongAdder());
+        }
+        this.configuracao = new LinkedHashMap<>(configuracao);
+    }
+
+    /**
+     * Regista a latência de uma operação com sucesso.
+     *
+     * @param operacao Operação.
+     * @param nanos    Latência, em nanossegundos.
+     */
+    public void registar(OperacaoCarga operacao, long nanos) {
+        this.registos.get(operacao).recordValue(Math.max(0, nanos));
+    }
+
+    /**
+     * Regista uma operação que falhou.
+     *
+     * @param operacao Operação.
+     */
+    public void registarErro(OperacaoCarga operacao) {
+        this.erros.get(operacao).increment();
+    }
+
+    /**
+     * Fixa os resultados da medição.
+     *
+     * @param duracaoNanos Duração da medição, em nanossegundos, usada para calcular o débito.
+     */
+    public void fechar(long duracaoNanos) {
+        this.duracaoNanos = duracaoNanos;
+        this.histogramas = new LinkedHashMap<>();
+        this.errosFinais = new LinkedHashMap<>();
+        Histogram total = new Histogram(ALGARISMOS);
+        long errosTotal = 0;
+        for (OperacaoCarga operacao : OperacaoCarga.values()) {
+            Histogram h = this.registos.get(operacao).getIntervalHistogram();
+            long e = this.erros.get(operacao).sum();
+            if (h.getTotalCount() == 0 && e == 0) continue;
+            this.histogramas.put(operacao.getChave(), h);
+            this.errosFinais.put(operacao.getChave(), e);
+            total.add(h);
+            errosTotal += e;
+        }
+        this.histogramas.put(TOTAL, total);
+        this.errosFinais.put(TOTAL, errosTotal);
+    }
+
+    /**
+     * Devolve o histograma das latências de uma operação (ou de todas, com a chave {@code total}).
+     *
+     * @param chave Nome da operação.
+     * @return Histograma, em nanossegundos, ou null se a operação não tiver sido executada.
+     * @throws IllegalStateException Se os resultados ainda não tiverem sido fixados.
+     */
+    public Histogram getHistograma(String chave) {
+        verificarFechado();
+        return this.histogramas.get(chave);
+    }
+
+    /**
+     * Escreve uma tabela com os resultados.
+     *
+     * @param saida Destino da tabela.
+     * @throws IllegalStateException Se os resultados ainda não tiverem sido fixados.
+     */
+    public void mostrar(PrintStream saida) {
+        verificarFechado();
+        saida.printf(Locale.ROOT, "%-13s %10s %7s %12s %10s %10s %10s %10s %10s%n",
+                "operacao", "pedidos", "erros", "debito/s", "media(us)", "p50(us)", "p99(us)", "p999(us)", "max(us)");
+        for (Map.Entry<String, Histogram> e : this.histogramas.entrySet()) {
+            Histogram h = e.getValue();
+            saida.printf(Locale.ROOT, "%-13s %10d %7d %12.1f %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                    e.getKey(), h.getTotalCount(), this.errosFinais.get(e.getKey()), debito(h),
+                    micros(h.getMean()), micros(h.getValueAtPercentile(50)), micros(h.getValueAtPercentile(99)),
+                    micros(h.getValueAtPercentile(99.9)), micros(h.getMaxValue()));
+        }
+    }
+
+    /**
+     * Exporta os resultados em CSV, com uma linha por operação e uma linha {@code total}.
+     *
+     * @param ficheiro Ficheiro de destino.
+     * @throws IOException Se não for possível escrever o ficheiro.
+     * @throws IllegalStateException Se os resultados ainda não tiverem sido fixados.
+     */
+    public void exportarCsv(Path ficheiro) throws IOException {
+        verificarFechado();
+        try (Writer w = Files.newBufferedWriter(ficheiro, StandardCharsets.UTF_8)) {
+            w.write("operacao,pedidos,erros,debito_por_s,media_us,p50_us,p99_us,p999_us,max_us\n");
+            for (Map.Entry<String, Histogram> e : this.histogramas.entrySet()) {
+                Histogram h = e.getValue();
+                w.write(String.format(Locale.ROOT, "%s,%d,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f\n",
+                        e.getKey(), h.getTotalCount(), this.errosFinais.get(e.getKey()), debito(h),
+                        micros(h.getMean()), micros(h.getValueAtPercentile(50)), micros(h.getValueAtPercentile(99)),
+                        micros(h.getValueAtPercentile(99.9)), micros(h.getMaxValue())));
+            }
+        }
+    }
+
+    /**
+     * Exporta os resultados em JSON: a configuração do teste, a duração da medição e, para cada operação,
+     * os mesmos valores do CSV.
+     *
+     * @param ficheiro Ficheiro de destino.
+     * @throws IOException Se não for possível escrever o ficheiro.
+     * @throws IllegalStateException Se os resultados ainda não tiverem sido fixados.
+     */
+    public void exportarJson(Path ficheiro) throws IOException {
+        verificarFechado();
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\n  \"configuracao\": {");
+        boolean primeiro = true;
+        for (Map.Entry<String, String> e : this.configuracao.entrySet()) {
+            sb.append(primeiro ? "\n" : ",\n");
+            sb.append("    ").append(texto(e.getKey())).append(": ").append(texto(e.getValue()));
+            primeiro = false;
+        }
+        sb.append("\n  },\n");
+        sb.append(String.format(Locale.ROOT, "  \"duracao_s\": %.3f,\n", this.duracaoNanos / 1e9));
+        sb.append("  \"operacoes\": {");
+        primeiro = true;
+        for (Map.Entry<String, Histogram> e : this.histogramas.entrySet()) {
+            Histogram h = e.getValue();
+            sb.append(primeiro ? "\n" : ",\n");
+            sb.append(String.format(Locale.ROOT, "    %s: {\"pedidos\": %d, \"erros\": %d, \"debito_por_s\": %.3f, "
+                            + "\"media_us\": %.3f, \"p50_us\": %.3f, \"p99_us\": %.3f, \"p999_us\": %.3f, \"max_us\": %.3f}",
+                    texto(e.getKey()), h.getTotalCount(), this.errosFinais.get(e.getKey()), debito(h),
+                    micros(h.getMean()), micros(h.getValueAtPercentile(50)), micros(h.getValueAtPercentile(99)),
+                    micros(h.getValueAtPercentile(99.9)), micros(h.getMaxValue())));
+            primeiro = false;
+        }
+        sb.append("\n  }\n}\n");
+        Files.writeString(ficheiro, sb, StandardCharsets.UTF_8);
+    }
+
+    private void verificarFechado() {
+        if (this.histogramas == null) throw new IllegalStateException("Os resultados ainda não foram fixados");
+    }
+
+    private double debito(Histogram h) {
+        return (this.duracaoNanos == 0) ? 0 : h.getTotalCount() * 1e9 / this.duracaoNanos;
+    }
+
+    private static double micros(double nanos) {
+        return nanos / 1_000.0;
+    }
+
+    /**
+     * Converte um texto numa string JSON.
+     *
+     * @param s Texto.
+     * @return String JSON, entre aspas.
+     */
+    private static String texto(String s) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') sb.append('\\').append(c);
+            else if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+            else sb.append(c);
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,271 @@
+package Benchmarks;
+
+import Classes.Geracao.DistribuicaoZipf;
+import Controller.Controller;
+import SpotifUM.SpotifUM;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Teste de carga de ponta a ponta: ouvintes simulados ({@link OuvinteSimulado}) executam sessões realistas
+ * diretamente num {@link Controller} do mesmo processo, sobre um conjunto de dados gerado (ver
+ * {@link DadosBenchmark}), e mede-se o débito e a latência (p50, p99 e p99,9) de cada operação.
+ *
+ * Há dois modos:
+ * <ul>
+ *     <li><b>Ciclo fechado</b> ({@code modo=fechado}): cada ouvinte autentica-se e depois executa operações uma a
+ *     seguir à outra, com uma pausa opcional entre elas. O débito é o que o sistema consegue dar a esse número de
+ *     ouvintes; a latência é o tempo de serviço de cada operação.</li>
+ *     <li><b>Ciclo aberto</b> ({@code modo=aberto}): os pedidos chegam a uma taxa fixa, num processo de Poisson,
+ *     e cada um é feito por um ouvinte escolhido ao acaso, quer o sistema acompanhe quer não. A latência é medida
+ *     a partir do instante em que o pedido devia ter começado, pelo que inclui o tempo em fila (não sofre de
+ *     omissão coordenada).</li>
+ * </ul>
+ * Os pedidos executam em threads virtuais (uma por pedido) ou num conjunto fixo de threads. Só contam os
+ * pedidos que começam depois do aquecimento.
+ *
+ * Argumentos (todos opcionais, {@code nome=valor}): {@code modo} (fechado), {@code utilizadores} (100),
+ * {@code threads} (0 para threads virtuais), {@code duracao} e {@code aquecimento} em segundos (30 e 10),
+ * {@code taxa} em pedidos por segundo no ciclo aberto (1000), {@code pausa} em milissegundos no ciclo fechado (0),
+ * {@code mistura} (ver {@link MisturaOperacoes#OMISSAO}), {@code reproducoes} do conjunto de dados (100000),
+ * {@code semente} (42) e os ficheiros {@code csv} e {@code json} para exportar os resultados.
+ * Exemplo: {@code java -cp benchmarks.jar Benchmarks.TesteCarga modo=aberto taxa=5000 threads=8 json=carga.json}
+ */
+public class TesteCarga {
+
+    private static final long PRAZO_TERMINO_SEGUNDOS = 60;
+
+    private final Map<String, String> configuracao;
+    private final boolean aberto;
+    private final int threads;
+    private final long duracaoNanos;
+    private final long aquecimentoNanos;
+    private final double taxa;
+    private final long pausaMillis;
+    private final MisturaOperacoes mistura;
+    private final long semente;
+    private final OuvinteSimulado[] ouvintes;
+    private final ResultadosCarga resultados;
+    private long inicioMedicao;
+    private long fim;
+
+    /**
+     * Prepara um teste de carga.
+     *
+     * @param configuracao Configuração do teste (já com os valores por omissão).
+     * @param controller   Controller onde as operações são executadas.
+     * @param utilizadores Número de utilizadores do conjunto de dados.
+     * @param musicas      Número de músicas do conjunto de dados.
+     * @throws IllegalArgumentException Se algum valor da configuração for inválido.
+     */
+    private TesteCarga(Map<String, String> configuracao, Controller controller, int utilizadores, int musicas) {
+        this.configuracao = configuracao;
+        this.aberto = switch (configuracao.get("modo")) {
+            case "fechado" -> false;
+            case "aberto" -> true;
+            default -> throw new IllegalArgumentException("Modo inválido: " + configuracao.get("modo"));
+        };
+        this.threads = positivo("threads", true);
+        this.duracaoNanos = TimeUnit.SECONDS.toNanos(positivo("duracao", false));
+        this.aquecimentoNanos = TimeUnit.SECONDS.toNanos(positivo("aquecimento", true));
+        this.taxa = Double.parseDouble(configuracao.get("taxa"));
+        if (!(this.taxa > 0)) throw new IllegalArgumentException("Taxa inválida: " + configuracao.get("taxa"));
+        this.pausaMillis = positivo("pausa", true);
+        this.mistura = MisturaOperacoes.analisar(configuracao.get("mistura"));
+        this.semente = Long.parseLong(configuracao.get("semente"));
+
+        DistribuicaoZipf popularidade = new DistribuicaoZipf(musicas, 1.0);
+        this.ouvintes = new OuvinteSimulado[positivo("utilizadores", false)];
+        for (int i = 0; i < this.ouvintes.length; i++) {
+            this.ouvintes[i] = new OuvinteSimulado(controller, i % utilizadores, popularidade);
+        }
+        this.resultados = new ResultadosCarga(configuracao);
+    }
+
+    /**
+     * Executa o teste de carga.
+     *
+     * @param args Argumentos da linha de comandos.
+     * @throws Exception Se não for possível exportar os resultados ou se o teste for interrompido.
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> configuracao = new LinkedHashMap<>();
+        configuracao.put("modo", "fechado");
+        configuracao.put("utilizadores", "100");
+        configuracao.put("threads", "0");
+        configuracao.put("duracao", "30");
+        configuracao.put("aquecimento", "10");
+        configuracao.put("taxa", "1000");
+        configuracao.put("pausa", "0");
+        configuracao.put("mistura", MisturaOperacoes.OMISSAO);
+        configuracao.put("reproducoes", "100000");
+        configuracao.put("semente", "42");
+        configuracao.put("csv", "");
+        configuracao.put("json", "");
+        for (String argumento : args) {
+            int igual = argumento.indexOf('=');
+            if (igual < 0) throw new IllegalArgumentException("Argumento inválido (esperado nome=valor): " + argumento);
+            String nome = argumento.substring(0, igual);
+            if (!configuracao.containsKey(nome)) throw new IllegalArgumentException("Parâmetro desconhecido: " + nome);
+            configuracao.put(nome, argumento.substring(igual + 1));
+        }
+
+        int reproducoes = Integer.parseInt(configuracao.get("reproducoes"));
+        System.out.printf("a gerar o conjunto de dados (%d reproduções)...%n", reproducoes);
+        SpotifUM modelo = DadosBenchmark.criarModelo(reproducoes);
+        TesteCarga teste = new TesteCarga(configuracao, new Controller(modelo),
+                DadosBenchmark.utilizadores(reproducoes), DadosBenchmark.musicas(reproducoes));
+
+        System.out.println(configuracao);
+        teste.executar();
+        teste.resultados.mostrar(System.out);
+
+        if (!configuracao.get("csv").isEmpty()) teste.resultados.exportarCsv(Path.of(configuracao.get("csv")));
+        if (!configuracao.get("json").isEmpty()) teste.resultados.exportarJson(Path.of(configuracao.get("json")));
+    }
+
+    /**
+     * Executa o aquecimento e a medição, e fixa os resultados.
+     *
+     * @throws InterruptedException Se a thread for interrompida.
+     */
+    private void executar() throws InterruptedException {
+        ExecutorService executor = (this.threads == 0)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(this.threads);
+        long inicio = System.nanoTime();
+        this.inicioMedicao = inicio + this.aquecimentoNanos;
+        this.fim = this.inicioMedicao + this.duracaoNanos;
+        try {
+            if (this.aberto) cicloAberto(executor);
+            else cicloFechado(executor);
+        } finally {
+            executor.shutdown();
+            if (!executor.awaitTermination(PRAZO_TERMINO_SEGUNDOS, TimeUnit.SECONDS)) {
+                int pendentes = executor.shutdownNow().size();
+                System.err.printf("o teste terminou com %d pedidos por executar%n", pendentes);
+            }
+        }
+        this.resultados.fechar(this.duracaoNanos);
+    }
+
+    /**
+     * Ciclo fechado: cada ouvinte executa uma operação de cada vez até ao fim do teste. Depois de cada operação,
+     * a sessão volta a ser submetida ao executor (diretamente ou depois da pausa), para que um conjunto fixo de
+     * threads consiga servir mais ouvintes do que threads.
+     *
+     * @param executor Executor dos pedidos.
+     * @throws InterruptedException Se a thread for interrompida.
+     */
+    private void cicloFechado(ExecutorService executor) throws InterruptedException {
+        CountDownLatch terminadas = new CountDownLatch(this.ouvintes.length);
+        ScheduledExecutorService pausas = Executors.newSingleThreadScheduledExecutor();
+        try {
+            SplittableRandom aleatorio = new SplittableRandom(this.semente);
+            for (OuvinteSimulado ouvinte : this.ouvintes) {
+                executor.execute(new SessaoFechada(ouvinte, aleatorio.split(), executor, pausas, terminadas));
+            }
+            terminadas.await();
+        } finally {
+            pausas.shutdownNow();
+        }
+    }
+
+    /**
+     * Ciclo aberto: os pedidos são submetidos à taxa configurada, com intervalos exponenciais, até ao fim do teste.
+     *
+     * @param executor Executor dos pedidos.
+     */
+    private void cicloAberto(ExecutorService executor) {
+        SplittableRandom aleatorio = new SplittableRandom(this.semente);
+        double intervaloMedio = 1e9 / this.taxa;
+        long proximo = System.nanoTime();
+        while (proximo < this.fim) {
+            long espera;
+            while ((espera = proximo - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(espera);
+            }
+            OuvinteSimulado ouvinte = this.ouvintes[aleatorio.nextInt(this.ouvintes.length)];
+            OperacaoCarga operacao = this.mistura.escolher(aleatorio);
+            SplittableRandom aleatorioPedido = aleatorio.split();
+            long previsto = proximo;
+            executor.execute(() -> medir(ouvinte, operacao, aleatorioPedido, previsto));
+            proximo += (long) (-Math.log(1 - aleatorio.nextDouble()) * intervaloMedio);
+        }
+    }
+
+    /**
+     * Executa uma operação e regista a sua latência, se tiver começado (ou devido começar) depois do aquecimento.
+     *
+     * @param ouvinte   Ouvinte que executa a operação.
+     * @param operacao  Operação.
+     * @param aleatorio Gerador de números aleatórios do pedido.
+     * @param inicio    Instante a partir do qual a latência é medida, em {@link System#nanoTime()}.
+     */
+    private void medir(OuvinteSimulado ouvinte, OperacaoCarga operacao, SplittableRandom aleatorio, long inicio) {
+        boolean sucesso;
+        try {
+            sucesso = ouvinte.executar(operacao, aleatorio);
+        } catch (RuntimeException e) {
+            sucesso = false;
+        }
+        long latencia = System.nanoTime() - inicio;
+        if (inicio < this.inicioMedicao) return;
+        if (sucesso) this.resultados.registar(operacao, latencia);
+        else this.resultados.registarErro(operacao);
+    }
+
+    private int positivo(String nome, boolean zero) {
+        int valor = Integer.parseInt(this.configuracao.get(nome));
+        if (valor < 0 || (valor == 0 && !zero)) {
+            throw new IllegalArgumentException("Valor inválido para " + nome + ": " + valor);
+        }
+        return valor;
+    }
+
+    /**
+     * Sessão de um ouvinte no ciclo fechado: cada execução faz uma operação e volta a submeter a sessão.
+     */
+    private class SessaoFechada implements Runnable {
+        private final OuvinteSimulado ouvinte;
+        private final SplittableRandom aleatorio;
+        private final ExecutorService executor;
+        private final ScheduledExecutorService pausas;
+        private final CountDownLatch terminadas;
+        private boolean autenticado;
+
+        SessaoFechada(OuvinteSimulado ouvinte, SplittableRandom aleatorio, ExecutorService executor,
+                      ScheduledExecutorService pausas, CountDownLatch terminadas) {
+            this.ouvinte = ouvinte;
+            this.aleatorio = aleatorio;
+            this.executor = executor;
+            this.pausas = pausas;
+            this.terminadas = terminadas;
+            this.autenticado = false;
+        }
+
+        @Override
+        public void run() {
+            long inicio = System.nanoTime();
+            if (inicio >= fim) {
+                this.terminadas.countDown();
+                return;
+            }
+            OperacaoCarga operacao = this.autenticado ? mistura.escolher(this.aleatorio) : OperacaoCarga.LOGIN;
+            this.autenticado = true;
+            medir(this.ouvinte, operacao, this.aleatorio, inicio);
+
+            if (pausaMillis == 0) this.executor.execute(this);
+            else this.pausas.schedule(() -> this.executor.execute(this), pausaMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -9,6 +9,9 @@ import java.util.ArrayList;
 /**
  * Representa um álbum musical que contém várias músicas de um determinado artista.
  * Um álbum tem um nome, uma data de lançamento, um autor (artista) e uma lista de músicas.
+ *
+ * As músicas não são copiadas: o álbum guarda referências para as músicas do catálogo,
+ * que são partilhadas por todos os álbuns, playlists e bibliotecas onde aparecem.
  */
 public class Album implements Serializable {
     private String nome;
@@ -82,16 +85,12 @@ public class Album implements Serializable {
     }
 
     /**
-     * Retorna uma cópia da lista de músicas do álbum.
+     * Retorna uma cópia da lista de músicas do álbum (as músicas são as mesmas).
      *
      * @return Lista de músicas.
      */
     public ArrayList<Musica> getMusicas() {
-        ArrayList<Musica> musicasCopy = new ArrayList<>();
-        for(Musica musica : this.musicas){
-            musicasCopy.add(musica.clone());
-        }
-        return musicasCopy;
+        return new ArrayList<>(this.musicas);
     }
 
     /**
@@ -122,16 +121,12 @@ public class Album implements Serializable {
     }
 
     /**
-     * Define a lista de músicas do álbum, usando cópias defensivas.
+     * Define a lista de músicas do álbum (a lista é copiada, as músicas não).
      *
      * @param musicas Lista de músicas.
      */
     public void setMusicas(ArrayList<Musica> musicas) {
-        ArrayList<Musica> newMusicas = new ArrayList<>();
-        for(Musica musica : musicas){
-            newMusicas.add(musica.clone());
-        }
-        this.musicas = newMusicas;
+        this.musicas = new ArrayList<>(musicas);
     }
 
     /**
@@ -197,7 +192,7 @@ public class Album implements Serializable {
             if (this.musicas == null) {
                 this.musicas = new ArrayList<>();
             }
-            this.musicas.add(musica.clone());
+            this.musicas.add(musica);
         }
     }
 
@@ -0,0 +1,156 @@
+package Classes.Concorrencia;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Executa operações submetidas por várias threads, uma de cada vez, agrupando-as em rondas (<i>flat combining</i>).
+ *
+ * Cada thread acrescenta a sua operação a uma fila sem trincos e tenta depois ficar com o trinco do combinador.
+ * A thread que o obtém executa, por ordem, todas as operações pendentes (as suas e as das outras threads) numa
+ * ronda; as restantes não esperam pelo trinco, mas sim pela sua operação: são acordadas quando ela é concluída
+ * e limitam-se a ler o resultado. Enquanto uma ronda decorre, as operações novas acumulam-se na fila e são
+ * executadas todas na ronda seguinte, por uma das threads que as submeteram.
+ * As alterações continuam a ser aplicadas por uma thread de cada vez, mas sem que cada thread tenha de esperar
+ * pela sua vez: com muitas threads, a maior parte das operações é executada por outra e o trabalho de cada ronda
+ * (por exemplo, a escrita em disco de um lote) é feito uma só vez para todas as operações da ronda.
+ *
+ * A ronda é executada através de uma função fornecida no construtor, que recebe o corpo da ronda e o deve executar
+ * uma vez, podendo fazer trabalho antes ou depois. Se essa função lançar uma exceção, todas as operações da ronda
+ * que não tenham falhado por si falham com essa exceção. Os efeitos das operações já executadas não são desfeitos:
+ * cabe a quem fornece a função decidir o que fazer com eles (o SpotifUM, por exemplo, deixa de aceitar alterações).
+ */
+public class CombinadorOperacoes {
+
+    /**
+     * Número máximo de operações executadas numa ronda, para limitar a espera da thread que combina.
+     */
+    public static final int MAXIMO_POR_RONDA = 1024;
+
+    private final ConcurrentLinkedQueue<OperacaoPendente<?>> pendentes;
+    private final ReentrantLock trinco;
+    private final Consumer<Runnable> ronda;
+    private long rondas;
+    private long operacoes;
+
+    /**
+     * Construtor por omissão. As rondas limitam-se a executar as operações.
+     */
+    public CombinadorOperacoes() {
+        this(Runnable::run);
+    }
+
+    /**
+     * Construtor parametrizado.
+     *
+     * @param ronda Função que executa o corpo de cada ronda.
+     */
+    public CombinadorOperacoes(Consumer<Runnable> ronda) {
+        this.pendentes = new ConcurrentLinkedQueue<>();
+        this.trinco = new ReentrantLock();
+        this.ronda = ronda;
+        this.rondas = 0;
+        this.operacoes = 0;
+    }
+
+    /**
+     * Executa uma operação, esperando que termine. Se for chamado a partir de uma operação (ou de
+     * {@link #executarExclusivo(Supplier)}), a operação é executada de imediato, na ronda atual.
+     *
+     * @param operacao Operação a executar.
+     * @param <R>      Tipo do resultado.
+     * @return Resultado da operação.
+     */
+    public <R> R executar(Supplier<R> operacao) {
+        if (this.trinco.isHeldByCurrentThread()) return operacao.get();
+
+        OperacaoPendente<R> pendente = new OperacaoPendente<>(operacao, Thread.currentThread());
+        this.pendentes.add(pendente);
+        while (!pendente.isConcluida()) {
+            if (this.trinco.tryLock()) {
+                try {
+                    while (!pendente.isConcluida()) {
+                        combinar();
+                    }
+                } finally {
+                    libertar();
+                }
+            } else {
+                // acordada quando a operação é concluída ou quando o trinco fica livre com operações pendentes
+                LockSupport.park(this);
+            }
+        }
+        return pendente.getResultado();
+    }
+
+    /**
+     * Executa uma leitura sem nenhuma operação a decorrer em simultâneo.
+     * A leitura é feita pela própria thread, fora das rondas.
+     *
+     * @param leitura Leitura a executar.
+     * @param <R>     Tipo do resultado.
+     * @return Resultado da leitura.
+     */
+    public <R> R executarExclusivo(Supplier<R> leitura) {
+        this.trinco.lock();
+        try {
+            return leitura.get();
+        } finally {
+            libertar();
+        }
+    }
+
+    /**
+     * Liberta o trinco e, se houver operações pendentes, acorda a thread dona da primeira, para que
+     * execute a ronda seguinte (a thread pode ter desistido do trinco enquanto ele estava ocupado).
+     */
+    private void libertar() {
+        this.trinco.unlock();
+        if (this.trinco.getHoldCount() > 0) return;
+        OperacaoPendente<?> seguinte = this.pendentes.peek();
+        if (seguinte != null) LockSupport.unpark(seguinte.getDono());
+    }
+
+    /**
+     * Executa uma ronda com as operações pendentes. Tem de ser chamado com o trinco.
+     */
+    private void combinar() {
+        List<OperacaoPendente<?>> ronda = new ArrayList<>();
+        OperacaoPendente<?> pendente;
+        while (ronda.size() < MAXIMO_POR_RONDA && (pendente = this.pendentes.poll()) != null) {
+            ronda.add(pendente);
+        }
+
+        try {
+            this.ronda.accept(() -> ronda.forEach(OperacaoPendente::executar));
+        } catch (RuntimeException | Error e) {
+            ronda.forEach(p -> p.falhar(e));
+        }
+        ronda.forEach(OperacaoPendente::concluir);
+        this.rondas++;
+        this.operacoes += ronda.size();
+    }
+
+    /**
+     * Devolve o número de rondas executadas até agora.
+     *
+     * @return Número de rondas.
+     */
+    public long getRondas() {
+        return executarExclusivo(() -> this.rondas);
+    }
+
+    /**
+     * Devolve o número de operações executadas em rondas até agora.
+     *
+     * @return Número de operações.
+     */
+    public long getOperacoes() {
+        return executarExclusivo(() -> this.operacoes);
+    }
+}
@@ -0,0 +1,114 @@
+package Classes.Concorrencia;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * Lista onde só se acrescentam elementos, que pode ser lida por várias threads enquanto outra acrescenta.
+ *
+ * Usada para as coleções do modelo que nunca perdem elementos (músicas, álbuns, playlists): acrescentar é
+ * sincronizado, mas ler não bloqueia. Um elemento só passa a contar para o tamanho depois de estar escrito
+ * no array, e o tamanho e o array são publicados por campos voláteis, pelo que uma thread que veja o tamanho
+ * {@code n} vê também os primeiros {@code n} elementos, mesmo que o array tenha entretanto crescido.
+ * Percorrer a lista nunca lança {@link java.util.ConcurrentModificationException}: os elementos acrescentados
+ * durante o percurso podem ou não aparecer.
+ *
+ * Os métodos de {@link java.util.List} que removem ou substituem elementos não são suportados.
+ *
+ * @param <T> Tipo dos elementos.
+ */
+public class ListaAcrescentavel<T> extends AbstractList<T> implements RandomAccess, Serializable {
+
+    private transient volatile Object[] elementos;
+    private transient volatile int tamanho;
+
+    /**
+     * Construtor por omissão. Cria uma lista vazia.
+     */
+    public ListaAcrescentavel() {
+        this.elementos = new Object[16];
+        this.tamanho = 0;
+    }
+
+    /**
+     * Cria uma lista com os elementos de uma coleção, pela mesma ordem. Os elementos não são copiados.
+     *
+     * @param elementos Coleção de origem.
+     */
+    public ListaAcrescentavel(Collection<? extends T> elementos) {
+        Object[] copia = elementos.toArray();
+        this.elementos = Arrays.copyOf(copia, Math.max(16, copia.length), Object[].class);
+        this.tamanho = copia.length;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int indice) {
+        if (indice < 0 || indice >= this.tamanho) throw new IndexOutOfBoundsException(indice);
+        return (T) this.elementos[indice];
+    }
+
+    @Override
+    public int size() {
+        return this.tamanho;
+    }
+
+    /**
+     * Acrescenta um elemento ao fim da lista.
+     *
+     * @param elemento Elemento a acrescentar.
+     * @return true
+     */
+    @Override
+    public synchronized boolean add(T elemento) {
+        Object[] atuais = this.elementos;
+        int n = this.tamanho;
+        if (n == atuais.length) {
+            atuais = Arrays.copyOf(atuais, n * 2);
+            this.elementos = atuais;
+        }
+        atuais[n] = elemento;
+        this.tamanho = n + 1;
+        return true;
+    }
+
+    /**
+     * Escreve o número de elementos seguido dos elementos.
+     *
+     * @param out Stream onde a lista é escrita.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    private synchronized void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        int n = this.tamanho;
+        out.writeInt(n);
+        for (int i = 0; i < n; i++) {
+            out.writeObject(this.elementos[i]);
+        }
+    }
+
+    /**
+     * Lê a lista escrita por {@link #writeObject(ObjectOutputStream)}.
+     *
+     * @param in Stream de onde a lista é lida.
+     * @throws IOException Se ocorrer um erro de leitura.
+     * @throws ClassNotFoundException Se a classe de algum elemento não for encontrada.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        int n = in.readInt();
+        if (n < 0) throw new IOException("Tamanho inválido: " + n);
+        Object[] lidos = new Object[Math.max(16, n)];
+        for (int i = 0; i < n; i++) {
+            lidos[i] = in.readObject();
+        }
+        this.elementos = lidos;
+        this.tamanho = n;
+    }
+}
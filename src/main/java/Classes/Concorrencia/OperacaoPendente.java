@@ -0,0 +1,91 @@
+package Classes.Concorrencia;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Operação submetida a um {@link CombinadorOperacoes}, com o resultado ou a exceção da sua execução.
+ * O resultado e a exceção são escritos pela thread que combina antes de marcar a operação como concluída
+ * (num campo volátil), e só são lidos pela thread que submeteu a operação depois de a ver concluída.
+ *
+ * @param <R> Tipo do resultado.
+ */
+class OperacaoPendente<R> {
+    private final Supplier<R> operacao;
+    private final Thread dono;
+    private R resultado;
+    private Throwable excecao;
+    private volatile boolean concluida;
+
+    /**
+     * Construtor parametrizado.
+     *
+     * @param operacao Operação a executar.
+     * @param dono     Thread que submete a operação e espera pelo resultado.
+     */
+    OperacaoPendente(Supplier<R> operacao, Thread dono) {
+        this.operacao = operacao;
+        this.dono = dono;
+    }
+
+    /**
+     * Executa a operação, guardando o resultado ou a exceção lançada.
+     */
+    void executar() {
+        try {
+            this.resultado = this.operacao.get();
+        } catch (RuntimeException | Error e) {
+            this.excecao = e;
+        }
+    }
+
+    /**
+     * Marca a operação como falhada, se tiver sido executada com sucesso ou ainda não tiver sido executada.
+     * Usado quando falha o fim da ronda (por exemplo, o registo do lote no diário).
+     *
+     * @param e Exceção da ronda.
+     */
+    void falhar(Throwable e) {
+        if (this.excecao == null) {
+            this.excecao = e;
+            this.resultado = null;
+        }
+    }
+
+    /**
+     * Marca a operação como concluída e acorda a thread que a submeteu.
+     */
+    void concluir() {
+        this.concluida = true;
+        LockSupport.unpark(this.dono);
+    }
+
+    /**
+     * Devolve a thread que submeteu a operação.
+     *
+     * @return Thread dona da operação.
+     */
+    Thread getDono() {
+        return this.dono;
+    }
+
+    /**
+     * Indica se a operação já foi concluída.
+     *
+     * @return true se já foi concluída.
+     */
+    boolean isConcluida() {
+        return this.concluida;
+    }
+
+    /**
+     * Devolve o resultado da operação, ou lança a exceção com que terminou.
+     *
+     * @return Resultado da operação.
+     */
+    R getResultado() {
+        if (this.excecao instanceof RuntimeException e) throw e;
+        if (this.excecao instanceof Error e) throw e;
+        return this.resultado;
+    }
+}
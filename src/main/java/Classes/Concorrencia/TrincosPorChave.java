@@ -0,0 +1,55 @@
+package Classes.Concorrencia;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Conjunto fixo de trincos repartidos por chaves (por exemplo, o email de um utilizador).
+ *
+ * Cada chave corresponde sempre ao mesmo trinco, escolhido pelo seu hash, e chaves diferentes podem partilhar
+ * um trinco. Assim é possível proteger cada entidade com o seu trinco sem criar um trinco por entidade: duas
+ * threads só se bloqueiam se trabalharem com entidades da mesma risca.
+ */
+public class TrincosPorChave {
+
+    private final ReentrantLock[] trincos;
+    private final int mascara;
+
+    /**
+     * Cria um conjunto com pelo menos o número de trincos indicado (arredondado para uma potência de 2).
+     *
+     * @param numero Número mínimo de trincos.
+     * @throws IllegalArgumentException Se o número não for positivo.
+     */
+    public TrincosPorChave(int numero) {
+        if (numero <= 0) throw new IllegalArgumentException("Número de trincos inválido: " + numero);
+        int tamanho = Integer.highestOneBit(numero);
+        if (tamanho < numero) tamanho <<= 1;
+        this.trincos = new ReentrantLock[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            this.trincos[i] = new ReentrantLock();
+        }
+        this.mascara = tamanho - 1;
+    }
+
+    /**
+     * Devolve o trinco de uma chave.
+     *
+     * @param chave Chave (pode ser null).
+     * @return Trinco da risca da chave.
+     */
+    public ReentrantLock trinco(Object chave) {
+        int h = (chave == null) ? 0 : chave.hashCode();
+        // espalha os bits altos, tal como o HashMap, para que chaves parecidas não caiam na mesma risca
+        h ^= (h >>> 16);
+        return this.trincos[h & this.mascara];
+    }
+
+    /**
+     * Devolve o número de trincos.
+     *
+     * @return Número de trincos.
+     */
+    public int numeroTrincos() {
+        return this.trincos.length;
+    }
+}
@@ -0,0 +1,191 @@
+package Classes.Estatisticas;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Contador de valores por chave que se mantém ordenado pelo valor.
+ * Cada atualização custa O(log n) e o máximo é obtido em O(log n), sem percorrer as chaves.
+ * Em caso de empate, o máximo é a menor chave segundo a sua ordem natural.
+ *
+ * @param <K> Tipo das chaves.
+ */
+public class ContadorOrdenado<K extends Comparable<K>> {
+
+    /**
+     * Valor atual de cada chave.
+     */
+    private final HashMap<K, Long> valores;
+
+    /**
+     * Chaves agrupadas pelo seu valor atual.
+     */
+    private final TreeMap<Long, TreeSet<K>> porValor;
+
+    /**
+     * Construtor por omissão. Cria um contador vazio.
+     */
+    public ContadorOrdenado() {
+        this.valores = new HashMap<>();
+        this.porValor = new TreeMap<>();
+    }
+
+    /**
+     * Devolve o valor de uma chave.
+     *
+     * @param chave Chave a consultar.
+     * @return Valor da chave, ou 0 se não existir.
+     */
+    public long get(K chave) {
+        Long valor = this.valores.get(chave);
+        return (valor == null) ? 0 : valor;
+    }
+
+    /**
+     * Verifica se uma chave existe no contador.
+     *
+     * @param chave Chave a verificar.
+     * @return true se a chave existir.
+     */
+    public boolean contem(K chave) {
+        return this.valores.containsKey(chave);
+    }
+
+    /**
+     * Define o valor de uma chave, criando-a se não existir.
+     *
+     * @param chave Chave a definir.
+     * @param valor Novo valor.
+     */
+    public void definir(K chave, long valor) {
+        Long anterior = this.valores.put(chave, valor);
+        if (anterior != null) {
+            if (anterior == valor) return;
+            TreeSet<K> chaves = this.porValor.get(anterior);
+            chaves.remove(chave);
+            if (chaves.isEmpty()) this.porValor.remove(anterior);
+        }
+        this.porValor.computeIfAbsent(valor, v -> new TreeSet<>()).add(chave);
+    }
+
+    /**
+     * Soma um valor ao valor atual de uma chave, criando-a se não existir.
+     *
+     * @param chave Chave a atualizar.
+     * @param delta Valor a somar.
+     */
+    public void incrementar(K chave, long delta) {
+        definir(chave, get(chave) + delta);
+    }
+
+    /**
+     * Remove uma chave do contador.
+     *
+     * @param chave Chave a remover.
+     */
+    public void remover(K chave) {
+        Long anterior = this.valores.remove(chave);
+        if (anterior != null) {
+            TreeSet<K> chaves = this.porValor.get(anterior);
+            chaves.remove(chave);
+            if (chaves.isEmpty()) this.porValor.remove(anterior);
+        }
+    }
+
+    /**
+     * Devolve a chave com maior valor.
+     *
+     * @return Chave com maior valor, ou null se o contador estiver vazio.
+     */
+    public K maximo() {
+        Map.Entry<Long, TreeSet<K>> ultimo = this.porValor.lastEntry();
+        return (ultimo == null) ? null : ultimo.getValue().first();
+    }
+
+    /**
+     * Devolve a chave com menor valor.
+     *
+     * @return Chave com menor valor, ou null se o contador estiver vazio.
+     */
+    public K minimo() {
+        Map.Entry<Long, TreeSet<K>> primeiro = this.porValor.firstEntry();
+        return (primeiro == null) ? null : primeiro.getValue().first();
+    }
+
+    /**
+     * Devolve as k chaves com maior valor, por ordem decrescente de valor
+     * (e, em caso de empate, pela ordem natural das chaves).
+     *
+     * @param k Número máximo de chaves a devolver.
+     * @return Lista de pares chave/valor.
+     */
+    public List<Map.Entry<K, Long>> topK(int k) {
+        List<Map.Entry<K, Long>> top = new ArrayList<>(Math.min(Math.max(k, 0), this.valores.size()));
+        for (Map.Entry<Long, TreeSet<K>> balde : this.porValor.descendingMap().entrySet()) {
+            for (K chave : balde.getValue()) {
+                if (top.size() >= k) return top;
+                top.add(Map.entry(chave, balde.getKey()));
+            }
+        }
+        return top;
+    }
+
+    /**
+     * Seleciona as k chaves com maior valor de um mapa qualquer, usando uma heap de tamanho k.
+     * A ordem do resultado é a mesma de {@link #topK(int)}.
+     *
+     * @param valores Mapa chave para valor.
+     * @param k       Número máximo de chaves a devolver.
+     * @param <K>     Tipo das chaves.
+     * @return Lista de pares chave/valor.
+     */
+    public static <K extends Comparable<K>> List<Map.Entry<K, Long>> topK(Map<K, Long> valores, int k) {
+        Comparator<Map.Entry<K, Long>> ordem = Map.Entry.<K, Long>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey());
+        if (k <= 0) return new ArrayList<>();
+
+        PriorityQueue<Map.Entry<K, Long>> heap = new PriorityQueue<>(k + 1, ordem.reversed());
+        for (Map.Entry<K, Long> e : valores.entrySet()) {
+            heap.add(Map.entry(e.getKey(), e.getValue()));
+            if (heap.size() > k) heap.poll();
+        }
+        List<Map.Entry<K, Long>> top = new ArrayList<>(heap);
+        top.sort(ordem);
+        return top;
+    }
+
+    /**
+     * Devolve o maior valor do contador.
+     *
+     * @return Maior valor, ou 0 se o contador estiver vazio.
+     */
+    public long valorMaximo() {
+        Map.Entry<Long, TreeSet<K>> ultimo = this.porValor.lastEntry();
+        return (ultimo == null) ? 0 : ultimo.getKey();
+    }
+
+    /**
+     * Devolve o número de chaves do contador.
+     *
+     * @return Número de chaves.
+     */
+    public int tamanho() {
+        return this.valores.size();
+    }
+
+    /**
+     * Devolve uma vista só de leitura dos valores de todas as chaves.
+     *
+     * @return Mapa chave para valor.
+     */
+    public Map<K, Long> getValores() {
+        return Collections.unmodifiableMap(this.valores);
+    }
+}
@@ -0,0 +1,92 @@
+package Classes.Estatisticas;
+
+import java.util.Random;
+
+/**
+ * Esboço Count-Min para estimar a frequência de chaves com memória fixa.
+ * A estimativa nunca é inferior ao valor real e, com probabilidade 1 - probabilidadeFalha,
+ * excede-o em no máximo erro * total.
+ *
+ * @param <K> Tipo das chaves.
+ */
+public class CountMin<K> {
+
+    private final int largura;
+    private final long[][] tabela;
+    private final int[] sementes;
+    private long total;
+
+    /**
+     * Construtor com parâmetros.
+     *
+     * @param erro               Erro relativo ao total (entre 0 e 1, exclusivos).
+     * @param probabilidadeFalha Probabilidade de o erro ser ultrapassado (entre 0 e 1, exclusivos).
+     * @throws IllegalArgumentException Se algum dos parâmetros estiver fora do intervalo.
+     */
+    public CountMin(double erro, double probabilidadeFalha) {
+        if (erro <= 0 || erro >= 1) throw new IllegalArgumentException("Erro inválido: " + erro);
+        if (probabilidadeFalha <= 0 || probabilidadeFalha >= 1) {
+            throw new IllegalArgumentException("Probabilidade inválida: " + probabilidadeFalha);
+        }
+        this.largura = (int) Math.ceil(Math.E / erro);
+        int profundidade = (int) Math.ceil(Math.log(1 / probabilidadeFalha));
+        this.tabela = new long[profundidade][this.largura];
+        this.sementes = new int[profundidade];
+        Random random = new Random(profundidade * 31L + this.largura);
+        for (int i = 0; i < profundidade; i++) {
+            this.sementes[i] = random.nextInt() | 1;
+        }
+        this.total = 0;
+    }
+
+    /**
+     * Regista ocorrências de uma chave.
+     *
+     * @param chave Chave.
+     * @param peso  Número de ocorrências.
+     */
+    public void adicionar(K chave, long peso) {
+        int hash = chave.hashCode();
+        for (int i = 0; i < this.tabela.length; i++) {
+            this.tabela[i][coluna(i, hash)] += peso;
+        }
+        this.total += peso;
+    }
+
+    /**
+     * Estima o número de ocorrências de uma chave.
+     *
+     * @param chave Chave.
+     * @return Estimativa (maior ou igual ao valor real).
+     */
+    public long estimar(K chave) {
+        int hash = chave.hashCode();
+        long minimo = Long.MAX_VALUE;
+        for (int i = 0; i < this.tabela.length; i++) {
+            minimo = Math.min(minimo, this.tabela[i][coluna(i, hash)]);
+        }
+        return minimo;
+    }
+
+    /**
+     * Devolve a soma de todos os pesos registados.
+     *
+     * @return Total registado.
+     */
+    public long getTotal() {
+        return this.total;
+    }
+
+    /**
+     * Calcula a coluna de uma chave numa linha da tabela.
+     *
+     * @param linha Linha da tabela.
+     * @param hash  Código de dispersão da chave.
+     * @return Coluna da chave.
+     */
+    private int coluna(int linha, int hash) {
+        int h = (hash ^ (hash >>> 16)) * this.sementes[linha];
+        h ^= h >>> 15;
+        return Math.floorMod(h, this.largura);
+    }
+}
@@ -0,0 +1,89 @@
+package Classes.Estatisticas;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Top-K aproximado com memória limitada.
+ * O Space-Saving escolhe as chaves candidatas e o Count-Min aperta a estimativa de cada uma
+ * (ambos só sobrestimam, por isso fica-se com o menor dos dois valores).
+ *
+ * @param <K> Tipo das chaves.
+ */
+public class EsbocoTopK<K extends Comparable<K>> {
+
+    private final double erro;
+    private final SpaceSaving<K> candidatos;
+    private final CountMin<K> frequencias;
+
+    /**
+     * Construtor com parâmetros.
+     *
+     * @param erro               Erro máximo das contagens, relativo ao total registado.
+     * @param probabilidadeFalha Probabilidade de o Count-Min ultrapassar esse erro.
+     */
+    public EsbocoTopK(double erro, double probabilidadeFalha) {
+        this.erro = erro;
+        this.frequencias = new CountMin<>(erro, probabilidadeFalha);
+        this.candidatos = new SpaceSaving<>((int) Math.ceil(1 / erro));
+    }
+
+    /**
+     * Regista ocorrências de uma chave.
+     *
+     * @param chave Chave.
+     * @param peso  Número de ocorrências.
+     */
+    public void adicionar(K chave, long peso) {
+        this.candidatos.adicionar(chave, peso);
+        this.frequencias.adicionar(chave, peso);
+    }
+
+    /**
+     * Estima o número de ocorrências de uma chave.
+     *
+     * @param chave Chave.
+     * @return Estimativa.
+     */
+    public long estimar(K chave) {
+        long estimativa = this.frequencias.estimar(chave);
+        if (this.candidatos.estimar(chave) > 0) {
+            estimativa = Math.min(estimativa, this.candidatos.estimar(chave));
+        }
+        return estimativa;
+    }
+
+    /**
+     * Devolve as k chaves mais frequentes (no máximo, tantas quantas a capacidade do esboço).
+     *
+     * @param k Número máximo de chaves.
+     * @return Lista de pares chave/contagem estimada, por ordem decrescente.
+     */
+    public List<Map.Entry<K, Long>> topK(int k) {
+        List<Map.Entry<K, Long>> top = new ArrayList<>();
+        for (Map.Entry<K, Long> e : this.candidatos.topK(this.candidatos.getCapacidade())) {
+            top.add(Map.entry(e.getKey(), Math.min(e.getValue(), this.frequencias.estimar(e.getKey()))));
+        }
+        top.sort(Map.Entry.<K, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        return (top.size() > k) ? top.subList(0, Math.max(k, 0)) : top;
+    }
+
+    /**
+     * Devolve o número de chaves candidatas guardadas pelo esboço.
+     *
+     * @return Número de chaves (no máximo, a capacidade do Space-Saving).
+     */
+    public int tamanho() {
+        return this.candidatos.tamanho();
+    }
+
+    /**
+     * Devolve o erro máximo, em número de ocorrências, das contagens devolvidas.
+     *
+     * @return Erro máximo.
+     */
+    public long getErroMaximo() {
+        return (long) Math.ceil(this.erro * this.candidatos.getTotal());
+    }
+}
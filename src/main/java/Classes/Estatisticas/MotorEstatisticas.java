@@ -0,0 +1,545 @@
+package Classes.Estatisticas;
+
+import Classes.Genero;
+import Classes.Musicas.Musica;
+import Classes.Playlists.Playlist;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Motor de estatísticas incrementais do SpotifUM.
+ * Os contadores são atualizados no momento em que o modelo é alterado (nova música, reprodução,
+ * alteração de pontos, nova playlist ou mudança de visibilidade), pelo que cada estatística
+ * é respondida sem percorrer nem copiar as coleções do modelo.
+ *
+ * No modo aproximado, as reproduções por música e por artista (também dentro de cada género) só são guardadas
+ * em esboços de memória limitada: os contadores exatos correspondentes são descartados e só voltam a ser
+ * calculados, a partir do catálogo, quando o modo é desligado.
+ */
+public class MotorEstatisticas {
+
+    /**
+     * Reproduções de cada música, indexadas pelo id da música no catálogo (null no modo aproximado).
+     */
+    private ContadorOrdenado<Integer> reproducoesMusica;
+
+    /**
+     * Reproduções das músicas de cada artista, indexadas pelo nome do artista (null no modo aproximado).
+     */
+    private ContadorOrdenado<String> reproducoesArtista;
+
+    /**
+     * Reproduções das músicas de cada género.
+     */
+    private final ContadorOrdenado<Genero> reproducoesGenero;
+
+    /**
+     * Reproduções por artista dentro de cada género (null no modo aproximado).
+     */
+    private EnumMap<Genero, ContadorOrdenado<String>> reproducoesArtistaPorGenero;
+
+    /**
+     * Reproduções feitas por cada utilizador, indexadas pelo email.
+     */
+    private final ContadorOrdenado<String> reproducoesUtilizador;
+
+    /**
+     * Pontos de cada utilizador, indexados pelo email.
+     */
+    private final ContadorOrdenado<String> pontosUtilizador;
+
+    /**
+     * Playlists criadas por cada utilizador, indexadas pelo email.
+     */
+    private final ContadorOrdenado<String> playlistsUtilizador;
+
+    /**
+     * Número de playlists públicas.
+     */
+    private int playlistsPublicas;
+
+    /**
+     * Esboço de memória limitada para o top de músicas (null se o modo aproximado estiver desligado).
+     */
+    private EsbocoTopK<Integer> esbocoMusicas;
+
+    /**
+     * Esboço de memória limitada para o top de artistas (null se o modo aproximado estiver desligado).
+     */
+    private EsbocoTopK<String> esbocoArtistas;
+
+    /**
+     * Esboços do top de artistas de cada género (null se o modo aproximado estiver desligado).
+     */
+    private EnumMap<Genero, EsbocoTopK<String>> esbocosArtistasPorGenero;
+
+    /**
+     * Parâmetros do modo aproximado.
+     */
+    private double erroAproximado;
+    private double probabilidadeFalhaAproximado;
+
+    /**
+     * Construtor por omissão. Cria um motor sem dados.
+     */
+    public MotorEstatisticas() {
+        this.reproducoesMusica = new ContadorOrdenado<>();
+        this.reproducoesArtista = new ContadorOrdenado<>();
+        this.reproducoesGenero = new ContadorOrdenado<>();
+        this.reproducoesArtistaPorGenero = new EnumMap<>(Genero.class);
+        this.reproducoesUtilizador = new ContadorOrdenado<>();
+        this.pontosUtilizador = new ContadorOrdenado<>();
+        this.playlistsUtilizador = new ContadorOrdenado<>();
+        this.playlistsPublicas = 0;
+        this.esbocoMusicas = null;
+        this.esbocoArtistas = null;
+        this.esbocosArtistasPorGenero = null;
+    }
+
+    /**
+     * Regista uma música acabada de entrar no catálogo, com as reproduções que já tiver.
+     *
+     * @param idMusica Id da música no catálogo.
+     * @param musica   Música registada.
+     */
+    public void registarMusica(int idMusica, Musica musica) {
+        long reproducoes = musica.getNumReproducoes();
+        if (isModoAproximado()) {
+            this.esbocoMusicas.adicionar(idMusica, reproducoes);
+        } else {
+            this.reproducoesMusica.definir(idMusica, reproducoes);
+        }
+        contarReproducoes(musica, reproducoes);
+    }
+
+    /**
+     * Regista uma nova reprodução de uma música do catálogo.
+     *
+     * @param idMusica Id da música no catálogo.
+     * @param musica   Música reproduzida.
+     */
+    public void registarReproducaoMusica(int idMusica, Musica musica) {
+        if (isModoAproximado()) {
+            this.esbocoMusicas.adicionar(idMusica, 1);
+        } else {
+            this.reproducoesMusica.incrementar(idMusica, 1);
+        }
+        contarReproducoes(musica, 1);
+    }
+
+    /**
+     * Regista uma sequência de reproduções de músicas do catálogo, com o mesmo resultado de chamar
+     * {@link #registarReproducaoMusica(int, Musica)} para cada uma, por ordem.
+     * Os contadores exatos são atualizados uma só vez por música; os esboços do modo aproximado dependem da ordem
+     * das reproduções, pelo que continuam a recebê-las uma a uma.
+     *
+     * @param idsMusicas Ids das músicas reproduzidas, pela ordem das reproduções.
+     * @param catalogo   Músicas do catálogo, indexadas pelo id.
+     */
+    public void registarReproducoesMusicas(int[] idsMusicas, List<Musica> catalogo) {
+        if (isModoAproximado()) {
+            for (int idMusica : idsMusicas) {
+                registarReproducaoMusica(idMusica, catalogo.get(idMusica));
+            }
+            return;
+        }
+
+        HashMap<Integer, Long> porMusica = new HashMap<>();
+        for (int idMusica : idsMusicas) {
+            porMusica.merge(idMusica, 1L, Long::sum);
+        }
+        for (Map.Entry<Integer, Long> e : porMusica.entrySet()) {
+            this.reproducoesMusica.incrementar(e.getKey(), e.getValue());
+            contarReproducoes(catalogo.get(e.getKey()), e.getValue());
+        }
+    }
+
+    /**
+     * Soma reproduções de uma música aos contadores do seu género e aos do seu artista (no total e dentro do género),
+     * ou aos esboços dos artistas no modo aproximado.
+     *
+     * @param musica      Música.
+     * @param reproducoes Número de reproduções a somar.
+     */
+    private void contarReproducoes(Musica musica, long reproducoes) {
+        String artista = (musica.getInterprete() == null) ? null : musica.getInterprete().getNome();
+        Genero genero = musica.getGenero();
+        if (genero != null) {
+            this.reproducoesGenero.incrementar(genero, reproducoes);
+        }
+        if (artista == null) return;
+
+        if (isModoAproximado()) {
+            this.esbocoArtistas.adicionar(artista, reproducoes);
+            if (genero != null) {
+                this.esbocosArtistasPorGenero.computeIfAbsent(genero, g -> novoEsboco()).adicionar(artista, reproducoes);
+            }
+        } else {
+            this.reproducoesArtista.incrementar(artista, reproducoes);
+            if (genero != null) {
+                this.reproducoesArtistaPorGenero.computeIfAbsent(genero, g -> new ContadorOrdenado<>())
+                        .incrementar(artista, reproducoes);
+            }
+        }
+    }
+
+    /**
+     * Regista uma reprodução feita por um utilizador.
+     *
+     * @param email Email do utilizador.
+     */
+    public void registarReproducaoUtilizador(String email) {
+        this.reproducoesUtilizador.incrementar(email, 1);
+    }
+
+    /**
+     * Regista várias reproduções feitas por um utilizador.
+     *
+     * @param email       Email do utilizador.
+     * @param reproducoes Número de reproduções.
+     */
+    public void registarReproducoesUtilizador(String email, long reproducoes) {
+        this.reproducoesUtilizador.incrementar(email, reproducoes);
+    }
+
+    /**
+     * Regista o valor atual dos pontos de um utilizador.
+     *
+     * @param email  Email do utilizador.
+     * @param pontos Pontos atuais.
+     */
+    public void registarPontos(String email, int pontos) {
+        this.pontosUtilizador.definir(email, pontos);
+    }
+
+    /**
+     * Regista uma nova playlist.
+     *
+     * @param playlist Playlist criada.
+     */
+    public void registarPlaylist(Playlist playlist) {
+        if (playlist.getUtilizador() != null) {
+            this.playlistsUtilizador.incrementar(playlist.getUtilizador().getEmail(), 1);
+        }
+        if (playlist.getPublica()) {
+            this.playlistsPublicas++;
+        }
+    }
+
+    /**
+     * Regista a mudança de visibilidade de uma playlist.
+     *
+     * @param publica Nova visibilidade da playlist.
+     */
+    public void registarVisibilidade(boolean publica) {
+        this.playlistsPublicas += publica ? 1 : -1;
+    }
+
+    /**
+     * Devolve o id da música com mais reproduções.
+     *
+     * @return Id da música, ou -1 se não houver músicas.
+     */
+    public int getMusicaMaisReproduzida() {
+        if (!isModoAproximado()) {
+            Integer id = this.reproducoesMusica.maximo();
+            return (id == null) ? -1 : id;
+        }
+        List<Map.Entry<Integer, Long>> top = this.esbocoMusicas.topK(1);
+        return top.isEmpty() ? -1 : top.get(0).getKey();
+    }
+
+    /**
+     * Devolve o artista cujas músicas têm mais reproduções.
+     *
+     * @return Nome do artista, ou null se não houver músicas.
+     */
+    public String getArtistaMaisEscutado() {
+        if (!isModoAproximado()) return this.reproducoesArtista.maximo();
+        List<Map.Entry<String, Long>> top = this.esbocoArtistas.topK(1);
+        return top.isEmpty() ? null : top.get(0).getKey();
+    }
+
+    /**
+     * Devolve o género com mais reproduções.
+     *
+     * @return Género, ou null se não houver músicas.
+     */
+    public Genero getGeneroMaisReproduzido() {
+        return this.reproducoesGenero.maximo();
+    }
+
+    /**
+     * Devolve o número de reproduções das músicas de um género.
+     *
+     * @param genero Género a consultar.
+     * @return Número de reproduções.
+     */
+    public long getReproducoesGenero(Genero genero) {
+        return this.reproducoesGenero.get(genero);
+    }
+
+    /**
+     * Devolve o utilizador com mais pontos.
+     *
+     * @return Email do utilizador, ou null se não houver utilizadores.
+     */
+    public String getUtilizadorComMaisPontos() {
+        return this.pontosUtilizador.maximo();
+    }
+
+    /**
+     * Devolve o utilizador com mais reproduções desde sempre.
+     *
+     * @return Email do utilizador, ou null se não houver reproduções.
+     */
+    public String getUtilizadorComMaisReproducoes() {
+        return this.reproducoesUtilizador.maximo();
+    }
+
+    /**
+     * Devolve o utilizador que criou mais playlists.
+     *
+     * @return Email do utilizador, ou null se não houver playlists.
+     */
+    public String getUtilizadorComMaisPlaylists() {
+        return this.playlistsUtilizador.maximo();
+    }
+
+    /**
+     * Devolve o número de playlists públicas.
+     *
+     * @return Número de playlists públicas.
+     */
+    public int getPlaylistsPublicas() {
+        return this.playlistsPublicas;
+    }
+
+    /**
+     * Liga o modo aproximado do top de músicas e de artistas, que passa a usar esboços
+     * de memória limitada (Space-Saving e Count-Min). Os esboços são iniciados com as contagens atuais
+     * (ou com as estimativas dos esboços anteriores, se o modo já estiver ligado), e os contadores exatos
+     * das músicas e dos artistas são descartados.
+     *
+     * @param erro               Erro máximo das contagens, relativo ao total de reproduções.
+     * @param probabilidadeFalha Probabilidade de esse erro ser ultrapassado.
+     * @throws IllegalArgumentException Se algum dos parâmetros não estiver entre 0 e 1.
+     */
+    public void ativarModoAproximado(double erro, double probabilidadeFalha) {
+        EsbocoTopK<Integer> musicas = new EsbocoTopK<>(erro, probabilidadeFalha);
+        EsbocoTopK<String> artistas = new EsbocoTopK<>(erro, probabilidadeFalha);
+        EnumMap<Genero, EsbocoTopK<String>> artistasPorGenero = new EnumMap<>(Genero.class);
+        if (isModoAproximado()) {
+            this.esbocoMusicas.topK(Integer.MAX_VALUE).forEach(e -> musicas.adicionar(e.getKey(), e.getValue()));
+            this.esbocoArtistas.topK(Integer.MAX_VALUE).forEach(e -> artistas.adicionar(e.getKey(), e.getValue()));
+            this.esbocosArtistasPorGenero.forEach((genero, esboco) -> {
+                EsbocoTopK<String> novo = new EsbocoTopK<>(erro, probabilidadeFalha);
+                esboco.topK(Integer.MAX_VALUE).forEach(e -> novo.adicionar(e.getKey(), e.getValue()));
+                artistasPorGenero.put(genero, novo);
+            });
+        } else {
+            this.reproducoesMusica.getValores().forEach(musicas::adicionar);
+            this.reproducoesArtista.getValores().forEach(artistas::adicionar);
+            this.reproducoesArtistaPorGenero.forEach((genero, contador) -> {
+                EsbocoTopK<String> novo = new EsbocoTopK<>(erro, probabilidadeFalha);
+                contador.getValores().forEach(novo::adicionar);
+                artistasPorGenero.put(genero, novo);
+            });
+        }
+        this.esbocoMusicas = musicas;
+        this.esbocoArtistas = artistas;
+        this.esbocosArtistasPorGenero = artistasPorGenero;
+        this.reproducoesMusica = null;
+        this.reproducoesArtista = null;
+        this.reproducoesArtistaPorGenero = null;
+        this.erroAproximado = erro;
+        this.probabilidadeFalhaAproximado = probabilidadeFalha;
+    }
+
+    /**
+     * Cria um esboço com os parâmetros do modo aproximado atual.
+     *
+     * @return Esboço vazio.
+     */
+    private EsbocoTopK<String> novoEsboco() {
+        return new EsbocoTopK<>(this.erroAproximado, this.probabilidadeFalhaAproximado);
+    }
+
+    /**
+     * Liga neste motor o modo aproximado de outro motor, com os mesmos parâmetros.
+     * Usado quando as estatísticas são recalculadas de raiz.
+     *
+     * @param anterior Motor cujo modo deve ser mantido.
+     */
+    public void manterModo(MotorEstatisticas anterior) {
+        if (anterior != null && anterior.isModoAproximado()) {
+            ativarModoAproximado(anterior.erroAproximado, anterior.probabilidadeFalhaAproximado);
+        }
+    }
+
+    /**
+     * Desliga o modo aproximado, voltando às contagens exatas. Como os contadores exatos das músicas e dos artistas
+     * não são mantidos no modo aproximado, são recalculados a partir das reproduções das músicas do catálogo.
+     *
+     * @param catalogo Músicas do catálogo, indexadas pelo id.
+     */
+    public void desativarModoAproximado(List<Musica> catalogo) {
+        if (!isModoAproximado()) return;
+        this.reproducoesMusica = new ContadorOrdenado<>();
+        this.reproducoesArtista = new ContadorOrdenado<>();
+        this.reproducoesArtistaPorGenero = new EnumMap<>(Genero.class);
+        this.esbocoMusicas = null;
+        this.esbocoArtistas = null;
+        this.esbocosArtistasPorGenero = null;
+        for (int id = 0; id < catalogo.size(); id++) {
+            Musica musica = catalogo.get(id);
+            long reproducoes = musica.getNumReproducoes();
+            this.reproducoesMusica.definir(id, reproducoes);
+            String artista = (musica.getInterprete() == null) ? null : musica.getInterprete().getNome();
+            if (artista == null) continue;
+            this.reproducoesArtista.incrementar(artista, reproducoes);
+            if (musica.getGenero() != null) {
+                this.reproducoesArtistaPorGenero.computeIfAbsent(musica.getGenero(), g -> new ContadorOrdenado<>())
+                        .incrementar(artista, reproducoes);
+            }
+        }
+    }
+
+    /**
+     * Indica se o top de músicas e de artistas está a ser calculado de forma aproximada.
+     *
+     * @return true se o modo aproximado estiver ligado.
+     */
+    public boolean isModoAproximado() {
+        return this.esbocoMusicas != null;
+    }
+
+    /**
+     * Devolve o erro máximo das contagens do top de músicas (0 em modo exato).
+     *
+     * @return Erro máximo, em número de reproduções.
+     */
+    public long getErroMaximoTopMusicas() {
+        return (this.esbocoMusicas == null) ? 0 : this.esbocoMusicas.getErroMaximo();
+    }
+
+    /**
+     * Devolve o erro máximo das contagens do top de artistas (0 em modo exato).
+     *
+     * @return Erro máximo, em número de reproduções.
+     */
+    public long getErroMaximoTopArtistas() {
+        return (this.esbocoArtistas == null) ? 0 : this.esbocoArtistas.getErroMaximo();
+    }
+
+    /**
+     * Devolve as k músicas com mais reproduções.
+     *
+     * @param k Número de músicas.
+     * @return Lista de pares id da música/reproduções, por ordem decrescente.
+     */
+    public List<Map.Entry<Integer, Long>> getTopMusicas(int k) {
+        return (this.esbocoMusicas == null) ? this.reproducoesMusica.topK(k) : this.esbocoMusicas.topK(k);
+    }
+
+    /**
+     * Devolve os k artistas com mais reproduções.
+     *
+     * @param k Número de artistas.
+     * @return Lista de pares nome do artista/reproduções, por ordem decrescente.
+     */
+    public List<Map.Entry<String, Long>> getTopArtistas(int k) {
+        return (this.esbocoArtistas == null) ? this.reproducoesArtista.topK(k) : this.esbocoArtistas.topK(k);
+    }
+
+    /**
+     * Devolve os k artistas com mais reproduções num género.
+     *
+     * @param genero Género.
+     * @param k      Número de artistas.
+     * @return Lista de pares nome do artista/reproduções, por ordem decrescente.
+     */
+    public List<Map.Entry<String, Long>> getTopArtistas(Genero genero, int k) {
+        if (isModoAproximado()) {
+            EsbocoTopK<String> esboco = this.esbocosArtistasPorGenero.get(genero);
+            return (esboco == null) ? new ArrayList<>() : esboco.topK(k);
+        }
+        ContadorOrdenado<String> artistas = this.reproducoesArtistaPorGenero.get(genero);
+        return (artistas == null) ? new ArrayList<>() : artistas.topK(k);
+    }
+
+    /**
+     * Devolve os k géneros com mais reproduções.
+     *
+     * @param k Número de géneros.
+     * @return Lista de pares género/reproduções, por ordem decrescente.
+     */
+    public List<Map.Entry<Genero, Long>> getTopGeneros(int k) {
+        return this.reproducoesGenero.topK(k);
+    }
+
+    /**
+     * Devolve o número de chaves guardadas para as reproduções por música e por artista: nos contadores exatos,
+     * ou nos esboços no modo aproximado (em que é limitado pela capacidade dos esboços).
+     *
+     * @return Número de chaves.
+     */
+    int numeroChavesMusicasEArtistas() {
+        int chaves = 0;
+        if (isModoAproximado()) {
+            chaves += this.esbocoMusicas.tamanho() + this.esbocoArtistas.tamanho();
+            for (EsbocoTopK<String> esboco : this.esbocosArtistasPorGenero.values()) chaves += esboco.tamanho();
+        } else {
+            chaves += this.reproducoesMusica.tamanho() + this.reproducoesArtista.tamanho();
+            for (ContadorOrdenado<String> contador : this.reproducoesArtistaPorGenero.values()) chaves += contador.tamanho();
+        }
+        return chaves;
+    }
+
+    /**
+     * Compara este motor com outro (normalmente recalculado de raiz a partir do modelo).
+     * As reproduções por música e por artista só são comparadas se os dois motores estiverem em modo exato.
+     *
+     * @param outro Motor a comparar.
+     * @return Lista com a descrição das estatísticas que diferem (vazia se forem consistentes).
+     */
+    public List<String> diferencas(MotorEstatisticas outro) {
+        List<String> diferencas = new ArrayList<>();
+        if (!isModoAproximado() && !outro.isModoAproximado()) {
+            if (!this.reproducoesMusica.getValores().equals(outro.reproducoesMusica.getValores())) {
+                diferencas.add("Reproduções por música");
+            }
+            if (!this.reproducoesArtista.getValores().equals(outro.reproducoesArtista.getValores())) {
+                diferencas.add("Reproduções por artista");
+            }
+            for (Genero genero : Genero.values()) {
+                ContadorOrdenado<String> estes = this.reproducoesArtistaPorGenero.get(genero);
+                ContadorOrdenado<String> outros = outro.reproducoesArtistaPorGenero.get(genero);
+                Map<String, Long> vazio = Map.of();
+                if (!(estes == null ? vazio : estes.getValores()).equals(outros == null ? vazio : outros.getValores())) {
+                    diferencas.add("Reproduções por artista do género " + genero);
+                }
+            }
+        }
+        if (!this.reproducoesGenero.getValores().equals(outro.reproducoesGenero.getValores())) {
+            diferencas.add("Reproduções por género");
+        }
+        if (!this.reproducoesUtilizador.getValores().equals(outro.reproducoesUtilizador.getValores())) {
+            diferencas.add("Reproduções por utilizador");
+        }
+        if (!this.pontosUtilizador.getValores().equals(outro.pontosUtilizador.getValores())) {
+            diferencas.add("Pontos por utilizador");
+        }
+        if (!this.playlistsUtilizador.getValores().equals(outro.playlistsUtilizador.getValores())) {
+            diferencas.add("Playlists por utilizador");
+        }
+        if (this.playlistsPublicas != outro.playlistsPublicas) {
+            diferencas.add("Playlists públicas");
+        }
+        return diferencas;
+    }
+}
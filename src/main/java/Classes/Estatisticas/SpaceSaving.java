@@ -0,0 +1,127 @@
+package Classes.Estatisticas;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Algoritmo Space-Saving para encontrar as chaves mais frequentes com memória limitada.
+ * São acompanhadas no máximo {@code capacidade} chaves; quando chega uma chave nova e não há espaço,
+ * esta substitui a chave com menor contagem e herda essa contagem como erro.
+ * Cada contagem excede o valor real em, no máximo, total / capacidade.
+ *
+ * @param <K> Tipo das chaves.
+ */
+public class SpaceSaving<K extends Comparable<K>> {
+
+    private final int capacidade;
+
+    /**
+     * Contagens estimadas das chaves acompanhadas.
+     */
+    private final ContadorOrdenado<K> contagens;
+
+    /**
+     * Erro máximo da contagem de cada chave acompanhada.
+     */
+    private final HashMap<K, Long> erros;
+
+    /**
+     * Soma de todos os pesos registados.
+     */
+    private long total;
+
+    /**
+     * Construtor com parâmetros.
+     *
+     * @param capacidade Número máximo de chaves acompanhadas.
+     * @throws IllegalArgumentException Se a capacidade não for positiva.
+     */
+    public SpaceSaving(int capacidade) {
+        if (capacidade <= 0) throw new IllegalArgumentException("Capacidade inválida: " + capacidade);
+        this.capacidade = capacidade;
+        this.contagens = new ContadorOrdenado<>();
+        this.erros = new HashMap<>();
+        this.total = 0;
+    }
+
+    /**
+     * Regista ocorrências de uma chave.
+     *
+     * @param chave Chave.
+     * @param peso  Número de ocorrências.
+     */
+    public void adicionar(K chave, long peso) {
+        this.total += peso;
+        if (this.contagens.contem(chave)) {
+            this.contagens.incrementar(chave, peso);
+        } else if (this.contagens.tamanho() < this.capacidade) {
+            this.contagens.definir(chave, peso);
+            this.erros.put(chave, 0L);
+        } else {
+            K substituida = this.contagens.minimo();
+            long minimo = this.contagens.get(substituida);
+            this.contagens.remover(substituida);
+            this.erros.remove(substituida);
+            this.contagens.definir(chave, minimo + peso);
+            this.erros.put(chave, minimo);
+        }
+    }
+
+    /**
+     * Devolve a contagem estimada de uma chave.
+     *
+     * @param chave Chave.
+     * @return Contagem estimada (0 se a chave não for acompanhada).
+     */
+    public long estimar(K chave) {
+        return this.contagens.get(chave);
+    }
+
+    /**
+     * Devolve o erro máximo da contagem de uma chave acompanhada.
+     *
+     * @param chave Chave.
+     * @return Erro máximo.
+     */
+    public long getErro(K chave) {
+        return this.erros.getOrDefault(chave, 0L);
+    }
+
+    /**
+     * Devolve as k chaves com maior contagem estimada.
+     *
+     * @param k Número máximo de chaves.
+     * @return Lista de pares chave/contagem estimada.
+     */
+    public List<Map.Entry<K, Long>> topK(int k) {
+        return this.contagens.topK(k);
+    }
+
+    /**
+     * Devolve o número de chaves acompanhadas.
+     *
+     * @return Número de chaves (no máximo, a capacidade).
+     */
+    public int tamanho() {
+        return this.contagens.tamanho();
+    }
+
+    /**
+     * Devolve o número máximo de chaves acompanhadas.
+     *
+     * @return Capacidade.
+     */
+    public int getCapacidade() {
+        return this.capacidade;
+    }
+
+    /**
+     * Devolve a soma de todos os pesos registados.
+     *
+     * @return Total registado.
+     */
+    public long getTotal() {
+        return this.total;
+    }
+}
@@ -0,0 +1,208 @@
+package Classes.Geracao;
+
+import Classes.Artista;
+import Classes.Genero;
+import Classes.Historico.EventoReproducao;
+import Classes.Musicas.Musica;
+import Classes.Musicas.MusicaExplicita;
+import Classes.Musicas.MusicaMultimedia;
+import Classes.Playlists.PlaylistConstruida;
+import Classes.Utilizador;
+import Exceptions.ArtistaInexistenteException;
+import SpotifUM.SpotifUM;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Aplica os dados gerados diretamente a um modelo, com o mesmo efeito que importar o script correspondente
+ * (ver {@link EscritorScript}). As reproduções são juntas em lotes de tamanho fixo e registadas com
+ * {@link SpotifUM#reproduzirLote(List)}, pelo que só um lote de cada vez está em memória fora do modelo.
+ */
+public class ConstrutorModelo implements DestinoGeracao {
+
+    /**
+     * Número de reproduções por lote, por omissão.
+     */
+    public static final int TAMANHO_LOTE = 10_000;
+
+    private final SpotifUM model;
+    private final int tamanhoLote;
+    private final List<EventoReproducao> lote;
+
+    /**
+     * Construtor com o tamanho de lote por omissão.
+     *
+     * @param model Modelo onde aplicar os dados.
+     */
+    public ConstrutorModelo(SpotifUM model) {
+        this(model, TAMANHO_LOTE);
+    }
+
+    /**
+     * Construtor parametrizado.
+     *
+     * @param model       Modelo onde aplicar os dados.
+     * @param tamanhoLote Número de reproduções por lote.
+     * @throws IllegalArgumentException Se o tamanho do lote não for positivo.
+     */
+    public ConstrutorModelo(SpotifUM model, int tamanhoLote) {
+        if (tamanhoLote <= 0) throw new IllegalArgumentException("Tamanho de lote inválido: " + tamanhoLote);
+        this.model = model;
+        this.tamanhoLote = tamanhoLote;
+        this.lote = new ArrayList<>(tamanhoLote);
+    }
+
+    /**
+     * Adiciona um artista ao modelo.
+     *
+     * @param nome Nome do artista.
+     * @param pais País do artista.
+     */
+    @Override
+    public void artista(String nome, String pais) {
+        this.model.adicionarArtista(new Artista(nome, pais));
+    }
+
+    /**
+     * Adiciona uma música normal ao modelo.
+     *
+     * @param nome    Nome da música.
+     * @param artista Nome do artista.
+     * @param editora Nome da editora.
+     * @param letra   Linhas da letra.
+     * @param melodia Linhas da melodia.
+     * @param genero  Género musical.
+     * @param duracao Duração, em segundos.
+     * @throws ArtistaInexistenteException Se o artista não existir.
+     */
+    @Override
+    public void musica(String nome, String artista, String editora, List<String> letra, List<String> melodia,
+                       Genero genero, int duracao) {
+        this.model.adicionarMusica(new Musica(nome, obterArtista(artista), editora, letra, melodia, genero, duracao, 0));
+    }
+
+    /**
+     * Adiciona uma música explícita ao modelo.
+     *
+     * @param nome        Nome da música.
+     * @param artista     Nome do artista.
+     * @param editora     Nome da editora.
+     * @param letra       Linhas da letra.
+     * @param melodia     Linhas da melodia.
+     * @param genero      Género musical.
+     * @param duracao     Duração, em segundos.
+     * @param aviso       Aviso de conteúdo explícito.
+     * @param idadeMinima Idade mínima.
+     * @throws ArtistaInexistenteException Se o artista não existir.
+     */
+    @Override
+    public void musicaExplicita(String nome, String artista, String editora, List<String> letra, List<String> melodia,
+                                Genero genero, int duracao, String aviso, int idadeMinima) {
+        this.model.adicionarMusica(new MusicaExplicita(nome, obterArtista(artista), editora, letra, melodia, genero,
+                duracao, 0, aviso, idadeMinima));
+    }
+
+    /**
+     * Adiciona uma música multimédia ao modelo.
+     *
+     * @param nome    Nome da música.
+     * @param artista Nome do artista.
+     * @param editora Nome da editora.
+     * @param letra   Linhas da letra.
+     * @param melodia Linhas da melodia.
+     * @param genero  Género musical.
+     * @param duracao Duração, em segundos.
+     * @param video   Nome do ficheiro de vídeo.
+     * @param formato Formato do vídeo.
+     * @throws ArtistaInexistenteException Se o artista não existir.
+     */
+    @Override
+    public void musicaMultimedia(String nome, String artista, String editora, List<String> letra, List<String> melodia,
+                                 Genero genero, int duracao, String video, String formato) {
+        this.model.adicionarMusica(new MusicaMultimedia(nome, obterArtista(artista), editora, letra, melodia, genero,
+                duracao, 0, video, formato));
+    }
+
+    /**
+     * Regista um utilizador no modelo, com o cargo de utilizador normal.
+     *
+     * @param email    Email do utilizador.
+     * @param nome     Nome do utilizador.
+     * @param morada   Morada do utilizador.
+     * @param password Password do utilizador.
+     * @param plano    Plano de subscrição.
+     */
+    @Override
+    public void utilizador(String email, String nome, String morada, String password, String plano) {
+        this.model.registarUtilizadorPorScript(email, nome, morada, password, plano, "user");
+    }
+
+    /**
+     * Adiciona uma playlist construída ao modelo.
+     *
+     * @param nome        Nome da playlist.
+     * @param email       Email do utilizador que a criou.
+     * @param dataCriacao Data de criação.
+     * @param publica     true se a playlist for pública.
+     * @param musicas     Nomes das músicas da playlist.
+     * @throws IllegalArgumentException Se o utilizador não existir.
+     */
+    @Override
+    public void playlist(String nome, String email, LocalDate dataCriacao, boolean publica, List<String> musicas) {
+        Utilizador utilizador = this.model.getUtilizadorPorEmail(email);
+        if (utilizador == null) {
+            throw new IllegalArgumentException("Utilizador com email " + email + " não encontrado.");
+        }
+        this.model.adicionarPlaylist(new PlaylistConstruida(nome, utilizador, dataCriacao, publica,
+                this.model.musicasToArray(musicas)));
+    }
+
+    /**
+     * Junta uma reprodução ao lote atual, registando o lote quando fica cheio.
+     *
+     * @param email      Email do utilizador.
+     * @param nomeMusica Nome da música.
+     * @param dataHora   Instante da reprodução.
+     */
+    @Override
+    public void reproducao(String email, String nomeMusica, LocalDateTime dataHora) {
+        this.lote.add(new EventoReproducao(email, nomeMusica, dataHora));
+        if (this.lote.size() == this.tamanhoLote) registarLote();
+    }
+
+    /**
+     * Regista as reproduções que ainda estiverem no lote.
+     */
+    @Override
+    public void terminar() {
+        registarLote();
+    }
+
+    /**
+     * Regista o lote atual no modelo e esvazia-o.
+     */
+    private void registarLote() {
+        if (this.lote.isEmpty()) return;
+        try {
+            this.model.reproduzirLote(this.lote);
+        } finally {
+            this.lote.clear();
+        }
+    }
+
+    /**
+     * Obtém um artista do modelo.
+     *
+     * @param nome Nome do artista.
+     * @return Artista.
+     * @throws ArtistaInexistenteException Se o artista não existir.
+     */
+    private Artista obterArtista(String nome) {
+        Artista artista = this.model.getArtistaPorNome(nome);
+        if (artista == null) throw new ArtistaInexistenteException(nome);
+        return artista;
+    }
+}
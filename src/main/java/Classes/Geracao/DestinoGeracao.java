@@ -0,0 +1,119 @@
+package Classes.Geracao;
+
+import Classes.Genero;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Destino dos dados gerados pelo {@link GeradorDados}, que os entrega um a um e por esta ordem: artistas,
+ * músicas, utilizadores, playlists e reproduções (por ordem cronológica). Cada elemento pode ser tratado e
+ * esquecido logo que é recebido, pelo que o gerador nunca precisa de ter o conjunto de dados todo em memória.
+ *
+ * Ver {@link EscritorScript} (escreve um script de comandos do administrador) e {@link ConstrutorModelo}
+ * (aplica os dados a um modelo).
+ */
+public interface DestinoGeracao {
+
+    /**
+     * Recebe um artista.
+     *
+     * @param nome Nome do artista.
+     * @param pais País do artista.
+     * @throws IOException Se não for possível escrever o artista.
+     */
+    void artista(String nome, String pais) throws IOException;
+
+    /**
+     * Recebe uma música normal.
+     *
+     * @param nome    Nome da música.
+     * @param artista Nome do artista.
+     * @param editora Nome da editora.
+     * @param letra   Linhas da letra.
+     * @param melodia Linhas da melodia.
+     * @param genero  Género musical.
+     * @param duracao Duração, em segundos.
+     * @throws IOException Se não for possível escrever a música.
+     */
+    void musica(String nome, String artista, String editora, List<String> letra, List<String> melodia,
+                Genero genero, int duracao) throws IOException;
+
+    /**
+     * Recebe uma música explícita.
+     *
+     * @param nome        Nome da música.
+     * @param artista     Nome do artista.
+     * @param editora     Nome da editora.
+     * @param letra       Linhas da letra.
+     * @param melodia     Linhas da melodia.
+     * @param genero      Género musical.
+     * @param duracao     Duração, em segundos.
+     * @param aviso       Aviso de conteúdo explícito.
+     * @param idadeMinima Idade mínima.
+     * @throws IOException Se não for possível escrever a música.
+     */
+    void musicaExplicita(String nome, String artista, String editora, List<String> letra, List<String> melodia,
+                         Genero genero, int duracao, String aviso, int idadeMinima) throws IOException;
+
+    /**
+     * Recebe uma música multimédia.
+     *
+     * @param nome    Nome da música.
+     * @param artista Nome do artista.
+     * @param editora Nome da editora.
+     * @param letra   Linhas da letra.
+     * @param melodia Linhas da melodia.
+     * @param genero  Género musical.
+     * @param duracao Duração, em segundos.
+     * @param video   Nome do ficheiro de vídeo.
+     * @param formato Formato do vídeo.
+     * @throws IOException Se não for possível escrever a música.
+     */
+    void musicaMultimedia(String nome, String artista, String editora, List<String> letra, List<String> melodia,
+                          Genero genero, int duracao, String video, String formato) throws IOException;
+
+    /**
+     * Recebe um utilizador.
+     *
+     * @param email    Email do utilizador.
+     * @param nome     Nome do utilizador.
+     * @param morada   Morada do utilizador.
+     * @param password Password do utilizador.
+     * @param plano    Plano de subscrição ("free", "premiumbase" ou "premiumtop").
+     * @throws IOException Se não for possível escrever o utilizador.
+     */
+    void utilizador(String email, String nome, String morada, String password, String plano) throws IOException;
+
+    /**
+     * Recebe uma playlist construída por um utilizador.
+     *
+     * @param nome        Nome da playlist.
+     * @param email       Email do utilizador que a criou.
+     * @param dataCriacao Data de criação.
+     * @param publica     true se a playlist for pública.
+     * @param musicas     Nomes das músicas da playlist.
+     * @throws IOException Se não for possível escrever a playlist.
+     */
+    void playlist(String nome, String email, LocalDate dataCriacao, boolean publica, List<String> musicas)
+            throws IOException;
+
+    /**
+     * Recebe uma reprodução.
+     *
+     * @param email      Email do utilizador.
+     * @param nomeMusica Nome da música.
+     * @param dataHora   Instante da reprodução.
+     * @throws IOException Se não for possível escrever a reprodução.
+     */
+    void reproducao(String email, String nomeMusica, LocalDateTime dataHora) throws IOException;
+
+    /**
+     * Indica que não há mais dados.
+     *
+     * @throws IOException Se não for possível terminar a escrita.
+     */
+    void terminar() throws IOException;
+}
@@ -0,0 +1,129 @@
+package Classes.Geracao;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Distribuição de Zipf sobre as posições 1..n: a posição k é escolhida com probabilidade proporcional a
+ * {@code 1 / k^s}, em que s é o expoente. Com s = 1, a primeira posição sai duas vezes mais do que a segunda,
+ * três vezes mais do que a terceira, e assim por diante.
+ *
+ * As amostras são tiradas pelo método de rejeição-inversão de Hörmann e Derflinger, que não precisa de tabelas:
+ * cada amostra custa um número constante de operações (em média pouco mais de um número aleatório), qualquer que
+ * seja o número de posições. Os objetos desta classe são imutáveis; o gerador de números aleatórios é passado
+ * a cada amostra.
+ */
+public class DistribuicaoZipf {
+    private final int posicoes;
+    private final double expoente;
+    private final double integralPrimeira;
+    private final double integralTotal;
+    private final double margem;
+
+    /**
+     * Construtor parametrizado.
+     *
+     * @param posicoes Número de posições (n).
+     * @param expoente Expoente da distribuição (s).
+     * @throws IllegalArgumentException Se o número de posições ou o expoente não forem positivos.
+     */
+    public DistribuicaoZipf(int posicoes, double expoente) {
+        if (posicoes <= 0) throw new IllegalArgumentException("Número de posições inválido: " + posicoes);
+        if (!(expoente > 0)) throw new IllegalArgumentException("Expoente inválido: " + expoente);
+        this.posicoes = posicoes;
+        this.expoente = expoente;
+        this.integralPrimeira = integral(1.5) - 1;
+        this.integralTotal = integral(posicoes + 0.5);
+        this.margem = 2 - inversaIntegral(integral(2.5) - densidade(2));
+    }
+
+    /**
+     * Retorna o número de posições.
+     *
+     * @return Número de posições.
+     */
+    public int getPosicoes() {
+        return this.posicoes;
+    }
+
+    /**
+     * Retorna o expoente da distribuição.
+     *
+     * @return Expoente.
+     */
+    public double getExpoente() {
+        return this.expoente;
+    }
+
+    /**
+     * Tira uma amostra da distribuição.
+     *
+     * @param aleatorio Gerador de números aleatórios.
+     * @return Posição escolhida, entre 1 e o número de posições.
+     */
+    public int amostra(RandomGenerator aleatorio) {
+        while (true) {
+            double u = this.integralTotal + aleatorio.nextDouble() * (this.integralPrimeira - this.integralTotal);
+            double x = inversaIntegral(u);
+            int k = (int) (x + 0.5);
+            if (k < 1) k = 1;
+            else if (k > this.posicoes) k = this.posicoes;
+
+            if (k - x <= this.margem || u >= integral(k + 0.5) - densidade(k)) return k;
+        }
+    }
+
+    /**
+     * Função {@code h(x) = x^-s}, que majora as probabilidades.
+     *
+     * @param x Ponto.
+     * @return Valor de h em x.
+     */
+    private double densidade(double x) {
+        return Math.exp(-this.expoente * Math.log(x));
+    }
+
+    /**
+     * Primitiva de h: {@code (x^(1-s) - 1) / (1 - s)}, ou {@code log(x)} quando s = 1.
+     *
+     * @param x Ponto.
+     * @return Valor da primitiva em x.
+     */
+    private double integral(double x) {
+        double logX = Math.log(x);
+        return expm1Dividido((1 - this.expoente) * logX) * logX;
+    }
+
+    /**
+     * Inversa da primitiva de h.
+     *
+     * @param x Valor da primitiva.
+     * @return Ponto correspondente.
+     */
+    private double inversaIntegral(double x) {
+        double t = x * (1 - this.expoente);
+        if (t < -1) t = -1; // só por erros de arredondamento
+        return Math.exp(log1pDividido(t) * x);
+    }
+
+    /**
+     * Calcula {@code log(1 + x) / x}, sem perder precisão quando x é próximo de 0.
+     *
+     * @param x Valor.
+     * @return Resultado.
+     */
+    private static double log1pDividido(double x) {
+        if (Math.abs(x) > 1e-8) return Math.log1p(x) / x;
+        return 1 - x * (0.5 - x * (1.0 / 3 - 0.25 * x));
+    }
+
+    /**
+     * Calcula {@code (exp(x) - 1) / x}, sem perder precisão quando x é próximo de 0.
+     *
+     * @param x Valor.
+     * @return Resultado.
+     */
+    private static double expm1Dividido(double x) {
+        if (Math.abs(x) > 1e-8) return Math.expm1(x) / x;
+        return 1 + x * 0.5 * (1 + x * (1.0 / 3) * (1 + 0.25 * x));
+    }
+}
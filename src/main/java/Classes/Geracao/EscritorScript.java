@@ -0,0 +1,280 @@
+package Classes.Geracao;
+
+import Classes.Genero;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Escreve os dados gerados como um script de comandos do administrador, no formato lido pelo
+ * {@link Classes.Importacao.ImportadorScript} (o de {@code scriptExemplo.txt}): uma linha por elemento, escrita
+ * logo que o elemento é recebido. As playlists e as reproduções usam os comandos
+ * {@code playlistConstruida create} e {@code reproducao create}.
+ *
+ * O escritor não fecha o destino; {@link #terminar()} apenas o despeja.
+ */
+public class EscritorScript implements DestinoGeracao {
+    private final Writer destino;
+
+    /**
+     * Construtor parametrizado.
+     *
+     * @param destino Destino das linhas do script (de preferência com buffer).
+     */
+    public EscritorScript(Writer destino) {
+        this.destino = destino;
+    }
+
+    /**
+     * Escreve um comando "artista create".
+     *
+     * @param nome Nome do artista.
+     * @param pais País do artista.
+     * @throws IOException Se ocorrer um erro de escrita.
+     * @throws IllegalArgumentException Se algum campo tiver um separador do formato.
+     */
+    @Override
+    public void artista(String nome, String pais) throws IOException {
+        comando("artista create");
+        campo(nome);
+        campo(pais);
+        fimDeLinha();
+    }
+
+    /**
+     * Escreve um comando "musica create".
+     *
+     * @param nome    Nome da música.
+     * @param artista Nome do artista.
+     * @param editora Nome da editora.
+     * @param letra   Linhas da letra.
+     * @param melodia Linhas da melodia.
+     * @param genero  Género musical.
+     * @param duracao Duração, em segundos.
+     * @throws IOException Se ocorrer um erro de escrita.
+     * @throws IllegalArgumentException Se algum campo tiver um separador do formato.
+     */
+    @Override
+    public void musica(String nome, String artista, String editora, List<String> letra, List<String> melodia,
+                       Genero genero, int duracao) throws IOException {
+        comando("musica create");
+        camposMusica(nome, artista, editora, letra, melodia, genero, duracao);
+        fimDeLinha();
+    }
+
+    /**
+     * Escreve um comando "musicaExplicita create".
+     *
+     * @param nome        Nome da música.
+     * @param artista     Nome do artista.
+     * @param editora     Nome da editora.
+     * @param letra       Linhas da letra.
+     * @param melodia     Linhas da melodia.
+     * @param genero      Género musical.
+     * @param duracao     Duração, em segundos.
+     * @param aviso       Aviso de conteúdo explícito.
+     * @param idadeMinima Idade mínima.
+     * @throws IOException Se ocorrer um erro de escrita.
+     * @throws IllegalArgumentException Se algum campo tiver um separador do formato.
+     */
+    @Override
+    public void musicaExplicita(String nome, String artista, String editora, List<String> letra, List<String> melodia,
+                                Genero genero, int duracao, String aviso, int idadeMinima) throws IOException {
+        comando("musicaExplicita create");
+        camposMusica(nome, artista, editora, letra, melodia, genero, duracao);
+        campo(aviso);
+        campo(Integer.toString(idadeMinima));
+        fimDeLinha();
+    }
+
+    /**
+     * Escreve um comando "musicaMultimedia create".
+     *
+     * @param nome    Nome da música.
+     * @param artista Nome do artista.
+     * @param editora Nome da editora.
+     * @param letra   Linhas da letra.
+     * @param melodia Linhas da melodia.
+     * @param genero  Género musical.
+     * @param duracao Duração, em segundos.
+     * @param video   Nome do ficheiro de vídeo.
+     * @param formato Formato do vídeo.
+     * @throws IOException Se ocorrer um erro de escrita.
+     * @throws IllegalArgumentException Se algum campo tiver um separador do formato.
+     */
+    @Override
+    public void musicaMultimedia(String nome, String artista, String editora, List<String> letra, List<String> melodia,
+                                 Genero genero, int duracao, String video, String formato) throws IOException {
+        comando("musicaMultimedia create");
+        camposMusica(nome, artista, editora, letra, melodia, genero, duracao);
+        campo(video);
+        campo(formato);
+        fimDeLinha();
+    }
+
+    /**
+     * Escreve um comando "user register", com o cargo de utilizador normal.
+     *
+     * @param email    Email do utilizador.
+     * @param nome     Nome do utilizador.
+     * @param morada   Morada do utilizador.
+     * @param password Password do utilizador.
+     * @param plano    Plano de subscrição.
+     * @throws IOException Se ocorrer um erro de escrita.
+     * @throws IllegalArgumentException Se algum campo tiver um separador do formato.
+     */
+    @Override
+    public void utilizador(String email, String nome, String morada, String password, String plano) throws IOException {
+        comando("user register");
+        campo(email);
+        campo(nome);
+        campo(morada);
+        campo(password);
+        campo(plano);
+        campo("user");
+        fimDeLinha();
+    }
+
+    /**
+     * Escreve um comando "playlistConstruida create".
+     *
+     * @param nome        Nome da playlist.
+     * @param email       Email do utilizador que a criou.
+     * @param dataCriacao Data de criação.
+     * @param publica     true se a playlist for pública.
+     * @param musicas     Nomes das músicas da playlist.
+     * @throws IOException Se ocorrer um erro de escrita.
+     * @throws IllegalArgumentException Se algum campo tiver um separador do formato.
+     */
+    @Override
+    public void playlist(String nome, String email, LocalDate dataCriacao, boolean publica, List<String> musicas)
+            throws IOException {
+        comando("playlistConstruida create");
+        campo(nome);
+        campo(email);
+        campo(dataCriacao.toString());
+        campo(Boolean.toString(publica));
+        for (String musica : musicas) {
+            campo(musica);
+        }
+        fimDeLinha();
+    }
+
+    /**
+     * Escreve um comando "reproducao create".
+     *
+     * @param email      Email do utilizador.
+     * @param nomeMusica Nome da música.
+     * @param dataHora   Instante da reprodução.
+     * @throws IOException Se ocorrer um erro de escrita.
+     * @throws IllegalArgumentException Se algum campo tiver um separador do formato.
+     */
+    @Override
+    public void reproducao(String email, String nomeMusica, LocalDateTime dataHora) throws IOException {
+        comando("reproducao create");
+        campo(email);
+        campo(nomeMusica);
+        campo(dataHora.toString());
+        fimDeLinha();
+    }
+
+    /**
+     * Despeja o que ainda estiver no buffer do destino.
+     *
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    @Override
+    public void terminar() throws IOException {
+        this.destino.flush();
+    }
+
+    /**
+     * Escreve os campos comuns a todos os tipos de música.
+     *
+     * @param nome    Nome da música.
+     * @param artista Nome do artista.
+     * @param editora Nome da editora.
+     * @param letra   Linhas da letra.
+     * @param melodia Linhas da melodia.
+     * @param genero  Género musical.
+     * @param duracao Duração, em segundos.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    private void camposMusica(String nome, String artista, String editora, List<String> letra, List<String> melodia,
+                              Genero genero, int duracao) throws IOException {
+        campo(nome);
+        campo(artista);
+        campo(editora);
+        lista(letra);
+        lista(melodia);
+        campo(genero.name());
+        campo(Integer.toString(duracao));
+    }
+
+    /**
+     * Escreve o início de uma linha de comando do administrador.
+     *
+     * @param comando Nome do comando.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    private void comando(String comando) throws IOException {
+        this.destino.write("admin,");
+        this.destino.write(comando);
+    }
+
+    /**
+     * Escreve um campo, precedido do separador.
+     *
+     * @param campo Texto do campo.
+     * @throws IOException Se ocorrer um erro de escrita.
+     * @throws IllegalArgumentException Se o campo tiver um separador do formato.
+     */
+    private void campo(String campo) throws IOException {
+        validar(campo, '<');
+        this.destino.write(" < ");
+        this.destino.write(campo);
+    }
+
+    /**
+     * Escreve um campo com uma lista de elementos separados por '|'.
+     *
+     * @param elementos Elementos da lista (pelo menos um).
+     * @throws IOException Se ocorrer um erro de escrita.
+     * @throws IllegalArgumentException Se algum elemento tiver um separador do formato.
+     */
+    private void lista(List<String> elementos) throws IOException {
+        this.destino.write(" < ");
+        for (int i = 0; i < elementos.size(); i++) {
+            String elemento = elementos.get(i);
+            validar(elemento, '<');
+            validar(elemento, '|');
+            if (i > 0) this.destino.write('|');
+            this.destino.write(elemento);
+        }
+    }
+
+    /**
+     * Termina a linha atual.
+     *
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    private void fimDeLinha() throws IOException {
+        this.destino.write('\n');
+    }
+
+    /**
+     * Verifica que um texto não tem um separador nem fins de linha.
+     *
+     * @param texto      Texto a verificar.
+     * @param separador  Separador proibido.
+     * @throws IllegalArgumentException Se o texto tiver o separador ou um fim de linha.
+     */
+    private static void validar(String texto, char separador) {
+        if (texto.indexOf(separador) >= 0 || texto.indexOf('\n') >= 0 || texto.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException("Campo com um separador do script: " + texto);
+        }
+    }
+}
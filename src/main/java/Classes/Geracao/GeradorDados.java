@@ -0,0 +1,305 @@
+package Classes.Geracao;
+
+import Classes.Genero;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Gerador determinista de conjuntos de dados sintéticos do SpotifUM, a partir de uns {@link ParametrosGeracao}.
+ *
+ * Gera artistas, músicas normais, explícitas e multimédia, utilizadores de cada plano, playlists construídas e
+ * reproduções, e entrega-os um a um a um {@link DestinoGeracao}. As reproduções são geradas em streaming, por ordem
+ * cronológica e espalhadas uniformemente pelo período dos parâmetros; a música e o utilizador de cada reprodução
+ * seguem distribuições de Zipf ({@link DistribuicaoZipf}) sobre uma ordem de popularidade baralhada, para que as
+ * músicas e os utilizadores mais populares não sejam sempre os primeiros nem do mesmo tipo ou plano.
+ * A memória usada não depende do número de reproduções, apenas do número de músicas e de utilizadores.
+ *
+ * Os nomes são gerados a partir de índices (ver {@link #nomeMusica(int)}, {@link #email(int)} e
+ * {@link #nomeArtista(int)}): as músicas são numeradas por tipo (primeiro as normais, depois as explícitas e
+ * por fim as multimédia) e os utilizadores por plano (Free, PremiumBase e PremiumTop).
+ * O catálogo, os utilizadores e as playlists usam fluxos de números aleatórios próprios, pelo que mudar o número
+ * de reproduções não muda o resto do conjunto de dados.
+ */
+public class GeradorDados {
+
+    private static final String[] PAISES = {"Portugal", "Brasil", "USA", "UK", "Espanha", "França", "Alemanha", "Japão"};
+    private static final String[] MELODIA = {"Beat", "Snare", "Bass", "Drum", "Piano", "Synth", "Guitarra", "808"};
+    private static final String[] AVISOS = {"Linguagem explícita", "Temas sensíveis"};
+    private static final String[] FORMATOS = {"mp4", "mov"};
+    private static final int VERSOS = 500;
+    private static final int EDITORAS = 20;
+    private static final int DURACAO_MINIMA = 120;
+    private static final int DURACAO_MAXIMA = 360;
+
+    private static final long FLUXO_CATALOGO = 0x636174616c6f676fL;
+    private static final long FLUXO_UTILIZADORES = 0x7574696c697a6164L;
+    private static final long FLUXO_PLAYLISTS = 0x706c61796c697374L;
+    private static final long FLUXO_REPRODUCOES = 0x7265706f64756361L;
+
+    private final ParametrosGeracao parametros;
+
+    /**
+     * Construtor parametrizado.
+     *
+     * @param parametros Parâmetros do conjunto de dados (são copiados).
+     * @throws IllegalArgumentException Se os parâmetros forem incoerentes (por exemplo, músicas sem artistas
+     *                                  ou reproduções sem utilizadores).
+     */
+    public GeradorDados(ParametrosGeracao parametros) {
+        ParametrosGeracao p = parametros.clone();
+        int musicas = p.getTotalMusicas();
+        int utilizadores = p.getTotalUtilizadores();
+        if (musicas > 0 && p.getArtistas() == 0) {
+            throw new IllegalArgumentException("São precisos artistas para gerar músicas");
+        }
+        if (p.getPlaylists() > 0 && (musicas == 0 || utilizadores == 0)) {
+            throw new IllegalArgumentException("São precisos músicas e utilizadores para gerar playlists");
+        }
+        if (p.getReproducoes() > 0 && (musicas == 0 || utilizadores == 0)) {
+            throw new IllegalArgumentException("São precisos músicas e utilizadores para gerar reproduções");
+        }
+        this.parametros = p;
+    }
+
+    /**
+     * Retorna uma cópia dos parâmetros do gerador.
+     *
+     * @return Parâmetros.
+     */
+    public ParametrosGeracao getParametros() {
+        return this.parametros.clone();
+    }
+
+    /**
+     * Gera o conjunto de dados, entregando cada elemento ao destino, e termina o destino.
+     *
+     * @param destino Destino dos dados.
+     * @throws IOException Se o destino não conseguir escrever os dados.
+     */
+    public void gerar(DestinoGeracao destino) throws IOException {
+        gerarArtistas(destino);
+        gerarMusicas(destino);
+        gerarUtilizadores(destino);
+        gerarPlaylists(destino);
+        gerarReproducoes(destino);
+        destino.terminar();
+    }
+
+    /**
+     * Devolve o nome do artista de índice dado.
+     *
+     * @param indice Índice do artista.
+     * @return Nome do artista.
+     */
+    public static String nomeArtista(int indice) {
+        return "Artista " + indice;
+    }
+
+    /**
+     * Devolve o nome da música de índice dado (as músicas de todos os tipos partilham a numeração).
+     *
+     * @param indice Índice da música.
+     * @return Nome da música.
+     */
+    public static String nomeMusica(int indice) {
+        return "Musica " + indice;
+    }
+
+    /**
+     * Devolve o email do utilizador de índice dado (os utilizadores de todos os planos partilham a numeração).
+     *
+     * @param indice Índice do utilizador.
+     * @return Email do utilizador.
+     */
+    public static String email(int indice) {
+        return "utilizador" + indice + "@spotifum.pt";
+    }
+
+    /**
+     * Gera os artistas.
+     *
+     * @param destino Destino dos dados.
+     * @throws IOException Se o destino não conseguir escrever os dados.
+     */
+    private void gerarArtistas(DestinoGeracao destino) throws IOException {
+        SplittableRandom aleatorio = fluxo(FLUXO_CATALOGO);
+        for (int a = 0; a < this.parametros.getArtistas(); a++) {
+            destino.artista(nomeArtista(a), PAISES[aleatorio.nextInt(PAISES.length)]);
+        }
+    }
+
+    /**
+     * Gera as músicas: primeiro as normais, depois as explícitas e por fim as multimédia.
+     *
+     * @param destino Destino dos dados.
+     * @throws IOException Se o destino não conseguir escrever os dados.
+     */
+    private void gerarMusicas(DestinoGeracao destino) throws IOException {
+        SplittableRandom aleatorio = fluxo(FLUXO_CATALOGO + 1);
+        Genero[] generos = Genero.values();
+        int normais = this.parametros.getMusicas();
+        int explicitas = this.parametros.getMusicasExplicitas();
+
+        for (int m = 0; m < this.parametros.getTotalMusicas(); m++) {
+            String nome = nomeMusica(m);
+            String artista = nomeArtista(aleatorio.nextInt(this.parametros.getArtistas()));
+            String editora = "Editora " + aleatorio.nextInt(EDITORAS);
+            List<String> letra = linhas(aleatorio, 2 + aleatorio.nextInt(3), null);
+            List<String> melodia = linhas(aleatorio, 1 + aleatorio.nextInt(3), MELODIA);
+            Genero genero = generos[aleatorio.nextInt(generos.length)];
+            int duracao = aleatorio.nextInt(DURACAO_MINIMA, DURACAO_MAXIMA + 1);
+
+            if (m < normais) {
+                destino.musica(nome, artista, editora, letra, melodia, genero, duracao);
+            } else if (m < normais + explicitas) {
+                destino.musicaExplicita(nome, artista, editora, letra, melodia, genero, duracao,
+                        AVISOS[aleatorio.nextInt(AVISOS.length)], aleatorio.nextBoolean() ? 16 : 18);
+            } else {
+                String formato = FORMATOS[aleatorio.nextInt(FORMATOS.length)];
+                destino.musicaMultimedia(nome, artista, editora, letra, melodia, genero, duracao,
+                        "video" + m + "." + formato, formato);
+            }
+        }
+    }
+
+    /**
+     * Gera as linhas da letra ou da melodia de uma música.
+     *
+     * @param aleatorio Gerador de números aleatórios.
+     * @param numero    Número de linhas.
+     * @param opcoes    Linhas possíveis (null para versos numerados).
+     * @return Linhas geradas.
+     */
+    private static List<String> linhas(SplittableRandom aleatorio, int numero, String[] opcoes) {
+        List<String> linhas = new ArrayList<>(numero);
+        for (int i = 0; i < numero; i++) {
+            linhas.add((opcoes == null) ? "Verso " + aleatorio.nextInt(VERSOS) : opcoes[aleatorio.nextInt(opcoes.length)]);
+        }
+        return linhas;
+    }
+
+    /**
+     * Gera os utilizadores: primeiro os Free, depois os PremiumBase e por fim os PremiumTop.
+     *
+     * @param destino Destino dos dados.
+     * @throws IOException Se o destino não conseguir escrever os dados.
+     */
+    private void gerarUtilizadores(DestinoGeracao destino) throws IOException {
+        int free = this.parametros.getUtilizadoresFree();
+        int base = this.parametros.getUtilizadoresPremiumBase();
+        for (int u = 0; u < this.parametros.getTotalUtilizadores(); u++) {
+            String plano = (u < free) ? "free" : (u < free + base) ? "premiumbase" : "premiumtop";
+            destino.utilizador(email(u), "Utilizador " + u, "Rua " + u, "123", plano);
+        }
+    }
+
+    /**
+     * Gera as playlists. Cada playlist pertence a um utilizador Premium escolhido ao acaso (ou a um utilizador
+     * qualquer, se não houver utilizadores Premium) e tem músicas distintas, escolhidas pela popularidade.
+     *
+     * @param destino Destino dos dados.
+     * @throws IOException Se o destino não conseguir escrever os dados.
+     */
+    private void gerarPlaylists(DestinoGeracao destino) throws IOException {
+        if (this.parametros.getPlaylists() == 0) return;
+        SplittableRandom aleatorio = fluxo(FLUXO_PLAYLISTS);
+        int totalMusicas = this.parametros.getTotalMusicas();
+        int[] popularidade = ordemPopularidade(totalMusicas, FLUXO_CATALOGO + 2);
+        DistribuicaoZipf zipf = new DistribuicaoZipf(totalMusicas, this.parametros.getExpoenteMusicas());
+
+        int free = this.parametros.getUtilizadoresFree();
+        int premium = this.parametros.getTotalUtilizadores() - free;
+        int primeiroDono = (premium > 0) ? free : 0;
+        int donos = (premium > 0) ? premium : free;
+        int tamanho = Math.min(this.parametros.getMusicasPorPlaylist(), totalMusicas);
+        LocalDate data = this.parametros.getInicio().toLocalDate();
+
+        for (int p = 0; p < this.parametros.getPlaylists(); p++) {
+            String dono = email(primeiroDono + aleatorio.nextInt(donos));
+            LinkedHashSet<Integer> escolhidas = new LinkedHashSet<>();
+            for (int tentativa = 0; escolhidas.size() < tamanho && tentativa < 4 * tamanho; tentativa++) {
+                escolhidas.add(popularidade[zipf.amostra(aleatorio) - 1]);
+            }
+            // as músicas pouco populares podem demorar muito a sair: completa-se pela ordem de popularidade
+            for (int r = 0; escolhidas.size() < tamanho; r++) {
+                escolhidas.add(popularidade[r]);
+            }
+            List<String> musicas = new ArrayList<>(tamanho);
+            for (int m : escolhidas) {
+                musicas.add(nomeMusica(m));
+            }
+            destino.playlist("Playlist " + p, dono, data, aleatorio.nextBoolean(), musicas);
+        }
+    }
+
+    /**
+     * Gera as reproduções, por ordem cronológica: a reprodução i acontece a {@code i / n} do período.
+     *
+     * @param destino Destino dos dados.
+     * @throws IOException Se o destino não conseguir escrever os dados.
+     */
+    private void gerarReproducoes(DestinoGeracao destino) throws IOException {
+        long numero = this.parametros.getReproducoes();
+        if (numero == 0) return;
+        SplittableRandom aleatorio = fluxo(FLUXO_REPRODUCOES);
+        int totalMusicas = this.parametros.getTotalMusicas();
+        int totalUtilizadores = this.parametros.getTotalUtilizadores();
+        int[] musicas = ordemPopularidade(totalMusicas, FLUXO_CATALOGO + 2);
+        int[] utilizadores = ordemPopularidade(totalUtilizadores, FLUXO_UTILIZADORES);
+        DistribuicaoZipf zipfMusicas = new DistribuicaoZipf(totalMusicas, this.parametros.getExpoenteMusicas());
+        DistribuicaoZipf zipfUtilizadores = new DistribuicaoZipf(totalUtilizadores, this.parametros.getExpoenteUtilizadores());
+
+        LocalDateTime inicio = this.parametros.getInicio();
+        double segundos = this.parametros.getDuracao().getSeconds();
+        long segundoAtual = -1;
+        LocalDateTime dataHora = inicio;
+        for (long i = 0; i < numero; i++) {
+            long segundo = (long) ((double) i / numero * segundos);
+            if (segundo != segundoAtual) {
+                segundoAtual = segundo;
+                dataHora = inicio.plusSeconds(segundo);
+            }
+            String email = email(utilizadores[zipfUtilizadores.amostra(aleatorio) - 1]);
+            String musica = nomeMusica(musicas[zipfMusicas.amostra(aleatorio) - 1]);
+            destino.reproducao(email, musica, dataHora);
+        }
+    }
+
+    /**
+     * Baralha os índices 0..n-1, dando a ordem de popularidade: o primeiro é o mais popular.
+     *
+     * @param numero Número de índices.
+     * @param fluxo  Fluxo de números aleatórios a usar.
+     * @return Índices baralhados.
+     */
+    private int[] ordemPopularidade(int numero, long fluxo) {
+        SplittableRandom aleatorio = fluxo(fluxo);
+        int[] ordem = new int[numero];
+        for (int i = 0; i < numero; i++) {
+            ordem[i] = i;
+        }
+        for (int i = numero - 1; i > 0; i--) {
+            int j = aleatorio.nextInt(i + 1);
+            int t = ordem[i];
+            ordem[i] = ordem[j];
+            ordem[j] = t;
+        }
+        return ordem;
+    }
+
+    /**
+     * Cria o gerador de números aleatórios de um fluxo, a partir da semente dos parâmetros.
+     *
+     * @param fluxo Identificador do fluxo.
+     * @return Gerador de números aleatórios.
+     */
+    private SplittableRandom fluxo(long fluxo) {
+        return new SplittableRandom(this.parametros.getSemente() * 0x9E3779B97F4A7C15L + fluxo);
+    }
+}
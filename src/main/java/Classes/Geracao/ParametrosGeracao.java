@@ -0,0 +1,429 @@
+package Classes.Geracao;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Parâmetros de um conjunto de dados sintético gerado pelo {@link GeradorDados}: semente, número de artistas,
+ * de músicas de cada tipo, de utilizadores de cada plano, de playlists e de reproduções, expoentes das
+ * distribuições de Zipf das reproduções e período em que as reproduções acontecem.
+ * Os valores por omissão dão um conjunto pequeno, com 100 mil reproduções.
+ */
+public class ParametrosGeracao {
+    private long semente;
+    private int artistas;
+    private int musicas;
+    private int musicasExplicitas;
+    private int musicasMultimedia;
+    private int utilizadoresFree;
+    private int utilizadoresPremiumBase;
+    private int utilizadoresPremiumTop;
+    private int playlists;
+    private int musicasPorPlaylist;
+    private long reproducoes;
+    private double expoenteMusicas;
+    private double expoenteUtilizadores;
+    private LocalDateTime inicio;
+    private Duration duracao;
+
+    /**
+     * Construtor por omissão.
+     * Inicializa os parâmetros com os valores por omissão.
+     */
+    public ParametrosGeracao() {
+        this.semente = 42;
+        this.artistas = 100;
+        this.musicas = 800;
+        this.musicasExplicitas = 100;
+        this.musicasMultimedia = 100;
+        this.utilizadoresFree = 600;
+        this.utilizadoresPremiumBase = 250;
+        this.utilizadoresPremiumTop = 150;
+        this.playlists = 100;
+        this.musicasPorPlaylist = 10;
+        this.reproducoes = 100_000;
+        this.expoenteMusicas = 1.0;
+        this.expoenteUtilizadores = 1.0;
+        this.inicio = LocalDateTime.of(2025, 1, 1, 0, 0);
+        this.duracao = Duration.ofDays(365);
+    }
+
+    /**
+     * Construtor de cópia.
+     *
+     * @param p Parâmetros a copiar.
+     */
+    public ParametrosGeracao(ParametrosGeracao p) {
+        this.semente = p.getSemente();
+        this.artistas = p.getArtistas();
+        this.musicas = p.getMusicas();
+        this.musicasExplicitas = p.getMusicasExplicitas();
+        this.musicasMultimedia = p.getMusicasMultimedia();
+        this.utilizadoresFree = p.getUtilizadoresFree();
+        this.utilizadoresPremiumBase = p.getUtilizadoresPremiumBase();
+        this.utilizadoresPremiumTop = p.getUtilizadoresPremiumTop();
+        this.playlists = p.getPlaylists();
+        this.musicasPorPlaylist = p.getMusicasPorPlaylist();
+        this.reproducoes = p.getReproducoes();
+        this.expoenteMusicas = p.getExpoenteMusicas();
+        this.expoenteUtilizadores = p.getExpoenteUtilizadores();
+        this.inicio = p.getInicio();
+        this.duracao = p.getDuracao();
+    }
+
+    /**
+     * Retorna a semente dos números aleatórios. A mesma semente e os mesmos parâmetros geram sempre os mesmos dados.
+     *
+     * @return Semente.
+     */
+    public long getSemente() {
+        return this.semente;
+    }
+
+    /**
+     * Define a semente dos números aleatórios.
+     *
+     * @param semente Semente.
+     */
+    public void setSemente(long semente) {
+        this.semente = semente;
+    }
+
+    /**
+     * Retorna o número de artistas.
+     *
+     * @return Número de artistas.
+     */
+    public int getArtistas() {
+        return this.artistas;
+    }
+
+    /**
+     * Define o número de artistas.
+     *
+     * @param artistas Número de artistas.
+     * @throws IllegalArgumentException Se o número for negativo.
+     */
+    public void setArtistas(int artistas) {
+        this.artistas = naoNegativo(artistas, "artistas");
+    }
+
+    /**
+     * Retorna o número de músicas normais.
+     *
+     * @return Número de músicas normais.
+     */
+    public int getMusicas() {
+        return this.musicas;
+    }
+
+    /**
+     * Define o número de músicas normais.
+     *
+     * @param musicas Número de músicas normais.
+     * @throws IllegalArgumentException Se o número for negativo.
+     */
+    public void setMusicas(int musicas) {
+        this.musicas = naoNegativo(musicas, "músicas");
+    }
+
+    /**
+     * Retorna o número de músicas explícitas.
+     *
+     * @return Número de músicas explícitas.
+     */
+    public int getMusicasExplicitas() {
+        return this.musicasExplicitas;
+    }
+
+    /**
+     * Define o número de músicas explícitas.
+     *
+     * @param musicasExplicitas Número de músicas explícitas.
+     * @throws IllegalArgumentException Se o número for negativo.
+     */
+    public void setMusicasExplicitas(int musicasExplicitas) {
+        this.musicasExplicitas = naoNegativo(musicasExplicitas, "músicas explícitas");
+    }
+
+    /**
+     * Retorna o número de músicas multimédia.
+     *
+     * @return Número de músicas multimédia.
+     */
+    public int getMusicasMultimedia() {
+        return this.musicasMultimedia;
+    }
+
+    /**
+     * Define o número de músicas multimédia.
+     *
+     * @param musicasMultimedia Número de músicas multimédia.
+     * @throws IllegalArgumentException Se o número for negativo.
+     */
+    public void setMusicasMultimedia(int musicasMultimedia) {
+        this.musicasMultimedia = naoNegativo(musicasMultimedia, "músicas multimédia");
+    }
+
+    /**
+     * Retorna o número total de músicas, de todos os tipos.
+     *
+     * @return Número total de músicas.
+     */
+    public int getTotalMusicas() {
+        return Math.addExact(Math.addExact(this.musicas, this.musicasExplicitas), this.musicasMultimedia);
+    }
+
+    /**
+     * Retorna o número de utilizadores com o plano Free.
+     *
+     * @return Número de utilizadores Free.
+     */
+    public int getUtilizadoresFree() {
+        return this.utilizadoresFree;
+    }
+
+    /**
+     * Define o número de utilizadores com o plano Free.
+     *
+     * @param utilizadoresFree Número de utilizadores Free.
+     * @throws IllegalArgumentException Se o número for negativo.
+     */
+    public void setUtilizadoresFree(int utilizadoresFree) {
+        this.utilizadoresFree = naoNegativo(utilizadoresFree, "utilizadores free");
+    }
+
+    /**
+     * Retorna o número de utilizadores com o plano PremiumBase.
+     *
+     * @return Número de utilizadores PremiumBase.
+     */
+    public int getUtilizadoresPremiumBase() {
+        return this.utilizadoresPremiumBase;
+    }
+
+    /**
+     * Define o número de utilizadores com o plano PremiumBase.
+     *
+     * @param utilizadoresPremiumBase Número de utilizadores PremiumBase.
+     * @throws IllegalArgumentException Se o número for negativo.
+     */
+    public void setUtilizadoresPremiumBase(int utilizadoresPremiumBase) {
+        this.utilizadoresPremiumBase = naoNegativo(utilizadoresPremiumBase, "utilizadores premium base");
+    }
+
+    /**
+     * Retorna o número de utilizadores com o plano PremiumTop.
+     *
+     * @return Número de utilizadores PremiumTop.
+     */
+    public int getUtilizadoresPremiumTop() {
+        return this.utilizadoresPremiumTop;
+    }
+
+    /**
+     * Define o número de utilizadores com o plano PremiumTop.
+     *
+     * @param utilizadoresPremiumTop Número de utilizadores PremiumTop.
+     * @throws IllegalArgumentException Se o número for negativo.
+     */
+    public void setUtilizadoresPremiumTop(int utilizadoresPremiumTop) {
+        this.utilizadoresPremiumTop = naoNegativo(utilizadoresPremiumTop, "utilizadores premium top");
+    }
+
+    /**
+     * Retorna o número total de utilizadores, de todos os planos.
+     *
+     * @return Número total de utilizadores.
+     */
+    public int getTotalUtilizadores() {
+        return Math.addExact(Math.addExact(this.utilizadoresFree, this.utilizadoresPremiumBase), this.utilizadoresPremiumTop);
+    }
+
+    /**
+     * Retorna o número de playlists.
+     *
+     * @return Número de playlists.
+     */
+    public int getPlaylists() {
+        return this.playlists;
+    }
+
+    /**
+     * Define o número de playlists.
+     *
+     * @param playlists Número de playlists.
+     * @throws IllegalArgumentException Se o número for negativo.
+     */
+    public void setPlaylists(int playlists) {
+        this.playlists = naoNegativo(playlists, "playlists");
+    }
+
+    /**
+     * Retorna o número de músicas de cada playlist.
+     *
+     * @return Número de músicas por playlist.
+     */
+    public int getMusicasPorPlaylist() {
+        return this.musicasPorPlaylist;
+    }
+
+    /**
+     * Define o número de músicas de cada playlist (limitado, na geração, ao número de músicas do catálogo).
+     *
+     * @param musicasPorPlaylist Número de músicas por playlist.
+     * @throws IllegalArgumentException Se o número for negativo.
+     */
+    public void setMusicasPorPlaylist(int musicasPorPlaylist) {
+        this.musicasPorPlaylist = naoNegativo(musicasPorPlaylist, "músicas por playlist");
+    }
+
+    /**
+     * Retorna o número de reproduções.
+     *
+     * @return Número de reproduções.
+     */
+    public long getReproducoes() {
+        return this.reproducoes;
+    }
+
+    /**
+     * Define o número de reproduções.
+     *
+     * @param reproducoes Número de reproduções.
+     * @throws IllegalArgumentException Se o número for negativo.
+     */
+    public void setReproducoes(long reproducoes) {
+        if (reproducoes < 0) throw new IllegalArgumentException("Número de reproduções inválido: " + reproducoes);
+        this.reproducoes = reproducoes;
+    }
+
+    /**
+     * Retorna o expoente da distribuição de Zipf das músicas reproduzidas.
+     *
+     * @return Expoente.
+     */
+    public double getExpoenteMusicas() {
+        return this.expoenteMusicas;
+    }
+
+    /**
+     * Define o expoente da distribuição de Zipf das músicas reproduzidas. Quanto maior, mais as reproduções
+     * se concentram nas músicas mais populares.
+     *
+     * @param expoenteMusicas Expoente.
+     * @throws IllegalArgumentException Se o expoente não for positivo.
+     */
+    public void setExpoenteMusicas(double expoenteMusicas) {
+        this.expoenteMusicas = positivo(expoenteMusicas, "músicas");
+    }
+
+    /**
+     * Retorna o expoente da distribuição de Zipf dos utilizadores que reproduzem.
+     *
+     * @return Expoente.
+     */
+    public double getExpoenteUtilizadores() {
+        return this.expoenteUtilizadores;
+    }
+
+    /**
+     * Define o expoente da distribuição de Zipf dos utilizadores que reproduzem. Quanto maior, mais as
+     * reproduções se concentram nos utilizadores mais ativos.
+     *
+     * @param expoenteUtilizadores Expoente.
+     * @throws IllegalArgumentException Se o expoente não for positivo.
+     */
+    public void setExpoenteUtilizadores(double expoenteUtilizadores) {
+        this.expoenteUtilizadores = positivo(expoenteUtilizadores, "utilizadores");
+    }
+
+    /**
+     * Retorna o instante da primeira reprodução.
+     *
+     * @return Início do período das reproduções.
+     */
+    public LocalDateTime getInicio() {
+        return this.inicio;
+    }
+
+    /**
+     * Define o instante da primeira reprodução.
+     *
+     * @param inicio Início do período das reproduções.
+     */
+    public void setInicio(LocalDateTime inicio) {
+        this.inicio = inicio;
+    }
+
+    /**
+     * Retorna a duração do período das reproduções.
+     *
+     * @return Duração do período.
+     */
+    public Duration getDuracao() {
+        return this.duracao;
+    }
+
+    /**
+     * Define a duração do período das reproduções, que são distribuídas uniformemente ao longo dele.
+     *
+     * @param duracao Duração do período.
+     * @throws IllegalArgumentException Se a duração for negativa.
+     */
+    public void setDuracao(Duration duracao) {
+        if (duracao.isNegative()) throw new IllegalArgumentException("Duração inválida: " + duracao);
+        this.duracao = duracao;
+    }
+
+    /**
+     * Cria uma cópia dos parâmetros.
+     *
+     * @return Cópia dos parâmetros.
+     */
+    public ParametrosGeracao clone() {
+        return new ParametrosGeracao(this);
+    }
+
+    /**
+     * Retorna uma representação textual dos parâmetros.
+     *
+     * @return String com todos os parâmetros.
+     */
+    @Override
+    public String toString() {
+        return "ParametrosGeracao{semente=" + this.semente + ", artistas=" + this.artistas + ", musicas=" + this.musicas
+                + ", musicasExplicitas=" + this.musicasExplicitas + ", musicasMultimedia=" + this.musicasMultimedia
+                + ", utilizadoresFree=" + this.utilizadoresFree + ", utilizadoresPremiumBase=" + this.utilizadoresPremiumBase
+                + ", utilizadoresPremiumTop=" + this.utilizadoresPremiumTop + ", playlists=" + this.playlists
+                + ", musicasPorPlaylist=" + this.musicasPorPlaylist + ", reproducoes=" + this.reproducoes
+                + ", expoenteMusicas=" + this.expoenteMusicas + ", expoenteUtilizadores=" + this.expoenteUtilizadores
+                + ", inicio=" + this.inicio + ", duracao=" + this.duracao + "}";
+    }
+
+    /**
+     * Valida um número que não pode ser negativo.
+     *
+     * @param valor Número.
+     * @param nome  Nome do parâmetro, para a mensagem de erro.
+     * @return O próprio número.
+     * @throws IllegalArgumentException Se o número for negativo.
+     */
+    private static int naoNegativo(int valor, String nome) {
+        if (valor < 0) throw new IllegalArgumentException("Número de " + nome + " inválido: " + valor);
+        return valor;
+    }
+
+    /**
+     * Valida um expoente, que tem de ser positivo.
+     *
+     * @param valor Expoente.
+     * @param nome  Nome da distribuição, para a mensagem de erro.
+     * @return O próprio expoente.
+     * @throws IllegalArgumentException Se o expoente não for positivo.
+     */
+    private static double positivo(double valor, String nome) {
+        if (!(valor > 0)) throw new IllegalArgumentException("Expoente das " + nome + " inválido: " + valor);
+        return valor;
+    }
+}
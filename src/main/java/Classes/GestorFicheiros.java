@@ -1,15 +1,16 @@
 package Classes;
 
-import Classes.Musicas.*;
-import Classes.Playlists.Playlist;
-import Classes.Playlists.PlaylistAleatoria;
+import Classes.Importacao.ImportadorScript;
+import Classes.Importacao.ResumoImportacao;
+import Classes.Metricas.Instrumentacao;
+import Classes.Metricas.Temporizador;
+import Classes.Persistencia.EscritorSnapshot;
+import Classes.Persistencia.LeitorEstadoAntigo;
+import Classes.Persistencia.LeitorSnapshot;
 import SpotifUM.SpotifUM;
 
 import java.io.*;
-import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.nio.file.Paths;
 
 /**
  * Classe responsável pela gestão de ficheiros no model SpotifUM.
@@ -21,13 +22,23 @@ public class GestorFicheiros {
      * Caminho para o ficheiro onde o estado da aplicação SpotifUM é guardado.
      */
     public static final String SPOTIFUMFILE = "src/Ficheiros/SpotifUM.dat";
+    /**
+     * Caminho base dos segmentos do diário de operações (SpotifUM.wal.000001, ...).
+     */
+    public static final String DIARIOFILE = "src/Ficheiros/SpotifUM.wal";
     /**
      * Caminho para o ficheiro de script de exemplo usado para carregar dados automaticamente.
      */
     public static final String SCRIPTFILE = "src/Ficheiros/scriptExemplo.txt";
 
+    private static final Temporizador TEMPO_GUARDAR = tempoOperacao("guardar");
+    private static final Temporizador TEMPO_CARREGAR = tempoOperacao("carregar");
+    private static final Temporizador TEMPO_SCRIPT = tempoOperacao("script");
+
     /**
-     * Guarda o estado atual do model SpotifUM num ficheiro binário.
+     * Guarda o estado atual do model SpotifUM num ficheiro binário (formato de snapshot).
+     * O ficheiro é escrito primeiro para um ficheiro temporário, pelo que uma falha a meio
+     * não estraga o estado guardado anteriormente.
      *
      * @param spotifUM Instância do model a guardar.
      * @param nomeFicheiro Caminho do ficheiro onde guardar.
@@ -35,186 +46,87 @@ public class GestorFicheiros {
      * @throws IOException Se ocorrer um erro de escrita.
      */
     public void guardarEstado(SpotifUM spotifUM, String nomeFicheiro) throws FileNotFoundException, IOException {
-        FileOutputStream fos = new FileOutputStream(nomeFicheiro);
-        ObjectOutputStream oos = new ObjectOutputStream(fos);
-        oos.writeObject(spotifUM);
-        oos.flush();
-        oos.close();
+        long inicio = Instrumentacao.inicio();
+        try (EscritorSnapshot escritor = new EscritorSnapshot(Paths.get(nomeFicheiro), spotifUM.getUltimaOperacao())) {
+            spotifUM.guardarSnapshot(escritor);
+        }
+        TEMPO_GUARDAR.registarDesde(inicio);
     }
 
     /**
      * Carrega o estado do model a partir de um ficheiro binário.
+     * Aceita o formato de snapshot e, para importar estados antigos, o formato de serialização Java
+     * usado nas versões anteriores (o estado passa a ser guardado no novo formato na gravação seguinte).
+     * A tabela de recomendações do modelo carregado começa a ser construída em segundo plano.
      *
      * @param nomeFicheiro Caminho do ficheiro a carregar.
      * @return Instância do model carregada.
      * @throws FileNotFoundException Se o ficheiro não for encontrado.
-     * @throws IOException Se ocorrer um erro de leitura.
+     * @throws EOFException Se o ficheiro estiver vazio.
+     * @throws IOException Se ocorrer um erro de leitura ou o formato não for reconhecido.
      * @throws ClassNotFoundException Se a classe do objeto lido não for encontrada.
      */
     public SpotifUM carregarEstado(String nomeFicheiro) throws FileNotFoundException, IOException, ClassNotFoundException {
-        FileInputStream fis = new FileInputStream(nomeFicheiro);
-        ObjectInputStream ois = new ObjectInputStream(fis);
-        SpotifUM spotifUM = (SpotifUM) ois.readObject();
-        ois.close();
-        return spotifUM;
+        long inicio = Instrumentacao.inicio();
+        int assinatura;
+        try (DataInputStream dis = new DataInputStream(new FileInputStream(nomeFicheiro))) {
+            assinatura = dis.readInt();
+        }
+
+        SpotifUM model = null;
+        if (assinatura == EscritorSnapshot.MAGIA) {
+            model = SpotifUM.lerSnapshot(new LeitorSnapshot(Paths.get(nomeFicheiro)));
+        } else if ((assinatura >>> 16) == (ObjectStreamConstants.STREAM_MAGIC & 0xFFFF)) {
+            model = carregarEstadoAntigo(nomeFicheiro);
+        }
+        if (model != null) {
+            TEMPO_CARREGAR.registarDesde(inicio);
+            model.prepararRecomendacoes();
+            return model;
+        }
+        throw new IOException("Formato de ficheiro desconhecido: " + nomeFicheiro);
     }
 
     /**
-     * Carrega comandos de um ficheiro de script e executa-os no model.
+     * Carrega o estado do model a partir de um ficheiro no formato de serialização Java das versões anteriores,
+     * convertendo-o para as classes atuais (ver {@link LeitorEstadoAntigo}).
      *
-     * @param model Instância do model SpotifUM onde os comandos serão aplicados.
-     * @throws IOException Se ocorrer erro ao ler o ficheiro.
+     * @param nomeFicheiro Caminho do ficheiro a carregar.
+     * @return Instância do model carregada.
+     * @throws IOException Se ocorrer um erro de leitura ou o ficheiro for de uma versão desconhecida.
+     * @throws ClassNotFoundException Se a classe do objeto lido não for encontrada.
      */
-    public void carregarScript(SpotifUM model) throws IOException {
-        BufferedReader br = new BufferedReader(new FileReader(SCRIPTFILE));
-        String linha;
-
-        while ((linha = br.readLine()) != null) {
-            if (linha.trim().isEmpty() || linha.startsWith("#")) continue;
-
-            try {
-                processarLinha(model, linha);
-            } catch (Exception e) {
-                System.out.println("Erro ao processar linha: " + linha);
-                System.out.println("Motivo: " + e.getMessage());
-            }
+    private SpotifUM carregarEstadoAntigo(String nomeFicheiro) throws IOException, ClassNotFoundException {
+        try (LeitorEstadoAntigo leitor = new LeitorEstadoAntigo(new BufferedInputStream(new FileInputStream(nomeFicheiro)))) {
+            return leitor.lerEstado();
         }
-        br.close();
     }
 
     /**
-     * Processa uma linha de comando do script e encaminha para o respetivo tratamento.
+     * Carrega comandos de um ficheiro de script e executa-os no model.
+     * Os erros são mostrados com o número da linha, seguidos de um resumo da importação.
      *
-     * @param model Instância do model.
-     * @param linha Linha lida do ficheiro.
+     * @param model Instância do model SpotifUM onde os comandos serão aplicados.
+     * @throws IOException Se ocorrer erro ao ler o ficheiro.
      */
-    private void processarLinha(SpotifUM model, String linha) {
-        String[] partes = linha.split(",");
-        if (partes.length < 2) return;
-
-        String utilizador = partes[0].trim();
-        String comando = partes[1].trim();
-
-        if (utilizador.equals("admin")) {
-            processarComandoAdmin(model, comando);
+    public void carregarScript(SpotifUM model) throws IOException {
+        long inicio = Instrumentacao.inicio();
+        ResumoImportacao resumo = new ImportadorScript().importar(Paths.get(SCRIPTFILE), model);
+        TEMPO_SCRIPT.registarDesde(inicio);
+        for (String erro : resumo.getErros()) {
+            System.out.println("Erro ao processar script: " + erro);
         }
-        // Futuramente: processarComandoUser
+        System.out.println(resumo);
     }
 
     /**
-     * Processa comandos do administrador presentes no script.
+     * Obtém o temporizador de uma operação sobre ficheiros.
      *
-     * @param model Instância do model.
-     * @param comando Linha de comando a ser interpretada.
+     * @param operacao Nome da operação.
+     * @return Temporizador.
      */
-    private void processarComandoAdmin(SpotifUM model, String comando) {
-        if (comando.startsWith("artista create")) {
-            String[] dados = comando.split("<");
-            String nome = dados[1].trim();
-            String pais = dados[2].trim();
-            model.adicionarArtista(new Artista(nome, pais));
-
-        } else if (comando.startsWith("musica create")) {
-            String[] dados = comando.split("<");
-            String nome = dados[1].trim();
-            String nomeArtista = dados[2].trim();
-            String editora = dados[3].trim();
-            List<String> letra = Arrays.asList(dados[4].trim().split("\\|"));
-            List<String> melodia = Arrays.asList(dados[5].trim().split("\\|"));
-            String generoStr = dados[6].trim();
-            int duracao = Integer.parseInt(dados[7].trim());
-
-            Artista artista = model.getArtistaPorNome(nomeArtista);
-            Genero genero = Genero.valueOf(generoStr.toUpperCase());
-
-            Musica m = new Musica(nome, artista, editora, letra, melodia, genero, duracao, 0);
-            model.adicionarMusica(m);
-
-        } else if (comando.startsWith("musicaExplicita create")) {
-        String[] dados = comando.split("<");
-        String nome = dados[1].trim();
-        String nomeArtista = dados[2].trim();
-        String editora = dados[3].trim();
-        List<String> letra = Arrays.asList(dados[4].trim().split("\\|"));
-        List<String> melodia = Arrays.asList(dados[5].trim().split("\\|"));
-        String generoStr = dados[6].trim();
-        int duracao = Integer.parseInt(dados[7].trim());
-        String aviso = dados[8].trim();
-        int idadeMinima = Integer.parseInt(dados[9].trim());
-
-        Artista artista = model.getArtistaPorNome(nomeArtista);
-        Genero genero = Genero.valueOf(generoStr.toUpperCase());
-
-        MusicaExplicita m = new MusicaExplicita(nome, artista, editora, letra, melodia, genero, duracao, 0, aviso, idadeMinima);
-        model.adicionarMusica(m);
-
-        } else if (comando.startsWith("musicaMultimedia create")) {
-            String[] dados = comando.split("<");
-            String nome = dados[1].trim();
-            String nomeArtista = dados[2].trim();
-            String editora = dados[3].trim();
-            List<String> letra = Arrays.asList(dados[4].trim().split("\\|"));
-            List<String> melodia = Arrays.asList(dados[5].trim().split("\\|"));
-            String generoStr = dados[6].trim();
-            int duracao = Integer.parseInt(dados[7].trim());
-            String nomeVideo = dados[8].trim();
-            String formato = dados[9].trim();
-
-            Artista artista = model.getArtistaPorNome(nomeArtista);
-            Genero genero = Genero.valueOf(generoStr.toUpperCase());
-
-            MusicaMultimedia m = new MusicaMultimedia(nome, artista, editora, letra, melodia, genero, duracao, 0, nomeVideo, formato);
-            model.adicionarMusica(m);
-
-        }
-        else if (comando.startsWith("album create")) {
-            String[] dados = comando.split("<");
-            String nomeAlbum = dados[1].trim();
-            String nomeArtista = dados[2].trim();
-            String dataStr = dados[3].trim();
-            LocalDate dataLancamento = LocalDate.parse(dataStr);
-
-            List<String> musicas = new ArrayList<>();
-            for (int i = 4; i < dados.length; i++) {
-                musicas.add(dados[i].trim());
-            }
-
-            Artista artista = model.getArtistaPorNome(nomeArtista);
-            Album album = new Album(nomeAlbum, dataLancamento, artista, model.musicasToArray(musicas));
-            model.adicionarAlbum(album);
-
-        } else if (comando.startsWith("user register")) {
-            String[] dados = comando.split("<");
-            String email = dados[1].trim();
-            String nome = dados[2].trim();
-            String morada = dados[3].trim();
-            String password = dados[4].trim();
-            String plano = dados[5].trim();
-            String cargo = dados[6].trim();
-
-            model.registarUtilizadorPorScript(email, nome, morada, password, plano, cargo);
-
-        } else if (comando.startsWith("playlistAleatoria create")) {
-            String[] dados = comando.split("<");
-            String nome = dados[1].trim();             // Nome da playlist
-            String email = dados[2].trim();            // Email do utilizador
-            int numeroMusicas = Integer.parseInt(dados[3].trim()); // Número de músicas
-
-            Utilizador utilizador = model.getUtilizadorPorEmail(email);
-            if (utilizador == null) {
-                System.out.println("Utilizador com email " + email + " não encontrado.");
-                return;
-            }
-
-            Playlist playlist = new PlaylistAleatoria(
-                    nome,
-                    utilizador,
-                    LocalDate.now(),
-                    true, // pública
-                    model.criaArrayMusicasAleatorio(numeroMusicas)
-            );
-
-            model.adicionarPlaylist(playlist);
-        }
+    private static Temporizador tempoOperacao(String operacao) {
+        return Instrumentacao.getRegisto().temporizador("spotifum_ficheiros_segundos",
+                "Duração das operações de gravação e leitura de ficheiros", "operacao", operacao);
     }
-}
\ No newline at end of file
+}
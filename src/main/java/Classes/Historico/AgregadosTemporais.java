@@ -0,0 +1,210 @@
+package Classes.Historico;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Contagens de reproduções por utilizador agregadas em baldes de uma hora, um dia e um mês (em UTC).
+ * Os baldes são preenchidos à medida que as reproduções chegam ao registo.
+ *
+ * Um intervalo [inicio, fim] é decomposto em meses completos, dias completos nas pontas desses meses
+ * e horas completas nas pontas desses dias; só as frações de hora nas extremidades são contadas
+ * diretamente a partir do registo. Assim, o custo de uma consulta depende do número de baldes
+ * envolvidos e não do tamanho do histórico.
+ *
+ * Se o registo estiver ordenado, as frações de hora são cortadas por pesquisa binária. Caso contrário, são lidas
+ * das posições das reproduções de cada hora, que só são guardadas a partir da primeira consulta sobre um registo
+ * desordenado; assim, cada fração custa o número de reproduções dessa hora e não o tamanho do registo.
+ */
+class AgregadosTemporais {
+
+    private static final int HORA = 0;
+    private static final int DIA = 1;
+    private static final int MES = 2;
+
+    private static final long SEGUNDOS_HORA = 3600;
+    private static final long SEGUNDOS_DIA = 24 * SEGUNDOS_HORA;
+
+    /**
+     * Registo de onde são lidas as frações de hora nas extremidades dos intervalos.
+     */
+    private final RegistoReproducoes registo;
+
+    /**
+     * Baldes de cada nível (hora, dia e mês), indexados pelo instante de início do balde.
+     * Cada balde guarda o número de reproduções de cada utilizador.
+     */
+    private final TreeMap<Long, HashMap<Integer, Integer>>[] baldes;
+
+    /**
+     * Posições no registo das reproduções de cada hora, indexadas pelo início da hora.
+     * Só é criado na primeira consulta com o registo desordenado.
+     */
+    private HashMap<Long, ListaInteiros> posicoesPorHora;
+
+    private long minimo;
+    private long maximo;
+
+    /**
+     * Cria agregados vazios para um registo.
+     *
+     * @param registo Registo de reproduções.
+     */
+    // o Java não cria arrays de tipos genéricos: o array é criado com o tipo cru e atribuído ao tipo genérico
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    AgregadosTemporais(RegistoReproducoes registo) {
+        this.registo = registo;
+        this.baldes = new TreeMap[]{new TreeMap<>(), new TreeMap<>(), new TreeMap<>()};
+        this.posicoesPorHora = null;
+        this.minimo = Long.MAX_VALUE;
+        this.maximo = Long.MIN_VALUE;
+    }
+
+    /**
+     * Contabiliza uma nova reprodução.
+     *
+     * @param posicao    Posição da reprodução no registo.
+     * @param utilizador Id do utilizador.
+     * @param instante   Instante da reprodução, em segundos desde a época.
+     */
+    void adicionar(int posicao, int utilizador, long instante) {
+        for (int nivel = HORA; nivel <= MES; nivel++) {
+            this.baldes[nivel].computeIfAbsent(inicioBalde(nivel, instante), k -> new HashMap<>())
+                    .merge(utilizador, 1, Integer::sum);
+        }
+        if (this.posicoesPorHora != null) {
+            this.posicoesPorHora.computeIfAbsent(inicioBalde(HORA, instante), k -> new ListaInteiros()).adicionar(posicao);
+        }
+        this.minimo = Math.min(this.minimo, instante);
+        this.maximo = Math.max(this.maximo, instante);
+    }
+
+    /**
+     * Conta as reproduções de cada utilizador com instante no intervalo [inicio, fim].
+     *
+     * @param inicio Instante inicial (inclusivo).
+     * @param fim    Instante final (inclusivo).
+     * @return Mapa id do utilizador para número de reproduções.
+     */
+    HashMap<Integer, Long> contarPorUtilizador(long inicio, long fim) {
+        HashMap<Integer, Long> contagem = new HashMap<>();
+        long de = Math.max(inicio, this.minimo);
+        long ate = Math.min(fim, this.maximo);
+        if (de <= ate) {
+            contar(de, ate + 1, MES, contagem);
+        }
+        return contagem;
+    }
+
+    /**
+     * Soma as reproduções do intervalo [de, ate) usando os baldes completos do nível indicado
+     * e delegando as pontas no nível inferior.
+     *
+     * @param de       Instante inicial (inclusivo).
+     * @param ate      Instante final (exclusivo).
+     * @param nivel    Nível dos baldes a usar (abaixo de HORA, lê o registo).
+     * @param contagem Mapa onde são somadas as reproduções.
+     */
+    private void contar(long de, long ate, int nivel, HashMap<Integer, Long> contagem) {
+        if (nivel < HORA) {
+            contarFracaoHora(de, ate, contagem);
+            return;
+        }
+
+        long primeiro = limiteSeguinte(nivel, de);
+        long ultimo = inicioBalde(nivel, ate);
+        if (primeiro >= ultimo) {
+            contar(de, ate, nivel - 1, contagem);
+            return;
+        }
+
+        for (HashMap<Integer, Integer> balde : this.baldes[nivel].subMap(primeiro, ultimo).values()) {
+            for (Map.Entry<Integer, Integer> e : balde.entrySet()) {
+                contagem.merge(e.getKey(), (long) e.getValue(), Long::sum);
+            }
+        }
+        if (de < primeiro) contar(de, primeiro, nivel - 1, contagem);
+        if (ultimo < ate) contar(ultimo, ate, nivel - 1, contagem);
+    }
+
+    /**
+     * Soma as reproduções de um intervalo [de, ate) contido numa só hora, lendo-as do registo.
+     *
+     * @param de       Instante inicial (inclusivo).
+     * @param ate      Instante final (exclusivo).
+     * @param contagem Mapa onde são somadas as reproduções.
+     */
+    private void contarFracaoHora(long de, long ate, HashMap<Integer, Long> contagem) {
+        if (this.registo.isOrdenado()) {
+            this.registo.intervalo(de, ate - 1).percorrer((utilizador, musica, instante) ->
+                    contagem.merge(utilizador, 1L, Long::sum));
+            return;
+        }
+
+        ListaInteiros posicoes = posicoesHora(inicioBalde(HORA, de));
+        if (posicoes == null) return;
+        for (int i = 0; i < posicoes.tamanho(); i++) {
+            int posicao = posicoes.get(i);
+            long instante = this.registo.getInstante(posicao);
+            if (instante >= de && instante < ate) contagem.merge(this.registo.getUtilizador(posicao), 1L, Long::sum);
+        }
+    }
+
+    /**
+     * Devolve as posições no registo das reproduções de uma hora, criando o índice por hora se ainda não existir.
+     *
+     * @param hora Início da hora.
+     * @return Posições das reproduções da hora, ou null se não houver nenhuma.
+     */
+    private ListaInteiros posicoesHora(long hora) {
+        if (this.posicoesPorHora == null) {
+            this.posicoesPorHora = new HashMap<>();
+            for (int p = 0; p < this.registo.tamanho(); p++) {
+                this.posicoesPorHora.computeIfAbsent(inicioBalde(HORA, this.registo.getInstante(p)),
+                        k -> new ListaInteiros()).adicionar(p);
+            }
+        }
+        return this.posicoesPorHora.get(hora);
+    }
+
+    /**
+     * Devolve o início do balde de um nível que contém um instante.
+     *
+     * @param nivel    Nível do balde.
+     * @param instante Instante, em segundos desde a época.
+     * @return Início do balde.
+     */
+    private static long inicioBalde(int nivel, long instante) {
+        switch (nivel) {
+            case HORA:
+                return Math.floorDiv(instante, SEGUNDOS_HORA) * SEGUNDOS_HORA;
+            case DIA:
+                return Math.floorDiv(instante, SEGUNDOS_DIA) * SEGUNDOS_DIA;
+            default:
+                LocalDateTime dataHora = RegistoReproducoes.paraDataHora(instante);
+                return RegistoReproducoes.paraInstante(LocalDateTime.of(dataHora.getYear(), dataHora.getMonth(), 1, 0, 0));
+        }
+    }
+
+    /**
+     * Devolve o primeiro início de balde de um nível que é maior ou igual a um instante.
+     *
+     * @param nivel    Nível do balde.
+     * @param instante Instante, em segundos desde a época.
+     * @return Início de balde.
+     */
+    private static long limiteSeguinte(int nivel, long instante) {
+        long inicio = inicioBalde(nivel, instante);
+        if (inicio == instante) return inicio;
+        switch (nivel) {
+            case HORA:
+                return inicio + SEGUNDOS_HORA;
+            case DIA:
+                return inicio + SEGUNDOS_DIA;
+            default:
+                return RegistoReproducoes.paraInstante(RegistoReproducoes.paraDataHora(inicio).plusMonths(1));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package Classes.Historico;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Pedido de reprodução de uma música por um utilizador num dado instante, identificado apenas pelo email
+ * do utilizador e pelo nome da música. Usado para registar muitas reproduções de uma vez
+ * (ver {@code SpotifUM#reproduzirLote(List)}).
+ * Os objetos desta classe são imutáveis.
+ */
+public class EventoReproducao {
+    private final String email;
+    private final String nomeMusica;
+    private final LocalDateTime dataHora;
+
+    /**
+     * Construtor parametrizado.
+     *
+     * @param email      Email do utilizador.
+     * @param nomeMusica Nome da música.
+     * @param dataHora   Instante da reprodução.
+     */
+    public EventoReproducao(String email, String nomeMusica, LocalDateTime dataHora) {
+        this.email = email;
+        this.nomeMusica = nomeMusica;
+        this.dataHora = dataHora;
+    }
+
+    /**
+     * Retorna o email do utilizador.
+     *
+     * @return Email do utilizador.
+     */
+    public String getEmail() {
+        return this.email;
+    }
+
+    /**
+     * Retorna o nome da música.
+     *
+     * @return Nome da música.
+     */
+    public String getNomeMusica() {
+        return this.nomeMusica;
+    }
+
+    /**
+     * Retorna o instante da reprodução.
+     *
+     * @return Data e hora da reprodução.
+     */
+    public LocalDateTime getDataHora() {
+        return this.dataHora;
+    }
+
+    /**
+     * Compara este evento com outro objeto.
+     *
+     * @param o Objeto a comparar.
+     * @return true se representarem a mesma reprodução.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        EventoReproducao e = (EventoReproducao) o;
+        return Objects.equals(this.email, e.email) && Objects.equals(this.nomeMusica, e.nomeMusica)
+                && Objects.equals(this.dataHora, e.dataHora);
+    }
+
+    /**
+     * Calcula o hash do evento.
+     *
+     * @return Hash do evento.
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.email, this.nomeMusica, this.dataHora);
+    }
+
+    /**
+     * Retorna uma representação textual do evento.
+     *
+     * @return String com o email, a música e o instante.
+     */
+    @Override
+    public String toString() {
+        return "EventoReproducao{email='" + this.email + "', nomeMusica='" + this.nomeMusica + "', dataHora=" + this.dataHora + "}";
+    }
+}
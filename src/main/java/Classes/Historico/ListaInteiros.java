@@ -0,0 +1,50 @@
+package Classes.Historico;
+
+import java.util.Arrays;
+
+/**
+ * Lista de inteiros primitivos que só cresce, usada para guardar posições do histórico.
+ */
+class ListaInteiros {
+    private int[] valores;
+    private int tamanho;
+
+    /**
+     * Construtor por omissão. Cria uma lista vazia.
+     */
+    ListaInteiros() {
+        this.valores = new int[8];
+        this.tamanho = 0;
+    }
+
+    /**
+     * Acrescenta um valor ao fim da lista.
+     *
+     * @param valor Valor a acrescentar.
+     */
+    void adicionar(int valor) {
+        if (this.tamanho == this.valores.length) {
+            this.valores = Arrays.copyOf(this.valores, this.valores.length * 2);
+        }
+        this.valores[this.tamanho++] = valor;
+    }
+
+    /**
+     * Devolve o valor numa posição.
+     *
+     * @param i Posição.
+     * @return Valor guardado.
+     */
+    int get(int i) {
+        return this.valores[i];
+    }
+
+    /**
+     * Devolve o número de valores da lista.
+     *
+     * @return Número de valores.
+     */
+    int tamanho() {
+        return this.tamanho;
+    }
+}
@@ -0,0 +1,361 @@
+package Classes.Historico;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Histórico de reproduções em formato colunar e só de acréscimo.
+ * Cada reprodução é guardada como três valores primitivos em colunas paralelas
+ * (id do utilizador, id da música e instante em segundos), ocupando 16 bytes.
+ * As colunas estão divididas em segmentos de tamanho fixo, pelo que acrescentar
+ * uma reprodução nunca copia as reproduções já existentes.
+ *
+ * Os instantes são segundos desde a época, interpretando a data/hora local como UTC.
+ */
+public class RegistoReproducoes implements Serializable {
+
+    /**
+     * Número de bits do índice dentro de um segmento.
+     */
+    private static final int BITS_SEGMENTO = 12;
+
+    /**
+     * Número de reproduções por segmento.
+     */
+    public static final int TAMANHO_SEGMENTO = 1 << BITS_SEGMENTO;
+
+    private static final int MASCARA_SEGMENTO = TAMANHO_SEGMENTO - 1;
+
+    private transient ArrayList<int[]> utilizadores;
+    private transient ArrayList<int[]> musicas;
+    private transient ArrayList<long[]> instantes;
+    private transient int tamanho;
+
+    /**
+     * Indica se as reproduções foram acrescentadas por ordem cronológica,
+     * o que permite cortar intervalos de tempo por pesquisa binária.
+     */
+    private transient boolean ordenado;
+
+    /**
+     * Posições das reproduções de cada utilizador. Só é criado na primeira consulta por utilizador.
+     */
+    private transient HashMap<Integer, ListaInteiros> porUtilizador;
+
+    /**
+     * Posições das reproduções de cada música. Só é criado na primeira consulta por música.
+     */
+    private transient HashMap<Integer, ListaInteiros> porMusica;
+
+    /**
+     * Contagens por utilizador agregadas por hora, dia e mês.
+     */
+    private transient AgregadosTemporais agregados;
+
+    /**
+     * Construtor por omissão. Cria um registo vazio.
+     */
+    public RegistoReproducoes() {
+        inicializar();
+    }
+
+    /**
+     * Construtor de cópia.
+     *
+     * @param registo Registo a copiar.
+     */
+    public RegistoReproducoes(RegistoReproducoes registo) {
+        inicializar();
+        registo.percorrer(this::adicionar);
+    }
+
+    /**
+     * Inicializa as estruturas de um registo vazio.
+     */
+    private void inicializar() {
+        this.utilizadores = new ArrayList<>();
+        this.musicas = new ArrayList<>();
+        this.instantes = new ArrayList<>();
+        this.tamanho = 0;
+        this.ordenado = true;
+        this.porUtilizador = null;
+        this.porMusica = null;
+        this.agregados = new AgregadosTemporais(this);
+    }
+
+    /**
+     * Converte uma data/hora no instante usado pelo registo.
+     *
+     * @param dataHora Data e hora.
+     * @return Segundos desde a época.
+     */
+    public static long paraInstante(LocalDateTime dataHora) {
+        return dataHora.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Converte um instante do registo em data/hora.
+     *
+     * @param instante Segundos desde a época.
+     * @return Data e hora correspondente.
+     */
+    public static LocalDateTime paraDataHora(long instante) {
+        return LocalDateTime.ofEpochSecond(instante, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Acrescenta uma reprodução ao fim do registo.
+     *
+     * @param utilizador Id do utilizador.
+     * @param musica     Id da música.
+     * @param instante   Instante da reprodução, em segundos desde a época.
+     */
+    public void adicionar(int utilizador, int musica, long instante) {
+        int segmento = this.tamanho >>> BITS_SEGMENTO;
+        int offset = this.tamanho & MASCARA_SEGMENTO;
+
+        if (offset == 0) {
+            this.utilizadores.add(new int[TAMANHO_SEGMENTO]);
+            this.musicas.add(new int[TAMANHO_SEGMENTO]);
+            this.instantes.add(new long[TAMANHO_SEGMENTO]);
+        }
+        if (this.tamanho > 0 && instante < getInstante(this.tamanho - 1)) {
+            this.ordenado = false;
+        }
+
+        this.utilizadores.get(segmento)[offset] = utilizador;
+        this.musicas.get(segmento)[offset] = musica;
+        this.instantes.get(segmento)[offset] = instante;
+
+        if (this.porUtilizador != null) {
+            this.porUtilizador.computeIfAbsent(utilizador, k -> new ListaInteiros()).adicionar(this.tamanho);
+        }
+        if (this.porMusica != null) {
+            this.porMusica.computeIfAbsent(musica, k -> new ListaInteiros()).adicionar(this.tamanho);
+        }
+        this.agregados.adicionar(this.tamanho, utilizador, instante);
+        this.tamanho++;
+    }
+
+    /**
+     * Devolve o número de reproduções do registo.
+     *
+     * @return Número de reproduções.
+     */
+    public int tamanho() {
+        return this.tamanho;
+    }
+
+    /**
+     * Devolve o id do utilizador da reprodução numa posição.
+     *
+     * @param posicao Posição no registo.
+     * @return Id do utilizador.
+     */
+    public int getUtilizador(int posicao) {
+        verificarPosicao(posicao);
+        return this.utilizadores.get(posicao >>> BITS_SEGMENTO)[posicao & MASCARA_SEGMENTO];
+    }
+
+    /**
+     * Devolve o id da música da reprodução numa posição.
+     *
+     * @param posicao Posição no registo.
+     * @return Id da música.
+     */
+    public int getMusica(int posicao) {
+        verificarPosicao(posicao);
+        return this.musicas.get(posicao >>> BITS_SEGMENTO)[posicao & MASCARA_SEGMENTO];
+    }
+
+    /**
+     * Devolve o instante da reprodução numa posição.
+     *
+     * @param posicao Posição no registo.
+     * @return Instante, em segundos desde a época.
+     */
+    public long getInstante(int posicao) {
+        verificarPosicao(posicao);
+        return this.instantes.get(posicao >>> BITS_SEGMENTO)[posicao & MASCARA_SEGMENTO];
+    }
+
+    /**
+     * Indica se as reproduções estão por ordem cronológica.
+     *
+     * @return true se o registo estiver ordenado por instante.
+     */
+    public boolean isOrdenado() {
+        return this.ordenado;
+    }
+
+    /**
+     * Percorre todas as reproduções, pela ordem em que foram acrescentadas.
+     *
+     * @param visitante Operação a aplicar a cada reprodução.
+     */
+    public void percorrer(VisitanteReproducao visitante) {
+        int restantes = this.tamanho;
+        for (int s = 0; restantes > 0; s++) {
+            int[] us = this.utilizadores.get(s);
+            int[] ms = this.musicas.get(s);
+            long[] is = this.instantes.get(s);
+            int n = Math.min(restantes, TAMANHO_SEGMENTO);
+            for (int i = 0; i < n; i++) {
+                visitante.visitar(us[i], ms[i], is[i]);
+            }
+            restantes -= n;
+        }
+    }
+
+    /**
+     * Devolve uma vista sobre todas as reproduções.
+     *
+     * @return Vista sobre o registo completo.
+     */
+    public VistaReproducoes todas() {
+        return new VistaReproducoes(this, 0, this.tamanho);
+    }
+
+    /**
+     * Devolve as reproduções com instante no intervalo [inicio, fim].
+     * Se o registo estiver ordenado, o corte é feito por pesquisa binária e a vista não copia posições.
+     *
+     * @param inicio Instante inicial (inclusivo).
+     * @param fim    Instante final (inclusivo).
+     * @return Vista sobre as reproduções do intervalo.
+     */
+    public VistaReproducoes intervalo(long inicio, long fim) {
+        if (this.ordenado) {
+            int ate = (fim == Long.MAX_VALUE) ? this.tamanho : primeiraPosicaoDesde(fim + 1);
+            return new VistaReproducoes(this, primeiraPosicaoDesde(inicio), ate);
+        }
+
+        ListaInteiros posicoes = new ListaInteiros();
+        for (int p = 0; p < this.tamanho; p++) {
+            long instante = getInstante(p);
+            if (instante >= inicio && instante <= fim) posicoes.adicionar(p);
+        }
+        return new VistaReproducoes(this, posicoes, posicoes.tamanho());
+    }
+
+    /**
+     * Conta as reproduções de cada utilizador com instante no intervalo [inicio, fim].
+     * A contagem usa os agregados por hora, dia e mês, pelo que só as frações de hora
+     * nas extremidades do intervalo são lidas do registo.
+     *
+     * @param inicio Instante inicial (inclusivo).
+     * @param fim    Instante final (inclusivo).
+     * @return Mapa id do utilizador para número de reproduções.
+     */
+    public HashMap<Integer, Long> contarPorUtilizador(long inicio, long fim) {
+        return this.agregados.contarPorUtilizador(inicio, fim);
+    }
+
+    /**
+     * Devolve as reproduções de um utilizador.
+     *
+     * @param utilizador Id do utilizador.
+     * @return Vista sobre as reproduções do utilizador.
+     */
+    public VistaReproducoes porUtilizador(int utilizador) {
+        if (this.porUtilizador == null) {
+            this.porUtilizador = new HashMap<>();
+            for (int p = 0; p < this.tamanho; p++) {
+                this.porUtilizador.computeIfAbsent(getUtilizador(p), k -> new ListaInteiros()).adicionar(p);
+            }
+        }
+        return vista(this.porUtilizador.get(utilizador));
+    }
+
+    /**
+     * Devolve as reproduções de uma música.
+     *
+     * @param musica Id da música.
+     * @return Vista sobre as reproduções da música.
+     */
+    public VistaReproducoes porMusica(int musica) {
+        if (this.porMusica == null) {
+            this.porMusica = new HashMap<>();
+            for (int p = 0; p < this.tamanho; p++) {
+                this.porMusica.computeIfAbsent(getMusica(p), k -> new ListaInteiros()).adicionar(p);
+            }
+        }
+        return vista(this.porMusica.get(musica));
+    }
+
+    /**
+     * Cria uma vista sobre uma lista de posições, fixando o seu tamanho atual.
+     *
+     * @param posicoes Lista de posições (pode ser null).
+     * @return Vista sobre as posições.
+     */
+    private VistaReproducoes vista(ListaInteiros posicoes) {
+        if (posicoes == null) return new VistaReproducoes(this, 0, 0);
+        return new VistaReproducoes(this, posicoes, posicoes.tamanho());
+    }
+
+    /**
+     * Pesquisa binária da primeira posição com instante maior ou igual ao indicado.
+     * Só é válida quando o registo está ordenado.
+     *
+     * @param instante Instante a procurar.
+     * @return Primeira posição com instante maior ou igual, ou o tamanho do registo.
+     */
+    private int primeiraPosicaoDesde(long instante) {
+        int baixo = 0;
+        int alto = this.tamanho;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (getInstante(meio) < instante) baixo = meio + 1;
+            else alto = meio;
+        }
+        return baixo;
+    }
+
+    /**
+     * Verifica se uma posição pertence ao registo.
+     *
+     * @param posicao Posição a verificar.
+     */
+    private void verificarPosicao(int posicao) {
+        if (posicao < 0 || posicao >= this.tamanho) throw new IndexOutOfBoundsException(posicao);
+    }
+
+    /**
+     * Escreve o registo de forma compacta: o número de reproduções seguido das três colunas.
+     *
+     * @param out Stream de escrita.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(this.tamanho);
+        for (int p = 0; p < this.tamanho; p++) {
+            out.writeInt(getUtilizador(p));
+            out.writeInt(getMusica(p));
+            out.writeLong(getInstante(p));
+        }
+    }
+
+    /**
+     * Lê um registo escrito por {@link #writeObject(ObjectOutputStream)}.
+     *
+     * @param in Stream de leitura.
+     * @throws IOException Se ocorrer um erro de leitura.
+     * @throws ClassNotFoundException Se alguma classe lida não for encontrada.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        inicializar();
+        int n = in.readInt();
+        for (int p = 0; p < n; p++) {
+            adicionar(in.readInt(), in.readInt(), in.readLong());
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package Classes.Historico;
+
+/**
+ * Operação aplicada a cada reprodução percorrida no {@link RegistoReproducoes}.
+ * Recebe os valores primitivos de cada coluna, evitando criar objetos por reprodução.
+ */
+@FunctionalInterface
+public interface VisitanteReproducao {
+
+    /**
+     * Visita uma reprodução.
+     *
+     * @param utilizador Id do utilizador.
+     * @param musica     Id da música.
+     * @param instante   Instante da reprodução, em segundos desde a época.
+     */
+    void visitar(int utilizador, int musica, long instante);
+}
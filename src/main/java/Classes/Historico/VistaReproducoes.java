@@ -0,0 +1,73 @@
+package Classes.Historico;
+
+/**
+ * Vista só de leitura sobre um subconjunto das reproduções de um {@link RegistoReproducoes}.
+ * Pode representar um intervalo contíguo de posições ou uma lista de posições (por utilizador ou por música).
+ * A vista não copia as reproduções: lê-as diretamente das colunas do registo.
+ */
+public class VistaReproducoes {
+    private final RegistoReproducoes registo;
+    private final int de;
+    private final ListaInteiros posicoes;
+    private final int tamanho;
+
+    /**
+     * Cria uma vista sobre o intervalo de posições [de, ate).
+     *
+     * @param registo Registo de origem.
+     * @param de      Primeira posição (inclusiva).
+     * @param ate     Última posição (exclusiva).
+     */
+    VistaReproducoes(RegistoReproducoes registo, int de, int ate) {
+        this.registo = registo;
+        this.de = de;
+        this.posicoes = null;
+        this.tamanho = Math.max(0, ate - de);
+    }
+
+    /**
+     * Cria uma vista sobre as primeiras posições de uma lista.
+     *
+     * @param registo  Registo de origem.
+     * @param posicoes Lista de posições (por ordem crescente).
+     * @param tamanho  Número de posições da lista incluídas na vista.
+     */
+    VistaReproducoes(RegistoReproducoes registo, ListaInteiros posicoes, int tamanho) {
+        this.registo = registo;
+        this.de = 0;
+        this.posicoes = posicoes;
+        this.tamanho = tamanho;
+    }
+
+    /**
+     * Devolve o número de reproduções da vista.
+     *
+     * @return Número de reproduções.
+     */
+    public int tamanho() {
+        return this.tamanho;
+    }
+
+    /**
+     * Devolve a posição no registo da i-ésima reprodução da vista.
+     *
+     * @param i Índice na vista.
+     * @return Posição no registo.
+     */
+    public int posicao(int i) {
+        if (i < 0 || i >= this.tamanho) throw new IndexOutOfBoundsException(i);
+        return (this.posicoes == null) ? this.de + i : this.posicoes.get(i);
+    }
+
+    /**
+     * Percorre as reproduções da vista, pela ordem do registo.
+     *
+     * @param visitante Operação a aplicar a cada reprodução.
+     */
+    public void percorrer(VisitanteReproducao visitante) {
+        for (int i = 0; i < this.tamanho; i++) {
+            int p = (this.posicoes == null) ? this.de + i : this.posicoes.get(i);
+            visitante.visitar(this.registo.getUtilizador(p), this.registo.getMusica(p), this.registo.getInstante(p));
+        }
+    }
+}
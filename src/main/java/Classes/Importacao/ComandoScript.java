@@ -0,0 +1,91 @@
+package Classes.Importacao;
+
+import SpotifUM.SpotifUM;
+
+import java.util.function.Consumer;
+
+/**
+ * Comando de uma linha do script, já analisado e pronto a aplicar ao modelo,
+ * ou o erro encontrado ao analisar a linha.
+ */
+public class ComandoScript {
+
+    private final int linha;
+    private final EtapaImportacao etapa;
+    private final Consumer<SpotifUM> aplicacao;
+    private final String erro;
+
+    /**
+     * Construtor com parâmetros.
+     *
+     * @param linha     Número da linha no script.
+     * @param etapa     Etapa em que o comando é aplicado (null se for um erro).
+     * @param aplicacao Alteração a fazer no modelo (null se for um erro).
+     * @param erro      Motivo do erro (null se o comando for válido).
+     */
+    private ComandoScript(int linha, EtapaImportacao etapa, Consumer<SpotifUM> aplicacao, String erro) {
+        this.linha = linha;
+        this.etapa = etapa;
+        this.aplicacao = aplicacao;
+        this.erro = erro;
+    }
+
+    /**
+     * Cria um comando válido.
+     *
+     * @param linha     Número da linha no script.
+     * @param etapa     Etapa em que o comando é aplicado.
+     * @param aplicacao Alteração a fazer no modelo.
+     * @return Comando criado.
+     */
+    public static ComandoScript comando(int linha, EtapaImportacao etapa, Consumer<SpotifUM> aplicacao) {
+        return new ComandoScript(linha, etapa, aplicacao, null);
+    }
+
+    /**
+     * Cria o registo de uma linha que não pôde ser analisada.
+     *
+     * @param linha Número da linha no script.
+     * @param erro  Motivo do erro.
+     * @return Comando com o erro.
+     */
+    public static ComandoScript erro(int linha, String erro) {
+        return new ComandoScript(linha, null, null, erro);
+    }
+
+    /**
+     * Devolve o número da linha no script.
+     *
+     * @return Número da linha (a primeira é 1).
+     */
+    public int getLinha() {
+        return this.linha;
+    }
+
+    /**
+     * Devolve a etapa em que o comando é aplicado.
+     *
+     * @return Etapa, ou null se a linha tiver um erro.
+     */
+    public EtapaImportacao getEtapa() {
+        return this.etapa;
+    }
+
+    /**
+     * Devolve o motivo do erro da linha.
+     *
+     * @return Motivo do erro, ou null se o comando for válido.
+     */
+    public String getErro() {
+        return this.erro;
+    }
+
+    /**
+     * Aplica o comando ao modelo.
+     *
+     * @param model Modelo onde aplicar o comando.
+     */
+    public void aplicar(SpotifUM model) {
+        this.aplicacao.accept(model);
+    }
+}
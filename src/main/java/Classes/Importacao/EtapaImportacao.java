@@ -0,0 +1,14 @@
+package Classes.Importacao;
+
+/**
+ * Etapas da importação de um script, pela ordem em que são aplicadas ao modelo.
+ * Cada etapa só depende das anteriores (as músicas precisam dos artistas, os álbuns das músicas, ...).
+ */
+public enum EtapaImportacao {
+    ARTISTAS,
+    MUSICAS,
+    ALBUNS,
+    UTILIZADORES,
+    PLAYLISTS,
+    REPRODUCOES
+}
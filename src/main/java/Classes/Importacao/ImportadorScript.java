@@ -0,0 +1,534 @@
+package Classes.Importacao;
+
+import Classes.Album;
+import Classes.Artista;
+import Classes.Genero;
+import Classes.Musicas.Musica;
+import Classes.Musicas.MusicaExplicita;
+import Classes.Musicas.MusicaMultimedia;
+import Classes.Playlists.PlaylistAleatoria;
+import Classes.Playlists.PlaylistConstruida;
+import Classes.Utilizador;
+import Exceptions.ArtistaInexistenteException;
+import SpotifUM.SpotifUM;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Importa scripts de comandos do administrador (formato de {@code scriptExemplo.txt}) para o modelo.
+ *
+ * A importação é feita em três fases:
+ * <ol>
+ *     <li>o ficheiro é lido em blocos através de um {@link FileChannel}, cortados no fim de uma linha;</li>
+ *     <li>cada bloco é analisado numa thread de um conjunto de trabalhadores, que converte as linhas em
+ *     {@link ComandoScript} (validando campos, números, géneros e datas) sem tocar no modelo;</li>
+ *     <li>os comandos são aplicados ao modelo na thread que chamou, por etapas ({@link EtapaImportacao}):
+ *     primeiro os artistas, depois as músicas, os álbuns, os utilizadores, as playlists e por fim as reproduções.
+ *     Dentro de cada etapa mantém-se a ordem do ficheiro, e cada etapa é aplicada como um lote
+ *     ({@link SpotifUM#executarEmLote(Runnable)}).</li>
+ * </ol>
+ * Uma linha com erro não interrompe a importação: o erro fica registado no {@link ResumoImportacao},
+ * com o número da linha.
+ */
+public class ImportadorScript {
+
+    /**
+     * Tamanho por omissão dos blocos lidos do ficheiro.
+     */
+    public static final int TAMANHO_BLOCO = 1 << 20;
+
+    private final int trabalhadores;
+    private final int tamanhoBloco;
+
+    /**
+     * Construtor por omissão: um trabalhador por processador.
+     */
+    public ImportadorScript() {
+        this(Runtime.getRuntime().availableProcessors(), TAMANHO_BLOCO);
+    }
+
+    /**
+     * Construtor com parâmetros.
+     *
+     * @param trabalhadores Número de threads que analisam os blocos.
+     * @param tamanhoBloco  Tamanho dos blocos lidos do ficheiro, em bytes.
+     * @throws IllegalArgumentException Se algum dos valores não for positivo.
+     */
+    public ImportadorScript(int trabalhadores, int tamanhoBloco) {
+        if (trabalhadores <= 0) throw new IllegalArgumentException("Número de trabalhadores inválido: " + trabalhadores);
+        if (tamanhoBloco <= 0) throw new IllegalArgumentException("Tamanho de bloco inválido: " + tamanhoBloco);
+        this.trabalhadores = trabalhadores;
+        this.tamanhoBloco = tamanhoBloco;
+    }
+
+    /**
+     * Importa um script para o modelo.
+     *
+     * @param ficheiro Caminho do script.
+     * @param model    Modelo onde aplicar os comandos.
+     * @return Resumo da importação.
+     * @throws IOException Se não for possível ler o ficheiro.
+     */
+    public ResumoImportacao importar(Path ficheiro, SpotifUM model) throws IOException {
+        long inicio = System.nanoTime();
+        ResumoImportacao resumo = new ResumoImportacao();
+        EnumMap<EtapaImportacao, List<ComandoScript>> etapas = new EnumMap<>(EtapaImportacao.class);
+        for (EtapaImportacao etapa : EtapaImportacao.values()) {
+            etapas.put(etapa, new ArrayList<>());
+        }
+
+        ExecutorService analise = Executors.newFixedThreadPool(this.trabalhadores, tarefa -> {
+            Thread thread = new Thread(tarefa, "importacao-script");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            resumo.setLinhas(ler(ficheiro, analise, etapas, resumo));
+        } finally {
+            analise.shutdownNow();
+        }
+
+        for (EtapaImportacao etapa : EtapaImportacao.values()) {
+            List<ComandoScript> comandos = etapas.get(etapa);
+            model.executarEmLote(() -> {
+                for (ComandoScript comando : comandos) {
+                    try {
+                        comando.aplicar(model);
+                        resumo.contarComando();
+                    } catch (RuntimeException e) {
+                        resumo.registarErro(comando.getLinha(), e.getClass().getSimpleName() + ": " + e.getMessage());
+                    }
+                }
+            });
+            etapas.put(etapa, null);
+        }
+
+        resumo.setDuracaoNanos(System.nanoTime() - inicio);
+        return resumo;
+    }
+
+    /**
+     * Lê o ficheiro em blocos e envia cada bloco para análise, recolhendo os comandos pela ordem do ficheiro.
+     * O número de blocos em análise é limitado, para que o ficheiro nunca esteja todo em memória.
+     *
+     * @param ficheiro Caminho do script.
+     * @param analise  Trabalhadores que analisam os blocos.
+     * @param etapas   Comandos recolhidos, por etapa.
+     * @param resumo   Resumo onde registar os erros de análise.
+     * @return Número de linhas lidas.
+     * @throws IOException Se não for possível ler o ficheiro.
+     */
+    private long ler(Path ficheiro, ExecutorService analise, EnumMap<EtapaImportacao, List<ComandoScript>> etapas,
+                     ResumoImportacao resumo) throws IOException {
+        ArrayDeque<Future<List<ComandoScript>>> pendentes = new ArrayDeque<>();
+        ByteBuffer buffer = ByteBuffer.allocate(this.tamanhoBloco);
+        int linhas = 0;
+
+        try (FileChannel canal = FileChannel.open(ficheiro, StandardOpenOption.READ)) {
+            boolean fim = false;
+            while (!fim) {
+                fim = canal.read(buffer) < 0;
+                if (!fim && buffer.hasRemaining()) continue;
+                if (buffer.position() == 0) break;
+
+                int corte = fim ? buffer.position() : ultimoFimDeLinha(buffer) + 1;
+                if (corte == 0) {
+                    // linha maior do que o buffer
+                    ByteBuffer maior = ByteBuffer.allocate(buffer.capacity() * 2);
+                    maior.put(buffer.flip());
+                    buffer = maior;
+                    continue;
+                }
+
+                byte[] bloco = new byte[corte];
+                buffer.flip().get(bloco);
+                buffer.compact();
+
+                int primeiraLinha = linhas + 1;
+                linhas += contarLinhas(bloco);
+                pendentes.add(analise.submit(() -> analisarBloco(bloco, primeiraLinha)));
+                while (pendentes.size() > 2 * this.trabalhadores) {
+                    recolher(pendentes.poll(), etapas, resumo);
+                }
+            }
+        }
+        while (!pendentes.isEmpty()) {
+            recolher(pendentes.poll(), etapas, resumo);
+        }
+        return linhas;
+    }
+
+    /**
+     * Devolve a posição do último fim de linha no buffer.
+     *
+     * @param buffer Buffer em escrita.
+     * @return Posição do último '\n', ou -1 se não houver nenhum.
+     */
+    private static int ultimoFimDeLinha(ByteBuffer buffer) {
+        for (int i = buffer.position() - 1; i >= 0; i--) {
+            if (buffer.get(i) == '\n') return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Conta as linhas de um bloco (uma última linha sem '\n' também conta).
+     *
+     * @param bloco Bytes do bloco.
+     * @return Número de linhas.
+     */
+    private static int contarLinhas(byte[] bloco) {
+        int linhas = 0;
+        for (byte b : bloco) {
+            if (b == '\n') linhas++;
+        }
+        if (bloco.length > 0 && bloco[bloco.length - 1] != '\n') linhas++;
+        return linhas;
+    }
+
+    /**
+     * Espera pela análise de um bloco e distribui os comandos pelas etapas.
+     *
+     * @param pendente Análise do bloco.
+     * @param etapas   Comandos recolhidos, por etapa.
+     * @param resumo   Resumo onde registar os erros de análise.
+     * @throws IOException Se a análise tiver falhado de forma inesperada.
+     */
+    private static void recolher(Future<List<ComandoScript>> pendente, EnumMap<EtapaImportacao, List<ComandoScript>> etapas,
+                                 ResumoImportacao resumo) throws IOException {
+        List<ComandoScript> comandos;
+        try {
+            comandos = pendente.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Importação interrompida", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Falha ao analisar o script", e.getCause());
+        }
+        for (ComandoScript comando : comandos) {
+            if (comando.getErro() != null) resumo.registarErro(comando.getLinha(), comando.getErro());
+            else etapas.get(comando.getEtapa()).add(comando);
+        }
+    }
+
+    /**
+     * Analisa as linhas de um bloco.
+     *
+     * @param bloco         Bytes do bloco (terminado num fim de linha, exceto no fim do ficheiro).
+     * @param primeiraLinha Número da primeira linha do bloco.
+     * @return Comandos (e erros) das linhas do bloco, pela ordem do ficheiro.
+     */
+    static List<ComandoScript> analisarBloco(byte[] bloco, int primeiraLinha) {
+        String texto = new String(bloco, StandardCharsets.UTF_8);
+        List<ComandoScript> comandos = new ArrayList<>();
+        int numero = primeiraLinha;
+        int inicio = 0;
+        while (inicio < texto.length()) {
+            int fim = texto.indexOf('\n', inicio);
+            if (fim < 0) fim = texto.length();
+            int fimLinha = (fim > inicio && texto.charAt(fim - 1) == '\r') ? fim - 1 : fim;
+
+            ComandoScript comando = analisarLinha(texto.substring(inicio, fimLinha), numero);
+            if (comando != null) comandos.add(comando);
+            numero++;
+            inicio = fim + 1;
+        }
+        return comandos;
+    }
+
+    /**
+     * Analisa uma linha do script. Linhas vazias, comentários e comandos que não sejam do administrador são ignorados.
+     *
+     * @param linha  Texto da linha.
+     * @param numero Número da linha.
+     * @return Comando da linha, o erro encontrado, ou null se a linha for ignorada.
+     */
+    static ComandoScript analisarLinha(String linha, int numero) {
+        if (linha.trim().isEmpty() || linha.startsWith("#")) return null;
+
+        int virgula = linha.indexOf(',');
+        if (virgula < 0) return null;
+        if (!linha.substring(0, virgula).trim().equals("admin")) return null;
+        String comando = linha.substring(virgula + 1).trim();
+
+        try {
+            if (comando.startsWith("artista create")) return artista(comando, numero);
+            if (comando.startsWith("musica create")) return musica(comando, numero, 8);
+            if (comando.startsWith("musicaExplicita create")) return musica(comando, numero, 10);
+            if (comando.startsWith("musicaMultimedia create")) return musica(comando, numero, 10);
+            if (comando.startsWith("album create")) return album(comando, numero);
+            if (comando.startsWith("user register")) return utilizador(comando, numero);
+            if (comando.startsWith("playlistAleatoria create")) return playlistAleatoria(comando, numero);
+            if (comando.startsWith("playlistConstruida create")) return playlistConstruida(comando, numero);
+            if (comando.startsWith("reproducao create")) return reproducao(comando, numero);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ComandoScript.erro(numero, e.getMessage());
+        }
+        return ComandoScript.erro(numero, "Comando desconhecido: " + comando);
+    }
+
+    /**
+     * Divide um comando nos seus campos, separados por '&lt;'. O primeiro campo é o próprio comando.
+     *
+     * @param comando Texto do comando.
+     * @param minimo  Número mínimo de campos (incluindo o comando).
+     * @return Campos, sem espaços nas pontas.
+     * @throws IllegalArgumentException Se o comando tiver menos campos do que o mínimo.
+     */
+    private static String[] campos(String comando, int minimo) {
+        List<String> campos = new ArrayList<>();
+        int inicio = 0;
+        int fim;
+        while ((fim = comando.indexOf('<', inicio)) >= 0) {
+            campos.add(comando.substring(inicio, fim).trim());
+            inicio = fim + 1;
+        }
+        campos.add(comando.substring(inicio).trim());
+        if (campos.size() < minimo) {
+            throw new IllegalArgumentException("Campos em falta: esperados " + (minimo - 1) + ", encontrados " + (campos.size() - 1));
+        }
+        return campos.toArray(new String[0]);
+    }
+
+    /**
+     * Divide um campo numa lista de elementos separados por '|'.
+     *
+     * @param campo Texto do campo.
+     * @return Lista de elementos.
+     */
+    private static List<String> lista(String campo) {
+        List<String> lista = new ArrayList<>();
+        int inicio = 0;
+        int fim;
+        while ((fim = campo.indexOf('|', inicio)) >= 0) {
+            lista.add(campo.substring(inicio, fim));
+            inicio = fim + 1;
+        }
+        lista.add(campo.substring(inicio));
+        return Arrays.asList(lista.toArray(new String[0]));
+    }
+
+    /**
+     * Converte um campo num inteiro.
+     *
+     * @param campo Texto do campo.
+     * @param nome  Nome do campo, para a mensagem de erro.
+     * @return Valor do campo.
+     * @throws IllegalArgumentException Se o campo não for um inteiro.
+     */
+    private static int inteiro(String campo, String nome) {
+        try {
+            return Integer.parseInt(campo);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(nome + " inválido: " + campo);
+        }
+    }
+
+    /**
+     * Converte um campo num género musical.
+     *
+     * @param campo Texto do campo.
+     * @return Género.
+     * @throws IllegalArgumentException Se o género não existir.
+     */
+    private static Genero genero(String campo) {
+        try {
+            return Genero.valueOf(campo.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Género inválido: " + campo);
+        }
+    }
+
+    /**
+     * Converte um campo num valor lógico ("true" ou "false").
+     *
+     * @param campo Texto do campo.
+     * @param nome  Nome do campo, para a mensagem de erro.
+     * @return Valor do campo.
+     * @throws IllegalArgumentException Se o campo não for "true" nem "false".
+     */
+    private static boolean booleano(String campo, String nome) {
+        if (campo.equalsIgnoreCase("true")) return true;
+        if (campo.equalsIgnoreCase("false")) return false;
+        throw new IllegalArgumentException(nome + " inválido: " + campo);
+    }
+
+    /**
+     * Obtém um utilizador do modelo.
+     *
+     * @param model Modelo.
+     * @param email Email do utilizador.
+     * @return Utilizador.
+     * @throws IllegalArgumentException Se o utilizador não existir.
+     */
+    private static Utilizador obterUtilizador(SpotifUM model, String email) {
+        Utilizador utilizador = model.getUtilizadorPorEmail(email);
+        if (utilizador == null) {
+            throw new IllegalArgumentException("Utilizador com email " + email + " não encontrado.");
+        }
+        return utilizador;
+    }
+
+    /**
+     * Obtém um artista do modelo.
+     *
+     * @param model Modelo.
+     * @param nome  Nome do artista.
+     * @return Artista.
+     * @throws ArtistaInexistenteException Se o artista não existir.
+     */
+    private static Artista obterArtista(SpotifUM model, String nome) {
+        Artista artista = model.getArtistaPorNome(nome);
+        if (artista == null) throw new ArtistaInexistenteException(nome);
+        return artista;
+    }
+
+    /**
+     * Analisa um comando "artista create &lt; nome &lt; país".
+     *
+     * @param comando Texto do comando.
+     * @param numero  Número da linha.
+     * @return Comando analisado.
+     */
+    private static ComandoScript artista(String comando, int numero) {
+        String[] dados = campos(comando, 3);
+        String nome = dados[1];
+        String pais = dados[2];
+        return ComandoScript.comando(numero, EtapaImportacao.ARTISTAS, model -> model.adicionarArtista(new Artista(nome, pais)));
+    }
+
+    /**
+     * Analisa um comando "musica create", "musicaExplicita create" ou "musicaMultimedia create".
+     *
+     * @param comando Texto do comando.
+     * @param numero  Número da linha.
+     * @param minimo  Número de campos do comando.
+     * @return Comando analisado.
+     */
+    private static ComandoScript musica(String comando, int numero, int minimo) {
+        String[] dados = campos(comando, minimo);
+        String nome = dados[1];
+        String nomeArtista = dados[2];
+        String editora = dados[3];
+        List<String> letra = lista(dados[4]);
+        List<String> melodia = lista(dados[5]);
+        Genero genero = genero(dados[6]);
+        int duracao = inteiro(dados[7], "Duração");
+
+        if (comando.startsWith("musicaExplicita")) {
+            String aviso = dados[8];
+            int idadeMinima = inteiro(dados[9], "Idade mínima");
+            return ComandoScript.comando(numero, EtapaImportacao.MUSICAS, model -> model.adicionarMusica(
+                    new MusicaExplicita(nome, obterArtista(model, nomeArtista), editora, letra, melodia, genero, duracao, 0, aviso, idadeMinima)));
+        }
+        if (comando.startsWith("musicaMultimedia")) {
+            String nomeVideo = dados[8];
+            String formato = dados[9];
+            return ComandoScript.comando(numero, EtapaImportacao.MUSICAS, model -> model.adicionarMusica(
+                    new MusicaMultimedia(nome, obterArtista(model, nomeArtista), editora, letra, melodia, genero, duracao, 0, nomeVideo, formato)));
+        }
+        return ComandoScript.comando(numero, EtapaImportacao.MUSICAS, model -> model.adicionarMusica(
+                new Musica(nome, obterArtista(model, nomeArtista), editora, letra, melodia, genero, duracao, 0)));
+    }
+
+    /**
+     * Analisa um comando "album create &lt; nome &lt; artista &lt; data &lt; música...".
+     *
+     * @param comando Texto do comando.
+     * @param numero  Número da linha.
+     * @return Comando analisado.
+     */
+    private static ComandoScript album(String comando, int numero) {
+        String[] dados = campos(comando, 4);
+        String nomeAlbum = dados[1];
+        String nomeArtista = dados[2];
+        LocalDate dataLancamento = LocalDate.parse(dados[3]);
+        List<String> musicas = Arrays.asList(dados).subList(4, dados.length);
+        return ComandoScript.comando(numero, EtapaImportacao.ALBUNS, model -> model.adicionarAlbum(
+                new Album(nomeAlbum, dataLancamento, obterArtista(model, nomeArtista), model.musicasToArray(musicas))));
+    }
+
+    /**
+     * Analisa um comando "user register &lt; email &lt; nome &lt; morada &lt; password &lt; plano &lt; cargo".
+     *
+     * @param comando Texto do comando.
+     * @param numero  Número da linha.
+     * @return Comando analisado.
+     */
+    private static ComandoScript utilizador(String comando, int numero) {
+        String[] dados = campos(comando, 7);
+        return ComandoScript.comando(numero, EtapaImportacao.UTILIZADORES, model ->
+                model.registarUtilizadorPorScript(dados[1], dados[2], dados[3], dados[4], dados[5], dados[6]));
+    }
+
+    /**
+     * Analisa um comando "playlistAleatoria create &lt; nome &lt; email &lt; número de músicas".
+     *
+     * @param comando Texto do comando.
+     * @param numero  Número da linha.
+     * @return Comando analisado.
+     */
+    private static ComandoScript playlistAleatoria(String comando, int numero) {
+        String[] dados = campos(comando, 4);
+        String nome = dados[1];
+        String email = dados[2];
+        int numeroMusicas = inteiro(dados[3], "Número de músicas");
+        return ComandoScript.comando(numero, EtapaImportacao.PLAYLISTS, model ->
+                model.adicionarPlaylist(new PlaylistAleatoria(nome, obterUtilizador(model, email), LocalDate.now(), true,
+                        model.criaArrayMusicasAleatorio(numeroMusicas))));
+    }
+
+    /**
+     * Analisa um comando "playlistConstruida create &lt; nome &lt; email &lt; data &lt; pública &lt; música...".
+     *
+     * @param comando Texto do comando.
+     * @param numero  Número da linha.
+     * @return Comando analisado.
+     */
+    private static ComandoScript playlistConstruida(String comando, int numero) {
+        String[] dados = campos(comando, 5);
+        String nome = dados[1];
+        String email = dados[2];
+        LocalDate dataCriacao = LocalDate.parse(dados[3]);
+        boolean publica = booleano(dados[4], "Visibilidade");
+        List<String> musicas = Arrays.asList(dados).subList(5, dados.length);
+        return ComandoScript.comando(numero, EtapaImportacao.PLAYLISTS, model ->
+                model.adicionarPlaylist(new PlaylistConstruida(nome, obterUtilizador(model, email), dataCriacao, publica,
+                        model.musicasToArray(musicas))));
+    }
+
+    /**
+     * Analisa um comando "reproducao create &lt; email &lt; música &lt; data e hora".
+     *
+     * @param comando Texto do comando.
+     * @param numero  Número da linha.
+     * @return Comando analisado.
+     */
+    private static ComandoScript reproducao(String comando, int numero) {
+        String[] dados = campos(comando, 4);
+        String email = dados[1];
+        String nomeMusica = dados[2];
+        LocalDateTime dataHora = LocalDateTime.parse(dados[3]);
+        return ComandoScript.comando(numero, EtapaImportacao.REPRODUCOES, model -> {
+            obterUtilizador(model, email);
+            model.reproduzirMusicaSemSaida(email, nomeMusica, dataHora);
+        });
+    }
+}
@@ -0,0 +1,142 @@
+package Classes.Importacao;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Resultado da importação de um script: linhas lidas, comandos aplicados, erros por linha e tempo gasto.
+ */
+public class ResumoImportacao {
+
+    private long linhas;
+    private long comandos;
+    private final TreeMap<Integer, String> erros;
+    private long duracaoNanos;
+
+    /**
+     * Construtor por omissão.
+     */
+    public ResumoImportacao() {
+        this.linhas = 0;
+        this.comandos = 0;
+        this.erros = new TreeMap<>();
+        this.duracaoNanos = 0;
+    }
+
+    /**
+     * Define o número de linhas lidas do script.
+     *
+     * @param linhas Número de linhas.
+     */
+    void setLinhas(long linhas) {
+        this.linhas = linhas;
+    }
+
+    /**
+     * Conta um comando aplicado com sucesso.
+     */
+    void contarComando() {
+        this.comandos++;
+    }
+
+    /**
+     * Regista o erro de uma linha.
+     *
+     * @param linha  Número da linha.
+     * @param motivo Motivo do erro.
+     */
+    void registarErro(int linha, String motivo) {
+        this.erros.put(linha, motivo);
+    }
+
+    /**
+     * Define o tempo gasto na importação.
+     *
+     * @param duracaoNanos Duração em nanossegundos.
+     */
+    void setDuracaoNanos(long duracaoNanos) {
+        this.duracaoNanos = duracaoNanos;
+    }
+
+    /**
+     * Devolve o número de linhas lidas do script.
+     *
+     * @return Número de linhas.
+     */
+    public long getLinhas() {
+        return this.linhas;
+    }
+
+    /**
+     * Devolve o número de comandos aplicados com sucesso.
+     *
+     * @return Número de comandos.
+     */
+    public long getComandos() {
+        return this.comandos;
+    }
+
+    /**
+     * Devolve o número de linhas com erro.
+     *
+     * @return Número de erros.
+     */
+    public int getNumeroErros() {
+        return this.erros.size();
+    }
+
+    /**
+     * Devolve os erros, ordenados pelo número da linha, no formato "Linha N: motivo".
+     *
+     * @return Lista de erros.
+     */
+    public List<String> getErros() {
+        List<String> lista = new ArrayList<>(this.erros.size());
+        for (Map.Entry<Integer, String> e : this.erros.entrySet()) {
+            lista.add("Linha " + e.getKey() + ": " + e.getValue());
+        }
+        return lista;
+    }
+
+    /**
+     * Devolve o motivo do erro de uma linha.
+     *
+     * @param linha Número da linha.
+     * @return Motivo do erro, ou null se a linha não tiver erro.
+     */
+    public String getErro(int linha) {
+        return this.erros.get(linha);
+    }
+
+    /**
+     * Devolve o tempo gasto na importação, em milissegundos.
+     *
+     * @return Duração em milissegundos.
+     */
+    public long getDuracaoMillis() {
+        return this.duracaoNanos / 1_000_000;
+    }
+
+    /**
+     * Devolve o débito da importação.
+     *
+     * @return Linhas lidas por segundo.
+     */
+    public double getLinhasPorSegundo() {
+        return (this.duracaoNanos == 0) ? 0 : this.linhas * 1e9 / this.duracaoNanos;
+    }
+
+    /**
+     * Retorna uma representação textual do resumo.
+     *
+     * @return String com as linhas, comandos, erros e débito da importação.
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "Importação: %d linhas, %d comandos aplicados, %d erros em %d ms (%.0f linhas/s)",
+                this.linhas, this.comandos, this.erros.size(), getDuracaoMillis(), getLinhasPorSegundo());
+    }
+}
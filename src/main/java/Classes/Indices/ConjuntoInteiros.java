@@ -0,0 +1,119 @@
+package Classes.Indices;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Conjunto compacto de inteiros não negativos (ids).
+ * Enquanto é pequeno, guarda os valores num array ordenado; quando um mapa de bits passa a ocupar
+ * menos memória (ou o array fica demasiado grande para inserções baratas), converte-se num {@link BitSet}.
+ */
+public class ConjuntoInteiros {
+
+    /**
+     * Número máximo de valores guardados em forma de array ordenado.
+     */
+    private static final int MAX_ARRAY = 1024;
+
+    /**
+     * Valores ordenados, enquanto o conjunto está em forma de array.
+     */
+    private int[] valores;
+
+    /**
+     * Número de valores ocupados no array.
+     */
+    private int tamanho;
+
+    /**
+     * Mapa de bits, depois de o conjunto ser convertido (null até lá).
+     */
+    private BitSet bits;
+
+    /**
+     * Construtor por omissão. Cria um conjunto vazio.
+     */
+    public ConjuntoInteiros() {
+        this.valores = new int[4];
+        this.tamanho = 0;
+        this.bits = null;
+    }
+
+    /**
+     * Verifica se o conjunto contém um valor.
+     *
+     * @param valor Valor a procurar.
+     * @return true se o valor pertencer ao conjunto.
+     */
+    public boolean contem(int valor) {
+        if (this.bits != null) return this.bits.get(valor);
+        return Arrays.binarySearch(this.valores, 0, this.tamanho, valor) >= 0;
+    }
+
+    /**
+     * Adiciona um valor ao conjunto.
+     *
+     * @param valor Valor a adicionar (não negativo).
+     * @return true se o valor ainda não pertencia ao conjunto.
+     */
+    public boolean adicionar(int valor) {
+        if (valor < 0) throw new IllegalArgumentException("Valor negativo: " + valor);
+
+        if (this.bits != null) {
+            if (this.bits.get(valor)) return false;
+            this.bits.set(valor);
+            this.tamanho++;
+            return true;
+        }
+
+        int pos = Arrays.binarySearch(this.valores, 0, this.tamanho, valor);
+        if (pos >= 0) return false;
+
+        int maximo = Math.max(valor, this.tamanho == 0 ? 0 : this.valores[this.tamanho - 1]);
+        if (this.tamanho + 1 > MAX_ARRAY || 32L * (this.tamanho + 1) > maximo + 1L) {
+            converterParaBits();
+            this.bits.set(valor);
+            this.tamanho++;
+            return true;
+        }
+
+        pos = -(pos + 1);
+        if (this.tamanho == this.valores.length) {
+            this.valores = Arrays.copyOf(this.valores, this.valores.length * 2);
+        }
+        System.arraycopy(this.valores, pos, this.valores, pos + 1, this.tamanho - pos);
+        this.valores[pos] = valor;
+        this.tamanho++;
+        return true;
+    }
+
+    /**
+     * Devolve o número de valores do conjunto.
+     *
+     * @return Número de valores.
+     */
+    public int tamanho() {
+        return this.tamanho;
+    }
+
+    /**
+     * Indica se o conjunto está representado como mapa de bits.
+     *
+     * @return true se estiver em forma de mapa de bits.
+     */
+    public boolean emMapaDeBits() {
+        return this.bits != null;
+    }
+
+    /**
+     * Converte a representação em array ordenado num mapa de bits.
+     */
+    private void converterParaBits() {
+        BitSet novo = new BitSet();
+        for (int i = 0; i < this.tamanho; i++) {
+            novo.set(this.valores[i]);
+        }
+        this.bits = novo;
+        this.valores = null;
+    }
+}
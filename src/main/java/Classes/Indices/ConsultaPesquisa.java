@@ -0,0 +1,118 @@
+package Classes.Indices;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Consulta de texto livre, já dividida em termos normalizados (ver {@link Tokenizador}).
+ * A sintaxe é a seguinte:
+ * <ul>
+ *     <li>palavras soltas são termos: contam para a relevância, mas nenhum é obrigatório;</li>
+ *     <li>uma palavra terminada em {@code *} é um prefixo: equivale aos termos do índice que começam por ela;</li>
+ *     <li>um texto entre aspas é uma frase: só são devolvidas as músicas que têm esses termos seguidos,
+ *     no mesmo campo ou na mesma linha da letra.</li>
+ * </ul>
+ * Por exemplo, {@code "noite escura" amor cant*}.
+ */
+public class ConsultaPesquisa {
+
+    private final List<String> termos;
+    private final List<String> prefixos;
+    private final List<List<String>> frases;
+
+    /**
+     * Construtor com parâmetros.
+     *
+     * @param termos   Termos soltos.
+     * @param prefixos Prefixos.
+     * @param frases   Frases (cada uma com pelo menos um termo).
+     */
+    public ConsultaPesquisa(List<String> termos, List<String> prefixos, List<List<String>> frases) {
+        this.termos = List.copyOf(termos);
+        this.prefixos = List.copyOf(prefixos);
+        List<List<String>> copia = new ArrayList<>();
+        for (List<String> frase : frases) {
+            copia.add(List.copyOf(frase));
+        }
+        this.frases = Collections.unmodifiableList(copia);
+    }
+
+    /**
+     * Analisa o texto de uma consulta. Umas aspas sem par estendem a frase até ao fim do texto.
+     *
+     * @param texto Texto da consulta.
+     * @return Consulta analisada.
+     */
+    public static ConsultaPesquisa analisar(String texto) {
+        List<String> termos = new ArrayList<>();
+        List<String> prefixos = new ArrayList<>();
+        List<List<String>> frases = new ArrayList<>();
+        if (texto == null) return new ConsultaPesquisa(termos, prefixos, frases);
+
+        int i = 0;
+        while (i < texto.length()) {
+            char c = texto.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '"') {
+                int fim = texto.indexOf('"', i + 1);
+                if (fim < 0) fim = texto.length();
+                List<String> frase = Tokenizador.termos(texto.substring(i + 1, fim));
+                if (!frase.isEmpty()) frases.add(frase);
+                i = fim + 1;
+            } else {
+                int fim = i;
+                while (fim < texto.length() && !Character.isWhitespace(texto.charAt(fim)) && texto.charAt(fim) != '"') {
+                    fim++;
+                }
+                String palavra = texto.substring(i, fim);
+                List<String> partes = Tokenizador.termos(palavra);
+                if (palavra.endsWith("*") && !partes.isEmpty()) {
+                    termos.addAll(partes.subList(0, partes.size() - 1));
+                    prefixos.add(partes.get(partes.size() - 1));
+                } else {
+                    termos.addAll(partes);
+                }
+                i = fim;
+            }
+        }
+        return new ConsultaPesquisa(termos, prefixos, frases);
+    }
+
+    /**
+     * Devolve os termos soltos da consulta.
+     *
+     * @return Lista só de leitura com os termos.
+     */
+    public List<String> getTermos() {
+        return this.termos;
+    }
+
+    /**
+     * Devolve os prefixos da consulta.
+     *
+     * @return Lista só de leitura com os prefixos.
+     */
+    public List<String> getPrefixos() {
+        return this.prefixos;
+    }
+
+    /**
+     * Devolve as frases da consulta.
+     *
+     * @return Lista só de leitura com as frases, cada uma com os seus termos por ordem.
+     */
+    public List<List<String>> getFrases() {
+        return this.frases;
+    }
+
+    /**
+     * Verifica se a consulta não tem nenhum termo, prefixo ou frase.
+     *
+     * @return true se a consulta for vazia.
+     */
+    public boolean vazia() {
+        return this.termos.isEmpty() && this.prefixos.isEmpty() && this.frases.isEmpty();
+    }
+}
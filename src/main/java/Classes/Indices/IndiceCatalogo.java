@@ -0,0 +1,225 @@
+package Classes.Indices;
+
+import Classes.Genero;
+import Classes.Musicas.Musica;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Índice do catálogo de músicas do SpotifUM.
+ * Cada música é identificada pela sua posição (id) na lista do catálogo, e o índice mantém,
+ * sobre esses ids, um índice exato por nome, um índice ordenado por nome em minúsculas
+ * (para pesquisas por prefixo e por intervalo) e índices secundários por género, artista e editora.
+ *
+ * As consultas devolvem vistas só de leitura sobre o catálogo, sem copiar a lista de músicas.
+ */
+public class IndiceCatalogo {
+
+    /**
+     * Lista do catálogo, partilhada com o modelo. O id de uma música é a sua posição nesta lista.
+     */
+    private final List<Musica> catalogo;
+
+    /**
+     * Nome exato da música para o id da primeira música com esse nome.
+     */
+    private final HashMap<String, Integer> porNome;
+
+    /**
+     * Nome em minúsculas para os ids das músicas com esse nome, ordenado lexicograficamente.
+     */
+    private final TreeMap<String, List<Integer>> porNomeMinusculas;
+
+    /**
+     * Ids das músicas de cada género.
+     */
+    private final EnumMap<Genero, List<Integer>> porGenero;
+
+    /**
+     * Ids das músicas de cada artista, indexados pelo nome do artista.
+     */
+    private final HashMap<String, List<Integer>> porArtista;
+
+    /**
+     * Ids das músicas de cada editora.
+     */
+    private final HashMap<String, List<Integer>> porEditora;
+
+    /**
+     * Cria um índice sobre a lista do catálogo e indexa as músicas que ela já contém.
+     *
+     * @param catalogo Lista de músicas do catálogo (não é copiada).
+     */
+    public IndiceCatalogo(List<Musica> catalogo) {
+        this.catalogo = catalogo;
+        this.porNome = new HashMap<>();
+        this.porNomeMinusculas = new TreeMap<>();
+        this.porGenero = new EnumMap<>(Genero.class);
+        this.porArtista = new HashMap<>();
+        this.porEditora = new HashMap<>();
+
+        for (int id = 0; id < catalogo.size(); id++) {
+            indexar(id);
+        }
+    }
+
+    /**
+     * Indexa a música que se encontra na posição indicada do catálogo.
+     * Deve ser invocado sempre que uma música é acrescentada ao catálogo.
+     *
+     * @param id Posição da música no catálogo.
+     */
+    public void indexar(int id) {
+        Musica musica = this.catalogo.get(id);
+
+        this.porNome.putIfAbsent(musica.getNome(), id);
+        this.porNomeMinusculas.computeIfAbsent(normalizar(musica.getNome()), k -> new ArrayList<>()).add(id);
+
+        if (musica.getGenero() != null) {
+            this.porGenero.computeIfAbsent(musica.getGenero(), k -> new ArrayList<>()).add(id);
+        }
+        if (musica.getInterprete() != null) {
+            this.porArtista.computeIfAbsent(musica.getInterprete().getNome(), k -> new ArrayList<>()).add(id);
+        }
+        if (musica.getNomeEditora() != null) {
+            this.porEditora.computeIfAbsent(musica.getNomeEditora(), k -> new ArrayList<>()).add(id);
+        }
+    }
+
+    /**
+     * Devolve o id da primeira música com o nome exato indicado.
+     *
+     * @param nome Nome da música.
+     * @return Id da música ou -1 se não existir.
+     */
+    public int getId(String nome) {
+        Integer id = this.porNome.get(nome);
+        return (id == null) ? -1 : id;
+    }
+
+    /**
+     * Devolve a primeira música com o nome exato indicado.
+     *
+     * @param nome Nome da música.
+     * @return Música correspondente ou null se não existir.
+     */
+    public Musica getMusica(String nome) {
+        int id = getId(nome);
+        return (id < 0) ? null : this.catalogo.get(id);
+    }
+
+    /**
+     * Devolve as músicas cujo nome começa pelo prefixo indicado, sem distinguir maiúsculas de minúsculas,
+     * por ordem alfabética.
+     *
+     * @param prefixo Prefixo a pesquisar.
+     * @return Stream preguiçosa sobre as músicas encontradas.
+     */
+    public Stream<Musica> getPorPrefixo(String prefixo) {
+        String inicio = normalizar(prefixo);
+        return paraMusicas(this.porNomeMinusculas.subMap(inicio, true, inicio + Character.MAX_VALUE, false));
+    }
+
+    /**
+     * Devolve as músicas cujo nome, em minúsculas, se encontra no intervalo [de, ate], por ordem alfabética.
+     *
+     * @param de  Limite inferior (inclusivo).
+     * @param ate Limite superior (inclusivo).
+     * @return Stream preguiçosa sobre as músicas encontradas.
+     */
+    public Stream<Musica> getEntre(String de, String ate) {
+        String inicio = normalizar(de);
+        String fim = normalizar(ate);
+        if (inicio.compareTo(fim) > 0) return Stream.empty();
+        return paraMusicas(this.porNomeMinusculas.subMap(inicio, true, fim, true));
+    }
+
+    /**
+     * Devolve as músicas de um género.
+     *
+     * @param genero Género musical.
+     * @return Vista só de leitura sobre as músicas do género.
+     */
+    public List<Musica> getPorGenero(Genero genero) {
+        return vista(this.porGenero.get(genero));
+    }
+
+    /**
+     * Devolve as músicas de um artista.
+     *
+     * @param nomeArtista Nome do artista.
+     * @return Vista só de leitura sobre as músicas do artista.
+     */
+    public List<Musica> getPorArtista(String nomeArtista) {
+        return vista(this.porArtista.get(nomeArtista));
+    }
+
+    /**
+     * Devolve as músicas de uma editora.
+     *
+     * @param editora Nome da editora.
+     * @return Vista só de leitura sobre as músicas da editora.
+     */
+    public List<Musica> getPorEditora(String editora) {
+        return vista(this.porEditora.get(editora));
+    }
+
+    /**
+     * Devolve o número de músicas indexadas.
+     *
+     * @return Número de músicas.
+     */
+    public int tamanho() {
+        return this.catalogo.size();
+    }
+
+    /**
+     * Normaliza um nome para o índice de prefixos.
+     *
+     * @param nome Nome a normalizar.
+     * @return Nome em minúsculas.
+     */
+    private static String normalizar(String nome) {
+        return nome.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Converte um sub-mapa do índice ordenado numa stream de músicas.
+     *
+     * @param intervalo Sub-mapa com os ids a resolver.
+     * @return Stream preguiçosa sobre as músicas.
+     */
+    private Stream<Musica> paraMusicas(NavigableMap<String, List<Integer>> intervalo) {
+        return intervalo.values().stream().flatMap(List::stream).map(this.catalogo::get);
+    }
+
+    /**
+     * Cria uma vista só de leitura que resolve uma lista de ids no catálogo.
+     *
+     * @param ids Lista de ids (pode ser null).
+     * @return Vista sobre as músicas correspondentes.
+     */
+    private List<Musica> vista(List<Integer> ids) {
+        if (ids == null) return Collections.emptyList();
+        return new AbstractList<Musica>() {
+            @Override
+            public Musica get(int i) {
+                return catalogo.get(ids.get(i));
+            }
+
+            @Override
+            public int size() {
+                return ids.size();
+            }
+        };
+    }
+}
@@ -0,0 +1,61 @@
+package Classes.Indices;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice das músicas já ouvidas por cada utilizador.
+ * Para cada email guarda o conjunto de ids de músicas (ver {@link IndiceCatalogo}) que o utilizador já reproduziu,
+ * permitindo responder em tempo constante se uma música é nova para o utilizador.
+ *
+ * O mapa de utilizadores pode ser lido e alterado por várias threads; o conjunto de cada utilizador não é
+ * sincronizado, e tem de ser protegido por quem o usa (no modelo, pelo trinco do utilizador).
+ */
+public class IndiceOuvidas {
+
+    /**
+     * Conjunto de ids de músicas ouvidas, indexado pelo email do utilizador.
+     */
+    private final ConcurrentHashMap<String, ConjuntoInteiros> porUtilizador;
+
+    /**
+     * Construtor por omissão. Cria um índice vazio.
+     */
+    public IndiceOuvidas() {
+        this.porUtilizador = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Regista que um utilizador ouviu uma música.
+     *
+     * @param email    Email do utilizador.
+     * @param idMusica Id da música.
+     * @return true se o utilizador já tinha ouvido a música antes deste registo.
+     */
+    public boolean registar(String email, int idMusica) {
+        ConjuntoInteiros ouvidas = this.porUtilizador.computeIfAbsent(email, k -> new ConjuntoInteiros());
+        return !ouvidas.adicionar(idMusica);
+    }
+
+    /**
+     * Verifica se um utilizador já ouviu uma música.
+     *
+     * @param email    Email do utilizador.
+     * @param idMusica Id da música.
+     * @return true se já a ouviu.
+     */
+    public boolean jaOuviu(String email, int idMusica) {
+        ConjuntoInteiros ouvidas = this.porUtilizador.get(email);
+        return ouvidas != null && ouvidas.contem(idMusica);
+    }
+
+    /**
+     * Devolve o número de músicas distintas ouvidas por um utilizador.
+     *
+     * @param email Email do utilizador.
+     * @return Número de músicas distintas.
+     */
+    public int numeroOuvidas(String email) {
+        ConjuntoInteiros ouvidas = this.porUtilizador.get(email);
+        return (ouvidas == null) ? 0 : ouvidas.tamanho();
+    }
+}
@@ -0,0 +1,627 @@
+package Classes.Indices;
+
+import Classes.Musicas.Musica;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Índice invertido para a pesquisa de texto livre no catálogo do SpotifUM.
+ * Tal como no {@link IndiceCatalogo}, cada música é identificada pela sua posição (id) na lista do catálogo.
+ * São indexados o nome da música, o nome do artista, a editora e cada linha da letra; cada termo
+ * (ver {@link Tokenizador}) tem a lista das músicas onde ocorre, com a frequência e as posições.
+ *
+ * Os resultados são ordenados pela relevância BM25, com os termos do nome da música a contar {@value #PESO_NOME}
+ * vezes e os do artista {@value #PESO_ARTISTA} vezes. Os k melhores resultados são obtidos com o algoritmo
+ * MaxScore: os termos cuja contribuição máxima já não chega para entrar nos k melhores deixam de gerar candidatos
+ * e só são consultados para as músicas que ainda podem entrar. Além disso, os blocos das listas de ocorrências
+ * (ver {@link ListaOcorrencias}) cujo limite de relevância não chega para entrar são saltados sem ser pontuados,
+ * pelo que os termos muito frequentes quase não pesam no tempo da consulta. As frases (ver {@link ConsultaPesquisa})
+ * filtram as músicas pelas posições dos termos.
+ *
+ * O índice não é sincronizado: as pesquisas podem decorrer em paralelo, mas não com a indexação.
+ */
+public class IndicePesquisa {
+
+    /**
+     * Parâmetro de saturação da frequência do BM25.
+     */
+    public static final double K1 = 1.2;
+
+    /**
+     * Parâmetro de normalização pelo comprimento do BM25.
+     */
+    public static final double B = 0.75;
+
+    /**
+     * Peso dos termos do nome da música.
+     */
+    public static final int PESO_NOME = 3;
+
+    /**
+     * Peso dos termos do nome do artista.
+     */
+    public static final int PESO_ARTISTA = 2;
+
+    /**
+     * Número máximo de termos do índice em que um prefixo é expandido (os primeiros por ordem alfabética).
+     */
+    public static final int MAX_EXPANSOES = 64;
+
+    /**
+     * Lista do catálogo, partilhada com o modelo.
+     */
+    private final List<Musica> catalogo;
+
+    /**
+     * Termo para a lista das suas ocorrências, ordenado lexicograficamente (para as pesquisas por prefixo).
+     */
+    private final TreeMap<String, ListaOcorrencias> termos;
+
+    /**
+     * Comprimento ponderado (soma dos pesos dos termos) de cada música indexada.
+     */
+    private int[] comprimentos;
+    private int numeroDocumentos;
+    private long somaComprimentos;
+
+    /**
+     * Cria um índice sobre a lista do catálogo e indexa as músicas que ela já contém.
+     *
+     * @param catalogo Lista de músicas do catálogo (não é copiada).
+     */
+    public IndicePesquisa(List<Musica> catalogo) {
+        this(catalogo, new int[0], new TreeMap<>());
+        for (ListaOcorrencias lista : this.termos.values()) {
+            lista.compactar();
+        }
+    }
+
+    /**
+     * Recria um índice a partir dos dados gravados (ver {@link #getTermos()} e {@link #getComprimento(int)})
+     * e indexa as músicas do catálogo acrescentadas depois.
+     *
+     * @param catalogo     Lista de músicas do catálogo (não é copiada).
+     * @param comprimentos Comprimento ponderado de cada música indexada.
+     * @param termos       Listas de ocorrências de cada termo.
+     * @throws IllegalArgumentException Se houver mais músicas indexadas do que músicas no catálogo.
+     */
+    public IndicePesquisa(List<Musica> catalogo, int[] comprimentos, TreeMap<String, ListaOcorrencias> termos) {
+        if (comprimentos.length > catalogo.size()) {
+            throw new IllegalArgumentException("O índice de pesquisa tem mais músicas do que o catálogo");
+        }
+        this.catalogo = catalogo;
+        this.termos = termos;
+        this.comprimentos = Arrays.copyOf(comprimentos, Math.max(comprimentos.length, catalogo.size()));
+        this.numeroDocumentos = comprimentos.length;
+        this.somaComprimentos = 0;
+        for (int comprimento : comprimentos) {
+            this.somaComprimentos += comprimento;
+        }
+        indexar(catalogo.size() - 1);
+    }
+
+    /**
+     * Indexa a música que se encontra na posição indicada do catálogo, e as anteriores que ainda não estejam
+     * indexadas. Deve ser invocado sempre que uma música é acrescentada ao catálogo.
+     *
+     * @param id Posição da música no catálogo.
+     */
+    public void indexar(int id) {
+        while (this.numeroDocumentos <= id) {
+            indexarMusica(this.numeroDocumentos);
+        }
+    }
+
+    /**
+     * Pesquisa as músicas mais relevantes para uma consulta.
+     *
+     * @param consulta Texto da consulta (ver {@link ConsultaPesquisa}).
+     * @param k        Número máximo de resultados.
+     * @return Lista com as músicas encontradas, da mais relevante para a menos relevante.
+     */
+    public List<Musica> pesquisar(String consulta, int k) {
+        int[] ids = pesquisarIds(ConsultaPesquisa.analisar(consulta), k);
+        List<Musica> resultado = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            resultado.add(this.catalogo.get(id));
+        }
+        return resultado;
+    }
+
+    /**
+     * Pesquisa os ids das músicas mais relevantes para uma consulta. Em caso de empate na relevância,
+     * aparece primeiro a música com menor id.
+     *
+     * @param consulta Consulta analisada.
+     * @param k        Número máximo de resultados.
+     * @return Ids das músicas encontradas, da mais relevante para a menos relevante.
+     */
+    public int[] pesquisarIds(ConsultaPesquisa consulta, int k) {
+        if (k <= 0 || consulta.vazia() || this.numeroDocumentos == 0) return new int[0];
+
+        LinkedHashMap<String, ListaOcorrencias> pontuadas = new LinkedHashMap<>();
+        List<ListaOcorrencias[]> frases = new ArrayList<>();
+        for (List<String> frase : consulta.getFrases()) {
+            ListaOcorrencias[] listas = new ListaOcorrencias[frase.size()];
+            for (int i = 0; i < listas.length; i++) {
+                listas[i] = this.termos.get(frase.get(i));
+                if (listas[i] == null) return new int[0];
+                pontuadas.put(frase.get(i), listas[i]);
+            }
+            frases.add(listas);
+        }
+        for (String termo : consulta.getTermos()) {
+            ListaOcorrencias lista = this.termos.get(termo);
+            if (lista != null) pontuadas.put(termo, lista);
+        }
+        for (String prefixo : consulta.getPrefixos()) {
+            int expansoes = 0;
+            for (Map.Entry<String, ListaOcorrencias> e
+                    : this.termos.subMap(prefixo, true, prefixo + Character.MAX_VALUE, false).entrySet()) {
+                if (expansoes++ == MAX_EXPANSOES) break;
+                pontuadas.put(e.getKey(), e.getValue());
+            }
+        }
+        if (pontuadas.isEmpty()) return new int[0];
+
+        Cursor[] cursores = new Cursor[pontuadas.size()];
+        int c = 0;
+        for (ListaOcorrencias lista : pontuadas.values()) {
+            cursores[c++] = new Cursor(lista, idf(lista.tamanho()));
+        }
+        Melhores melhores = new Melhores(Math.min(k, this.numeroDocumentos));
+        double media = (double) this.somaComprimentos / this.numeroDocumentos;
+        if (frases.isEmpty()) {
+            maxScore(cursores, melhores, media);
+        } else {
+            for (int documento : documentosComFrases(frases)) {
+                double pontuacao = 0;
+                for (Cursor cursor : cursores) {
+                    cursor.i = cursor.lista.procurar(documento, cursor.i);
+                    if (cursor.documento() == documento) pontuacao += pontuacao(cursor, media);
+                }
+                melhores.oferecer(documento, pontuacao);
+            }
+        }
+        return melhores.ordenados();
+    }
+
+    /**
+     * Devolve o número de músicas indexadas.
+     *
+     * @return Número de músicas.
+     */
+    public int tamanho() {
+        return this.numeroDocumentos;
+    }
+
+    /**
+     * Devolve o comprimento ponderado de uma música indexada.
+     *
+     * @param id Id da música.
+     * @return Soma dos pesos dos termos da música.
+     */
+    public int getComprimento(int id) {
+        if (id < 0 || id >= this.numeroDocumentos) throw new IndexOutOfBoundsException("Música não indexada: " + id);
+        return this.comprimentos[id];
+    }
+
+    /**
+     * Devolve os termos do índice e as respetivas listas de ocorrências, por ordem alfabética.
+     *
+     * @return Vista só de leitura sobre os termos.
+     */
+    public NavigableMap<String, ListaOcorrencias> getTermos() {
+        return Collections.unmodifiableNavigableMap(this.termos);
+    }
+
+    /**
+     * Indexa a música seguinte do catálogo: o nome, o artista, a editora e cada linha da letra são campos
+     * separados, com um intervalo nas posições para que as frases não atravessem campos.
+     *
+     * @param id Id da música (igual ao número de músicas já indexadas).
+     */
+    private void indexarMusica(int id) {
+        Musica musica = this.catalogo.get(id);
+        LinkedHashMap<String, Ocorrencias> ocorrencias = new LinkedHashMap<>();
+        int[] estado = {0, 0};
+        indexarCampo(musica.getNome(), PESO_NOME, ocorrencias, estado);
+        if (musica.getInterprete() != null) {
+            indexarCampo(musica.getInterprete().getNome(), PESO_ARTISTA, ocorrencias, estado);
+        }
+        indexarCampo(musica.getNomeEditora(), 1, ocorrencias, estado);
+        if (musica.getLetra() != null) {
+            for (String linha : musica.getLetra()) {
+                indexarCampo(linha, 1, ocorrencias, estado);
+            }
+        }
+        for (Map.Entry<String, Ocorrencias> e : ocorrencias.entrySet()) {
+            Ocorrencias o = e.getValue();
+            this.termos.computeIfAbsent(e.getKey(), t -> new ListaOcorrencias())
+                    .acrescentar(id, o.frequencia, estado[1], o.posicoes, o.numero);
+        }
+        if (id == this.comprimentos.length) {
+            this.comprimentos = Arrays.copyOf(this.comprimentos, Math.max(16, id + (id >> 1)));
+        }
+        this.comprimentos[id] = estado[1];
+        this.somaComprimentos += estado[1];
+        this.numeroDocumentos++;
+    }
+
+    /**
+     * Acrescenta os termos de um campo às ocorrências de uma música.
+     *
+     * @param texto       Texto do campo (pode ser null).
+     * @param peso        Peso dos termos do campo.
+     * @param ocorrencias Ocorrências da música, por termo.
+     * @param estado      Próxima posição e comprimento ponderado da música, atualizados.
+     */
+    private static void indexarCampo(String texto, int peso, Map<String, Ocorrencias> ocorrencias, int[] estado) {
+        List<String> termos = Tokenizador.termos(texto);
+        if (termos.isEmpty()) return;
+        for (String termo : termos) {
+            ocorrencias.computeIfAbsent(termo, t -> new Ocorrencias()).adicionar(estado[0]++, peso);
+            estado[1] += peso;
+        }
+        estado[0]++;
+    }
+
+    /**
+     * Calcula o IDF de um termo (na variante do BM25 que nunca é negativa).
+     *
+     * @param frequenciaDocumentos Número de músicas que contêm o termo.
+     * @return IDF do termo.
+     */
+    private double idf(int frequenciaDocumentos) {
+        return Math.log(1 + (this.numeroDocumentos - frequenciaDocumentos + 0.5) / (frequenciaDocumentos + 0.5));
+    }
+
+    /**
+     * Calcula a contribuição BM25 de um termo para a música onde o cursor está.
+     *
+     * @param cursor Cursor da lista do termo.
+     * @param media  Comprimento médio das músicas.
+     * @return Contribuição para a relevância.
+     */
+    private double pontuacao(Cursor cursor, double media) {
+        double frequencia = cursor.lista.getFrequencia(cursor.i);
+        double razao = (double) this.comprimentos[cursor.lista.getDocumento(cursor.i)] / frequencia;
+        return contribuicao(cursor.idf, frequencia, razao, media);
+    }
+
+    /**
+     * Calcula o limite da contribuição de um termo para as músicas do bloco onde o cursor está. A contribuição de uma
+     * música é idf * (K1 + 1) / (1 + K1 * (1 - B) / frequência + K1 * B * (comprimento / frequência) / média), que só
+     * cresce com a frequência e decresce com a razão comprimento / frequência; o limite usa a maior frequência e a menor
+     * razão do bloco.
+     *
+     * @param cursor Cursor da lista do termo.
+     * @param media  Comprimento médio das músicas.
+     * @return Limite da contribuição.
+     */
+    private double limiteBloco(Cursor cursor, double media) {
+        int bloco = cursor.i / ListaOcorrencias.TAMANHO_BLOCO;
+        if (bloco != cursor.bloco) {
+            double frequencia = cursor.lista.getMaximoFrequencia(bloco);
+            double razao = cursor.lista.getMinimaRazao(bloco);
+            cursor.bloco = bloco;
+            cursor.limiteBloco = contribuicao(cursor.idf, frequencia, razao, media);
+        }
+        return cursor.limiteBloco;
+    }
+
+    /**
+     * Calcula a contribuição BM25 de um termo. Cada operação é monótona, pelo que o limite calculado com a maior
+     * frequência e a menor razão de um bloco nunca fica, mesmo com arredondamentos, abaixo da contribuição de uma
+     * música do bloco.
+     *
+     * @param idf        Idf do termo.
+     * @param frequencia Frequência ponderada do termo na música.
+     * @param razao      Razão entre o comprimento ponderado da música e a frequência.
+     * @param media      Comprimento médio das músicas.
+     * @return Contribuição do termo.
+     */
+    private static double contribuicao(double idf, double frequencia, double razao, double media) {
+        return idf * (K1 + 1) / (1 + K1 * (1 - B) / frequencia + K1 * B * razao / media);
+    }
+
+    /**
+     * Percorre as listas dos termos pela ordem das músicas, com o algoritmo MaxScore. As listas são ordenadas pela
+     * contribuição máxima; as listas cuja contribuição máxima acumulada já não chega para entrar nos k melhores
+     * deixam de propor músicas, e só são consultadas (por pesquisa) enquanto a música ainda puder entrar.
+     * Uma música proposta cujo limite pelos blocos não chegue para entrar é saltada sem ser pontuada; se só uma lista
+     * a propuser, salta-se o resto do bloco dessa lista até à música proposta pelas outras.
+     *
+     * @param cursores Cursores das listas dos termos.
+     * @param melhores Melhores resultados, atualizados.
+     * @param media    Comprimento médio das músicas.
+     */
+    private void maxScore(Cursor[] cursores, Melhores melhores, double media) {
+        Arrays.sort(cursores, (a, b) -> Double.compare(a.maximo, b.maximo));
+        int n = cursores.length;
+        double[] acumulado = new double[n];
+        double soma = 0;
+        for (int j = 0; j < n; j++) {
+            soma += cursores[j].maximo;
+            acumulado[j] = soma;
+        }
+        double[] contribuicoes = new double[n];
+        int essenciais = 0;
+        while (essenciais < n) {
+            int documento = Integer.MAX_VALUE;
+            int seguinte = Integer.MAX_VALUE;
+            int propostas = 0;
+            Cursor unico = null;
+            for (int j = essenciais; j < n; j++) {
+                int d = cursores[j].documento();
+                if (d < documento) {
+                    seguinte = documento;
+                    documento = d;
+                    propostas = 1;
+                    unico = cursores[j];
+                } else if (d == documento) {
+                    propostas++;
+                } else if (d < seguinte) {
+                    seguinte = d;
+                }
+            }
+            if (documento == Integer.MAX_VALUE) break;
+
+            double naoEssenciais = (essenciais == 0) ? 0 : acumulado[essenciais - 1];
+            double limite = naoEssenciais;
+            for (int j = essenciais; j < n; j++) {
+                if (cursores[j].documento() == documento) limite += limiteBloco(cursores[j], media);
+            }
+            if (limite <= melhores.limiar()) {
+                if (propostas == 1) {
+                    ListaOcorrencias lista = unico.lista;
+                    int tamanhoBloco = ListaOcorrencias.TAMANHO_BLOCO;
+                    int fim = Math.min(lista.tamanho(), (unico.i / tamanhoBloco + 1) * tamanhoBloco);
+                    unico.i = (lista.getDocumento(fim - 1) < seguinte) ? fim : lista.procurar(seguinte, unico.i);
+                } else {
+                    for (int j = essenciais; j < n; j++) {
+                        if (cursores[j].documento() == documento) cursores[j].i++;
+                    }
+                }
+                continue;
+            }
+
+            Arrays.fill(contribuicoes, 0);
+            double pontuacao = 0;
+            for (int j = essenciais; j < n; j++) {
+                Cursor cursor = cursores[j];
+                if (cursor.documento() == documento) {
+                    contribuicoes[j] = pontuacao(cursor, media);
+                    pontuacao += contribuicoes[j];
+                    cursor.i++;
+                }
+            }
+            for (int j = essenciais - 1; j >= 0; j--) {
+                if (pontuacao + acumulado[j] <= melhores.limiar()) break;
+                Cursor cursor = cursores[j];
+                cursor.i = cursor.lista.procurar(documento, cursor.i);
+                if (cursor.documento() == documento) {
+                    contribuicoes[j] = pontuacao(cursor, media);
+                    pontuacao += contribuicoes[j];
+                }
+            }
+            // soma pela ordem das listas, para a relevância não depender de quais listas eram essenciais
+            pontuacao = 0;
+            for (double contribuicao : contribuicoes) {
+                pontuacao += contribuicao;
+            }
+            if (melhores.oferecer(documento, pontuacao)) {
+                while (essenciais < n && acumulado[essenciais] <= melhores.limiar()) {
+                    essenciais++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Devolve as músicas que contêm todas as frases, percorrendo a lista mais curta de entre as dos termos das frases.
+     *
+     * @param frases Listas dos termos de cada frase.
+     * @return Ids das músicas, por ordem crescente.
+     */
+    private static List<Integer> documentosComFrases(List<ListaOcorrencias[]> frases) {
+        ListaOcorrencias guia = null;
+        int[][] indices = new int[frases.size()][];
+        for (int f = 0; f < frases.size(); f++) {
+            indices[f] = new int[frases.get(f).length];
+            for (ListaOcorrencias lista : frases.get(f)) {
+                if (guia == null || lista.tamanho() < guia.tamanho()) guia = lista;
+            }
+        }
+        List<Integer> documentos = new ArrayList<>();
+        for (int g = 0; g < guia.tamanho(); g++) {
+            int documento = guia.getDocumento(g);
+            boolean todas = true;
+            for (int f = 0; f < frases.size() && todas; f++) {
+                todas = contemFrase(frases.get(f), indices[f], documento);
+            }
+            if (todas) documentos.add(documento);
+        }
+        return documentos;
+    }
+
+    /**
+     * Verifica se uma música tem os termos de uma frase em posições seguidas.
+     *
+     * @param frase     Listas dos termos da frase, por ordem.
+     * @param indices   Posição atual em cada lista, atualizada (as músicas são verificadas por ordem crescente).
+     * @param documento Id da música.
+     * @return true se a música contiver a frase.
+     */
+    private static boolean contemFrase(ListaOcorrencias[] frase, int[] indices, int documento) {
+        for (int t = 0; t < frase.length; t++) {
+            indices[t] = frase[t].procurar(documento, indices[t]);
+            if (indices[t] == frase[t].tamanho() || frase[t].getDocumento(indices[t]) != documento) return false;
+        }
+        ListaOcorrencias primeiro = frase[0];
+        for (int p = 0; p < primeiro.getNumeroPosicoes(indices[0]); p++) {
+            int inicio = primeiro.getPosicao(indices[0], p);
+            boolean seguidos = true;
+            for (int t = 1; t < frase.length && seguidos; t++) {
+                seguidos = frase[t].temPosicao(indices[t], inicio + t);
+            }
+            if (seguidos) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Ocorrências de um termo numa música, enquanto a música é indexada.
+     */
+    private static final class Ocorrencias {
+        private int frequencia;
+        private int[] posicoes = new int[2];
+        private int numero;
+
+        private void adicionar(int posicao, int peso) {
+            if (this.numero == this.posicoes.length) this.posicoes = Arrays.copyOf(this.posicoes, this.numero * 2);
+            this.posicoes[this.numero++] = posicao;
+            this.frequencia += peso;
+        }
+    }
+
+    /**
+     * Posição de uma consulta na lista de ocorrências de um termo.
+     */
+    private static final class Cursor {
+        private final ListaOcorrencias lista;
+        private final double idf;
+
+        /**
+         * Contribuição máxima do termo: o limite do BM25 quando a frequência tende para infinito.
+         */
+        private final double maximo;
+        private int i;
+
+        /**
+         * Bloco cujo limite está em {@link #limiteBloco} (-1 antes do primeiro cálculo).
+         */
+        private int bloco;
+        private double limiteBloco;
+
+        private Cursor(ListaOcorrencias lista, double idf) {
+            this.lista = lista;
+            this.idf = idf;
+            this.maximo = idf * (K1 + 1);
+            this.i = 0;
+            this.bloco = -1;
+        }
+
+        private int documento() {
+            return (this.i < this.lista.tamanho()) ? this.lista.getDocumento(this.i) : Integer.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Os k melhores resultados encontrados até ao momento, numa heap cuja raiz é o pior deles.
+     */
+    private static final class Melhores {
+        private final int[] documentos;
+        private final double[] pontuacoes;
+        private int tamanho;
+
+        private Melhores(int k) {
+            this.documentos = new int[k];
+            this.pontuacoes = new double[k];
+            this.tamanho = 0;
+        }
+
+        /**
+         * Devolve a relevância que um resultado tem de ultrapassar para entrar.
+         *
+         * @return Relevância do pior resultado (0 enquanto houver lugares livres).
+         */
+        private double limiar() {
+            return (this.tamanho < this.documentos.length) ? 0 : this.pontuacoes[0];
+        }
+
+        /**
+         * Propõe um resultado, que entra se houver lugar ou se for melhor do que o pior.
+         *
+         * @param documento Id da música.
+         * @param pontuacao Relevância da música.
+         * @return true se o resultado entrou.
+         */
+        private boolean oferecer(int documento, double pontuacao) {
+            if (this.tamanho < this.documentos.length) {
+                int i = this.tamanho++;
+                while (i > 0 && pior(documento, pontuacao, (i - 1) / 2)) {
+                    mover((i - 1) / 2, i);
+                    i = (i - 1) / 2;
+                }
+                this.documentos[i] = documento;
+                this.pontuacoes[i] = pontuacao;
+                return true;
+            }
+            if (pior(documento, pontuacao, 0)) return false;
+            int i = 0;
+            while (true) {
+                int filho = 2 * i + 1;
+                if (filho >= this.tamanho) break;
+                if (filho + 1 < this.tamanho && piorEntre(filho + 1, filho)) filho++;
+                if (!piorEntre(filho, documento, pontuacao)) break;
+                mover(filho, i);
+                i = filho;
+            }
+            this.documentos[i] = documento;
+            this.pontuacoes[i] = pontuacao;
+            return true;
+        }
+
+        /**
+         * Devolve os ids dos resultados, do melhor para o pior.
+         *
+         * @return Ids das músicas.
+         */
+        private int[] ordenados() {
+            Integer[] ordem = new Integer[this.tamanho];
+            for (int i = 0; i < this.tamanho; i++) {
+                ordem[i] = i;
+            }
+            Arrays.sort(ordem, (a, b) -> piorEntre(a, b) ? 1 : (piorEntre(b, a) ? -1 : 0));
+            int[] ids = new int[this.tamanho];
+            for (int i = 0; i < this.tamanho; i++) {
+                ids[i] = this.documentos[ordem[i]];
+            }
+            return ids;
+        }
+
+        /**
+         * Verifica se um resultado é pior do que o que está numa posição da heap: tem menor relevância ou,
+         * em caso de empate, maior id.
+         *
+         * @param documento Id da música.
+         * @param pontuacao Relevância da música.
+         * @param i         Posição na heap.
+         * @return true se o resultado for pior.
+         */
+        private boolean pior(int documento, double pontuacao, int i) {
+            return pontuacao < this.pontuacoes[i] || (pontuacao == this.pontuacoes[i] && documento > this.documentos[i]);
+        }
+
+        private boolean piorEntre(int i, int j) {
+            return pior(this.documentos[i], this.pontuacoes[i], j);
+        }
+
+        private boolean piorEntre(int i, int documento, double pontuacao) {
+            return this.pontuacoes[i] < pontuacao || (this.pontuacoes[i] == pontuacao && this.documentos[i] > documento);
+        }
+
+        private void mover(int de, int para) {
+            this.documentos[para] = this.documentos[de];
+            this.pontuacoes[para] = this.pontuacoes[de];
+        }
+    }
+}
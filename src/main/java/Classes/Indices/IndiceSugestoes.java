@@ -0,0 +1,259 @@
+package Classes.Indices;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Índice de nomes para sugerir, a partir de um nome mal escrito, os nomes existentes mais próximos ("quis dizer...").
+ * Os nomes são comparados já normalizados (minúsculas, sem acentos e com a pontuação reduzida a espaços, ver
+ * {@link #normalizar(String)}), pela distância de edição de Levenshtein, com um limite que depende do comprimento
+ * do nome pesquisado.
+ *
+ * Os nomes normalizados ficam numa trie, e a pesquisa percorre-a como um autómato de Levenshtein: cada nó é um
+ * prefixo, e a linha da tabela de distâncias de um nó calcula-se a partir da linha do pai com um só carácter;
+ * assim que o mínimo de uma linha excede o limite, nenhum nome com esse prefixo pode servir, e a pesquisa não desce
+ * por esse nó. Só são visitados, por isso, os prefixos próximos do nome pesquisado, mesmo em catálogos com muitos
+ * nomes parecidos.
+ * Nomes diferentes com a mesma forma normalizada ("Canção" e "cancao") partilham o nó.
+ */
+public class IndiceSugestoes {
+
+    /**
+     * Maior distância de edição usada nas sugestões.
+     */
+    public static final int DISTANCIA_MAXIMA = 2;
+
+    /**
+     * Raiz da trie dos nomes normalizados (o prefixo vazio).
+     */
+    private final No raiz;
+    private int tamanho;
+
+    /**
+     * Construtor por omissão. Cria um índice vazio.
+     */
+    public IndiceSugestoes() {
+        this.raiz = new No();
+        this.tamanho = 0;
+    }
+
+    /**
+     * Normaliza um nome para a comparação: termos em minúsculas e sem acentos (ver {@link Tokenizador}),
+     * separados por um espaço.
+     *
+     * @param nome Nome a normalizar.
+     * @return Nome normalizado (vazio se não tiver letras nem dígitos).
+     */
+    public static String normalizar(String nome) {
+        return String.join(" ", Tokenizador.termos(nome));
+    }
+
+    /**
+     * Devolve a distância de edição tolerada para um nome normalizado: nenhuma até 2 caracteres, 1 até 5 e
+     * {@value #DISTANCIA_MAXIMA} a partir daí, para que os nomes curtos não sugiram nomes sem nada em comum.
+     *
+     * @param chave Nome normalizado.
+     * @return Distância máxima.
+     */
+    public static int distanciaMaxima(String chave) {
+        if (chave.length() <= 2) return 0;
+        if (chave.length() <= 5) return 1;
+        return DISTANCIA_MAXIMA;
+    }
+
+    /**
+     * Acrescenta um nome ao índice. Os nomes repetidos e os nomes sem letras nem dígitos são ignorados.
+     *
+     * @param nome Nome a acrescentar.
+     */
+    public void adicionar(String nome) {
+        if (nome == null) return;
+        String chave = normalizar(nome);
+        if (chave.isEmpty()) return;
+        No no = this.raiz;
+        for (int i = 0; i < chave.length(); i++) {
+            no = no.filho(chave.charAt(i));
+        }
+        if (no.nomes == null) {
+            no.nomes = new String[]{nome};
+        } else {
+            for (String existente : no.nomes) {
+                if (existente.equals(nome)) return;
+            }
+            no.nomes = Arrays.copyOf(no.nomes, no.nomes.length + 1);
+            no.nomes[no.nomes.length - 1] = nome;
+        }
+        this.tamanho++;
+    }
+
+    /**
+     * Devolve o número de nomes (distintos) do índice.
+     *
+     * @return Número de nomes.
+     */
+    public int tamanho() {
+        return this.tamanho;
+    }
+
+    /**
+     * Sugere os nomes mais próximos de um nome, com a distância tolerada para o seu comprimento
+     * (ver {@link #distanciaMaxima(String)}).
+     *
+     * @param nome   Nome pesquisado.
+     * @param limite Número máximo de sugestões.
+     * @return Nomes encontrados, do mais próximo para o mais afastado (e por ordem alfabética entre os que estão à
+     * mesma distância).
+     */
+    public List<String> sugerir(String nome, int limite) {
+        String chave = normalizar(nome);
+        return procurar(chave, distanciaMaxima(chave), limite);
+    }
+
+    /**
+     * Procura os nomes a uma distância de edição máxima de um nome normalizado.
+     *
+     * @param chave           Nome normalizado.
+     * @param distanciaMaxima Distância máxima.
+     * @param limite          Número máximo de resultados.
+     * @return Nomes encontrados, do mais próximo para o mais afastado (e por ordem alfabética entre os que estão à
+     * mesma distância).
+     */
+    public List<String> procurar(String chave, int distanciaMaxima, int limite) {
+        if (chave.isEmpty() || limite <= 0) return new ArrayList<>();
+        int m = chave.length();
+        // um prefixo com mais de m + distanciaMaxima caracteres já está sempre a distância maior
+        int[][] linhas = new int[m + distanciaMaxima + 1][m + 1];
+        for (int j = 0; j <= m; j++) {
+            linhas[0][j] = j;
+        }
+        List<Candidato> candidatos = new ArrayList<>();
+        procurar(this.raiz, 0, chave, distanciaMaxima, linhas, candidatos);
+
+        candidatos.sort(Comparator.comparingInt((Candidato c) -> c.distancia).thenComparing(c -> c.nome));
+        List<String> resultado = new ArrayList<>(Math.min(limite, candidatos.size()));
+        for (int i = 0; i < candidatos.size() && i < limite; i++) {
+            resultado.add(candidatos.get(i).nome);
+        }
+        return resultado;
+    }
+
+    /**
+     * Recolhe os nomes próximos do nome pesquisado a partir de um nó, descendo só pelos filhos cuja linha da tabela de
+     * distâncias ainda tenha algum valor dentro do limite.
+     *
+     * @param no              Nó atual.
+     * @param profundidade    Comprimento do prefixo do nó (índice da sua linha).
+     * @param chave           Nome pesquisado.
+     * @param distanciaMaxima Distância máxima.
+     * @param linhas          Linhas da tabela de distâncias, preenchidas até à do nó.
+     * @param candidatos      Nomes encontrados, atualizados.
+     */
+    private static void procurar(No no, int profundidade, String chave, int distanciaMaxima, int[][] linhas,
+                                 List<Candidato> candidatos) {
+        int[] linha = linhas[profundidade];
+        int d = linha[chave.length()];
+        if (no.nomes != null && d <= distanciaMaxima) {
+            for (String nome : no.nomes) {
+                candidatos.add(new Candidato(nome, d));
+            }
+        }
+        if (profundidade + 1 == linhas.length) return;
+        for (int k = 0; k < no.letras.length; k++) {
+            if (calcularLinha(chave, no.letras[k], linha, linhas[profundidade + 1]) <= distanciaMaxima) {
+                procurar(no.filhos[k], profundidade + 1, chave, distanciaMaxima, linhas, candidatos);
+            }
+        }
+    }
+
+    /**
+     * Calcula a linha seguinte da tabela de distâncias de Levenshtein entre um prefixo e o nome pesquisado.
+     *
+     * @param chave    Nome pesquisado.
+     * @param c        Carácter acrescentado ao prefixo.
+     * @param anterior Linha do prefixo sem o carácter.
+     * @param linha    Linha a preencher.
+     * @return Mínimo da linha (a distância de qualquer nome com este prefixo nunca é menor).
+     */
+    private static int calcularLinha(String chave, char c, int[] anterior, int[] linha) {
+        linha[0] = anterior[0] + 1;
+        int minimo = linha[0];
+        for (int j = 1; j < linha.length; j++) {
+            int substituicao = anterior[j - 1] + ((c == chave.charAt(j - 1)) ? 0 : 1);
+            linha[j] = Math.min(substituicao, Math.min(anterior[j], linha[j - 1]) + 1);
+            minimo = Math.min(minimo, linha[j]);
+        }
+        return minimo;
+    }
+
+    /**
+     * Calcula a distância de Levenshtein entre dois textos.
+     *
+     * @param a Primeiro texto.
+     * @param b Segundo texto.
+     * @return Distância.
+     */
+    static int distancia(String a, String b) {
+        int[] anterior = new int[b.length() + 1];
+        int[] linha = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            anterior[j] = j;
+        }
+        for (int i = 0; i < a.length(); i++) {
+            calcularLinha(b, a.charAt(i), anterior, linha);
+            int[] troca = anterior;
+            anterior = linha;
+            linha = troca;
+        }
+        return anterior[b.length()];
+    }
+
+    /**
+     * Nó da trie: um prefixo, os nomes originais cuja forma normalizada é esse prefixo (null se não houver nenhum) e
+     * os filhos, indexados pelo carácter seguinte (por ordem crescente).
+     */
+    private static final class No {
+        private static final char[] SEM_LETRAS = new char[0];
+        private static final No[] SEM_FILHOS = new No[0];
+
+        private char[] letras;
+        private No[] filhos;
+        private String[] nomes;
+
+        private No() {
+            this.letras = SEM_LETRAS;
+            this.filhos = SEM_FILHOS;
+            this.nomes = null;
+        }
+
+        private No filho(char c) {
+            int k = Arrays.binarySearch(this.letras, c);
+            if (k >= 0) return this.filhos[k];
+            k = -k - 1;
+            int n = this.letras.length;
+            char[] letras = Arrays.copyOf(this.letras, n + 1);
+            No[] filhos = Arrays.copyOf(this.filhos, n + 1);
+            System.arraycopy(letras, k, letras, k + 1, n - k);
+            System.arraycopy(filhos, k, filhos, k + 1, n - k);
+            letras[k] = c;
+            filhos[k] = new No();
+            this.letras = letras;
+            this.filhos = filhos;
+            return filhos[k];
+        }
+    }
+
+    /**
+     * Nome encontrado numa pesquisa, com a sua distância ao nome pesquisado.
+     */
+    private static final class Candidato {
+        private final String nome;
+        private final int distancia;
+
+        private Candidato(String nome, int distancia) {
+            this.nome = nome;
+            this.distancia = distancia;
+        }
+    }
+}
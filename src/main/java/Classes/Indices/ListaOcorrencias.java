@@ -0,0 +1,217 @@
+package Classes.Indices;
+
+import java.util.Arrays;
+
+/**
+ * Lista das ocorrências de um termo no índice de pesquisa: os ids das músicas que contêm o termo, por ordem
+ * crescente, e, para cada música, a frequência (ponderada pelo campo) e as posições do termo no texto.
+ * As listas só crescem no fim, porque as músicas são indexadas pela ordem do catálogo.
+ *
+ * As entradas estão agrupadas em blocos de {@value #TAMANHO_BLOCO}, e cada bloco guarda a maior frequência e a menor
+ * razão entre comprimento e frequência das suas músicas: com elas, a pesquisa calcula um limite para a relevância de
+ * qualquer música do bloco e salta os blocos que não podem entrar nos melhores resultados.
+ */
+public class ListaOcorrencias {
+
+    /**
+     * Número de entradas de cada bloco.
+     */
+    public static final int TAMANHO_BLOCO = 128;
+
+    private int[] documentos;
+    private int[] frequencias;
+
+    /**
+     * Posição, em {@link #posicoes}, onde terminam as posições de cada música (começam onde terminam as da anterior).
+     */
+    private int[] fins;
+    private int[] posicoes;
+    private int tamanho;
+    private int numeroPosicoes;
+    private int[] maximosFrequencia;
+    private double[] minimasRazoes;
+
+    /**
+     * Construtor por omissão. Cria uma lista vazia.
+     */
+    public ListaOcorrencias() {
+        this.documentos = new int[2];
+        this.frequencias = new int[2];
+        this.fins = new int[2];
+        this.posicoes = new int[2];
+        this.tamanho = 0;
+        this.numeroPosicoes = 0;
+        this.maximosFrequencia = new int[1];
+        this.minimasRazoes = new double[1];
+    }
+
+    /**
+     * Acrescenta as ocorrências do termo numa música.
+     *
+     * @param documento   Id da música (maior do que o de todas as músicas já na lista).
+     * @param frequencia  Frequência ponderada do termo na música.
+     * @param comprimento Comprimento ponderado da música.
+     * @param posicoes    Posições do termo na música, por ordem crescente.
+     * @param numero      Número de posições a usar do array.
+     * @throws IllegalArgumentException Se o id não for maior do que o da última música da lista.
+     */
+    public void acrescentar(int documento, int frequencia, int comprimento, int[] posicoes, int numero) {
+        if (this.tamanho > 0 && documento <= this.documentos[this.tamanho - 1]) {
+            throw new IllegalArgumentException("Música fora de ordem no índice de pesquisa: " + documento);
+        }
+        if (this.tamanho == this.documentos.length) {
+            int capacidade = this.tamanho + (this.tamanho >> 1) + 1;
+            this.documentos = Arrays.copyOf(this.documentos, capacidade);
+            this.frequencias = Arrays.copyOf(this.frequencias, capacidade);
+            this.fins = Arrays.copyOf(this.fins, capacidade);
+        }
+        if (this.numeroPosicoes + numero > this.posicoes.length) {
+            int capacidade = Math.max(this.numeroPosicoes + numero, this.posicoes.length + (this.posicoes.length >> 1));
+            this.posicoes = Arrays.copyOf(this.posicoes, capacidade);
+        }
+        System.arraycopy(posicoes, 0, this.posicoes, this.numeroPosicoes, numero);
+        this.numeroPosicoes += numero;
+        this.documentos[this.tamanho] = documento;
+        this.frequencias[this.tamanho] = frequencia;
+        this.fins[this.tamanho] = this.numeroPosicoes;
+        int bloco = this.tamanho / TAMANHO_BLOCO;
+        double razao = (double) comprimento / frequencia;
+        if (this.tamanho % TAMANHO_BLOCO == 0) {
+            if (bloco == this.maximosFrequencia.length) {
+                this.maximosFrequencia = Arrays.copyOf(this.maximosFrequencia, bloco * 2);
+                this.minimasRazoes = Arrays.copyOf(this.minimasRazoes, bloco * 2);
+            }
+            this.maximosFrequencia[bloco] = frequencia;
+            this.minimasRazoes[bloco] = razao;
+        } else {
+            this.maximosFrequencia[bloco] = Math.max(this.maximosFrequencia[bloco], frequencia);
+            this.minimasRazoes[bloco] = Math.min(this.minimasRazoes[bloco], razao);
+        }
+        this.tamanho++;
+    }
+
+    /**
+     * Liberta a capacidade não usada dos arrays (por exemplo, depois de construir ou carregar o índice).
+     */
+    public void compactar() {
+        this.documentos = Arrays.copyOf(this.documentos, this.tamanho);
+        this.frequencias = Arrays.copyOf(this.frequencias, this.tamanho);
+        this.fins = Arrays.copyOf(this.fins, this.tamanho);
+        this.posicoes = Arrays.copyOf(this.posicoes, this.numeroPosicoes);
+        int blocos = (this.tamanho + TAMANHO_BLOCO - 1) / TAMANHO_BLOCO;
+        this.maximosFrequencia = Arrays.copyOf(this.maximosFrequencia, Math.max(1, blocos));
+        this.minimasRazoes = Arrays.copyOf(this.minimasRazoes, Math.max(1, blocos));
+    }
+
+    /**
+     * Devolve o número de músicas que contêm o termo.
+     *
+     * @return Número de músicas.
+     */
+    public int tamanho() {
+        return this.tamanho;
+    }
+
+    /**
+     * Devolve o id da i-ésima música da lista.
+     *
+     * @param i Posição na lista.
+     * @return Id da música.
+     */
+    public int getDocumento(int i) {
+        return this.documentos[i];
+    }
+
+    /**
+     * Devolve a frequência ponderada do termo na i-ésima música da lista.
+     *
+     * @param i Posição na lista.
+     * @return Frequência ponderada.
+     */
+    public int getFrequencia(int i) {
+        return this.frequencias[i];
+    }
+
+    /**
+     * Devolve a maior frequência ponderada do termo nas músicas de um bloco.
+     *
+     * @param bloco Índice do bloco (a entrada i está no bloco i / {@value #TAMANHO_BLOCO}).
+     * @return Maior frequência do bloco.
+     */
+    public int getMaximoFrequencia(int bloco) {
+        return this.maximosFrequencia[bloco];
+    }
+
+    /**
+     * Devolve a menor razão entre o comprimento ponderado da música e a frequência do termo nas músicas de um bloco.
+     *
+     * @param bloco Índice do bloco (a entrada i está no bloco i / {@value #TAMANHO_BLOCO}).
+     * @return Menor razão do bloco.
+     */
+    public double getMinimaRazao(int bloco) {
+        return this.minimasRazoes[bloco];
+    }
+
+    /**
+     * Devolve o número de posições do termo na i-ésima música da lista.
+     *
+     * @param i Posição na lista.
+     * @return Número de posições.
+     */
+    public int getNumeroPosicoes(int i) {
+        return this.fins[i] - inicio(i);
+    }
+
+    /**
+     * Devolve uma posição do termo na i-ésima música da lista.
+     *
+     * @param i Posição na lista.
+     * @param j Índice da posição (entre 0 e {@link #getNumeroPosicoes(int)} - 1).
+     * @return Posição do termo no texto da música.
+     */
+    public int getPosicao(int i, int j) {
+        return this.posicoes[inicio(i) + j];
+    }
+
+    /**
+     * Verifica se o termo ocorre numa dada posição da i-ésima música da lista.
+     *
+     * @param i       Posição na lista.
+     * @param posicao Posição no texto da música.
+     * @return true se o termo ocorrer nessa posição.
+     */
+    public boolean temPosicao(int i, int posicao) {
+        return Arrays.binarySearch(this.posicoes, inicio(i), this.fins[i], posicao) >= 0;
+    }
+
+    /**
+     * Procura a primeira entrada, a partir de uma posição da lista, cuja música tenha id maior ou igual ao indicado.
+     * Avança primeiro em saltos que duplicam e só depois faz uma pesquisa binária, pelo que é barato avançar
+     * pouco de cada vez.
+     *
+     * @param documento Id da música.
+     * @param desde     Posição da lista onde começar.
+     * @return Posição encontrada ({@link #tamanho()} se todas as músicas tiverem id menor).
+     */
+    public int procurar(int documento, int desde) {
+        int baixo = desde;
+        int salto = 1;
+        while (baixo + salto < this.tamanho && this.documentos[baixo + salto] < documento) {
+            baixo += salto;
+            salto <<= 1;
+        }
+        if (baixo >= this.tamanho || this.documentos[baixo] >= documento) return baixo;
+        int i = Arrays.binarySearch(this.documentos, baixo + 1, Math.min(baixo + salto + 1, this.tamanho), documento);
+        return (i >= 0) ? i : -i - 1;
+    }
+
+    /**
+     * Devolve onde começam, em {@link #posicoes}, as posições da i-ésima música da lista.
+     *
+     * @param i Posição na lista.
+     * @return Início das posições.
+     */
+    private int inicio(int i) {
+        return (i == 0) ? 0 : this.fins[i - 1];
+    }
+}
@@ -0,0 +1,79 @@
+package Classes.Indices;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Divisão de textos em termos para a pesquisa de texto livre.
+ * Um termo é uma sequência de letras e dígitos; tudo o resto separa termos. Os termos ficam em minúsculas e
+ * sem acentos nem cedilhas ("Canção" e "cancao" dão o mesmo termo), para que a pesquisa não dependa da forma
+ * como o texto português foi escrito.
+ */
+public final class Tokenizador {
+
+    /**
+     * Primeiro carácter fora da tabela de caracteres dobrados (cobre o Latin-1 e o Latin Extended-A).
+     */
+    private static final int FIM_TABELA = 0x0180;
+
+    /**
+     * Carácter dobrado de cada carácter da tabela: a letra base em minúsculas, ou 0 se não for letra nem dígito.
+     */
+    private static final char[] DOBRADOS = new char[FIM_TABELA];
+
+    static {
+        for (char c = 0; c < FIM_TABELA; c++) {
+            if (!Character.isLetterOrDigit(c)) continue;
+            String decomposto = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+            DOBRADOS[c] = Character.toLowerCase(decomposto.charAt(0));
+        }
+    }
+
+    private Tokenizador() {
+    }
+
+    /**
+     * Divide um texto em termos normalizados, pela ordem em que aparecem.
+     *
+     * @param texto Texto a dividir (pode ser null).
+     * @return Lista de termos (vazia se o texto não tiver letras nem dígitos).
+     */
+    public static List<String> termos(String texto) {
+        List<String> termos = new ArrayList<>();
+        if (texto == null) return termos;
+        StringBuilder termo = new StringBuilder();
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            char dobrado;
+            if (c < FIM_TABELA) {
+                dobrado = DOBRADOS[c];
+            } else if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            } else if (Character.isLetterOrDigit(c)) {
+                dobrado = dobrar(c);
+            } else {
+                dobrado = 0;
+            }
+            if (dobrado != 0) {
+                termo.append(dobrado);
+            } else if (termo.length() > 0) {
+                termos.add(termo.toString());
+                termo.setLength(0);
+            }
+        }
+        if (termo.length() > 0) termos.add(termo.toString());
+        return termos;
+    }
+
+    /**
+     * Dobra um carácter fora da tabela: retira-lhe os acentos e passa-o a minúsculas.
+     *
+     * @param c Letra ou dígito.
+     * @return Carácter dobrado.
+     */
+    private static char dobrar(char c) {
+        String decomposto = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+        return Character.toLowerCase(decomposto.charAt(0));
+    }
+}
@@ -0,0 +1,66 @@
+package Classes.Metricas;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contador monótono (por exemplo, o número de logins falhados). Pode ser incrementado por várias threads
+ * ao mesmo tempo sem disputa, e não faz nada se a instrumentação estiver desligada.
+ */
+public class Contador extends Metrica {
+
+    private final LongAdder valor;
+
+    /**
+     * Construtor com parâmetros.
+     *
+     * @param nome          Nome do contador (por convenção, terminado em {@code _total}).
+     * @param ajuda         Descrição do contador.
+     * @param etiqueta      Nome da etiqueta, ou null.
+     * @param valorEtiqueta Valor da etiqueta, ou null.
+     */
+    public Contador(String nome, String ajuda, String etiqueta, String valorEtiqueta) {
+        super(nome, ajuda, etiqueta, valorEtiqueta);
+        this.valor = new LongAdder();
+    }
+
+    /**
+     * Incrementa o contador uma unidade.
+     */
+    public void incrementar() {
+        if (Instrumentacao.ATIVA) this.valor.increment();
+    }
+
+    /**
+     * Incrementa o contador.
+     *
+     * @param n Valor a somar.
+     */
+    public void incrementar(long n) {
+        if (Instrumentacao.ATIVA) this.valor.add(n);
+    }
+
+    /**
+     * Devolve o valor do contador.
+     *
+     * @return Valor.
+     */
+    public long getValor() {
+        return this.valor.sum();
+    }
+
+    @Override
+    public String getTipo() {
+        return "counter";
+    }
+
+    @Override
+    public void escreverPrometheus(Appendable destino) throws IOException {
+        destino.append(serie("", null)).append(' ').append(String.valueOf(getValor())).append('\n');
+    }
+
+    @Override
+    public void escreverJson(Appendable destino) throws IOException {
+        destino.append("\"valor\": ").append(String.valueOf(getValor()));
+    }
+}
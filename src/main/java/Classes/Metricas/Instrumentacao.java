@@ -0,0 +1,44 @@
+package Classes.Metricas;
+
+/**
+ * Ponto de entrada da instrumentação do SpotifUM: o registo global de métricas e o interruptor que a desliga.
+ *
+ * A instrumentação está ligada por omissão e desliga-se arrancando a JVM com {@code -Dspotifum.metricas=false}.
+ * Como {@link #ATIVA} é uma constante, quando está desligada o JIT elimina as medições dos caminhos instrumentados
+ * ({@link #inicio()} devolve sempre 0 e os registos não fazem nada), pelo que não têm custo.
+ */
+public final class Instrumentacao {
+
+    /**
+     * Propriedade do sistema que liga ou desliga a instrumentação.
+     */
+    public static final String PROPRIEDADE = "spotifum.metricas";
+
+    /**
+     * Indica se a instrumentação está ligada. É fixada no arranque da JVM.
+     */
+    public static final boolean ATIVA = !"false".equalsIgnoreCase(System.getProperty(PROPRIEDADE));
+
+    private static final RegistoMetricas REGISTO = new RegistoMetricas();
+
+    private Instrumentacao() {
+    }
+
+    /**
+     * Devolve o registo global de métricas.
+     *
+     * @return Registo de métricas.
+     */
+    public static RegistoMetricas getRegisto() {
+        return REGISTO;
+    }
+
+    /**
+     * Devolve o instante de início de uma medição, a passar depois a {@link Temporizador#registarDesde(long)}.
+     *
+     * @return Valor de {@link System#nanoTime()}, ou 0 se a instrumentação estiver desligada.
+     */
+    public static long inicio() {
+        return ATIVA ? System.nanoTime() : 0;
+    }
+}
@@ -0,0 +1,60 @@
+package Classes.Metricas;
+
+import java.io.IOException;
+import java.util.function.LongSupplier;
+
+/**
+ * Medidor de um valor instantâneo (por exemplo, o número de músicas do catálogo). O valor só é lido quando as
+ * métricas são exportadas, pelo que o medidor não tem custo nos caminhos instrumentados.
+ */
+public class Medidor extends Metrica {
+
+    private volatile LongSupplier fonte;
+
+    /**
+     * Construtor com parâmetros.
+     *
+     * @param nome          Nome do medidor.
+     * @param ajuda         Descrição do medidor.
+     * @param etiqueta      Nome da etiqueta, ou null.
+     * @param valorEtiqueta Valor da etiqueta, ou null.
+     * @param fonte         Função que lê o valor.
+     */
+    public Medidor(String nome, String ajuda, String etiqueta, String valorEtiqueta, LongSupplier fonte) {
+        super(nome, ajuda, etiqueta, valorEtiqueta);
+        this.fonte = fonte;
+    }
+
+    /**
+     * Muda a função que lê o valor (por exemplo, quando o modelo é substituído por um estado carregado).
+     *
+     * @param fonte Função que lê o valor.
+     */
+    public void setFonte(LongSupplier fonte) {
+        this.fonte = fonte;
+    }
+
+    /**
+     * Lê o valor do medidor.
+     *
+     * @return Valor.
+     */
+    public long getValor() {
+        return this.fonte.getAsLong();
+    }
+
+    @Override
+    public String getTipo() {
+        return "gauge";
+    }
+
+    @Override
+    public void escreverPrometheus(Appendable destino) throws IOException {
+        destino.append(serie("", null)).append(' ').append(String.valueOf(getValor())).append('\n');
+    }
+
+    @Override
+    public void escreverJson(Appendable destino) throws IOException {
+        destino.append("\"valor\": ").append(String.valueOf(getValor()));
+    }
+}
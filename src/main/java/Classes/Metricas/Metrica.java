@@ -0,0 +1,153 @@
+package Classes.Metricas;
+
+import java.io.IOException;
+
+/**
+ * Métrica do registo de métricas: uma série identificada por um nome e, opcionalmente, por uma etiqueta
+ * ({@code nome{etiqueta="valor"}}). Séries com o mesmo nome e etiquetas diferentes formam uma família,
+ * exportada com uma só descrição.
+ */
+public abstract class Metrica {
+
+    private final String nome;
+    private final String ajuda;
+    private final String etiqueta;
+    private final String valorEtiqueta;
+
+    /**
+     * Construtor com parâmetros.
+     *
+     * @param nome          Nome da métrica (letras, algarismos e '_', sem começar por algarismo).
+     * @param ajuda         Descrição da métrica.
+     * @param etiqueta      Nome da etiqueta, ou null se a métrica não tiver etiqueta.
+     * @param valorEtiqueta Valor da etiqueta, ou null se a métrica não tiver etiqueta.
+     * @throws IllegalArgumentException Se o nome ou a etiqueta forem inválidos.
+     */
+    protected Metrica(String nome, String ajuda, String etiqueta, String valorEtiqueta) {
+        if (!nomeValido(nome)) throw new IllegalArgumentException("Nome de métrica inválido: " + nome);
+        if ((etiqueta == null) != (valorEtiqueta == null) || (etiqueta != null && !nomeValido(etiqueta))) {
+            throw new IllegalArgumentException("Etiqueta inválida: " + etiqueta);
+        }
+        this.nome = nome;
+        this.ajuda = ajuda;
+        this.etiqueta = etiqueta;
+        this.valorEtiqueta = valorEtiqueta;
+    }
+
+    /**
+     * Devolve o nome da métrica.
+     *
+     * @return Nome.
+     */
+    public String getNome() {
+        return this.nome;
+    }
+
+    /**
+     * Devolve a descrição da métrica.
+     *
+     * @return Descrição.
+     */
+    public String getAjuda() {
+        return this.ajuda;
+    }
+
+    /**
+     * Devolve o nome da etiqueta da métrica.
+     *
+     * @return Nome da etiqueta, ou null se não tiver.
+     */
+    public String getEtiqueta() {
+        return this.etiqueta;
+    }
+
+    /**
+     * Devolve o valor da etiqueta da métrica.
+     *
+     * @return Valor da etiqueta, ou null se não tiver.
+     */
+    public String getValorEtiqueta() {
+        return this.valorEtiqueta;
+    }
+
+    /**
+     * Devolve a chave da série no registo: o nome seguido da etiqueta, se houver.
+     *
+     * @return Chave da série.
+     */
+    public String getChave() {
+        return serie("", null);
+    }
+
+    /**
+     * Devolve o tipo da métrica no formato de texto do Prometheus.
+     *
+     * @return {@code counter}, {@code gauge} ou {@code summary}.
+     */
+    public abstract String getTipo();
+
+    /**
+     * Escreve as amostras da métrica no formato de texto do Prometheus (sem as linhas HELP e TYPE).
+     *
+     * @param destino Destino do texto.
+     * @throws IOException Se ocorrer um erro ao escrever no destino.
+     */
+    public abstract void escreverPrometheus(Appendable destino) throws IOException;
+
+    /**
+     * Escreve os valores da métrica como membros de um objeto JSON (por exemplo {@code "valor": 3}),
+     * sem chavetas.
+     *
+     * @param destino Destino do texto.
+     * @throws IOException Se ocorrer um erro ao escrever no destino.
+     */
+    public abstract void escreverJson(Appendable destino) throws IOException;
+
+    /**
+     * Devolve o identificador de uma amostra no formato do Prometheus: o nome com um sufixo, a etiqueta da métrica
+     * e, opcionalmente, uma etiqueta extra.
+     *
+     * @param sufixo Sufixo do nome (por exemplo {@code _sum}).
+     * @param extra  Etiqueta extra já formatada (por exemplo {@code quantile="0.5"}), ou null.
+     * @return Identificador da amostra.
+     */
+    protected String serie(String sufixo, String extra) {
+        StringBuilder sb = new StringBuilder(this.nome).append(sufixo);
+        if (this.etiqueta != null || extra != null) {
+            sb.append('{');
+            if (this.etiqueta != null) {
+                sb.append(this.etiqueta).append("=\"").append(escapar(this.valorEtiqueta)).append('"');
+                if (extra != null) sb.append(',');
+            }
+            if (extra != null) sb.append(extra);
+            sb.append('}');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Escapa um texto para ser usado entre aspas no formato do Prometheus ou em JSON.
+     *
+     * @param texto Texto.
+     * @return Texto com as barras, aspas e mudanças de linha escapadas.
+     */
+    static String escapar(String texto) {
+        StringBuilder sb = new StringBuilder(texto.length());
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c == '\\' || c == '"') sb.append('\\').append(c);
+            else if (c == '\n') sb.append("\\n");
+            else sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    private static boolean nomeValido(String nome) {
+        if (nome == null || nome.isEmpty() || Character.isDigit(nome.charAt(0))) return false;
+        for (int i = 0; i < nome.length(); i++) {
+            char c = nome.charAt(i);
+            if (!(c == '_' || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9'))) return false;
+        }
+        return true;
+    }
+}
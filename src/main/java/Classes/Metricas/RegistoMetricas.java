@@ -0,0 +1,255 @@
+package Classes.Metricas;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Registo de métricas: contadores, temporizadores e medidores, identificados pelo nome e pela etiqueta.
+ * Pedir uma métrica que já existe devolve a existente, pelo que as classes instrumentadas podem obter as suas
+ * métricas em campos estáticos. As métricas podem ser exportadas no formato de texto do Prometheus ou em JSON,
+ * por ordem do nome.
+ *
+ * Um registo pode ter um registo base, cujas métricas são exportadas juntamente com as suas. Assim, métricas que
+ * só fazem sentido enquanto um objeto existe (por exemplo, medidores que leem um modelo) ficam num registo próprio
+ * desse objeto, em vez de o manterem vivo no registo global.
+ */
+public class RegistoMetricas {
+
+    private final ConcurrentHashMap<String, Metrica> metricas;
+    private final RegistoMetricas base;
+
+    /**
+     * Construtor por omissão.
+     */
+    public RegistoMetricas() {
+        this(null);
+    }
+
+    /**
+     * Construtor com um registo base. As métricas pedidas a este registo ficam só neste registo; as do registo
+     * base são consultadas e exportadas juntamente com elas.
+     *
+     * @param base Registo base (pode ser null).
+     */
+    public RegistoMetricas(RegistoMetricas base) {
+        this.metricas = new ConcurrentHashMap<>();
+        this.base = base;
+    }
+
+    /**
+     * Devolve um contador sem etiqueta, criando-o se ainda não existir.
+     *
+     * @param nome  Nome do contador.
+     * @param ajuda Descrição do contador.
+     * @return Contador.
+     * @throws IllegalArgumentException Se já existir uma métrica de outro tipo com o mesmo nome.
+     */
+    public Contador contador(String nome, String ajuda) {
+        return contador(nome, ajuda, null, null);
+    }
+
+    /**
+     * Devolve um contador, criando-o se ainda não existir.
+     *
+     * @param nome          Nome do contador.
+     * @param ajuda         Descrição do contador.
+     * @param etiqueta      Nome da etiqueta.
+     * @param valorEtiqueta Valor da etiqueta.
+     * @return Contador.
+     * @throws IllegalArgumentException Se já existir uma métrica de outro tipo com o mesmo nome.
+     */
+    public Contador contador(String nome, String ajuda, String etiqueta, String valorEtiqueta) {
+        return obter(new Contador(nome, ajuda, etiqueta, valorEtiqueta), Contador.class, m -> m);
+    }
+
+    /**
+     * Devolve um temporizador sem etiqueta, criando-o se ainda não existir.
+     *
+     * @param nome  Nome do temporizador.
+     * @param ajuda Descrição do temporizador.
+     * @return Temporizador.
+     * @throws IllegalArgumentException Se já existir uma métrica de outro tipo com o mesmo nome.
+     */
+    public Temporizador temporizador(String nome, String ajuda) {
+        return temporizador(nome, ajuda, null, null);
+    }
+
+    /**
+     * Devolve um temporizador, criando-o se ainda não existir.
+     *
+     * @param nome          Nome do temporizador.
+     * @param ajuda         Descrição do temporizador.
+     * @param etiqueta      Nome da etiqueta.
+     * @param valorEtiqueta Valor da etiqueta.
+     * @return Temporizador.
+     * @throws IllegalArgumentException Se já existir uma métrica de outro tipo com o mesmo nome.
+     */
+    public Temporizador temporizador(String nome, String ajuda, String etiqueta, String valorEtiqueta) {
+        return obter(new Temporizador(nome, ajuda, etiqueta, valorEtiqueta), Temporizador.class, m -> m);
+    }
+
+    /**
+     * Regista um medidor sem etiqueta. Se o medidor já existir, passa a ler o valor da nova função.
+     *
+     * @param nome  Nome do medidor.
+     * @param ajuda Descrição do medidor.
+     * @param fonte Função que lê o valor.
+     * @return Medidor.
+     * @throws IllegalArgumentException Se já existir uma métrica de outro tipo com o mesmo nome.
+     */
+    public Medidor medidor(String nome, String ajuda, LongSupplier fonte) {
+        return medidor(nome, ajuda, null, null, fonte);
+    }
+
+    /**
+     * Regista um medidor. Se o medidor já existir, passa a ler o valor da nova função.
+     *
+     * @param nome          Nome do medidor.
+     * @param ajuda         Descrição do medidor.
+     * @param etiqueta      Nome da etiqueta.
+     * @param valorEtiqueta Valor da etiqueta.
+     * @param fonte         Função que lê o valor.
+     * @return Medidor.
+     * @throws IllegalArgumentException Se já existir uma métrica de outro tipo com o mesmo nome.
+     */
+    public Medidor medidor(String nome, String ajuda, String etiqueta, String valorEtiqueta, LongSupplier fonte) {
+        return obter(new Medidor(nome, ajuda, etiqueta, valorEtiqueta, fonte), Medidor.class, m -> {
+            m.setFonte(fonte);
+            return m;
+        });
+    }
+
+    /**
+     * Devolve a métrica com uma dada chave ({@code nome} ou {@code nome{etiqueta="valor"}}), procurando também
+     * no registo base.
+     *
+     * @param chave Chave da métrica.
+     * @return Métrica, ou null se não existir.
+     */
+    public Metrica getMetrica(String chave) {
+        Metrica m = this.metricas.get(chave);
+        if (m == null && this.base != null) return this.base.getMetrica(chave);
+        return m;
+    }
+
+    /**
+     * Devolve o número de métricas registadas neste registo, sem contar as do registo base.
+     *
+     * @return Número de métricas.
+     */
+    public int tamanho() {
+        return this.metricas.size();
+    }
+
+    /**
+     * Escreve todas as métricas no formato de texto do Prometheus. Cada família de métricas (o mesmo nome)
+     * é precedida das linhas {@code # HELP} e {@code # TYPE}.
+     *
+     * @param destino Destino do texto.
+     * @throws IOException Se ocorrer um erro ao escrever no destino.
+     */
+    public void exportarPrometheus(Appendable destino) throws IOException {
+        String familia = null;
+        for (Metrica m : ordenadas()) {
+            if (!m.getNome().equals(familia)) {
+                familia = m.getNome();
+                destino.append("# HELP ").append(familia).append(' ')
+                        .append(m.getAjuda().replace("\\", "\\\\").replace("\n", "\\n")).append('\n');
+                destino.append("# TYPE ").append(familia).append(' ').append(m.getTipo()).append('\n');
+            }
+            m.escreverPrometheus(destino);
+        }
+    }
+
+    /**
+     * Escreve todas as métricas em JSON: uma lista de objetos com o nome, o tipo, a etiqueta (se houver)
+     * e os valores de cada métrica.
+     *
+     * @param destino Destino do texto.
+     * @throws IOException Se ocorrer um erro ao escrever no destino.
+     */
+    public void exportarJson(Appendable destino) throws IOException {
+        destino.append('[');
+        boolean primeira = true;
+        for (Metrica m : ordenadas()) {
+            destino.append(primeira ? "\n" : ",\n");
+            primeira = false;
+            destino.append("  {\"nome\": \"").append(Metrica.escapar(m.getNome()))
+                    .append("\", \"tipo\": \"").append(m.getTipo()).append('"');
+            if (m.getEtiqueta() != null) {
+                destino.append(", \"etiquetas\": {\"").append(Metrica.escapar(m.getEtiqueta())).append("\": \"")
+                        .append(Metrica.escapar(m.getValorEtiqueta())).append("\"}");
+            }
+            destino.append(", ");
+            m.escreverJson(destino);
+            destino.append('}');
+        }
+        destino.append(primeira ? "]\n" : "\n]\n");
+    }
+
+    /**
+     * Exporta todas as métricas para um ficheiro: em JSON se o nome terminar em {@code .json}, no formato
+     * de texto do Prometheus nos restantes casos.
+     *
+     * @param ficheiro Ficheiro de destino.
+     * @throws IOException Se não for possível escrever o ficheiro.
+     */
+    public void exportar(Path ficheiro) throws IOException {
+        try (Writer w = Files.newBufferedWriter(ficheiro, StandardCharsets.UTF_8)) {
+            if (ficheiro.getFileName().toString().endsWith(".json")) exportarJson(w);
+            else exportarPrometheus(w);
+        }
+    }
+
+    /**
+     * Devolve as métricas deste registo e do registo base, ordenadas pelo nome e, dentro de cada família, pelo
+     * valor da etiqueta.
+     *
+     * @return Métricas ordenadas.
+     */
+    private List<Metrica> ordenadas() {
+        List<Metrica> lista = new ArrayList<>(this.metricas.values());
+        if (this.base != null) lista.addAll(this.base.ordenadas());
+        lista.sort((a, b) -> {
+            int c = a.getNome().compareTo(b.getNome());
+            if (c != 0) return c;
+            return a.getChave().compareTo(b.getChave());
+        });
+        return lista;
+    }
+
+    /**
+     * Devolve a métrica com a chave de uma métrica nova, registando a nova se ainda não existir.
+     *
+     * @param nova        Métrica a registar.
+     * @param tipo        Classe esperada da métrica.
+     * @param existente   Função aplicada à métrica, se já existir.
+     * @param <M>         Tipo da métrica.
+     * @return Métrica registada.
+     * @throws IllegalArgumentException Se já existir uma métrica de outro tipo com a mesma chave ou o mesmo nome.
+     */
+    private <M extends Metrica> M obter(M nova, Class<M> tipo, Function<M, M> existente) {
+        Metrica atual = this.metricas.putIfAbsent(nova.getChave(), nova);
+        if (atual == null) {
+            for (Metrica m : this.metricas.values()) {
+                if (m.getNome().equals(nova.getNome()) && !m.getTipo().equals(nova.getTipo())) {
+                    this.metricas.remove(nova.getChave(), nova);
+                    throw new IllegalArgumentException("Já existe uma métrica " + nova.getNome() + " de outro tipo");
+                }
+            }
+            return nova;
+        }
+        if (!tipo.isInstance(atual)) {
+            throw new IllegalArgumentException("Já existe uma métrica " + nova.getChave() + " de outro tipo");
+        }
+        return existente.apply(tipo.cast(atual));
+    }
+}
@@ -0,0 +1,181 @@
+package Classes.Metricas;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latências, em nanossegundos, com intervalos log-lineares: cada potência de 2 é dividida em
+ * {@value #SUBINTERVALOS} intervalos iguais, pelo que os percentis estimados têm um erro relativo de no máximo
+ * 1/{@value #SUBINTERVALOS} (cerca de 6%), com memória fixa e sem bloqueios.
+ *
+ * É exportado como um {@code summary} do Prometheus, com os percentis 50, 99 e 99,9, a soma e a contagem
+ * (em segundos). Não regista nada se a instrumentação estiver desligada.
+ */
+public class Temporizador extends Metrica {
+
+    /**
+     * Número de intervalos em que cada potência de 2 é dividida.
+     */
+    public static final int SUBINTERVALOS = 16;
+
+    private static final int BITS = 4;
+    private static final int INTERVALOS = SUBINTERVALOS + (63 - BITS) * SUBINTERVALOS;
+    private static final double[] QUANTIS = {0.5, 0.99, 0.999};
+
+    private final AtomicLongArray contagens;
+    private final LongAdder soma;
+    private final LongAccumulator maximo;
+
+    /**
+     * Construtor com parâmetros.
+     *
+     * @param nome          Nome do temporizador (por convenção, terminado em {@code _segundos}).
+     * @param ajuda         Descrição do temporizador.
+     * @param etiqueta      Nome da etiqueta, ou null.
+     * @param valorEtiqueta Valor da etiqueta, ou null.
+     */
+    public Temporizador(String nome, String ajuda, String etiqueta, String valorEtiqueta) {
+        super(nome, ajuda, etiqueta, valorEtiqueta);
+        this.contagens = new AtomicLongArray(INTERVALOS);
+        this.soma = new LongAdder();
+        this.maximo = new LongAccumulator(Math::max, 0);
+    }
+
+    /**
+     * Regista uma duração.
+     *
+     * @param nanos Duração, em nanossegundos (os valores negativos contam como 0).
+     */
+    public void registar(long nanos) {
+        if (!Instrumentacao.ATIVA) return;
+        long valor = Math.max(0, nanos);
+        this.contagens.incrementAndGet(intervalo(valor));
+        this.soma.add(valor);
+        this.maximo.accumulate(valor);
+    }
+
+    /**
+     * Regista a duração desde um instante até agora.
+     *
+     * @param inicio Instante de início, devolvido por {@link Instrumentacao#inicio()}.
+     */
+    public void registarDesde(long inicio) {
+        if (Instrumentacao.ATIVA) registar(System.nanoTime() - inicio);
+    }
+
+    /**
+     * Devolve o número de durações registadas.
+     *
+     * @return Contagem.
+     */
+    public long getContagem() {
+        long total = 0;
+        for (int i = 0; i < INTERVALOS; i++) {
+            total += this.contagens.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Devolve a soma das durações registadas.
+     *
+     * @return Soma, em nanossegundos.
+     */
+    public long getSoma() {
+        return this.soma.sum();
+    }
+
+    /**
+     * Devolve a maior duração registada.
+     *
+     * @return Máximo, em nanossegundos (0 se não houver registos).
+     */
+    public long getMaximo() {
+        return this.maximo.get();
+    }
+
+    /**
+     * Estima um percentil das durações registadas: o ponto médio do intervalo onde cai.
+     *
+     * @param quantil Quantil, entre 0 e 1 (por exemplo 0.99).
+     * @return Duração estimada, em nanossegundos (0 se não houver registos).
+     * @throws IllegalArgumentException Se o quantil não estiver entre 0 e 1.
+     */
+    public long getPercentil(double quantil) {
+        if (!(quantil >= 0 && quantil <= 1)) throw new IllegalArgumentException("Quantil inválido: " + quantil);
+        long[] copia = new long[INTERVALOS];
+        long total = 0;
+        for (int i = 0; i < INTERVALOS; i++) {
+            copia[i] = this.contagens.get(i);
+            total += copia[i];
+        }
+        if (total == 0) return 0;
+        long posicao = Math.max(1, (long) Math.ceil(quantil * total));
+        long acumulado = 0;
+        for (int i = 0; i < INTERVALOS; i++) {
+            acumulado += copia[i];
+            if (acumulado >= posicao) return Math.min(pontoMedio(i), getMaximo());
+        }
+        return getMaximo();
+    }
+
+    @Override
+    public String getTipo() {
+        return "summary";
+    }
+
+    @Override
+    public void escreverPrometheus(Appendable destino) throws IOException {
+        for (double q : QUANTIS) {
+            destino.append(serie("", "quantile=\"" + q + "\"")).append(' ')
+                    .append(segundos(getPercentil(q))).append('\n');
+        }
+        destino.append(serie("_sum", null)).append(' ').append(segundos(getSoma())).append('\n');
+        destino.append(serie("_count", null)).append(' ').append(String.valueOf(getContagem())).append('\n');
+    }
+
+    @Override
+    public void escreverJson(Appendable destino) throws IOException {
+        destino.append("\"contagem\": ").append(String.valueOf(getContagem()))
+                .append(", \"soma_segundos\": ").append(segundos(getSoma()))
+                .append(", \"p50_segundos\": ").append(segundos(getPercentil(0.5)))
+                .append(", \"p99_segundos\": ").append(segundos(getPercentil(0.99)))
+                .append(", \"p999_segundos\": ").append(segundos(getPercentil(0.999)))
+                .append(", \"max_segundos\": ").append(segundos(getMaximo()));
+    }
+
+    /**
+     * Devolve o intervalo de uma duração: os valores abaixo de {@value #SUBINTERVALOS} têm um intervalo cada;
+     * os restantes são agrupados pela potência de 2 e pelos {@value #BITS} bits seguintes ao mais significativo.
+     *
+     * @param valor Duração, não negativa.
+     * @return Índice do intervalo.
+     */
+    static int intervalo(long valor) {
+        if (valor < SUBINTERVALOS) return (int) valor;
+        int expoente = 63 - Long.numberOfLeadingZeros(valor);
+        int sub = (int) (valor >>> (expoente - BITS)) - SUBINTERVALOS;
+        return SUBINTERVALOS + (expoente - BITS) * SUBINTERVALOS + sub;
+    }
+
+    /**
+     * Devolve o ponto médio de um intervalo.
+     *
+     * @param intervalo Índice do intervalo.
+     * @return Ponto médio, em nanossegundos.
+     */
+    static long pontoMedio(int intervalo) {
+        if (intervalo < SUBINTERVALOS) return intervalo;
+        int deslocamento = (intervalo - SUBINTERVALOS) / SUBINTERVALOS;
+        long sub = SUBINTERVALOS + (intervalo - SUBINTERVALOS) % SUBINTERVALOS;
+        long inferior = sub << deslocamento;
+        return inferior + ((1L << deslocamento) >>> 1);
+    }
+
+    private static String segundos(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+}
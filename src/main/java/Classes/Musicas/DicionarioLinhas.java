@@ -0,0 +1,85 @@
+package Classes.Musicas;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Dicionário global das linhas de letra e melodia das músicas.
+ *
+ * Cada linha distinta é guardada uma única vez e recebe um id (a sua posição no dicionário). As músicas guardam
+ * apenas os ids das suas linhas (ver {@link ListaLinhas}), pelo que refrões e notas repetidas, dentro da mesma
+ * música ou entre músicas diferentes, ocupam memória uma só vez.
+ *
+ * As linhas nunca são removidas: o dicionário só cresce, tal como o catálogo.
+ * Internar é sincronizado; obter a linha de um id já atribuído não bloqueia.
+ */
+public class DicionarioLinhas {
+
+    private static final DicionarioLinhas GLOBAL = new DicionarioLinhas();
+
+    private final HashMap<String, Integer> ids;
+    private String[] linhas;
+    private volatile int tamanho;
+
+    /**
+     * Construtor por omissão. Cria um dicionário vazio.
+     */
+    public DicionarioLinhas() {
+        this.ids = new HashMap<>();
+        this.linhas = new String[64];
+        this.tamanho = 0;
+    }
+
+    /**
+     * Devolve o dicionário partilhado por todas as músicas.
+     *
+     * @return Dicionário global.
+     */
+    public static DicionarioLinhas global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Devolve o id de uma linha, acrescentando-a ao dicionário se ainda não existir.
+     *
+     * @param linha Linha a internar (não pode ser null).
+     * @return Id da linha.
+     */
+    public synchronized int internar(String linha) {
+        Integer id = this.ids.get(linha);
+        if (id != null) return id;
+        int novo = this.tamanho;
+        if (novo == this.linhas.length) this.linhas = Arrays.copyOf(this.linhas, novo * 2);
+        this.linhas[novo] = linha;
+        this.ids.put(linha, novo);
+        this.tamanho = novo + 1;
+        return novo;
+    }
+
+    /**
+     * Devolve a linha com um dado id.
+     *
+     * @param id Id da linha.
+     * @return Texto da linha.
+     * @throws IndexOutOfBoundsException Se o id não existir.
+     */
+    public String linha(int id) {
+        if (id >= 0 && id < this.tamanho) {
+            String[] atuais = this.linhas;
+            if (id < atuais.length && atuais[id] != null) return atuais[id];
+        }
+        synchronized (this) {
+            if (id < 0 || id >= this.tamanho) throw new IndexOutOfBoundsException(id);
+            return this.linhas[id];
+        }
+    }
+
+    /**
+     * Devolve o número de linhas distintas do dicionário.
+     *
+     * @return Número de linhas.
+     */
+    public int tamanho() {
+        return this.tamanho;
+    }
+}
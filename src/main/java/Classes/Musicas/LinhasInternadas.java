@@ -0,0 +1,13 @@
+package Classes.Musicas;
+
+import java.util.List;
+
+/**
+ * Lista de linhas (letra ou melodia) que não pode ser alterada e cujas linhas já estão guardadas num dicionário,
+ * em vez de por extenso.
+ *
+ * Uma {@link Musica} guarda estas listas tal como as recebe; qualquer outra lista é primeiro convertida numa
+ * {@link ListaLinhas}.
+ */
+public interface LinhasInternadas extends List<String> {
+}
@@ -0,0 +1,66 @@
+package Classes.Musicas;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Letra ou melodia de uma música, guardada como os ids das suas linhas no {@link DicionarioLinhas} global.
+ *
+ * Cada linha ocupa apenas um int; o texto é obtido do dicionário quando a linha é lida.
+ * As linhas null são guardadas com o id -1. A lista não pode ser alterada.
+ */
+public class ListaLinhas extends AbstractList<String> implements LinhasInternadas, RandomAccess, Serializable {
+
+    private final int[] ids;
+
+    /**
+     * Cria uma lista a partir dos ids das linhas no dicionário global.
+     * O array passa a pertencer à lista e não deve ser alterado.
+     *
+     * @param ids Ids das linhas, pela ordem da lista (-1 para linhas null).
+     */
+    public ListaLinhas(int[] ids) {
+        this.ids = ids;
+    }
+
+    /**
+     * Devolve uma lista com as mesmas linhas, internadas no dicionário global.
+     * Listas que já estão internadas (e null) são devolvidas tal como estão.
+     *
+     * @param linhas Lista de linhas (pode ser null).
+     * @return Lista internada, ou null se a lista for null.
+     */
+    public static List<String> de(List<String> linhas) {
+        if (linhas == null || linhas instanceof LinhasInternadas) return linhas;
+        DicionarioLinhas dicionario = DicionarioLinhas.global();
+        int[] ids = new int[linhas.size()];
+        int i = 0;
+        for (String linha : linhas) {
+            ids[i++] = (linha == null) ? -1 : dicionario.internar(linha);
+        }
+        return new ListaLinhas(ids);
+    }
+
+    @Override
+    public String get(int indice) {
+        int id = this.ids[indice];
+        return (id < 0) ? null : DicionarioLinhas.global().linha(id);
+    }
+
+    @Override
+    public int size() {
+        return this.ids.length;
+    }
+
+    /**
+     * Ao serializar, a lista é substituída por uma cópia normal, já que os ids só são válidos neste processo.
+     *
+     * @return Cópia da lista.
+     */
+    private Object writeReplace() {
+        return new ArrayList<>(this);
+    }
+}
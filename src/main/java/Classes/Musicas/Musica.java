@@ -3,14 +3,19 @@ package Classes.Musicas;
 import Classes.Artista;
 import Classes.Genero;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Objects;
 
 /**
  * Representa uma música no sistema.
  * Contém informações como o nome, artista, editora, letra, melodia,
  * género, duração e número de reproduções.
+ * A letra e a melodia são guardadas como ids de linhas no {@link DicionarioLinhas} global (ver {@link ListaLinhas}).
  */
 public class Musica implements Serializable {
     private String nome;
@@ -30,8 +35,8 @@ public class Musica implements Serializable {
         this.nome = "";
         this.interprete = null;
         this.nomeEditora = "";
-        this.letra = new ArrayList<>();
-        this.musica = new ArrayList<>();
+        this.letra = ListaLinhas.de(new ArrayList<>());
+        this.musica = ListaLinhas.de(new ArrayList<>());
         this.genero = null;
         this.duracao = 0;
         this.numReproducoes = 0;
@@ -53,8 +58,8 @@ public class Musica implements Serializable {
         this.nome = nome;
         this.interprete = interprete;
         this.nomeEditora = nomeEditora;
-        this.letra = letra;
-        this.musica = musica;
+        this.letra = ListaLinhas.de(letra);
+        this.musica = ListaLinhas.de(musica);
         this.genero = genero;
         this.duracao = duracao;
         this.numReproducoes = numReproducoes;
@@ -104,6 +109,7 @@ public class Musica implements Serializable {
 
     /**
      * Retorna a letra da música, linha por linha.
+     * A lista não pode ser alterada; o texto de cada linha é obtido do dicionário quando é lido.
      *
      * @return Lista de linhas da letra.
      */
@@ -113,6 +119,7 @@ public class Musica implements Serializable {
 
     /**
      * Retorna a composição/melodia da música.
+     * A lista não pode ser alterada; o texto de cada linha é obtido do dicionário quando é lido.
      *
      * @return Lista de instruções musicais.
      */
@@ -175,21 +182,21 @@ public class Musica implements Serializable {
     }
 
     /**
-     * Define a letra da música.
+     * Define a letra da música. As linhas são internadas no dicionário global.
      *
      * @param letra Lista de linhas da letra.
      */
     public void setLetra(List<String> letra){
-        this.letra = letra;
+        this.letra = ListaLinhas.de(letra);
     }
 
     /**
-     * Define a melodia ou instruções musicais da música.
+     * Define a melodia ou instruções musicais da música. As linhas são internadas no dicionário global.
      *
      * @param musica Lista de instruções musicais.
      */
     public void setMusica(List<String> musica){
-        this.musica = musica;
+        this.musica = ListaLinhas.de(musica);
     }
 
     /**
@@ -248,6 +255,31 @@ public class Musica implements Serializable {
         && (this.getDuracao() == m.getDuracao())) && (this.getNumReproducoes() == m.getNumReproducoes());
     }
 
+    /**
+     * Verifica se outra música tem os mesmos dados que esta, ignorando o número de reproduções.
+     * Serve para reconhecer cópias de uma música do catálogo.
+     *
+     * @param outra Música a comparar.
+     * @return true se as músicas só diferirem (eventualmente) no número de reproduções.
+     */
+    public boolean mesmosDados(Musica outra) {
+        if (this == outra)
+            return true;
+        if (outra == null || this.getClass() != outra.getClass())
+            return false;
+
+        Artista a = this.interprete;
+        Artista b = outra.getInterprete();
+        boolean mesmoArtista = (a == null || b == null) ? a == b
+                : Objects.equals(a.getNome(), b.getNome()) && Objects.equals(a.getPais(), b.getPais());
+        return mesmoArtista && Objects.equals(this.nome, outra.getNome())
+                && Objects.equals(this.nomeEditora, outra.getNomeEditora())
+                && Objects.equals(this.letra, outra.getLetra())
+                && Objects.equals(this.musica, outra.getMusica())
+                && this.genero == outra.getGenero()
+                && this.duracao == outra.getDuracao();
+    }
+
     /**
      * Cria uma cópia da música.
      * @return Objeto Musica clonado.
@@ -263,15 +295,70 @@ public class Musica implements Serializable {
      * @return String formatada com a reprodução.
      */
     public String reproduzir() {
+        StringBuilder sb = new StringBuilder();
+        try {
+            reproduzir(sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Simula a reprodução da música, escrevendo-a diretamente num destino.
+     * Incrementa o número de reproduções e escreve a letra, sem construir nenhuma String intermédia.
+     *
+     * @param destino Destino onde a reprodução é escrita.
+     * @throws IOException Se ocorrer um erro ao escrever no destino.
+     */
+    public void reproduzir(Appendable destino) throws IOException {
+        contarReproducao();
+        escreverReproducao(destino);
+    }
+
+    /**
+     * Regista uma reprodução sem a escrever em lado nenhum (por exemplo, numa reprodução sem ecrã
+     * ou ao reaplicar o diário). Apenas incrementa o número de reproduções.
+     */
+    public void contarReproducao() {
         this.numReproducoes++;
+    }
 
-        StringBuilder sb = new StringBuilder();
-        sb.append(String.format("A reproduzir: %s - %s\n", this.nome, this.getInterprete().getNome()));
-        sb.append("Letra:\n");
+    /**
+     * Regista várias reproduções de uma vez, sem as escrever em lado nenhum.
+     * Equivale a chamar {@link #contarReproducao()} o número de vezes indicado.
+     *
+     * @param reproducoes Número de reproduções a somar.
+     */
+    public void contarReproducoes(int reproducoes) {
+        this.numReproducoes += reproducoes;
+    }
+
+    /**
+     * Escreve o texto de uma reprodução da música num destino, sem alterar o número de reproduções.
+     * As subclasses acrescentam o seu cabeçalho antes do texto da música.
+     *
+     * @param destino Destino onde a reprodução é escrita.
+     * @throws IOException Se ocorrer um erro ao escrever no destino.
+     */
+    public void escreverReproducao(Appendable destino) throws IOException {
+        destino.append("A reproduzir: ").append(this.nome).append(" - ").append(this.getInterprete().getNome()).append('\n');
+        destino.append("Letra:\n");
         for (String linha : this.letra) {
-            sb.append(linha).append("\n");
+            destino.append(linha).append('\n');
         }
+    }
 
-        return sb.toString();
+    /**
+     * Lê a música serializada, voltando a internar a letra e a melodia no dicionário global.
+     *
+     * @param in Stream de onde a música é lida.
+     * @throws IOException            Se ocorrer um erro de leitura.
+     * @throws ClassNotFoundException Se uma classe serializada não existir.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        this.letra = ListaLinhas.de(this.letra);
+        this.musica = ListaLinhas.de(this.musica);
     }
 }
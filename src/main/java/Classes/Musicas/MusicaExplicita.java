@@ -3,8 +3,10 @@ package Classes.Musicas;
 import Classes.Artista;
 import Classes.Genero;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Classe que representa uma música com conteúdo explícito.
@@ -119,6 +121,21 @@ public class MusicaExplicita extends Musica implements Serializable {
         return super.equals(me) && (this.motivoAviso.equals(me.getMotivoAviso())) && (this.idadeMinima == me.getIdadeMinima());
     }
 
+    /**
+     * Verifica se outra música tem os mesmos dados que esta, ignorando o número de reproduções.
+     *
+     * @param outra Música a comparar.
+     * @return true se as músicas só diferirem (eventualmente) no número de reproduções.
+     */
+    @Override
+    public boolean mesmosDados(Musica outra) {
+        if (!super.mesmosDados(outra))
+            return false;
+
+        MusicaExplicita me = (MusicaExplicita) outra;
+        return Objects.equals(this.motivoAviso, me.getMotivoAviso()) && this.idadeMinima == me.getIdadeMinima();
+    }
+
     /**
      * Cria uma cópia desta música explícita.
      *
@@ -129,12 +146,15 @@ public class MusicaExplicita extends Musica implements Serializable {
     }
 
     /**
-     * Simula a reprodução da música explicita.
-     * Incrementa o número de reproduções e imprime o aviso, idade mínima e letra.
-     * @return String formatada com a reprodução.
+     * Escreve a reprodução da música explicita: o aviso, a idade mínima e a letra.
+     *
+     * @param destino Destino onde a reprodução é escrita.
+     * @throws IOException Se ocorrer um erro ao escrever no destino.
      */
     @Override
-    public String reproduzir() {
-        return "Música Explicita - Aviso: " + this.motivoAviso + " - Idade Mínima: " + this.idadeMinima + "\n" + super.reproduzir();
+    public void escreverReproducao(Appendable destino) throws IOException {
+        destino.append("Música Explicita - Aviso: ").append(this.motivoAviso)
+                .append(" - Idade Mínima: ").append(String.valueOf(this.idadeMinima)).append('\n');
+        super.escreverReproducao(destino);
     }
 }
\ No newline at end of file
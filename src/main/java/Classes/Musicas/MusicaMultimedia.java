@@ -3,8 +3,10 @@ package Classes.Musicas;
 import Classes.Artista;
 import Classes.Genero;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Classe que representa uma música com conteúdo multimédia (vídeo).
@@ -122,6 +124,21 @@ public class MusicaMultimedia extends Musica implements Serializable {
                 this.formato.equals(mm.getFormato());
     }
 
+    /**
+     * Verifica se outra música tem os mesmos dados que esta, ignorando o número de reproduções.
+     *
+     * @param outra Música a comparar.
+     * @return true se as músicas só diferirem (eventualmente) no número de reproduções.
+     */
+    @Override
+    public boolean mesmosDados(Musica outra) {
+        if (!super.mesmosDados(outra))
+            return false;
+
+        MusicaMultimedia mm = (MusicaMultimedia) outra;
+        return Objects.equals(this.nomeVideo, mm.getNomeVideo()) && Objects.equals(this.formato, mm.getFormato());
+    }
+
     /**
      * Cria uma cópia desta instância de {@code MusicaMultimedia}.
      *
@@ -132,12 +149,14 @@ public class MusicaMultimedia extends Musica implements Serializable {
     }
 
     /**
-     * Simula a reprodução da música multimédia.
-     * Incrementa o número de reproduções e imprime o nome do vídeo e a letra.
-     * @return String formatada com a reprodução.
+     * Escreve a reprodução da música multimédia: o nome do vídeo e a letra.
+     *
+     * @param destino Destino onde a reprodução é escrita.
+     * @throws IOException Se ocorrer um erro ao escrever no destino.
      */
     @Override
-    public String reproduzir() {
-        return "Música Multimédia - Vídeo: " + this.nomeVideo + "\n" + super.reproduzir();
+    public void escreverReproducao(Appendable destino) throws IOException {
+        destino.append("Música Multimédia - Vídeo: ").append(this.nomeVideo).append('\n');
+        super.escreverReproducao(destino);
     }
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package Classes.Persistencia;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Função aplicada a cada operação lida do diário durante a recuperação.
+ */
+@FunctionalInterface
+public interface AplicadorOperacao {
+
+    /**
+     * Aplica uma operação.
+     *
+     * @param numero   Número da operação.
+     * @param operacao Conteúdo da operação.
+     * @throws IOException Se a operação não puder ser lida.
+     */
+    void aplicar(long numero, ByteBuffer operacao) throws IOException;
+}
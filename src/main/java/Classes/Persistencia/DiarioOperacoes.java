@@ -0,0 +1,354 @@
+package Classes.Persistencia;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Diário (write-ahead log) das operações que alteram o estado do SpotifUM.
+ *
+ * Cada operação recebe um número de sequência crescente e é acrescentada ao segmento atual do diário.
+ * A escrita em disco é feita por uma thread própria que agrupa todas as operações pendentes numa só escrita
+ * seguida de um único {@code force} (group commit): quem regista uma operação fica à espera até que ela
+ * esteja em disco, mas várias operações registadas ao mesmo tempo partilham o mesmo {@code force}.
+ *
+ * Os segmentos são ficheiros {@code <base>.000001}, {@code <base>.000002}, ... Em cada checkpoint começa-se
+ * um segmento novo ({@link #rodarSegmento()}); depois de o snapshot estar gravado, os segmentos anteriores
+ * deixam de ser necessários ({@link #apagarSegmentosAnteriores(int)}).
+ *
+ * Cada registo tem o formato: tamanho (int), número da operação (long), CRC32 (int) e conteúdo.
+ * Um registo incompleto ou com CRC errado no fim de um segmento (por exemplo, depois de uma falha a meio
+ * de uma escrita) é ignorado na recuperação, tal como tudo o que vier depois dele nesse segmento.
+ */
+public class DiarioOperacoes implements Closeable {
+
+    private static final int CABECALHO_REGISTO = 4 + 8 + 4;
+
+    private final Path base;
+    private FileChannel canal;
+    private int segmento;
+
+    private ArrayList<byte[]> pendentes;
+    private long proximaOperacao;
+    private long operacoesDuraveis;
+    private boolean fechado;
+    private IOException erro;
+
+    private final Thread escritor;
+
+    /**
+     * Abre o diário, começando um segmento novo a seguir aos existentes.
+     *
+     * @param base            Caminho base dos segmentos.
+     * @param ultimaOperacao  Número da última operação já registada (as novas começam no seguinte).
+     * @throws IOException Se não for possível criar o segmento.
+     */
+    public DiarioOperacoes(Path base, long ultimaOperacao) throws IOException {
+        this.base = base;
+        this.segmento = segmentos(base).isEmpty() ? 1 : segmentos(base).lastKey() + 1;
+        this.canal = abrirSegmento(this.segmento);
+        this.pendentes = new ArrayList<>();
+        this.proximaOperacao = ultimaOperacao + 1;
+        this.operacoesDuraveis = ultimaOperacao;
+        this.fechado = false;
+        this.erro = null;
+
+        this.escritor = new Thread(this::escrever, "diario-operacoes");
+        this.escritor.setDaemon(true);
+        this.escritor.start();
+    }
+
+    /**
+     * Regista uma operação e espera até que esteja escrita em disco.
+     *
+     * @param operacao Conteúdo da operação.
+     * @return Número atribuído à operação.
+     * @throws IOException Se o diário estiver fechado ou a escrita falhar.
+     */
+    public synchronized long registar(byte[] operacao) throws IOException {
+        verificarEstado();
+        long numero = this.proximaOperacao++;
+        this.pendentes.add(operacao);
+        notifyAll();
+        esperar(numero);
+        return numero;
+    }
+
+    /**
+     * Regista várias operações seguidas e espera até que estejam todas escritas em disco.
+     *
+     * @param operacoes Conteúdo das operações.
+     * @return Número atribuído à última operação.
+     * @throws IOException Se o diário estiver fechado ou a escrita falhar.
+     */
+    public synchronized long registarLote(List<byte[]> operacoes) throws IOException {
+        verificarEstado();
+        this.pendentes.addAll(operacoes);
+        this.proximaOperacao += operacoes.size();
+        notifyAll();
+        long ultima = this.proximaOperacao - 1;
+        esperar(ultima);
+        return ultima;
+    }
+
+    /**
+     * Espera até que todas as operações até um dado número estejam escritas em disco.
+     *
+     * @param numero Número da operação.
+     * @throws IOException Se a escrita falhar.
+     */
+    private synchronized void esperar(long numero) throws IOException {
+        boolean interrompido = false;
+        while (this.operacoesDuraveis < numero && this.erro == null) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrompido = true;
+            }
+        }
+        if (interrompido) Thread.currentThread().interrupt();
+        if (this.erro != null) throw new IOException("Falha na escrita do diário", this.erro);
+    }
+
+    /**
+     * Termina o segmento atual e começa um novo. Todas as operações registadas até aqui ficam em segmentos anteriores.
+     *
+     * @return Número do novo segmento.
+     * @throws IOException Se não for possível criar o segmento.
+     */
+    public synchronized int rodarSegmento() throws IOException {
+        verificarEstado();
+        do {
+            esperar(this.proximaOperacao - 1);
+        } while (this.operacoesDuraveis < this.proximaOperacao - 1);
+        this.canal.close();
+        this.segmento++;
+        this.canal = abrirSegmento(this.segmento);
+        return this.segmento;
+    }
+
+    /**
+     * Devolve o número da última operação registada.
+     *
+     * @return Número da última operação.
+     */
+    public synchronized long getUltimaOperacao() {
+        return this.proximaOperacao - 1;
+    }
+
+    /**
+     * Apaga os segmentos anteriores a um dado segmento.
+     *
+     * @param segmento Primeiro segmento a manter.
+     * @throws IOException Se não for possível apagar algum segmento.
+     */
+    public void apagarSegmentosAnteriores(int segmento) throws IOException {
+        for (Path ficheiro : segmentos(this.base).headMap(segmento).values()) {
+            Files.deleteIfExists(ficheiro);
+        }
+    }
+
+    /**
+     * Escreve as operações pendentes em lotes, até o diário ser fechado.
+     */
+    private void escrever() {
+        while (true) {
+            List<byte[]> lote;
+            long primeira;
+            FileChannel destino;
+            synchronized (this) {
+                while (this.pendentes.isEmpty() && !this.fechado) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        // continua até o diário ser fechado
+                    }
+                }
+                if (this.pendentes.isEmpty()) return;
+                lote = this.pendentes;
+                this.pendentes = new ArrayList<>();
+                primeira = this.proximaOperacao - lote.size();
+                destino = this.canal;
+            }
+
+            try {
+                escreverLote(destino, lote, primeira);
+            } catch (IOException e) {
+                synchronized (this) {
+                    this.erro = e;
+                    notifyAll();
+                }
+                return;
+            }
+
+            synchronized (this) {
+                this.operacoesDuraveis = primeira + lote.size() - 1;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Escreve um lote de operações numa só escrita, seguida de um único force.
+     *
+     * @param destino  Canal do segmento.
+     * @param lote     Operações a escrever.
+     * @param primeira Número da primeira operação do lote.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    private static void escreverLote(FileChannel destino, List<byte[]> lote, long primeira) throws IOException {
+        int tamanho = 0;
+        for (byte[] operacao : lote) {
+            tamanho += CABECALHO_REGISTO + operacao.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(tamanho);
+        long numero = primeira;
+        for (byte[] operacao : lote) {
+            buffer.putInt(operacao.length);
+            buffer.putLong(numero);
+            buffer.putInt(crc(numero, operacao));
+            buffer.put(operacao);
+            numero++;
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            destino.write(buffer);
+        }
+        destino.force(false);
+    }
+
+    /**
+     * Lê todas as operações do diário com número superior a um dado valor, pela ordem em que foram registadas.
+     *
+     * @param base       Caminho base dos segmentos.
+     * @param aPartirDe  Número da última operação já refletida no estado (as anteriores são ignoradas).
+     * @param aplicador  Função aplicada a cada operação.
+     * @return Número da última operação lida (ou {@code aPartirDe}, se não houver nenhuma posterior).
+     * @throws IOException Se não for possível ler um segmento, ou o aplicador falhar.
+     */
+    public static long reproduzir(Path base, long aPartirDe, AplicadorOperacao aplicador) throws IOException {
+        long ultima = aPartirDe;
+        for (Path ficheiro : segmentos(base).values()) {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(ficheiro));
+            while (buffer.remaining() >= CABECALHO_REGISTO) {
+                int tamanho = buffer.getInt();
+                long numero = buffer.getLong();
+                int crc = buffer.getInt();
+                if (tamanho < 0 || tamanho > buffer.remaining()) break;
+
+                byte[] operacao = new byte[tamanho];
+                buffer.get(operacao);
+                if (crc(numero, operacao) != crc) break;
+
+                if (numero > ultima) {
+                    aplicador.aplicar(numero, ByteBuffer.wrap(operacao).asReadOnlyBuffer());
+                    ultima = numero;
+                }
+            }
+        }
+        return ultima;
+    }
+
+    /**
+     * Espera que as operações pendentes sejam escritas e fecha o diário.
+     *
+     * @throws IOException Se a escrita das operações pendentes falhar.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (this.fechado) return;
+            this.fechado = true;
+            notifyAll();
+        }
+        try {
+            this.escritor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            this.canal.close();
+            if (this.erro != null) throw new IOException("Falha na escrita do diário", this.erro);
+        }
+    }
+
+    /**
+     * Verifica que o diário pode receber operações.
+     *
+     * @throws IOException Se o diário estiver fechado ou tiver falhado.
+     */
+    private void verificarEstado() throws IOException {
+        if (this.fechado) throw new IOException("Diário fechado");
+        if (this.erro != null) throw new IOException("Falha na escrita do diário", this.erro);
+    }
+
+    /**
+     * Cria o ficheiro de um segmento.
+     *
+     * @param segmento Número do segmento.
+     * @return Canal para escrita no segmento.
+     * @throws IOException Se não for possível criar o ficheiro.
+     */
+    private FileChannel abrirSegmento(int segmento) throws IOException {
+        return FileChannel.open(ficheiroSegmento(this.base, segmento), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Devolve o caminho de um segmento.
+     *
+     * @param base     Caminho base dos segmentos.
+     * @param segmento Número do segmento.
+     * @return Caminho do segmento.
+     */
+    private static Path ficheiroSegmento(Path base, int segmento) {
+        return base.resolveSibling(String.format("%s.%06d", base.getFileName(), segmento));
+    }
+
+    /**
+     * Devolve os segmentos existentes, indexados pelo seu número.
+     *
+     * @param base Caminho base dos segmentos.
+     * @return Mapa ordenado número do segmento para caminho.
+     * @throws IOException Se não for possível listar a diretoria.
+     */
+    private static TreeMap<Integer, Path> segmentos(Path base) throws IOException {
+        TreeMap<Integer, Path> segmentos = new TreeMap<>();
+        Path diretoria = base.toAbsolutePath().getParent();
+        if (!Files.isDirectory(diretoria)) return segmentos;
+
+        String prefixo = base.getFileName() + ".";
+        try (Stream<Path> ficheiros = Files.list(diretoria)) {
+            ficheiros.forEach(ficheiro -> {
+                String nome = ficheiro.getFileName().toString();
+                String sufixo = nome.substring(Math.min(prefixo.length(), nome.length()));
+                if (nome.startsWith(prefixo) && sufixo.matches("\\d{6,9}")) {
+                    segmentos.put(Integer.parseInt(sufixo), base.resolveSibling(nome));
+                }
+            });
+        }
+        return segmentos;
+    }
+
+    /**
+     * Calcula o CRC32 de um registo (número da operação e conteúdo).
+     *
+     * @param numero   Número da operação.
+     * @param operacao Conteúdo da operação.
+     * @return CRC32 do registo.
+     */
+    private static int crc(long numero, byte[] operacao) {
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(8).putLong(0, numero));
+        crc.update(operacao);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,104 @@
+package Classes.Persistencia;
+
+import Classes.Musicas.DicionarioLinhas;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Dicionário de linhas de um segmento do catálogo, mapeado em memória.
+ *
+ * Cada linha distinta da letra e da melodia das músicas do segmento é guardada uma única vez, no fim do segmento;
+ * as entradas de cada música guardam apenas os ids das suas linhas. Ao abrir o segmento só são lidas as posições
+ * das linhas. O texto de uma linha é descodificado na primeira vez que é pedido e internado no
+ * {@link DicionarioLinhas} global, ficando guardado o id global correspondente.
+ *
+ * Formato: número de linhas e, para cada linha, o tamanho em bytes seguido do texto em UTF-8,
+ * com os inteiros em comprimento variável.
+ */
+class DicionarioSegmento {
+
+    private final ByteBuffer dados;
+    private final int[] inicios;
+    private final int[] tamanhos;
+    private final int[] idsGlobais;
+
+    /**
+     * Abre o dicionário de um segmento, lendo as posições das linhas.
+     *
+     * @param dados Bytes do dicionário (só o dicionário, de posição 0 até ao limite).
+     * @throws IOException Se o dicionário estiver truncado ou corrompido.
+     */
+    DicionarioSegmento(ByteBuffer dados) throws IOException {
+        this.dados = dados;
+        ByteBuffer leitura = dados.duplicate();
+        int numero = ListaTextoMapeada.lerNatural(leitura);
+        if (numero > leitura.remaining()) throw new EOFException("Dicionário do segmento truncado");
+        this.inicios = new int[numero];
+        this.tamanhos = new int[numero];
+        for (int i = 0; i < numero; i++) {
+            int tamanho = ListaTextoMapeada.lerNatural(leitura);
+            if (tamanho > leitura.remaining()) throw new EOFException("Dicionário do segmento truncado");
+            this.inicios[i] = leitura.position();
+            this.tamanhos[i] = tamanho;
+            leitura.position(leitura.position() + tamanho);
+        }
+        if (leitura.hasRemaining()) {
+            throw new IOException("Dicionário do segmento com " + leitura.remaining() + " bytes inesperados no fim");
+        }
+        this.idsGlobais = new int[numero];
+    }
+
+    /**
+     * Devolve o número de linhas do dicionário.
+     *
+     * @return Número de linhas.
+     */
+    int tamanho() {
+        return this.inicios.length;
+    }
+
+    /**
+     * Devolve os bytes (UTF-8) de uma linha, sem os descodificar.
+     *
+     * @param id Id da linha no segmento.
+     * @return Vista só de leitura sobre os bytes da linha.
+     * @throws IOException Se o id não existir no segmento.
+     */
+    ByteBuffer getBytes(int id) throws IOException {
+        validar(id);
+        return this.dados.slice(this.inicios[id], this.tamanhos[id]).asReadOnlyBuffer();
+    }
+
+    /**
+     * Devolve o id no dicionário global de uma linha do segmento, descodificando-a e internando-a no primeiro pedido.
+     *
+     * @param id Id da linha no segmento.
+     * @return Id da linha no {@link DicionarioLinhas} global.
+     * @throws IOException Se o id não existir no segmento.
+     */
+    int getIdGlobal(int id) throws IOException {
+        validar(id);
+        int global = this.idsGlobais[id];
+        if (global == 0) {
+            byte[] bytes = new byte[this.tamanhos[id]];
+            this.dados.get(this.inicios[id], bytes);
+            global = DicionarioLinhas.global().internar(new String(bytes, StandardCharsets.UTF_8)) + 1;
+            // várias threads podem internar a mesma linha: obtêm todas o mesmo id
+            this.idsGlobais[id] = global;
+        }
+        return global - 1;
+    }
+
+    /**
+     * Verifica se um id existe no segmento.
+     *
+     * @param id Id a verificar.
+     * @throws IOException Se o id não existir.
+     */
+    private void validar(int id) throws IOException {
+        if (id < 0 || id >= this.inicios.length) throw new IOException("Linha inexistente no segmento do catálogo: " + id);
+    }
+}
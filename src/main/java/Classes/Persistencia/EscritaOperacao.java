@@ -0,0 +1,18 @@
+package Classes.Persistencia;
+
+import java.io.IOException;
+
+/**
+ * Função que escreve o conteúdo de uma operação a registar no diário.
+ */
+@FunctionalInterface
+public interface EscritaOperacao {
+
+    /**
+     * Escreve o conteúdo da operação.
+     *
+     * @param out Escritor da operação.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    void escrever(EscritorSnapshot out) throws IOException;
+}
@@ -0,0 +1,982 @@
+package Classes.Persistencia;
+
+import Classes.Album;
+import Classes.Artista;
+import Classes.Historico.RegistoReproducoes;
+import Classes.Indices.IndiceCatalogo;
+import Classes.Indices.IndicePesquisa;
+import Classes.Indices.ListaOcorrencias;
+import Classes.Musicas.Musica;
+import Classes.Musicas.MusicaExplicita;
+import Classes.Musicas.MusicaMultimedia;
+import Classes.Planos.PlanoFree;
+import Classes.Planos.PlanoPremiumBase;
+import Classes.Planos.PlanoPremiumTop;
+import Classes.Planos.PlanoSubscricao;
+import Classes.Playlists.Playlist;
+import Classes.Playlists.PlaylistConstruida;
+import Classes.Playlists.PlaylistFavoritos;
+import Classes.Playlists.PlaylistGenero;
+import Classes.Utilizador;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Escritor do formato binário de snapshot do SpotifUM.
+ *
+ * O ficheiro começa pela assinatura {@link #MAGIA} e pela {@link #VERSAO} do formato. Os inteiros são
+ * escritos em comprimento variável. Textos e artistas são internados: a primeira ocorrência é escrita
+ * por extenso e as seguintes apenas pelo seu id. Utilizadores, músicas do catálogo, álbuns e playlists
+ * são escritos uma única vez e referenciados por id, pelo que o tamanho do ficheiro depende do número
+ * de entidades distintas e não do número de referências.
+ *
+ * O cabeçalho guarda ainda o número da última operação do diário incluída no snapshot
+ * (ver {@link DiarioOperacoes}), a partir da qual o diário é reaplicado na recuperação.
+ *
+ * A letra e a melodia das músicas, que são a maior parte dos dados do catálogo, não ficam no snapshot mas num
+ * segmento à parte ({@code <snapshot>.musicas.<geração>}), com uma geração nova em cada gravação. O leitor mapeia
+ * o segmento em memória e só descodifica a letra e a melodia de uma música quando são usadas
+ * (ver {@link ListaTextoMapeada}). Como cada gravação cria um segmento novo, o segmento ainda mapeado pelo
+ * estado em memória nunca é reescrito. Cada linha distinta é escrita uma única vez, no dicionário do segmento
+ * (ver {@link DicionarioSegmento}), e as entradas das músicas guardam apenas os ids das linhas. O segmento termina
+ * com a posição onde começa o dicionário, num int de tamanho fixo.
+ *
+ * O snapshot termina com o índice de pesquisa de texto livre (ver {@link IndicePesquisa}), para que a leitura
+ * não tenha de descodificar as letras de todas as músicas para o reconstruir.
+ *
+ * A escrita é feita para um ficheiro temporário através de um {@link FileChannel}; só ao fechar
+ * o escritor é que o ficheiro final é substituído. O escritor também pode escrever para memória,
+ * o que é usado para capturar checkpoints e para codificar as operações do diário.
+ */
+public class EscritorSnapshot implements Closeable {
+
+    /**
+     * Assinatura do formato ("SPUM").
+     */
+    public static final int MAGIA = 0x5350554D;
+
+    /**
+     * Versão atual do formato.
+     */
+    public static final int VERSAO = 5;
+
+    static final int TIPO_MUSICA = 0;
+    static final int TIPO_MUSICA_EXPLICITA = 1;
+    static final int TIPO_MUSICA_MULTIMEDIA = 2;
+
+    static final int TIPO_PLAYLIST_ALEATORIA = 0;
+    static final int TIPO_PLAYLIST_CONSTRUIDA = 1;
+    static final int TIPO_PLAYLIST_FAVORITOS = 2;
+    static final int TIPO_PLAYLIST_GENERO = 3;
+
+    static final int REF_NULA = 0;
+    static final int REF_NOVA = 1;
+
+    static final int MUSICA_NULA = 0;
+    static final int MUSICA_CATALOGO = 1;
+    static final int MUSICA_COPIA = 2;
+    static final int MUSICA_INLINE = 3;
+
+    private static final int TAMANHO_BUFFER = 1 << 16;
+
+    private static final AtomicLong ULTIMA_GERACAO = new AtomicLong();
+
+    private final Path destino;
+    private final Path temporario;
+    private final FileChannel canal;
+    private ByteBuffer buffer;
+
+    private ByteBuffer conteudos;
+    private long geracao;
+    private ByteBuffer linhas;
+    private int numeroLinhas;
+    private final HashMap<ByteBuffer, Integer> idsLinhas;
+    private final HashMap<String, Integer> idsLinhasPorTexto;
+    private final IdentityHashMap<DicionarioSegmento, int[]> traducoesLinhas;
+
+    private final HashMap<String, Integer> textos;
+    private final HashMap<String, Integer> artistas;
+
+    private List<Musica> catalogo;
+    private final IdentityHashMap<Musica, Integer> idsMusicas;
+    private final HashMap<String, Integer> idsMusicasPorNome;
+    private IndiceCatalogo indiceCatalogo;
+
+    private final List<Utilizador> utilizadores;
+    private final IdentityHashMap<Utilizador, Integer> idsUtilizadores;
+    private final HashMap<String, Integer> idsUtilizadoresPorEmail;
+    private boolean utilizadoresPorEmail;
+
+    /**
+     * Cria um escritor para um ficheiro, escrevendo o cabeçalho do formato.
+     *
+     * @param destino Caminho do ficheiro a escrever.
+     * @throws IOException Se não for possível criar o ficheiro.
+     */
+    public EscritorSnapshot(Path destino) throws IOException {
+        this(destino, 0);
+    }
+
+    /**
+     * Cria um escritor para um ficheiro, escrevendo o cabeçalho do formato.
+     *
+     * @param destino         Caminho do ficheiro a escrever.
+     * @param ultimaOperacao  Número da última operação do diário refletida no estado escrito.
+     * @throws IOException Se não for possível criar o ficheiro.
+     */
+    public EscritorSnapshot(Path destino, long ultimaOperacao) throws IOException {
+        this(destino, FileChannel.open(temporario(destino), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE), ByteBuffer.allocateDirect(TAMANHO_BUFFER));
+        escreverCabecalho(ultimaOperacao);
+    }
+
+    /**
+     * Cria um escritor em memória, escrevendo o cabeçalho do formato.
+     * O conteúdo pode depois ser gravado com {@link #gravar(Path)}.
+     *
+     * @param ultimaOperacao Número da última operação do diário refletida no estado escrito.
+     */
+    public EscritorSnapshot(long ultimaOperacao) {
+        this();
+        escreverCabecalho(ultimaOperacao);
+    }
+
+    /**
+     * Cria um escritor em memória, sem cabeçalho, para codificar um registo isolado (por exemplo, uma operação do diário).
+     */
+    public EscritorSnapshot() {
+        this(null, null, ByteBuffer.allocate(256));
+    }
+
+    /**
+     * Inicializa o escritor.
+     *
+     * @param destino Caminho do ficheiro a escrever, ou null para escrever em memória.
+     * @param canal   Canal do ficheiro temporário, ou null para escrever em memória.
+     * @param buffer  Buffer de escrita.
+     */
+    private EscritorSnapshot(Path destino, FileChannel canal, ByteBuffer buffer) {
+        this.destino = destino;
+        this.temporario = (destino == null) ? null : temporario(destino);
+        this.canal = canal;
+        this.buffer = buffer;
+        this.conteudos = null;
+        this.geracao = 0;
+        this.linhas = null;
+        this.numeroLinhas = 0;
+        this.idsLinhas = new HashMap<>();
+        this.idsLinhasPorTexto = new HashMap<>();
+        this.traducoesLinhas = new IdentityHashMap<>();
+
+        this.textos = new HashMap<>();
+        this.artistas = new HashMap<>();
+        this.catalogo = new ArrayList<>();
+        this.idsMusicas = new IdentityHashMap<>();
+        this.idsMusicasPorNome = new HashMap<>();
+        this.indiceCatalogo = null;
+        this.utilizadores = new ArrayList<>();
+        this.idsUtilizadores = new IdentityHashMap<>();
+        this.idsUtilizadoresPorEmail = new HashMap<>();
+        this.utilizadoresPorEmail = false;
+    }
+
+    /**
+     * Escreve o cabeçalho do formato e passa a escrever a letra e a melodia das músicas num segmento à parte.
+     *
+     * @param ultimaOperacao Número da última operação do diário refletida no estado escrito.
+     */
+    private void escreverCabecalho(long ultimaOperacao) {
+        this.geracao = ULTIMA_GERACAO.updateAndGet(anterior -> Math.max(anterior + 1, System.currentTimeMillis()));
+        this.conteudos = ByteBuffer.allocate(TAMANHO_BUFFER);
+        this.linhas = ByteBuffer.allocate(TAMANHO_BUFFER);
+        this.buffer.putInt(MAGIA);
+        this.buffer.putInt(VERSAO);
+        this.buffer.putLong(ultimaOperacao);
+        this.buffer.putLong(this.geracao);
+    }
+
+    /**
+     * Faz com que as músicas passem a ser escritas por referência a um catálogo já existente,
+     * sem o escrever. O leitor tem de usar o mesmo catálogo ({@link LeitorSnapshot#usarCatalogo(List)}).
+     *
+     * @param catalogo Lista de músicas do catálogo.
+     * @param indice   Índice do catálogo, usado para encontrar as músicas pelo nome.
+     */
+    public void usarCatalogo(List<Musica> catalogo, IndiceCatalogo indice) {
+        this.catalogo = catalogo;
+        this.indiceCatalogo = indice;
+    }
+
+    /**
+     * Faz com que os utilizadores passem a ser referenciados pelo email, em vez de pelo id atribuído
+     * em {@link #escreverUtilizadores(Map)}.
+     */
+    public void usarUtilizadoresPorEmail() {
+        this.utilizadoresPorEmail = true;
+    }
+
+    // ---------------------------------------------------------------- valores simples
+
+    /**
+     * Escreve um inteiro não negativo em comprimento variável (7 bits por byte).
+     *
+     * @param valor Valor a escrever.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public void escreverNatural(long valor) throws IOException {
+        garantir(10);
+        while ((valor & ~0x7FL) != 0) {
+            this.buffer.put((byte) ((valor & 0x7F) | 0x80));
+            valor >>>= 7;
+        }
+        this.buffer.put((byte) valor);
+    }
+
+    /**
+     * Escreve um inteiro com sinal em comprimento variável (codificação zig-zag).
+     *
+     * @param valor Valor a escrever.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public void escreverInteiro(long valor) throws IOException {
+        escreverNatural((valor << 1) ^ (valor >> 63));
+    }
+
+    /**
+     * Escreve um valor lógico.
+     *
+     * @param valor Valor a escrever.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public void escreverBooleano(boolean valor) throws IOException {
+        garantir(1);
+        this.buffer.put((byte) (valor ? 1 : 0));
+    }
+
+    /**
+     * Escreve um texto internado (pode ser null).
+     *
+     * @param texto Texto a escrever.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public void escreverTexto(String texto) throws IOException {
+        if (texto == null) {
+            escreverNatural(REF_NULA);
+            return;
+        }
+        Integer id = this.textos.get(texto);
+        if (id != null) {
+            escreverNatural(id + 2);
+            return;
+        }
+        this.textos.put(texto, this.textos.size());
+        escreverNatural(REF_NOVA);
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        escreverNatural(bytes.length);
+        escreverBytes(bytes);
+    }
+
+    /**
+     * Escreve uma lista de textos (pode ser null).
+     *
+     * @param lista Lista a escrever.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public void escreverListaTexto(List<String> lista) throws IOException {
+        if (lista == null) {
+            escreverNatural(0);
+            return;
+        }
+        escreverNatural(lista.size() + 1);
+        for (String texto : lista) {
+            escreverTexto(texto);
+        }
+    }
+
+    /**
+     * Escreve uma data (pode ser null).
+     *
+     * @param data Data a escrever.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public void escreverData(LocalDate data) throws IOException {
+        escreverBooleano(data != null);
+        if (data != null) escreverInteiro(data.toEpochDay());
+    }
+
+    /**
+     * Escreve um valor de enumeração (pode ser null).
+     *
+     * @param valor Valor a escrever.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public void escreverEnum(Enum<?> valor) throws IOException {
+        escreverNatural((valor == null) ? 0 : valor.ordinal() + 1);
+    }
+
+    // ---------------------------------------------------------------- entidades
+
+    /**
+     * Escreve uma referência a um artista; artistas com o mesmo nome e país são escritos uma única vez.
+     *
+     * @param artista Artista (pode ser null).
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public void escreverArtista(Artista artista) throws IOException {
+        if (artista == null) {
+            escreverNatural(REF_NULA);
+            return;
+        }
+        String chave = artista.getNome() + '\0' + artista.getPais();
+        Integer id = this.artistas.get(chave);
+        if (id != null) {
+            escreverNatural(id + 2);
+            return;
+        }
+        this.artistas.put(chave, this.artistas.size());
+        escreverNatural(REF_NOVA);
+        escreverTexto(artista.getNome());
+        escreverTexto(artista.getPais());
+    }
+
+    /**
+     * Escreve o mapa de artistas do sistema.
+     *
+     * @param artistas Mapa de artistas, indexados pelo nome.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public void escreverArtistas(Map<String, Artista> artistas) throws IOException {
+        escreverNatural(artistas.size());
+        for (Map.Entry<String, Artista> e : artistas.entrySet()) {
+            escreverTexto(e.getKey());
+            escreverArtista(e.getValue());
+        }
+    }
+
+    /**
+     * Escreve o catálogo de músicas, que passa a poder ser referenciado por id.
+     *
+     * @param catalogo Lista de músicas do catálogo.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public void escreverCatalogo(List<Musica> catalogo) throws IOException {
+        this.catalogo = catalogo;
+        escreverNatural(catalogo.size());
+        for (int id = 0; id < catalogo.size(); id++) {
+            Musica musica = catalogo.get(id);
+            this.idsMusicas.put(musica, id);
+            this.idsMusicasPorNome.putIfAbsent(musica.getNome(), id);
+            escreverDadosMusica(musica);
+        }
+    }
+
+    /**
+     * Escreve uma referência a uma música.
+     * Se for a própria música do catálogo, é escrito apenas o seu id; se for uma cópia de uma música
+     * do catálogo, é escrito o id e o número de reproduções da cópia; caso contrário a música é escrita por extenso.
+     *
+     * @param musica Música (pode ser null).
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public void escreverMusica(Musica musica) throws IOException {
+        if (musica == null) {
+            escreverNatural(MUSICA_NULA);
+            return;
+        }
+        Integer id = this.idsMusicas.get(musica);
+        if (id == null && this.indiceCatalogo != null) {
+            id = this.indiceCatalogo.getId(musica.getNome());
+            if (id < 0) id = null;
+        } else if (id == null) {
+            id = this.idsMusicasPorNome.get(musica.getNome());
+        }
+        if (id != null && this.catalogo.get(id) == musica) {
+            escreverNatural(MUSICA_CATALOGO);
+            escreverNatural(id);
+            return;
+        }
+        if (id != null && this.catalogo.get(id).mesmosDados(musica)) {
+            escreverNatural(MUSICA_COPIA);
+            escreverNatural(id);
+            escreverInteiro(musica.getNumReproducoes());
+            return;
+        }
+        escreverNatural(MUSICA_INLINE);
+        escreverDadosMusica(musica);
+    }
+
+    /**
+     * Escreve uma lista de referências a músicas.
+     *
+     * @param musicas Lista de músicas.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    private void escreverMusicas(List<Musica> musicas) throws IOException {
+        escreverNatural(musicas.size());
+        for (Musica musica : musicas) {
+            escreverMusica(musica);
+        }
+    }
+
+    /**
+     * Escreve todos os campos de uma música, sem a procurar no catálogo.
+     *
+     * @param musica Música a escrever.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public void escreverDadosMusica(Musica musica) throws IOException {
+        if (musica instanceof MusicaExplicita) escreverNatural(TIPO_MUSICA_EXPLICITA);
+        else if (musica instanceof MusicaMultimedia) escreverNatural(TIPO_MUSICA_MULTIMEDIA);
+        else escreverNatural(TIPO_MUSICA);
+
+        escreverTexto(musica.getNome());
+        escreverArtista(musica.getInterprete());
+        escreverTexto(musica.getNomeEditora());
+        escreverConteudo(musica.getLetra());
+        escreverConteudo(musica.getMusica());
+        escreverEnum(musica.getGenero());
+        escreverInteiro(musica.getDuracao());
+        escreverInteiro(musica.getNumReproducoes());
+
+        if (musica instanceof MusicaExplicita explicita) {
+            escreverTexto(explicita.getMotivoAviso());
+            escreverInteiro(explicita.getIdadeMinima());
+        } else if (musica instanceof MusicaMultimedia multimedia) {
+            escreverTexto(multimedia.getNomeVideo());
+            escreverTexto(multimedia.getFormato());
+        }
+    }
+
+    /**
+     * Escreve a letra ou a melodia de uma música: no segmento do catálogo, como ids no dicionário do segmento,
+     * deixando no snapshot apenas o tamanho, ou, num registo sem cabeçalho, como lista de textos.
+     * Os ids das listas lidas de um segmento são traduzidos sem descodificar o texto das linhas.
+     *
+     * @param linhas Lista a escrever (pode ser null).
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    private void escreverConteudo(List<String> linhas) throws IOException {
+        if (this.conteudos == null) {
+            escreverListaTexto(linhas);
+            return;
+        }
+        if (linhas == null) {
+            escreverNatural(0);
+            return;
+        }
+        int[] ids = idsLinhas(linhas);
+        this.conteudos = comEspaco(this.conteudos, 5 * (ids.length + 1));
+        int inicio = this.conteudos.position();
+        ListaTextoMapeada.escreverNatural(this.conteudos, ids.length);
+        for (int id : ids) {
+            ListaTextoMapeada.escreverNatural(this.conteudos, id + 1);
+        }
+        escreverNatural(this.conteudos.position() - inicio + 1);
+    }
+
+    /**
+     * Obtém os ids das linhas de uma lista no dicionário do segmento, acrescentando as linhas que ainda lá não estão.
+     *
+     * @param linhas Lista de linhas.
+     * @return Ids das linhas, pela ordem da lista (-1 para linhas null).
+     * @throws IOException Se a lista vier de um segmento corrompido.
+     */
+    private int[] idsLinhas(List<String> linhas) throws IOException {
+        if (linhas instanceof ListaTextoMapeada mapeada) {
+            DicionarioSegmento dicionario = mapeada.getDicionario();
+            if (dicionario == null) {
+                ByteBuffer[] bytes = mapeada.getBytesLinhas();
+                int[] ids = new int[bytes.length];
+                for (int i = 0; i < bytes.length; i++) {
+                    ids[i] = (bytes[i] == null) ? -1 : idLinha(bytes[i]);
+                }
+                return ids;
+            }
+            int[] traducao = this.traducoesLinhas.computeIfAbsent(dicionario, d -> new int[d.tamanho()]);
+            int[] ids = mapeada.getIdsSegmento();
+            for (int i = 0; i < ids.length; i++) {
+                int antigo = ids[i];
+                if (antigo < 0) continue;
+                if (antigo >= traducao.length) throw new IOException("Linha inexistente no segmento do catálogo: " + antigo);
+                if (traducao[antigo] == 0) traducao[antigo] = idLinha(dicionario.getBytes(antigo)) + 1;
+                ids[i] = traducao[antigo] - 1;
+            }
+            return ids;
+        }
+        int[] ids = new int[linhas.size()];
+        int i = 0;
+        for (String linha : linhas) {
+            if (linha == null) {
+                ids[i++] = -1;
+                continue;
+            }
+            Integer id = this.idsLinhasPorTexto.get(linha);
+            if (id == null) {
+                id = idLinha(ByteBuffer.wrap(linha.getBytes(StandardCharsets.UTF_8)));
+                this.idsLinhasPorTexto.put(linha, id);
+            }
+            ids[i++] = id;
+        }
+        return ids;
+    }
+
+    /**
+     * Obtém o id de uma linha no dicionário do segmento, acrescentando-a se ainda lá não estiver.
+     *
+     * @param bytes Bytes (UTF-8) da linha; não podem ser alterados depois.
+     * @return Id da linha.
+     */
+    private int idLinha(ByteBuffer bytes) {
+        Integer id = this.idsLinhas.get(bytes);
+        if (id != null) return id;
+        this.linhas = comEspaco(this.linhas, 5 + bytes.remaining());
+        ListaTextoMapeada.escreverNatural(this.linhas, bytes.remaining());
+        this.linhas.put(bytes.duplicate());
+        this.idsLinhas.put(bytes, this.numeroLinhas);
+        return this.numeroLinhas++;
+    }
+
+    /**
+     * Garante que um buffer em memória tem espaço para mais bytes, trocando-o por um maior se necessário.
+     *
+     * @param buffer Buffer em escrita.
+     * @param bytes  Número de bytes a escrever.
+     * @return O mesmo buffer, ou um maior com o conteúdo já escrito.
+     */
+    private static ByteBuffer comEspaco(ByteBuffer buffer, int bytes) {
+        if (buffer.remaining() >= bytes) return buffer;
+        int capacidade = buffer.capacity();
+        while (capacidade - buffer.position() < bytes) capacidade *= 2;
+        ByteBuffer maior = ByteBuffer.allocate(capacidade);
+        maior.put(buffer.flip());
+        return maior;
+    }
+
+    /**
+     * Escreve os utilizadores do sistema (sem as bibliotecas, que são escritas por {@link #escreverBibliotecas()}).
+     *
+     * @param utilizadores Mapa de utilizadores.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public void escreverUtilizadores(Map<String, Utilizador> utilizadores) throws IOException {
+        escreverNatural(utilizadores.size());
+        for (Map.Entry<String, Utilizador> e : utilizadores.entrySet()) {
+            Utilizador u = e.getValue();
+            this.idsUtilizadores.put(u, this.utilizadores.size());
+            this.idsUtilizadoresPorEmail.putIfAbsent(u.getEmail(), this.utilizadores.size());
+            this.utilizadores.add(u);
+
+            escreverTexto(e.getKey());
+            escreverDadosUtilizador(u);
+        }
+    }
+
+    /**
+     * Escreve os campos de um utilizador (sem a biblioteca).
+     *
+     * @param u Utilizador a escrever.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public void escreverDadosUtilizador(Utilizador u) throws IOException {
+        escreverTexto(u.getNome());
+        escreverTexto(u.getEmail());
+        escreverTexto(u.getMorada());
+        escreverTexto(u.getPassword());
+        escreverInteiro(u.getPontos());
+        escreverNatural(codigoPlano(u.getPlanoSubscricao()));
+        escreverEnum(u.getCargo());
+    }
+
+    /**
+     * Escreve uma referência a um utilizador, pelo id atribuído em {@link #escreverUtilizadores(Map)}.
+     * Utilizadores que não pertençam ao sistema são procurados pelo email.
+     * Depois de {@link #usarUtilizadoresPorEmail()}, é escrito apenas o email.
+     *
+     * @param utilizador Utilizador (pode ser null).
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public void escreverUtilizador(Utilizador utilizador) throws IOException {
+        if (this.utilizadoresPorEmail) {
+            escreverTexto((utilizador == null) ? null : utilizador.getEmail());
+            return;
+        }
+        Integer id = null;
+        if (utilizador != null) {
+            id = this.idsUtilizadores.get(utilizador);
+            if (id == null) id = this.idsUtilizadoresPorEmail.get(utilizador.getEmail());
+        }
+        escreverNatural((id == null) ? 0 : id + 1);
+    }
+
+    /**
+     * Devolve o código de um plano de subscrição.
+     *
+     * @param plano Plano (pode ser null).
+     * @return Código do plano.
+     */
+    private static int codigoPlano(PlanoSubscricao plano) {
+        if (plano instanceof PlanoFree) return 1;
+        if (plano instanceof PlanoPremiumBase) return 2;
+        if (plano instanceof PlanoPremiumTop) return 3;
+        return 0;
+    }
+
+    /**
+     * Escreve os álbuns do sistema.
+     *
+     * @param albuns Lista de álbuns.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public void escreverAlbuns(List<Album> albuns) throws IOException {
+        escreverNatural(albuns.size());
+        for (Album album : albuns) {
+            escreverAlbum(album);
+        }
+    }
+
+    /**
+     * Escreve os campos de um álbum.
+     *
+     * @param album Álbum a escrever.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public void escreverAlbum(Album album) throws IOException {
+        escreverTexto(album.getNome());
+        escreverData(album.getDataLancamento());
+        escreverArtista(album.getAutor());
+        escreverMusicas(album.getMusicas());
+    }
+
+    /**
+     * Escreve as playlists do sistema.
+     *
+     * @param playlists Lista de playlists.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public void escreverPlaylists(List<Playlist> playlists) throws IOException {
+        escreverNatural(playlists.size());
+        for (Playlist playlist : playlists) {
+            escreverPlaylist(playlist);
+        }
+    }
+
+    /**
+     * Escreve os campos de uma playlist.
+     *
+     * @param playlist Playlist a escrever.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public void escreverPlaylist(Playlist playlist) throws IOException {
+        if (playlist instanceof PlaylistConstruida) escreverNatural(TIPO_PLAYLIST_CONSTRUIDA);
+        else if (playlist instanceof PlaylistGenero) escreverNatural(TIPO_PLAYLIST_GENERO);
+        else if (playlist instanceof PlaylistFavoritos) escreverNatural(TIPO_PLAYLIST_FAVORITOS);
+        else escreverNatural(TIPO_PLAYLIST_ALEATORIA);
+
+        escreverTexto(playlist.getNome());
+        escreverUtilizador(playlist.getUtilizador());
+        escreverData(playlist.getDataCriacao());
+        escreverBooleano(playlist.getPublica());
+        escreverMusicas(playlist.getListaMusicas());
+
+        if (playlist instanceof PlaylistConstruida construida) {
+            escreverInteiro(construida.getIndiceAtual());
+            escreverBooleano(construida.getAleatorio());
+        } else if (playlist instanceof PlaylistGenero genero) {
+            escreverEnum(genero.getGenero());
+            escreverInteiro(genero.getDuracaoMaxima());
+        }
+    }
+
+    /**
+     * Escreve as bibliotecas dos utilizadores, pela ordem de {@link #escreverUtilizadores(Map)}.
+     * As playlists e álbuns das bibliotecas são cópias independentes, por isso são escritos por extenso
+     * (as suas músicas continuam a ser escritas por referência ao catálogo).
+     *
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public void escreverBibliotecas() throws IOException {
+        for (Utilizador u : this.utilizadores) {
+            List<Playlist> playlists = (u.getBiblioteca() == null) ? List.of() : u.getBiblioteca().getPlaylist();
+            List<Album> albuns = (u.getBiblioteca() == null) ? List.of() : u.getBiblioteca().getAlbuns();
+
+            escreverNatural(playlists.size());
+            for (Playlist playlist : playlists) {
+                escreverPlaylist(playlist);
+            }
+            escreverNatural(albuns.size());
+            for (Album album : albuns) {
+                escreverAlbum(album);
+            }
+        }
+    }
+
+    /**
+     * Escreve o histórico de reproduções. Os instantes são escritos como diferença para a reprodução anterior.
+     *
+     * @param registo Histórico de reproduções.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public void escreverReproducoes(RegistoReproducoes registo) throws IOException {
+        escreverNatural(registo.tamanho());
+        long anterior = 0;
+        for (int i = 0; i < registo.tamanho(); i++) {
+            escreverNatural(registo.getUtilizador(i));
+            escreverNatural(registo.getMusica(i));
+            escreverInteiro(registo.getInstante(i) - anterior);
+            anterior = registo.getInstante(i);
+        }
+    }
+
+    /**
+     * Escreve o índice de pesquisa: o comprimento de cada música e, por ordem alfabética, cada termo com a sua lista
+     * de ocorrências. Os ids das músicas e as posições são escritos como diferença para o valor anterior.
+     *
+     * @param indice Índice de pesquisa.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public void escreverIndicePesquisa(IndicePesquisa indice) throws IOException {
+        escreverNatural(indice.tamanho());
+        for (int id = 0; id < indice.tamanho(); id++) {
+            escreverNatural(indice.getComprimento(id));
+        }
+        NavigableMap<String, ListaOcorrencias> termos = indice.getTermos();
+        escreverNatural(termos.size());
+        for (Map.Entry<String, ListaOcorrencias> e : termos.entrySet()) {
+            ListaOcorrencias lista = e.getValue();
+            escreverTexto(e.getKey());
+            escreverNatural(lista.tamanho());
+            int anterior = -1;
+            for (int i = 0; i < lista.tamanho(); i++) {
+                escreverNatural(lista.getDocumento(i) - anterior);
+                anterior = lista.getDocumento(i);
+                escreverNatural(lista.getFrequencia(i));
+                escreverNatural(lista.getNumeroPosicoes(i));
+                int posicaoAnterior = -1;
+                for (int j = 0; j < lista.getNumeroPosicoes(i); j++) {
+                    escreverNatural(lista.getPosicao(i, j) - posicaoAnterior);
+                    posicaoAnterior = lista.getPosicao(i, j);
+                }
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------- canal
+
+    /**
+     * Garante que o buffer tem espaço para um número de bytes, despejando-o no canal se necessário.
+     *
+     * @param bytes Número de bytes necessários.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    private void garantir(int bytes) throws IOException {
+        if (this.buffer.remaining() < bytes) descarregar();
+    }
+
+    /**
+     * Escreve uma sequência de bytes, em blocos do tamanho do buffer.
+     *
+     * @param bytes Bytes a escrever.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    private void escreverBytes(byte[] bytes) throws IOException {
+        int posicao = 0;
+        while (posicao < bytes.length) {
+            if (!this.buffer.hasRemaining()) descarregar();
+            int n = Math.min(this.buffer.remaining(), bytes.length - posicao);
+            this.buffer.put(bytes, posicao, n);
+            posicao += n;
+        }
+    }
+
+    /**
+     * Despeja o conteúdo do buffer no canal (ou, em memória, aumenta o buffer).
+     *
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    private void descarregar() throws IOException {
+        if (this.canal == null) {
+            ByteBuffer maior = ByteBuffer.allocate(this.buffer.capacity() * 2);
+            this.buffer.flip();
+            maior.put(this.buffer);
+            this.buffer = maior;
+            return;
+        }
+        this.buffer.flip();
+        while (this.buffer.hasRemaining()) {
+            this.canal.write(this.buffer);
+        }
+        this.buffer.clear();
+    }
+
+    /**
+     * Devolve o conteúdo escrito por um escritor em memória.
+     *
+     * @return Buffer só de leitura com o conteúdo escrito.
+     */
+    public ByteBuffer getConteudo() {
+        return this.buffer.duplicate().flip().asReadOnlyBuffer();
+    }
+
+    /**
+     * Devolve o conteúdo escrito por um escritor em memória como array.
+     *
+     * @return Cópia do conteúdo escrito.
+     */
+    public byte[] getBytes() {
+        byte[] bytes = new byte[this.buffer.position()];
+        this.buffer.duplicate().flip().get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Grava o conteúdo de um escritor em memória num ficheiro: escreve o segmento do catálogo e o snapshot
+     * (este para um ficheiro temporário), força a escrita em disco e só depois substitui o ficheiro de destino.
+     *
+     * @param destino Caminho do ficheiro.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public void gravar(Path destino) throws IOException {
+        gravarSegmento(destino);
+        Path temporario = temporario(destino);
+        try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            escreverTudo(canal, getConteudo());
+            canal.force(true);
+        }
+        substituir(temporario, destino);
+        apagarSegmentosAntigos(destino);
+    }
+
+    /**
+     * Escreve o segmento do catálogo desta gravação (entradas, dicionário de linhas e posição do dicionário)
+     * e força a escrita em disco.
+     *
+     * @param destino Caminho do snapshot.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    private void gravarSegmento(Path destino) throws IOException {
+        if (this.conteudos == null) return;
+        try (FileChannel canal = FileChannel.open(segmento(destino, this.geracao), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer numero = ByteBuffer.allocate(5);
+            ListaTextoMapeada.escreverNatural(numero, this.numeroLinhas);
+            escreverTudo(canal, this.conteudos.duplicate().flip());
+            escreverTudo(canal, numero.flip());
+            escreverTudo(canal, this.linhas.duplicate().flip());
+            escreverTudo(canal, ByteBuffer.allocate(4).putInt(0, this.conteudos.position()));
+            canal.force(true);
+        }
+    }
+
+    /**
+     * Apaga os segmentos do catálogo de gravações anteriores. Um segmento que não possa ser apagado
+     * (por exemplo, por ainda estar mapeado em memória, em Windows) fica para a gravação seguinte.
+     *
+     * @param destino Caminho do snapshot.
+     * @throws IOException Se não for possível listar a diretoria.
+     */
+    private void apagarSegmentosAntigos(Path destino) throws IOException {
+        if (this.conteudos == null) return;
+        Path diretoria = destino.toAbsolutePath().getParent();
+        String prefixo = destino.getFileName() + ".musicas.";
+        String atual = segmento(destino, this.geracao).getFileName().toString();
+        try (Stream<Path> ficheiros = Files.list(diretoria)) {
+            for (Path ficheiro : (Iterable<Path>) ficheiros::iterator) {
+                String nome = ficheiro.getFileName().toString();
+                if (!nome.startsWith(prefixo) || nome.equals(atual)) continue;
+                try {
+                    Files.deleteIfExists(ficheiro);
+                } catch (IOException e) {
+                    // ainda em uso; é apagado numa próxima gravação
+                }
+            }
+        }
+    }
+
+    /**
+     * Escreve todo o conteúdo de um buffer num canal.
+     *
+     * @param canal Canal de destino.
+     * @param dados Bytes a escrever.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    private static void escreverTudo(FileChannel canal, ByteBuffer dados) throws IOException {
+        while (dados.hasRemaining()) {
+            canal.write(dados);
+        }
+    }
+
+    /**
+     * Devolve o caminho do segmento do catálogo de uma gravação.
+     *
+     * @param destino Caminho do snapshot.
+     * @param geracao Geração da gravação.
+     * @return Caminho do segmento.
+     */
+    static Path segmento(Path destino, long geracao) {
+        return destino.resolveSibling(destino.getFileName() + ".musicas." + geracao);
+    }
+
+    /**
+     * Devolve o ficheiro temporário usado para escrever um ficheiro.
+     *
+     * @param destino Caminho do ficheiro.
+     * @return Caminho do ficheiro temporário.
+     */
+    private static Path temporario(Path destino) {
+        return destino.resolveSibling(destino.getFileName() + ".tmp");
+    }
+
+    /**
+     * Substitui um ficheiro por outro, atomicamente se o sistema de ficheiros o permitir.
+     *
+     * @param origem  Ficheiro novo.
+     * @param destino Ficheiro a substituir.
+     * @throws IOException Se não for possível mover o ficheiro.
+     */
+    private static void substituir(Path origem, Path destino) throws IOException {
+        try {
+            Files.move(origem, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(origem, destino, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Termina a escrita: despeja o buffer, força a escrita em disco e substitui o ficheiro de destino.
+     * Num escritor em memória não faz nada.
+     *
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.canal == null || !this.canal.isOpen()) return;
+        try {
+            descarregar();
+            gravarSegmento(this.destino);
+            this.canal.force(true);
+        } finally {
+            this.canal.close();
+        }
+        substituir(this.temporario, this.destino);
+        apagarSegmentosAntigos(this.destino);
+    }
+}
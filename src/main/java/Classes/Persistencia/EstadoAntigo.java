@@ -0,0 +1,207 @@
+package Classes.Persistencia;
+
+import Classes.Cargo;
+import Classes.Genero;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Classes do modelo tal como eram nas versões que guardavam o estado com serialização Java, usadas pelo
+ * {@link LeitorEstadoAntigo} para ler esses ficheiros. Cada classe tem os campos e o serialVersionUID da classe
+ * original (indicada no comentário), pelo que não podem ser alterados: o leitor só aceita um descritor do ficheiro
+ * se o serialVersionUID coincidir.
+ */
+final class EstadoAntigo {
+
+    private EstadoAntigo() {
+    }
+
+    /**
+     * Tipo dos planos de subscrição.
+     */
+    interface PlanoSubscricao {
+    }
+
+    /**
+     * {@code SpotifUM.SpotifUM}.
+     */
+    static class SpotifUM implements Serializable {
+        private static final long serialVersionUID = -8743738944321733753L;
+
+        HashMap<String, Utilizador> utilizadores;
+        ArrayList<Reproducao> reproducoes;
+        ArrayList<Musica> musicas;
+        ArrayList<Album> albuns;
+        ArrayList<Playlist> playlists;
+        HashMap<String, Artista> artistas;
+    }
+
+    /**
+     * {@code Classes.Utilizador}.
+     */
+    static class Utilizador implements Serializable {
+        private static final long serialVersionUID = 1338665495553712485L;
+
+        String nome;
+        String email;
+        String morada;
+        String password;
+        int pontos;
+        PlanoSubscricao planoSubscricao;
+        Cargo cargo;
+        Biblioteca biblioteca;
+    }
+
+    /**
+     * {@code Classes.Biblioteca}.
+     */
+    static class Biblioteca implements Serializable {
+        private static final long serialVersionUID = 472314031713410317L;
+
+        ArrayList<Playlist> playlist;
+        ArrayList<Album> albuns;
+    }
+
+    /**
+     * {@code Classes.Artista}.
+     */
+    static class Artista implements Serializable {
+        private static final long serialVersionUID = 2828748688392123037L;
+
+        String nome;
+        String pais;
+    }
+
+    /**
+     * {@code Classes.Album}.
+     */
+    static class Album implements Serializable {
+        private static final long serialVersionUID = 1327337256038660807L;
+
+        String nome;
+        LocalDate dataLancamento;
+        Artista autor;
+        ArrayList<Musica> musicas;
+    }
+
+    /**
+     * {@code Classes.Musicas.Musica}.
+     */
+    static class Musica implements Serializable {
+        private static final long serialVersionUID = 8850769279247461774L;
+
+        String nome;
+        Artista interprete;
+        String nomeEditora;
+        List<String> letra;
+        List<String> musica;
+        Genero genero;
+        int duracao;
+        int numReproducoes;
+    }
+
+    /**
+     * {@code Classes.Musicas.MusicaExplicita}.
+     */
+    static class MusicaExplicita extends Musica {
+        private static final long serialVersionUID = 5077971230222155471L;
+
+        String motivoAviso;
+        int idadeMinima;
+    }
+
+    /**
+     * {@code Classes.Musicas.MusicaMultimedia}.
+     */
+    static class MusicaMultimedia extends Musica {
+        private static final long serialVersionUID = -3765354816636086288L;
+
+        String nomeVideo;
+        String formato;
+    }
+
+    /**
+     * {@code Classes.Reproducao}.
+     */
+    static class Reproducao implements Serializable {
+        private static final long serialVersionUID = 4210676183723448418L;
+
+        Utilizador utilizador;
+        Musica musica;
+        LocalDateTime dataHora;
+    }
+
+    /**
+     * {@code Classes.Playlists.Playlist}.
+     */
+    abstract static class Playlist implements Serializable {
+        private static final long serialVersionUID = -1914847301584394647L;
+
+        String nome;
+        Utilizador utilizador;
+        LocalDate dataCriacao;
+        boolean publica;
+        ArrayList<Musica> listaMusicas;
+    }
+
+    /**
+     * {@code Classes.Playlists.PlaylistAleatoria}.
+     */
+    static class PlaylistAleatoria extends Playlist {
+        private static final long serialVersionUID = -8415683290457034374L;
+    }
+
+    /**
+     * {@code Classes.Playlists.PlaylistConstruida}.
+     */
+    static class PlaylistConstruida extends Playlist {
+        private static final long serialVersionUID = 4065993736185718527L;
+
+        int indiceAtual;
+        boolean aleatorio;
+        ArrayList<Musica> ordemReproducao;
+    }
+
+    /**
+     * {@code Classes.Playlists.PlaylistFavoritos}.
+     */
+    static class PlaylistFavoritos extends Playlist {
+        private static final long serialVersionUID = -4411485306596713503L;
+    }
+
+    /**
+     * {@code Classes.Playlists.PlaylistGenero}.
+     */
+    static class PlaylistGenero extends Playlist {
+        private static final long serialVersionUID = 2420116893520746685L;
+
+        Genero genero;
+        int duracaoMaxima;
+    }
+
+    /**
+     * {@code Classes.Planos.PlanoFree}.
+     */
+    static class PlanoFree implements PlanoSubscricao, Serializable {
+        private static final long serialVersionUID = -8751912740526774888L;
+    }
+
+    /**
+     * {@code Classes.Planos.PlanoPremiumBase}.
+     */
+    static class PlanoPremiumBase implements PlanoSubscricao, Serializable {
+        private static final long serialVersionUID = 3045928081608172038L;
+    }
+
+    /**
+     * {@code Classes.Planos.PlanoPremiumTop}.
+     */
+    static class PlanoPremiumTop implements PlanoSubscricao, Serializable {
+        private static final long serialVersionUID = 7804086080047986853L;
+    }
+}
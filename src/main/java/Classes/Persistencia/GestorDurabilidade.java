@@ -0,0 +1,208 @@
+package Classes.Persistencia;
+
+import Classes.GestorFicheiros;
+import SpotifUM.SpotifUM;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Gere a durabilidade do estado do SpotifUM: diário de operações e checkpoints.
+ *
+ * Cada alteração do modelo é registada no {@link DiarioOperacoes} antes de o pedido terminar. De tempos a tempos
+ * (a cada {@code operacoesPorCheckpoint} operações ou {@code intervaloCheckpoint} milissegundos) é feito um
+ * checkpoint: o diário passa para um segmento novo, o estado é capturado em memória e a gravação do snapshot
+ * (escrita, {@code force} e substituição do ficheiro) e a remoção dos segmentos antigos são feitas numa thread
+ * em segundo plano.
+ *
+ * Na recuperação carrega-se o último snapshot e reaplicam-se as operações do diário posteriores a ele.
+ */
+public class GestorDurabilidade {
+
+    /**
+     * Número de operações por omissão entre checkpoints.
+     */
+    public static final int OPERACOES_POR_CHECKPOINT = 1000;
+
+    /**
+     * Intervalo por omissão entre checkpoints, em milissegundos.
+     */
+    public static final long INTERVALO_CHECKPOINT = 5 * 60 * 1000;
+
+    private final Path snapshot;
+    private final Path diario;
+    private final int operacoesPorCheckpoint;
+    private final long intervaloCheckpoint;
+
+    private DiarioOperacoes registo;
+    private ExecutorService checkpoints;
+    private Future<?> ultimoCheckpoint;
+    private int operacoesDesdeCheckpoint;
+    private long instanteCheckpoint;
+
+    /**
+     * Construtor com a política de checkpoints por omissão.
+     *
+     * @param snapshot Caminho do ficheiro de snapshot.
+     * @param diario   Caminho base dos segmentos do diário.
+     */
+    public GestorDurabilidade(Path snapshot, Path diario) {
+        this(snapshot, diario, OPERACOES_POR_CHECKPOINT, INTERVALO_CHECKPOINT);
+    }
+
+    /**
+     * Construtor com parâmetros.
+     *
+     * @param snapshot               Caminho do ficheiro de snapshot.
+     * @param diario                 Caminho base dos segmentos do diário.
+     * @param operacoesPorCheckpoint Número de operações a partir do qual é feito um checkpoint.
+     * @param intervaloCheckpoint    Tempo, em milissegundos, a partir do qual é feito um checkpoint.
+     * @throws IllegalArgumentException Se algum dos limites não for positivo.
+     */
+    public GestorDurabilidade(Path snapshot, Path diario, int operacoesPorCheckpoint, long intervaloCheckpoint) {
+        if (operacoesPorCheckpoint <= 0) throw new IllegalArgumentException("Número de operações inválido: " + operacoesPorCheckpoint);
+        if (intervaloCheckpoint <= 0) throw new IllegalArgumentException("Intervalo inválido: " + intervaloCheckpoint);
+        this.snapshot = snapshot;
+        this.diario = diario;
+        this.operacoesPorCheckpoint = operacoesPorCheckpoint;
+        this.intervaloCheckpoint = intervaloCheckpoint;
+    }
+
+    /**
+     * Recupera o estado: carrega o último snapshot (ou parte de um modelo vazio, se não existir),
+     * reaplica as operações do diário e passa a registar as alterações do modelo. A tabela de recomendações
+     * começa a ser construída em segundo plano.
+     *
+     * @return Modelo recuperado.
+     * @throws IOException Se não for possível ler o snapshot ou o diário.
+     * @throws ClassNotFoundException Se o snapshot estiver no formato antigo e alguma classe não for encontrada.
+     */
+    public SpotifUM recuperar() throws IOException, ClassNotFoundException {
+        SpotifUM model;
+        if (Files.exists(this.snapshot) && Files.size(this.snapshot) > 0) {
+            model = new GestorFicheiros().carregarEstado(this.snapshot.toString());
+        } else {
+            model = new SpotifUM();
+        }
+
+        long doSnapshot = model.getUltimaOperacao();
+        long ultima = DiarioOperacoes.reproduzir(this.diario, doSnapshot, model::aplicarOperacao);
+
+        this.registo = new DiarioOperacoes(this.diario, ultima);
+        this.checkpoints = Executors.newSingleThreadExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, "checkpoint-spotifum");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.ultimoCheckpoint = null;
+        this.operacoesDesdeCheckpoint = 0;
+        this.instanteCheckpoint = System.currentTimeMillis();
+        model.ativarDurabilidade(this);
+
+        if (ultima > doSnapshot) checkpoint(model);
+        // o snapshot já começou a construir a tabela; as operações do diário podem tê-la desatualizado
+        if (ultima > doSnapshot) model.prepararRecomendacoes();
+        return model;
+    }
+
+    /**
+     * Regista uma operação no diário, esperando que fique em disco, e faz um checkpoint se for altura disso.
+     *
+     * @param model    Modelo onde a operação foi aplicada.
+     * @param operacao Conteúdo da operação.
+     * @return Número atribuído à operação.
+     * @throws IOException Se a escrita no diário ou o checkpoint falharem.
+     */
+    public long registar(SpotifUM model, byte[] operacao) throws IOException {
+        long numero = this.registo.registar(operacao);
+        this.operacoesDesdeCheckpoint++;
+        if (this.operacoesDesdeCheckpoint >= this.operacoesPorCheckpoint
+                || System.currentTimeMillis() - this.instanteCheckpoint >= this.intervaloCheckpoint) {
+            checkpoint(model);
+        }
+        return numero;
+    }
+
+    /**
+     * Regista um lote de operações no diário, com uma só espera pela escrita em disco,
+     * e faz um checkpoint se for altura disso.
+     *
+     * @param model     Modelo onde as operações foram aplicadas.
+     * @param operacoes Conteúdo das operações.
+     * @return Número atribuído à última operação.
+     * @throws IOException Se a escrita no diário ou o checkpoint falharem.
+     */
+    public long registarLote(SpotifUM model, List<byte[]> operacoes) throws IOException {
+        long numero = this.registo.registarLote(operacoes);
+        this.operacoesDesdeCheckpoint += operacoes.size();
+        if (this.operacoesDesdeCheckpoint >= this.operacoesPorCheckpoint
+                || System.currentTimeMillis() - this.instanteCheckpoint >= this.intervaloCheckpoint) {
+            checkpoint(model);
+        }
+        return numero;
+    }
+
+    /**
+     * Faz um checkpoint: começa um segmento novo do diário, captura o estado do modelo em memória
+     * e agenda a gravação do snapshot e a remoção dos segmentos anteriores.
+     *
+     * @param model Modelo a guardar.
+     * @throws IOException Se a rotação do diário ou o checkpoint anterior tiverem falhado.
+     */
+    public void checkpoint(SpotifUM model) throws IOException {
+        verificarCheckpointAnterior(false);
+
+        int segmento = this.registo.rodarSegmento();
+        EscritorSnapshot out = new EscritorSnapshot(this.registo.getUltimaOperacao());
+        model.guardarSnapshot(out);
+
+        this.operacoesDesdeCheckpoint = 0;
+        this.instanteCheckpoint = System.currentTimeMillis();
+        this.ultimoCheckpoint = this.checkpoints.submit(() -> {
+            out.gravar(this.snapshot);
+            this.registo.apagarSegmentosAnteriores(segmento);
+            return null;
+        });
+    }
+
+    /**
+     * Faz um último checkpoint, espera que seja gravado e fecha o diário.
+     * O modelo deixa de registar alterações.
+     *
+     * @param model Modelo a guardar.
+     * @throws IOException Se o checkpoint ou o fecho do diário falharem.
+     */
+    public void fechar(SpotifUM model) throws IOException {
+        try {
+            checkpoint(model);
+            verificarCheckpointAnterior(true);
+        } finally {
+            model.ativarDurabilidade(null);
+            this.checkpoints.shutdown();
+            this.registo.close();
+        }
+    }
+
+    /**
+     * Verifica se o último checkpoint agendado terminou com erro.
+     *
+     * @param esperar Se deve esperar que o checkpoint termine.
+     * @throws IOException Se o checkpoint tiver falhado.
+     */
+    private void verificarCheckpointAnterior(boolean esperar) throws IOException {
+        if (this.ultimoCheckpoint == null || (!esperar && !this.ultimoCheckpoint.isDone())) return;
+        try {
+            this.ultimoCheckpoint.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IOException("Falha ao gravar o checkpoint", e.getCause());
+        }
+    }
+}
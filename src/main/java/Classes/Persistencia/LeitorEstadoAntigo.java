@@ -0,0 +1,261 @@
+package Classes.Persistencia;
+
+import Classes.Album;
+import Classes.Artista;
+import Classes.Biblioteca;
+import Classes.Musicas.Musica;
+import Classes.Musicas.MusicaExplicita;
+import Classes.Musicas.MusicaMultimedia;
+import Classes.Planos.PlanoFree;
+import Classes.Planos.PlanoPremiumBase;
+import Classes.Planos.PlanoPremiumTop;
+import Classes.Planos.PlanoSubscricao;
+import Classes.Playlists.Playlist;
+import Classes.Playlists.PlaylistAleatoria;
+import Classes.Playlists.PlaylistConstruida;
+import Classes.Playlists.PlaylistFavoritos;
+import Classes.Playlists.PlaylistGenero;
+import Classes.Reproducao;
+import Classes.Utilizador;
+import SpotifUM.SpotifUM;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.io.ObjectStreamField;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Leitor dos estados guardados com serialização Java pelas versões anteriores ao formato de snapshot.
+ *
+ * As classes do modelo mudaram desde então, pelo que os descritores de classe do ficheiro não são resolvidos para as
+ * classes atuais mas para as cópias congeladas de {@link EstadoAntigo}, com os mesmos campos e serialVersionUID.
+ * O grafo lido é depois convertido para o modelo atual.
+ */
+public class LeitorEstadoAntigo extends ObjectInputStream {
+
+    private static final Map<String, Class<?>> CLASSES = new HashMap<>();
+
+    static {
+        CLASSES.put("SpotifUM.SpotifUM", EstadoAntigo.SpotifUM.class);
+        CLASSES.put("Classes.Utilizador", EstadoAntigo.Utilizador.class);
+        CLASSES.put("Classes.Biblioteca", EstadoAntigo.Biblioteca.class);
+        CLASSES.put("Classes.Artista", EstadoAntigo.Artista.class);
+        CLASSES.put("Classes.Album", EstadoAntigo.Album.class);
+        CLASSES.put("Classes.Reproducao", EstadoAntigo.Reproducao.class);
+        CLASSES.put("Classes.Musicas.Musica", EstadoAntigo.Musica.class);
+        CLASSES.put("Classes.Musicas.MusicaExplicita", EstadoAntigo.MusicaExplicita.class);
+        CLASSES.put("Classes.Musicas.MusicaMultimedia", EstadoAntigo.MusicaMultimedia.class);
+        CLASSES.put("Classes.Playlists.Playlist", EstadoAntigo.Playlist.class);
+        CLASSES.put("Classes.Playlists.PlaylistAleatoria", EstadoAntigo.PlaylistAleatoria.class);
+        CLASSES.put("Classes.Playlists.PlaylistConstruida", EstadoAntigo.PlaylistConstruida.class);
+        CLASSES.put("Classes.Playlists.PlaylistFavoritos", EstadoAntigo.PlaylistFavoritos.class);
+        CLASSES.put("Classes.Playlists.PlaylistGenero", EstadoAntigo.PlaylistGenero.class);
+        CLASSES.put("Classes.Planos.PlanoFree", EstadoAntigo.PlanoFree.class);
+        CLASSES.put("Classes.Planos.PlanoPremiumBase", EstadoAntigo.PlanoPremiumBase.class);
+        CLASSES.put("Classes.Planos.PlanoPremiumTop", EstadoAntigo.PlanoPremiumTop.class);
+    }
+
+    /**
+     * Utilizadores já convertidos, pela instância lida: as playlists das bibliotecas referem o próprio dono.
+     */
+    private final Map<EstadoAntigo.Utilizador, Utilizador> utilizadores = new IdentityHashMap<>();
+
+    /**
+     * Artistas já convertidos, pelo nome: o ficheiro tem uma cópia do artista em cada música, e o modelo atual
+     * partilha a mesma instância.
+     */
+    private final Map<String, Artista> artistas = new HashMap<>();
+
+    /**
+     * Construtor com parâmetros.
+     *
+     * @param in Conteúdo do ficheiro.
+     * @throws IOException Se o cabeçalho da serialização Java não puder ser lido.
+     */
+    public LeitorEstadoAntigo(InputStream in) throws IOException {
+        super(in);
+    }
+
+    /**
+     * Lê o estado guardado e converte-o para o modelo atual.
+     *
+     * @return Modelo lido.
+     * @throws IOException Se ocorrer um erro de leitura ou o ficheiro não for de uma versão conhecida.
+     * @throws ClassNotFoundException Se o ficheiro referir uma classe desconhecida.
+     */
+    public SpotifUM lerEstado() throws IOException, ClassNotFoundException {
+        Object lido = readObject();
+        if (!(lido instanceof EstadoAntigo.SpotifUM antigo)) {
+            throw new InvalidClassException("O ficheiro não contém um estado do SpotifUM");
+        }
+
+        HashMap<String, Artista> artistas = new HashMap<>();
+        for (EstadoAntigo.Artista artista : antigo.artistas.values()) {
+            artistas.put(artista.nome, converter(artista));
+        }
+        ArrayList<Musica> musicas = converterMusicas(antigo.musicas);
+        ArrayList<Album> albuns = new ArrayList<>();
+        for (EstadoAntigo.Album album : antigo.albuns) {
+            albuns.add(converter(album));
+        }
+        HashMap<String, Utilizador> utilizadoresPorEmail = new HashMap<>();
+        for (EstadoAntigo.Utilizador utilizador : antigo.utilizadores.values()) {
+            utilizadoresPorEmail.put(utilizador.email, converter(utilizador));
+        }
+        ArrayList<Playlist> playlists = new ArrayList<>();
+        for (EstadoAntigo.Playlist playlist : antigo.playlists) {
+            playlists.add(converter(playlist));
+        }
+        ArrayList<Reproducao> reproducoes = new ArrayList<>();
+        for (EstadoAntigo.Reproducao reproducao : antigo.reproducoes) {
+            reproducoes.add(new Reproducao(converter(reproducao.utilizador), converter(reproducao.musica),
+                    reproducao.dataHora));
+        }
+        return new SpotifUM(utilizadoresPorEmail, reproducoes, musicas, albuns, playlists, artistas);
+    }
+
+    /**
+     * Substitui o descritor de cada classe do modelo pelo da respetiva classe de {@link EstadoAntigo}. Os descritores
+     * das classes do Java e dos enumerados (que são lidos pelo nome das constantes) ficam como estão.
+     *
+     * @return Descritor a usar na leitura.
+     * @throws IOException Se o descritor não puder ser lido ou não for de uma versão conhecida da classe.
+     * @throws ClassNotFoundException Se a classe do descritor não for encontrada.
+     */
+    @Override
+    protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+        ObjectStreamClass doFicheiro = super.readClassDescriptor();
+        Class<?> antiga = CLASSES.get(doFicheiro.getName());
+        if (antiga == null) return doFicheiro;
+
+        ObjectStreamClass local = ObjectStreamClass.lookup(antiga);
+        if (local.getSerialVersionUID() != doFicheiro.getSerialVersionUID() || !mesmosCampos(local, doFicheiro)) {
+            throw new InvalidClassException(doFicheiro.getName(), "versão da classe desconhecida (serialVersionUID = "
+                    + doFicheiro.getSerialVersionUID() + ")");
+        }
+        return local;
+    }
+
+    /**
+     * Verifica se dois descritores têm os mesmos campos, pela mesma ordem e com os mesmos tipos primitivos.
+     *
+     * @param a Primeiro descritor.
+     * @param b Segundo descritor.
+     * @return {@code true} se os campos forem os mesmos.
+     */
+    private static boolean mesmosCampos(ObjectStreamClass a, ObjectStreamClass b) {
+        ObjectStreamField[] camposA = a.getFields();
+        ObjectStreamField[] camposB = b.getFields();
+        if (camposA.length != camposB.length) return false;
+        for (int i = 0; i < camposA.length; i++) {
+            if (!camposA[i].getName().equals(camposB[i].getName()) || camposA[i].getTypeCode() != camposB[i].getTypeCode()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Artista converter(EstadoAntigo.Artista artista) {
+        if (artista == null) return null;
+        return this.artistas.computeIfAbsent(artista.nome, nome -> new Artista(nome, artista.pais));
+    }
+
+    private Musica converter(EstadoAntigo.Musica musica) {
+        if (musica == null) return null;
+        Artista interprete = converter(musica.interprete);
+        if (musica instanceof EstadoAntigo.MusicaExplicita explicita) {
+            return new MusicaExplicita(musica.nome, interprete, musica.nomeEditora, musica.letra, musica.musica,
+                    musica.genero, musica.duracao, musica.numReproducoes, explicita.motivoAviso, explicita.idadeMinima);
+        }
+        if (musica instanceof EstadoAntigo.MusicaMultimedia multimedia) {
+            return new MusicaMultimedia(musica.nome, interprete, musica.nomeEditora, musica.letra, musica.musica,
+                    musica.genero, musica.duracao, musica.numReproducoes, multimedia.nomeVideo, multimedia.formato);
+        }
+        return new Musica(musica.nome, interprete, musica.nomeEditora, musica.letra, musica.musica,
+                musica.genero, musica.duracao, musica.numReproducoes);
+    }
+
+    private ArrayList<Musica> converterMusicas(List<EstadoAntigo.Musica> musicas) {
+        ArrayList<Musica> convertidas = new ArrayList<>();
+        if (musicas == null) return convertidas;
+        for (EstadoAntigo.Musica musica : musicas) {
+            convertidas.add(converter(musica));
+        }
+        return convertidas;
+    }
+
+    private Album converter(EstadoAntigo.Album album) {
+        return new Album(album.nome, album.dataLancamento, converter(album.autor), converterMusicas(album.musicas));
+    }
+
+    private static PlanoSubscricao converter(EstadoAntigo.PlanoSubscricao plano) {
+        if (plano instanceof EstadoAntigo.PlanoPremiumTop) return new PlanoPremiumTop();
+        if (plano instanceof EstadoAntigo.PlanoPremiumBase) return new PlanoPremiumBase();
+        return new PlanoFree();
+    }
+
+    /**
+     * Converte um utilizador e a sua biblioteca. O utilizador fica registado antes de a biblioteca ser convertida,
+     * para que as playlists da biblioteca apontem para ele.
+     *
+     * @param utilizador Utilizador lido.
+     * @return Utilizador convertido.
+     */
+    private Utilizador converter(EstadoAntigo.Utilizador utilizador) {
+        if (utilizador == null) return null;
+        Utilizador convertido = this.utilizadores.get(utilizador);
+        if (convertido != null) return convertido;
+
+        convertido = new Utilizador(utilizador.nome, utilizador.email, utilizador.morada, utilizador.password,
+                utilizador.pontos, converter(utilizador.planoSubscricao), utilizador.cargo, null);
+        this.utilizadores.put(utilizador, convertido);
+        if (utilizador.biblioteca != null) {
+            Biblioteca biblioteca = convertido.getBiblioteca();
+            ArrayList<Playlist> playlists = new ArrayList<>();
+            if (utilizador.biblioteca.playlist != null) {
+                for (EstadoAntigo.Playlist playlist : utilizador.biblioteca.playlist) {
+                    playlists.add(converter(playlist));
+                }
+            }
+            ArrayList<Album> albuns = new ArrayList<>();
+            if (utilizador.biblioteca.albuns != null) {
+                for (EstadoAntigo.Album album : utilizador.biblioteca.albuns) {
+                    albuns.add(converter(album));
+                }
+            }
+            biblioteca.setPlaylist(playlists);
+            biblioteca.setAlbuns(albuns);
+        }
+        return convertido;
+    }
+
+    /**
+     * Converte uma playlist. O estado de reprodução das playlists construídas (música atual e ordem aleatória)
+     * não é convertido: a reprodução recomeça do início.
+     *
+     * @param playlist Playlist lida.
+     * @return Playlist convertida.
+     */
+    private Playlist converter(EstadoAntigo.Playlist playlist) {
+        Utilizador dono = converter(playlist.utilizador);
+        ArrayList<Musica> musicas = converterMusicas(playlist.listaMusicas);
+        if (playlist instanceof EstadoAntigo.PlaylistGenero genero) {
+            return new PlaylistGenero(playlist.nome, dono, playlist.dataCriacao, playlist.publica, musicas,
+                    genero.genero, genero.duracaoMaxima);
+        }
+        if (playlist instanceof EstadoAntigo.PlaylistConstruida) {
+            return new PlaylistConstruida(playlist.nome, dono, playlist.dataCriacao, playlist.publica, musicas);
+        }
+        if (playlist instanceof EstadoAntigo.PlaylistFavoritos) {
+            return new PlaylistFavoritos(playlist.nome, dono, playlist.dataCriacao, playlist.publica, musicas);
+        }
+        return new PlaylistAleatoria(playlist.nome, dono, playlist.dataCriacao, playlist.publica, musicas);
+    }
+}
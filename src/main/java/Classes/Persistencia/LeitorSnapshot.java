@@ -0,0 +1,690 @@
+package Classes.Persistencia;
+
+import Classes.Album;
+import Classes.Artista;
+import Classes.Cargo;
+import Classes.Genero;
+import Classes.Historico.RegistoReproducoes;
+import Classes.Indices.IndicePesquisa;
+import Classes.Indices.ListaOcorrencias;
+import Classes.Musicas.Musica;
+import Classes.Musicas.MusicaExplicita;
+import Classes.Musicas.MusicaMultimedia;
+import Classes.Planos.PlanoFree;
+import Classes.Planos.PlanoPremiumBase;
+import Classes.Planos.PlanoPremiumTop;
+import Classes.Planos.PlanoSubscricao;
+import Classes.Playlists.Playlist;
+import Classes.Playlists.PlaylistAleatoria;
+import Classes.Playlists.PlaylistConstruida;
+import Classes.Playlists.PlaylistFavoritos;
+import Classes.Playlists.PlaylistGenero;
+import Classes.Utilizador;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Leitor do formato binário de snapshot do SpotifUM, escrito por {@link EscritorSnapshot}.
+ * O ficheiro é lido de uma só vez para memória e descodificado pela mesma ordem em que foi escrito.
+ * O segmento do catálogo (letra e melodia das músicas) é mapeado em memória e só é lido quando usado; do seu
+ * dicionário de linhas só são lidas, ao abrir, as posições das linhas.
+ * Também lê registos isolados em memória, como as operações do diário.
+ */
+public class LeitorSnapshot {
+
+    private final ByteBuffer buffer;
+    private final int versao;
+    private final long ultimaOperacao;
+    private final ByteBuffer conteudos;
+    private final DicionarioSegmento dicionario;
+
+    private final List<String> textos;
+    private final List<Artista> artistas;
+    private List<Musica> catalogo;
+    private final List<Utilizador> utilizadores;
+    private Map<String, Utilizador> utilizadoresPorEmail;
+
+    /**
+     * Abre um snapshot, validando a assinatura e a versão do formato.
+     *
+     * @param origem Caminho do ficheiro a ler.
+     * @throws IOException Se o ficheiro não existir, não for um snapshot ou tiver uma versão desconhecida.
+     */
+    public LeitorSnapshot(Path origem) throws IOException {
+        try (FileChannel canal = FileChannel.open(origem, StandardOpenOption.READ)) {
+            long tamanho = canal.size();
+            if (tamanho > Integer.MAX_VALUE) throw new IOException("Snapshot demasiado grande: " + origem);
+            this.buffer = ByteBuffer.allocate((int) tamanho);
+            while (this.buffer.hasRemaining()) {
+                if (canal.read(this.buffer) < 0) throw new EOFException("Snapshot truncado: " + origem);
+            }
+            this.buffer.flip();
+        }
+        this.textos = new ArrayList<>();
+        this.artistas = new ArrayList<>();
+        this.catalogo = new ArrayList<>();
+        this.utilizadores = new ArrayList<>();
+        this.utilizadoresPorEmail = null;
+
+        if (this.buffer.remaining() < 8) throw new EOFException("Snapshot truncado: " + origem);
+        if (this.buffer.getInt() != EscritorSnapshot.MAGIA) throw new IOException("Ficheiro não é um snapshot: " + origem);
+        this.versao = this.buffer.getInt();
+        if (versao < 1 || versao > EscritorSnapshot.VERSAO) {
+            throw new IOException("Versão de snapshot não suportada: " + versao);
+        }
+        if (versao >= 2) {
+            if (this.buffer.remaining() < 8) throw new EOFException("Snapshot truncado: " + origem);
+            this.ultimaOperacao = this.buffer.getLong();
+        } else {
+            this.ultimaOperacao = 0;
+        }
+        if (versao >= 3) {
+            if (this.buffer.remaining() < 8) throw new EOFException("Snapshot truncado: " + origem);
+            Path segmento = EscritorSnapshot.segmento(origem, this.buffer.getLong());
+            ByteBuffer mapeado = mapearSegmento(segmento);
+            if (versao >= 4) {
+                int fim = mapeado.limit() - 4;
+                int inicioDicionario = (fim < 0) ? -1 : mapeado.getInt(fim);
+                if (inicioDicionario < 0 || inicioDicionario > fim) {
+                    throw new IOException("Segmento do catálogo corrompido: " + segmento);
+                }
+                this.conteudos = mapeado.slice(0, inicioDicionario);
+                this.dicionario = new DicionarioSegmento(mapeado.slice(inicioDicionario, fim - inicioDicionario));
+            } else {
+                this.conteudos = mapeado;
+                this.dicionario = null;
+            }
+        } else {
+            this.conteudos = null;
+            this.dicionario = null;
+        }
+    }
+
+    /**
+     * Mapeia em memória, só para leitura, o segmento do catálogo de um snapshot.
+     *
+     * @param segmento Caminho do segmento.
+     * @return Conteúdo do segmento.
+     * @throws IOException Se o segmento não existir ou não puder ser mapeado.
+     */
+    private static ByteBuffer mapearSegmento(Path segmento) throws IOException {
+        try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.READ)) {
+            if (canal.size() > Integer.MAX_VALUE) throw new IOException("Segmento do catálogo demasiado grande: " + segmento);
+            return canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+        } catch (NoSuchFileException e) {
+            throw new IOException("Segmento do catálogo em falta: " + segmento, e);
+        }
+    }
+
+    /**
+     * Cria um leitor para um registo em memória sem cabeçalho (por exemplo, uma operação do diário).
+     *
+     * @param conteudo Conteúdo a ler.
+     */
+    public LeitorSnapshot(ByteBuffer conteudo) {
+        this.buffer = conteudo.duplicate();
+        this.versao = EscritorSnapshot.VERSAO;
+        this.ultimaOperacao = 0;
+        this.conteudos = null;
+        this.dicionario = null;
+        this.textos = new ArrayList<>();
+        this.artistas = new ArrayList<>();
+        this.catalogo = new ArrayList<>();
+        this.utilizadores = new ArrayList<>();
+        this.utilizadoresPorEmail = null;
+    }
+
+    /**
+     * Devolve o número da última operação do diário refletida no snapshot (0 nas versões sem diário).
+     *
+     * @return Número da última operação.
+     */
+    public long getUltimaOperacao() {
+        return this.ultimaOperacao;
+    }
+
+    /**
+     * Faz com que as referências a músicas sejam resolvidas num catálogo já existente.
+     *
+     * @param catalogo Lista de músicas do catálogo.
+     */
+    public void usarCatalogo(List<Musica> catalogo) {
+        this.catalogo = catalogo;
+    }
+
+    /**
+     * Faz com que as referências a utilizadores sejam lidas como emails e resolvidas num mapa de utilizadores.
+     *
+     * @param utilizadores Mapa de utilizadores, indexados pelo email.
+     */
+    public void usarUtilizadores(Map<String, Utilizador> utilizadores) {
+        this.utilizadoresPorEmail = utilizadores;
+    }
+
+    // ---------------------------------------------------------------- valores simples
+
+    /**
+     * Lê um byte.
+     *
+     * @return Byte lido.
+     * @throws EOFException Se o snapshot terminar antes do esperado.
+     */
+    private byte lerByte() throws EOFException {
+        if (!this.buffer.hasRemaining()) throw new EOFException("Snapshot truncado");
+        return this.buffer.get();
+    }
+
+    /**
+     * Lê um inteiro não negativo escrito em comprimento variável.
+     *
+     * @return Valor lido.
+     * @throws IOException Se o snapshot estiver truncado ou corrompido.
+     */
+    public long lerNatural() throws IOException {
+        long valor = 0;
+        for (int deslocamento = 0; deslocamento < 64; deslocamento += 7) {
+            byte b = lerByte();
+            valor |= (long) (b & 0x7F) << deslocamento;
+            if ((b & 0x80) == 0) return valor;
+        }
+        throw new IOException("Inteiro inválido no snapshot");
+    }
+
+    /**
+     * Lê um inteiro com sinal escrito em codificação zig-zag.
+     *
+     * @return Valor lido.
+     * @throws IOException Se o snapshot estiver truncado ou corrompido.
+     */
+    public long lerInteiro() throws IOException {
+        long valor = lerNatural();
+        return (valor >>> 1) ^ -(valor & 1);
+    }
+
+    /**
+     * Lê um número de elementos ou um id, validando que cabe num int.
+     *
+     * @return Valor lido.
+     * @throws IOException Se o snapshot estiver truncado ou corrompido.
+     */
+    private int lerTamanho() throws IOException {
+        long valor = lerNatural();
+        if (valor > Integer.MAX_VALUE) throw new IOException("Tamanho inválido no snapshot: " + valor);
+        return (int) valor;
+    }
+
+    /**
+     * Lê um valor lógico.
+     *
+     * @return Valor lido.
+     * @throws IOException Se o snapshot estiver truncado.
+     */
+    public boolean lerBooleano() throws IOException {
+        return lerByte() != 0;
+    }
+
+    /**
+     * Lê um texto internado.
+     *
+     * @return Texto lido (pode ser null).
+     * @throws IOException Se o snapshot estiver truncado ou corrompido.
+     */
+    public String lerTexto() throws IOException {
+        int ref = lerTamanho();
+        if (ref == EscritorSnapshot.REF_NULA) return null;
+        if (ref == EscritorSnapshot.REF_NOVA) {
+            int tamanho = lerTamanho();
+            if (tamanho > this.buffer.remaining()) throw new EOFException("Snapshot truncado");
+            byte[] bytes = new byte[tamanho];
+            this.buffer.get(bytes);
+            String texto = new String(bytes, StandardCharsets.UTF_8);
+            this.textos.add(texto);
+            return texto;
+        }
+        return obter(this.textos, ref - 2, "texto");
+    }
+
+    /**
+     * Lê uma lista de textos.
+     *
+     * @return Lista lida (pode ser null).
+     * @throws IOException Se o snapshot estiver truncado ou corrompido.
+     */
+    public ArrayList<String> lerListaTexto() throws IOException {
+        int tamanho = lerTamanho();
+        if (tamanho == 0) return null;
+        ArrayList<String> lista = new ArrayList<>();
+        for (int i = 1; i < tamanho; i++) {
+            lista.add(lerTexto());
+        }
+        return lista;
+    }
+
+    /**
+     * Lê uma data.
+     *
+     * @return Data lida (pode ser null).
+     * @throws IOException Se o snapshot estiver truncado ou corrompido.
+     */
+    public LocalDate lerData() throws IOException {
+        return lerBooleano() ? LocalDate.ofEpochDay(lerInteiro()) : null;
+    }
+
+    /**
+     * Lê um valor de enumeração.
+     *
+     * @param valores Valores possíveis da enumeração.
+     * @param <E>     Tipo da enumeração.
+     * @return Valor lido (pode ser null).
+     * @throws IOException Se o snapshot estiver truncado ou corrompido.
+     */
+    public <E extends Enum<E>> E lerEnum(E[] valores) throws IOException {
+        int codigo = lerTamanho();
+        return (codigo == 0) ? null : obter(List.of(valores), codigo - 1, "valor de enumeração");
+    }
+
+    // ---------------------------------------------------------------- entidades
+
+    /**
+     * Lê uma referência a um artista. Artistas com o mesmo nome e país são partilhados.
+     *
+     * @return Artista lido (pode ser null).
+     * @throws IOException Se o snapshot estiver truncado ou corrompido.
+     */
+    public Artista lerArtista() throws IOException {
+        int ref = lerTamanho();
+        if (ref == EscritorSnapshot.REF_NULA) return null;
+        if (ref == EscritorSnapshot.REF_NOVA) {
+            Artista artista = new Artista(lerTexto(), lerTexto());
+            this.artistas.add(artista);
+            return artista;
+        }
+        return obter(this.artistas, ref - 2, "artista");
+    }
+
+    /**
+     * Lê o mapa de artistas do sistema.
+     *
+     * @return Mapa de artistas, indexados pelo nome.
+     * @throws IOException Se o snapshot estiver truncado ou corrompido.
+     */
+    public HashMap<String, Artista> lerArtistas() throws IOException {
+        int tamanho = lerTamanho();
+        HashMap<String, Artista> artistas = new HashMap<>();
+        for (int i = 0; i < tamanho; i++) {
+            artistas.put(lerTexto(), lerArtista());
+        }
+        return artistas;
+    }
+
+    /**
+     * Lê o catálogo de músicas.
+     *
+     * @return Lista de músicas do catálogo.
+     * @throws IOException Se o snapshot estiver truncado ou corrompido.
+     */
+    public ArrayList<Musica> lerCatalogo() throws IOException {
+        int tamanho = lerTamanho();
+        ArrayList<Musica> catalogo = new ArrayList<>();
+        for (int i = 0; i < tamanho; i++) {
+            catalogo.add(lerDadosMusica());
+        }
+        this.catalogo = catalogo;
+        return catalogo;
+    }
+
+    /**
+     * Lê uma referência a uma música: a própria música do catálogo, uma cópia dela ou uma música escrita por extenso.
+     *
+     * @return Música lida (pode ser null).
+     * @throws IOException Se o snapshot estiver truncado ou corrompido.
+     */
+    public Musica lerMusica() throws IOException {
+        int tipo = lerTamanho();
+        switch (tipo) {
+            case EscritorSnapshot.MUSICA_NULA:
+                return null;
+            case EscritorSnapshot.MUSICA_CATALOGO:
+                return obter(this.catalogo, lerTamanho(), "música");
+            case EscritorSnapshot.MUSICA_COPIA:
+                Musica copia = obter(this.catalogo, lerTamanho(), "música").clone();
+                copia.setNumReproducoes((int) lerInteiro());
+                return copia;
+            case EscritorSnapshot.MUSICA_INLINE:
+                return lerDadosMusica();
+            default:
+                throw new IOException("Referência de música inválida no snapshot: " + tipo);
+        }
+    }
+
+    /**
+     * Lê uma lista de referências a músicas.
+     *
+     * @return Lista de músicas.
+     * @throws IOException Se o snapshot estiver truncado ou corrompido.
+     */
+    private ArrayList<Musica> lerMusicas() throws IOException {
+        int tamanho = lerTamanho();
+        ArrayList<Musica> musicas = new ArrayList<>();
+        for (int i = 0; i < tamanho; i++) {
+            musicas.add(lerMusica());
+        }
+        return musicas;
+    }
+
+    /**
+     * Lê todos os campos de uma música, escritos por {@link EscritorSnapshot#escreverDadosMusica(Musica)}.
+     *
+     * @return Música lida.
+     * @throws IOException Se o snapshot estiver truncado ou corrompido.
+     */
+    public Musica lerDadosMusica() throws IOException {
+        int tipo = lerTamanho();
+        String nome = lerTexto();
+        Artista interprete = lerArtista();
+        String editora = lerTexto();
+        List<String> letra = lerConteudo();
+        List<String> musica = lerConteudo();
+        Genero genero = lerEnum(Genero.values());
+        int duracao = (int) lerInteiro();
+        int reproducoes = (int) lerInteiro();
+
+        switch (tipo) {
+            case EscritorSnapshot.TIPO_MUSICA:
+                return new Musica(nome, interprete, editora, letra, musica, genero, duracao, reproducoes);
+            case EscritorSnapshot.TIPO_MUSICA_EXPLICITA:
+                return new MusicaExplicita(nome, interprete, editora, letra, musica, genero, duracao, reproducoes,
+                        lerTexto(), (int) lerInteiro());
+            case EscritorSnapshot.TIPO_MUSICA_MULTIMEDIA:
+                return new MusicaMultimedia(nome, interprete, editora, letra, musica, genero, duracao, reproducoes,
+                        lerTexto(), lerTexto());
+            default:
+                throw new IOException("Tipo de música inválido no snapshot: " + tipo);
+        }
+    }
+
+    /**
+     * Lê a letra ou a melodia de uma música. Num snapshot com segmento do catálogo, devolve uma vista
+     * sobre o segmento que só é descodificada quando for usada.
+     *
+     * @return Lista lida (pode ser null).
+     * @throws IOException Se o snapshot estiver truncado ou corrompido.
+     */
+    private List<String> lerConteudo() throws IOException {
+        if (this.conteudos == null) return lerListaTexto();
+        int tamanho = lerTamanho();
+        if (tamanho == 0) return null;
+        if (tamanho - 1 > this.conteudos.remaining()) throw new EOFException("Segmento do catálogo truncado");
+        ByteBuffer dados = this.conteudos.slice(this.conteudos.position(), tamanho - 1);
+        this.conteudos.position(this.conteudos.position() + tamanho - 1);
+        return new ListaTextoMapeada(dados, this.dicionario);
+    }
+
+    /**
+     * Lê os utilizadores do sistema, com bibliotecas vazias (preenchidas por {@link #lerBibliotecas()}).
+     *
+     * @return Mapa de utilizadores.
+     * @throws IOException Se o snapshot estiver truncado ou corrompido.
+     */
+    public HashMap<String, Utilizador> lerUtilizadores() throws IOException {
+        int tamanho = lerTamanho();
+        HashMap<String, Utilizador> utilizadores = new HashMap<>();
+        for (int i = 0; i < tamanho; i++) {
+            String chave = lerTexto();
+            Utilizador u = lerDadosUtilizador();
+            this.utilizadores.add(u);
+            utilizadores.put(chave, u);
+        }
+        return utilizadores;
+    }
+
+    /**
+     * Lê os campos de um utilizador, com a biblioteca vazia.
+     *
+     * @return Utilizador lido.
+     * @throws IOException Se o snapshot estiver truncado ou corrompido.
+     */
+    public Utilizador lerDadosUtilizador() throws IOException {
+        String nome = lerTexto();
+        String email = lerTexto();
+        String morada = lerTexto();
+        String password = lerTexto();
+        int pontos = (int) lerInteiro();
+        PlanoSubscricao plano = lerPlano();
+        Cargo cargo = lerEnum(Cargo.values());
+        return new Utilizador(nome, email, morada, password, pontos, plano, cargo, null);
+    }
+
+    /**
+     * Lê uma referência a um utilizador.
+     *
+     * @return Utilizador lido (pode ser null).
+     * @throws IOException Se o snapshot estiver truncado ou corrompido.
+     */
+    public Utilizador lerUtilizador() throws IOException {
+        if (this.utilizadoresPorEmail != null) {
+            String email = lerTexto();
+            return (email == null) ? null : this.utilizadoresPorEmail.get(email);
+        }
+        int ref = lerTamanho();
+        return (ref == 0) ? null : obter(this.utilizadores, ref - 1, "utilizador");
+    }
+
+    /**
+     * Lê um plano de subscrição.
+     *
+     * @return Plano lido (pode ser null).
+     * @throws IOException Se o snapshot estiver truncado ou corrompido.
+     */
+    private PlanoSubscricao lerPlano() throws IOException {
+        int codigo = lerTamanho();
+        switch (codigo) {
+            case 0:
+                return null;
+            case 1:
+                return new PlanoFree();
+            case 2:
+                return new PlanoPremiumBase();
+            case 3:
+                return new PlanoPremiumTop();
+            default:
+                throw new IOException("Plano inválido no snapshot: " + codigo);
+        }
+    }
+
+    /**
+     * Lê os álbuns do sistema.
+     *
+     * @return Lista de álbuns.
+     * @throws IOException Se o snapshot estiver truncado ou corrompido.
+     */
+    public ArrayList<Album> lerAlbuns() throws IOException {
+        int tamanho = lerTamanho();
+        ArrayList<Album> albuns = new ArrayList<>();
+        for (int i = 0; i < tamanho; i++) {
+            albuns.add(lerAlbum());
+        }
+        return albuns;
+    }
+
+    /**
+     * Lê os campos de um álbum.
+     *
+     * @return Álbum lido.
+     * @throws IOException Se o snapshot estiver truncado ou corrompido.
+     */
+    public Album lerAlbum() throws IOException {
+        return new Album(lerTexto(), lerData(), lerArtista(), lerMusicas());
+    }
+
+    /**
+     * Lê as playlists do sistema.
+     *
+     * @return Lista de playlists.
+     * @throws IOException Se o snapshot estiver truncado ou corrompido.
+     */
+    public ArrayList<Playlist> lerPlaylists() throws IOException {
+        int tamanho = lerTamanho();
+        ArrayList<Playlist> playlists = new ArrayList<>();
+        for (int i = 0; i < tamanho; i++) {
+            playlists.add(lerPlaylist());
+        }
+        return playlists;
+    }
+
+    /**
+     * Lê os campos de uma playlist.
+     *
+     * @return Playlist lida.
+     * @throws IOException Se o snapshot estiver truncado ou corrompido.
+     */
+    public Playlist lerPlaylist() throws IOException {
+        int tipo = lerTamanho();
+        String nome = lerTexto();
+        Utilizador utilizador = lerUtilizador();
+        LocalDate data = lerData();
+        boolean publica = lerBooleano();
+        ArrayList<Musica> musicas = lerMusicas();
+
+        switch (tipo) {
+            case EscritorSnapshot.TIPO_PLAYLIST_ALEATORIA:
+                return new PlaylistAleatoria(nome, utilizador, data, publica, musicas);
+            case EscritorSnapshot.TIPO_PLAYLIST_CONSTRUIDA:
+                PlaylistConstruida construida = new PlaylistConstruida(nome, utilizador, data, publica, musicas);
+                construida.setIndiceAtual((int) lerInteiro());
+                construida.setAleatorio(lerBooleano());
+                return construida;
+            case EscritorSnapshot.TIPO_PLAYLIST_FAVORITOS:
+                return new PlaylistFavoritos(nome, utilizador, data, publica, musicas);
+            case EscritorSnapshot.TIPO_PLAYLIST_GENERO:
+                return new PlaylistGenero(nome, utilizador, data, publica, musicas,
+                        lerEnum(Genero.values()), (int) lerInteiro());
+            default:
+                throw new IOException("Tipo de playlist inválido no snapshot: " + tipo);
+        }
+    }
+
+    /**
+     * Lê as bibliotecas dos utilizadores, pela ordem de {@link #lerUtilizadores()}.
+     *
+     * @throws IOException Se o snapshot estiver truncado ou corrompido.
+     */
+    public void lerBibliotecas() throws IOException {
+        for (Utilizador u : this.utilizadores) {
+            int playlists = lerTamanho();
+            for (int i = 0; i < playlists; i++) {
+                u.adicionarPlaylist(lerPlaylist());
+            }
+            int albuns = lerTamanho();
+            for (int i = 0; i < albuns; i++) {
+                u.adicionarAlbum(lerAlbum());
+            }
+        }
+    }
+
+    /**
+     * Lê o histórico de reproduções.
+     *
+     * @return Histórico de reproduções.
+     * @throws IOException Se o snapshot estiver truncado ou corrompido.
+     */
+    public RegistoReproducoes lerReproducoes() throws IOException {
+        int tamanho = lerTamanho();
+        RegistoReproducoes registo = new RegistoReproducoes();
+        long instante = 0;
+        for (int i = 0; i < tamanho; i++) {
+            int utilizador = lerTamanho();
+            int musica = lerTamanho();
+            instante += lerInteiro();
+            registo.adicionar(utilizador, musica, instante);
+        }
+        return registo;
+    }
+
+    /**
+     * Lê o índice de pesquisa, sobre o catálogo do modelo lido.
+     *
+     * @param catalogo Lista de músicas do catálogo, onde o índice resolve os ids.
+     * @return Índice de pesquisa, ou null se o snapshot for de uma versão que não o guarda.
+     * @throws IOException Se o snapshot estiver truncado ou corrompido.
+     */
+    public IndicePesquisa lerIndicePesquisa(List<Musica> catalogo) throws IOException {
+        if (this.versao < 5) return null;
+        int documentos = lerTamanho();
+        if (documentos > catalogo.size()) throw new IOException("Índice de pesquisa com músicas fora do catálogo");
+        int[] comprimentos = new int[documentos];
+        for (int id = 0; id < documentos; id++) {
+            comprimentos[id] = lerTamanho();
+        }
+        int numeroTermos = lerTamanho();
+        TreeMap<String, ListaOcorrencias> termos = new TreeMap<>();
+        int[] posicoes = new int[16];
+        for (int t = 0; t < numeroTermos; t++) {
+            String termo = lerTexto();
+            int tamanho = lerTamanho();
+            ListaOcorrencias lista = new ListaOcorrencias();
+            int documento = -1;
+            for (int i = 0; i < tamanho; i++) {
+                int diferenca = lerTamanho();
+                if (diferenca < 1 || diferenca >= documentos - documento) {
+                    throw new IOException("Lista de ocorrências inválida no snapshot: " + termo);
+                }
+                documento += diferenca;
+                int frequencia = lerTamanho();
+                int numero = lerTamanho();
+                if (numero > posicoes.length) posicoes = new int[Math.max(numero, posicoes.length * 2)];
+                int posicao = -1;
+                for (int j = 0; j < numero; j++) {
+                    posicao += lerTamanho();
+                    posicoes[j] = posicao;
+                }
+                lista.acrescentar(documento, frequencia, comprimentos[documento], posicoes, numero);
+            }
+            lista.compactar();
+            termos.put(termo, lista);
+        }
+        return new IndicePesquisa(catalogo, comprimentos, termos);
+    }
+
+    /**
+     * Verifica se todo o snapshot foi lido.
+     *
+     * @throws IOException Se sobrarem bytes por ler.
+     */
+    public void terminar() throws IOException {
+        if (this.buffer.hasRemaining()) {
+            throw new IOException("Snapshot com " + this.buffer.remaining() + " bytes inesperados no fim");
+        }
+        if (this.conteudos != null && this.conteudos.hasRemaining()) {
+            throw new IOException("Segmento do catálogo com " + this.conteudos.remaining() + " bytes inesperados no fim");
+        }
+    }
+
+    /**
+     * Obtém um elemento já lido a partir do seu id.
+     *
+     * @param lista Elementos já lidos.
+     * @param id    Id do elemento.
+     * @param tipo  Descrição do tipo de elemento, para a mensagem de erro.
+     * @param <T>   Tipo dos elementos.
+     * @return Elemento com esse id.
+     * @throws IOException Se o id não existir.
+     */
+    private static <T> T obter(List<T> lista, int id, String tipo) throws IOException {
+        if (id < 0 || id >= lista.size()) throw new IOException("Referência de " + tipo + " inválida no snapshot: " + id);
+        return lista.get(id);
+    }
+}
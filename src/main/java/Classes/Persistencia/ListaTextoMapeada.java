@@ -0,0 +1,232 @@
+package Classes.Persistencia;
+
+import Classes.Musicas.LinhasInternadas;
+import Classes.Musicas.ListaLinhas;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Lista de textos (letra ou melodia de uma música) guardada no segmento do catálogo, mapeado em memória.
+ *
+ * Até ao primeiro acesso a lista é apenas uma vista sobre os bytes do segmento: as linhas só são
+ * descodificadas quando alguém as lê (por exemplo, ao reproduzir a música), ficando depois em memória como uma
+ * {@link ListaLinhas}, isto é, como ids no dicionário global. Ao gravar um novo snapshot, os ids das linhas são
+ * traduzidos para o dicionário do novo segmento sem descodificar o texto.
+ *
+ * Formato (versão 4): número de linhas e, para cada linha, o seu id no {@link DicionarioSegmento} mais um (0 para null),
+ * com os inteiros em comprimento variável. Nos segmentos da versão 3, que não têm dicionário, cada linha é guardada
+ * por extenso: o tamanho em bytes mais um (0 para null) seguido do texto em UTF-8.
+ *
+ * A lista não pode ser alterada.
+ */
+public class ListaTextoMapeada extends AbstractList<String> implements LinhasInternadas, RandomAccess, Serializable {
+
+    private final transient ByteBuffer dados;
+    private final transient DicionarioSegmento dicionario;
+    private transient volatile List<String> linhas;
+
+    /**
+     * Cria uma lista sobre os bytes de um segmento da versão 3, com as linhas por extenso.
+     *
+     * @param dados Bytes da lista (só a lista, de posição 0 até ao limite).
+     */
+    ListaTextoMapeada(ByteBuffer dados) {
+        this(dados, null);
+    }
+
+    /**
+     * Cria uma lista sobre os bytes de um segmento.
+     *
+     * @param dados       Bytes da lista (só a lista, de posição 0 até ao limite).
+     * @param dicionario  Dicionário de linhas do segmento, ou null num segmento da versão 3.
+     */
+    ListaTextoMapeada(ByteBuffer dados, DicionarioSegmento dicionario) {
+        this.dados = dados;
+        this.dicionario = dicionario;
+        this.linhas = null;
+    }
+
+    /**
+     * Devolve as linhas, descodificando-as no primeiro acesso.
+     *
+     * @return Linhas da lista.
+     * @throws UncheckedIOException Se os bytes do segmento estiverem corrompidos.
+     */
+    private List<String> linhas() {
+        List<String> resultado = this.linhas;
+        if (resultado == null) {
+            try {
+                resultado = descodificar();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Segmento do catálogo corrompido", e);
+            }
+            this.linhas = resultado;
+        }
+        return resultado;
+    }
+
+    /**
+     * Descodifica a lista, internando as linhas no dicionário global.
+     *
+     * @return Lista descodificada.
+     * @throws IOException Se os bytes estiverem truncados ou corrompidos.
+     */
+    private List<String> descodificar() throws IOException {
+        if (this.dicionario == null) {
+            ByteBuffer[] bytes = getBytesLinhas();
+            String[] textos = new String[bytes.length];
+            for (int i = 0; i < bytes.length; i++) {
+                if (bytes[i] != null) textos[i] = StandardCharsets.UTF_8.decode(bytes[i]).toString();
+            }
+            return ListaLinhas.de(Arrays.asList(textos));
+        }
+        int[] ids = getIdsSegmento();
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] >= 0) ids[i] = this.dicionario.getIdGlobal(ids[i]);
+        }
+        return new ListaLinhas(ids);
+    }
+
+    @Override
+    public String get(int indice) {
+        return linhas().get(indice);
+    }
+
+    @Override
+    public int size() {
+        return linhas().size();
+    }
+
+    /**
+     * Indica se as linhas já foram descodificadas.
+     *
+     * @return true se a lista já foi lida.
+     */
+    boolean isDescodificada() {
+        return this.linhas != null;
+    }
+
+    /**
+     * Devolve o dicionário do segmento a que a lista pertence.
+     *
+     * @return Dicionário do segmento, ou null num segmento da versão 3.
+     */
+    DicionarioSegmento getDicionario() {
+        return this.dicionario;
+    }
+
+    /**
+     * Lê os ids das linhas no dicionário do segmento, sem descodificar o texto (só na versão 4).
+     *
+     * @return Ids das linhas, pela ordem da lista (-1 para linhas null).
+     * @throws IOException Se os bytes estiverem truncados ou corrompidos.
+     */
+    int[] getIdsSegmento() throws IOException {
+        ByteBuffer buffer = this.dados.duplicate();
+        int tamanho = lerNatural(buffer);
+        if (tamanho > buffer.remaining()) throw new EOFException("Segmento do catálogo truncado");
+        int[] ids = new int[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            ids[i] = lerNatural(buffer) - 1;
+        }
+        return ids;
+    }
+
+    /**
+     * Devolve os bytes (UTF-8) de cada linha, sem descodificar o texto (só na versão 3).
+     *
+     * @return Vistas sobre os bytes das linhas, pela ordem da lista (null para linhas null).
+     * @throws IOException Se os bytes estiverem truncados ou corrompidos.
+     */
+    ByteBuffer[] getBytesLinhas() throws IOException {
+        ByteBuffer buffer = this.dados.duplicate();
+        int tamanho = lerNatural(buffer);
+        if (tamanho > buffer.remaining()) throw new EOFException("Segmento do catálogo truncado");
+        ByteBuffer[] linhas = new ByteBuffer[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            int ref = lerNatural(buffer);
+            if (ref == 0) continue;
+            if (ref - 1 > buffer.remaining()) throw new EOFException("Segmento do catálogo truncado");
+            linhas[i] = buffer.slice(buffer.position(), ref - 1).asReadOnlyBuffer();
+            buffer.position(buffer.position() + ref - 1);
+        }
+        return linhas;
+    }
+
+    /**
+     * Codifica uma lista de textos no formato da versão 3, com as linhas por extenso.
+     *
+     * @param linhas Lista a codificar.
+     * @return Buffer com os bytes da lista, pronto a ler.
+     */
+    static ByteBuffer codificar(List<String> linhas) {
+        List<byte[]> bytes = new ArrayList<>(linhas.size());
+        int tamanho = 10;
+        for (String linha : linhas) {
+            byte[] b = (linha == null) ? null : linha.getBytes(StandardCharsets.UTF_8);
+            bytes.add(b);
+            tamanho += 5 + ((b == null) ? 0 : b.length);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(tamanho);
+        escreverNatural(buffer, linhas.size());
+        for (byte[] b : bytes) {
+            escreverNatural(buffer, (b == null) ? 0 : b.length + 1);
+            if (b != null) buffer.put(b);
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Escreve um inteiro não negativo em comprimento variável.
+     *
+     * @param buffer Buffer de destino.
+     * @param valor  Valor a escrever.
+     */
+    static void escreverNatural(ByteBuffer buffer, int valor) {
+        while ((valor & ~0x7F) != 0) {
+            buffer.put((byte) ((valor & 0x7F) | 0x80));
+            valor >>>= 7;
+        }
+        buffer.put((byte) valor);
+    }
+
+    /**
+     * Lê um inteiro não negativo escrito em comprimento variável.
+     *
+     * @param buffer Buffer de origem.
+     * @return Valor lido.
+     * @throws IOException Se o valor estiver truncado ou não couber num int.
+     */
+    static int lerNatural(ByteBuffer buffer) throws IOException {
+        int valor = 0;
+        for (int deslocamento = 0; deslocamento < 32; deslocamento += 7) {
+            if (!buffer.hasRemaining()) throw new EOFException("Segmento do catálogo truncado");
+            byte b = buffer.get();
+            valor |= (b & 0x7F) << deslocamento;
+            if ((b & 0x80) == 0) {
+                if (valor < 0) break;
+                return valor;
+            }
+        }
+        throw new IOException("Inteiro inválido no segmento do catálogo");
+    }
+
+    /**
+     * Ao serializar, a lista é substituída por uma cópia normal.
+     *
+     * @return Cópia da lista.
+     */
+    private Object writeReplace() {
+        return new ArrayList<>(this);
+    }
+}
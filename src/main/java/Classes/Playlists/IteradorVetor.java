@@ -0,0 +1,50 @@
+package Classes.Playlists;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterador sobre os elementos de um {@link VetorPersistente}, por ordem.
+ * Percorre a árvore com uma pilha, pelo que percorrer o vetor inteiro custa O(n).
+ *
+ * @param <T> Tipo dos elementos.
+ */
+class IteradorVetor<T> implements Iterator<T> {
+    private final ArrayDeque<NoVetor<T>> pendentes;
+
+    /**
+     * Construtor parametrizado.
+     *
+     * @param raiz Raiz da árvore a percorrer (pode ser null).
+     */
+    IteradorVetor(NoVetor<T> raiz) {
+        this.pendentes = new ArrayDeque<>();
+        descer(raiz);
+    }
+
+    /**
+     * Empilha o nó e todos os seus descendentes mais à esquerda.
+     *
+     * @param no Nó de partida (pode ser null).
+     */
+    private void descer(NoVetor<T> no) {
+        while (no != null) {
+            this.pendentes.push(no);
+            no = no.esquerda;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !this.pendentes.isEmpty();
+    }
+
+    @Override
+    public T next() {
+        if (this.pendentes.isEmpty()) throw new NoSuchElementException();
+        NoVetor<T> no = this.pendentes.pop();
+        descer(no.direita);
+        return no.valor;
+    }
+}
@@ -0,0 +1,53 @@
+package Classes.Playlists;
+
+import java.io.Serializable;
+
+/**
+ * Nó imutável da árvore de um {@link VetorPersistente}.
+ * Cada nó guarda um elemento, as subárvores à esquerda (elementos anteriores) e à direita (elementos seguintes),
+ * o número de elementos da subárvore e a sua altura.
+ *
+ * @param <T> Tipo dos elementos.
+ */
+class NoVetor<T> implements Serializable {
+    final NoVetor<T> esquerda;
+    final T valor;
+    final NoVetor<T> direita;
+    final int tamanho;
+    final int altura;
+
+    /**
+     * Construtor parametrizado. O tamanho e a altura são calculados a partir das subárvores.
+     *
+     * @param esquerda Subárvore com os elementos anteriores (pode ser null).
+     * @param valor    Elemento do nó.
+     * @param direita  Subárvore com os elementos seguintes (pode ser null).
+     */
+    NoVetor(NoVetor<T> esquerda, T valor, NoVetor<T> direita) {
+        this.esquerda = esquerda;
+        this.valor = valor;
+        this.direita = direita;
+        this.tamanho = tamanho(esquerda) + 1 + tamanho(direita);
+        this.altura = Math.max(altura(esquerda), altura(direita)) + 1;
+    }
+
+    /**
+     * Devolve o número de elementos de uma subárvore.
+     *
+     * @param no Raiz da subárvore (pode ser null).
+     * @return Número de elementos.
+     */
+    static int tamanho(NoVetor<?> no) {
+        return (no == null) ? 0 : no.tamanho;
+    }
+
+    /**
+     * Devolve a altura de uma subárvore.
+     *
+     * @param no Raiz da subárvore (pode ser null).
+     * @return Altura (0 para uma subárvore vazia).
+     */
+    static int altura(NoVetor<?> no) {
+        return (no == null) ? 0 : no.altura;
+    }
+}
@@ -12,6 +12,10 @@ import java.util.ArrayList;
  * Contém informações como nome, utilizador proprietário, data de criação,
  * visibilidade (pública ou privada) e a lista de músicas.
  *
+ * As músicas são guardadas num {@link VetorPersistente}: copiar uma playlist partilha a lista,
+ * e adicionar ou remover uma música custa O(log n), sem copiar as restantes.
+ * As músicas em si também não são copiadas: são as do catálogo, partilhadas por todas as playlists.
+ *
  * Esta classe implementa Serializable para permitir a sua serialização.
  */
 public abstract class Playlist implements Serializable {
@@ -19,7 +23,7 @@ public abstract class Playlist implements Serializable {
     private Utilizador utilizador;
     private LocalDate dataCriacao;
     private boolean publica;
-    private ArrayList<Musica> listaMusicas;
+    private VetorPersistente<Musica> listaMusicas;
 
     /**
      * Construtor por omissão.
@@ -30,7 +34,7 @@ public abstract class Playlist implements Serializable {
         this.utilizador = null;
         this.dataCriacao = null;
         this.publica = false;
-        this.listaMusicas = new ArrayList<>();
+        this.listaMusicas = new VetorPersistente<>();
     }
 
     /**
@@ -48,7 +52,7 @@ public abstract class Playlist implements Serializable {
         this.utilizador = utilizador;
         this.dataCriacao = dataCriacao;
         this.publica = publica;
-        this.listaMusicas = listaMusicas; // CLONE ANTES DO CONSTRUTOR
+        this.listaMusicas = VetorPersistente.de(listaMusicas); // copia as referências; as músicas não são clonadas
     }
 
     /**
@@ -61,7 +65,7 @@ public abstract class Playlist implements Serializable {
         this.utilizador = playlist.getUtilizador();
         this.dataCriacao = playlist.getDataCriacao();
         this.publica = playlist.getPublica();
-        this.listaMusicas = playlist.getListaMusicas();
+        this.listaMusicas = playlist.listaMusicas;
     }
 
     /**
@@ -142,24 +146,16 @@ public abstract class Playlist implements Serializable {
      * @return Lista de músicas (referências).
      */
     public ArrayList<Musica> getListaMusicas() {
-        ArrayList<Musica> listaMusicas = new ArrayList<>();
-        for(Musica musica : this.listaMusicas){
-            listaMusicas.add(musica);
-        }
-        return listaMusicas;
+        return new ArrayList<>(this.listaMusicas);
     }
 
     /**
-     * Define a lista de músicas da playlist com cópias das músicas.
+     * Define a lista de músicas da playlist.
      *
-     * @param listaMusicas Lista de músicas a copiar.
+     * @param listaMusicas Lista de músicas.
      */
     public void setListaMusicas(ArrayList<Musica> listaMusicas) {
-        ArrayList<Musica> newListaMusicas = new ArrayList<>();
-        for(Musica musica : listaMusicas){
-            newListaMusicas.add(musica.clone());
-        }
-        this.listaMusicas = newListaMusicas;
+        this.listaMusicas = VetorPersistente.de(listaMusicas);
     }
 
     public abstract String toString();
@@ -173,7 +169,7 @@ public abstract class Playlist implements Serializable {
      */
     public void reproduzir(){
         for(Musica musica : this.listaMusicas){
-            musica.reproduzir();
+            musica.contarReproducao();
         }
     }
 
@@ -183,9 +179,7 @@ public abstract class Playlist implements Serializable {
      * @param musica Música a adicionar.
      */
     public void adicionarMusica(Musica musica){
-        ArrayList<Musica> musicas = this.getListaMusicas();
-        musicas.add(musica.clone());
-        this.setListaMusicas(musicas);
+        this.listaMusicas = this.listaMusicas.acrescentar(musica);
     }
 
     /**
@@ -194,9 +188,7 @@ public abstract class Playlist implements Serializable {
      * @param musica Música a remover.
      */
     public void removerMusica(Musica musica){
-        ArrayList<Musica> musicas = this.getListaMusicas();
-        musicas.remove(musica);
-        this.setListaMusicas(musicas);
+        this.listaMusicas = this.listaMusicas.semElemento(musica);
     }
 
     /**
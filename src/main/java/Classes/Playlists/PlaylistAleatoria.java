@@ -101,7 +101,7 @@ public class PlaylistAleatoria extends Playlist implements Serializable {
     public void reproduzir(){
         ArrayList<Musica> playlist = this.embaralhar();
         for(Musica musica : playlist){
-            musica.reproduzir();
+            musica.contarReproducao();
         }
     }
 
@@ -0,0 +1,223 @@
+package Classes.Playlists;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Lista imutável com partilha de estrutura, usada para as músicas de uma playlist.
+ *
+ * Os elementos ficam numa árvore AVL ordenada pela posição. Acrescentar, inserir ou remover um elemento não altera
+ * o vetor: devolve um vetor novo que partilha com o original todos os nós exceto os O(log n) do caminho alterado.
+ * Assim, copiar o vetor é O(1) (basta partilhar a raiz) e as alterações custam O(log n), tal como o acesso por
+ * posição.
+ *
+ * Não implementa {@link java.util.RandomAccess}, porque {@link #get(int)} é O(log n): os algoritmos genéricos
+ * devem percorrer o vetor com o iterador, que é O(1) amortizado por elemento.
+ *
+ * Os métodos de alteração de {@link java.util.List} não são suportados.
+ *
+ * @param <T> Tipo dos elementos.
+ */
+public class VetorPersistente<T> extends AbstractList<T> implements Serializable {
+    private final NoVetor<T> raiz;
+
+    /**
+     * Construtor por omissão. Cria um vetor vazio.
+     */
+    public VetorPersistente() {
+        this.raiz = null;
+    }
+
+    /**
+     * Cria um vetor a partir da raiz de uma árvore.
+     *
+     * @param raiz Raiz da árvore (pode ser null).
+     */
+    private VetorPersistente(NoVetor<T> raiz) {
+        this.raiz = raiz;
+    }
+
+    /**
+     * Cria um vetor com os elementos de uma lista, pela mesma ordem. Os elementos não são copiados.
+     *
+     * @param lista Lista de origem.
+     * @param <T>   Tipo dos elementos.
+     * @return Vetor com os elementos da lista.
+     */
+    public static <T> VetorPersistente<T> de(List<? extends T> lista) {
+        return new VetorPersistente<>(construir(lista, 0, lista.size()));
+    }
+
+    @Override
+    public T get(int indice) {
+        if (indice < 0 || indice >= size()) throw new IndexOutOfBoundsException(indice);
+        NoVetor<T> no = this.raiz;
+        while (true) {
+            int esquerda = NoVetor.tamanho(no.esquerda);
+            if (indice < esquerda) {
+                no = no.esquerda;
+            } else if (indice > esquerda) {
+                indice -= esquerda + 1;
+                no = no.direita;
+            } else {
+                return no.valor;
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return NoVetor.tamanho(this.raiz);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new IteradorVetor<>(this.raiz);
+    }
+
+    /**
+     * Devolve a altura da árvore.
+     *
+     * @return Altura (0 para um vetor vazio).
+     */
+    int altura() {
+        return NoVetor.altura(this.raiz);
+    }
+
+    /**
+     * Devolve um vetor com um elemento acrescentado no fim.
+     *
+     * @param elemento Elemento a acrescentar.
+     * @return Novo vetor.
+     */
+    public VetorPersistente<T> acrescentar(T elemento) {
+        return inserir(size(), elemento);
+    }
+
+    /**
+     * Devolve um vetor com um elemento inserido numa posição.
+     *
+     * @param indice   Posição do novo elemento (de 0 ao tamanho do vetor).
+     * @param elemento Elemento a inserir.
+     * @return Novo vetor.
+     * @throws IndexOutOfBoundsException Se a posição for inválida.
+     */
+    public VetorPersistente<T> inserir(int indice, T elemento) {
+        if (indice < 0 || indice > size()) throw new IndexOutOfBoundsException(indice);
+        return new VetorPersistente<>(inserir(this.raiz, indice, elemento));
+    }
+
+    /**
+     * Devolve um vetor sem o elemento de uma posição.
+     *
+     * @param indice Posição do elemento a remover.
+     * @return Novo vetor.
+     * @throws IndexOutOfBoundsException Se a posição for inválida.
+     */
+    public VetorPersistente<T> semPosicao(int indice) {
+        if (indice < 0 || indice >= size()) throw new IndexOutOfBoundsException(indice);
+        return new VetorPersistente<>(remover(this.raiz, indice));
+    }
+
+    /**
+     * Devolve um vetor sem a primeira ocorrência de um elemento (comparado com equals).
+     *
+     * @param elemento Elemento a remover.
+     * @return Novo vetor, ou este vetor se o elemento não existir.
+     */
+    public VetorPersistente<T> semElemento(Object elemento) {
+        int indice = indexOf(elemento);
+        return (indice < 0) ? this : semPosicao(indice);
+    }
+
+    /**
+     * Constrói uma árvore equilibrada com os elementos [de, ate) de uma lista.
+     *
+     * @param lista Lista de origem.
+     * @param de    Primeira posição (inclusiva).
+     * @param ate   Última posição (exclusiva).
+     * @param <T>   Tipo dos elementos.
+     * @return Raiz da árvore (null se o intervalo for vazio).
+     */
+    private static <T> NoVetor<T> construir(List<? extends T> lista, int de, int ate) {
+        if (de >= ate) return null;
+        int meio = (de + ate) >>> 1;
+        return new NoVetor<>(construir(lista, de, meio), lista.get(meio), construir(lista, meio + 1, ate));
+    }
+
+    /**
+     * Insere um elemento numa subárvore, copiando apenas os nós do caminho.
+     *
+     * @param no       Raiz da subárvore.
+     * @param indice   Posição do novo elemento na subárvore.
+     * @param elemento Elemento a inserir.
+     * @param <T>      Tipo dos elementos.
+     * @return Raiz da nova subárvore.
+     */
+    private static <T> NoVetor<T> inserir(NoVetor<T> no, int indice, T elemento) {
+        if (no == null) return new NoVetor<>(null, elemento, null);
+        int esquerda = NoVetor.tamanho(no.esquerda);
+        if (indice <= esquerda) {
+            return equilibrar(inserir(no.esquerda, indice, elemento), no.valor, no.direita);
+        }
+        return equilibrar(no.esquerda, no.valor, inserir(no.direita, indice - esquerda - 1, elemento));
+    }
+
+    /**
+     * Remove o elemento de uma posição de uma subárvore, copiando apenas os nós do caminho.
+     *
+     * @param no     Raiz da subárvore.
+     * @param indice Posição do elemento na subárvore.
+     * @param <T>    Tipo dos elementos.
+     * @return Raiz da nova subárvore (null se ficar vazia).
+     */
+    private static <T> NoVetor<T> remover(NoVetor<T> no, int indice) {
+        int esquerda = NoVetor.tamanho(no.esquerda);
+        if (indice < esquerda) {
+            return equilibrar(remover(no.esquerda, indice), no.valor, no.direita);
+        }
+        if (indice > esquerda) {
+            return equilibrar(no.esquerda, no.valor, remover(no.direita, indice - esquerda - 1));
+        }
+        if (no.esquerda == null) return no.direita;
+        if (no.direita == null) return no.esquerda;
+        NoVetor<T> primeiro = no.direita;
+        while (primeiro.esquerda != null) {
+            primeiro = primeiro.esquerda;
+        }
+        return equilibrar(no.esquerda, primeiro.valor, remover(no.direita, 0));
+    }
+
+    /**
+     * Cria um nó a partir de duas subárvores cujas alturas diferem no máximo em 2, fazendo as rotações necessárias
+     * para que a árvore fique equilibrada.
+     *
+     * @param esquerda Subárvore esquerda.
+     * @param valor    Elemento do nó.
+     * @param direita  Subárvore direita.
+     * @param <T>      Tipo dos elementos.
+     * @return Raiz da subárvore equilibrada.
+     */
+    private static <T> NoVetor<T> equilibrar(NoVetor<T> esquerda, T valor, NoVetor<T> direita) {
+        int diferenca = NoVetor.altura(esquerda) - NoVetor.altura(direita);
+        if (diferenca > 1) {
+            if (NoVetor.altura(esquerda.esquerda) >= NoVetor.altura(esquerda.direita)) {
+                return new NoVetor<>(esquerda.esquerda, esquerda.valor, new NoVetor<>(esquerda.direita, valor, direita));
+            }
+            NoVetor<T> meio = esquerda.direita;
+            return new NoVetor<>(new NoVetor<>(esquerda.esquerda, esquerda.valor, meio.esquerda), meio.valor,
+                    new NoVetor<>(meio.direita, valor, direita));
+        }
+        if (diferenca < -1) {
+            if (NoVetor.altura(direita.direita) >= NoVetor.altura(direita.esquerda)) {
+                return new NoVetor<>(new NoVetor<>(esquerda, valor, direita.esquerda), direita.valor, direita.direita);
+            }
+            NoVetor<T> meio = direita.esquerda;
+            return new NoVetor<>(new NoVetor<>(esquerda, valor, meio.esquerda), meio.valor,
+                    new NoVetor<>(meio.direita, direita.valor, direita.direita));
+        }
+        return new NoVetor<>(esquerda, valor, direita);
+    }
+}
@@ -0,0 +1,343 @@
+package Classes.Recomendacoes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Motor de recomendações item a item por co-audição: para cada música guarda as {@link #VIZINHOS} músicas mais
+ * ouvidas nas mesmas sessões (ver {@link SessoesAudicao}), pela semelhança do cosseno entre os conjuntos de sessões
+ * de cada uma, c / sqrt(n1 * n2), em que c é o número de sessões com as duas músicas e n1 e n2 os números de
+ * sessões de cada uma. As músicas que nunca foram ouvidas juntas não têm semelhança nenhuma, pelo que a matriz de
+ * co-ocorrências é esparsa e nunca é guardada inteira.
+ *
+ * A tabela é imutável e é construída de uma só vez ({@link #construir(SessoesAudicao, int, int, ForkJoinPool)}):
+ * as músicas são repartidas por tarefas de fork-join com trabalho parecido, e cada tarefa conta as co-ocorrências
+ * das suas músicas percorrendo as sessões de cada uma. Recomendar é só juntar as listas de vizinhos das músicas de
+ * partida, sem percorrer o catálogo nem o histórico.
+ */
+public class MotorRecomendacoes {
+
+    /**
+     * Número de vizinhos guardados por música.
+     */
+    public static final int VIZINHOS = 50;
+
+    /**
+     * Início dos vizinhos de cada música (com o fim dos da última no fim).
+     */
+    private final int[] inicios;
+    /**
+     * Vizinhos de cada música, do mais semelhante para o menos semelhante.
+     */
+    private final int[] vizinhos;
+    private final float[] semelhancas;
+    private final int numeroReproducoes;
+
+    /**
+     * Construtor com parâmetros.
+     *
+     * @param inicios           Início dos vizinhos de cada música, seguido do fim dos da última.
+     * @param vizinhos          Vizinhos de todas as músicas, música a música.
+     * @param semelhancas       Semelhança de cada vizinho.
+     * @param numeroReproducoes Número de reproduções do histórico de onde a tabela foi construída.
+     */
+    private MotorRecomendacoes(int[] inicios, int[] vizinhos, float[] semelhancas, int numeroReproducoes) {
+        this.inicios = inicios;
+        this.vizinhos = vizinhos;
+        this.semelhancas = semelhancas;
+        this.numeroReproducoes = numeroReproducoes;
+    }
+
+    /**
+     * Constrói a tabela de vizinhos a partir das sessões de audição.
+     *
+     * @param sessoes            Sessões de audição.
+     * @param numeroMusicas      Número de músicas do catálogo (os ids das sessões são menores).
+     * @param vizinhosPorMusica  Número máximo de vizinhos guardados por música.
+     * @param pool               Pool onde a construção é repartida.
+     * @return Motor construído.
+     */
+    public static MotorRecomendacoes construir(SessoesAudicao sessoes, int numeroMusicas, int vizinhosPorMusica,
+                                               ForkJoinPool pool) {
+        // índice invertido: as sessões de cada música
+        int[] inicioSessoes = new int[numeroMusicas + 1];
+        for (int s = 0; s < sessoes.tamanho(); s++) {
+            for (int k = 0; k < sessoes.getNumeroMusicas(s); k++) {
+                inicioSessoes[sessoes.getMusica(s, k) + 1]++;
+            }
+        }
+        for (int m = 0; m < numeroMusicas; m++) {
+            inicioSessoes[m + 1] += inicioSessoes[m];
+        }
+        int[] proxima = Arrays.copyOf(inicioSessoes, numeroMusicas);
+        int[] sessoesMusica = new int[inicioSessoes[numeroMusicas]];
+        for (int s = 0; s < sessoes.tamanho(); s++) {
+            for (int k = 0; k < sessoes.getNumeroMusicas(s); k++) {
+                sessoesMusica[proxima[sessoes.getMusica(s, k)]++] = s;
+            }
+        }
+
+        // trabalho acumulado até cada música (pares percorridos), para repartir as músicas por tarefas equilibradas
+        long[] trabalho = new long[numeroMusicas + 1];
+        for (int m = 0; m < numeroMusicas; m++) {
+            long pares = 1;
+            for (int i = inicioSessoes[m]; i < inicioSessoes[m + 1]; i++) {
+                pares += sessoes.getNumeroMusicas(sessoesMusica[i]);
+            }
+            trabalho[m + 1] = trabalho[m] + pares;
+        }
+
+        int[][] vizinhos = new int[numeroMusicas][];
+        float[][] semelhancas = new float[numeroMusicas][];
+        Construcao construcao = new Construcao(sessoes, inicioSessoes, sessoesMusica, trabalho,
+                Math.max(1, trabalho[numeroMusicas] / (8L * pool.getParallelism())), vizinhosPorMusica,
+                vizinhos, semelhancas, 0, numeroMusicas);
+        pool.invoke(construcao);
+
+        int[] inicios = new int[numeroMusicas + 1];
+        for (int m = 0; m < numeroMusicas; m++) {
+            inicios[m + 1] = inicios[m] + vizinhos[m].length;
+        }
+        int[] todosVizinhos = new int[inicios[numeroMusicas]];
+        float[] todasSemelhancas = new float[inicios[numeroMusicas]];
+        for (int m = 0; m < numeroMusicas; m++) {
+            System.arraycopy(vizinhos[m], 0, todosVizinhos, inicios[m], vizinhos[m].length);
+            System.arraycopy(semelhancas[m], 0, todasSemelhancas, inicios[m], semelhancas[m].length);
+        }
+        return new MotorRecomendacoes(inicios, todosVizinhos, todasSemelhancas, sessoes.getNumeroReproducoes());
+    }
+
+    /**
+     * Devolve o número de músicas da tabela.
+     *
+     * @return Número de músicas.
+     */
+    public int getNumeroMusicas() {
+        return this.inicios.length - 1;
+    }
+
+    /**
+     * Devolve o número de reproduções do histórico de onde a tabela foi construída.
+     *
+     * @return Número de reproduções.
+     */
+    public int getNumeroReproducoes() {
+        return this.numeroReproducoes;
+    }
+
+    /**
+     * Devolve o número de vizinhos de uma música.
+     *
+     * @param musica Id da música.
+     * @return Número de vizinhos (0 se a música não estiver na tabela).
+     */
+    public int getNumeroVizinhos(int musica) {
+        if (musica < 0 || musica >= getNumeroMusicas()) return 0;
+        return this.inicios[musica + 1] - this.inicios[musica];
+    }
+
+    /**
+     * Devolve um vizinho de uma música.
+     *
+     * @param musica Id da música.
+     * @param k      Posição do vizinho (0 é o mais semelhante).
+     * @return Id do vizinho.
+     */
+    public int getVizinho(int musica, int k) {
+        return this.vizinhos[this.inicios[musica] + k];
+    }
+
+    /**
+     * Devolve a semelhança de um vizinho de uma música.
+     *
+     * @param musica Id da música.
+     * @param k      Posição do vizinho (0 é o mais semelhante).
+     * @return Semelhança, entre 0 e 1.
+     */
+    public double getSemelhanca(int musica, int k) {
+        return this.semelhancas[this.inicios[musica] + k];
+    }
+
+    /**
+     * Recomenda músicas a partir de músicas de partida (por exemplo, as mais ouvidas por um utilizador): cada vizinho
+     * de uma música de partida soma a sua semelhança multiplicada pelo peso dessa música. As músicas de partida
+     * não são recomendadas.
+     *
+     * @param sementes Ids das músicas de partida.
+     * @param pesos    Peso de cada música de partida.
+     * @param limite   Número máximo de músicas recomendadas.
+     * @return Ids das músicas recomendadas, da pontuação maior para a menor (e pelo id, na mesma pontuação).
+     */
+    public List<Integer> recomendar(int[] sementes, double[] pesos, int limite) {
+        Map<Integer, Double> pontuacoes = new HashMap<>();
+        for (int i = 0; i < sementes.length; i++) {
+            int semente = sementes[i];
+            for (int k = 0; k < getNumeroVizinhos(semente); k++) {
+                pontuacoes.merge(getVizinho(semente, k), pesos[i] * getSemelhanca(semente, k), Double::sum);
+            }
+        }
+        for (int semente : sementes) {
+            pontuacoes.remove(semente);
+        }
+        List<Map.Entry<Integer, Double>> ordenadas = new ArrayList<>(pontuacoes.entrySet());
+        ordenadas.sort((a, b) -> {
+            int c = Double.compare(b.getValue(), a.getValue());
+            return (c != 0) ? c : Integer.compare(a.getKey(), b.getKey());
+        });
+        List<Integer> resultado = new ArrayList<>(Math.min(limite, ordenadas.size()));
+        for (int i = 0; i < ordenadas.size() && i < limite; i++) {
+            resultado.add(ordenadas.get(i).getKey());
+        }
+        return resultado;
+    }
+
+    /**
+     * Tarefa de fork-join que calcula os vizinhos de um intervalo de músicas, dividindo-o enquanto tiver mais
+     * trabalho do que o limite.
+     */
+    private static final class Construcao extends RecursiveAction {
+        private final SessoesAudicao sessoes;
+        private final int[] inicioSessoes;
+        private final int[] sessoesMusica;
+        private final long[] trabalho;
+        private final long limite;
+        private final int vizinhosPorMusica;
+        private final int[][] vizinhos;
+        private final float[][] semelhancas;
+        private final int de;
+        private final int ate;
+
+        private Construcao(SessoesAudicao sessoes, int[] inicioSessoes, int[] sessoesMusica, long[] trabalho,
+                           long limite, int vizinhosPorMusica, int[][] vizinhos, float[][] semelhancas,
+                           int de, int ate) {
+            this.sessoes = sessoes;
+            this.inicioSessoes = inicioSessoes;
+            this.sessoesMusica = sessoesMusica;
+            this.trabalho = trabalho;
+            this.limite = limite;
+            this.vizinhosPorMusica = vizinhosPorMusica;
+            this.vizinhos = vizinhos;
+            this.semelhancas = semelhancas;
+            this.de = de;
+            this.ate = ate;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.ate - this.de > 1 && this.trabalho[this.ate] - this.trabalho[this.de] > this.limite) {
+                // divide pelo meio do trabalho, não pelo meio das músicas
+                long metade = (this.trabalho[this.de] + this.trabalho[this.ate]) / 2;
+                int meio = Arrays.binarySearch(this.trabalho, this.de, this.ate + 1, metade);
+                if (meio < 0) meio = -meio - 1;
+                meio = Math.max(this.de + 1, Math.min(this.ate - 1, meio));
+                invokeAll(subtarefa(this.de, meio), subtarefa(meio, this.ate));
+                return;
+            }
+            int numeroMusicas = this.inicioSessoes.length - 1;
+            int[] contagens = new int[numeroMusicas];
+            int[] tocadas = new int[numeroMusicas];
+            int[] heapVizinhos = new int[this.vizinhosPorMusica];
+            double[] heapSemelhancas = new double[this.vizinhosPorMusica];
+            for (int m = this.de; m < this.ate; m++) {
+                int numeroTocadas = 0;
+                for (int i = this.inicioSessoes[m]; i < this.inicioSessoes[m + 1]; i++) {
+                    int s = this.sessoesMusica[i];
+                    for (int k = 0; k < this.sessoes.getNumeroMusicas(s); k++) {
+                        int outra = this.sessoes.getMusica(s, k);
+                        if (outra == m) continue;
+                        if (contagens[outra]++ == 0) tocadas[numeroTocadas++] = outra;
+                    }
+                }
+                double sessoesM = this.inicioSessoes[m + 1] - this.inicioSessoes[m];
+                int tamanhoHeap = 0;
+                for (int t = 0; t < numeroTocadas; t++) {
+                    int outra = tocadas[t];
+                    double sessoesOutra = this.inicioSessoes[outra + 1] - this.inicioSessoes[outra];
+                    double semelhanca = contagens[outra] / Math.sqrt(sessoesM * sessoesOutra);
+                    contagens[outra] = 0;
+                    if (tamanhoHeap < this.vizinhosPorMusica) {
+                        heapVizinhos[tamanhoHeap] = outra;
+                        heapSemelhancas[tamanhoHeap] = semelhanca;
+                        subir(heapVizinhos, heapSemelhancas, tamanhoHeap++);
+                    } else if (this.vizinhosPorMusica > 0
+                            && pior(heapVizinhos[0], heapSemelhancas[0], outra, semelhanca)) {
+                        heapVizinhos[0] = outra;
+                        heapSemelhancas[0] = semelhanca;
+                        descer(heapVizinhos, heapSemelhancas, tamanhoHeap);
+                    }
+                }
+                // retirar sempre o pior deixa os vizinhos do melhor para o pior, a partir do fim
+                int[] vizinhosM = new int[tamanhoHeap];
+                float[] semelhancasM = new float[tamanhoHeap];
+                for (int k = tamanhoHeap - 1; k >= 0; k--) {
+                    vizinhosM[k] = heapVizinhos[0];
+                    semelhancasM[k] = (float) heapSemelhancas[0];
+                    heapVizinhos[0] = heapVizinhos[k];
+                    heapSemelhancas[0] = heapSemelhancas[k];
+                    descer(heapVizinhos, heapSemelhancas, k);
+                }
+                this.vizinhos[m] = vizinhosM;
+                this.semelhancas[m] = semelhancasM;
+            }
+        }
+
+        private Construcao subtarefa(int de, int ate) {
+            return new Construcao(this.sessoes, this.inicioSessoes, this.sessoesMusica, this.trabalho, this.limite,
+                    this.vizinhosPorMusica, this.vizinhos, this.semelhancas, de, ate);
+        }
+
+        /**
+         * Indica se um vizinho é pior do que outro: menos semelhante ou, com a mesma semelhança, com id maior.
+         */
+        private static boolean pior(int a, double semelhancaA, int b, double semelhancaB) {
+            return (semelhancaA != semelhancaB) ? semelhancaA < semelhancaB : a > b;
+        }
+
+        /**
+         * Sobe um elemento no heap de mínimos (o pior vizinho na raiz).
+         */
+        private static void subir(int[] heap, double[] valores, int i) {
+            while (i > 0) {
+                int pai = (i - 1) / 2;
+                if (!pior(heap[i], valores[i], heap[pai], valores[pai])) return;
+                trocar(heap, valores, i, pai);
+                i = pai;
+            }
+        }
+
+        /**
+         * Desce a raiz no heap de mínimos com um dado tamanho.
+         */
+        private static void descer(int[] heap, double[] valores, int tamanho) {
+            int i = 0;
+            while (true) {
+                int menor = i;
+                int esquerdo = 2 * i + 1;
+                int direito = esquerdo + 1;
+                if (esquerdo < tamanho && pior(heap[esquerdo], valores[esquerdo], heap[menor], valores[menor])) {
+                    menor = esquerdo;
+                }
+                if (direito < tamanho && pior(heap[direito], valores[direito], heap[menor], valores[menor])) {
+                    menor = direito;
+                }
+                if (menor == i) return;
+                trocar(heap, valores, i, menor);
+                i = menor;
+            }
+        }
+
+        private static void trocar(int[] heap, double[] valores, int i, int j) {
+            int t = heap[i];
+            heap[i] = heap[j];
+            heap[j] = t;
+            double v = valores[i];
+            valores[i] = valores[j];
+            valores[j] = v;
+        }
+    }
+}
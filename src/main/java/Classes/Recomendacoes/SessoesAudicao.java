@@ -0,0 +1,187 @@
+package Classes.Recomendacoes;
+
+import Classes.Historico.RegistoReproducoes;
+
+import java.util.Arrays;
+
+/**
+ * Sessões de audição extraídas do histórico de reproduções: sequências de reproduções do mesmo utilizador sem pausas
+ * maiores do que {@link #INTERVALO_SESSAO} segundos. Cada sessão guarda as músicas distintas que foram ouvidas nela,
+ * e é a unidade de co-audição usada pelo {@link MotorRecomendacoes}: duas músicas são próximas se forem ouvidas
+ * muitas vezes na mesma sessão.
+ *
+ * As sessões com mais de {@link #MAXIMO_MUSICAS} músicas distintas são divididas, para que o número de pares de uma
+ * sessão (que cresce com o quadrado do número de músicas) fique limitado; as sessões com uma só música não têm pares
+ * e não são guardadas. As músicas de todas as sessões ficam num único array, com o início de cada sessão noutro.
+ */
+public class SessoesAudicao {
+
+    /**
+     * Maior pausa, em segundos, entre duas reproduções da mesma sessão.
+     */
+    public static final long INTERVALO_SESSAO = 30 * 60;
+
+    /**
+     * Número máximo de músicas distintas de uma sessão.
+     */
+    public static final int MAXIMO_MUSICAS = 100;
+
+    /**
+     * Início de cada sessão em {@link #musicas} (com o fim da última no fim).
+     */
+    private final int[] inicios;
+    private final int[] musicas;
+    private final int numeroReproducoes;
+
+    /**
+     * Construtor com parâmetros.
+     *
+     * @param inicios           Início de cada sessão no array das músicas, seguido do fim da última sessão.
+     * @param musicas           Ids das músicas de todas as sessões, sessão a sessão, sem repetições numa sessão.
+     * @param numeroReproducoes Número de reproduções do histórico de onde as sessões foram extraídas.
+     */
+    public SessoesAudicao(int[] inicios, int[] musicas, int numeroReproducoes) {
+        this.inicios = inicios;
+        this.musicas = musicas;
+        this.numeroReproducoes = numeroReproducoes;
+    }
+
+    /**
+     * Extrai as sessões de um histórico de reproduções. As reproduções são agrupadas por utilizador (por ordem
+     * cronológica, mesmo que o registo não esteja ordenado) e cortadas nas pausas maiores do que
+     * {@link #INTERVALO_SESSAO}. O histórico não pode ser alterado durante a extração.
+     *
+     * @param registo Histórico de reproduções.
+     * @return Sessões extraídas.
+     */
+    public static SessoesAudicao extrair(RegistoReproducoes registo) {
+        int n = registo.tamanho();
+        int numeroUtilizadores = 0;
+        int numeroMusicas = 0;
+        for (int p = 0; p < n; p++) {
+            numeroUtilizadores = Math.max(numeroUtilizadores, registo.getUtilizador(p) + 1);
+            numeroMusicas = Math.max(numeroMusicas, registo.getMusica(p) + 1);
+        }
+
+        // posições do registo agrupadas por utilizador, pela ordem do registo
+        int[] inicioUtilizador = new int[numeroUtilizadores + 1];
+        for (int p = 0; p < n; p++) {
+            inicioUtilizador[registo.getUtilizador(p) + 1]++;
+        }
+        for (int u = 0; u < numeroUtilizadores; u++) {
+            inicioUtilizador[u + 1] += inicioUtilizador[u];
+        }
+        int[] proxima = Arrays.copyOf(inicioUtilizador, numeroUtilizadores);
+        int[] posicoes = new int[n];
+        for (int p = 0; p < n; p++) {
+            posicoes[proxima[registo.getUtilizador(p)]++] = p;
+        }
+
+        int[] inicios = new int[16];
+        int[] musicas = new int[n];
+        int numeroSessoes = 0;
+        int fim = 0;
+        // sessão onde cada música foi vista pela última vez, para não a repetir na mesma sessão (as sessões
+        // descartadas também contam, por isso não se usa o número da sessão guardada)
+        int[] vista = new int[numeroMusicas];
+        Arrays.fill(vista, -1);
+        int sessaoAtual = 0;
+        for (int u = 0; u < numeroUtilizadores; u++) {
+            int de = inicioUtilizador[u];
+            int ate = inicioUtilizador[u + 1];
+            if (!registo.isOrdenado()) ordenarPorInstante(registo, posicoes, de, ate);
+            int inicioSessao = fim;
+            long anterior = Long.MIN_VALUE;
+            for (int k = de; k < ate; k++) {
+                long instante = registo.getInstante(posicoes[k]);
+                boolean pausa = anterior != Long.MIN_VALUE && instante - anterior > INTERVALO_SESSAO;
+                anterior = instante;
+                if (pausa || fim - inicioSessao == MAXIMO_MUSICAS) {
+                    if (fim - inicioSessao >= 2) {
+                        if (numeroSessoes + 1 == inicios.length) inicios = Arrays.copyOf(inicios, inicios.length * 2);
+                        inicios[numeroSessoes++] = inicioSessao;
+                    } else {
+                        fim = inicioSessao;
+                    }
+                    inicioSessao = fim;
+                    sessaoAtual++;
+                }
+                int musica = registo.getMusica(posicoes[k]);
+                if (vista[musica] != sessaoAtual) {
+                    vista[musica] = sessaoAtual;
+                    musicas[fim++] = musica;
+                }
+            }
+            if (fim - inicioSessao >= 2) {
+                if (numeroSessoes + 1 == inicios.length) inicios = Arrays.copyOf(inicios, inicios.length * 2);
+                inicios[numeroSessoes++] = inicioSessao;
+            } else {
+                fim = inicioSessao;
+            }
+            sessaoAtual++;
+        }
+        inicios[numeroSessoes] = fim;
+        return new SessoesAudicao(Arrays.copyOf(inicios, numeroSessoes + 1), Arrays.copyOf(musicas, fim), n);
+    }
+
+    /**
+     * Ordena um intervalo de posições do registo pelo instante da reprodução (e, no mesmo instante, pela posição).
+     *
+     * @param registo  Histórico de reproduções.
+     * @param posicoes Posições a ordenar.
+     * @param de       Início do intervalo (inclusivo).
+     * @param ate      Fim do intervalo (exclusivo).
+     */
+    private static void ordenarPorInstante(RegistoReproducoes registo, int[] posicoes, int de, int ate) {
+        Integer[] ordenadas = new Integer[ate - de];
+        for (int k = de; k < ate; k++) {
+            ordenadas[k - de] = posicoes[k];
+        }
+        Arrays.sort(ordenadas, (a, b) -> {
+            int c = Long.compare(registo.getInstante(a), registo.getInstante(b));
+            return (c != 0) ? c : Integer.compare(a, b);
+        });
+        for (int k = de; k < ate; k++) {
+            posicoes[k] = ordenadas[k - de];
+        }
+    }
+
+    /**
+     * Devolve o número de sessões.
+     *
+     * @return Número de sessões.
+     */
+    public int tamanho() {
+        return this.inicios.length - 1;
+    }
+
+    /**
+     * Devolve o número de músicas distintas de uma sessão.
+     *
+     * @param sessao Índice da sessão.
+     * @return Número de músicas.
+     */
+    public int getNumeroMusicas(int sessao) {
+        return this.inicios[sessao + 1] - this.inicios[sessao];
+    }
+
+    /**
+     * Devolve uma música de uma sessão.
+     *
+     * @param sessao Índice da sessão.
+     * @param k      Índice da música na sessão (entre 0 e {@link #getNumeroMusicas(int)} - 1).
+     * @return Id da música.
+     */
+    public int getMusica(int sessao, int k) {
+        return this.musicas[this.inicios[sessao] + k];
+    }
+
+    /**
+     * Devolve o número de reproduções do histórico de onde as sessões foram extraídas.
+     *
+     * @return Número de reproduções.
+     */
+    public int getNumeroReproducoes() {
+        return this.numeroReproducoes;
+    }
+}
@@ -247,16 +247,16 @@ public class Utilizador implements Serializable {
 
     /**
      * Atualiza os pontos do utilizador conforme o seu plano de subscrição
-     * e se a música já foi ouvida ou não.
+     * e se a música já foi ouvida ou não. Não escreve nada: cabe a quem chama mostrar os pontos ganhos.
      *
      * @param jaOuviu true se a música já foi ouvida antes.
+     * @return Pontos ganhos (0 se o utilizador não tiver plano).
      */
-    public void ganharPontos(boolean jaOuviu){
-        if (this.planoSubscricao != null) {
-            int pontosGanhos = this.planoSubscricao.pontosPorMusica(this.pontos, jaOuviu);
-            System.out.println("Pontos Ganhos: " + pontosGanhos);
-            this.pontos += pontosGanhos;
-        }
+    public int ganharPontos(boolean jaOuviu){
+        if (this.planoSubscricao == null) return 0;
+        int pontosGanhos = this.planoSubscricao.pontosPorMusica(this.pontos, jaOuviu);
+        this.pontos += pontosGanhos;
+        return pontosGanhos;
     }
 
     /**
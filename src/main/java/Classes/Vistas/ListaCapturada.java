@@ -0,0 +1,45 @@
+package Classes.Vistas;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+import java.util.function.IntFunction;
+
+/**
+ * Lista só de leitura com um tamanho fixo, capturado no momento em que é criada.
+ *
+ * Serve para dar acesso a coleções do modelo onde só se acrescentam elementos (músicas, álbuns, playlists,
+ * reproduções): a lista guarda apenas o tamanho e a forma de obter o i-ésimo elemento, pelo que criá-la não copia
+ * nada, e os elementos acrescentados depois não aparecem nela. Os elementos são obtidos à medida que são pedidos,
+ * por isso percorrer a lista não cria nenhuma coleção intermédia.
+ *
+ * @param <T> Tipo dos elementos.
+ */
+public class ListaCapturada<T> extends AbstractList<T> implements RandomAccess {
+
+    private final int tamanho;
+    private final IntFunction<T> elemento;
+
+    /**
+     * Construtor parametrizado.
+     *
+     * @param tamanho  Número de elementos da lista.
+     * @param elemento Função que devolve o elemento de cada posição, de 0 a {@code tamanho - 1}.
+     * @throws IllegalArgumentException Se o tamanho for negativo.
+     */
+    public ListaCapturada(int tamanho, IntFunction<T> elemento) {
+        if (tamanho < 0) throw new IllegalArgumentException("Tamanho inválido: " + tamanho);
+        this.tamanho = tamanho;
+        this.elemento = elemento;
+    }
+
+    @Override
+    public T get(int indice) {
+        if (indice < 0 || indice >= this.tamanho) throw new IndexOutOfBoundsException(indice);
+        return this.elemento.apply(indice);
+    }
+
+    @Override
+    public int size() {
+        return this.tamanho;
+    }
+}
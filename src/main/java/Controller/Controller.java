@@ -1,6 +1,11 @@
 package Controller;
 import Classes.*;
+import Classes.Metricas.Contador;
+import Classes.Metricas.Instrumentacao;
+import Classes.Metricas.RegistoMetricas;
+import Classes.Metricas.Temporizador;
 import Classes.Musicas.*;
+import Classes.Persistencia.GestorDurabilidade;
 import Classes.Planos.*;
 import Classes.Playlists.Playlist;
 import Classes.Playlists.PlaylistAleatoria;
@@ -9,25 +14,50 @@ import Exceptions.*;
 import SpotifUM.SpotifUM;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Classe responsável por intermediar a comunicação entre a camada de apresentação (View) e o modelo (Model).
  * Contém a lógica de aplicação e operações possíveis sobre o sistema SpotifUM.
  */
 public class Controller {
+    private static final Contador LOGINS_SUCESSO = contadorLogins("sucesso");
+    private static final Contador LOGINS_FALHADOS = contadorLogins("falha");
+    private static final Temporizador TEMPO_COUNT_MUSICAS = tempoConsulta("countMusicas");
+    private static final Temporizador TEMPO_UTILIZADOR_MAIS_REPRODUCOES = tempoConsulta("obterUtilizadorComMaisReproducoes");
+    private static final Temporizador TEMPO_ARTISTA_MAIS_ESCUTADO = tempoConsulta("calcArtistaMaisEscutado");
+    private static final Temporizador TEMPO_COUNT_UTILIZADOR = tempoConsulta("countUtilizador");
+    private static final Temporizador TEMPO_GENERO_MAIS_REPRODUZIDO = tempoConsulta("generoMaisReproduzido");
+    private static final Temporizador TEMPO_PLAYLISTS_PUBLICAS = tempoConsulta("playlistPublicas");
+    private static final Temporizador TEMPO_UTILIZADOR_MAIS_PLAYLISTS = tempoConsulta("utilizadorMaisPlaylists");
+    private static final Temporizador TEMPO_TOP_MUSICAS = tempoConsulta("topMusicas");
+    private static final Temporizador TEMPO_TOP_MUSICAS_PERIODO = tempoConsulta("topMusicasPeriodo");
+    private static final Temporizador TEMPO_TOP_ARTISTAS = tempoConsulta("topArtistas");
+    private static final Temporizador TEMPO_TOP_ARTISTAS_GENERO = tempoConsulta("topArtistasPorGenero");
+    private static final Temporizador TEMPO_TOP_GENEROS = tempoConsulta("topGeneros");
+    private static final int SUGESTOES = 5;
+
     private SpotifUM model;
+    private GestorDurabilidade durabilidade;
+    private boolean carregamentoFalhou;
+    private final RegistoMetricas metricas;
 
     /**
      * Construtor do Controller.
+     * Regista os medidores do tamanho das coleções do modelo controlado num registo de métricas próprio, que
+     * exporta também as métricas do registo global. Os medidores não ficam no registo global, para que este
+     * não mantenha vivos os modelos de controllers que já não são usados.
      *
      * @param model Instância do modelo SpotifUM a ser controlada.
      */
     public Controller(SpotifUM model) {
         this.model = model;
+        this.metricas = new RegistoMetricas(Instrumentacao.getRegisto());
+        registarMedidores();
     }
 
     /**
@@ -49,7 +79,10 @@ public class Controller {
      * @return true se as credenciais forem válidas, false caso contrário.
      */
     public boolean login(String nome, String password) {
-        return model.loginUtilizador(nome, password);
+        boolean valido = model.loginUtilizador(nome, password);
+        if (valido) LOGINS_SUCESSO.incrementar();
+        else LOGINS_FALHADOS.incrementar();
+        return valido;
     }
 
     /**
@@ -184,6 +217,31 @@ public class Controller {
         return model.reproduzirMusica(email, nome);
     }
 
+    /**
+     * Reproduz uma música e atualiza as estatísticas de reprodução do utilizador,
+     * escrevendo o resultado diretamente num destino.
+     *
+     * @param email   Email do utilizador.
+     * @param nome    Nome da música.
+     * @param destino Destino onde o resultado da reprodução é escrito.
+     * @throws IOException Se ocorrer um erro ao escrever no destino.
+     */
+    public void ouvirMusica(String email, String nome, Appendable destino) throws IOException {
+        model.reproduzirMusica(email, nome, destino);
+    }
+
+    /**
+     * Reproduz uma música sem mostrar o resultado, atualizando apenas o histórico,
+     * os pontos e as estatísticas de reprodução do utilizador.
+     *
+     * @param email Email do utilizador.
+     * @param nome  Nome da música.
+     * @return Pontos ganhos com a reprodução.
+     */
+    public int ouvirMusicaSemSaida(String email, String nome) {
+        return model.reproduzirMusicaSemSaida(email, nome, LocalDateTime.now());
+    }
+
     /**
      * Lista todas as músicas disponíveis no sistema.
      *
@@ -193,6 +251,81 @@ public class Controller {
         return model.listarMusicas();
     }
 
+    /**
+     * Pesquisa músicas por texto livre (nome, artista, editora e letra).
+     *
+     * @param consulta Texto a pesquisar; aceita prefixos ({@code cant*}) e frases entre aspas.
+     * @param limite   Número máximo de resultados.
+     * @return Lista numerada com o nome e o artista de cada música, da mais relevante para a menos relevante.
+     */
+    public String pesquisarMusicas(String consulta, int limite) {
+        List<Musica> resultados = model.pesquisarMusicas(consulta, limite);
+        if (resultados.isEmpty()) return "Nenhuma música encontrada.";
+        StringBuilder sb = new StringBuilder();
+        int posicao = 1;
+        for (Musica musica : resultados) {
+            sb.append(posicao++).append(". ").append(musica.getNome()).append(" - ")
+                    .append(musica.getInterprete().getNome()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Sugere músicas com nome próximo de um nome inexistente (por exemplo, com um erro de escrita).
+     *
+     * @param nome Nome da música pedido.
+     * @return Mensagem "Quis dizer: ...?" com as sugestões, ou uma String vazia se não houver nenhuma.
+     */
+    public String sugerirMusicas(String nome) {
+        return formatarSugestoes(model.sugerirMusicas(nome, SUGESTOES));
+    }
+
+    /**
+     * Sugere álbuns com nome próximo de um nome inexistente.
+     *
+     * @param nome Nome do álbum pedido.
+     * @return Mensagem "Quis dizer: ...?" com as sugestões, ou uma String vazia se não houver nenhuma.
+     */
+    public String sugerirAlbuns(String nome) {
+        return formatarSugestoes(model.sugerirAlbuns(nome, SUGESTOES));
+    }
+
+    /**
+     * Sugere playlists acessíveis ao utilizador com nome próximo de um nome inexistente.
+     *
+     * @param email Email do utilizador.
+     * @param nome  Nome da playlist pedido.
+     * @return Mensagem "Quis dizer: ...?" com as sugestões, ou uma String vazia se não houver nenhuma.
+     */
+    public String sugerirPlaylists(String email, String nome) {
+        return formatarSugestoes(model.sugerirPlaylists(nome, email, SUGESTOES));
+    }
+
+    /**
+     * Sugere artistas com nome próximo de um nome inexistente.
+     *
+     * @param nome Nome do artista pedido.
+     * @return Mensagem "Quis dizer: ...?" com as sugestões, ou uma String vazia se não houver nenhuma.
+     */
+    public String sugerirArtistas(String nome) {
+        return formatarSugestoes(model.sugerirArtistas(nome, SUGESTOES));
+    }
+
+    /**
+     * Formata uma lista de nomes sugeridos.
+     *
+     * @param nomes Nomes sugeridos, do mais próximo para o mais afastado.
+     * @return Mensagem com os nomes entre aspas, ou uma String vazia se a lista for vazia.
+     */
+    private static String formatarSugestoes(List<String> nomes) {
+        if (nomes.isEmpty()) return "";
+        StringJoiner sj = new StringJoiner(", ", "Quis dizer: ", "?");
+        for (String nome : nomes) {
+            sj.add("\"" + nome + "\"");
+        }
+        return sj.toString();
+    }
+
     /**
      * Adiciona um novo álbum ao sistema.
      *
@@ -295,7 +428,11 @@ public class Controller {
      * @return String com a informação dos utilizadores.
      */
     public String infoUtilizadores() {
-        return model.getUtilizadores().toString();
+        HashMap<String, Utilizador> porNome = new HashMap<>();
+        for (Utilizador utilizador : model.vistaUtilizadores().values()) {
+            porNome.put(utilizador.getNome(), utilizador);
+        }
+        return porNome.toString();
     }
 
     /**
@@ -304,7 +441,7 @@ public class Controller {
      * @return String com a informação das músicas.
      */
     public String infoMusica() {
-        return model.getMusicas().toString();
+        return model.vistaMusicas().toString();
     }
 
     /**
@@ -313,7 +450,7 @@ public class Controller {
      * @return String com a informação dos álbuns.
      */
     public String infoAlbum() {
-        return model.getAlbuns().toString();
+        return model.vistaAlbuns().toString();
     }
 
     /**
@@ -322,7 +459,7 @@ public class Controller {
      * @return String com a informação das playlists.
      */
     public String infoPlaylist() {
-        return model.getPlaylists().toString();
+        return model.vistaPlaylists().toString();
     }
 
     /**
@@ -331,7 +468,7 @@ public class Controller {
      * @return String com a informação dos artistas.
      */
     public String infoArtista() {
-        return model.getArtistas().toString();
+        return model.vistaArtistas().toString();
     }
 
     /**
@@ -340,7 +477,7 @@ public class Controller {
      * @return String com a informação das reproduções.
      */
     public String infoReproducao() {
-        return model.getReproducoes().toString();
+        return model.capturarReproducoes().toString();
     }
 
     /**
@@ -351,8 +488,9 @@ public class Controller {
      * @throws SemReproducoesException Se o utilizador não tiver reproduções suficientes.
      */
     public void adicionarPlaylistFavorita(String nome, String email) throws SemReproducoesException {
-        if (model.gerarPlaylistFavorita(nome, model.getUtilizadorPorEmail(email), model.getReproducoes(), model.getMusicas()) != null) {
-            model.adicionarPlaylist(model.gerarPlaylistFavorita(nome, model.getUtilizadorPorEmail(email), model.getReproducoes(), model.getMusicas()));
+        Playlist playlist = model.gerarPlaylistFavorita(nome, model.getUtilizadorPorEmail(email), model.capturarReproducoes(email), model.vistaMusicas());
+        if (playlist != null) {
+            model.adicionarPlaylist(playlist);
             adicionarBibliotecaPlaylist(email, nome);
         }
     }
@@ -366,8 +504,9 @@ public class Controller {
      * @throws SemReproducoesException Se o utilizador não tiver reproduções.
      */
     public void adicionarPlaylistFavoritaGenero(String nome, String email, Integer tempomax) throws SemReproducoesException {
-        if (model.gerarPlaylistPorTempo(nome, model.getUtilizadorPorEmail(email), model.getReproducoes(), model.getMusicas(), tempomax) != null) {
-            model.adicionarPlaylist(model.gerarPlaylistPorTempo(nome, model.getUtilizadorPorEmail(email), model.getReproducoes(), model.getMusicas(), tempomax));
+        Playlist playlist = model.gerarPlaylistPorTempo(nome, model.getUtilizadorPorEmail(email), model.capturarReproducoes(email), model.vistaMusicas(), tempomax);
+        if (playlist != null) {
+            model.adicionarPlaylist(playlist);
             adicionarBibliotecaPlaylist(email, nome);
         }
     }
@@ -380,8 +519,9 @@ public class Controller {
      * @throws SemReproducoesException Se o utilizador não tiver reproduções.
      */
     public void adicionarPlaylistExplicita(String nome, String email) throws SemReproducoesException {
-        if (model.gerarPlaylistFavoritaExplicita(nome, model.getUtilizadorPorEmail(email), model.getReproducoes(), model.getMusicas()) != null) {
-            model.adicionarPlaylist(model.gerarPlaylistFavoritaExplicita(nome, model.getUtilizadorPorEmail(email), model.getReproducoes(), model.getMusicas()));
+        Playlist playlist = model.gerarPlaylistFavoritaExplicita(nome, model.getUtilizadorPorEmail(email), model.capturarReproducoes(email), model.vistaMusicas());
+        if (playlist != null) {
+            model.adicionarPlaylist(playlist);
             adicionarBibliotecaPlaylist(email, nome);
         }
     }
@@ -406,18 +546,7 @@ public class Controller {
      * @throws PlaylistJaNaBibliotecaException Se a playlist já estiver na biblioteca.
      */
     public void adicionarBibliotecaPlaylist(String email, String nome) throws PlaylistInexistenteException, PlaylistJaNaBibliotecaException {
-        Utilizador u = model.getUtilizadorPorEmail(email);
-        if (!utilizadorIsPremium(email)) throw new UtilizadorFreeNaoPossuiBibliotecaException(email);
-
-        Playlist p = model.getPlaylistPorNome(nome);
-        if (p == null) {
-            throw new PlaylistInexistenteException(nome);
-        }
-        if (u.getBiblioteca().contemPlaylist(p)) {
-            throw new PlaylistJaNaBibliotecaException(nome);
-        }
-
-        u.adicionarPlaylist(p.clone());
+        model.adicionarPlaylistBiblioteca(email, nome);
     }
 
     /**
@@ -429,18 +558,7 @@ public class Controller {
      * @throws AlbumJaNaBibliotecaException Se o álbum já estiver na biblioteca.
      */
     public void adicionarBibliotecaAlbum(String email, String nome) throws AlbumInexistenteException, AlbumJaNaBibliotecaException {
-        Utilizador u = model.getUtilizadorPorEmail(email);
-        if (!utilizadorIsPremium(email)) throw new UtilizadorFreeNaoPossuiBibliotecaException(email);
-
-        Album a = model.getAlbumPorNome(nome);
-        if (a == null) {
-            throw new AlbumInexistenteException(nome);
-        }
-        if (u.getBiblioteca().contemAlbum(a)) {
-            throw new AlbumJaNaBibliotecaException(nome);
-        }
-
-        u.adicionarAlbum(a.clone());
+        model.adicionarAlbumBiblioteca(email, nome);
     }
 
     /**
@@ -449,8 +567,10 @@ public class Controller {
      * @return Nome da música com mais reproduções ou "." se não houver músicas.
      */
     public String countMusicas() {
-        ArrayList<Musica> musicas = model.getMusicas();
-        return musicas.stream().max(Comparator.comparingInt(Musica::getNumReproducoes)).map(Musica::getNome).orElse(".");
+        long inicio = Instrumentacao.inicio();
+        String nome = model.getNomeMusicaMaisReproduzida();
+        TEMPO_COUNT_MUSICAS.registarDesde(inicio);
+        return (nome == null) ? "." : nome;
     }
 
     /**
@@ -461,15 +581,10 @@ public class Controller {
      * @return Email do utilizador com mais reproduções ou "." se nenhum.
      */
     public String obterUtilizadorComMaisReproducoes(LocalDateTime inicio, LocalDateTime fim) {
-        List<Reproducao> reproducoes = model.getReproducoes();
-        return reproducoes.stream()
-                .filter(r -> (inicio == null || !r.getDataHora().isBefore(inicio)) &&
-                        (fim == null || !r.getDataHora().isAfter(fim)))
-                .collect(Collectors.groupingBy(r -> r.getUtilizador().getEmail(), Collectors.counting()))
-                .entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey)
-                .orElse(".");
+        long t = Instrumentacao.inicio();
+        String email = model.getUtilizadorComMaisReproducoes(inicio, fim);
+        TEMPO_UTILIZADOR_MAIS_REPRODUCOES.registarDesde(t);
+        return (email == null) ? "." : email;
     }
 
     /**
@@ -478,11 +593,10 @@ public class Controller {
      * @return Nome do artista mais escutado ou "." se não houver dados.
      */
     public String calcArtistaMaisEscutado() {
-        return model.getMusicas().stream()
-                .collect(Collectors.groupingBy(m -> m.getInterprete().getNome(), Collectors.summingInt(Musica::getNumReproducoes)))
-                .entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey).orElse(".");
+        long inicio = Instrumentacao.inicio();
+        String artista = model.getArtistaMaisEscutado();
+        TEMPO_ARTISTA_MAIS_ESCUTADO.registarDesde(inicio);
+        return (artista == null) ? "." : artista;
     }
 
     /**
@@ -491,10 +605,10 @@ public class Controller {
      * @return Nome e pontos do utilizador com mais pontos, ou "." se não houver utilizadores.
      */
     public String countUtilizador() {
-        return model.getUtilizadores().values().stream()
-                .max(Comparator.comparingInt(Utilizador::getPontos))
-                .map(u -> u.getNome() + " - " + u.getPontos())
-                .orElse(".");
+        long inicio = Instrumentacao.inicio();
+        Utilizador u = model.getUtilizadorComMaisPontos();
+        TEMPO_COUNT_UTILIZADOR.registarDesde(inicio);
+        return (u == null) ? "." : u.getNome() + " - " + u.getPontos();
     }
 
     /**
@@ -503,12 +617,11 @@ public class Controller {
      * @return Género mais reproduzido e número de reproduções, ou "." se nenhum.
      */
     public String generoMaisReproduzido() {
-        return model.getMusicas().stream()
-                .collect(Collectors.groupingBy(Musica::getGenero, Collectors.summingInt(Musica::getNumReproducoes)))
-                .entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(e -> e.getKey() + " - " + e.getValue())
-                .orElse(".");
+        long inicio = Instrumentacao.inicio();
+        Genero genero = model.getGeneroMaisReproduzido();
+        String resultado = (genero == null) ? "." : genero + " - " + model.getReproducoesGenero(genero);
+        TEMPO_GENERO_MAIS_REPRODUZIDO.registarDesde(inicio);
+        return resultado;
     }
 
     /**
@@ -517,7 +630,10 @@ public class Controller {
      * @return Número de playlists públicas.
      */
     public Integer playlistPublicas() {
-        return (int) model.getPlaylists().stream().filter(Playlist::getPublica).count();
+        long inicio = Instrumentacao.inicio();
+        int publicas = model.getNumeroPlaylistsPublicas();
+        TEMPO_PLAYLISTS_PUBLICAS.registarDesde(inicio);
+        return publicas;
     }
 
     /**
@@ -526,11 +642,127 @@ public class Controller {
      * @return Email do utilizador com mais playlists ou "." se não houver playlists.
      */
     public String utilizadorMaisPlaylists() {
-        return model.getPlaylists().stream()
-                .collect(Collectors.groupingBy(p -> p.getUtilizador().getEmail(), Collectors.counting()))
-                .entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey).orElse(".");
+        long inicio = Instrumentacao.inicio();
+        String email = model.getUtilizadorComMaisPlaylists();
+        TEMPO_UTILIZADOR_MAIS_PLAYLISTS.registarDesde(inicio);
+        return (email == null) ? "." : email;
+    }
+
+    /**
+     * Devolve as k músicas com mais reproduções.
+     *
+     * @param k Número de músicas.
+     * @return Lista numerada com o nome e as reproduções de cada música.
+     */
+    public String topMusicas(int k) {
+        long inicio = Instrumentacao.inicio();
+        List<Map.Entry<String, Long>> top = model.getTopMusicas(k);
+        TEMPO_TOP_MUSICAS.registarDesde(inicio);
+        return formatarTop(top, model.getErroMaximoTop());
+    }
+
+    /**
+     * Devolve as k músicas com mais reproduções num intervalo de tempo.
+     *
+     * @param inicio Data/hora de início.
+     * @param fim    Data/hora de fim.
+     * @param k      Número de músicas.
+     * @return Lista numerada com o nome e as reproduções de cada música.
+     */
+    public String topMusicasPeriodo(LocalDateTime inicio, LocalDateTime fim, int k) {
+        long t = Instrumentacao.inicio();
+        List<Map.Entry<String, Long>> top = model.getTopMusicas(inicio, fim, k);
+        TEMPO_TOP_MUSICAS_PERIODO.registarDesde(t);
+        return formatarTop(top, 0);
+    }
+
+    /**
+     * Devolve os k artistas com mais reproduções.
+     *
+     * @param k Número de artistas.
+     * @return Lista numerada com o nome e as reproduções de cada artista.
+     */
+    public String topArtistas(int k) {
+        long inicio = Instrumentacao.inicio();
+        List<Map.Entry<String, Long>> top = model.getTopArtistas(k);
+        TEMPO_TOP_ARTISTAS.registarDesde(inicio);
+        return formatarTop(top, model.getErroMaximoTop());
+    }
+
+    /**
+     * Devolve os k artistas com mais reproduções num género.
+     *
+     * @param genero Género musical.
+     * @param k      Número de artistas.
+     * @return Lista numerada com o nome e as reproduções de cada artista.
+     */
+    public String topArtistasPorGenero(Genero genero, int k) {
+        long inicio = Instrumentacao.inicio();
+        List<Map.Entry<String, Long>> top = model.getTopArtistas(genero, k);
+        TEMPO_TOP_ARTISTAS_GENERO.registarDesde(inicio);
+        return formatarTop(top, 0);
+    }
+
+    /**
+     * Devolve os k géneros com mais reproduções.
+     *
+     * @param k Número de géneros.
+     * @return Lista numerada com cada género e as suas reproduções.
+     */
+    public String topGeneros(int k) {
+        long inicio = Instrumentacao.inicio();
+        List<Map.Entry<Genero, Long>> top = model.getTopGeneros(k);
+        TEMPO_TOP_GENEROS.registarDesde(inicio);
+        return formatarTop(top, 0);
+    }
+
+    /**
+     * Liga o modo aproximado do top de músicas e de artistas, com memória limitada.
+     *
+     * @param erro               Erro máximo das contagens, relativo ao total de reproduções (ex.: 0.001).
+     * @param probabilidadeFalha Probabilidade de esse erro ser ultrapassado (ex.: 0.01).
+     * @throws IllegalArgumentException Se algum dos parâmetros não estiver entre 0 e 1.
+     */
+    public void ativarModoAproximado(double erro, double probabilidadeFalha) {
+        model.ativarModoAproximado(erro, probabilidadeFalha);
+    }
+
+    /**
+     * Desliga o modo aproximado do top de músicas e de artistas.
+     */
+    public void desativarModoAproximado() {
+        model.desativarModoAproximado();
+    }
+
+    /**
+     * Formata uma lista de pares nome/reproduções como lista numerada.
+     *
+     * @param top        Lista de pares.
+     * @param erroMaximo Erro máximo das contagens (0 se forem exatas).
+     * @return Texto formatado, ou "." se a lista estiver vazia.
+     */
+    private String formatarTop(List<? extends Map.Entry<?, Long>> top, long erroMaximo) {
+        if (top.isEmpty()) return ".";
+        StringBuilder sb = new StringBuilder();
+        int posicao = 1;
+        for (Map.Entry<?, Long> e : top) {
+            sb.append(posicao++).append(". ").append(e.getKey()).append(" - ").append(e.getValue()).append("\n");
+        }
+        if (erroMaximo > 0) {
+            sb.append("(valores aproximados, erro máximo de ").append(erroMaximo).append(" reproduções)\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Verifica se as estatísticas mantidas incrementalmente coincidem com um recálculo completo.
+     *
+     * @return Descrição do resultado da verificação.
+     */
+    public String verificarEstatisticas() {
+        List<String> diferencas = model.verificarEstatisticas();
+        if (diferencas.isEmpty()) return "Estatísticas consistentes.";
+        return "Estatísticas inconsistentes: " + String.join(", ", diferencas);
     }
 
     /**
@@ -561,20 +793,8 @@ public class Controller {
      * @throws UtilizadorFaltaPontosException Se o utilizador não tiver pontos suficientes.
      */
     public void melhoraPlano(String email) throws UtilizadorFaltaPontosException {
-        Utilizador u = model.getUtilizadorPorEmail(email);
-
-        if (u.getPontos() >= 100) {
-            if (u.getPlanoSubscricao() instanceof PlanoFree) {
-                u.setPlanoSubscricao(new PlanoPremiumBase());
-                u.setPontos(u.getPontos()-100);
-            } else if (u.getPlanoSubscricao() instanceof PlanoPremiumBase) {
-                u.setPlanoSubscricao(new PlanoPremiumTop());
-                u.setPontos(100);
-            } else {
-                System.out.println("O utilizador já possui o plano PremiumTop.");
-            }
-        } else {
-            throw new UtilizadorFaltaPontosException(email);
+        if (!model.melhorarPlano(email)) {
+            System.out.println("O utilizador já possui o plano PremiumTop.");
         }
     }
 
@@ -590,36 +810,42 @@ public class Controller {
      * @throws UtilizadorNaoTemPermissoesException Se o utilizador não for o dono da playlist.
      */
     public boolean alterarVisibilidadePlaylist(String email, String nomePlaylist) throws PlaylistInexistenteException, UtilizadorNaoTemPermissoesException {
-        Playlist p = model.getPlaylistPorNome(nomePlaylist, email);
-
-        if (p == null) throw new PlaylistInexistenteException(nomePlaylist);
-        if (!p.getUtilizador().getEmail().equals(email)) {
-            throw new UtilizadorNaoTemPermissoesException("A playlist não pertence ao utilizador.");
-        }
-
-        p.setPublica(!p.getPublica()); // altera o estado atual
-        return p.getPublica();         // retorna o novo estado
+        return model.alterarVisibilidadePlaylist(email, nomePlaylist);
     }
 
     /**
      * Guarda o estado atual do sistema para ficheiro.
+     * Se o estado tiver sido carregado com diário de operações, faz um último checkpoint e fecha o diário.
+     * Se o carregamento do estado tiver falhado, não guarda nada, para não substituir o ficheiro que não foi lido.
      *
-     * @throws IOException Se ocorrer erro de escrita.
+     * @throws IOException Se ocorrer erro de escrita ou o carregamento do estado tiver falhado.
      */
     public void guardarEstado() throws IOException {
+        if (this.carregamentoFalhou) {
+            throw new IOException("O estado não foi carregado; o ficheiro " + GestorFicheiros.SPOTIFUMFILE + " não foi substituído");
+        }
+        if (this.durabilidade != null) {
+            this.durabilidade.fechar(model);
+            this.durabilidade = null;
+            return;
+        }
         GestorFicheiros gestorFicheiros = new GestorFicheiros();
         gestorFicheiros.guardarEstado(model, GestorFicheiros.SPOTIFUMFILE);
     }
 
     /**
-     * Carrega o estado do sistema a partir de ficheiro.
+     * Carrega o estado do sistema a partir do último snapshot e do diário de operações.
+     * A partir daqui, cada alteração do sistema é registada no diário.
      *
      * @throws IOException Se ocorrer erro de leitura.
      * @throws ClassNotFoundException Se a classe lida for inválida.
      */
     public void carregarEstado() throws IOException, ClassNotFoundException {
-        GestorFicheiros gestorFicheiros = new GestorFicheiros();
-        this.model = gestorFicheiros.carregarEstado(GestorFicheiros.SPOTIFUMFILE);
+        GestorDurabilidade gestor = new GestorDurabilidade(Paths.get(GestorFicheiros.SPOTIFUMFILE), Paths.get(GestorFicheiros.DIARIOFILE));
+        this.carregamentoFalhou = true;
+        this.model = gestor.recuperar();
+        this.durabilidade = gestor;
+        this.carregamentoFalhou = false;
     }
 
     /**
@@ -631,4 +857,67 @@ public class Controller {
         GestorFicheiros gf = new GestorFicheiros();
         gf.carregarScript(this.model);
     }
-}
\ No newline at end of file
+
+    /**
+     * Devolve as métricas do sistema no formato de texto do Prometheus ou em JSON.
+     *
+     * @param json true para JSON, false para o formato do Prometheus.
+     * @return Métricas formatadas.
+     */
+    public String metricas(boolean json) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            if (json) this.metricas.exportarJson(sb);
+            else this.metricas.exportarPrometheus(sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Exporta as métricas do sistema para um ficheiro: em JSON se o nome terminar em ".json",
+     * no formato de texto do Prometheus nos restantes casos.
+     *
+     * @param ficheiro Caminho do ficheiro.
+     * @throws IOException Se não for possível escrever o ficheiro.
+     */
+    public void exportarMetricas(String ficheiro) throws IOException {
+        this.metricas.exportar(Paths.get(ficheiro));
+    }
+
+    /**
+     * Regista os medidores do tamanho das coleções do modelo. Os medidores leem sempre o modelo atual,
+     * pelo que continuam certos depois de o estado ser carregado.
+     */
+    private void registarMedidores() {
+        RegistoMetricas registo = this.metricas;
+        registo.medidor("spotifum_utilizadores", "Número de utilizadores registados", () -> model.vistaUtilizadores().size());
+        registo.medidor("spotifum_artistas", "Número de artistas", () -> model.vistaArtistas().size());
+        registo.medidor("spotifum_musicas", "Número de músicas do catálogo", () -> model.vistaMusicas().size());
+        registo.medidor("spotifum_albuns", "Número de álbuns", () -> model.vistaAlbuns().size());
+        registo.medidor("spotifum_playlists", "Número de playlists", () -> model.vistaPlaylists().size());
+        registo.medidor("spotifum_reproducoes", "Número de reproduções no histórico", () -> model.getNumeroReproducoes());
+    }
+
+    /**
+     * Obtém o contador das tentativas de login com um dado resultado.
+     *
+     * @param resultado "sucesso" ou "falha".
+     * @return Contador.
+     */
+    private static Contador contadorLogins(String resultado) {
+        return Instrumentacao.getRegisto().contador("spotifum_logins_total", "Tentativas de login", "resultado", resultado);
+    }
+
+    /**
+     * Obtém o temporizador de uma consulta de estatísticas.
+     *
+     * @param consulta Nome da consulta.
+     * @return Temporizador.
+     */
+    private static Temporizador tempoConsulta(String consulta) {
+        return Instrumentacao.getRegisto().temporizador("spotifum_consulta_estatistica_segundos",
+                "Duração das consultas de estatísticas", "consulta", consulta);
+    }
+}
@@ -0,0 +1,11 @@
+package Exceptions;
+
+/**
+ * Exceção lançada quando não é possível registar uma alteração
+ * no diário de operações
+ */
+public class PersistenciaException extends RuntimeException {
+    public PersistenciaException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,11 @@
+package Exceptions;
+
+/**
+ * Exceção lançada quando se tenta reproduzir uma música para um utilizador
+ * não registado no programa
+ */
+public class UtilizadorInexistenteException extends RuntimeException {
+    public UtilizadorInexistenteException(String message) {
+        super(message);
+    }
+}
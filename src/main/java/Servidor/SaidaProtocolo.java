@@ -0,0 +1,139 @@
+package Servidor;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Escreve a resposta de um pedido no formato do protocolo de linhas do {@link ServidorSessoes}.
+ *
+ * Uma resposta com sucesso começa por uma linha {@code OK}, seguida das linhas do resultado, e termina com uma
+ * linha só com um ponto. As linhas do resultado que comecem por um ponto são escritas com um ponto a mais, para
+ * não serem confundidas com o fim da resposta (tal como no SMTP); o cliente retira esse ponto ao ler.
+ *
+ * A linha {@code OK} só é escrita quando chega o primeiro carácter do resultado (ou no fim da resposta), pelo que
+ * um pedido que falhe antes de escrever alguma coisa ainda pode ser respondido com uma linha de erro. Um pedido que
+ * falhe depois de a resposta ter começado termina com uma linha {@code .ERRO <mensagem>} em vez do ponto: como as
+ * linhas do resultado que começam por um ponto têm sempre dois, o cliente distingue uma resposta interrompida de
+ * uma resposta completa.
+ */
+class SaidaProtocolo implements Appendable {
+    private final Writer destino;
+    private boolean iniciada;
+    private boolean inicioLinha;
+
+    /**
+     * Construtor parametrizado.
+     *
+     * @param destino Destino onde as respostas são escritas.
+     */
+    SaidaProtocolo(Writer destino) {
+        this.destino = destino;
+        this.iniciada = false;
+        this.inicioLinha = true;
+    }
+
+    /**
+     * Indica se a resposta atual já começou a ser escrita.
+     *
+     * @return true se a linha {@code OK} já foi escrita.
+     */
+    boolean isIniciada() {
+        return this.iniciada;
+    }
+
+    @Override
+    public Appendable append(CharSequence texto) throws IOException {
+        return append(texto, 0, texto.length());
+    }
+
+    @Override
+    public Appendable append(CharSequence texto, int inicio, int fim) throws IOException {
+        iniciar();
+        // escreve o texto por troços, acrescentando um ponto às linhas que começam por ponto
+        int troco = inicio;
+        for (int i = inicio; i < fim; i++) {
+            char c = texto.charAt(i);
+            if (this.inicioLinha && c == '.') {
+                this.destino.append(texto, troco, i).append('.');
+                troco = i;
+            }
+            this.inicioLinha = (c == '\n');
+        }
+        this.destino.append(texto, troco, fim);
+        return this;
+    }
+
+    @Override
+    public Appendable append(char c) throws IOException {
+        iniciar();
+        if (this.inicioLinha && c == '.') this.destino.write('.');
+        this.destino.write(c);
+        this.inicioLinha = (c == '\n');
+        return this;
+    }
+
+    /**
+     * Termina a resposta atual, escrevendo a linha de fim. A próxima escrita começa uma resposta nova.
+     *
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    void terminar() throws IOException {
+        iniciar();
+        if (!this.inicioLinha) this.destino.write('\n');
+        this.destino.write(".\n");
+        this.iniciada = false;
+        this.inicioLinha = true;
+    }
+
+    /**
+     * Termina a resposta atual, já começada, com a linha de fim de uma resposta interrompida por um erro.
+     * A próxima escrita começa uma resposta nova.
+     *
+     * @param mensagem Mensagem de erro.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    void interromper(String mensagem) throws IOException {
+        iniciar();
+        if (!this.inicioLinha) this.destino.write('\n');
+        this.destino.write(".ERRO ");
+        this.destino.write(linha(mensagem));
+        this.destino.write('\n');
+        this.iniciada = false;
+        this.inicioLinha = true;
+    }
+
+    /**
+     * Responde com um erro, numa só linha. Só pode ser usado antes de a resposta ter começado.
+     *
+     * @param mensagem Mensagem de erro.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    void erro(String mensagem) throws IOException {
+        this.destino.write("ERRO ");
+        this.destino.write(linha(mensagem));
+        this.destino.write('\n');
+    }
+
+    /**
+     * Junta uma mensagem numa só linha, trocando os fins de linha por espaços.
+     *
+     * @param mensagem Mensagem.
+     * @return Mensagem numa linha.
+     */
+    private static String linha(String mensagem) {
+        return mensagem.replace('\r', ' ').replace('\n', ' ');
+    }
+
+    /**
+     * Escreve a linha {@code OK}, se a resposta atual ainda não tiver começado.
+     *
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    private void iniciar() throws IOException {
+        if (!this.iniciada) {
+            this.destino.write("OK\n");
+            this.iniciada = true;
+            this.inicioLinha = true;
+        }
+    }
+}
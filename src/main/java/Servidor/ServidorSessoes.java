@@ -0,0 +1,242 @@
+package Servidor;
+
+import Controller.Controller;
+import SpotifUM.SpotifUM;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Servidor local de sessões do SpotifUM, com um protocolo de linhas sobre TCP.
+ *
+ * Cada ligação é atendida por uma {@link SessaoCliente} na sua própria thread virtual, que executa os pedidos
+ * através do {@link Controller}; como as threads virtuais são baratas, o mesmo processo aguenta um número muito
+ * grande de ligações em simultâneo (por exemplo, ouvintes simulados num teste de carga).
+ *
+ * Pedidos (um por linha, em UTF-8):
+ * <ul>
+ *     <li>{@code LOGIN <email> <password>}</li>
+ *     <li>{@code PLAY <música>}</li>
+ *     <li>{@code LIST [MUSICAS|PLAYLISTS|BIBLIOTECA]}</li>
+ *     <li>{@code STATS MUSICA|ARTISTA|UTILIZADOR|GENERO|PUBLICAS|PLAYLISTS} ou {@code STATS TOP MUSICAS|ARTISTAS|GENEROS [k]}</li>
+ *     <li>{@code QUIT}</li>
+ * </ul>
+ * Cada resposta é uma linha {@code OK}, seguida das linhas do resultado e de uma linha só com um ponto
+ * (ver {@link SaidaProtocolo}), ou uma única linha {@code ERRO <mensagem>}. Se o pedido falhar depois de a resposta
+ * ter começado, a resposta termina com uma linha {@code .ERRO <mensagem>} em vez do ponto.
+ *
+ * Se for indicado um número máximo de sessões, o servidor deixa de aceitar ligações enquanto esse número
+ * estiver atingido; as ligações novas ficam à espera na fila do sistema operativo.
+ * Ao terminar ({@link #parar(Duration)}), o servidor deixa de aceitar ligações, deixa as sessões acabar o pedido
+ * que estão a executar e guarda o estado do sistema.
+ */
+public class ServidorSessoes {
+
+    /**
+     * Porta usada por omissão.
+     */
+    public static final int PORTA_OMISSAO = 7070;
+
+    /**
+     * Tempo dado às sessões para terminarem quando o processo termina.
+     */
+    public static final Duration PRAZO_TERMINO = Duration.ofSeconds(10);
+
+    private static final int FILA_LIGACOES = 4096;
+
+    private final Controller controller;
+    private final ServerSocket servidor;
+    private final Semaphore vagas;
+    private final Set<SessaoCliente> sessoes;
+    private Thread aceitacao;
+    private volatile boolean aTerminar;
+    private boolean parado;
+
+    /**
+     * Cria um servidor sem limite de sessões, à escuta numa porta do endereço local.
+     *
+     * @param controller Controller onde os pedidos são executados.
+     * @param porta      Porta (0 para uma porta livre qualquer).
+     * @throws IOException Se não for possível abrir a porta.
+     */
+    public ServidorSessoes(Controller controller, int porta) throws IOException {
+        this(controller, porta, 0);
+    }
+
+    /**
+     * Cria um servidor à escuta numa porta do endereço local.
+     *
+     * @param controller    Controller onde os pedidos são executados.
+     * @param porta         Porta (0 para uma porta livre qualquer).
+     * @param maximoSessoes Número máximo de sessões em simultâneo (0 para não ter limite).
+     * @throws IOException Se não for possível abrir a porta.
+     * @throws IllegalArgumentException Se o número máximo de sessões for negativo.
+     */
+    public ServidorSessoes(Controller controller, int porta, int maximoSessoes) throws IOException {
+        if (maximoSessoes < 0) throw new IllegalArgumentException("Número máximo de sessões inválido: " + maximoSessoes);
+        this.controller = controller;
+        this.servidor = new ServerSocket(porta, FILA_LIGACOES, InetAddress.getLoopbackAddress());
+        this.vagas = (maximoSessoes == 0) ? null : new Semaphore(maximoSessoes);
+        this.sessoes = ConcurrentHashMap.newKeySet();
+        this.aTerminar = false;
+        this.parado = false;
+    }
+
+    /**
+     * Começa a aceitar ligações, numa thread própria.
+     *
+     * @throws IllegalStateException Se o servidor já tiver sido iniciado.
+     */
+    public synchronized void iniciar() {
+        if (this.aceitacao != null) throw new IllegalStateException("O servidor já foi iniciado");
+        this.aceitacao = Thread.ofPlatform().name("servidor-sessoes").start(this::aceitar);
+    }
+
+    /**
+     * Devolve a porta onde o servidor está à escuta.
+     *
+     * @return Número da porta.
+     */
+    public int getPorta() {
+        return this.servidor.getLocalPort();
+    }
+
+    /**
+     * Devolve o número de sessões abertas.
+     *
+     * @return Número de sessões.
+     */
+    public int getNumeroSessoes() {
+        return this.sessoes.size();
+    }
+
+    /**
+     * Termina o servidor: deixa de aceitar ligações, pede a cada sessão que termine depois do pedido atual e
+     * espera por elas até ao prazo indicado, fechando as que ainda estiverem abertas. Por fim guarda o estado
+     * do sistema. Chamadas seguintes não fazem nada.
+     *
+     * @param prazo Tempo máximo de espera pelas sessões.
+     * @throws IOException Se ocorrer um erro ao guardar o estado.
+     * @throws InterruptedException Se a thread for interrompida durante a espera.
+     */
+    public synchronized void parar(Duration prazo) throws IOException, InterruptedException {
+        if (this.parado) return;
+        this.parado = true;
+        fecharSessoes(prazo);
+        this.controller.guardarEstado();
+    }
+
+    /**
+     * Deixa de aceitar ligações, pede a cada sessão que termine depois do pedido atual e espera por elas até ao
+     * prazo indicado, fechando as que ainda estiverem abertas.
+     *
+     * @param prazo Tempo máximo de espera pelas sessões.
+     * @throws IOException Se ocorrer um erro ao fechar a porta.
+     * @throws InterruptedException Se a thread for interrompida durante a espera.
+     */
+    void fecharSessoes(Duration prazo) throws IOException, InterruptedException {
+        this.aTerminar = true;
+        this.servidor.close();
+        if (this.aceitacao != null) {
+            this.aceitacao.interrupt();
+            this.aceitacao.join();
+        }
+
+        // a partir daqui não há sessões novas
+        List<SessaoCliente> abertas = new ArrayList<>(this.sessoes);
+        for (SessaoCliente sessao : abertas) {
+            sessao.terminar();
+        }
+        long limite = System.nanoTime() + prazo.toNanos();
+        for (SessaoCliente sessao : abertas) {
+            Duration resto = Duration.ofNanos(Math.max(0, limite - System.nanoTime()));
+            if (!sessao.esperar(resto)) sessao.fechar();
+        }
+        // as sessões fechadas à força ainda podem estar a terminar o pedido atual
+        for (SessaoCliente sessao : abertas) {
+            sessao.esperar(Duration.ofNanos(Long.MAX_VALUE));
+        }
+    }
+
+    /**
+     * Aceita ligações até o servidor terminar, criando uma sessão para cada uma.
+     */
+    private void aceitar() {
+        Thread.Builder threads = Thread.ofVirtual().name("sessao-", 1);
+        while (!this.aTerminar) {
+            try {
+                if (this.vagas != null) this.vagas.acquire();
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            Socket socket;
+            try {
+                socket = this.servidor.accept();
+            } catch (IOException e) {
+                if (this.vagas != null) this.vagas.release();
+                if (this.servidor.isClosed()) return;
+                continue;
+            }
+
+            SessaoCliente sessao = new SessaoCliente(this, this.controller, socket);
+            this.sessoes.add(sessao);
+            sessao.iniciar(threads);
+        }
+    }
+
+    /**
+     * Regista o fim de uma sessão, libertando a sua vaga.
+     *
+     * @param sessao Sessão que terminou.
+     */
+    void sessaoTerminada(SessaoCliente sessao) {
+        if (this.sessoes.remove(sessao) && this.vagas != null) this.vagas.release();
+    }
+
+    /**
+     * Arranca o servidor com o estado guardado do sistema.
+     * Argumentos opcionais: porta e número máximo de sessões.
+     * O servidor termina (e guarda o estado) quando o processo recebe um pedido para terminar. Se o estado guardado
+     * não puder ser carregado, o servidor não arranca, para que o ficheiro não seja substituído por um estado vazio.
+     *
+     * @param args Argumentos da linha de comandos.
+     * @throws IOException Se não for possível abrir a porta.
+     */
+    public static void main(String[] args) throws IOException {
+        int porta = (args.length > 0) ? Integer.parseInt(args[0]) : PORTA_OMISSAO;
+        int maximoSessoes = (args.length > 1) ? Integer.parseInt(args[1]) : 0;
+
+        Controller controller = new Controller(new SpotifUM());
+        try {
+            controller.carregarEstado();
+        } catch (IOException e) {
+            System.out.println("Erro de IO ao carregar estado: " + e.getMessage());
+            System.exit(1);
+        } catch (ClassNotFoundException e) {
+            System.out.println("Classe não encontrada ao carregar estado: " + e.getMessage());
+            System.exit(1);
+        }
+
+        ServidorSessoes servidor = new ServidorSessoes(controller, porta, maximoSessoes);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                servidor.parar(PRAZO_TERMINO);
+            } catch (IOException e) {
+                System.out.println("Erro ao guardar estado: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        servidor.iniciar();
+        System.out.println("SpotifUM à escuta na porta " + servidor.getPorta());
+    }
+}
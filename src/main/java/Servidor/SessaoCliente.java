@@ -0,0 +1,320 @@
+package Servidor;
+
+import Controller.Controller;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Sessão de um cliente ligado ao {@link ServidorSessoes}, executada numa thread virtual própria.
+ *
+ * A sessão lê um pedido de cada vez, executa-o através do {@link Controller} e escreve a resposta antes de ler
+ * o pedido seguinte. Os pedidos que o cliente envie sem esperar pelas respostas ficam no socket, e as respostas
+ * só são enviadas quando não há mais pedidos por ler; se o cliente não ler as respostas, a escrita acaba por
+ * bloquear e a sessão deixa de ler pedidos, o que trava o cliente. Assim cada ligação ocupa uma quantidade
+ * limitada de memória no servidor, por mais depressa que o cliente envie pedidos.
+ */
+class SessaoCliente implements Runnable {
+
+    /**
+     * Tamanho máximo de um pedido, em caracteres. Os pedidos maiores são rejeitados.
+     */
+    static final int MAXIMO_PEDIDO = 4096;
+
+    private static final int TOP_OMISSAO = 10;
+
+    private final ServidorSessoes servidor;
+    private final Controller controller;
+    private final Socket socket;
+    private Thread thread;
+    private volatile boolean aTerminar;
+    private String email;
+
+    /**
+     * Construtor parametrizado.
+     *
+     * @param servidor   Servidor a que a sessão pertence.
+     * @param controller Controller onde os pedidos são executados.
+     * @param socket     Ligação do cliente.
+     */
+    SessaoCliente(ServidorSessoes servidor, Controller controller, Socket socket) {
+        this.servidor = servidor;
+        this.controller = controller;
+        this.socket = socket;
+        this.aTerminar = false;
+        this.email = null;
+    }
+
+    /**
+     * Cria uma sessão sem ligação, cujos pedidos são lidos de outra entrada com
+     * {@link #atender(BufferedReader, Writer)}.
+     *
+     * @param controller Controller onde os pedidos são executados.
+     */
+    SessaoCliente(Controller controller) {
+        this(null, controller, null);
+    }
+
+    /**
+     * Começa a sessão numa thread criada pelo construtor de threads indicado.
+     *
+     * @param threads Construtor das threads das sessões.
+     */
+    void iniciar(Thread.Builder threads) {
+        this.thread = threads.start(this);
+    }
+
+    /**
+     * Pede à sessão que termine depois de responder ao pedido atual. Se estiver à espera de um pedido,
+     * termina de imediato.
+     */
+    void terminar() {
+        this.aTerminar = true;
+        try {
+            this.socket.shutdownInput();
+        } catch (IOException e) {
+            // a ligação já está fechada
+        }
+    }
+
+    /**
+     * Fecha a ligação de imediato, interrompendo o pedido atual.
+     */
+    void fechar() {
+        try {
+            this.socket.close();
+        } catch (IOException e) {
+            // a ligação já está fechada
+        }
+    }
+
+    /**
+     * Espera que a sessão termine.
+     *
+     * @param prazo Tempo máximo de espera.
+     * @return true se a sessão terminou.
+     * @throws InterruptedException Se a thread for interrompida durante a espera.
+     */
+    boolean esperar(Duration prazo) throws InterruptedException {
+        return this.thread.join(prazo);
+    }
+
+    /**
+     * Atende os pedidos do cliente até ele fechar a ligação, pedir para sair ou o servidor terminar.
+     */
+    @Override
+    public void run() {
+        try (Socket s = this.socket) {
+            s.setTcpNoDelay(true);
+            atender(new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8)),
+                    new BufferedWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            // ligação fechada pelo cliente ou pelo servidor
+        } finally {
+            this.servidor.sessaoTerminada(this);
+        }
+    }
+
+    /**
+     * Lê e responde aos pedidos de uma entrada até ela terminar, o cliente pedir para sair ou a sessão ser
+     * terminada.
+     *
+     * @param entrada   Entrada dos pedidos.
+     * @param escritor  Destino das respostas.
+     * @throws IOException Se ocorrer um erro de leitura ou de escrita.
+     */
+    void atender(BufferedReader entrada, Writer escritor) throws IOException {
+        SaidaProtocolo saida = new SaidaProtocolo(escritor);
+        boolean continuar = true;
+        String pedido;
+        while (continuar && !this.aTerminar && (pedido = lerPedido(entrada)) != null) {
+            continuar = responder(pedido, saida);
+            // envia as respostas acumuladas só quando o cliente não tem mais pedidos à espera
+            if (!continuar || !entrada.ready()) escritor.flush();
+        }
+        escritor.flush();
+    }
+
+    /**
+     * Lê um pedido (uma linha). Uma linha maior do que {@link #MAXIMO_PEDIDO} é descartada sem ser guardada
+     * e é devolvida como um pedido vazio, que é rejeitado.
+     *
+     * @param entrada Entrada do cliente.
+     * @return Linha lida (sem o fim de linha), ou null se a ligação terminou.
+     * @throws IOException Se ocorrer um erro de leitura.
+     */
+    private static String lerPedido(Reader entrada) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        boolean longo = false;
+        int c;
+        while ((c = entrada.read()) != -1 && c != '\n') {
+            if (sb.length() < MAXIMO_PEDIDO) sb.append((char) c);
+            else longo = true;
+        }
+        if (c == -1 && sb.length() == 0) return null;
+        if (longo) return "";
+        int fim = sb.length();
+        if (fim > 0 && sb.charAt(fim - 1) == '\r') fim--;
+        return sb.substring(0, fim);
+    }
+
+    /**
+     * Executa um pedido e escreve a resposta.
+     *
+     * @param pedido Linha do pedido.
+     * @param saida  Saída das respostas.
+     * @return false se a sessão deve terminar.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    private boolean responder(String pedido, SaidaProtocolo saida) throws IOException {
+        String[] partes = pedido.strip().split(" +", 2);
+        String comando = partes[0].toUpperCase(Locale.ROOT);
+        String argumento = (partes.length > 1) ? partes[1] : "";
+
+        try {
+            switch (comando) {
+                case "LOGIN": login(argumento, saida); break;
+                case "PLAY": play(argumento, saida); break;
+                case "LIST": listar(argumento, saida); break;
+                case "STATS": stats(argumento, saida); break;
+                case "QUIT":
+                    saida.terminar();
+                    return false;
+                case "":
+                    saida.erro("Pedido vazio ou com mais de " + MAXIMO_PEDIDO + " caracteres");
+                    return true;
+                default:
+                    saida.erro("Comando desconhecido: " + partes[0]);
+                    return true;
+            }
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            if (saida.isIniciada()) {
+                saida.interromper(mensagemErro(e));
+            } else {
+                saida.erro(mensagemErro(e));
+            }
+            return true;
+        }
+        saida.terminar();
+        return true;
+    }
+
+    /**
+     * Devolve a mensagem de erro enviada ao cliente. Os erros de utilização do protocolo são enviados tal como
+     * estão; os restantes (por exemplo, uma música inexistente) levam o nome da exceção, porque a mensagem das
+     * exceções do sistema é muitas vezes só o nome da entidade em causa.
+     *
+     * @param e Exceção lançada pelo pedido.
+     * @return Mensagem de erro.
+     */
+    private static String mensagemErro(Exception e) {
+        if (e.getMessage() == null) return e.getClass().getSimpleName();
+        if (e instanceof IllegalArgumentException || e instanceof IllegalStateException) return e.getMessage();
+        return e.getClass().getSimpleName() + ": " + e.getMessage();
+    }
+
+    /**
+     * Autentica o utilizador da sessão: {@code LOGIN <email> <password>}.
+     *
+     * @param argumento Email e password.
+     * @param saida     Saída das respostas.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    private void login(String argumento, SaidaProtocolo saida) throws IOException {
+        String[] credenciais = argumento.split(" ", 2);
+        if (credenciais.length < 2) {
+            throw new IllegalArgumentException("Uso: LOGIN <email> <password>");
+        }
+        if (!this.controller.login(credenciais[0], credenciais[1])) {
+            throw new IllegalArgumentException("Credenciais inválidas");
+        }
+        this.email = credenciais[0];
+    }
+
+    /**
+     * Reproduz uma música para o utilizador da sessão: {@code PLAY <música>}.
+     * O resultado da reprodução é escrito diretamente no socket.
+     *
+     * @param argumento Nome da música.
+     * @param saida     Saída das respostas.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    private void play(String argumento, SaidaProtocolo saida) throws IOException {
+        String utilizador = autenticado();
+        if (argumento.isBlank()) throw new IllegalArgumentException("Uso: PLAY <música>");
+        this.controller.ouvirMusica(utilizador, argumento, saida);
+    }
+
+    /**
+     * Lista as músicas, as playlists acessíveis ou a biblioteca do utilizador da sessão:
+     * {@code LIST [MUSICAS|PLAYLISTS|BIBLIOTECA]}.
+     *
+     * @param argumento O que listar (por omissão, as músicas).
+     * @param saida     Saída das respostas.
+     * @throws Exception Se a listagem falhar.
+     */
+    private void listar(String argumento, SaidaProtocolo saida) throws Exception {
+        switch (argumento.strip().toUpperCase(Locale.ROOT)) {
+            case "":
+            case "MUSICAS": saida.append(this.controller.listarMusicas()); break;
+            case "PLAYLISTS": saida.append(this.controller.listarPlaylist(autenticado())); break;
+            case "BIBLIOTECA": saida.append(this.controller.listarBiblioteca(autenticado())); break;
+            default: throw new IllegalArgumentException("Uso: LIST [MUSICAS|PLAYLISTS|BIBLIOTECA]");
+        }
+    }
+
+    /**
+     * Consulta as estatísticas do sistema: {@code STATS MUSICA|ARTISTA|UTILIZADOR|GENERO|PUBLICAS|PLAYLISTS}
+     * ou {@code STATS TOP MUSICAS|ARTISTAS|GENEROS [k]}.
+     *
+     * @param argumento Estatística a consultar.
+     * @param saida     Saída das respostas.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    private void stats(String argumento, SaidaProtocolo saida) throws IOException {
+        String[] partes = argumento.strip().toUpperCase(Locale.ROOT).split(" +");
+        switch (partes[0]) {
+            case "MUSICA": saida.append(this.controller.countMusicas()); break;
+            case "ARTISTA": saida.append(this.controller.calcArtistaMaisEscutado()); break;
+            case "UTILIZADOR": saida.append(this.controller.countUtilizador()); break;
+            case "GENERO": saida.append(this.controller.generoMaisReproduzido()); break;
+            case "PUBLICAS": saida.append(String.valueOf(this.controller.playlistPublicas())); break;
+            case "PLAYLISTS": saida.append(this.controller.utilizadorMaisPlaylists()); break;
+            case "TOP":
+                int k = (partes.length > 2) ? Integer.parseInt(partes[2]) : TOP_OMISSAO;
+                if (k <= 0) throw new IllegalArgumentException("O top tem de ter pelo menos um elemento");
+                String tipo = (partes.length > 1) ? partes[1] : "";
+                switch (tipo) {
+                    case "MUSICAS": saida.append(this.controller.topMusicas(k)); break;
+                    case "ARTISTAS": saida.append(this.controller.topArtistas(k)); break;
+                    case "GENEROS": saida.append(this.controller.topGeneros(k)); break;
+                    default: throw new IllegalArgumentException("Uso: STATS TOP MUSICAS|ARTISTAS|GENEROS [k]");
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Uso: STATS MUSICA|ARTISTA|UTILIZADOR|GENERO|PUBLICAS|PLAYLISTS|TOP");
+        }
+    }
+
+    /**
+     * Devolve o email do utilizador da sessão.
+     *
+     * @return Email do utilizador autenticado.
+     * @throws IllegalStateException Se a sessão ainda não estiver autenticada.
+     */
+    private String autenticado() {
+        if (this.email == null) throw new IllegalStateException("É preciso fazer LOGIN primeiro");
+        return this.email;
+    }
+}
@@ -1,71 +1,273 @@
 package SpotifUM;
 
 import Classes.*;
+import Classes.Concorrencia.CombinadorOperacoes;
+import Classes.Concorrencia.ListaAcrescentavel;
+import Classes.Concorrencia.TrincosPorChave;
+import Classes.Estatisticas.ContadorOrdenado;
+import Classes.Estatisticas.MotorEstatisticas;
+import Classes.Historico.EventoReproducao;
+import Classes.Historico.RegistoReproducoes;
+import Classes.Historico.VistaReproducoes;
+import Classes.Indices.IndiceSugestoes;
+import Classes.Indices.IndiceCatalogo;
+import Classes.Indices.IndiceOuvidas;
+import Classes.Indices.IndicePesquisa;
+import Classes.Metricas.Contador;
+import Classes.Metricas.Instrumentacao;
+import Classes.Metricas.Temporizador;
 import Classes.Musicas.Musica;
 import Classes.Musicas.MusicaExplicita;
+import Classes.Persistencia.EscritaOperacao;
+import Classes.Persistencia.EscritorSnapshot;
+import Classes.Persistencia.GestorDurabilidade;
+import Classes.Persistencia.LeitorSnapshot;
 import Classes.Planos.*;
 import Classes.Playlists.Playlist;
 import Classes.Playlists.PlaylistFavoritos;
 import Classes.Playlists.PlaylistGenero;
+import Classes.Recomendacoes.MotorRecomendacoes;
+import Classes.Recomendacoes.SessoesAudicao;
+import Classes.Vistas.ListaCapturada;
 import Exceptions.*;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * Classe principal do modelo que representa o sistema SpotifUM.
  * Armazena e gere dados sobre utilizadores, músicas, reproduções, álbuns, playlists e artistas.
+ *
+ * O modelo pode ser usado por várias threads (uma por sessão) ao mesmo tempo:
+ * <ul>
+ *     <li>Os utilizadores e os artistas estão em mapas concorrentes e as músicas, álbuns e playlists em listas
+ *     onde só se acrescenta, que podem ser lidas sem trincos.</li>
+ *     <li>As alterações do dia a dia (reproduções, registos, playlists, bibliotecas, planos) são submetidas a um
+ *     {@link CombinadorOperacoes}: cada thread acrescenta a sua operação a uma fila sem trincos e uma das threads
+ *     aplica as pendentes, por ordem, registando-as no diário num só lote. Como só uma thread de cada vez altera
+ *     o histórico, as estatísticas e os pontos, as regras que envolvem várias entidades (pontos ganhos numa
+ *     reprodução, melhoria de plano com os pontos acumulados) mantêm-se corretas.</li>
+ *     <li>Os dados de cada utilizador (pontos, plano, biblioteca, músicas ouvidas e visibilidade das suas
+ *     playlists) só são alterados com o trinco da sua risca, pelo que podem ser consultados sem esperar
+ *     pelas alterações dos outros utilizadores.</li>
+ *     <li>As alterações ao catálogo de músicas, a substituição de coleções inteiras, a recuperação do diário e os
+ *     lotes de importação são exclusivas: esperam que terminem todas as outras operações.</li>
+ * </ul>
+ * Os trincos são obtidos sempre por esta ordem: estrutura (leitura ou escrita), combinador, risca do utilizador.
+ *
+ * As alterações são aplicadas em memória antes de serem registadas no diário. Se o registo falhar, o modelo fica
+ * só de leitura: deixa de aceitar alterações e de gravar snapshots, para que os efeitos que não chegaram ao diário
+ * nunca fiquem em disco, e o estado deve ser recuperado a partir do disco.
  */
 public class SpotifUM implements Serializable {
 
+    /**
+     * Tipos das operações registadas no diário.
+     */
+    private static final int OP_REGISTAR_UTILIZADOR = 0;
+    private static final int OP_ADICIONAR_ARTISTA = 1;
+    private static final int OP_ADICIONAR_MUSICA = 2;
+    private static final int OP_ADICIONAR_ALBUM = 3;
+    private static final int OP_ADICIONAR_PLAYLIST = 4;
+    private static final int OP_REPRODUZIR_MUSICA = 5;
+    private static final int OP_MELHORAR_PLANO = 6;
+    private static final int OP_ALTERAR_VISIBILIDADE = 7;
+    private static final int OP_BIBLIOTECA_PLAYLIST = 8;
+    private static final int OP_BIBLIOTECA_ALBUM = 9;
+    private static final int OP_REPRODUZIR_LOTE = 10;
+
+    /**
+     * Número de riscas dos trincos dos utilizadores.
+     */
+    private static final int RISCAS_UTILIZADORES = 256;
+
+    /**
+     * Número de músicas de uma playlist de favoritos e número de músicas mais ouvidas pelo utilizador usadas
+     * como ponto de partida das recomendações.
+     */
+    private static final int TAMANHO_PLAYLIST_FAVORITA = 30;
+    private static final int SEMENTES_PLAYLIST_FAVORITA = 50;
+
+    /**
+     * Até este número de reproduções, a tabela de recomendações em falta ou desatualizada é construída antes de
+     * gerar a playlist (demora poucos milissegundos); a partir daí é construída em segundo plano.
+     */
+    private static final int RECONSTRUCAO_SINCRONA = 100_000;
+
+    /**
+     * Métricas dos caminhos mais usados do modelo (ver {@link Instrumentacao}).
+     */
+    private static final Temporizador TEMPO_REPRODUCAO = Instrumentacao.getRegisto().temporizador(
+            "spotifum_reproducao_segundos", "Duração do registo de uma reprodução");
+    private static final Temporizador TEMPO_REPRODUCAO_LOTE = Instrumentacao.getRegisto().temporizador(
+            "spotifum_reproducao_lote_segundos", "Duração do registo de um lote de reproduções");
+    private static final Contador REPRODUCOES_LOTE = Instrumentacao.getRegisto().contador(
+            "spotifum_reproducoes_lote_total", "Reproduções registadas em lote");
+    private static final Temporizador TEMPO_PESQUISA = Instrumentacao.getRegisto().temporizador(
+            "spotifum_pesquisa_segundos", "Duração de uma pesquisa de texto livre no catálogo");
+    private static final Temporizador TEMPO_SUGESTOES = Instrumentacao.getRegisto().temporizador(
+            "spotifum_sugestoes_segundos", "Duração da procura de nomes próximos de um nome inexistente");
+    private static final Temporizador TEMPO_RECOMENDACOES = Instrumentacao.getRegisto().temporizador(
+            "spotifum_recomendacoes_construcao_segundos", "Duração da construção da tabela de recomendações");
+    private static final Temporizador TEMPO_PLAYLIST_FAVORITA = tempoGeracaoPlaylist("favorita");
+    private static final Temporizador TEMPO_PLAYLIST_TEMPO = tempoGeracaoPlaylist("tempo");
+    private static final Temporizador TEMPO_PLAYLIST_EXPLICITA = tempoGeracaoPlaylist("explicita");
+    private static final Temporizador TEMPO_PLAYLIST_ALEATORIA = tempoGeracaoPlaylist("aleatoria");
+
     /**
      * Mapa de utilizadores, indexados pelo seu email.
      */
-    private HashMap<String, Utilizador> utilizadores;
+    private ConcurrentHashMap<String, Utilizador> utilizadores;
+
+    /**
+     * Histórico das reproduções feitas no sistema, em formato colunar
+     * (id do utilizador, id da música e instante de cada reprodução).
+     */
+    private RegistoReproducoes reproducoes;
+
+    /**
+     * Emails dos utilizadores, indexados pelo id numérico usado no histórico de reproduções.
+     */
+    private ListaAcrescentavel<String> emailsUtilizadores;
 
     /**
-     * Lista de reproduções feitas no sistema.
+     * Id numérico de cada utilizador, indexado pelo email. É reconstruído a partir de {@code emailsUtilizadores}.
      */
-    private ArrayList<Reproducao> reproducoes;
+    private transient ConcurrentHashMap<String, Integer> idsUtilizadores;
 
     /**
      * Lista de músicas disponíveis na plataforma.
      */
-    private ArrayList<Musica> musicas;
+    private ListaAcrescentavel<Musica> musicas;
 
     /**
      * Lista de álbuns disponíveis.
      */
-    private ArrayList<Album> albuns;
+    private ListaAcrescentavel<Album> albuns;
 
     /**
      * Lista de playlists disponíveis.
      */
-    private ArrayList<Playlist> playlists;
+    private ListaAcrescentavel<Playlist> playlists;
 
     /**
      * Mapa de artistas disponíveis, indexados pelo nome.
      */
-    private HashMap<String, Artista> artistas;
+    private ConcurrentHashMap<String, Artista> artistas;
+
+    /**
+     * Índice do catálogo de músicas (por nome, prefixo, género, artista e editora).
+     * Não é guardado em ficheiro: é reconstruído a partir da lista de músicas ao carregar o estado.
+     */
+    private transient IndiceCatalogo indiceCatalogo;
+
+    /**
+     * Índice invertido para a pesquisa de texto livre (nome, artista, editora e letra das músicas).
+     * É guardado no snapshot binário, para não ter de ser reconstruído ao carregar o estado.
+     */
+    private transient IndicePesquisa indicePesquisa;
+
+    /**
+     * Índices dos nomes das músicas, álbuns, playlists e artistas, para sugerir nomes próximos de um nome
+     * inexistente. São reconstruídos a partir das coleções ao carregar o estado.
+     */
+    private transient IndiceSugestoes nomesMusicas;
+    private transient IndiceSugestoes nomesAlbuns;
+    private transient IndiceSugestoes nomesPlaylists;
+    private transient IndiceSugestoes nomesArtistas;
+
+    /**
+     * Índice das músicas já ouvidas por cada utilizador.
+     * É reconstruído a partir do histórico de reproduções ao carregar o estado.
+     */
+    private transient IndiceOuvidas indiceOuvidas;
+
+    /**
+     * Tabela de recomendações por co-audição (null até estar construída). É construída em segundo plano depois de
+     * carregar o estado, a partir do histórico de reproduções, e substituída por uma nova quando o histórico cresce
+     * mais de 10%.
+     */
+    private transient volatile MotorRecomendacoes recomendacoes;
+
+    /**
+     * Estatísticas do sistema, atualizadas a cada alteração do modelo.
+     * São recalculadas a partir dos dados do modelo ao carregar o estado.
+     */
+    private transient MotorEstatisticas estatisticas;
+
+    /**
+     * Gestor do diário de operações, se a durabilidade estiver ativa. Cada alteração feita pelos métodos
+     * de registo e adição é escrita no diário antes de o método terminar.
+     */
+    private transient GestorDurabilidade durabilidade;
+
+    /**
+     * Número da última operação do diário refletida neste estado.
+     */
+    private transient long ultimaOperacao;
+
+    /**
+     * Operações por registar no diário, durante {@link #executarEmLote(Runnable)} (null fora de um lote).
+     */
+    private transient List<byte[]> loteOperacoes;
+
+    /**
+     * Falha do registo no diário que pôs o modelo só de leitura (null enquanto o diário estiver consistente).
+     */
+    private transient volatile PersistenciaException falhaDiario;
+
+    /**
+     * Trinco das alterações estruturais: as consultas e as operações submetidas ao combinador usam o trinco
+     * de leitura; as alterações ao catálogo de músicas e a substituição de coleções usam o de escrita.
+     */
+    private transient ReentrantReadWriteLock estrutura;
+
+    /**
+     * Combinador que aplica, uma de cada vez, as alterações submetidas pelas várias threads.
+     */
+    private transient CombinadorOperacoes combinador;
+
+    /**
+     * Trincos dos dados de cada utilizador, repartidos pelo email.
+     */
+    private transient TrincosPorChave trincosUtilizadores;
+
+    /**
+     * Trinco da construção da tabela de recomendações, para que não sejam construídas duas ao mesmo tempo.
+     */
+    private transient ReentrantLock trincoRecomendacoes;
 
     /**
      * Construtor por omissão. Inicializa todas as estruturas de dados vazias.
      */
     public SpotifUM() {
-        this.utilizadores = new HashMap<>();
-        this.reproducoes = new ArrayList<>();
-        this.musicas = new ArrayList<>();
-        this.albuns = new ArrayList<>();
-        this.playlists = new ArrayList<>();
-        this.artistas = new HashMap<>();
+        criarTrincos();
+        this.utilizadores = new ConcurrentHashMap<>();
+        this.reproducoes = new RegistoReproducoes();
+        this.emailsUtilizadores = new ListaAcrescentavel<>();
+        this.musicas = new ListaAcrescentavel<>();
+        this.albuns = new ListaAcrescentavel<>();
+        this.playlists = new ListaAcrescentavel<>();
+        this.artistas = new ConcurrentHashMap<>();
+        reconstruirIndices();
     }
 
     /**
      * Construtor com parâmetros. Clona todos os objetos recebidos para manter encapsulamento.
      *
-     * @param utilizadores Mapa de utilizadores.
+     * @param utilizadores Mapa de utilizadores (o modelo indexa-os pelo email).
      * @param reproducoes  Lista de reproduções.
      * @param musicas      Lista de músicas.
      * @param albuns       Lista de álbuns.
@@ -75,42 +277,44 @@ public class SpotifUM implements Serializable {
     public SpotifUM(HashMap<String, Utilizador> utilizadores, ArrayList<Reproducao> reproducoes,
                     ArrayList<Musica> musicas, ArrayList<Album> albuns,
                     ArrayList<Playlist> playlists, HashMap<String, Artista> artistas) {
+        criarTrincos();
 
-        HashMap<String, Utilizador> newUtilizadores = new HashMap<>();
+        ConcurrentHashMap<String, Utilizador> newUtilizadores = new ConcurrentHashMap<>();
         for (Utilizador utilizador : utilizadores.values()) {
-            newUtilizadores.put(utilizador.getNome(), utilizador.clone());
+            newUtilizadores.put(utilizador.getEmail(), utilizador.clone());
         }
         this.utilizadores = newUtilizadores;
 
-        ArrayList<Reproducao> newReproducoes = new ArrayList<>();
-        for (Reproducao reproducao : reproducoes) {
-            newReproducoes.add(reproducao.clone());
-        }
-        this.reproducoes = newReproducoes;
-
-        ArrayList<Musica> newMusicas = new ArrayList<>();
+        ListaAcrescentavel<Musica> newMusicas = new ListaAcrescentavel<>();
         for (Musica musica : musicas) {
             newMusicas.add(musica.clone());
         }
         this.musicas = newMusicas;
 
-        ArrayList<Album> newAlbuns = new ArrayList<>();
+        ListaAcrescentavel<Album> newAlbuns = new ListaAcrescentavel<>();
         for (Album album : albuns) {
             newAlbuns.add(album.clone());
         }
         this.albuns = newAlbuns;
 
-        ArrayList<Playlist> newPlaylists = new ArrayList<>();
+        ListaAcrescentavel<Playlist> newPlaylists = new ListaAcrescentavel<>();
         for (Playlist playlist : playlists) {
             newPlaylists.add(playlist.clone());
         }
         this.playlists = newPlaylists;
 
-        HashMap<String, Artista> newArtistas = new HashMap<>();
+        ConcurrentHashMap<String, Artista> newArtistas = new ConcurrentHashMap<>();
         for (Artista artista : artistas.values()) {
             newArtistas.put(artista.getNome(), artista.clone());
         }
         this.artistas = newArtistas;
+
+        this.emailsUtilizadores = new ListaAcrescentavel<>();
+        this.reproducoes = new RegistoReproducoes();
+        reconstruirIndices();
+        for (Reproducao reproducao : reproducoes) {
+            adicionarReproducao(reproducao);
+        }
     }
 
     /**
@@ -119,90 +323,857 @@ public class SpotifUM implements Serializable {
      * @param spotifum Instância a copiar.
      */
     public SpotifUM(SpotifUM spotifum) {
-        this.utilizadores = spotifum.getUtilizadores();
-        this.reproducoes = spotifum.getReproducoes();
-        this.musicas = spotifum.getMusicas();
-        this.albuns = spotifum.getAlbuns();
-        this.playlists = spotifum.getPlaylists();
+        criarTrincos();
+        spotifum.lerRegisto(() -> {
+            // getUtilizadores() indexa as cópias pelo nome; o modelo indexa os utilizadores pelo email
+            this.utilizadores = new ConcurrentHashMap<>();
+            for (Utilizador utilizador : spotifum.getUtilizadores().values()) {
+                this.utilizadores.put(utilizador.getEmail(), utilizador);
+            }
+            this.reproducoes = new RegistoReproducoes(spotifum.reproducoes);
+            this.emailsUtilizadores = new ListaAcrescentavel<>(spotifum.emailsUtilizadores);
+            this.musicas = new ListaAcrescentavel<>(spotifum.getMusicas());
+            this.albuns = new ListaAcrescentavel<>(spotifum.getAlbuns());
+            this.playlists = new ListaAcrescentavel<>(spotifum.getPlaylists());
+            this.artistas = new ConcurrentHashMap<>(spotifum.getArtistas());
+        });
+        reconstruirIndices();
+    }
+
+    /**
+     * Cria os trincos e o combinador do modelo (não são guardados em ficheiro).
+     */
+    private void criarTrincos() {
+        this.estrutura = new ReentrantReadWriteLock();
+        this.combinador = new CombinadorOperacoes(this::registarEmGrupo);
+        this.trincosUtilizadores = new TrincosPorChave(RISCAS_UTILIZADORES);
+        this.trincoRecomendacoes = new ReentrantLock();
+    }
+
+    /**
+     * Executa uma consulta com o trinco de leitura da estrutura.
+     *
+     * @param consulta Consulta a executar.
+     * @param <R>      Tipo do resultado.
+     * @return Resultado da consulta.
+     */
+    private <R> R ler(Supplier<R> consulta) {
+        this.estrutura.readLock().lock();
+        try {
+            return consulta.get();
+        } finally {
+            this.estrutura.readLock().unlock();
+        }
+    }
+
+    /**
+     * Executa uma consulta sem nenhuma alteração a decorrer, para os dados que são alterados pelo combinador
+     * (histórico, estatísticas e dados de todos os utilizadores).
+     *
+     * @param consulta Consulta a executar.
+     * @param <R>      Tipo do resultado.
+     * @return Resultado da consulta.
+     */
+    private <R> R lerRegisto(Supplier<R> consulta) {
+        return ler(() -> this.combinador.executarExclusivo(consulta));
+    }
+
+    /**
+     * Executa uma consulta sem nenhuma alteração a decorrer.
+     *
+     * @param consulta Consulta a executar.
+     */
+    private void lerRegisto(Runnable consulta) {
+        lerRegisto(() -> {
+            consulta.run();
+            return null;
+        });
+    }
+
+    /**
+     * Submete uma alteração ao combinador e espera que seja aplicada (e registada no diário).
+     *
+     * @param alteracao Alteração a aplicar.
+     * @param <R>       Tipo do resultado.
+     * @return Resultado da alteração.
+     */
+    private <R> R alterar(Supplier<R> alteracao) {
+        return ler(() -> this.combinador.executar(() -> {
+            verificarAlteravel();
+            return alteracao.get();
+        }));
+    }
+
+    /**
+     * Submete uma alteração ao combinador e espera que seja aplicada (e registada no diário).
+     *
+     * @param alteracao Alteração a aplicar.
+     */
+    private void alterar(Runnable alteracao) {
+        alterar(() -> {
+            alteracao.run();
+            return null;
+        });
+    }
+
+    /**
+     * Executa uma alteração estrutural, com o trinco de escrita: espera que terminem todas as consultas e
+     * alterações em curso e impede que comecem outras.
+     *
+     * @param alteracao Alteração a executar.
+     */
+    private void alterarEstrutura(Runnable alteracao) {
+        this.estrutura.writeLock().lock();
+        try {
+            verificarAlteravel();
+            alteracao.run();
+        } finally {
+            this.estrutura.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Verifica que o modelo aceita alterações, isto é, que nenhum registo no diário falhou.
+     *
+     * @throws IllegalStateException Se o modelo estiver só de leitura.
+     */
+    private void verificarAlteravel() {
+        if (this.falhaDiario != null) {
+            throw new IllegalStateException("O modelo está só de leitura: uma alteração não foi registada no diário",
+                    this.falhaDiario);
+        }
+    }
+
+    /**
+     * Indica se o modelo ficou só de leitura por ter falhado o registo de uma alteração no diário.
+     * Nesse caso, o estado em memória pode ter alterações que não estão no diário e deve ser recuperado do disco.
+     *
+     * @return true se o modelo estiver só de leitura.
+     */
+    public boolean isSoLeitura() {
+        return this.falhaDiario != null;
+    }
+
+    /**
+     * Põe o modelo só de leitura depois de uma falha no registo do diário.
+     *
+     * @param mensagem Descrição da falha.
+     * @param causa    Erro do registo.
+     * @return Exceção a lançar a quem pediu a alteração.
+     */
+    private PersistenciaException falharDiario(String mensagem, IOException causa) {
+        PersistenciaException falha = new PersistenciaException(mensagem, causa);
+        this.falhaDiario = falha;
+        return falha;
+    }
+
+    /**
+     * Executa uma ação com o trinco dos dados de um utilizador.
+     *
+     * @param email Email do utilizador.
+     * @param acao  Ação a executar.
+     * @param <R>   Tipo do resultado.
+     * @return Resultado da ação.
+     */
+    private <R> R comUtilizador(String email, Supplier<R> acao) {
+        ReentrantLock trinco = this.trincosUtilizadores.trinco(email);
+        trinco.lock();
+        try {
+            return acao.get();
+        } finally {
+            trinco.unlock();
+        }
+    }
+
+    /**
+     * Reconstrói as estruturas auxiliares (índices) a partir dos dados do modelo
+     * e faz com que álbuns, playlists e bibliotecas partilhem as entidades do registo.
+     */
+    private void reconstruirIndices() {
+        reconstruirIndices(null);
+    }
+
+    /**
+     * Reconstrói as estruturas auxiliares, reaproveitando um índice de pesquisa já carregado.
+     *
+     * @param pesquisa Índice de pesquisa lido do snapshot (null para o reconstruir a partir do catálogo).
+     */
+    private void reconstruirIndices(IndicePesquisa pesquisa) {
+        this.idsUtilizadores = new ConcurrentHashMap<>();
+        for (int id = 0; id < this.emailsUtilizadores.size(); id++) {
+            this.idsUtilizadores.put(this.emailsUtilizadores.get(id), id);
+        }
+        this.indiceCatalogo = new IndiceCatalogo(this.musicas);
+        this.indicePesquisa = (pesquisa != null) ? pesquisa : new IndicePesquisa(this.musicas);
+        this.indiceOuvidas = new IndiceOuvidas();
+        this.reproducoes.percorrer((utilizador, musica, instante) ->
+                this.indiceOuvidas.registar(this.emailsUtilizadores.get(utilizador), musica));
+        partilharEntidades();
+        reconstruirEstatisticas();
+        this.nomesMusicas = new IndiceSugestoes();
+        for (Musica musica : this.musicas) {
+            this.nomesMusicas.adicionar(musica.getNome());
+        }
+        reconstruirNomesAlbuns();
+        reconstruirNomesPlaylists();
+        reconstruirNomesArtistas();
+        this.recomendacoes = null;
+    }
+
+    /**
+     * Reconstrói o índice dos nomes dos álbuns.
+     */
+    private void reconstruirNomesAlbuns() {
+        this.nomesAlbuns = new IndiceSugestoes();
+        for (Album album : this.albuns) {
+            this.nomesAlbuns.adicionar(album.getNome());
+        }
+    }
+
+    /**
+     * Reconstrói o índice dos nomes das playlists.
+     */
+    private void reconstruirNomesPlaylists() {
+        this.nomesPlaylists = new IndiceSugestoes();
+        for (Playlist playlist : this.playlists) {
+            this.nomesPlaylists.adicionar(playlist.getNome());
+        }
+    }
+
+    /**
+     * Reconstrói o índice dos nomes dos artistas.
+     */
+    private void reconstruirNomesArtistas() {
+        this.nomesArtistas = new IndiceSugestoes();
+        for (String nome : this.artistas.keySet()) {
+            this.nomesArtistas.adicionar(nome);
+        }
+    }
+
+    /**
+     * Substitui, em todos os álbuns, playlists e bibliotecas, as cópias de músicas e de utilizadores pelas
+     * instâncias do registo, e nas músicas do catálogo e nos álbuns as cópias dos artistas. É o que migra os estados
+     * gravados antes de as entidades serem partilhadas, em que cada álbum e playlist tinha as suas próprias cópias
+     * das músicas.
+     */
+    private void partilharEntidades() {
+        for (Musica musica : this.musicas) {
+            musica.setInterprete(artistaRegistado(musica.getInterprete()));
+        }
+        for (Album album : this.albuns) {
+            partilharEntidades(album);
+        }
+        for (Playlist playlist : this.playlists) {
+            partilharEntidades(playlist);
+        }
+        for (Utilizador utilizador : this.utilizadores.values()) {
+            Biblioteca biblioteca = utilizador.getBiblioteca();
+            if (biblioteca == null) continue;
+            ArrayList<Playlist> playlistsBiblioteca = biblioteca.getPlaylist();
+            playlistsBiblioteca.forEach(this::partilharEntidades);
+            biblioteca.setPlaylist(playlistsBiblioteca);
+            ArrayList<Album> albunsBiblioteca = biblioteca.getAlbuns();
+            albunsBiblioteca.forEach(this::partilharEntidades);
+            biblioteca.setAlbuns(albunsBiblioteca);
+        }
+    }
+
+    /**
+     * Faz com que um álbum use as músicas do registo.
+     *
+     * @param album Álbum a alterar.
+     */
+    private void partilharEntidades(Album album) {
+        album.setAutor(artistaRegistado(album.getAutor()));
+        album.setMusicas(partilharMusicas(album.getMusicas()));
+    }
+
+    /**
+     * Devolve a instância do registo que corresponde a um artista: o artista com o mesmo nome, se for do mesmo país.
+     * Artistas que não estejam no registo são devolvidos tal como estão.
+     *
+     * @param artista Artista.
+     * @return Artista do registo, ou o próprio.
+     */
+    private Artista artistaRegistado(Artista artista) {
+        if (artista == null) return null;
+        Artista registado = this.artistas.get(artista.getNome());
+        return (registado != null && Objects.equals(registado.getPais(), artista.getPais())) ? registado : artista;
+    }
+
+    /**
+     * Faz com que uma playlist use as músicas e o utilizador do registo.
+     *
+     * @param playlist Playlist a alterar.
+     */
+    private void partilharEntidades(Playlist playlist) {
+        playlist.setListaMusicas(partilharMusicas(playlist.getListaMusicas()));
+        Utilizador dono = playlist.getUtilizador();
+        if (dono != null && this.utilizadores.get(dono.getEmail()) != null) {
+            playlist.setUtilizador(this.utilizadores.get(dono.getEmail()));
+        }
+    }
+
+    /**
+     * Substitui as músicas de uma lista pelas respetivas instâncias do registo.
+     *
+     * @param musicas Lista de músicas.
+     * @return Nova lista, com as músicas do registo.
+     */
+    private ArrayList<Musica> partilharMusicas(List<Musica> musicas) {
+        ArrayList<Musica> partilhadas = new ArrayList<>(musicas.size());
+        for (Musica musica : musicas) {
+            partilhadas.add(musicaRegistada(musica));
+        }
+        return partilhadas;
+    }
+
+    /**
+     * Devolve a instância do registo que corresponde a uma música: a música do catálogo com o mesmo nome,
+     * se tiver os mesmos dados. Músicas que não estejam no catálogo são devolvidas tal como estão.
+     *
+     * @param musica Música a procurar (pode ser null).
+     * @return Música do registo, ou a própria música.
+     */
+    private Musica musicaRegistada(Musica musica) {
+        if (musica == null) return null;
+        int id = this.indiceCatalogo.getId(musica.getNome());
+        if (id < 0) return musica;
+        Musica registada = this.musicas.get(id);
+        return registada.mesmosDados(musica) ? registada : musica;
+    }
+
+    /**
+     * Recalcula as estatísticas a partir dos dados do modelo, mantendo o modo do top-K.
+     */
+    private void reconstruirEstatisticas() {
+        MotorEstatisticas motor = calcularEstatisticas();
+        motor.manterModo(this.estatisticas);
+        this.estatisticas = motor;
+    }
+
+    /**
+     * Calcula de raiz todas as estatísticas a partir dos dados do modelo.
+     *
+     * @return Motor de estatísticas com os valores atuais.
+     */
+    private MotorEstatisticas calcularEstatisticas() {
+        MotorEstatisticas motor = new MotorEstatisticas();
+        for (int id = 0; id < this.musicas.size(); id++) {
+            motor.registarMusica(id, this.musicas.get(id));
+        }
+        this.reproducoes.percorrer((utilizador, musica, instante) ->
+                motor.registarReproducaoUtilizador(this.emailsUtilizadores.get(utilizador)));
+        for (Utilizador utilizador : this.utilizadores.values()) {
+            motor.registarPontos(utilizador.getEmail(), utilizador.getPontos());
+        }
+        for (Playlist playlist : this.playlists) {
+            motor.registarPlaylist(playlist);
+        }
+        return motor;
+    }
+
+    /**
+     * Devolve o id numérico de um utilizador, atribuindo um novo id se ainda não tiver.
+     *
+     * @param email Email do utilizador.
+     * @return Id do utilizador.
+     */
+    private int idUtilizador(String email) {
+        Integer id = this.idsUtilizadores.get(email);
+        if (id == null) {
+            id = this.emailsUtilizadores.size();
+            this.emailsUtilizadores.add(email);
+            this.idsUtilizadores.put(email, id);
+        }
+        return id;
+    }
+
+    /**
+     * Acrescenta uma reprodução ao histórico, convertendo-a para ids.
+     *
+     * @param reproducao Reprodução a acrescentar.
+     * @throws MusicaInexistenteException Se a música da reprodução não existir no catálogo.
+     */
+    private void adicionarReproducao(Reproducao reproducao) {
+        String nomeMusica = reproducao.getMusica().getNome();
+        int idMusica = this.indiceCatalogo.getId(nomeMusica);
+        if (idMusica < 0) throw new MusicaInexistenteException(nomeMusica);
+
+        registarReproducao(reproducao.getUtilizador().getEmail(), idMusica,
+                RegistoReproducoes.paraInstante(reproducao.getDataHora()));
+    }
+
+    /**
+     * Regista uma reprodução no histórico e atualiza as estruturas que dependem dele
+     * (músicas ouvidas e reproduções por utilizador).
+     *
+     * @param email    Email do utilizador.
+     * @param idMusica Id da música no catálogo.
+     * @param instante Instante da reprodução, em segundos desde a época.
+     */
+    private void registarReproducao(String email, int idMusica, long instante) {
+        this.reproducoes.adicionar(idUtilizador(email), idMusica, instante);
+        this.indiceOuvidas.registar(email, idMusica);
+        this.estatisticas.registarReproducaoUtilizador(email);
+    }
+
+    /**
+     * Converte a reprodução numa posição do histórico num objeto {@link Reproducao}.
+     *
+     * @param posicao Posição no histórico.
+     * @return Reprodução com o utilizador e a música do modelo.
+     */
+    private Reproducao getReproducao(int posicao) {
+        Utilizador u = this.utilizadores.get(this.emailsUtilizadores.get(this.reproducoes.getUtilizador(posicao)));
+        Musica m = this.musicas.get(this.reproducoes.getMusica(posicao));
+        return new Reproducao(u, m, RegistoReproducoes.paraDataHora(this.reproducoes.getInstante(posicao)));
+    }
+
+    /**
+     * Reconstrói os índices depois de o modelo ser lido de ficheiro.
+     *
+     * @param in Stream de onde o modelo é lido.
+     * @throws IOException Se ocorrer um erro de leitura.
+     * @throws ClassNotFoundException Se alguma classe lida não for encontrada.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        criarTrincos();
+        reconstruirIndices();
+    }
+
+    /**
+     * Escreve o estado do modelo num snapshot binário.
+     * As estruturas auxiliares (índices e estatísticas) não são escritas, sendo reconstruídas na leitura,
+     * com exceção do índice de pesquisa, que é escrito no fim.
+     *
+     * @param out Escritor do snapshot.
+     * @throws IOException Se ocorrer um erro de escrita ou se o modelo estiver só de leitura.
+     */
+    public void guardarSnapshot(EscritorSnapshot out) throws IOException {
+        try {
+            lerRegisto(() -> {
+                try {
+                    if (this.falhaDiario != null) {
+                        throw new IOException("O estado em memória tem alterações que não foram registadas no diário",
+                                this.falhaDiario);
+                    }
+                    out.escreverUtilizadores(this.utilizadores);
+                    out.escreverArtistas(this.artistas);
+                    out.escreverCatalogo(this.musicas);
+                    out.escreverAlbuns(this.albuns);
+                    out.escreverPlaylists(this.playlists);
+                    out.escreverBibliotecas();
+                    out.escreverListaTexto(this.emailsUtilizadores);
+                    out.escreverReproducoes(this.reproducoes);
+                    out.escreverIndicePesquisa(this.indicePesquisa);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Lê o estado do modelo de um snapshot binário escrito por {@link #guardarSnapshot(EscritorSnapshot)}.
+     *
+     * @param in Leitor do snapshot.
+     * @return Modelo lido.
+     * @throws IOException Se o snapshot estiver truncado ou corrompido.
+     */
+    public static SpotifUM lerSnapshot(LeitorSnapshot in) throws IOException {
+        SpotifUM spotifum = new SpotifUM();
+        spotifum.utilizadores = new ConcurrentHashMap<>(in.lerUtilizadores());
+        spotifum.artistas = new ConcurrentHashMap<>(in.lerArtistas());
+        spotifum.musicas = new ListaAcrescentavel<>(in.lerCatalogo());
+        spotifum.albuns = new ListaAcrescentavel<>(in.lerAlbuns());
+        spotifum.playlists = new ListaAcrescentavel<>(in.lerPlaylists());
+        in.lerBibliotecas();
+        ArrayList<String> emails = in.lerListaTexto();
+        spotifum.emailsUtilizadores = (emails == null) ? new ListaAcrescentavel<>() : new ListaAcrescentavel<>(emails);
+        spotifum.reproducoes = in.lerReproducoes();
+        IndicePesquisa pesquisa = in.lerIndicePesquisa(spotifum.musicas);
+        in.terminar();
+        spotifum.ultimaOperacao = in.getUltimaOperacao();
+        spotifum.reconstruirIndices(pesquisa);
+        return spotifum;
+    }
+
+    /**
+     * Passa a registar as alterações do modelo no diário de um gestor de durabilidade.
+     *
+     * @param durabilidade Gestor de durabilidade (null para deixar de registar).
+     */
+    public void ativarDurabilidade(GestorDurabilidade durabilidade) {
+        // também num modelo só de leitura, para que o gestor possa ser fechado
+        this.estrutura.writeLock().lock();
+        try {
+            this.durabilidade = durabilidade;
+        } finally {
+            this.estrutura.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Devolve o número da última operação do diário refletida neste estado.
+     *
+     * @return Número da última operação (0 se nenhuma).
+     */
+    public long getUltimaOperacao() {
+        return lerRegisto(() -> this.ultimaOperacao);
+    }
+
+    /**
+     * Regista uma operação já aplicada no diário, se a durabilidade estiver ativa,
+     * esperando que fique escrita em disco. Numa operação submetida ao combinador, a operação
+     * junta-se ao lote da ronda e só é escrita quando a ronda termina.
+     *
+     * @param tipo    Tipo da operação.
+     * @param escrita Escrita do conteúdo da operação.
+     * @throws PersistenciaException Se não for possível registar a operação (o modelo fica só de leitura).
+     */
+    private void registarOperacao(int tipo, EscritaOperacao escrita) {
+        if (this.durabilidade == null) return;
+        try {
+            EscritorSnapshot out = new EscritorSnapshot();
+            out.usarCatalogo(this.musicas, this.indiceCatalogo);
+            out.usarUtilizadoresPorEmail();
+            out.escreverNatural(tipo);
+            escrita.escrever(out);
+            if (this.loteOperacoes != null) {
+                this.loteOperacoes.add(out.getBytes());
+            } else {
+                this.ultimaOperacao = this.durabilidade.registar(this, out.getBytes());
+            }
+        } catch (IOException e) {
+            throw falharDiario("Não foi possível registar a operação no diário", e);
+        }
+    }
+
+    /**
+     * Executa um conjunto de alterações como um lote: as operações são registadas no diário todas juntas,
+     * com uma só espera pela escrita em disco, quando o lote termina. Usado na importação de scripts.
+     *
+     * @param alteracoes Alterações a executar.
+     * @throws PersistenciaException Se não for possível registar as operações.
+     */
+    public void executarEmLote(Runnable alteracoes) {
+        alterarEstrutura(() -> registarEmGrupo(alteracoes));
+    }
+
+    /**
+     * Executa um conjunto de alterações, registando no diário todas as operações que fizerem num só lote.
+     * Se já estiver a decorrer um lote, as operações juntam-se a esse lote. É também o que o combinador
+     * executa em cada ronda, pelo que as operações submetidas ao mesmo tempo por várias threads são escritas
+     * em disco de uma só vez.
+     *
+     * @param alteracoes Alterações a executar.
+     * @throws PersistenciaException Se não for possível registar as operações (o modelo fica só de leitura).
+     */
+    private void registarEmGrupo(Runnable alteracoes) {
+        if (this.durabilidade == null || this.loteOperacoes != null) {
+            alteracoes.run();
+            return;
+        }
+        this.loteOperacoes = new ArrayList<>();
+        List<byte[]> lote;
+        try {
+            alteracoes.run();
+        } finally {
+            lote = this.loteOperacoes;
+            this.loteOperacoes = null;
+        }
+        if (lote.isEmpty()) return;
+        try {
+            this.ultimaOperacao = this.durabilidade.registarLote(this, lote);
+        } catch (IOException e) {
+            throw falharDiario("Não foi possível registar as operações no diário", e);
+        }
+    }
+
+    /**
+     * Aplica uma operação lida do diário durante a recuperação.
+     *
+     * @param numero   Número da operação.
+     * @param operacao Conteúdo da operação.
+     * @throws IOException Se a operação estiver corrompida.
+     */
+    public void aplicarOperacao(long numero, ByteBuffer operacao) throws IOException {
+        this.estrutura.writeLock().lock();
+        try {
+            LeitorSnapshot in = new LeitorSnapshot(operacao);
+            in.usarCatalogo(this.musicas);
+            in.usarUtilizadores(this.utilizadores);
+            int tipo = (int) in.lerNatural();
+            switch (tipo) {
+                case OP_REGISTAR_UTILIZADOR -> inserirUtilizador(in.lerDadosUtilizador());
+                case OP_ADICIONAR_ARTISTA -> adicionarArtista(in.lerArtista());
+                case OP_ADICIONAR_MUSICA -> adicionarMusica(in.lerDadosMusica());
+                case OP_ADICIONAR_ALBUM -> adicionarAlbum(in.lerAlbum());
+                case OP_ADICIONAR_PLAYLIST -> adicionarPlaylist(in.lerPlaylist());
+                case OP_REPRODUZIR_MUSICA -> reproduzirMusicaSemSaida(in.lerTexto(), in.lerTexto(),
+                        RegistoReproducoes.paraDataHora(in.lerInteiro()));
+                case OP_MELHORAR_PLANO -> melhorarPlano(in.lerTexto());
+                case OP_ALTERAR_VISIBILIDADE -> alterarVisibilidadePlaylist(in.lerTexto(), in.lerTexto());
+                case OP_BIBLIOTECA_PLAYLIST -> adicionarPlaylistBiblioteca(in.lerTexto(), in.lerTexto());
+                case OP_BIBLIOTECA_ALBUM -> adicionarAlbumBiblioteca(in.lerTexto(), in.lerTexto());
+                case OP_REPRODUZIR_LOTE -> reproduzirLote(lerLoteReproducoes(in));
+                default -> throw new IOException("Tipo de operação inválido no diário: " + tipo);
+            }
+            in.terminar();
+            this.ultimaOperacao = numero;
+        } finally {
+            this.estrutura.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Lê um lote de reproduções escrito no diário por {@link #reproduzirLote(List)}.
+     *
+     * @param in Leitor da operação.
+     * @return Reproduções do lote, por ordem.
+     * @throws IOException Se a operação estiver corrompida.
+     */
+    private static List<EventoReproducao> lerLoteReproducoes(LeitorSnapshot in) throws IOException {
+        int numero = (int) in.lerNatural();
+        List<EventoReproducao> eventos = new ArrayList<>(numero);
+        for (int i = 0; i < numero; i++) {
+            eventos.add(new EventoReproducao(in.lerTexto(), in.lerTexto(), RegistoReproducoes.paraDataHora(in.lerInteiro())));
+        }
+        return eventos;
     }
 
     /**
      * Devolve uma cópia defensiva dos utilizadores.
+     * Para apenas consultar, sem copiar, usar {@link #vistaUtilizadores()}.
      *
      * @return Mapa de utilizadores clonados.
      */
     public HashMap<String, Utilizador> getUtilizadores() {
-        HashMap<String, Utilizador> newUtilizadores = new HashMap<>();
-        for (Utilizador utilizador : this.utilizadores.values()) {
-            newUtilizadores.put(utilizador.getNome(), utilizador.clone());
-        }
-        return newUtilizadores;
+        return lerRegisto(() -> {
+            HashMap<String, Utilizador> newUtilizadores = new HashMap<>();
+            for (Utilizador utilizador : this.utilizadores.values()) {
+                newUtilizadores.put(utilizador.getNome(), utilizador.clone());
+            }
+            return newUtilizadores;
+        });
     }
 
     /**
-     * Devolve uma cópia defensiva da lista de reproduções.
+     * Devolve as reproduções do histórico, por ordem, como objetos {@link Reproducao}.
+     * Para apenas consultar, sem copiar, usar {@link #capturarReproducoes()}.
      *
-     * @return Lista de reproduções clonadas.
+     * @return Nova lista de reproduções.
      */
     public ArrayList<Reproducao> getReproducoes() {
-        ArrayList<Reproducao> newReproducoes = new ArrayList<>();
-        for (Reproducao reproducao : reproducoes) {
-            newReproducoes.add(reproducao.clone());
-        }
-        return newReproducoes;
+        return lerRegisto(() -> {
+            ArrayList<Reproducao> newReproducoes = new ArrayList<>(this.reproducoes.tamanho());
+            for (int p = 0; p < this.reproducoes.tamanho(); p++) {
+                newReproducoes.add(getReproducao(p));
+            }
+            return newReproducoes;
+        });
     }
 
     /**
      * Devolve uma cópia defensiva da lista de músicas.
+     * Para apenas consultar, sem copiar, usar {@link #vistaMusicas()}.
      *
      * @return Lista de músicas clonadas.
      */
     public ArrayList<Musica> getMusicas() {
-        ArrayList<Musica> newMusicas = new ArrayList<>();
-        for (Musica musica : musicas) {
-            newMusicas.add(musica.clone());
-        }
-        return newMusicas;
+        return lerRegisto(() -> {
+            ArrayList<Musica> newMusicas = new ArrayList<>();
+            for (Musica musica : musicas) {
+                newMusicas.add(musica.clone());
+            }
+            return newMusicas;
+        });
     }
 
     /**
      * Devolve uma cópia defensiva da lista de álbuns.
+     * Para apenas consultar, sem copiar, usar {@link #vistaAlbuns()}.
      *
      * @return Lista de álbuns clonados.
      */
     public ArrayList<Album> getAlbuns() {
-        ArrayList<Album> newAlbuns = new ArrayList<>();
-        for (Album album : albuns) {
-            newAlbuns.add(album.clone());
-        }
-        return newAlbuns;
+        return lerRegisto(() -> {
+            ArrayList<Album> newAlbuns = new ArrayList<>();
+            for (Album album : albuns) {
+                newAlbuns.add(album.clone());
+            }
+            return newAlbuns;
+        });
     }
 
 
     /**
      * Devolve uma cópia defensiva da lista de playlists.
+     * Para apenas consultar, sem copiar, usar {@link #vistaPlaylists()}.
      *
      * @return Lista de playlists clonadas.
      */
     public ArrayList<Playlist> getPlaylists() {
-        ArrayList<Playlist> newPlaylists = new ArrayList<>();
-        for (Playlist playlist : playlists) {
-            newPlaylists.add(playlist.clone());
-        }
-        return newPlaylists;
+        return lerRegisto(() -> {
+            ArrayList<Playlist> newPlaylists = new ArrayList<>();
+            for (Playlist playlist : playlists) {
+                newPlaylists.add(playlist.clone());
+            }
+            return newPlaylists;
+        });
     }
 
     /**
      * Devolve uma cópia defensiva do mapa de artistas.
+     * Para apenas consultar, sem copiar, usar {@link #vistaArtistas()}.
      *
      * @return Mapa de artistas clonados.
      */
     public HashMap<String, Artista> getArtistas() {
-        HashMap<String, Artista> newArtistas = new HashMap<>();
-        for (Artista artista : this.artistas.values()) {
-            newArtistas.put(artista.getNome(), artista.clone());
-        }
-        return newArtistas;
+        return ler(() -> {
+            HashMap<String, Artista> newArtistas = new HashMap<>();
+            for (Artista artista : this.artistas.values()) {
+                newArtistas.put(artista.getNome(), artista.clone());
+            }
+            return newArtistas;
+        });
+    }
+
+    /**
+     * Devolve uma vista só de leitura dos utilizadores, indexados pelo email, sem copiar o mapa.
+     * A vista acompanha as alterações do modelo e pode ser percorrida enquanto outras threads o alteram;
+     * os utilizadores são os do próprio modelo e não devem ser alterados.
+     *
+     * @return Vista dos utilizadores.
+     */
+    public Map<String, Utilizador> vistaUtilizadores() {
+        return Collections.unmodifiableMap(this.utilizadores);
+    }
+
+    /**
+     * Devolve uma vista só de leitura dos artistas, indexados pelo nome, sem copiar o mapa.
+     * A vista acompanha as alterações do modelo e pode ser percorrida enquanto outras threads o alteram;
+     * os artistas são os do próprio modelo e não devem ser alterados.
+     *
+     * @return Vista dos artistas.
+     */
+    public Map<String, Artista> vistaArtistas() {
+        return Collections.unmodifiableMap(this.artistas);
+    }
+
+    /**
+     * Devolve uma vista só de leitura das músicas, sem copiar a lista.
+     * A vista acompanha as alterações do modelo e pode ser percorrida enquanto outras threads o alteram;
+     * as músicas são as do próprio modelo e não devem ser alteradas.
+     *
+     * @return Vista das músicas.
+     */
+    public List<Musica> vistaMusicas() {
+        return Collections.unmodifiableList(this.musicas);
+    }
+
+    /**
+     * Devolve uma vista só de leitura dos álbuns, sem copiar a lista.
+     * A vista acompanha as alterações do modelo e pode ser percorrida enquanto outras threads o alteram;
+     * os álbuns são os do próprio modelo e não devem ser alterados.
+     *
+     * @return Vista dos álbuns.
+     */
+    public List<Album> vistaAlbuns() {
+        return Collections.unmodifiableList(this.albuns);
+    }
+
+    /**
+     * Devolve uma vista só de leitura das playlists, sem copiar a lista.
+     * A vista acompanha as alterações do modelo e pode ser percorrida enquanto outras threads o alteram;
+     * as playlists são as do próprio modelo e não devem ser alteradas.
+     *
+     * @return Vista das playlists.
+     */
+    public List<Playlist> vistaPlaylists() {
+        return Collections.unmodifiableList(this.playlists);
+    }
+
+    /**
+     * Captura as músicas existentes neste momento, sem as copiar.
+     * As músicas acrescentadas depois não aparecem na lista devolvida.
+     *
+     * @return Lista só de leitura com as músicas atuais.
+     */
+    public List<Musica> capturarMusicas() {
+        ListaAcrescentavel<Musica> lista = ler(() -> this.musicas);
+        return new ListaCapturada<>(lista.size(), lista::get);
+    }
+
+    /**
+     * Captura os álbuns existentes neste momento, sem os copiar.
+     * Os álbuns acrescentados depois não aparecem na lista devolvida.
+     *
+     * @return Lista só de leitura com os álbuns atuais.
+     */
+    public List<Album> capturarAlbuns() {
+        ListaAcrescentavel<Album> lista = ler(() -> this.albuns);
+        return new ListaCapturada<>(lista.size(), lista::get);
+    }
+
+    /**
+     * Captura as playlists existentes neste momento, sem as copiar.
+     * As playlists acrescentadas depois não aparecem na lista devolvida.
+     *
+     * @return Lista só de leitura com as playlists atuais.
+     */
+    public List<Playlist> capturarPlaylists() {
+        ListaAcrescentavel<Playlist> lista = ler(() -> this.playlists);
+        return new ListaCapturada<>(lista.size(), lista::get);
+    }
+
+    /**
+     * Devolve o número de reproduções do histórico, sem esperar pela ronda de alterações em curso
+     * (as reproduções dessa ronda podem ainda não estar contadas).
+     *
+     * @return Número de reproduções.
+     */
+    public int getNumeroReproducoes() {
+        return ler(() -> this.reproducoes.tamanho());
+    }
+
+    /**
+     * Captura o histórico de reproduções atual. Cada {@link Reproducao} só é criada quando é lida,
+     * por isso percorrer a lista não materializa o histórico inteiro. Cada leitura espera que termine
+     * a ronda de alterações em curso, pelo que a lista pode ser lida enquanto outras threads alteram o modelo.
+     *
+     * @return Lista só de leitura com as reproduções atuais, por ordem.
+     */
+    public List<Reproducao> capturarReproducoes() {
+        return lerRegisto(() -> capturar(this.reproducoes.todas()));
+    }
+
+    /**
+     * Captura as reproduções atuais de um utilizador, usando o índice por utilizador do histórico.
+     *
+     * @param email Email do utilizador.
+     * @return Lista só de leitura com as reproduções do utilizador, por ordem (vazia se não tiver nenhuma).
+     */
+    public List<Reproducao> capturarReproducoes(String email) {
+        return lerRegisto(() -> {
+            Integer id = this.idsUtilizadores.get(email);
+            if (id == null) return Collections.<Reproducao>emptyList();
+            return capturar(this.reproducoes.porUtilizador(id));
+        });
+    }
+
+    /**
+     * Cria uma lista só de leitura sobre as reproduções de uma vista do histórico.
+     *
+     * @param vista Vista do histórico.
+     * @return Lista com as reproduções da vista, criadas à medida que são lidas.
+     */
+    private List<Reproducao> capturar(VistaReproducoes vista) {
+        return new ListaCapturada<>(vista.tamanho(), i -> lerRegisto(() -> getReproducao(vista.posicao(i))));
     }
 
     /**
@@ -211,37 +1182,76 @@ public class SpotifUM implements Serializable {
      * @param utilizadores Mapa de utilizadores a copiar.
      */
     public void setUtilizadores(HashMap<String, Utilizador> utilizadores) {
-        HashMap<String, Utilizador> newUtilizadores = new HashMap<>();
-        for (Utilizador utilizador : this.utilizadores.values()) {
-            newUtilizadores.put(utilizador.getNome(), utilizador.clone());
-        }
-        this.utilizadores = newUtilizadores;
+        alterarEstrutura(() -> {
+            ConcurrentHashMap<String, Utilizador> newUtilizadores = new ConcurrentHashMap<>();
+            for (Utilizador utilizador : this.utilizadores.values()) {
+                newUtilizadores.put(utilizador.getNome(), utilizador.clone());
+            }
+            this.utilizadores = newUtilizadores;
+        });
     }
 
     /**
-     * Define a lista de reproduções através de cópia defensiva.
+     * Substitui o histórico de reproduções, convertendo cada reprodução para ids.
+     * Todas as reproduções são convertidas antes de o histórico ser substituído: se alguma for inválida,
+     * o histórico atual fica como estava.
      *
      * @param reproducoes Lista de reproduções.
+     * @throws MusicaInexistenteException Se alguma música não existir no catálogo.
      */
     public void setReproducoes(ArrayList<Reproducao> reproducoes) {
-        ArrayList<Reproducao> newReproducoes = new ArrayList<>();
-        for (Reproducao reproducao : reproducoes) {
-            newReproducoes.add(reproducao.clone());
-        }
-        this.reproducoes = newReproducoes;
+        alterarEstrutura(() -> {
+            String[] emails = new String[reproducoes.size()];
+            int[] idsMusicas = new int[reproducoes.size()];
+            long[] instantes = new long[reproducoes.size()];
+            for (int i = 0; i < reproducoes.size(); i++) {
+                Reproducao reproducao = reproducoes.get(i);
+                String nomeMusica = reproducao.getMusica().getNome();
+                idsMusicas[i] = this.indiceCatalogo.getId(nomeMusica);
+                if (idsMusicas[i] < 0) throw new MusicaInexistenteException(nomeMusica);
+                emails[i] = reproducao.getUtilizador().getEmail();
+                instantes[i] = RegistoReproducoes.paraInstante(reproducao.getDataHora());
+            }
+
+            this.reproducoes = new RegistoReproducoes();
+            reconstruirIndices();
+            for (int i = 0; i < emails.length; i++) {
+                registarReproducao(emails[i], idsMusicas[i], instantes[i]);
+            }
+        });
     }
 
     /**
      * Define a lista de músicas através de cópia defensiva.
+     * O histórico guarda as reproduções pela posição da música no catálogo, pelo que é reescrito com as posições
+     * das músicas com o mesmo nome na nova lista; o índice das músicas ouvidas e as estatísticas são reconstruídos
+     * a partir dele. Uma lista que não tenha alguma das músicas já reproduzidas é recusada, sem alterar o modelo.
      *
      * @param musicas Lista de músicas.
+     * @throws MusicaInexistenteException Se faltar na lista uma música com reproduções no histórico.
      */
     public void setMusicas(ArrayList<Musica> musicas) {
-        ArrayList<Musica> newMusicas = new ArrayList<>();
-        for (Musica musica : musicas) {
-            newMusicas.add(musica.clone());
-        }
-        this.musicas = newMusicas;
+        alterarEstrutura(() -> {
+            ListaAcrescentavel<Musica> newMusicas = new ListaAcrescentavel<>();
+            for (Musica musica : musicas) {
+                newMusicas.add(musica.clone());
+            }
+            IndiceCatalogo novoCatalogo = new IndiceCatalogo(newMusicas);
+            int[] novosIds = new int[this.musicas.size()];
+            for (int id = 0; id < novosIds.length; id++) {
+                novosIds[id] = novoCatalogo.getId(this.musicas.get(id).getNome());
+            }
+
+            RegistoReproducoes novoRegisto = new RegistoReproducoes();
+            this.reproducoes.percorrer((utilizador, musica, instante) -> {
+                if (novosIds[musica] < 0) throw new MusicaInexistenteException(this.musicas.get(musica).getNome());
+                novoRegisto.adicionar(utilizador, novosIds[musica], instante);
+            });
+
+            this.musicas = newMusicas;
+            this.reproducoes = novoRegisto;
+            reconstruirIndices();
+        });
     }
 
     /**
@@ -250,11 +1260,15 @@ public class SpotifUM implements Serializable {
      * @param albuns Lista de álbuns.
      */
     public void setAlbuns(ArrayList<Album> albuns) {
-        ArrayList<Album> newAlbuns = new ArrayList<>();
-        for (Album album : albuns) {
-            newAlbuns.add(album.clone());
-        }
-        this.albuns = newAlbuns;
+        alterarEstrutura(() -> {
+            ListaAcrescentavel<Album> newAlbuns = new ListaAcrescentavel<>();
+            for (Album album : albuns) {
+                newAlbuns.add(album.clone());
+            }
+            this.albuns = newAlbuns;
+            partilharEntidades();
+            reconstruirNomesAlbuns();
+        });
     }
 
     /**
@@ -263,11 +1277,16 @@ public class SpotifUM implements Serializable {
      * @param playlists Lista de playlists.
      */
     public void setPlaylists(ArrayList<Playlist> playlists) {
-        ArrayList<Playlist> newPlaylists = new ArrayList<>();
-        for (Playlist playlist : playlists) {
-            newPlaylists.add(playlist.clone());
-        }
-        this.playlists = newPlaylists;
+        alterarEstrutura(() -> {
+            ListaAcrescentavel<Playlist> newPlaylists = new ListaAcrescentavel<>();
+            for (Playlist playlist : playlists) {
+                newPlaylists.add(playlist.clone());
+            }
+            this.playlists = newPlaylists;
+            partilharEntidades();
+            reconstruirEstatisticas();
+            reconstruirNomesPlaylists();
+        });
     }
 
     /**
@@ -276,11 +1295,14 @@ public class SpotifUM implements Serializable {
      * @param artistas Mapa de artistas.
      */
     public void setArtistas(HashMap<String, Artista> artistas) {
-        HashMap<String, Artista> newArtistas = new HashMap<>();
-        for (Artista artista : this.artistas.values()) {
-            newArtistas.put(artista.getNome(), artista.clone());
-        }
-        this.artistas = newArtistas;
+        alterarEstrutura(() -> {
+            ConcurrentHashMap<String, Artista> newArtistas = new ConcurrentHashMap<>();
+            for (Artista artista : this.artistas.values()) {
+                newArtistas.put(artista.getNome(), artista.clone());
+            }
+            this.artistas = newArtistas;
+            reconstruirNomesArtistas();
+        });
     }
 
     /**
@@ -310,10 +1332,180 @@ public class SpotifUM implements Serializable {
      * @return Música correspondente ou null se não existir.
      */
     public Musica getMusicaPorNome(String nomeMusica) {
-        for (Musica musica : musicas) {
-            if (musica.getNome().equals(nomeMusica)) return musica;
+        return ler(() -> this.indiceCatalogo.getMusica(nomeMusica));
+    }
+
+    /**
+     * Devolve o id de uma música no registo. Os ids são as posições no catálogo e nunca mudam.
+     *
+     * @param nomeMusica Nome da música.
+     * @return Id da música, ou -1 se não existir.
+     */
+    public int getIdMusica(String nomeMusica) {
+        return ler(() -> this.indiceCatalogo.getId(nomeMusica));
+    }
+
+    /**
+     * Devolve a música do registo com um dado id. A música é partilhada por todo o modelo e não deve ser alterada.
+     *
+     * @param idMusica Id da música.
+     * @return Música correspondente.
+     * @throws MusicaInexistenteException Se não existir nenhuma música com esse id.
+     */
+    public Musica getMusica(int idMusica) {
+        ListaAcrescentavel<Musica> catalogo = ler(() -> this.musicas);
+        if (idMusica < 0 || idMusica >= catalogo.size()) throw new MusicaInexistenteException(String.valueOf(idMusica));
+        return catalogo.get(idMusica);
+    }
+
+    /**
+     * Devolve o id de um utilizador no registo, atribuído quando foi registado.
+     *
+     * @param email Email do utilizador.
+     * @return Id do utilizador, ou -1 se não tiver id.
+     */
+    public int getIdUtilizador(String email) {
+        Integer id = ler(() -> this.idsUtilizadores.get(email));
+        return (id == null) ? -1 : id;
+    }
+
+    /**
+     * Obtém os nomes das músicas cujo nome começa pelo prefixo indicado (sem distinguir maiúsculas),
+     * por ordem alfabética. Útil para autocompletar.
+     *
+     * @param prefixo Prefixo a pesquisar.
+     * @param limite  Número máximo de resultados.
+     * @return Lista com os nomes encontrados.
+     */
+    public List<String> getNomesMusicasPorPrefixo(String prefixo, int limite) {
+        return ler(() -> this.indiceCatalogo.getPorPrefixo(prefixo)
+                .limit(limite)
+                .map(Musica::getNome)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Pesquisa músicas por texto livre no nome, no artista, na editora e na letra, sem distinguir maiúsculas
+     * nem acentos. A consulta aceita prefixos ({@code cant*}) e frases entre aspas (ver
+     * {@link Classes.Indices.ConsultaPesquisa}).
+     *
+     * @param consulta Texto a pesquisar.
+     * @param limite   Número máximo de resultados.
+     * @return Lista com as músicas encontradas, da mais relevante para a menos relevante.
+     */
+    public List<Musica> pesquisarMusicas(String consulta, int limite) {
+        long inicio = Instrumentacao.inicio();
+        List<Musica> resultado = ler(() -> this.indicePesquisa.pesquisar(consulta, limite));
+        TEMPO_PESQUISA.registarDesde(inicio);
+        return resultado;
+    }
+
+    /**
+     * Sugere nomes de músicas próximos de um nome inexistente (com poucos erros de escrita, sem distinguir maiúsculas
+     * nem acentos), para mostrar ao utilizador em vez de um simples erro.
+     *
+     * @param nome   Nome pesquisado.
+     * @param limite Número máximo de sugestões.
+     * @return Nomes sugeridos, do mais próximo para o mais afastado.
+     */
+    public List<String> sugerirMusicas(String nome, int limite) {
+        return sugerir(() -> this.nomesMusicas.sugerir(nome, limite));
+    }
+
+    /**
+     * Sugere nomes de álbuns próximos de um nome inexistente.
+     *
+     * @param nome   Nome pesquisado.
+     * @param limite Número máximo de sugestões.
+     * @return Nomes sugeridos, do mais próximo para o mais afastado.
+     */
+    public List<String> sugerirAlbuns(String nome, int limite) {
+        return sugerir(() -> this.nomesAlbuns.sugerir(nome, limite));
+    }
+
+    /**
+     * Sugere nomes de playlists próximos de um nome inexistente, de entre as playlists acessíveis ao utilizador
+     * (as públicas e as dele).
+     *
+     * @param nome   Nome pesquisado.
+     * @param email  Email do utilizador.
+     * @param limite Número máximo de sugestões.
+     * @return Nomes sugeridos, do mais próximo para o mais afastado.
+     */
+    public List<String> sugerirPlaylists(String nome, String email, int limite) {
+        List<String> candidatos = sugerir(() -> this.nomesPlaylists.sugerir(nome, Integer.MAX_VALUE));
+        List<String> sugestoes = new ArrayList<>();
+        for (String candidato : candidatos) {
+            if (sugestoes.size() == limite) break;
+            if (getPlaylistPorNome(candidato, email) != null) sugestoes.add(candidato);
         }
-        return null;
+        return sugestoes;
+    }
+
+    /**
+     * Sugere nomes de artistas próximos de um nome inexistente.
+     *
+     * @param nome   Nome pesquisado.
+     * @param limite Número máximo de sugestões.
+     * @return Nomes sugeridos, do mais próximo para o mais afastado.
+     */
+    public List<String> sugerirArtistas(String nome, int limite) {
+        return sugerir(() -> this.nomesArtistas.sugerir(nome, limite));
+    }
+
+    /**
+     * Executa uma procura de sugestões sem nenhuma alteração a decorrer (os índices dos álbuns, playlists e artistas
+     * são alterados pelo combinador) e regista a sua duração.
+     *
+     * @param procura Procura a executar.
+     * @return Nomes sugeridos.
+     */
+    private List<String> sugerir(Supplier<List<String>> procura) {
+        long inicio = Instrumentacao.inicio();
+        List<String> resultado = lerRegisto(procura);
+        TEMPO_SUGESTOES.registarDesde(inicio);
+        return resultado;
+    }
+
+    /**
+     * Obtém as músicas cujo nome se encontra entre dois limites (inclusivos, sem distinguir maiúsculas).
+     *
+     * @param de  Limite inferior.
+     * @param ate Limite superior.
+     * @return Lista com as músicas encontradas, por ordem alfabética.
+     */
+    public List<Musica> getMusicasEntre(String de, String ate) {
+        return ler(() -> this.indiceCatalogo.getEntre(de, ate).collect(Collectors.toList()));
+    }
+
+    /**
+     * Obtém as músicas de um género.
+     *
+     * @param genero Género musical.
+     * @return Lista só de leitura com as músicas do género existentes neste momento.
+     */
+    public List<Musica> getMusicasPorGenero(Genero genero) {
+        return ler(() -> List.copyOf(this.indiceCatalogo.getPorGenero(genero)));
+    }
+
+    /**
+     * Obtém as músicas de um artista.
+     *
+     * @param nomeArtista Nome do artista.
+     * @return Lista só de leitura com as músicas do artista existentes neste momento.
+     */
+    public List<Musica> getMusicasPorArtista(String nomeArtista) {
+        return ler(() -> List.copyOf(this.indiceCatalogo.getPorArtista(nomeArtista)));
+    }
+
+    /**
+     * Obtém as músicas de uma editora.
+     *
+     * @param editora Nome da editora.
+     * @return Lista só de leitura com as músicas da editora existentes neste momento.
+     */
+    public List<Musica> getMusicasPorEditora(String editora) {
+        return ler(() -> List.copyOf(this.indiceCatalogo.getPorEditora(editora)));
     }
 
     /**
@@ -323,7 +1515,7 @@ public class SpotifUM implements Serializable {
      * @return Álbum correspondente ou null se não existir.
      */
     public Album getAlbumPorNome(String nomeAlbum) {
-        for (Album album : this.albuns) {
+        for (Album album : ler(() -> this.albuns)) {
             if (album.getNome().equals(nomeAlbum)) {
                 return album;
             }
@@ -339,16 +1531,27 @@ public class SpotifUM implements Serializable {
      * @return Playlist correspondente ou null se não existir ou não for acessível.
      */
     public Playlist getPlaylistPorNome(String nomePlaylist, String email) {
-        for (Playlist playlist : playlists) {
-            if (playlist.getNome().equals(nomePlaylist)) {
-                if (playlist.getPublica() || playlist.getUtilizador().getEmail().equals(email)) {
-                    return playlist;
-                }
+        for (Playlist playlist : ler(() -> this.playlists)) {
+            if (playlist.getNome().equals(nomePlaylist) && acessivel(playlist, email)) {
+                return playlist;
             }
         }
         return null;
     }
 
+    /**
+     * Verifica se uma playlist é acessível a um utilizador: se for pública ou se for dele.
+     * A visibilidade é lida com o trinco do dono da playlist.
+     *
+     * @param playlist Playlist a verificar.
+     * @param email    Email do utilizador.
+     * @return true se o utilizador puder aceder à playlist.
+     */
+    private boolean acessivel(Playlist playlist, String email) {
+        String dono = playlist.getUtilizador().getEmail();
+        return dono.equals(email) || comUtilizador(dono, playlist::getPublica);
+    }
+
     /**
      * Obtém uma playlist a partir do seu nome (independentemente da visibilidade).
      *
@@ -356,7 +1559,7 @@ public class SpotifUM implements Serializable {
      * @return Playlist correspondente ou null se não existir.
      */
     public Playlist getPlaylistPorNome(String nomePlaylist) {
-        for (Playlist playlist : playlists) {
+        for (Playlist playlist : ler(() -> this.playlists)) {
             if (playlist.getNome().equals(nomePlaylist)) {
                 return playlist;
             }
@@ -382,11 +1585,26 @@ public class SpotifUM implements Serializable {
      * @param utilizador Utilizador a registar.
      * @throws EmailExistenteException Caso já exista um utilizador com o mesmo email.
      */
-    public void registarUtilizador(Utilizador utilizador) throws EmailExistenteException {
-        if (this.utilizadores.containsKey(utilizador.getEmail())) {
-            throw new EmailExistenteException(utilizador.getEmail());
-        }
+    public void registarUtilizador(Utilizador utilizador) throws EmailExistenteException {
+        boolean registado = alterar(() -> {
+            if (this.utilizadores.containsKey(utilizador.getEmail())) return false;
+            inserirUtilizador(utilizador);
+            return true;
+        });
+        if (!registado) throw new EmailExistenteException(utilizador.getEmail());
+    }
+
+    /**
+     * Insere um utilizador no mapa de utilizadores, substituindo o que tiver o mesmo email.
+     * Tem de ser chamado a partir do combinador ou com o trinco de escrita.
+     *
+     * @param utilizador Utilizador a inserir.
+     */
+    private void inserirUtilizador(Utilizador utilizador) {
         this.utilizadores.put(utilizador.getEmail(), utilizador);
+        idUtilizador(utilizador.getEmail());
+        this.estatisticas.registarPontos(utilizador.getEmail(), utilizador.getPontos());
+        registarOperacao(OP_REGISTAR_UTILIZADOR, out -> out.escreverDadosUtilizador(utilizador));
     }
 
     /**
@@ -420,16 +1638,25 @@ public class SpotifUM implements Serializable {
 
         Utilizador u = new Utilizador(nome, email, morada, password, 0, planoSubscricao, tipoCargo, new Biblioteca());
         u.setPlanoSubscricao(planoSubscricao);
-        this.utilizadores.put(email, u);
+        alterar(() -> inserirUtilizador(u));
     }
 
     /**
      * Adiciona uma música à lista de músicas.
+     * Como altera o índice do catálogo, é uma alteração exclusiva (espera que terminem as restantes operações).
      *
      * @param musica Música a adicionar.
      */
     public void adicionarMusica(Musica musica) {
-        this.musicas.add(musica.clone());
+        alterarEstrutura(() -> {
+            this.musicas.add(musica.clone());
+            int idMusica = this.musicas.size() - 1;
+            this.indiceCatalogo.indexar(idMusica);
+            this.indicePesquisa.indexar(idMusica);
+            this.nomesMusicas.adicionar(musica.getNome());
+            this.estatisticas.registarMusica(idMusica, this.musicas.get(idMusica));
+            registarOperacao(OP_ADICIONAR_MUSICA, out -> out.escreverDadosMusica(this.musicas.get(idMusica)));
+        });
     }
 
     /**
@@ -438,7 +1665,11 @@ public class SpotifUM implements Serializable {
      * @param artista Artista a adicionar.
      */
     public void adicionarArtista(Artista artista) {
-        this.artistas.put(artista.getNome(), artista.clone());
+        alterar(() -> {
+            this.artistas.put(artista.getNome(), artista.clone());
+            this.nomesArtistas.adicionar(artista.getNome());
+            registarOperacao(OP_ADICIONAR_ARTISTA, out -> out.escreverArtista(artista));
+        });
     }
 
     /**
@@ -447,7 +1678,13 @@ public class SpotifUM implements Serializable {
      * @param album Álbum a adicionar.
      */
     public void adicionarAlbum(Album album) {
-        this.albuns.add(album.clone());
+        Album copia = album.clone();
+        alterar(() -> {
+            partilharEntidades(copia);
+            this.albuns.add(copia);
+            this.nomesAlbuns.adicionar(copia.getNome());
+            registarOperacao(OP_ADICIONAR_ALBUM, out -> out.escreverAlbum(copia));
+        });
     }
 
     /**
@@ -456,7 +1693,131 @@ public class SpotifUM implements Serializable {
      * @param playlist Playlist a adicionar.
      */
     public void adicionarPlaylist(Playlist playlist) {
-        this.playlists.add(playlist.clone());
+        Playlist copia = playlist.clone();
+        alterar(() -> {
+            partilharEntidades(copia);
+            this.playlists.add(copia);
+            this.nomesPlaylists.adicionar(copia.getNome());
+            this.estatisticas.registarPlaylist(copia);
+            registarOperacao(OP_ADICIONAR_PLAYLIST, out -> out.escreverPlaylist(copia));
+        });
+    }
+
+    /**
+     * Adiciona uma cópia de uma playlist à biblioteca de um utilizador Premium.
+     *
+     * @param email Email do utilizador.
+     * @param nome  Nome da playlist.
+     * @throws PlaylistInexistenteException Se a playlist não existir.
+     * @throws PlaylistJaNaBibliotecaException Se a playlist já estiver na biblioteca.
+     */
+    public void adicionarPlaylistBiblioteca(String email, String nome) throws PlaylistInexistenteException, PlaylistJaNaBibliotecaException {
+        alterar(() -> comUtilizador(email, () -> {
+            Utilizador u = this.utilizadores.get(email);
+            if (!validarUtilizadorPremium(email)) throw new UtilizadorFreeNaoPossuiBibliotecaException(email);
+
+            Playlist p = getPlaylistPorNome(nome);
+            if (p == null) {
+                throw new PlaylistInexistenteException(nome);
+            }
+            if (u.getBiblioteca().contemPlaylist(p)) {
+                throw new PlaylistJaNaBibliotecaException(nome);
+            }
+
+            u.adicionarPlaylist(p.clone());
+            registarOperacao(OP_BIBLIOTECA_PLAYLIST, out -> {
+                out.escreverTexto(email);
+                out.escreverTexto(nome);
+            });
+            return null;
+        }));
+    }
+
+    /**
+     * Adiciona uma cópia de um álbum à biblioteca de um utilizador Premium.
+     *
+     * @param email Email do utilizador.
+     * @param nome  Nome do álbum.
+     * @throws AlbumInexistenteException Se o álbum não existir.
+     * @throws AlbumJaNaBibliotecaException Se o álbum já estiver na biblioteca.
+     */
+    public void adicionarAlbumBiblioteca(String email, String nome) throws AlbumInexistenteException, AlbumJaNaBibliotecaException {
+        alterar(() -> comUtilizador(email, () -> {
+            Utilizador u = this.utilizadores.get(email);
+            if (!validarUtilizadorPremium(email)) throw new UtilizadorFreeNaoPossuiBibliotecaException(email);
+
+            Album a = getAlbumPorNome(nome);
+            if (a == null) {
+                throw new AlbumInexistenteException(nome);
+            }
+            if (u.getBiblioteca().contemAlbum(a)) {
+                throw new AlbumJaNaBibliotecaException(nome);
+            }
+
+            u.adicionarAlbum(a.clone());
+            registarOperacao(OP_BIBLIOTECA_ALBUM, out -> {
+                out.escreverTexto(email);
+                out.escreverTexto(nome);
+            });
+            return null;
+        }));
+    }
+
+    /**
+     * Altera a visibilidade (pública/privada) de uma playlist de um utilizador.
+     *
+     * @param email        Email do utilizador dono da playlist.
+     * @param nomePlaylist Nome da playlist.
+     * @return O novo estado de visibilidade: true se passou a ser pública, false se passou a ser privada.
+     * @throws PlaylistInexistenteException Se a playlist não existir.
+     * @throws UtilizadorNaoTemPermissoesException Se o utilizador não for o dono da playlist.
+     */
+    public boolean alterarVisibilidadePlaylist(String email, String nomePlaylist) throws PlaylistInexistenteException, UtilizadorNaoTemPermissoesException {
+        return alterar(() -> comUtilizador(email, () -> {
+            Playlist p = getPlaylistPorNome(nomePlaylist, email);
+
+            if (p == null) throw new PlaylistInexistenteException(nomePlaylist);
+            if (!p.getUtilizador().getEmail().equals(email)) {
+                throw new UtilizadorNaoTemPermissoesException("A playlist não pertence ao utilizador.");
+            }
+
+            p.setPublica(!p.getPublica());
+            this.estatisticas.registarVisibilidade(p.getPublica());
+            registarOperacao(OP_ALTERAR_VISIBILIDADE, out -> {
+                out.escreverTexto(email);
+                out.escreverTexto(nomePlaylist);
+            });
+            return p.getPublica();
+        }));
+    }
+
+    /**
+     * Melhora o plano de um utilizador (Free para PremiumBase, PremiumBase para PremiumTop), se tiver pontos suficientes.
+     * A verificação dos pontos e a mudança de plano são feitas na mesma operação do combinador, pelo que nenhuma
+     * reprodução ou outra melhoria do mesmo utilizador pode acontecer entre as duas.
+     *
+     * @param email Email do utilizador.
+     * @return true se o plano foi melhorado, false se o utilizador já tiver o plano PremiumTop.
+     * @throws UtilizadorFaltaPontosException Se o utilizador não tiver pontos suficientes.
+     */
+    public boolean melhorarPlano(String email) throws UtilizadorFaltaPontosException {
+        return alterar(() -> comUtilizador(email, () -> {
+            Utilizador u = this.utilizadores.get(email);
+
+            if (u.getPontos() < 100) throw new UtilizadorFaltaPontosException(email);
+            if (u.getPlanoSubscricao() instanceof PlanoFree) {
+                u.setPlanoSubscricao(new PlanoPremiumBase());
+                u.setPontos(u.getPontos() - 100);
+            } else if (u.getPlanoSubscricao() instanceof PlanoPremiumBase) {
+                u.setPlanoSubscricao(new PlanoPremiumTop());
+                u.setPontos(100);
+            } else {
+                return false;
+            }
+            this.estatisticas.registarPontos(email, u.getPontos());
+            registarOperacao(OP_MELHORAR_PLANO, out -> out.escreverTexto(email));
+            return true;
+        }));
     }
 
     /**
@@ -467,13 +1828,10 @@ public class SpotifUM implements Serializable {
      * @return true se já ouviu, false caso contrário.
      */
     public boolean jaOuviuMusica(String email, String nomeMusica) {
-        for (Reproducao r : this.reproducoes) {
-            if (r.getUtilizador().getEmail().equals(email) &&
-                    r.getMusica().getNome().equals(nomeMusica)) {
-                return true;
-            }
-        }
-        return false;
+        return ler(() -> {
+            int idMusica = this.indiceCatalogo.getId(nomeMusica);
+            return idMusica >= 0 && comUtilizador(email, () -> this.indiceOuvidas.jaOuviu(email, idMusica));
+        });
     }
 
     /**
@@ -485,24 +1843,204 @@ public class SpotifUM implements Serializable {
      * @throws MusicaInexistenteException Caso a música não exista.
      */
     public String reproduzirMusica(String email, String nomeMusica) {
-        Utilizador u = this.utilizadores.get(email);
+        return reproduzirMusica(email, nomeMusica, LocalDateTime.now());
+    }
 
-        Musica m = null;
-        for (Musica musica : musicas) {
-            if (musica.getNome().equals(nomeMusica)) {
-                m = musica;
-                break;
-            }
+    /**
+     * Reproduz uma música para um utilizador num dado instante, atualizando o histórico e os pontos.
+     *
+     * @param email      Email do utilizador.
+     * @param nomeMusica Nome da música.
+     * @param dataHora   Instante da reprodução.
+     * @return Resultado da reprodução.
+     * @throws MusicaInexistenteException Caso a música não exista.
+     */
+    public String reproduzirMusica(String email, String nomeMusica, LocalDateTime dataHora) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            reproduzirMusica(email, nomeMusica, dataHora, sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Reproduz uma música para um utilizador, escrevendo o resultado diretamente num destino.
+     *
+     * @param email      Email do utilizador.
+     * @param nomeMusica Nome da música.
+     * @param destino    Destino onde o resultado da reprodução é escrito.
+     * @throws IOException                Se ocorrer um erro ao escrever no destino.
+     * @throws MusicaInexistenteException Caso a música não exista.
+     */
+    public void reproduzirMusica(String email, String nomeMusica, Appendable destino) throws IOException {
+        reproduzirMusica(email, nomeMusica, LocalDateTime.now(), destino);
+    }
+
+    /**
+     * Reproduz uma música para um utilizador num dado instante, escrevendo o resultado diretamente num destino,
+     * sem construir nenhuma String intermédia: os pontos ganhos, a reprodução e os pontos atuais. A reprodução é
+     * registada antes de ser escrita, pelo que fica registada mesmo que a escrita falhe.
+     *
+     * @param email      Email do utilizador.
+     * @param nomeMusica Nome da música.
+     * @param dataHora   Instante da reprodução.
+     * @param destino    Destino onde o resultado da reprodução é escrito.
+     * @throws IOException                Se ocorrer um erro ao escrever no destino.
+     * @throws MusicaInexistenteException Caso a música não exista.
+     */
+    public void reproduzirMusica(String email, String nomeMusica, LocalDateTime dataHora, Appendable destino)
+            throws IOException {
+        int[] pontos = registarAudicao(email, nomeMusica, dataHora);
+        destino.append("Pontos Ganhos: ").append(String.valueOf(pontos[0])).append('\n');
+        getMusicaPorNome(nomeMusica).escreverReproducao(destino);
+        destino.append("\nPontos atuais: ").append(String.valueOf(pontos[1]));
+    }
+
+    /**
+     * Reproduz uma música sem escrever o resultado: apenas regista a reprodução e atualiza o histórico,
+     * os pontos e as estatísticas (por exemplo, numa reprodução sem ecrã ou ao reaplicar o diário).
+     *
+     * @param email      Email do utilizador.
+     * @param nomeMusica Nome da música.
+     * @param dataHora   Instante da reprodução.
+     * @return Pontos ganhos com a reprodução.
+     * @throws MusicaInexistenteException     Caso a música não exista.
+     * @throws UtilizadorInexistenteException Caso o utilizador não exista.
+     */
+    public int reproduzirMusicaSemSaida(String email, String nomeMusica, LocalDateTime dataHora) {
+        return registarAudicao(email, nomeMusica, dataHora)[0];
+    }
+
+    /**
+     * Regista de uma vez uma sequência de reproduções, sem escrever o resultado.
+     *
+     * O efeito no modelo é o mesmo de chamar {@link #reproduzirMusicaSemSaida(String, String, LocalDateTime)} para
+     * cada evento, pela ordem da lista, mas o trabalho é feito por lote: cada música e cada utilizador são procurados
+     * uma só vez; os pontos são calculados utilizador a utilizador, pela ordem das reproduções de cada um; os
+     * contadores das músicas e das estatísticas são somados uma vez por música e por utilizador; e o lote é registado
+     * no diário como uma única operação.
+     * Se um evento for inválido, as reproduções anteriores ficam registadas, as seguintes são ignoradas e é lançada
+     * a exceção que a reprodução desse evento lançaria.
+     *
+     * @param eventos Reproduções a registar, por ordem.
+     * @throws MusicaInexistenteException     Caso a música de algum evento não exista.
+     * @throws UtilizadorInexistenteException Caso o utilizador de algum evento não exista.
+     */
+    public void reproduzirLote(List<EventoReproducao> eventos) {
+        int numero = eventos.size();
+        if (numero == 0) return;
+        long inicio = Instrumentacao.inicio();
+        long[] instantes = new long[numero];
+        for (int i = 0; i < numero; i++) {
+            instantes[i] = RegistoReproducoes.paraInstante(eventos.get(i).getDataHora());
         }
 
-        if (m == null) throw new MusicaInexistenteException(nomeMusica);
+        RuntimeException falha = alterar(() -> {
+            // resolve as músicas e agrupa os eventos por utilizador, até ao primeiro evento inválido
+            HashMap<String, Integer> idsPorNome = new HashMap<>();
+            LinkedHashMap<String, List<Integer>> porUtilizador = new LinkedHashMap<>();
+            int[] idsMusicas = new int[numero];
+            int validos = 0;
+            RuntimeException erro = null;
+            while (validos < numero && erro == null) {
+                EventoReproducao e = eventos.get(validos);
+                int idMusica = idsPorNome.computeIfAbsent(e.getNomeMusica(), this.indiceCatalogo::getId);
+                if (idMusica < 0) {
+                    erro = new MusicaInexistenteException(e.getNomeMusica());
+                } else if (!this.utilizadores.containsKey(e.getEmail())) {
+                    erro = new UtilizadorInexistenteException(e.getEmail());
+                } else {
+                    idsMusicas[validos] = idMusica;
+                    porUtilizador.computeIfAbsent(e.getEmail(), k -> new ArrayList<>()).add(validos);
+                    validos++;
+                }
+            }
+            if (validos == 0) return erro;
+
+            // pontos: só dependem das reproduções anteriores do próprio utilizador
+            for (Map.Entry<String, List<Integer>> grupo : porUtilizador.entrySet()) {
+                String email = grupo.getKey();
+                comUtilizador(email, () -> {
+                    Utilizador u = this.utilizadores.get(email);
+                    for (int posicao : grupo.getValue()) {
+                        u.ganharPontos(this.indiceOuvidas.registar(email, idsMusicas[posicao]));
+                    }
+                    this.estatisticas.registarPontos(email, u.getPontos());
+                    this.estatisticas.registarReproducoesUtilizador(email, grupo.getValue().size());
+                    return null;
+                });
+            }
 
-        boolean jaOuviu = jaOuviuMusica(email, nomeMusica);
-        u.ganharPontos(jaOuviu);
-        this.reproducoes.add(new Reproducao(u, m, LocalDateTime.now()));
-        String resultadoReproducao = m.reproduzir();
+            // histórico: pela ordem dos eventos
+            HashMap<String, Integer> idsUtilizadores = new HashMap<>();
+            HashMap<Integer, Integer> reproducoesPorMusica = new HashMap<>();
+            for (int i = 0; i < validos; i++) {
+                int idUtilizador = idsUtilizadores.computeIfAbsent(eventos.get(i).getEmail(), this::idUtilizador);
+                this.reproducoes.adicionar(idUtilizador, idsMusicas[i], instantes[i]);
+                reproducoesPorMusica.merge(idsMusicas[i], 1, Integer::sum);
+            }
+            for (Map.Entry<Integer, Integer> e : reproducoesPorMusica.entrySet()) {
+                this.musicas.get(e.getKey()).contarReproducoes(e.getValue());
+            }
+            this.estatisticas.registarReproducoesMusicas(Arrays.copyOf(idsMusicas, validos), this.musicas);
+
+            int registados = validos;
+            registarOperacao(OP_REPRODUZIR_LOTE, out -> {
+                out.escreverNatural(registados);
+                for (int i = 0; i < registados; i++) {
+                    out.escreverTexto(eventos.get(i).getEmail());
+                    out.escreverTexto(eventos.get(i).getNomeMusica());
+                    out.escreverInteiro(instantes[i]);
+                }
+            });
+            return erro;
+        });
+        TEMPO_REPRODUCAO_LOTE.registarDesde(inicio);
+        if (falha != null) throw falha;
+        REPRODUCOES_LOTE.incrementar(numero);
+    }
 
-        return resultadoReproducao + "\nPontos atuais: " + u.getPontos();
+    /**
+     * Regista a reprodução de uma música por um utilizador: atualiza os pontos, o histórico, o número de
+     * reproduções da música e as estatísticas, e regista a operação no diário.
+     * As reproduções submetidas ao mesmo tempo por várias threads são aplicadas pelo combinador, por ordem,
+     * e escritas no diário num só lote.
+     *
+     * @param email      Email do utilizador.
+     * @param nomeMusica Nome da música.
+     * @param dataHora   Instante da reprodução.
+     * @return Pontos ganhos com a reprodução e pontos do utilizador depois dela, por esta ordem.
+     * @throws MusicaInexistenteException     Caso a música não exista.
+     * @throws UtilizadorInexistenteException Caso o utilizador não exista.
+     */
+    private int[] registarAudicao(String email, String nomeMusica, LocalDateTime dataHora) {
+        long instante = RegistoReproducoes.paraInstante(dataHora);
+        long inicio = Instrumentacao.inicio();
+        int[] pontos = alterar(() -> comUtilizador(email, () -> {
+            Utilizador u = this.utilizadores.get(email);
+
+            int idMusica = this.indiceCatalogo.getId(nomeMusica);
+            if (idMusica < 0) throw new MusicaInexistenteException(nomeMusica);
+            if (u == null) throw new UtilizadorInexistenteException(email);
+            Musica m = this.musicas.get(idMusica);
+
+            boolean jaOuviu = this.indiceOuvidas.jaOuviu(email, idMusica);
+            int ganhos = u.ganharPontos(jaOuviu);
+            registarReproducao(email, idMusica, instante);
+            m.contarReproducao();
+            this.estatisticas.registarReproducaoMusica(idMusica, m);
+            this.estatisticas.registarPontos(email, u.getPontos());
+            registarOperacao(OP_REPRODUZIR_MUSICA, out -> {
+                out.escreverTexto(email);
+                out.escreverTexto(nomeMusica);
+                out.escreverInteiro(instante);
+            });
+            return new int[]{ganhos, u.getPontos()};
+        }));
+        TEMPO_REPRODUCAO.registarDesde(inicio);
+        return pontos;
     }
 
     /**
@@ -513,7 +2051,7 @@ public class SpotifUM implements Serializable {
     public String listarMusicas() {
         StringBuilder sb = new StringBuilder();
         sb.append("== Lista de Músicas SpotifUM ==\n");
-        for (Musica musica : this.musicas) {
+        for (Musica musica : ler(() -> this.musicas)) {
             sb.append(musica.getNome()).append(" - ").append(musica.getInterprete().getNome()).append("\n");
         }
         return sb.toString();
@@ -526,8 +2064,8 @@ public class SpotifUM implements Serializable {
      */
     public String listarPlaylist(String email) {
         StringBuilder sb = new StringBuilder();
-        for (Playlist playlist : this.playlists) {
-            if (playlist.getPublica() || playlist.getUtilizador().getEmail().equals(email)) {
+        for (Playlist playlist : ler(() -> this.playlists)) {
+            if (acessivel(playlist, email)) {
                 sb.append(playlist.getNome()).append("\n");
             }
         }
@@ -542,26 +2080,28 @@ public class SpotifUM implements Serializable {
      * @throws UtilizadorFreeNaoPossuiBibliotecaException Se o utilizador for do plano Free.
      */
     public String listarBiblioteca(String email) throws UtilizadorFreeNaoPossuiBibliotecaException {
-        Utilizador u = this.utilizadores.get(email);
+        return comUtilizador(email, () -> {
+            Utilizador u = this.utilizadores.get(email);
 
-        if (u.getPlanoSubscricao().getNomePlano().equals("Plano Free")) {
-            throw new UtilizadorFreeNaoPossuiBibliotecaException(email);
-        }
+            if (u.getPlanoSubscricao().getNomePlano().equals("Plano Free")) {
+                throw new UtilizadorFreeNaoPossuiBibliotecaException(email);
+            }
 
-        StringBuilder sb = new StringBuilder();
-        sb.append("=== Biblioteca do Utilizador ===\n");
+            StringBuilder sb = new StringBuilder();
+            sb.append("=== Biblioteca do Utilizador ===\n");
 
-        sb.append("Álbuns:\n");
-        for (Album a : u.getBiblioteca().getAlbuns()) {
-            sb.append("- ").append(a.getNome()).append(" - ").append(a.getAutor().getNome()).append("\n");
-        }
+            sb.append("Álbuns:\n");
+            for (Album a : u.getBiblioteca().getAlbuns()) {
+                sb.append("- ").append(a.getNome()).append(" - ").append(a.getAutor().getNome()).append("\n");
+            }
 
-        sb.append("\nPlaylists:\n");
-        for (Playlist p : u.getBiblioteca().getPlaylist()) {
-            sb.append("- ").append(p.getNome()).append("\n");
-        }
+            sb.append("\nPlaylists:\n");
+            for (Playlist p : u.getBiblioteca().getPlaylist()) {
+                sb.append("- ").append(p.getNome()).append("\n");
+            }
 
-        return sb.toString();
+            return sb.toString();
+        });
     }
 
     /**
@@ -571,16 +2111,230 @@ public class SpotifUM implements Serializable {
      * @return Lista de objetos Musica.
      */
     public ArrayList<Musica> musicasToArray(List<String> listaMusicas) {
-        ArrayList<Musica> musicas = new ArrayList<>();
-        for (String c : listaMusicas) {
-            Musica musica = getMusicaPorNome(c);
-            if (musica != null) {
-                musicas.add(musica);
-            } else {
-                throw new MusicaInexistenteException(c);
+        return ler(() -> {
+            ArrayList<Musica> musicas = new ArrayList<>();
+            for (String c : listaMusicas) {
+                Musica musica = getMusicaPorNome(c);
+                if (musica != null) {
+                    musicas.add(musica);
+                } else {
+                    throw new MusicaInexistenteException(c);
+                }
+            }
+            return musicas;
+        });
+    }
+
+    /**
+     * Obtém o nome da música com mais reproduções.
+     *
+     * @return Nome da música, ou null se não houver músicas.
+     */
+    public String getNomeMusicaMaisReproduzida() {
+        return lerRegisto(() -> {
+            int idMusica = this.estatisticas.getMusicaMaisReproduzida();
+            return (idMusica < 0) ? null : this.musicas.get(idMusica).getNome();
+        });
+    }
+
+    /**
+     * Obtém o nome do artista cujas músicas têm mais reproduções.
+     *
+     * @return Nome do artista, ou null se não houver músicas.
+     */
+    public String getArtistaMaisEscutado() {
+        return lerRegisto(() -> this.estatisticas.getArtistaMaisEscutado());
+    }
+
+    /**
+     * Obtém o género musical com mais reproduções.
+     *
+     * @return Género, ou null se não houver músicas.
+     */
+    public Genero getGeneroMaisReproduzido() {
+        return lerRegisto(() -> this.estatisticas.getGeneroMaisReproduzido());
+    }
+
+    /**
+     * Obtém o número de reproduções das músicas de um género.
+     *
+     * @param genero Género musical.
+     * @return Número de reproduções.
+     */
+    public long getReproducoesGenero(Genero genero) {
+        return lerRegisto(() -> this.estatisticas.getReproducoesGenero(genero));
+    }
+
+    /**
+     * Obtém o utilizador com mais pontos.
+     *
+     * @return Utilizador com mais pontos, ou null se não houver utilizadores.
+     */
+    public Utilizador getUtilizadorComMaisPontos() {
+        return lerRegisto(() -> {
+            String email = this.estatisticas.getUtilizadorComMaisPontos();
+            return (email == null) ? null : this.utilizadores.get(email);
+        });
+    }
+
+    /**
+     * Obtém o email do utilizador com mais reproduções num intervalo de tempo.
+     * Sem limites, a resposta vem diretamente das estatísticas; caso contrário é obtida
+     * a partir dos agregados por hora, dia e mês do histórico.
+     *
+     * @param inicio Data/hora de início (pode ser null).
+     * @param fim    Data/hora de fim (pode ser null).
+     * @return Email do utilizador, ou null se não houver reproduções no intervalo.
+     */
+    public String getUtilizadorComMaisReproducoes(LocalDateTime inicio, LocalDateTime fim) {
+        if (inicio == null && fim == null) {
+            return lerRegisto(() -> this.estatisticas.getUtilizadorComMaisReproducoes());
+        }
+
+        long de = (inicio == null) ? Long.MIN_VALUE : RegistoReproducoes.paraInstante(inicio);
+        long ate = (fim == null) ? Long.MAX_VALUE : RegistoReproducoes.paraInstante(fim);
+        return lerRegisto(() -> {
+            String melhor = null;
+            long maximo = 0;
+            for (Map.Entry<Integer, Long> e : this.reproducoes.contarPorUtilizador(de, ate).entrySet()) {
+                String email = this.emailsUtilizadores.get(e.getKey());
+                if (e.getValue() > maximo || (e.getValue() == maximo && email.compareTo(melhor) < 0)) {
+                    melhor = email;
+                    maximo = e.getValue();
+                }
             }
+            return melhor;
+        });
+    }
+
+    /**
+     * Obtém o email do utilizador que criou mais playlists.
+     *
+     * @return Email do utilizador, ou null se não houver playlists.
+     */
+    public String getUtilizadorComMaisPlaylists() {
+        return lerRegisto(() -> this.estatisticas.getUtilizadorComMaisPlaylists());
+    }
+
+    /**
+     * Obtém o número de playlists públicas.
+     *
+     * @return Número de playlists públicas.
+     */
+    public int getNumeroPlaylistsPublicas() {
+        return lerRegisto(() -> this.estatisticas.getPlaylistsPublicas());
+    }
+
+    /**
+     * Obtém as k músicas com mais reproduções.
+     *
+     * @param k Número de músicas.
+     * @return Lista de pares nome da música/reproduções, por ordem decrescente.
+     */
+    public List<Map.Entry<String, Long>> getTopMusicas(int k) {
+        return lerRegisto(() -> nomesMusicas(this.estatisticas.getTopMusicas(k)));
+    }
+
+    /**
+     * Obtém as k músicas mais reproduzidas num intervalo de tempo.
+     * Só são percorridas as reproduções do intervalo e a seleção usa uma heap de tamanho k.
+     *
+     * @param inicio Data/hora de início.
+     * @param fim    Data/hora de fim.
+     * @param k      Número de músicas.
+     * @return Lista de pares nome da música/reproduções, por ordem decrescente.
+     */
+    public List<Map.Entry<String, Long>> getTopMusicas(LocalDateTime inicio, LocalDateTime fim, int k) {
+        long de = RegistoReproducoes.paraInstante(inicio);
+        long ate = RegistoReproducoes.paraInstante(fim);
+        return lerRegisto(() -> {
+            HashMap<Integer, Long> contagem = new HashMap<>();
+            this.reproducoes.intervalo(de, ate)
+                    .percorrer((utilizador, musica, instante) -> contagem.merge(musica, 1L, Long::sum));
+            return nomesMusicas(ContadorOrdenado.topK(contagem, k));
+        });
+    }
+
+    /**
+     * Converte uma lista de pares id da música/valor em pares nome da música/valor.
+     *
+     * @param top Lista com ids de músicas.
+     * @return Lista com nomes de músicas.
+     */
+    private List<Map.Entry<String, Long>> nomesMusicas(List<Map.Entry<Integer, Long>> top) {
+        List<Map.Entry<String, Long>> nomes = new ArrayList<>(top.size());
+        for (Map.Entry<Integer, Long> e : top) {
+            nomes.add(Map.entry(this.musicas.get(e.getKey()).getNome(), e.getValue()));
         }
-        return musicas;
+        return nomes;
+    }
+
+    /**
+     * Obtém os k artistas com mais reproduções.
+     *
+     * @param k Número de artistas.
+     * @return Lista de pares nome do artista/reproduções, por ordem decrescente.
+     */
+    public List<Map.Entry<String, Long>> getTopArtistas(int k) {
+        return lerRegisto(() -> this.estatisticas.getTopArtistas(k));
+    }
+
+    /**
+     * Obtém os k artistas com mais reproduções num género.
+     *
+     * @param genero Género musical.
+     * @param k      Número de artistas.
+     * @return Lista de pares nome do artista/reproduções, por ordem decrescente.
+     */
+    public List<Map.Entry<String, Long>> getTopArtistas(Genero genero, int k) {
+        return lerRegisto(() -> this.estatisticas.getTopArtistas(genero, k));
+    }
+
+    /**
+     * Obtém os k géneros com mais reproduções.
+     *
+     * @param k Número de géneros.
+     * @return Lista de pares género/reproduções, por ordem decrescente.
+     */
+    public List<Map.Entry<Genero, Long>> getTopGeneros(int k) {
+        return lerRegisto(() -> this.estatisticas.getTopGeneros(k));
+    }
+
+    /**
+     * Liga o modo aproximado (memória limitada) do top de músicas e de artistas.
+     *
+     * @param erro               Erro máximo das contagens, relativo ao total de reproduções.
+     * @param probabilidadeFalha Probabilidade de esse erro ser ultrapassado.
+     * @throws IllegalArgumentException Se algum dos parâmetros não estiver entre 0 e 1.
+     */
+    public void ativarModoAproximado(double erro, double probabilidadeFalha) {
+        alterar(() -> this.estatisticas.ativarModoAproximado(erro, probabilidadeFalha));
+    }
+
+    /**
+     * Desliga o modo aproximado do top de músicas e de artistas.
+     */
+    public void desativarModoAproximado() {
+        alterar(() -> this.estatisticas.desativarModoAproximado(this.musicas));
+    }
+
+    /**
+     * Obtém o erro máximo das contagens do top de músicas e de artistas (0 em modo exato).
+     *
+     * @return Erro máximo, em número de reproduções.
+     */
+    public long getErroMaximoTop() {
+        return lerRegisto(() ->
+                Math.max(this.estatisticas.getErroMaximoTopMusicas(), this.estatisticas.getErroMaximoTopArtistas()));
+    }
+
+    /**
+     * Compara as estatísticas mantidas incrementalmente com um recálculo completo a partir do modelo.
+     *
+     * @return Lista com as estatísticas inconsistentes (vazia se estiverem todas corretas).
+     */
+    public List<String> verificarEstatisticas() {
+        return lerRegisto(() -> this.estatisticas.diferencas(calcularEstatisticas()));
     }
 
     /**
@@ -590,7 +2344,7 @@ public class SpotifUM implements Serializable {
      * @param historico  Lista de reproduções.
      * @return Género favorito ou null se não houver dados suficientes.
      */
-    public Genero obterGeneroFavorito(Utilizador utilizador, ArrayList<Reproducao> historico) {
+    public Genero obterGeneroFavorito(Utilizador utilizador, Iterable<Reproducao> historico) {
         Map<Genero, Integer> contagem = new HashMap<>();
 
         for (Reproducao r : historico) {
@@ -611,7 +2365,11 @@ public class SpotifUM implements Serializable {
     }
 
     /**
-     * Gera uma playlist com músicas do género favorito do utilizador.
+     * Gera uma playlist com as músicas recomendadas ao utilizador: as músicas mais ouvidas nas mesmas sessões que
+     * as suas músicas mais ouvidas (ver {@link MotorRecomendacoes}), até {@value #TAMANHO_PLAYLIST_FAVORITA}
+     * músicas. Se não houver recomendações suficientes (histórico com poucas sessões), a playlist é completada com
+     * músicas do género favorito do utilizador, tal como enquanto a tabela de um histórico grande ainda está a ser
+     * construída.
      *
      * @param nome         Nome da playlist.
      * @param utilizador   Utilizador que a cria.
@@ -620,22 +2378,163 @@ public class SpotifUM implements Serializable {
      * @return Playlist gerada.
      * @throws SemReproducoesException Se o utilizador não tiver reproduções.
      */
-    public Playlist gerarPlaylistFavorita(String nome, Utilizador utilizador, ArrayList<Reproducao> historico, ArrayList<Musica> todasMusicas) {
-        Genero generoFavorito = obterGeneroFavorito(utilizador, historico);
-        if (generoFavorito == null) throw new SemReproducoesException(utilizador.getNome());
+    public Playlist gerarPlaylistFavorita(String nome, Utilizador utilizador, Iterable<Reproducao> historico, Iterable<Musica> todasMusicas) {
+        long inicio = Instrumentacao.inicio();
+        Map<String, Integer> contagem = new HashMap<>();
+        for (Reproducao r : historico) {
+            if (r.getUtilizador().getEmail().equals(utilizador.getEmail())) {
+                contagem.merge(r.getMusica().getNome(), 1, Integer::sum);
+            }
+        }
+        if (contagem.isEmpty()) throw new SemReproducoesException(utilizador.getNome());
+
+        List<Map.Entry<String, Integer>> maisOuvidas = new ArrayList<>(contagem.entrySet());
+        maisOuvidas.sort(Map.Entry.<String, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+        int numeroSementes = Math.min(SEMENTES_PLAYLIST_FAVORITA, maisOuvidas.size());
+        int[] sementes = new int[numeroSementes];
+        double[] pesos = new double[numeroSementes];
+        ler(() -> {
+            for (int i = 0; i < numeroSementes; i++) {
+                sementes[i] = this.indiceCatalogo.getId(maisOuvidas.get(i).getKey());
+                pesos[i] = maisOuvidas.get(i).getValue();
+            }
+            return null;
+        });
 
         ArrayList<Musica> musicas = new ArrayList<>();
         Playlist playlist = new PlaylistFavoritos(nome, utilizador, LocalDate.now(), true, musicas);
+        Set<String> incluidas = new HashSet<>();
+        MotorRecomendacoes recomendacoes = obterRecomendacoes();
+        if (recomendacoes != null) {
+            for (int id : recomendacoes.recomendar(sementes, pesos, TAMANHO_PLAYLIST_FAVORITA)) {
+                Musica m = getMusica(id);
+                if (incluidas.add(m.getNome())) playlist.adicionarMusica(m);
+            }
+        }
 
-        for (Musica m : todasMusicas) {
-            if (m.getGenero() == generoFavorito) {
-                playlist.adicionarMusica(m);
+        if (incluidas.size() < TAMANHO_PLAYLIST_FAVORITA) {
+            Genero generoFavorito = obterGeneroFavorito(utilizador, historico);
+            for (Musica m : todasMusicas) {
+                if (incluidas.size() == TAMANHO_PLAYLIST_FAVORITA) break;
+                if (generoFavorito != null && m.getGenero() == generoFavorito && incluidas.add(m.getNome())) {
+                    playlist.adicionarMusica(m);
+                }
             }
         }
 
+        TEMPO_PLAYLIST_FAVORITA.registarDesde(inicio);
         return playlist;
     }
 
+    /**
+     * Reconstrói a tabela de recomendações a partir do histórico de reproduções atual. As sessões são extraídas
+     * sem nenhuma alteração a decorrer; a tabela é construída depois, em paralelo, sem bloquear o modelo, e só
+     * substitui a anterior no fim.
+     */
+    public void atualizarRecomendacoes() {
+        this.trincoRecomendacoes.lock();
+        try {
+            construirRecomendacoes();
+        } finally {
+            this.trincoRecomendacoes.unlock();
+        }
+    }
+
+    /**
+     * Começa a construir a tabela de recomendações em segundo plano, para que a primeira playlist de favoritos não
+     * tenha de esperar por ela. É chamado depois de carregar ou de recuperar o estado; se já estiver a decorrer uma
+     * construção, esta espera por ela e só volta a construir a tabela se o histórico tiver mudado entretanto.
+     */
+    public void prepararRecomendacoes() {
+        ForkJoinPool.commonPool().execute(() -> {
+            this.trincoRecomendacoes.lock();
+            try {
+                MotorRecomendacoes atual = this.recomendacoes;
+                if (atual == null || atual.getNumeroReproducoes() != lerRegisto(() -> this.reproducoes.tamanho())) {
+                    construirRecomendacoes();
+                }
+            } finally {
+                this.trincoRecomendacoes.unlock();
+            }
+        });
+    }
+
+    /**
+     * Indica se a tabela de recomendações já está construída.
+     *
+     * @return true se a tabela existir.
+     */
+    boolean isRecomendacoesProntas() {
+        return this.recomendacoes != null;
+    }
+
+    /**
+     * Constrói uma nova tabela de recomendações. Só é chamado com o trinco das recomendações.
+     */
+    private void construirRecomendacoes() {
+        long inicio = Instrumentacao.inicio();
+        SessoesAudicao sessoes = lerRegisto(() -> SessoesAudicao.extrair(this.reproducoes));
+        int numeroMusicas = ler(() -> this.musicas.size());
+        this.recomendacoes = MotorRecomendacoes.construir(sessoes, numeroMusicas, MotorRecomendacoes.VIZINHOS,
+                ForkJoinPool.commonPool());
+        TEMPO_RECOMENDACOES.registarDesde(inicio);
+    }
+
+    /**
+     * Obtém a tabela de recomendações. Se ainda não existir, ou se o histórico tiver crescido mais de 10% desde
+     * a sua construção, a tabela é construída: antes de a devolver, se o histórico for pequeno, ou em segundo plano.
+     * Neste caso, é devolvida a tabela atual, ou null se ainda não houver nenhuma.
+     *
+     * @return Tabela de recomendações, ou null se ainda estiver a ser construída.
+     */
+    private MotorRecomendacoes obterRecomendacoes() {
+        MotorRecomendacoes motor = this.recomendacoes;
+        int reproducoes = lerRegisto(() -> this.reproducoes.tamanho());
+        if (motor != null && !desatualizadas(motor, reproducoes)) return motor;
+        if (motor == null && reproducoes > RECONSTRUCAO_SINCRONA) {
+            // a construção já começou ao carregar o estado, ou começa agora
+            if (!this.trincoRecomendacoes.isLocked()) prepararRecomendacoes();
+            return null;
+        }
+        if (motor != null && reproducoes > RECONSTRUCAO_SINCRONA) {
+            ForkJoinPool.commonPool().execute(() -> {
+                if (!this.trincoRecomendacoes.tryLock()) return;
+                try {
+                    MotorRecomendacoes atual = this.recomendacoes;
+                    if (atual == null || desatualizadas(atual, lerRegisto(() -> this.reproducoes.tamanho()))) {
+                        construirRecomendacoes();
+                    }
+                } finally {
+                    this.trincoRecomendacoes.unlock();
+                }
+            });
+            return motor;
+        }
+        this.trincoRecomendacoes.lock();
+        try {
+            // outra thread pode ter acabado de a reconstruir
+            MotorRecomendacoes atual = this.recomendacoes;
+            if (atual == null || desatualizadas(atual, lerRegisto(() -> this.reproducoes.tamanho()))) {
+                construirRecomendacoes();
+            }
+            return this.recomendacoes;
+        } finally {
+            this.trincoRecomendacoes.unlock();
+        }
+    }
+
+    /**
+     * Indica se o histórico cresceu mais de 10% desde a construção de uma tabela de recomendações.
+     *
+     * @param motor       Tabela de recomendações.
+     * @param reproducoes Número de reproduções atual.
+     * @return true se a tabela estiver desatualizada.
+     */
+    private static boolean desatualizadas(MotorRecomendacoes motor, int reproducoes) {
+        return reproducoes - motor.getNumeroReproducoes() > motor.getNumeroReproducoes() / 10;
+    }
+
     /**
      * Gera uma playlist com músicas do género favorito até um tempo máximo.
      *
@@ -646,7 +2545,8 @@ public class SpotifUM implements Serializable {
      * @param tempoMaxSegundos Tempo máximo em segundos.
      * @return Playlist gerada.
      */
-    public Playlist gerarPlaylistPorTempo(String nome, Utilizador utilizador, ArrayList<Reproducao> historico, ArrayList<Musica> todasMusicas, int tempoMaxSegundos) {
+    public Playlist gerarPlaylistPorTempo(String nome, Utilizador utilizador, Iterable<Reproducao> historico, Iterable<Musica> todasMusicas, int tempoMaxSegundos) {
+        long inicio = Instrumentacao.inicio();
         Genero generoFavorito = obterGeneroFavorito(utilizador, historico);
         if (generoFavorito == null) throw new SemReproducoesException(utilizador.getNome());
 
@@ -660,6 +2560,7 @@ public class SpotifUM implements Serializable {
             }
         }
 
+        TEMPO_PLAYLIST_TEMPO.registarDesde(inicio);
         return new PlaylistGenero(nome, utilizador, LocalDate.now(), true, musicas, generoFavorito, duracaoTotal);
     }
 
@@ -672,7 +2573,8 @@ public class SpotifUM implements Serializable {
      * @param todasMusicas Todas as músicas disponíveis.
      * @return Playlist com músicas explícitas.
      */
-    public Playlist gerarPlaylistFavoritaExplicita(String nome, Utilizador utilizador, ArrayList<Reproducao> historico, ArrayList<Musica> todasMusicas) throws SemReproducoesException {
+    public Playlist gerarPlaylistFavoritaExplicita(String nome, Utilizador utilizador, Iterable<Reproducao> historico, Iterable<Musica> todasMusicas) throws SemReproducoesException {
+        long inicio = Instrumentacao.inicio();
         Genero generoFavorito = obterGeneroFavorito(utilizador, historico);
         if (generoFavorito == null) throw new SemReproducoesException(utilizador.getNome());
 
@@ -685,6 +2587,7 @@ public class SpotifUM implements Serializable {
             }
         }
 
+        TEMPO_PLAYLIST_EXPLICITA.registarDesde(inicio);
         return playlist;
     }
 
@@ -695,12 +2598,25 @@ public class SpotifUM implements Serializable {
      * @return Lista de músicas aleatórias.
      */
     public ArrayList<Musica> criaArrayMusicasAleatorio(int num) {
+        long inicio = Instrumentacao.inicio();
         ArrayList<Musica> musicas = getMusicas();
         Collections.shuffle(musicas);
         musicas.subList(0, num); // OBS: esta linha não altera a lista original, mas também não retorna o sublist
+        TEMPO_PLAYLIST_ALEATORIA.registarDesde(inicio);
         return musicas;
     }
 
+    /**
+     * Obtém o temporizador da geração de um tipo de playlist.
+     *
+     * @param tipo Tipo de playlist gerada.
+     * @return Temporizador.
+     */
+    private static Temporizador tempoGeracaoPlaylist(String tipo) {
+        return Instrumentacao.getRegisto().temporizador("spotifum_geracao_playlist_segundos",
+                "Duração da geração de uma playlist", "tipo", tipo);
+    }
+
     /**
      * Verifica se o utilizador tem um plano premium.
      *
@@ -710,7 +2626,7 @@ public class SpotifUM implements Serializable {
      */
     public boolean validarUtilizadorPremium(String email) throws UtilizadorNaoTemPermissoesException {
         Utilizador u = this.utilizadores.get(email);
-        boolean premium = u.isPremium();
+        boolean premium = comUtilizador(email, u::isPremium);
         if (!premium) {
             throw new UtilizadorNaoTemPermissoesException(u.getEmail());
         }
@@ -3,6 +3,8 @@ package View;
 import Classes.Genero;
 import Controller.Controller;
 
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
@@ -45,6 +47,7 @@ public class ViewAdmin {
             System.out.println("3. Adicionar Artista");
             System.out.println("4. Gerar Playlist");
             System.out.println("5. Listar Entidades");
+            System.out.println("6. Métricas");
             System.out.println("0. Logout");
             System.out.print("Escolha uma opção: ");
 
@@ -57,6 +60,7 @@ public class ViewAdmin {
                         escolhaMusica();
                     } catch (ArtistaInexistenteException e) {
                         System.out.println("Erro: Artista não existe : " + e.getMessage());
+                        mostrarSugestoes(controller.sugerirArtistas(e.getMessage()));
                     }
                     break;
                 case "2":
@@ -65,6 +69,7 @@ public class ViewAdmin {
                         adicionarAlbum();
                     } catch (ArtistaInexistenteException e) {
                         System.out.println("Erro: O artista indicado não existe. " + e.getMessage());
+                        mostrarSugestoes(controller.sugerirArtistas(e.getMessage()));
                     } catch (MusicaInexistenteException e) {
                         System.out.println("Erro: Uma ou mais músicas indicadas não existem. " + e.getMessage());
                     }
@@ -88,6 +93,10 @@ public class ViewAdmin {
                     System.out.println("Artista: " + controller.infoArtista());
                     System.out.println("Reproducao: " + controller.infoReproducao());
                     break;
+                case "6":
+                    System.out.println("-- 6. Métricas --");
+                    menuMetricas();
+                    break;
                 case "0":
                     loggedIn = false;
                     System.out.println("Logout efetuado com sucesso!");
@@ -98,6 +107,38 @@ public class ViewAdmin {
         }
     }
 
+    /**
+     * Mostra as métricas do sistema (no formato do Prometheus ou em JSON) ou exporta-as para um ficheiro.
+     */
+    private void menuMetricas() {
+        System.out.println("1. Mostrar (Prometheus)");
+        System.out.println("2. Mostrar (JSON)");
+        System.out.println("3. Exportar para ficheiro");
+        System.out.print("Escolha uma opção: ");
+        String opcao = scanner.nextLine();
+
+        switch (opcao) {
+            case "1":
+                System.out.print(controller.metricas(false));
+                break;
+            case "2":
+                System.out.print(controller.metricas(true));
+                break;
+            case "3":
+                System.out.print("Caminho do ficheiro (.json para JSON, outro para Prometheus): ");
+                String ficheiro = scanner.nextLine();
+                try {
+                    controller.exportarMetricas(ficheiro);
+                    System.out.println("Métricas exportadas para " + ficheiro);
+                } catch (IOException | InvalidPathException e) {
+                    System.out.println("Erro ao exportar as métricas: " + e.getMessage());
+                }
+                break;
+            default:
+                System.out.println("Opcao invalida.");
+        }
+    }
+
     /**
      * Lê várias linhas do utilizador até receber um "." indicando fim da entrada.
      *
@@ -276,4 +317,13 @@ public class ViewAdmin {
 
         controller.adicionarAlbum(nome, dataLancamento, nomeArtista, musicas);
     }
+
+    /**
+     * Mostra as sugestões de nomes dadas pelo controller, se houver alguma.
+     *
+     * @param sugestoes Mensagem com as sugestões (vazia se não houver nenhuma).
+     */
+    private void mostrarSugestoes(String sugestoes) {
+        if (!sugestoes.isEmpty()) System.out.println(sugestoes);
+    }
 }
\ No newline at end of file
@@ -3,7 +3,6 @@ package View;
 import Controller.Controller;
 import Exceptions.EmailExistenteException;
 
-import java.io.EOFException;
 import java.io.IOException;
 import java.util.Scanner;
 
@@ -47,19 +46,21 @@ public class ViewLogin {
     /**
      * Inicia o menu principal do sistema, permitindo login, registo, carregamento de script
      * e visualização de estatísticas.
+     * Se o estado guardado não puder ser carregado, o programa termina sem abrir o menu: continuar com um estado
+     * vazio levaria a que o ficheiro fosse substituído à saída.
      */
     public void start() {
         boolean running = true;
 
-        // Tenta carregar estado do sistema
+        // Carrega o estado do sistema
         try {
             controller.carregarEstado();
-        } catch (EOFException e) {
-            // Ficheiro vazio, não fazer nada
         } catch (IOException e) {
             System.out.println("Erro de IO ao carregar estado: " + e.getMessage());
+            return;
         } catch (ClassNotFoundException e) {
             System.out.println("Classe não encontrada ao carregar estado: " + e.getMessage());
+            return;
         }
 
         while (running) {
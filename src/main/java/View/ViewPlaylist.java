@@ -45,6 +45,7 @@ public class ViewPlaylist {
                     reproduzPlaylist(email);
                 } catch (PlaylistInexistenteException e) {
                     System.out.println("Erro: Playlist inexistente: " + e.getMessage());
+                    mostrarSugestoes(controller.sugerirPlaylists(email, e.getMessage()));
                 } catch (PlaylistIsNotAleatoriaException e){
                     System.out.println("Erro: Playlist não aleatória: " + e.getMessage());
                 }
@@ -189,7 +190,8 @@ public class ViewPlaylist {
             String nomeMusica = lista.get(index);
             System.out.println("Vai ouvir: " + nomeMusica);
 
-            controller.ouvirMusica(email, nomeMusica);
+            int pontosGanhos = controller.ouvirMusicaSemSaida(email, nomeMusica);
+            System.out.println("Pontos Ganhos: " + pontosGanhos);
 
             if (!premium) {
                 System.out.println("Pressione ENTER para continuar...");
@@ -257,4 +259,13 @@ public class ViewPlaylist {
             controller.adicionarPlaylistConstruida(nome, email, publica, musicas);
         }
     }
+
+    /**
+     * Mostra as sugestões de nomes dadas pelo controller, se houver alguma.
+     *
+     * @param sugestoes Mensagem com as sugestões (vazia se não houver nenhuma).
+     */
+    private void mostrarSugestoes(String sugestoes) {
+        if (!sugestoes.isEmpty()) System.out.println(sugestoes);
+    }
 }
\ No newline at end of file
@@ -43,6 +43,8 @@ public class ViewStats {
             System.out.println("5. Género com mais reproduções");
             System.out.println("6. Número de playlists públicas");
             System.out.println("7. Utilizador com mais playlists");
+            System.out.println("8. Verificar consistência das estatísticas");
+            System.out.println("9. Top de músicas, artistas e géneros");
             System.out.println("0. Voltar");
             System.out.print("Escolha uma opção: ");
 
@@ -56,6 +58,8 @@ public class ViewStats {
                 case "5": generoComMaisReproducoes(); break;
                 case "6": quantasPlaylistsPublicas(); break;
                 case "7": ultilizadorComMaisPLaylist(); break;
+                case "8": verificarEstatisticas(); break;
+                case "9": topK(); break;
                 case "0":
                     loggedIn = false;
                     System.out.println("Logout efetuado com sucesso!");
@@ -112,6 +116,43 @@ public class ViewStats {
         System.out.println(nome);
     }
 
+    /**
+     * Mostra as músicas, os artistas e os géneros com mais reproduções.
+     */
+    private void topK(){
+        int k;
+        while (true) {
+            System.out.print("Quantos resultados pretende ver? ");
+            try {
+                k = Integer.parseInt(scanner.nextLine());
+                if (k <= 0) {
+                    System.out.println("Número inválido. Deve ser positivo.");
+                    continue;
+                }
+                break;
+            } catch (NumberFormatException e) {
+                System.out.println("Erro: introduza um número válido.");
+            }
+        }
+
+        System.out.println("Top músicas:");
+        System.out.println(controller.topMusicas(k));
+        System.out.println("Top músicas dos últimos 7 dias:");
+        System.out.println(controller.topMusicasPeriodo(LocalDateTime.now().minusDays(7), LocalDateTime.now(), k));
+        System.out.println("Top artistas:");
+        System.out.println(controller.topArtistas(k));
+        System.out.println("Top géneros:");
+        System.out.println(controller.topGeneros(k));
+    }
+
+    /**
+     * Compara as estatísticas mantidas pelo sistema com um recálculo completo.
+     */
+    private void verificarEstatisticas(){
+        System.out.println("A verificar estatísticas...");
+        System.out.println(controller.verificarEstatisticas());
+    }
+
     /**
      * Mostra o utilizador que mais ouviu músicas, com possibilidade de filtrar por intervalo de tempo.
      */
@@ -3,6 +3,10 @@ package View;
 import Controller.Controller;
 import Exceptions.*;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
@@ -16,9 +20,11 @@ public class ViewUtilizador {
 
     private Scanner scanner;
     private Controller controller;
+    private Writer saida;
 
     /**
      * Construtor da classe ViewUtilizador.
+     * A reprodução das músicas é escrita diretamente na consola, através de um buffer reutilizado.
      *
      * @param scanner     Scanner utilizado para input do utilizador.
      * @param controller  Controller que faz a ligação à camada de lógica (model).
@@ -26,6 +32,7 @@ public class ViewUtilizador {
     public ViewUtilizador(Scanner scanner, Controller controller){
         this.scanner = scanner;
         this.controller = controller;
+        this.saida = new BufferedWriter(new OutputStreamWriter(System.out, System.out.charset()));
     }
 
     /**
@@ -47,6 +54,7 @@ public class ViewUtilizador {
             System.out.println("7. Adicionar Playlist/Álbum à Biblioteca");
             System.out.println("8. Mudar visibilidade Playlist");
             System.out.println("9. Trocar Plano");
+            System.out.println("10. Pesquisar Músicas");
             System.out.println("0. Logout");
             System.out.print("Escolha uma opção: ");
 
@@ -57,9 +65,13 @@ public class ViewUtilizador {
                     System.out.print("Nome da música que deseja ouvir: ");
                     String nomeMusica = scanner.nextLine();
                     try {
-                        System.out.println(controller.ouvirMusica(email, nomeMusica));
+                        controller.ouvirMusica(email, nomeMusica, saida);
+                        saida.append('\n').flush();
                     } catch (MusicaInexistenteException e) {
                         System.out.println("Erro: Música inexistente: " + e.getMessage());
+                        mostrarSugestoes(controller.sugerirMusicas(nomeMusica));
+                    } catch (IOException e) {
+                        System.out.println("Erro ao mostrar a música: " + e.getMessage());
                     }
                     break;
                 case "2":
@@ -102,6 +114,7 @@ public class ViewUtilizador {
                                 System.out.println("A biblioteca já contém a playlist: " + nome);
                             } catch (PlaylistInexistenteException e) {
                                 System.out.println("Playlist inexistente: " + nome);
+                                mostrarSugestoes(controller.sugerirPlaylists(email, nome));
                             }
                         } else if (tipo.equals("2")) {
                             try {
@@ -110,6 +123,7 @@ public class ViewUtilizador {
                                 System.out.println("A biblioteca já contém o álbum: " + nome);
                             } catch (AlbumInexistenteException e) {
                                 System.out.println("Álbum inexistente: " + nome);
+                                mostrarSugestoes(controller.sugerirAlbuns(nome));
                             }
                         } else {
                             System.out.println("Tipo inválido.");
@@ -129,6 +143,10 @@ public class ViewUtilizador {
                         upgradePlano(email, plano);
                     }
                     break;
+                case "10":
+                    System.out.print("Pesquisa (prefixo*, \"frase exata\"): ");
+                    System.out.println(controller.pesquisarMusicas(scanner.nextLine(), 10));
+                    break;
                 case "0":
                     loggedIn = false;
                     System.out.println("Logout efetuado com sucesso!");
@@ -182,8 +200,18 @@ public class ViewUtilizador {
             System.out.println("Playlist \"" + nome + "\" agora é " + (novaVisibilidade ? "pública." : "privada."));
         } catch (PlaylistInexistenteException e) {
             System.out.println("Erro: " + e.getMessage());
+            mostrarSugestoes(controller.sugerirPlaylists(email, nome));
         } catch (UtilizadorNaoTemPermissoesException e) {
             System.out.println("Erro: " + e.getMessage());
         }
     }
+
+    /**
+     * Mostra as sugestões de nomes dadas pelo controller, se houver alguma.
+     *
+     * @param sugestoes Mensagem com as sugestões (vazia se não houver nenhuma).
+     */
+    private void mostrarSugestoes(String sugestoes) {
+        if (!sugestoes.isEmpty()) System.out.println(sugestoes);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,101 @@
+package Classes.Concorrencia;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CombinadorOperacoesTest {
+
+    private List<Integer> aplicadas;
+    private List<Integer> tamanhosRondas;
+    private CombinadorOperacoes combinador;
+
+    @BeforeEach
+    void setUp() {
+        aplicadas = new ArrayList<>();
+        tamanhosRondas = new ArrayList<>();
+        combinador = new CombinadorOperacoes(corpo -> {
+            int antes = aplicadas.size();
+            corpo.run();
+            tamanhosRondas.add(aplicadas.size() - antes);
+        });
+    }
+
+    @Test
+    void testExecutarDevolveResultado() {
+        int resultado = combinador.executar(() -> {
+            aplicadas.add(3);
+            return aplicadas.size() + 2;
+        });
+
+        assertEquals(3, resultado);
+        assertEquals(1, combinador.getRondas());
+        assertEquals(1, combinador.getOperacoes());
+    }
+
+    @Test
+    void testExcecaoDaOperacao() {
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> combinador.executar(() -> {
+                    throw new IllegalStateException("falhou");
+                }));
+        assertEquals("falhou", e.getMessage());
+        int seguinte = combinador.executar(() -> 7);
+        assertEquals(7, seguinte);
+    }
+
+    @Test
+    void testExcecaoDaRonda() {
+        CombinadorOperacoes falha = new CombinadorOperacoes(corpo -> {
+            corpo.run();
+            throw new IllegalStateException("diário indisponível");
+        });
+        List<Integer> feitas = new ArrayList<>();
+
+        assertThrows(IllegalStateException.class, () -> falha.executar(() -> feitas.add(1)));
+        assertEquals(List.of(1), feitas);
+    }
+
+    @Test
+    void testExecucaoAninhada() {
+        int resultado = combinador.executar(() -> combinador.executar(() -> 2) + combinador.executarExclusivo(() -> 3));
+        assertEquals(5, resultado);
+        assertEquals(1, combinador.getRondas());
+    }
+
+    @Test
+    void testVariasThreads() throws InterruptedException {
+        int porThread = 5_000;
+        Thread[] threads = new Thread[16];
+        for (int t = 0; t < threads.length; t++) {
+            int id = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < porThread; i++) {
+                    int valor = id * porThread + i;
+                    // a lista não é sincronizada: só o combinador a altera
+                    int posicao = combinador.executar(() -> {
+                        aplicadas.add(valor);
+                        return aplicadas.size() - 1;
+                    });
+                    assertEquals(valor, (int) combinador.executarExclusivo(() -> aplicadas.get(posicao)));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        int total = threads.length * porThread;
+        assertEquals(total, combinador.executarExclusivo(() -> aplicadas.size()).intValue());
+        assertEquals(total, combinador.getOperacoes());
+        assertEquals(total, tamanhosRondas.stream().mapToInt(Integer::intValue).sum());
+        assertEquals(combinador.getRondas(), tamanhosRondas.size());
+        // cada valor foi aplicado uma única vez
+        assertEquals(total, aplicadas.stream().distinct().count());
+    }
+}
@@ -0,0 +1,95 @@
+package Classes.Concorrencia;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListaAcrescentavelTest {
+
+    private ListaAcrescentavel<String> lista;
+
+    @BeforeEach
+    void setUp() {
+        lista = new ListaAcrescentavel<>(Arrays.asList("a", "b"));
+    }
+
+    @Test
+    void testAcrescentar() {
+        for (int i = 0; i < 100; i++) {
+            lista.add("x" + i);
+        }
+
+        assertEquals(102, lista.size());
+        assertEquals("a", lista.get(0));
+        assertEquals("x99", lista.get(101));
+        assertThrows(IndexOutOfBoundsException.class, () -> lista.get(102));
+    }
+
+    @Test
+    void testRemoverNaoSuportado() {
+        assertThrows(UnsupportedOperationException.class, () -> lista.remove(0));
+        assertThrows(UnsupportedOperationException.class, () -> lista.set(0, "z"));
+    }
+
+    @Test
+    void testPercorrerEnquantoAcrescenta() {
+        Iterator<String> it = lista.iterator();
+        assertEquals("a", it.next());
+        lista.add("c");
+        List<String> resto = new ArrayList<>();
+        it.forEachRemaining(resto::add);
+
+        assertEquals(Arrays.asList("b", "c"), resto);
+    }
+
+    @Test
+    void testLeituraConcorrente() throws InterruptedException {
+        ListaAcrescentavel<Integer> numeros = new ListaAcrescentavel<>();
+        int total = 200_000;
+        Thread escritor = new Thread(() -> {
+            for (int i = 0; i < total; i++) {
+                numeros.add(i);
+            }
+        });
+        escritor.start();
+
+        // quem vê o tamanho n vê também os primeiros n elementos
+        boolean coerente = true;
+        while (numeros.size() < total) {
+            int n = numeros.size();
+            if (n > 0 && numeros.get(n - 1) != n - 1) coerente = false;
+        }
+        escritor.join();
+
+        assertTrue(coerente);
+        for (int i = 0; i < total; i++) {
+            assertEquals(i, numeros.get(i).intValue());
+        }
+    }
+
+    @Test
+    void testSerializacao() throws Exception {
+        lista.add("c");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(lista);
+        }
+        Object lida;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            lida = in.readObject();
+        }
+
+        assertEquals(Arrays.asList("a", "b", "c"), lida);
+        assertTrue(lida instanceof ListaAcrescentavel);
+    }
+}
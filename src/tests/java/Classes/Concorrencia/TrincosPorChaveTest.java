@@ -0,0 +1,59 @@
+package Classes.Concorrencia;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrincosPorChaveTest {
+
+    private TrincosPorChave trincos;
+
+    @BeforeEach
+    void setUp() {
+        trincos = new TrincosPorChave(100);
+    }
+
+    @Test
+    void testNumeroTrincos() {
+        assertEquals(128, trincos.numeroTrincos());
+        assertEquals(1, new TrincosPorChave(1).numeroTrincos());
+        assertThrows(IllegalArgumentException.class, () -> new TrincosPorChave(0));
+    }
+
+    @Test
+    void testMesmaChaveMesmoTrinco() {
+        assertSame(trincos.trinco("a@gmail.com"), trincos.trinco(new String("a@gmail.com")));
+        assertNotNull(trincos.trinco(null));
+    }
+
+    @Test
+    void testContadorProtegido() throws InterruptedException {
+        int[] contadores = new int[4];
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    int c = i % contadores.length;
+                    ReentrantLock trinco = trincos.trinco("utilizador" + c);
+                    trinco.lock();
+                    try {
+                        contadores[c]++;
+                    } finally {
+                        trinco.unlock();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (int contador : contadores) {
+            assertEquals(20_000, contador);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package Classes.Estatisticas;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContadorOrdenadoTest {
+
+    private ContadorOrdenado<String> contador;
+
+    @BeforeEach
+    void setUp() {
+        contador = new ContadorOrdenado<>();
+        contador.incrementar("b", 3);
+        contador.incrementar("a", 1);
+        contador.incrementar("c", 2);
+    }
+
+    @Test
+    void testMaximo() {
+        assertEquals("b", contador.maximo());
+        assertEquals(3, contador.valorMaximo());
+
+        contador.incrementar("c", 5);
+        assertEquals("c", contador.maximo());
+        assertEquals(7, contador.valorMaximo());
+    }
+
+    @Test
+    void testEmpateDevolveMenorChave() {
+        contador.incrementar("a", 2);
+        assertEquals("a", contador.maximo());
+    }
+
+    @Test
+    void testDefinirERemover() {
+        contador.definir("b", 0);
+        assertEquals("c", contador.maximo());
+        assertEquals(0, contador.get("b"));
+        assertTrue(contador.contem("b"));
+
+        contador.remover("c");
+        assertFalse(contador.contem("c"));
+        assertEquals("a", contador.maximo());
+        assertEquals(2, contador.tamanho());
+    }
+
+    @Test
+    void testContadorVazio() {
+        ContadorOrdenado<Integer> vazio = new ContadorOrdenado<>();
+        assertNull(vazio.maximo());
+        assertEquals(0, vazio.valorMaximo());
+        assertEquals(0, vazio.get(1));
+    }
+
+    @Test
+    void testTopK() {
+        contador.incrementar("d", 2);
+        List<Map.Entry<String, Long>> top = contador.topK(3);
+        assertEquals(List.of(Map.entry("b", 3L), Map.entry("c", 2L), Map.entry("d", 2L)), top);
+        assertEquals(4, contador.topK(10).size());
+        assertTrue(contador.topK(0).isEmpty());
+        assertEquals("a", contador.minimo());
+    }
+
+    @Test
+    void testTopKDeMapa() {
+        HashMap<String, Long> valores = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            valores.put("k" + i, (long) (i % 10));
+        }
+        List<Map.Entry<String, Long>> top = ContadorOrdenado.topK(valores, 3);
+        assertEquals(List.of(Map.entry("k19", 9L), Map.entry("k29", 9L), Map.entry("k39", 9L)), top);
+    }
+}
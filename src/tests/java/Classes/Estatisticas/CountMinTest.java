@@ -0,0 +1,48 @@
+package Classes.Estatisticas;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountMinTest {
+
+    private CountMin<String> esboco;
+
+    @BeforeEach
+    void setUp() {
+        esboco = new CountMin<>(0.01, 0.01);
+    }
+
+    @Test
+    void testEstimativaNuncaInferior() {
+        Random random = new Random(5);
+        long[] reais = new long[500];
+        for (int i = 0; i < 10000; i++) {
+            int chave = random.nextInt(500);
+            reais[chave]++;
+            esboco.adicionar("m" + chave, 1);
+        }
+
+        int dentroDoErro = 0;
+        for (int chave = 0; chave < 500; chave++) {
+            long estimativa = esboco.estimar("m" + chave);
+            assertTrue(estimativa >= reais[chave]);
+            if (estimativa - reais[chave] <= 0.01 * esboco.getTotal()) dentroDoErro++;
+        }
+        assertTrue(dentroDoErro >= 490);
+    }
+
+    @Test
+    void testChaveInexistente() {
+        assertEquals(0, esboco.estimar("nada"));
+    }
+
+    @Test
+    void testParametrosInvalidos() {
+        assertThrows(IllegalArgumentException.class, () -> new CountMin<String>(0, 0.1));
+        assertThrows(IllegalArgumentException.class, () -> new CountMin<String>(0.1, 1));
+    }
+}
@@ -0,0 +1,28 @@
+package Classes.Estatisticas;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EsbocoTopKTest {
+
+    @Test
+    void testTopKAproximado() {
+        EsbocoTopK<String> esboco = new EsbocoTopK<>(0.05, 0.01);
+        esboco.adicionar("a", 100);
+        esboco.adicionar("b", 60);
+        for (int i = 0; i < 200; i++) {
+            esboco.adicionar("x" + i, 1);
+        }
+
+        List<Map.Entry<String, Long>> top = esboco.topK(2);
+        assertEquals("a", top.get(0).getKey());
+        assertEquals("b", top.get(1).getKey());
+        assertTrue(top.get(0).getValue() - 100 <= esboco.getErroMaximo());
+        assertEquals(18, esboco.getErroMaximo());
+        assertTrue(esboco.estimar("b") >= 60);
+    }
+}
@@ -0,0 +1,193 @@
+package Classes.Estatisticas;
+
+import Classes.Artista;
+import Classes.Biblioteca;
+import Classes.Cargo;
+import Classes.Genero;
+import Classes.Musicas.Musica;
+import Classes.Planos.PlanoFree;
+import Classes.Playlists.PlaylistConstruida;
+import Classes.Utilizador;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MotorEstatisticasTest {
+
+    private MotorEstatisticas motor;
+    private Musica musica1;
+    private Musica musica2;
+    private Utilizador utilizador;
+
+    @BeforeEach
+    void setUp() {
+        Artista artista1 = new Artista("Artista 1", "Portugal");
+        Artista artista2 = new Artista("Artista 2", "Brasil");
+        musica1 = new Musica("Musica 1", artista1, "Editora", Arrays.asList("l1"), Arrays.asList("n1"), Genero.POP, 180, 5);
+        musica2 = new Musica("Musica 2", artista2, "Editora", Arrays.asList("l2"), Arrays.asList("n2"), Genero.ROCK, 200, 3);
+        utilizador = new Utilizador("Ana", "ana@mail.com", "Braga", "123", 0, new PlanoFree(), Cargo.USER, new Biblioteca());
+
+        motor = new MotorEstatisticas();
+        motor.registarMusica(0, musica1);
+        motor.registarMusica(1, musica2);
+    }
+
+    @Test
+    void testReproducoesPorMusicaArtistaEGenero() {
+        assertEquals(0, motor.getMusicaMaisReproduzida());
+        assertEquals("Artista 1", motor.getArtistaMaisEscutado());
+        assertEquals(Genero.POP, motor.getGeneroMaisReproduzido());
+
+        for (int i = 0; i < 3; i++) {
+            motor.registarReproducaoMusica(1, musica2);
+        }
+        assertEquals(1, motor.getMusicaMaisReproduzida());
+        assertEquals("Artista 2", motor.getArtistaMaisEscutado());
+        assertEquals(Genero.ROCK, motor.getGeneroMaisReproduzido());
+        assertEquals(6, motor.getReproducoesGenero(Genero.ROCK));
+    }
+
+    @Test
+    void testUtilizadores() {
+        motor.registarPontos("ana@mail.com", 10);
+        motor.registarPontos("rui@mail.com", 20);
+        motor.registarReproducaoUtilizador("ana@mail.com");
+        assertEquals("rui@mail.com", motor.getUtilizadorComMaisPontos());
+        assertEquals("ana@mail.com", motor.getUtilizadorComMaisReproducoes());
+
+        motor.registarPontos("ana@mail.com", 30);
+        assertEquals("ana@mail.com", motor.getUtilizadorComMaisPontos());
+    }
+
+    @Test
+    void testPlaylists() {
+        assertNull(motor.getUtilizadorComMaisPlaylists());
+        motor.registarPlaylist(new PlaylistConstruida("P1", utilizador, LocalDate.now(), true, new ArrayList<>()));
+        motor.registarPlaylist(new PlaylistConstruida("P2", utilizador, LocalDate.now(), false, new ArrayList<>()));
+        assertEquals("ana@mail.com", motor.getUtilizadorComMaisPlaylists());
+        assertEquals(1, motor.getPlaylistsPublicas());
+
+        motor.registarVisibilidade(true);
+        assertEquals(2, motor.getPlaylistsPublicas());
+    }
+
+    @Test
+    void testDiferencas() {
+        MotorEstatisticas recalculado = new MotorEstatisticas();
+        recalculado.registarMusica(0, musica1);
+        recalculado.registarMusica(1, musica2);
+        assertTrue(motor.diferencas(recalculado).isEmpty());
+
+        motor.registarReproducaoMusica(0, musica1);
+        motor.registarVisibilidade(true);
+        List<String> diferencas = motor.diferencas(recalculado);
+        assertTrue(diferencas.contains("Reproduções por música"));
+        assertTrue(diferencas.contains("Playlists públicas"));
+        assertFalse(diferencas.contains("Pontos por utilizador"));
+    }
+
+    @Test
+    void testTopK() {
+        motor.registarReproducaoMusica(1, musica2);
+        assertEquals(List.of(Map.entry(0, 5L), Map.entry(1, 4L)), motor.getTopMusicas(5));
+        assertEquals(List.of(Map.entry("Artista 1", 5L)), motor.getTopArtistas(1));
+        assertEquals(List.of(Map.entry("Artista 2", 4L)), motor.getTopArtistas(Genero.ROCK, 3));
+        assertTrue(motor.getTopArtistas(Genero.JAZZ, 3).isEmpty());
+        assertEquals(Genero.POP, motor.getTopGeneros(2).get(0).getKey());
+    }
+
+    @Test
+    void testRegistarReproducoesEmLote() {
+        int[] sequencia = {1, 0, 1, 1, 0, 1};
+        List<Musica> catalogo = List.of(musica1, musica2);
+        MotorEstatisticas emLote = new MotorEstatisticas();
+        emLote.registarMusica(0, musica1);
+        emLote.registarMusica(1, musica2);
+
+        for (int idMusica : sequencia) {
+            motor.registarReproducaoMusica(idMusica, catalogo.get(idMusica));
+            motor.registarReproducaoUtilizador("ana@mail.com");
+        }
+        emLote.registarReproducoesMusicas(sequencia, catalogo);
+        emLote.registarReproducoesUtilizador("ana@mail.com", sequencia.length);
+
+        assertTrue(motor.diferencas(emLote).isEmpty());
+        assertEquals(motor.getTopMusicas(2), emLote.getTopMusicas(2));
+        assertEquals(motor.getTopArtistas(Genero.ROCK, 2), emLote.getTopArtistas(Genero.ROCK, 2));
+        assertEquals(7, emLote.getReproducoesGenero(Genero.ROCK));
+        assertEquals("ana@mail.com", emLote.getUtilizadorComMaisReproducoes());
+    }
+
+    @Test
+    void testRegistarReproducoesEmLoteModoAproximado() {
+        int[] sequencia = {1, 0, 1, 1, 0, 1, 1};
+        List<Musica> catalogo = List.of(musica1, musica2);
+        MotorEstatisticas emLote = new MotorEstatisticas();
+        emLote.registarMusica(0, musica1);
+        emLote.registarMusica(1, musica2);
+        motor.ativarModoAproximado(0.1, 0.05);
+        emLote.ativarModoAproximado(0.1, 0.05);
+
+        for (int idMusica : sequencia) {
+            motor.registarReproducaoMusica(idMusica, catalogo.get(idMusica));
+        }
+        emLote.registarReproducoesMusicas(sequencia, catalogo);
+
+        assertEquals(motor.getTopMusicas(2), emLote.getTopMusicas(2));
+        assertEquals(motor.getTopArtistas(2), emLote.getTopArtistas(2));
+        assertEquals(motor.getErroMaximoTopMusicas(), emLote.getErroMaximoTopMusicas());
+    }
+
+    @Test
+    void testModoAproximado() {
+        motor.ativarModoAproximado(0.1, 0.05);
+        assertTrue(motor.isModoAproximado());
+        for (int i = 0; i < 4; i++) {
+            musica2.contarReproducao();
+            motor.registarReproducaoMusica(1, musica2);
+        }
+        assertEquals(Integer.valueOf(1), motor.getTopMusicas(1).get(0).getKey());
+        assertEquals("Artista 2", motor.getTopArtistas(1).get(0).getKey());
+        assertEquals("Artista 2", motor.getTopArtistas(Genero.ROCK, 1).get(0).getKey());
+        assertEquals(2, motor.getErroMaximoTopMusicas());
+
+        motor.desativarModoAproximado(List.of(musica1, musica2));
+        assertFalse(motor.isModoAproximado());
+        assertEquals(0, motor.getErroMaximoTopMusicas());
+        assertEquals(List.of(Map.entry(1, 7L), Map.entry(0, 5L)), motor.getTopMusicas(2));
+        assertEquals(List.of(Map.entry("Artista 2", 7L)), motor.getTopArtistas(Genero.ROCK, 2));
+    }
+
+    @Test
+    void testModoAproximadoMemoriaLimitada() {
+        motor.ativarModoAproximado(0.1, 0.05);
+        Genero[] generos = Genero.values();
+        Musica popular = new Musica("Popular", new Artista("Popular", "Portugal"), "Editora",
+                Arrays.asList("l"), Arrays.asList("n"), Genero.POP, 180, 0);
+        motor.registarMusica(2, popular);
+        for (int i = 0; i < 5000; i++) {
+            Musica musica = new Musica("Musica " + i, new Artista("Artista " + i, "Portugal"), "Editora",
+                    Arrays.asList("l"), Arrays.asList("n"), generos[i % generos.length], 180, 0);
+            motor.registarMusica(i + 3, musica);
+            motor.registarReproducaoMusica(i + 3, musica);
+            motor.registarReproducaoMusica(2, popular);
+        }
+
+        // capacidade de cada esboço: 1 / 0.1 = 10 chaves (músicas, artistas e artistas de cada género)
+        assertTrue(motor.numeroChavesMusicasEArtistas() <= 10 * (2 + generos.length));
+        assertEquals(2, motor.getMusicaMaisReproduzida());
+        assertEquals("Popular", motor.getArtistaMaisEscutado());
+        assertEquals("Popular", motor.getTopArtistas(Genero.POP, 1).get(0).getKey());
+        // as reproduções por género continuam exatas
+        long total = 0;
+        for (Genero genero : generos) total += motor.getReproducoesGenero(genero);
+        assertEquals(5 + 3 + 5000 + 5000, total);
+    }
+}
@@ -0,0 +1,55 @@
+package Classes.Estatisticas;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpaceSavingTest {
+
+    private SpaceSaving<Integer> esboco;
+
+    @BeforeEach
+    void setUp() {
+        esboco = new SpaceSaving<>(10);
+    }
+
+    @Test
+    void testContagemExataAbaixoDaCapacidade() {
+        esboco.adicionar(1, 5);
+        esboco.adicionar(2, 3);
+        esboco.adicionar(1, 1);
+
+        assertEquals(6, esboco.estimar(1));
+        assertEquals(0, esboco.getErro(1));
+        assertEquals(List.of(Map.entry(1, 6L), Map.entry(2, 3L)), esboco.topK(5));
+        assertEquals(9, esboco.getTotal());
+    }
+
+    @Test
+    void testEncontraChavesFrequentes() {
+        Random random = new Random(3);
+        long[] reais = new long[1000];
+        for (int i = 0; i < 20000; i++) {
+            int chave = (random.nextInt(4) == 0) ? random.nextInt(1000) : random.nextInt(3);
+            reais[chave]++;
+            esboco.adicionar(chave, 1);
+        }
+
+        List<Map.Entry<Integer, Long>> top = esboco.topK(3);
+        for (Map.Entry<Integer, Long> e : top) {
+            assertTrue(e.getKey() < 3);
+            assertTrue(e.getValue() >= reais[e.getKey()]);
+            assertTrue(e.getValue() - reais[e.getKey()] <= esboco.getTotal() / esboco.getCapacidade());
+        }
+    }
+
+    @Test
+    void testCapacidadeInvalida() {
+        assertThrows(IllegalArgumentException.class, () -> new SpaceSaving<Integer>(0));
+    }
+}
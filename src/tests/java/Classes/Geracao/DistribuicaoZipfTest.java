@@ -0,0 +1,78 @@
+package Classes.Geracao;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistribuicaoZipfTest {
+
+    private DistribuicaoZipf zipf;
+
+    @BeforeEach
+    void setUp() {
+        zipf = new DistribuicaoZipf(10, 1.0);
+    }
+
+    @Test
+    void testAmostrasNoIntervalo() {
+        SplittableRandom aleatorio = new SplittableRandom(1);
+        for (int i = 0; i < 100_000; i++) {
+            int k = zipf.amostra(aleatorio);
+            assertTrue(k >= 1 && k <= 10);
+        }
+        DistribuicaoZipf uma = new DistribuicaoZipf(1, 2.0);
+        assertEquals(1, uma.amostra(aleatorio));
+    }
+
+    @Test
+    void testFrequenciasProporcionaisAoInversoDaPosicao() {
+        SplittableRandom aleatorio = new SplittableRandom(2);
+        int amostras = 500_000;
+        int[] contagens = new int[11];
+        for (int i = 0; i < amostras; i++) {
+            contagens[zipf.amostra(aleatorio)]++;
+        }
+        double harmonico = 0;
+        for (int k = 1; k <= 10; k++) {
+            harmonico += 1.0 / k;
+        }
+        for (int k = 1; k <= 10; k++) {
+            double esperado = amostras / (k * harmonico);
+            assertEquals(esperado, contagens[k], esperado * 0.05, "posição " + k);
+        }
+    }
+
+    @Test
+    void testExpoenteMaiorConcentraMais() {
+        SplittableRandom aleatorio = new SplittableRandom(3);
+        DistribuicaoZipf forte = new DistribuicaoZipf(1000, 2.0);
+        DistribuicaoZipf fraca = new DistribuicaoZipf(1000, 0.5);
+        int primeiraForte = 0;
+        int primeiraFraca = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (forte.amostra(aleatorio) == 1) primeiraForte++;
+            if (fraca.amostra(aleatorio) == 1) primeiraFraca++;
+        }
+        assertTrue(primeiraForte > 5_000);
+        assertTrue(primeiraFraca < 500);
+    }
+
+    @Test
+    void testMesmaSementeMesmasAmostras() {
+        SplittableRandom a = new SplittableRandom(4);
+        SplittableRandom b = new SplittableRandom(4);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(zipf.amostra(a), zipf.amostra(b));
+        }
+    }
+
+    @Test
+    void testParametrosInvalidos() {
+        assertThrows(IllegalArgumentException.class, () -> new DistribuicaoZipf(0, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> new DistribuicaoZipf(10, 0));
+        assertThrows(IllegalArgumentException.class, () -> new DistribuicaoZipf(10, Double.NaN));
+    }
+}
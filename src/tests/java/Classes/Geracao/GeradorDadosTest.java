@@ -0,0 +1,227 @@
+package Classes.Geracao;
+
+import Classes.Genero;
+import Classes.Importacao.ImportadorScript;
+import Classes.Importacao.ResumoImportacao;
+import Classes.Musicas.Musica;
+import Classes.Musicas.MusicaExplicita;
+import Classes.Musicas.MusicaMultimedia;
+import Classes.Utilizador;
+import SpotifUM.SpotifUM;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeradorDadosTest {
+
+    private ParametrosGeracao parametros;
+
+    @BeforeEach
+    void setUp() {
+        parametros = new ParametrosGeracao();
+        parametros.setArtistas(3);
+        parametros.setMusicas(6);
+        parametros.setMusicasExplicitas(2);
+        parametros.setMusicasMultimedia(2);
+        parametros.setUtilizadoresFree(3);
+        parametros.setUtilizadoresPremiumBase(2);
+        parametros.setUtilizadoresPremiumTop(1);
+        parametros.setPlaylists(4);
+        parametros.setMusicasPorPlaylist(3);
+        parametros.setReproducoes(200);
+        parametros.setInicio(LocalDateTime.of(2025, 1, 1, 0, 0));
+        parametros.setDuracao(Duration.ofDays(10));
+    }
+
+    private String script(ParametrosGeracao p) throws IOException {
+        StringWriter destino = new StringWriter();
+        new GeradorDados(p).gerar(new EscritorScript(destino));
+        return destino.toString();
+    }
+
+    private static int contar(String script, String comando) {
+        int n = 0;
+        for (String linha : script.split("\n")) {
+            if (linha.startsWith("admin," + comando + " ")) n++;
+        }
+        return n;
+    }
+
+    @Test
+    void testMesmaSementeMesmosDados() throws IOException {
+        String a = script(parametros);
+        assertEquals(a, script(parametros));
+
+        ParametrosGeracao outra = parametros.clone();
+        outra.setSemente(7);
+        assertNotEquals(a, script(outra));
+    }
+
+    @Test
+    void testNumeroDeElementos() throws IOException {
+        String s = script(parametros);
+        assertEquals(3, contar(s, "artista create"));
+        assertEquals(6, contar(s, "musica create"));
+        assertEquals(2, contar(s, "musicaExplicita create"));
+        assertEquals(2, contar(s, "musicaMultimedia create"));
+        assertEquals(6, contar(s, "user register"));
+        assertEquals(4, contar(s, "playlistConstruida create"));
+        assertEquals(200, contar(s, "reproducao create"));
+    }
+
+    @Test
+    void testReproducoesNaoMudamORestoDosDados() throws IOException {
+        ParametrosGeracao mais = parametros.clone();
+        mais.setReproducoes(5000);
+        String a = script(parametros);
+        String b = script(mais);
+        assertEquals(a.substring(0, a.indexOf("admin,reproducao")), b.substring(0, b.indexOf("admin,reproducao")));
+    }
+
+    @Test
+    void testReproducoesPorOrdemNoPeriodo() throws IOException {
+        List<LocalDateTime> instantes = new ArrayList<>();
+        new GeradorDados(parametros).gerar(new DestinoVazio() {
+            @Override
+            public void reproducao(String email, String nomeMusica, LocalDateTime dataHora) {
+                instantes.add(dataHora);
+            }
+        });
+
+        assertEquals(200, instantes.size());
+        LocalDateTime inicio = parametros.getInicio();
+        LocalDateTime fim = inicio.plus(parametros.getDuracao());
+        assertEquals(inicio, instantes.get(0));
+        for (int i = 1; i < instantes.size(); i++) {
+            assertFalse(instantes.get(i).isBefore(instantes.get(i - 1)));
+            assertTrue(instantes.get(i).isBefore(fim));
+        }
+    }
+
+    @Test
+    void testReproducoesConcentradasNasMusicasPopulares() throws IOException {
+        parametros.setMusicas(50);
+        parametros.setReproducoes(20_000);
+        Map<String, Integer> reproducoes = new HashMap<>();
+        new GeradorDados(parametros).gerar(new DestinoVazio() {
+            @Override
+            public void reproducao(String email, String nomeMusica, LocalDateTime dataHora) {
+                reproducoes.merge(nomeMusica, 1, Integer::sum);
+            }
+        });
+
+        int[] contagens = reproducoes.values().stream().mapToInt(Integer::intValue).sorted().toArray();
+        int maximo = contagens[contagens.length - 1];
+        int mediana = contagens[contagens.length / 2];
+        assertTrue(maximo > 5 * mediana);
+    }
+
+    @Test
+    void testScriptImportadoIgualAoModeloConstruido() throws IOException {
+        Path ficheiro = Files.createTempFile("gerado", ".txt");
+        ficheiro.toFile().deleteOnExit();
+        Files.write(ficheiro, script(parametros).getBytes(StandardCharsets.UTF_8));
+        SpotifUM importado = new SpotifUM();
+        ResumoImportacao resumo = new ImportadorScript().importar(ficheiro, importado);
+        assertEquals(0, resumo.getNumeroErros());
+
+        SpotifUM construido = new SpotifUM();
+        new GeradorDados(parametros).gerar(new ConstrutorModelo(construido, 64));
+
+        assertEquals(6, construido.getUtilizadores().size());
+        assertEquals(4, construido.getPlaylists().size());
+        assertEquals(200, construido.capturarReproducoes().size());
+        List<Musica> musicas = construido.getMusicas();
+        assertEquals(10, musicas.size());
+        assertEquals(2, musicas.stream().filter(m -> m instanceof MusicaExplicita).count());
+        assertEquals(2, musicas.stream().filter(m -> m instanceof MusicaMultimedia).count());
+
+        assertEquals(importado.capturarReproducoes().size(), construido.capturarReproducoes().size());
+        for (Musica m : musicas) {
+            assertEquals(importado.getMusicaPorNome(m.getNome()).getNumReproducoes(), m.getNumReproducoes());
+        }
+        for (Utilizador u : construido.getUtilizadores().values()) {
+            Utilizador outro = importado.getUtilizadorPorEmail(u.getEmail());
+            assertEquals(outro.getPontos(), u.getPontos());
+            assertEquals(outro.getPlanoSubscricao().getNomePlano(), u.getPlanoSubscricao().getNomePlano());
+        }
+        assertEquals(importado.getTopMusicas(5), construido.getTopMusicas(5));
+        assertEquals(importado.getNumeroPlaylistsPublicas(), construido.getNumeroPlaylistsPublicas());
+    }
+
+    @Test
+    void testParametrosIncoerentes() {
+        ParametrosGeracao semArtistas = parametros.clone();
+        semArtistas.setArtistas(0);
+        assertThrows(IllegalArgumentException.class, () -> new GeradorDados(semArtistas));
+
+        ParametrosGeracao semUtilizadores = parametros.clone();
+        semUtilizadores.setUtilizadoresFree(0);
+        semUtilizadores.setUtilizadoresPremiumBase(0);
+        semUtilizadores.setUtilizadoresPremiumTop(0);
+        assertThrows(IllegalArgumentException.class, () -> new GeradorDados(semUtilizadores));
+    }
+
+    @Test
+    void testEscritorRejeitaSeparadores() {
+        EscritorScript escritor = new EscritorScript(new StringWriter());
+        assertThrows(IllegalArgumentException.class, () -> escritor.artista("A < B", "PT"));
+        assertThrows(IllegalArgumentException.class, () -> escritor.musica("M", "A", "E",
+                Arrays.asList("um|dois"), Arrays.asList("Beat"), Genero.POP, 100));
+    }
+
+    /**
+     * Destino que ignora todos os dados, para os testes só redefinirem o que querem observar.
+     */
+    private static class DestinoVazio implements DestinoGeracao {
+        @Override
+        public void artista(String nome, String pais) {
+        }
+
+        @Override
+        public void musica(String nome, String artista, String editora, List<String> letra, List<String> melodia,
+                           Genero genero, int duracao) {
+        }
+
+        @Override
+        public void musicaExplicita(String nome, String artista, String editora, List<String> letra,
+                                    List<String> melodia, Genero genero, int duracao, String aviso, int idadeMinima) {
+        }
+
+        @Override
+        public void musicaMultimedia(String nome, String artista, String editora, List<String> letra,
+                                     List<String> melodia, Genero genero, int duracao, String video, String formato) {
+        }
+
+        @Override
+        public void utilizador(String email, String nome, String morada, String password, String plano) {
+        }
+
+        @Override
+        public void playlist(String nome, String email, LocalDate dataCriacao, boolean publica, List<String> musicas) {
+        }
+
+        @Override
+        public void reproducao(String email, String nomeMusica, LocalDateTime dataHora) {
+        }
+
+        @Override
+        public void terminar() {
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package Classes.Geracao;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParametrosGeracaoTest {
+
+    private ParametrosGeracao parametros;
+
+    @BeforeEach
+    void setUp() {
+        parametros = new ParametrosGeracao();
+    }
+
+    @Test
+    void testTotais() {
+        parametros.setMusicas(10);
+        parametros.setMusicasExplicitas(2);
+        parametros.setMusicasMultimedia(3);
+        parametros.setUtilizadoresFree(5);
+        parametros.setUtilizadoresPremiumBase(4);
+        parametros.setUtilizadoresPremiumTop(1);
+        assertEquals(15, parametros.getTotalMusicas());
+        assertEquals(10, parametros.getTotalUtilizadores());
+    }
+
+    @Test
+    void testCopiaIndependente() {
+        ParametrosGeracao copia = parametros.clone();
+        copia.setReproducoes(7);
+        copia.setSemente(99);
+        assertEquals(100_000, parametros.getReproducoes());
+        assertEquals(42, parametros.getSemente());
+        assertEquals(7, copia.getReproducoes());
+    }
+
+    @Test
+    void testValoresInvalidos() {
+        assertThrows(IllegalArgumentException.class, () -> parametros.setMusicas(-1));
+        assertThrows(IllegalArgumentException.class, () -> parametros.setUtilizadoresFree(-1));
+        assertThrows(IllegalArgumentException.class, () -> parametros.setReproducoes(-1));
+        assertThrows(IllegalArgumentException.class, () -> parametros.setExpoenteMusicas(0));
+        assertThrows(IllegalArgumentException.class, () -> parametros.setDuracao(Duration.ofSeconds(-1)));
+    }
+}
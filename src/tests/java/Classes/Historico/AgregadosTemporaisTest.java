@@ -0,0 +1,87 @@
+package Classes.Historico;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AgregadosTemporaisTest {
+
+    private RegistoReproducoes registo;
+    private long origem;
+
+    @BeforeEach
+    void setUp() {
+        registo = new RegistoReproducoes();
+        origem = RegistoReproducoes.paraInstante(LocalDateTime.of(2024, 1, 30, 22, 15));
+        Random random = new Random(7);
+        long instante = origem;
+        for (int i = 0; i < 3000; i++) {
+            instante += random.nextInt(4000);
+            registo.adicionar(random.nextInt(5), 0, instante);
+        }
+    }
+
+    private HashMap<Integer, Long> contarDiretamente(long inicio, long fim) {
+        HashMap<Integer, Long> contagem = new HashMap<>();
+        registo.percorrer((u, m, i) -> {
+            if (i >= inicio && i <= fim) contagem.merge(u, 1L, Long::sum);
+        });
+        return contagem;
+    }
+
+    @Test
+    void testIntervalosArbitrarios() {
+        Random random = new Random(11);
+        long duracao = registo.getInstante(registo.tamanho() - 1) - origem;
+        for (int i = 0; i < 200; i++) {
+            long inicio = origem - 5000 + (long) (random.nextDouble() * duracao);
+            long fim = inicio + (long) (random.nextDouble() * duracao);
+            assertEquals(contarDiretamente(inicio, fim), registo.contarPorUtilizador(inicio, fim));
+        }
+    }
+
+    @Test
+    void testLimitesDeBalde() {
+        long mes = RegistoReproducoes.paraInstante(LocalDateTime.of(2024, 2, 1, 0, 0));
+        long dia = RegistoReproducoes.paraInstante(LocalDateTime.of(2024, 2, 3, 0, 0));
+        assertEquals(contarDiretamente(mes, dia - 1), registo.contarPorUtilizador(mes, dia - 1));
+        assertEquals(contarDiretamente(mes, mes), registo.contarPorUtilizador(mes, mes));
+        assertEquals(contarDiretamente(Long.MIN_VALUE, Long.MAX_VALUE),
+                registo.contarPorUtilizador(Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+
+    @Test
+    void testIntervalosComRegistoDesordenado() {
+        long fimOrdenado = registo.getInstante(registo.tamanho() - 1);
+        Random random = new Random(13);
+        for (int i = 0; i < 500; i++) {
+            registo.adicionar(random.nextInt(5), 0, origem + (long) (random.nextDouble() * (fimOrdenado - origem)));
+        }
+        assertFalse(registo.isOrdenado());
+        long duracao = fimOrdenado - origem;
+        for (int i = 0; i < 100; i++) {
+            long inicio = origem + (long) (random.nextDouble() * duracao);
+            long fim = inicio + (long) (random.nextDouble() * duracao / 4);
+            assertEquals(contarDiretamente(inicio, fim), registo.contarPorUtilizador(inicio, fim));
+        }
+
+        // as reproduções acrescentadas depois da primeira consulta também entram nas frações de hora
+        registo.adicionar(7, 0, origem + 10);
+        assertEquals(Long.valueOf(1), registo.contarPorUtilizador(origem, origem + 20).get(7));
+        assertEquals(contarDiretamente(origem, origem + 20), registo.contarPorUtilizador(origem, origem + 20));
+    }
+
+    @Test
+    void testRegistoDesordenadoEVazio() {
+        registo.adicionar(9, 0, origem + 100);
+        assertFalse(registo.isOrdenado());
+        assertEquals(Long.valueOf(1), registo.contarPorUtilizador(origem, origem + 3600).get(9));
+
+        assertTrue(new RegistoReproducoes().contarPorUtilizador(0, Long.MAX_VALUE).isEmpty());
+    }
+}
@@ -0,0 +1,43 @@
+package Classes.Historico;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventoReproducaoTest {
+
+    private LocalDateTime dataHora;
+    private EventoReproducao evento;
+
+    @BeforeEach
+    void setUp() {
+        dataHora = LocalDateTime.of(2025, 3, 1, 10, 0);
+        evento = new EventoReproducao("ana@mail.com", "Musica 1", dataHora);
+    }
+
+    @Test
+    void testGetters() {
+        assertEquals("ana@mail.com", evento.getEmail());
+        assertEquals("Musica 1", evento.getNomeMusica());
+        assertEquals(dataHora, evento.getDataHora());
+    }
+
+    @Test
+    void testEquals() {
+        EventoReproducao igual = new EventoReproducao("ana@mail.com", "Musica 1", LocalDateTime.of(2025, 3, 1, 10, 0));
+        assertEquals(evento, igual);
+        assertEquals(evento.hashCode(), igual.hashCode());
+        assertNotEquals(evento, new EventoReproducao("ana@mail.com", "Musica 2", dataHora));
+        assertNotEquals(evento, new EventoReproducao("rui@mail.com", "Musica 1", dataHora));
+        assertNotEquals(evento, new EventoReproducao("ana@mail.com", "Musica 1", dataHora.plusSeconds(1)));
+    }
+
+    @Test
+    void testToString() {
+        assertTrue(evento.toString().contains("ana@mail.com"));
+        assertTrue(evento.toString().contains("Musica 1"));
+    }
+}
@@ -0,0 +1,119 @@
+package Classes.Historico;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegistoReproducoesTest {
+
+    private RegistoReproducoes registo;
+
+    @BeforeEach
+    void setUp() {
+        registo = new RegistoReproducoes();
+        registo.adicionar(0, 10, 100);
+        registo.adicionar(1, 11, 200);
+        registo.adicionar(0, 12, 300);
+        registo.adicionar(2, 10, 400);
+    }
+
+    @Test
+    void testAdicionarEGetters() {
+        assertEquals(4, registo.tamanho());
+        assertEquals(1, registo.getUtilizador(1));
+        assertEquals(12, registo.getMusica(2));
+        assertEquals(400, registo.getInstante(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> registo.getMusica(4));
+    }
+
+    @Test
+    void testVariosSegmentos() {
+        RegistoReproducoes grande = new RegistoReproducoes();
+        int n = RegistoReproducoes.TAMANHO_SEGMENTO * 2 + 5;
+        for (int i = 0; i < n; i++) {
+            grande.adicionar(i % 7, i, i);
+        }
+
+        assertEquals(n, grande.tamanho());
+        assertEquals(RegistoReproducoes.TAMANHO_SEGMENTO, grande.getMusica(RegistoReproducoes.TAMANHO_SEGMENTO));
+        long[] soma = {0};
+        grande.percorrer((u, m, i) -> soma[0] += m);
+        assertEquals((long) n * (n - 1) / 2, soma[0]);
+    }
+
+    @Test
+    void testIntervalo() {
+        VistaReproducoes vista = registo.intervalo(200, 300);
+        assertEquals(2, vista.tamanho());
+        assertEquals(1, vista.posicao(0));
+        assertEquals(2, vista.posicao(1));
+
+        assertEquals(0, registo.intervalo(401, 500).tamanho());
+        assertEquals(4, registo.intervalo(Long.MIN_VALUE, Long.MAX_VALUE).tamanho());
+    }
+
+    @Test
+    void testIntervaloDesordenado() {
+        registo.adicionar(1, 13, 250);
+        assertFalse(registo.isOrdenado());
+
+        VistaReproducoes vista = registo.intervalo(200, 300);
+        assertEquals(3, vista.tamanho());
+        assertEquals(4, vista.posicao(2));
+    }
+
+    @Test
+    void testPorUtilizadorEPorMusica() {
+        assertEquals(2, registo.porUtilizador(0).tamanho());
+        assertEquals(0, registo.porUtilizador(9).tamanho());
+
+        registo.adicionar(0, 10, 500);
+        assertEquals(3, registo.porUtilizador(0).tamanho());
+
+        List<Integer> utilizadores = new ArrayList<>();
+        registo.porMusica(10).percorrer((u, m, i) -> utilizadores.add(u));
+        assertEquals(List.of(0, 2, 0), utilizadores);
+    }
+
+    @Test
+    void testConversaoInstante() {
+        LocalDateTime dataHora = LocalDateTime.of(2024, 5, 15, 14, 30, 12);
+        assertEquals(dataHora, RegistoReproducoes.paraDataHora(RegistoReproducoes.paraInstante(dataHora)));
+    }
+
+    @Test
+    void testConstrutorDeCopia() {
+        RegistoReproducoes copia = new RegistoReproducoes(registo);
+        copia.adicionar(3, 3, 600);
+
+        assertEquals(5, copia.tamanho());
+        assertEquals(4, registo.tamanho());
+        assertEquals(12, copia.getMusica(2));
+    }
+
+    @Test
+    void testSerializacao() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(registo);
+        }
+        RegistoReproducoes lido;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            lido = (RegistoReproducoes) in.readObject();
+        }
+
+        assertEquals(4, lido.tamanho());
+        assertEquals(2, lido.getUtilizador(3));
+        assertEquals(300, lido.getInstante(2));
+        assertTrue(lido.isOrdenado());
+    }
+}
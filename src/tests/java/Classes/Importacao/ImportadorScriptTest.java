@@ -0,0 +1,158 @@
+package Classes.Importacao;
+
+import Classes.Album;
+import Classes.Musicas.Musica;
+import SpotifUM.SpotifUM;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImportadorScriptTest {
+
+    private Path script;
+    private SpotifUM model;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        script = Files.createTempFile("script", ".txt");
+        script.toFile().deleteOnExit();
+        model = new SpotifUM();
+    }
+
+    private ResumoImportacao importar(ImportadorScript importador, String... linhas) throws IOException {
+        Files.write(script, String.join("\n", linhas).getBytes(StandardCharsets.UTF_8));
+        return importador.importar(script, model);
+    }
+
+    @Test
+    void testDependenciasForaDeOrdem() throws IOException {
+        ResumoImportacao resumo = importar(new ImportadorScript(),
+                "admin,album create < DAMN < Kendrick < 2017-04-14 < Humble < DNA",
+                "admin,musica create < Humble < Kendrick < TDE < Sit down|Be humble < Clap|808 < HIPHOP < 190",
+                "# comentário",
+                "",
+                "admin,musicaExplicita create < DNA < Kendrick < TDE < I got loyalty < Bass < HIPHOP < 185 < Explicit < 18",
+                "admin,artista create < Kendrick < USA",
+                "admin,user register < a@gmail.com < Ana < Rua A < 123 < free < user");
+
+        assertEquals(7, resumo.getLinhas());
+        assertEquals(5, resumo.getComandos());
+        assertEquals(0, resumo.getNumeroErros());
+
+        assertNotNull(model.getArtistaPorNome("Kendrick"));
+        assertNotNull(model.getUtilizadorPorEmail("a@gmail.com"));
+        Musica humble = model.getMusicaPorNome("Humble");
+        assertEquals(Arrays.asList("Sit down", "Be humble"), humble.getLetra());
+        assertEquals("Kendrick", humble.getInterprete().getNome());
+
+        List<Album> albuns = model.getAlbuns();
+        assertEquals(1, albuns.size());
+        assertEquals(2, albuns.get(0).getMusicas().size());
+    }
+
+    @Test
+    void testErrosComNumeroDeLinha() throws IOException {
+        ResumoImportacao resumo = importar(new ImportadorScript(),
+                "admin,artista create < 2Pac < USA",
+                "admin,musica create < Life < 2Pac < DeathRow < Life goes on < Beat < NAOEXISTE < 200",
+                "admin,musica create < Curta < 2Pac",
+                "admin,musica create < Orfa < Ninguem < Editora < La < Beat < HIPHOP < 200",
+                "admin,album create < Mix < 2Pac < 1996-01-01 < Inexistente",
+                "admin,album create < Data < 2Pac < ontem < Life",
+                "user,artista create < Ignorado < PT",
+                "admin,musica create < Boa < 2Pac < DeathRow < La < Beat < HIPHOP < 200");
+
+        assertEquals(8, resumo.getLinhas());
+        assertEquals(5, resumo.getNumeroErros());
+        assertNotNull(resumo.getErro(2));
+        assertNotNull(resumo.getErro(3));
+        assertNotNull(resumo.getErro(4));
+        assertNotNull(resumo.getErro(5));
+        assertNotNull(resumo.getErro(6));
+        assertNull(resumo.getErro(7));
+        assertTrue(resumo.getErros().get(0).startsWith("Linha 2: "));
+
+        assertEquals(2, resumo.getComandos());
+        assertNotNull(model.getMusicaPorNome("Boa"));
+        assertNull(model.getMusicaPorNome("Orfa"));
+        assertNull(model.getArtistaPorNome("Ignorado"));
+        assertTrue(model.getAlbuns().isEmpty());
+    }
+
+    @Test
+    void testPlaylistsConstruidasEReproducoes() throws IOException {
+        ResumoImportacao resumo = importar(new ImportadorScript(),
+                "admin,reproducao create < a@gmail.com < Life < 2025-03-01T10:15:30",
+                "admin,playlistConstruida create < Mix < a@gmail.com < 2025-01-01 < true < Life",
+                "admin,playlistConstruida create < Errada < a@gmail.com < 2025-01-01 < talvez < Life",
+                "admin,playlistConstruida create < Orfa < b@gmail.com < 2025-01-01 < false < Life",
+                "admin,reproducao create < b@gmail.com < Life < 2025-03-01T10:15:30",
+                "admin,reproducao create < a@gmail.com < Life < ontem",
+                "admin,artista create < 2Pac < USA",
+                "admin,musica create < Life < 2Pac < DeathRow < Life goes on < Beat < HIPHOP < 200",
+                "admin,user register < a@gmail.com < Ana < Rua A < 123 < premiumbase < user");
+
+        assertEquals(4, resumo.getNumeroErros());
+        assertNotNull(resumo.getErro(3));
+        assertNotNull(resumo.getErro(4));
+        assertNotNull(resumo.getErro(5));
+        assertNotNull(resumo.getErro(6));
+
+        assertEquals(1, model.getPlaylists().size());
+        assertEquals("Mix", model.getPlaylists().get(0).getNome());
+        assertEquals(1, model.getMusicaPorNome("Life").getNumReproducoes());
+        assertEquals(1, model.capturarReproducoes().size());
+    }
+
+    @Test
+    void testBlocosPequenos() throws IOException {
+        ResumoImportacao resumo = importar(new ImportadorScript(2, 16),
+                "admin,artista create < Ice Cube < USA",
+                "admin,musica create < Cube < Ice Cube < Lench < It was a good day < Bass|Drum < HIPHOP < 215",
+                "admin,musica create < Cube2 < Ice Cube < Lench < Today < Bass < HIPHOP < 100",
+                "admin,musica create < Erro < Ice Cube < Lench < Today < Bass < HIPHOP < muito");
+
+        assertEquals(4, resumo.getLinhas());
+        assertEquals(3, resumo.getComandos());
+        assertEquals(1, resumo.getNumeroErros());
+        assertNotNull(resumo.getErro(4));
+        assertEquals(215, model.getMusicaPorNome("Cube").getDuracao());
+        assertEquals(100, model.getMusicaPorNome("Cube2").getDuracao());
+    }
+
+    @Test
+    void testFimDeLinhaWindows() throws IOException {
+        Files.write(script, ("admin,artista create < 2Pac < USA\r\n"
+                + "admin,musica create < Life < 2Pac < DeathRow < Life goes on < Beat|Snare < HIPHOP < 200\r\n")
+                .getBytes(StandardCharsets.UTF_8));
+        ResumoImportacao resumo = new ImportadorScript(1, 32).importar(script, model);
+
+        assertEquals(2, resumo.getLinhas());
+        assertEquals(0, resumo.getNumeroErros());
+        assertEquals(Arrays.asList("Beat", "Snare"), model.getMusicaPorNome("Life").getMusica());
+    }
+
+    @Test
+    void testAnalisarLinha() {
+        assertNull(ImportadorScript.analisarLinha("", 1));
+        assertNull(ImportadorScript.analisarLinha("# admin,artista create < A < B", 1));
+        assertNull(ImportadorScript.analisarLinha("user,artista create < A < B", 1));
+
+        ComandoScript artista = ImportadorScript.analisarLinha("admin,artista create < A < B", 3);
+        assertEquals(3, artista.getLinha());
+        assertEquals(EtapaImportacao.ARTISTAS, artista.getEtapa());
+        assertNull(artista.getErro());
+
+        ComandoScript desconhecido = ImportadorScript.analisarLinha("admin,apagar tudo", 9);
+        assertEquals(9, desconhecido.getLinha());
+        assertNotNull(desconhecido.getErro());
+    }
+}
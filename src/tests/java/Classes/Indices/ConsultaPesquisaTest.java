@@ -0,0 +1,39 @@
+package Classes.Indices;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsultaPesquisaTest {
+
+    @Test
+    void testTermosPrefixosEFrases() {
+        ConsultaPesquisa consulta = ConsultaPesquisa.analisar("\"Noite Escura\" amor canç* rock");
+        assertEquals(List.of("amor", "rock"), consulta.getTermos());
+        assertEquals(List.of("canc"), consulta.getPrefixos());
+        assertEquals(List.of(List.of("noite", "escura")), consulta.getFrases());
+        assertFalse(consulta.vazia());
+    }
+
+    @Test
+    void testPrefixoComSeparadores() {
+        ConsultaPesquisa consulta = ConsultaPesquisa.analisar("d'am*");
+        assertEquals(List.of("d"), consulta.getTermos());
+        assertEquals(List.of("am"), consulta.getPrefixos());
+    }
+
+    @Test
+    void testAspasSemPar() {
+        ConsultaPesquisa consulta = ConsultaPesquisa.analisar("fado \"minha vida");
+        assertEquals(List.of("fado"), consulta.getTermos());
+        assertEquals(List.of(List.of("minha", "vida")), consulta.getFrases());
+    }
+
+    @Test
+    void testConsultaVazia() {
+        assertTrue(ConsultaPesquisa.analisar(null).vazia());
+        assertTrue(ConsultaPesquisa.analisar("  \"\" * ").vazia());
+    }
+}
@@ -0,0 +1,91 @@
+package Classes.Indices;
+
+import Classes.Artista;
+import Classes.Genero;
+import Classes.Musicas.Musica;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndiceCatalogoTest {
+
+    private ArrayList<Musica> catalogo;
+    private IndiceCatalogo indice;
+    private Artista artista1;
+    private Artista artista2;
+
+    @BeforeEach
+    void setUp() {
+        artista1 = new Artista("Artista 1", "Portugal");
+        artista2 = new Artista("Artista 2", "Brasil");
+        catalogo = new ArrayList<>();
+        catalogo.add(new Musica("Amor", artista1, "Editora A", Arrays.asList("l1"), Arrays.asList("n1"), Genero.POP, 180, 0));
+        catalogo.add(new Musica("Amanhecer", artista2, "Editora B", Arrays.asList("l2"), Arrays.asList("n2"), Genero.ROCK, 200, 0));
+        catalogo.add(new Musica("Bossa", artista2, "Editora A", Arrays.asList("l3"), Arrays.asList("n3"), Genero.JAZZ, 150, 0));
+        indice = new IndiceCatalogo(catalogo);
+    }
+
+    @Test
+    void testGetMusica() {
+        assertSame(catalogo.get(1), indice.getMusica("Amanhecer"));
+        assertEquals(2, indice.getId("Bossa"));
+        assertNull(indice.getMusica("Inexistente"));
+        assertEquals(-1, indice.getId("Inexistente"));
+    }
+
+    @Test
+    void testIndexarNovaMusica() {
+        catalogo.add(new Musica("Amora", artista1, "Editora C", Arrays.asList("l4"), Arrays.asList("n4"), Genero.POP, 120, 0));
+        indice.indexar(3);
+
+        assertEquals(3, indice.getId("Amora"));
+        assertEquals(2, indice.getPorGenero(Genero.POP).size());
+        assertEquals(1, indice.getPorEditora("Editora C").size());
+        assertEquals(4, indice.tamanho());
+    }
+
+    @Test
+    void testNomeRepetidoMantemPrimeira() {
+        catalogo.add(new Musica("Amor", artista2, "Editora B", Arrays.asList("x"), Arrays.asList("y"), Genero.FUNK, 100, 0));
+        indice.indexar(3);
+
+        assertEquals(0, indice.getId("Amor"));
+        assertEquals(2, indice.getPorPrefixo("amor").count());
+    }
+
+    @Test
+    void testGetPorPrefixo() {
+        List<String> nomes = indice.getPorPrefixo("AM").map(Musica::getNome).collect(Collectors.toList());
+        assertEquals(Arrays.asList("Amanhecer", "Amor"), nomes);
+        assertEquals(0, indice.getPorPrefixo("z").count());
+        assertEquals(3, indice.getPorPrefixo("").count());
+    }
+
+    @Test
+    void testGetEntre() {
+        List<String> nomes = indice.getEntre("amor", "bossa").map(Musica::getNome).collect(Collectors.toList());
+        assertEquals(Arrays.asList("Amor", "Bossa"), nomes);
+        assertEquals(0, indice.getEntre("z", "a").count());
+    }
+
+    @Test
+    void testIndicesSecundarios() {
+        assertEquals(Arrays.asList(catalogo.get(1), catalogo.get(2)), indice.getPorArtista("Artista 2"));
+        assertEquals(Arrays.asList(catalogo.get(0), catalogo.get(2)), indice.getPorEditora("Editora A"));
+        assertEquals(1, indice.getPorGenero(Genero.ROCK).size());
+        assertTrue(indice.getPorGenero(Genero.METAL).isEmpty());
+        assertTrue(indice.getPorArtista("Ninguem").isEmpty());
+    }
+
+    @Test
+    void testVistaSoDeLeitura() {
+        List<Musica> pop = indice.getPorGenero(Genero.POP);
+        assertThrows(UnsupportedOperationException.class, () -> pop.add(catalogo.get(1)));
+    }
+}
@@ -0,0 +1,71 @@
+package Classes.Indices;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndiceOuvidasTest {
+
+    private IndiceOuvidas indice;
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceOuvidas();
+    }
+
+    @Test
+    void testRegistarDevolveSeJaOuviu() {
+        assertFalse(indice.registar("a@gmail.com", 3));
+        assertTrue(indice.registar("a@gmail.com", 3));
+        assertFalse(indice.registar("b@gmail.com", 3));
+    }
+
+    @Test
+    void testJaOuviu() {
+        indice.registar("a@gmail.com", 7);
+
+        assertTrue(indice.jaOuviu("a@gmail.com", 7));
+        assertFalse(indice.jaOuviu("a@gmail.com", 8));
+        assertFalse(indice.jaOuviu("b@gmail.com", 7));
+    }
+
+    @Test
+    void testNumeroOuvidas() {
+        indice.registar("a@gmail.com", 1);
+        indice.registar("a@gmail.com", 2);
+        indice.registar("a@gmail.com", 1);
+
+        assertEquals(2, indice.numeroOuvidas("a@gmail.com"));
+        assertEquals(0, indice.numeroOuvidas("b@gmail.com"));
+    }
+
+    @Test
+    void testConjuntoConverteParaMapaDeBits() {
+        ConjuntoInteiros conjunto = new ConjuntoInteiros();
+        conjunto.adicionar(1000000);
+        assertFalse(conjunto.emMapaDeBits());
+
+        for (int i = 0; i < 2000; i++) {
+            conjunto.adicionar(i);
+        }
+
+        assertTrue(conjunto.emMapaDeBits());
+        assertEquals(2001, conjunto.tamanho());
+        assertTrue(conjunto.contem(1999));
+        assertTrue(conjunto.contem(1000000));
+        assertFalse(conjunto.contem(2000));
+        assertFalse(conjunto.adicionar(5));
+    }
+
+    @Test
+    void testConjuntoDenso() {
+        ConjuntoInteiros conjunto = new ConjuntoInteiros();
+        for (int i = 0; i < 10; i++) {
+            conjunto.adicionar(i);
+        }
+        assertTrue(conjunto.emMapaDeBits());
+        assertEquals(10, conjunto.tamanho());
+        assertThrows(IllegalArgumentException.class, () -> conjunto.adicionar(-1));
+    }
+}
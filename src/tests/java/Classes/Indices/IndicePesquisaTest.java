@@ -0,0 +1,130 @@
+package Classes.Indices;
+
+import Classes.Artista;
+import Classes.Genero;
+import Classes.Musicas.Musica;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndicePesquisaTest {
+
+    private ArrayList<Musica> catalogo;
+    private IndicePesquisa indice;
+
+    @BeforeEach
+    void setUp() {
+        catalogo = new ArrayList<>();
+        catalogo.add(musica("Amor Perfeito", "Ana Moura", "Sony", "o amor é fogo", "que arde sem se ver"));
+        catalogo.add(musica("Canção do Mar", "Dulce Pontes", "EMI", "fui bailar no meu batel", "além do mar cruel"));
+        catalogo.add(musica("Fogo", "Xutos", "Polygram", "é o fogo que arde", "amor de verão"));
+        catalogo.add(musica("Noite", "Amália", "Valentim", "a noite escura", "sem amor"));
+        indice = new IndicePesquisa(catalogo);
+    }
+
+    private static Musica musica(String nome, String artista, String editora, String... letra) {
+        return new Musica(nome, new Artista(artista, "Portugal"), editora, Arrays.asList(letra),
+                Arrays.asList("Dó"), Genero.POP, 180, 0);
+    }
+
+    private List<String> nomes(String consulta) {
+        List<String> nomes = new ArrayList<>();
+        for (Musica m : indice.pesquisar(consulta, 10)) {
+            nomes.add(m.getNome());
+        }
+        return nomes;
+    }
+
+    @Test
+    void testNomePesaMaisDoQueALetra() {
+        List<String> nomes = nomes("amor");
+        assertEquals(3, nomes.size());
+        assertEquals("Amor Perfeito", nomes.get(0));
+        assertTrue(nomes.containsAll(List.of("Fogo", "Noite")));
+        assertEquals("Fogo", nomes("fogo").get(0));
+    }
+
+    @Test
+    void testSemAcentosNemMaiusculas() {
+        assertEquals(List.of("Canção do Mar"), nomes("CANCAO"));
+        assertEquals(List.of("Noite"), nomes("amalia"));
+        assertEquals(List.of("Canção do Mar"), nomes("emi"));
+        assertTrue(nomes("inexistente").isEmpty());
+    }
+
+    @Test
+    void testFrases() {
+        assertEquals(List.of("Amor Perfeito", "Fogo"), nomes("\"que arde\"").stream().sorted().toList());
+        assertTrue(nomes("\"arde que\"").isEmpty());
+        assertEquals(List.of("Fogo"), nomes("\"fogo que\""));
+        assertEquals(List.of("Noite"), nomes("\"sem amor\" noite"));
+        assertTrue(nomes("\"que inexistente\"").isEmpty());
+    }
+
+    @Test
+    void testPrefixos() {
+        assertEquals(List.of("Canção do Mar"), nomes("can*"));
+        assertEquals(3, nomes("am*").size());
+        assertTrue(nomes("zz*").isEmpty());
+    }
+
+    @Test
+    void testIndexarNovaMusica() {
+        catalogo.add(musica("Ó Gente da Minha Terra", "Mariza", "EMI", "é meu e vosso este fado"));
+        indice.indexar(4);
+
+        assertEquals(5, indice.tamanho());
+        assertEquals(List.of("Ó Gente da Minha Terra"), nomes("fado"));
+        assertEquals(List.of("Ó Gente da Minha Terra"), nomes("\"minha terra\""));
+        assertEquals(2, nomes("emi").size());
+    }
+
+    @Test
+    void testLimite() {
+        assertEquals(1, indice.pesquisar("amor", 1).size());
+        assertTrue(indice.pesquisar("amor", 0).isEmpty());
+        assertTrue(indice.pesquisar("", 10).isEmpty());
+        assertTrue(new IndicePesquisa(new ArrayList<>()).pesquisar("amor", 10).isEmpty());
+    }
+
+    @Test
+    void testMelhoresIguaisAOrdenacaoCompleta() {
+        Random aleatorio = new Random(7);
+        String[] palavras = new String[40];
+        for (int i = 0; i < palavras.length; i++) {
+            palavras[i] = "p" + i;
+        }
+        ArrayList<Musica> grande = new ArrayList<>();
+        for (int m = 0; m < 2000; m++) {
+            String[] letra = new String[1 + aleatorio.nextInt(4)];
+            for (int l = 0; l < letra.length; l++) {
+                StringBuilder linha = new StringBuilder();
+                for (int p = 0; p < 1 + aleatorio.nextInt(6); p++) {
+                    linha.append(palavras[(int) Math.min(palavras.length - 1, Math.abs(aleatorio.nextGaussian()) * 12)]).append(' ');
+                }
+                letra[l] = linha.toString();
+            }
+            grande.add(musica("Musica " + m + " " + palavras[aleatorio.nextInt(palavras.length)], "Artista", "Editora", letra));
+        }
+        IndicePesquisa indiceGrande = new IndicePesquisa(grande);
+
+        for (int q = 0; q < 200; q++) {
+            StringBuilder consulta = new StringBuilder();
+            for (int t = 0; t < 1 + aleatorio.nextInt(4); t++) {
+                consulta.append(palavras[aleatorio.nextInt(palavras.length)]).append(' ');
+            }
+            ConsultaPesquisa analisada = ConsultaPesquisa.analisar(consulta.toString());
+            int[] todos = indiceGrande.pesquisarIds(analisada, grande.size());
+            for (int k : new int[]{1, 3, 10}) {
+                int[] melhores = indiceGrande.pesquisarIds(analisada, k);
+                assertArrayEquals(Arrays.copyOf(todos, Math.min(k, todos.length)), melhores, consulta + " k=" + k);
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package Classes.Indices;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndiceSugestoesTest {
+
+    private IndiceSugestoes indice;
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceSugestoes();
+        indice.adicionar("Canção do Mar");
+        indice.adicionar("Amor Perfeito");
+        indice.adicionar("Amor Perfeito");
+        indice.adicionar("Fogo");
+        indice.adicionar("Foge");
+        indice.adicionar("Noite");
+        indice.adicionar("!!!");
+    }
+
+    @Test
+    void testDistancia() {
+        assertEquals(0, IndiceSugestoes.distancia("fogo", "fogo"));
+        assertEquals(1, IndiceSugestoes.distancia("fogo", "foge"));
+        assertEquals(3, IndiceSugestoes.distancia("kitten", "sitting"));
+        assertEquals(5, IndiceSugestoes.distancia("a", "abcdef"));
+    }
+
+    @Test
+    void testRepetidosEVaziosIgnorados() {
+        assertEquals(5, indice.tamanho());
+        indice.adicionar("cancao do mar");
+        assertEquals(6, indice.tamanho());
+        assertEquals(List.of("Canção do Mar", "cancao do mar"), indice.sugerir("Cancao do Mar", 5));
+    }
+
+    @Test
+    void testSugestoesComErros() {
+        assertEquals(List.of("Canção do Mar"), indice.sugerir("cancao do mra", 5));
+        assertEquals(List.of("Amor Perfeito"), indice.sugerir("AMOR PERFEITO", 5));
+        assertEquals(List.of("Fogo", "Foge"), indice.sugerir("fogo", 5));
+        assertEquals(List.of("Foge", "Fogo"), indice.sugerir("fogi", 5));
+        assertEquals(List.of("Foge"), indice.sugerir("fogi", 1));
+        assertTrue(indice.sugerir("xyz", 5).isEmpty());
+    }
+
+    @Test
+    void testNomesCurtosSoComDistanciaZero() {
+        IndiceSugestoes curtos = new IndiceSugestoes();
+        curtos.adicionar("Ar");
+        curtos.adicionar("Mar");
+        assertEquals(List.of("Ar"), curtos.sugerir("ar", 5));
+        assertTrue(curtos.sugerir("as", 5).isEmpty());
+    }
+
+    @Test
+    void testIgualAPesquisaExaustiva() {
+        Random aleatorio = new Random(11);
+        String letras = "abcde ";
+        List<String> nomes = new ArrayList<>();
+        IndiceSugestoes grande = new IndiceSugestoes();
+        for (int i = 0; i < 3000; i++) {
+            StringBuilder sb = new StringBuilder("n");
+            int comprimento = 3 + aleatorio.nextInt(8);
+            for (int j = 0; j < comprimento; j++) {
+                sb.append(letras.charAt(aleatorio.nextInt(letras.length() - 1)));
+            }
+            String nome = sb.toString();
+            if (!nomes.contains(nome)) nomes.add(nome);
+            grande.adicionar(nome);
+        }
+        for (int q = 0; q < 200; q++) {
+            String consulta = nomes.get(aleatorio.nextInt(nomes.size()));
+            consulta = consulta.substring(0, consulta.length() - 1) + letras.charAt(aleatorio.nextInt(5));
+            for (int r = 0; r <= IndiceSugestoes.DISTANCIA_MAXIMA; r++) {
+                final String c = consulta;
+                List<String> esperado = new ArrayList<>();
+                for (String nome : nomes) {
+                    if (IndiceSugestoes.distancia(c, nome) <= r) esperado.add(nome);
+                }
+                esperado.sort(Comparator.comparingInt((String n) -> IndiceSugestoes.distancia(c, n))
+                        .thenComparing(n -> n));
+                assertEquals(esperado, grande.procurar(c, r, Integer.MAX_VALUE), "consulta " + c + " r=" + r);
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package Classes.Indices;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenizadorTest {
+
+    @Test
+    void testDivideEmMinusculas() {
+        assertEquals(List.of("o", "amor", "e", "fogo", "que", "arde"), Tokenizador.termos("O Amor é fogo, que arde!"));
+        assertEquals(List.of("verso", "42"), Tokenizador.termos("  Verso-42 "));
+    }
+
+    @Test
+    void testRetiraAcentos() {
+        assertEquals(List.of("cancao", "coracao", "mae", "pao", "avo", "agua"),
+                Tokenizador.termos("Canção CORAÇÃO mãe pão avô Água"));
+        assertEquals(List.of("cancao"), Tokenizador.termos("Canção"));
+    }
+
+    @Test
+    void testTextoSemTermos() {
+        assertTrue(Tokenizador.termos(null).isEmpty());
+        assertTrue(Tokenizador.termos("").isEmpty());
+        assertTrue(Tokenizador.termos(" ... -- !").isEmpty());
+    }
+}
@@ -0,0 +1,123 @@
+package Classes.Metricas;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegistoMetricasTest {
+
+    private RegistoMetricas registo;
+
+    @BeforeEach
+    void setUp() {
+        registo = new RegistoMetricas();
+    }
+
+    @Test
+    void testMesmaMetricaDevolvida() {
+        Contador a = registo.contador("pedidos_total", "Pedidos", "tipo", "a");
+        Contador b = registo.contador("pedidos_total", "Pedidos", "tipo", "b");
+        assertSame(a, registo.contador("pedidos_total", "Pedidos", "tipo", "a"));
+        assertNotSame(a, b);
+        assertEquals(2, registo.tamanho());
+        assertSame(b, registo.getMetrica("pedidos_total{tipo=\"b\"}"));
+    }
+
+    @Test
+    void testTiposIncompativeis() {
+        registo.contador("pedidos_total", "Pedidos");
+        assertThrows(IllegalArgumentException.class, () -> registo.temporizador("pedidos_total", "Pedidos"));
+        assertThrows(IllegalArgumentException.class,
+                () -> registo.medidor("pedidos_total", "Pedidos", "tipo", "x", () -> 1));
+        assertEquals(1, registo.tamanho());
+        assertThrows(IllegalArgumentException.class, () -> registo.contador("1nome", "Inválido"));
+        assertThrows(IllegalArgumentException.class, () -> registo.contador("com-traco", "Inválido"));
+    }
+
+    @Test
+    void testMedidorSubstituiFonte() {
+        Medidor medidor = registo.medidor("tamanho", "Tamanho", () -> 1);
+        assertEquals(1, medidor.getValor());
+        assertSame(medidor, registo.medidor("tamanho", "Tamanho", () -> 7));
+        assertEquals(7, medidor.getValor());
+    }
+
+    @Test
+    void testExportarPrometheus() throws IOException {
+        registo.contador("logins_total", "Logins", "resultado", "sucesso").incrementar(3);
+        registo.contador("logins_total", "Logins", "resultado", "falha").incrementar();
+        registo.medidor("musicas", "Músicas", () -> 42);
+
+        StringBuilder sb = new StringBuilder();
+        registo.exportarPrometheus(sb);
+        assertEquals("# HELP logins_total Logins\n"
+                + "# TYPE logins_total counter\n"
+                + "logins_total{resultado=\"falha\"} 1\n"
+                + "logins_total{resultado=\"sucesso\"} 3\n"
+                + "# HELP musicas Músicas\n"
+                + "# TYPE musicas gauge\n"
+                + "musicas 42\n", sb.toString());
+    }
+
+    @Test
+    void testRegistoComBase() throws IOException {
+        registo.contador("logins_total", "Logins").incrementar(2);
+        RegistoMetricas proprio = new RegistoMetricas(registo);
+        proprio.medidor("musicas", "Músicas", () -> 42);
+
+        assertEquals(1, proprio.tamanho());
+        assertNull(registo.getMetrica("musicas"));
+        assertSame(registo.getMetrica("logins_total"), proprio.getMetrica("logins_total"));
+
+        StringBuilder sb = new StringBuilder();
+        proprio.exportarPrometheus(sb);
+        assertEquals("# HELP logins_total Logins\n"
+                + "# TYPE logins_total counter\n"
+                + "logins_total 2\n"
+                + "# HELP musicas Músicas\n"
+                + "# TYPE musicas gauge\n"
+                + "musicas 42\n", sb.toString());
+    }
+
+    @Test
+    void testExportarJson() throws IOException {
+        registo.contador("logins_total", "Logins", "resultado", "sucesso").incrementar();
+        registo.temporizador("tempo_segundos", "Tempo").registar(2_000);
+
+        StringBuilder sb = new StringBuilder();
+        registo.exportarJson(sb);
+        String json = sb.toString();
+        assertTrue(json.startsWith("[\n  {\"nome\": \"logins_total\", \"tipo\": \"counter\", "
+                + "\"etiquetas\": {\"resultado\": \"sucesso\"}, \"valor\": 1},\n"));
+        assertTrue(json.contains("{\"nome\": \"tempo_segundos\", \"tipo\": \"summary\", \"contagem\": 1, "));
+        assertTrue(json.endsWith("}\n]\n"));
+
+        StringBuilder vazio = new StringBuilder();
+        new RegistoMetricas().exportarJson(vazio);
+        assertEquals("[]\n", vazio.toString());
+    }
+
+    @Test
+    void testExportarParaFicheiro() throws IOException {
+        registo.medidor("musicas", "Músicas", () -> 5);
+        Path pasta = Files.createTempDirectory("metricas");
+        Path texto = pasta.resolve("metricas.prom");
+        Path json = pasta.resolve("metricas.json");
+        try {
+            registo.exportar(texto);
+            registo.exportar(json);
+            assertTrue(Files.readString(texto, StandardCharsets.UTF_8).contains("musicas 5\n"));
+            assertTrue(Files.readString(json, StandardCharsets.UTF_8).contains("\"valor\": 5"));
+        } finally {
+            Files.deleteIfExists(texto);
+            Files.deleteIfExists(json);
+            Files.delete(pasta);
+        }
+    }
+}
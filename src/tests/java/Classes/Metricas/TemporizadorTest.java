@@ -0,0 +1,75 @@
+package Classes.Metricas;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TemporizadorTest {
+
+    private Temporizador temporizador;
+
+    @BeforeEach
+    void setUp() {
+        temporizador = new Temporizador("teste_segundos", "Teste", null, null);
+    }
+
+    @Test
+    void testVazio() {
+        assertEquals(0, temporizador.getContagem());
+        assertEquals(0, temporizador.getSoma());
+        assertEquals(0, temporizador.getPercentil(0.99));
+    }
+
+    @Test
+    void testContagemSomaEMaximo() {
+        temporizador.registar(100);
+        temporizador.registar(2_000);
+        temporizador.registar(-5);
+        assertEquals(3, temporizador.getContagem());
+        assertEquals(2_100, temporizador.getSoma());
+        assertEquals(2_000, temporizador.getMaximo());
+    }
+
+    @Test
+    void testPercentisComErroLimitado() {
+        for (long v = 1; v <= 100_000; v++) {
+            temporizador.registar(v * 1_000);
+        }
+        long[] esperados = {50_000_000L, 99_000_000L, 99_900_000L};
+        double[] quantis = {0.5, 0.99, 0.999};
+        for (int i = 0; i < quantis.length; i++) {
+            long estimado = temporizador.getPercentil(quantis[i]);
+            assertTrue(Math.abs(estimado - esperados[i]) <= esperados[i] / Temporizador.SUBINTERVALOS,
+                    "quantil " + quantis[i] + ": " + estimado);
+        }
+        assertTrue(temporizador.getPercentil(1) <= temporizador.getMaximo());
+    }
+
+    @Test
+    void testIntervalosCobremTodosOsValores() {
+        long[] valores = {0, 1, 15, 16, 17, 31, 32, 1_000, 123_456_789, Long.MAX_VALUE};
+        int anterior = -1;
+        for (long v : valores) {
+            int intervalo = Temporizador.intervalo(v);
+            assertTrue(intervalo >= anterior);
+            long medio = Temporizador.pontoMedio(intervalo);
+            assertTrue(Math.abs((double) medio - v) <= Math.max(1, v / 16.0), "valor " + v);
+            anterior = intervalo;
+        }
+    }
+
+    @Test
+    void testExportarPrometheus() throws IOException {
+        Temporizador comEtiqueta = new Temporizador("consulta_segundos", "Consultas", "consulta", "top");
+        comEtiqueta.registar(1_000_000);
+        StringBuilder sb = new StringBuilder();
+        comEtiqueta.escreverPrometheus(sb);
+        String texto = sb.toString();
+        assertTrue(texto.contains("consulta_segundos{consulta=\"top\",quantile=\"0.99\"} "));
+        assertTrue(texto.contains("consulta_segundos_sum{consulta=\"top\"} 0.001000000\n"));
+        assertTrue(texto.contains("consulta_segundos_count{consulta=\"top\"} 1\n"));
+    }
+}
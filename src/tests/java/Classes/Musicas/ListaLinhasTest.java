@@ -0,0 +1,55 @@
+package Classes.Musicas;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListaLinhasTest {
+
+    @Test
+    void testLinhasInternadas() {
+        List<String> letra = ListaLinhas.de(Arrays.asList(new String("refrão"), "verso", new String("refrão")));
+        List<String> outra = ListaLinhas.de(Arrays.asList(new String("refrão")));
+
+        assertEquals(Arrays.asList("refrão", "verso", "refrão"), letra);
+        assertSame(letra.get(0), letra.get(2));
+        assertSame(letra.get(0), outra.get(0));
+    }
+
+    @Test
+    void testLinhasNulas() {
+        List<String> letra = ListaLinhas.de(Arrays.asList("a", null));
+        assertEquals(2, letra.size());
+        assertNull(letra.get(1));
+        assertNull(ListaLinhas.de(null));
+    }
+
+    @Test
+    void testListaJaInternada() {
+        List<String> letra = ListaLinhas.de(new ArrayList<>(Arrays.asList("a")));
+        assertSame(letra, ListaLinhas.de(letra));
+    }
+
+    @Test
+    void testNaoAlteravel() {
+        List<String> letra = ListaLinhas.de(Arrays.asList("a"));
+        assertThrows(UnsupportedOperationException.class, () -> letra.add("b"));
+        assertThrows(UnsupportedOperationException.class, () -> letra.set(0, "b"));
+        assertThrows(IndexOutOfBoundsException.class, () -> letra.get(1));
+    }
+
+    @Test
+    void testMusicaGuardaLinhasInternadas() {
+        ArrayList<String> original = new ArrayList<>(Arrays.asList("linha 1", "linha 2"));
+        Musica musica = new Musica("M", null, "E", original, new ArrayList<>(), null, 100, 0);
+        original.add("linha 3");
+
+        assertTrue(musica.getLetra() instanceof ListaLinhas);
+        assertEquals(Arrays.asList("linha 1", "linha 2"), musica.getLetra());
+        assertSame(musica.getLetra(), musica.clone().getLetra());
+    }
+}
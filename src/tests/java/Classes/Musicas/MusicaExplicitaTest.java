@@ -5,6 +5,7 @@ import Classes.Genero;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
 import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -105,6 +106,27 @@ class MusicaExplicitaTest {
         assertNotEquals(musicaExplicita, "String qualquer");
     }
 
+    @Test
+    void testMesmosDados() {
+        MusicaExplicita copia = musicaExplicita.clone();
+        copia.setNumReproducoes(0);
+        assertTrue(musicaExplicita.mesmosDados(copia));
+
+        copia.setMotivoAviso("Outro aviso");
+        assertFalse(musicaExplicita.mesmosDados(copia));
+    }
+
+    @Test
+    void testReproduzir() throws IOException {
+        StringBuilder destino = new StringBuilder();
+        musicaExplicita.reproduzir(destino);
+
+        assertEquals(21, musicaExplicita.getNumReproducoes());
+        assertEquals("Música Explicita - Aviso: Linguagem imprópria - Idade Mínima: 18\n"
+                + "A reproduzir: Explícita - Artista X\nLetra:\nlinha 1\nlinha 2\n", destino.toString());
+        assertEquals(destino.toString(), musicaExplicita.reproduzir());
+    }
+
     @Test
     void testToStringCompleto() {
         String expected = "Nome: Explícita" +
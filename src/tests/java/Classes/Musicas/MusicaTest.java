@@ -5,6 +5,7 @@ import Classes.Genero;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
 import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -109,6 +110,36 @@ class MusicaTest {
         assertTrue(resultado.contains("linha 2"));
     }
 
+    @Test
+    void testReproduzirParaDestino() throws IOException {
+        StringBuilder destino = new StringBuilder("início\n");
+        musica.reproduzir(destino);
+
+        assertEquals(6, musica.getNumReproducoes());
+        assertEquals("início\nA reproduzir: Música 1 - Artista 1\nLetra:\nlinha 1\nlinha 2\n", destino.toString());
+        assertEquals(destino.substring("início\n".length()), musica.reproduzir());
+    }
+
+    @Test
+    void testReproduzirSemSaida() throws IOException {
+        musica.contarReproducao();
+        assertEquals(6, musica.getNumReproducoes());
+
+        StringBuilder destino = new StringBuilder();
+        musica.escreverReproducao(destino);
+        assertEquals(6, musica.getNumReproducoes());
+        assertTrue(destino.toString().startsWith("A reproduzir: Música 1"));
+    }
+
+    @Test
+    void testContarReproducoes() {
+        musica.contarReproducoes(3);
+        assertEquals(8, musica.getNumReproducoes());
+
+        musica.contarReproducoes(0);
+        assertEquals(8, musica.getNumReproducoes());
+    }
+
     @Test
     void testClone() {
         Musica copiaClone = musica.clone();
@@ -125,6 +156,20 @@ class MusicaTest {
 
     }
 
+    @Test
+    void testMesmosDados() {
+        Musica copia = musica.clone();
+        copia.setNumReproducoes(99);
+        assertTrue(musica.mesmosDados(copia));
+        assertNotEquals(musica, copia);
+
+        copia.setNome("Outra");
+        assertFalse(musica.mesmosDados(copia));
+        assertFalse(musica.mesmosDados(null));
+        assertFalse(musica.mesmosDados(new MusicaExplicita("Música 1", artista, "Editora A",
+                Arrays.asList("linha 1", "linha 2"), Arrays.asList("nota 1", "nota 2"), Genero.POP, 200, 5, "Aviso", 18)));
+    }
+
     @Test
     void testToString() {
         String expected = "Nome: Música 1; Interprete: NomeArtista: Artista 1; Pais: Portugal" +
@@ -0,0 +1,126 @@
+package Classes.Persistencia;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiarioOperacoesTest {
+
+    private Path base;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path diretoria = Files.createTempDirectory("diario");
+        diretoria.toFile().deleteOnExit();
+        base = diretoria.resolve("SpotifUM.wal");
+    }
+
+    private List<String> lerOperacoes(long aPartirDe) throws IOException {
+        List<String> lidas = new ArrayList<>();
+        DiarioOperacoes.reproduzir(base, aPartirDe, (numero, operacao) -> {
+            byte[] bytes = new byte[operacao.remaining()];
+            operacao.get(bytes);
+            lidas.add(numero + ":" + new String(bytes, StandardCharsets.UTF_8));
+        });
+        return lidas;
+    }
+
+    private static byte[] bytes(String texto) {
+        return texto.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testRegistarEReproduzir() throws IOException {
+        try (DiarioOperacoes diario = new DiarioOperacoes(base, 0)) {
+            assertEquals(1, diario.registar(bytes("a")));
+            assertEquals(2, diario.registar(bytes("b")));
+            assertEquals(3, diario.registar(bytes("")));
+            assertEquals(3, diario.getUltimaOperacao());
+        }
+
+        assertEquals(Arrays.asList("1:a", "2:b", "3:"), lerOperacoes(0));
+        assertEquals(Arrays.asList("3:"), lerOperacoes(2));
+        assertEquals(3, DiarioOperacoes.reproduzir(base, 0, (numero, operacao) -> { }));
+    }
+
+    @Test
+    void testRegistosConcorrentes() throws Exception {
+        int threads = 8;
+        int porThread = 50;
+        try (DiarioOperacoes diario = new DiarioOperacoes(base, 0)) {
+            List<Thread> lista = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                Thread thread = new Thread(() -> {
+                    try {
+                        for (int i = 0; i < porThread; i++) diario.registar(bytes("x"));
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+                lista.add(thread);
+                thread.start();
+            }
+            for (Thread thread : lista) thread.join();
+            assertEquals(threads * porThread, diario.getUltimaOperacao());
+        }
+
+        List<String> lidas = lerOperacoes(0);
+        assertEquals(threads * porThread, lidas.size());
+        for (int i = 0; i < lidas.size(); i++) {
+            assertEquals((i + 1) + ":x", lidas.get(i));
+        }
+    }
+
+    @Test
+    void testRodarSegmento() throws IOException {
+        try (DiarioOperacoes diario = new DiarioOperacoes(base, 0)) {
+            diario.registar(bytes("a"));
+            diario.registar(bytes("b"));
+            int segmento = diario.rodarSegmento();
+            assertEquals(2, segmento);
+            diario.registar(bytes("c"));
+
+            assertEquals(Arrays.asList("1:a", "2:b", "3:c"), lerOperacoes(0));
+            diario.apagarSegmentosAnteriores(segmento);
+            assertEquals(Arrays.asList("3:c"), lerOperacoes(0));
+        }
+
+        try (DiarioOperacoes diario = new DiarioOperacoes(base, 3)) {
+            assertEquals(4, diario.registar(bytes("d")));
+        }
+        assertEquals(Arrays.asList("3:c", "4:d"), lerOperacoes(0));
+    }
+
+    @Test
+    void testRegistoIncompletoIgnorado() throws IOException {
+        try (DiarioOperacoes diario = new DiarioOperacoes(base, 0)) {
+            diario.registar(bytes("completo"));
+            diario.registar(bytes("cortado"));
+        }
+
+        Path segmento = base.resolveSibling(base.getFileName() + ".000001");
+        byte[] conteudo = Files.readAllBytes(segmento);
+        Files.write(segmento, Arrays.copyOf(conteudo, conteudo.length - 2));
+        assertEquals(Arrays.asList("1:completo"), lerOperacoes(0));
+
+        conteudo[conteudo.length - 1] ^= 1;
+        Files.write(segmento, conteudo);
+        assertEquals(Arrays.asList("1:completo"), lerOperacoes(0));
+    }
+
+    @Test
+    void testDiarioFechado() throws IOException {
+        DiarioOperacoes diario = new DiarioOperacoes(base, 0);
+        diario.close();
+        assertThrows(IOException.class, () -> diario.registar(bytes("a")));
+    }
+}
@@ -0,0 +1,261 @@
+package Classes.Persistencia;
+
+import Classes.Album;
+import Classes.Artista;
+import Classes.Genero;
+import Classes.Historico.RegistoReproducoes;
+import Classes.Indices.IndicePesquisa;
+import Classes.Musicas.Musica;
+import Classes.Musicas.MusicaExplicita;
+import Classes.Musicas.MusicaMultimedia;
+import SpotifUM.SpotifUM;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EscritorSnapshotTest {
+
+    private Path ficheiro;
+    private Artista artista;
+    private ArrayList<Musica> catalogo;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ficheiro = Files.createTempFile("snapshot", ".dat");
+        ficheiro.toFile().deleteOnExit();
+        artista = new Artista("Queen", "Reino Unido");
+        catalogo = new ArrayList<>();
+        catalogo.add(new Musica("Bohemian Rhapsody", artista, "EMI", Arrays.asList("Is this", "the real life?"),
+                Arrays.asList("Dó", "Ré"), Genero.ROCK, 354, 7));
+        catalogo.add(new MusicaExplicita("Explícita", artista, "EMI", Arrays.asList("letra"),
+                Arrays.asList("Mi"), Genero.HIPHOP, 200, 0, "Linguagem", 18));
+        catalogo.add(new MusicaMultimedia("Video", new Artista("Queen", "Reino Unido"), "EMI", Arrays.asList("letra"),
+                Arrays.asList("Fá"), Genero.POP, 180, 3, "Clip", "mp4"));
+    }
+
+    @Test
+    void testValoresSimples() throws IOException {
+        try (EscritorSnapshot out = new EscritorSnapshot(ficheiro)) {
+            out.escreverNatural(0);
+            out.escreverNatural(300);
+            out.escreverInteiro(-1);
+            out.escreverInteiro(Long.MIN_VALUE);
+            out.escreverBooleano(true);
+            out.escreverTexto("ação");
+            out.escreverTexto(null);
+            out.escreverTexto("ação");
+            out.escreverListaTexto(null);
+            out.escreverListaTexto(List.of("a", "ação"));
+            out.escreverData(LocalDate.of(2024, 2, 29));
+            out.escreverData(null);
+            out.escreverEnum(Genero.JAZZ);
+            out.escreverEnum(null);
+        }
+
+        LeitorSnapshot in = new LeitorSnapshot(ficheiro);
+        assertEquals(0, in.lerNatural());
+        assertEquals(300, in.lerNatural());
+        assertEquals(-1, in.lerInteiro());
+        assertEquals(Long.MIN_VALUE, in.lerInteiro());
+        assertTrue(in.lerBooleano());
+        assertEquals("ação", in.lerTexto());
+        assertNull(in.lerTexto());
+        assertEquals("ação", in.lerTexto());
+        assertNull(in.lerListaTexto());
+        assertEquals(List.of("a", "ação"), in.lerListaTexto());
+        assertEquals(LocalDate.of(2024, 2, 29), in.lerData());
+        assertNull(in.lerData());
+        assertEquals(Genero.JAZZ, in.lerEnum(Genero.values()));
+        assertNull(in.lerEnum(Genero.values()));
+        in.terminar();
+    }
+
+    @Test
+    void testMusicasPorReferencia() throws IOException {
+        Musica copia = catalogo.get(0).clone();
+        copia.setNumReproducoes(42);
+        Musica foraDoCatalogo = new Musica("Outra", artista, "EMI", Arrays.asList("x"), Arrays.asList("y"),
+                Genero.ROCK, 100, 1);
+
+        try (EscritorSnapshot out = new EscritorSnapshot(ficheiro)) {
+            out.escreverCatalogo(catalogo);
+            out.escreverMusica(catalogo.get(1));
+            out.escreverMusica(copia);
+            out.escreverMusica(foraDoCatalogo);
+            out.escreverMusica(null);
+        }
+
+        LeitorSnapshot in = new LeitorSnapshot(ficheiro);
+        ArrayList<Musica> lido = in.lerCatalogo();
+        assertEquals(catalogo, lido);
+        assertSame(lido.get(1), in.lerMusica());
+
+        Musica copiaLida = in.lerMusica();
+        assertNotSame(lido.get(0), copiaLida);
+        assertEquals(copia, copiaLida);
+        assertEquals(42, copiaLida.getNumReproducoes());
+
+        assertEquals(foraDoCatalogo, in.lerMusica());
+        assertNull(in.lerMusica());
+        in.terminar();
+    }
+
+    @Test
+    void testCopiasMigradasParaORegisto() throws IOException {
+        Musica copia = catalogo.get(0).clone();
+        copia.setNumReproducoes(1);
+        ArrayList<Musica> musicasAlbum = new ArrayList<>(Arrays.asList(copia, catalogo.get(1).clone()));
+        Album album = new Album("Álbum", LocalDate.of(1975, 10, 31), artista, musicasAlbum);
+
+        HashMap<String, Artista> artistas = new HashMap<>();
+        artistas.put(artista.getNome(), artista);
+        try (EscritorSnapshot out = new EscritorSnapshot(ficheiro)) {
+            out.escreverUtilizadores(new HashMap<>());
+            out.escreverArtistas(artistas);
+            out.escreverCatalogo(catalogo);
+            out.escreverAlbuns(List.of(album));
+            out.escreverPlaylists(List.of());
+            out.escreverBibliotecas();
+            out.escreverListaTexto(new ArrayList<>());
+            out.escreverReproducoes(new RegistoReproducoes());
+            out.escreverIndicePesquisa(new IndicePesquisa(catalogo));
+        }
+
+        SpotifUM model = SpotifUM.lerSnapshot(new LeitorSnapshot(ficheiro));
+        List<Musica> lidas = model.vistaAlbuns().get(0).getMusicas();
+        assertSame(model.getMusica(0), lidas.get(0));
+        assertSame(model.getMusica(model.getIdMusica("Explícita")), lidas.get(1));
+        assertEquals(7, lidas.get(0).getNumReproducoes());
+    }
+
+    @Test
+    void testArtistasPartilhados() throws IOException {
+        try (EscritorSnapshot out = new EscritorSnapshot(ficheiro)) {
+            out.escreverCatalogo(catalogo);
+        }
+
+        ArrayList<Musica> lido = new LeitorSnapshot(ficheiro).lerCatalogo();
+        assertEquals("Reino Unido", lido.get(2).getInterprete().getPais());
+        assertSame(lido.get(0).getInterprete(), lido.get(2).getInterprete());
+    }
+
+    @Test
+    void testConteudoLidoQuandoUsado() throws IOException {
+        try (EscritorSnapshot out = new EscritorSnapshot(ficheiro)) {
+            out.escreverCatalogo(catalogo);
+        }
+
+        ArrayList<Musica> lido = new LeitorSnapshot(ficheiro).lerCatalogo();
+        ListaTextoMapeada letra = (ListaTextoMapeada) lido.get(0).getLetra();
+        ListaTextoMapeada outra = (ListaTextoMapeada) lido.get(1).getLetra();
+        assertFalse(letra.isDescodificada());
+        assertEquals("Bohemian Rhapsody", lido.get(0).getNome());
+        assertFalse(letra.isDescodificada());
+
+        assertTrue(lido.get(0).reproduzir().contains("the real life?"));
+        assertTrue(letra.isDescodificada());
+        assertFalse(outra.isDescodificada());
+
+        try (EscritorSnapshot out = new EscritorSnapshot(ficheiro)) {
+            out.escreverCatalogo(lido);
+        }
+        assertFalse(outra.isDescodificada());
+        assertEquals(Arrays.asList("letra"), new LeitorSnapshot(ficheiro).lerCatalogo().get(1).getLetra());
+    }
+
+    @Test
+    void testLinhasRepetidasEscritasUmaVez() throws IOException {
+        String refrao = "refrão ".repeat(50);
+        List<String> letra = new ArrayList<>(Collections.nCopies(100, refrao));
+        letra.add(null);
+        ArrayList<Musica> repetidas = new ArrayList<>();
+        repetidas.add(new Musica("A", artista, "EMI", letra, Arrays.asList("Dó"), Genero.POP, 100, 0));
+        repetidas.add(new Musica("B", artista, "EMI", new ArrayList<>(letra), Arrays.asList("Dó"), Genero.POP, 100, 0));
+        try (EscritorSnapshot out = new EscritorSnapshot(ficheiro)) {
+            out.escreverCatalogo(repetidas);
+        }
+
+        long tamanhoSegmentos = 0;
+        String prefixo = ficheiro.getFileName() + ".musicas.";
+        try (Stream<Path> ficheiros = Files.list(ficheiro.getParent())) {
+            for (Path segmento : (Iterable<Path>) ficheiros::iterator) {
+                if (segmento.getFileName().toString().startsWith(prefixo)) tamanhoSegmentos += Files.size(segmento);
+            }
+        }
+        assertTrue(tamanhoSegmentos < 2L * refrao.length(), "segmento com " + tamanhoSegmentos + " bytes");
+
+        ArrayList<Musica> lido = new LeitorSnapshot(ficheiro).lerCatalogo();
+        assertEquals(letra, lido.get(0).getLetra());
+        assertEquals(letra, lido.get(1).getLetra());
+        assertSame(lido.get(0).getLetra().get(0), lido.get(1).getLetra().get(99));
+        assertNull(lido.get(1).getLetra().get(100));
+    }
+
+    @Test
+    void testReproducoes() throws IOException {
+        RegistoReproducoes registo = new RegistoReproducoes();
+        registo.adicionar(0, 2, 1_700_000_000L);
+        registo.adicionar(1, 0, 1_700_000_050L);
+        registo.adicionar(0, 1, 1_699_999_000L);
+
+        try (EscritorSnapshot out = new EscritorSnapshot(ficheiro)) {
+            out.escreverReproducoes(registo);
+        }
+
+        RegistoReproducoes lido = new LeitorSnapshot(ficheiro).lerReproducoes();
+        assertEquals(registo.tamanho(), lido.tamanho());
+        for (int i = 0; i < registo.tamanho(); i++) {
+            assertEquals(registo.getUtilizador(i), lido.getUtilizador(i));
+            assertEquals(registo.getMusica(i), lido.getMusica(i));
+            assertEquals(registo.getInstante(i), lido.getInstante(i));
+        }
+    }
+
+    @Test
+    void testIndicePesquisa() throws IOException {
+        try (EscritorSnapshot out = new EscritorSnapshot(ficheiro)) {
+            out.escreverCatalogo(catalogo);
+            out.escreverIndicePesquisa(new IndicePesquisa(catalogo));
+        }
+
+        LeitorSnapshot in = new LeitorSnapshot(ficheiro);
+        ArrayList<Musica> lido = in.lerCatalogo();
+        IndicePesquisa indice = in.lerIndicePesquisa(lido);
+        in.terminar();
+        assertEquals(3, indice.tamanho());
+        assertEquals(List.of(lido.get(0)), indice.pesquisar("\"the real life\"", 5));
+        assertFalse(((ListaTextoMapeada) lido.get(0).getLetra()).isDescodificada());
+        assertEquals(List.of(lido.get(1), lido.get(2)), indice.pesquisar("letra", 5));
+
+        lido.add(new Musica("Nova", artista, "EMI", Arrays.asList("outra letra"), Arrays.asList("Sol"), Genero.POP, 100, 0));
+        indice.indexar(3);
+        assertEquals(List.of(lido.get(3)), indice.pesquisar("outra", 5));
+    }
+
+    @Test
+    void testFicheiroInvalido() throws IOException {
+        Files.write(ficheiro, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        assertThrows(IOException.class, () -> new LeitorSnapshot(ficheiro));
+
+        try (EscritorSnapshot out = new EscritorSnapshot(ficheiro)) {
+            out.escreverTexto("texto comprido");
+        }
+        byte[] bytes = Files.readAllBytes(ficheiro);
+        Files.write(ficheiro, Arrays.copyOf(bytes, bytes.length - 3));
+        LeitorSnapshot in = new LeitorSnapshot(ficheiro);
+        assertThrows(EOFException.class, in::lerTexto);
+    }
+}
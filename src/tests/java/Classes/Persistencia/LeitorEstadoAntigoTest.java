@@ -0,0 +1,177 @@
+package Classes.Persistencia;
+
+import Classes.Album;
+import Classes.GestorFicheiros;
+import Classes.Musicas.Musica;
+import Classes.Musicas.MusicaExplicita;
+import Classes.Musicas.MusicaMultimedia;
+import Classes.Planos.PlanoFree;
+import Classes.Planos.PlanoPremiumBase;
+import Classes.Planos.PlanoPremiumTop;
+import Classes.Playlists.Playlist;
+import Classes.Playlists.PlaylistAleatoria;
+import Classes.Playlists.PlaylistConstruida;
+import Classes.Playlists.PlaylistFavoritos;
+import Classes.Playlists.PlaylistGenero;
+import Classes.Utilizador;
+import SpotifUM.SpotifUM;
+import org.junit.jupiter.api.Test;
+
+import java.io.InvalidClassException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes da leitura dos estados gravados com serialização Java. Os ficheiros de teste foram gravados pela versão
+ * anterior ao formato de snapshot: {@code SpotifUM-antigo.dat} é o estado de exemplo que vinha com o programa e
+ * {@code SpotifUM-antigo-reproducoes.dat} acrescenta-lhe reproduções, playlists de todos os tipos e bibliotecas.
+ */
+class LeitorEstadoAntigoTest {
+
+    private static Path fixture(String nome) throws Exception {
+        return Path.of(LeitorEstadoAntigoTest.class.getResource("/Persistencia/" + nome).toURI());
+    }
+
+    @Test
+    void testEstadoDeExemplo() throws Exception {
+        SpotifUM modelo = new GestorFicheiros().carregarEstado(fixture("SpotifUM-antigo.dat").toString());
+
+        assertEquals(4, modelo.getUtilizadores().size());
+        assertEquals("Ana", modelo.getUtilizadorPorEmail("a@gmail.com").getNome());
+        assertInstanceOf(PlanoFree.class, modelo.getUtilizadorPorEmail("a@gmail.com").getPlanoSubscricao());
+        assertInstanceOf(PlanoPremiumBase.class, modelo.getUtilizadorPorEmail("b@gmail.com").getPlanoSubscricao());
+        assertInstanceOf(PlanoPremiumTop.class, modelo.getUtilizadorPorEmail("admin").getPlanoSubscricao());
+        assertEquals(100, modelo.getUtilizadorPorEmail("c@gmail.com").getPontos());
+
+        assertEquals(7, modelo.getMusicas().size());
+        assertInstanceOf(MusicaExplicita.class, modelo.getMusicaPorNome("DearMama"));
+        assertInstanceOf(MusicaMultimedia.class, modelo.getMusicaPorNome("VideoCube"));
+        assertEquals("2Pac", modelo.getMusicaPorNome("Life").getInterprete().getNome());
+        assertEquals(3, modelo.getArtistas().size());
+        assertEquals(3, modelo.getAlbumPorNome("2Pac Mix").getMusicas().size());
+
+        assertEquals(2, modelo.getPlaylists().size());
+        assertInstanceOf(PlaylistAleatoria.class, modelo.getPlaylistPorNome("ChillVibes"));
+        assertEquals("admin", modelo.getPlaylistPorNome("ChillVibes").getUtilizador().getEmail());
+        assertEquals(0, modelo.getReproducoes().size());
+        assertTrue(modelo.verificarEstatisticas().isEmpty());
+    }
+
+    @Test
+    void testReproducoesEBibliotecas() throws Exception {
+        SpotifUM modelo = new GestorFicheiros().carregarEstado(fixture("SpotifUM-antigo-reproducoes.dat").toString());
+
+        assertEquals(6, modelo.getReproducoes().size());
+        assertEquals(3, modelo.getReproducoes().stream().filter(r -> r.getUtilizador().getEmail().equals("c@gmail.com")).count());
+        assertEquals(2, modelo.getMusicaPorNome("Life").getNumReproducoes());
+        assertEquals(104, modelo.getUtilizadorPorEmail("c@gmail.com").getPontos());
+
+        assertInstanceOf(PlaylistConstruida.class, modelo.getPlaylistPorNome("Minha"));
+        assertInstanceOf(PlaylistFavoritos.class, modelo.getPlaylistPorNome("Favoritas"));
+        PlaylistGenero rap = (PlaylistGenero) modelo.getPlaylistPorNome("Rap");
+        assertEquals(600, rap.getDuracaoMaxima());
+
+        Utilizador beto = modelo.getUtilizadorPorEmail("b@gmail.com");
+        assertEquals("Minha", beto.getBiblioteca().getPlaylist().get(0).getNome());
+        assertEquals("b@gmail.com", beto.getBiblioteca().getPlaylist().get(0).getUtilizador().getEmail());
+        assertEquals("DAMN", beto.getBiblioteca().getAlbuns().get(0).getNome());
+        assertTrue(modelo.verificarEstatisticas().isEmpty());
+    }
+
+    @Test
+    void testGuardadoNoFormatoNovo() throws Exception {
+        GestorFicheiros gestor = new GestorFicheiros();
+        SpotifUM antigo = gestor.carregarEstado(fixture("SpotifUM-antigo-reproducoes.dat").toString());
+        Path ficheiro = Files.createTempFile("snapshot", ".dat");
+        ficheiro.toFile().deleteOnExit();
+
+        gestor.guardarEstado(antigo, ficheiro.toString());
+        SpotifUM novo = gestor.carregarEstado(ficheiro.toString());
+
+        assertEquals(antigo.getUtilizadores().keySet(), novo.getUtilizadores().keySet());
+        assertEquals(antigo.getReproducoes().size(), novo.getReproducoes().size());
+        assertEquals(antigo.getPlaylists().size(), novo.getPlaylists().size());
+        assertEquals(1, novo.getUtilizadorPorEmail("b@gmail.com").getBiblioteca().getAlbuns().size());
+    }
+
+    @Test
+    void testVersaoDesconhecida() throws Exception {
+        byte[] conteudo = Files.readAllBytes(fixture("SpotifUM-antigo.dat"));
+        // serialVersionUID do SpotifUM gravado; outra versão da classe teria outro
+        byte[] uid = ByteBuffer.allocate(Long.BYTES).putLong(-8743738944321733753L).array();
+        int posicao = procurar(conteudo, uid);
+        assertTrue(posicao > 0);
+        conteudo[posicao + Long.BYTES - 1]++;
+        Path ficheiro = Files.createTempFile("antigo", ".dat");
+        ficheiro.toFile().deleteOnExit();
+        Files.write(ficheiro, conteudo);
+
+        assertThrows(InvalidClassException.class, () -> new GestorFicheiros().carregarEstado(ficheiro.toString()));
+    }
+
+    private static int procurar(byte[] conteudo, byte[] padrao) {
+        for (int i = 0; i + padrao.length <= conteudo.length; i++) {
+            int k = 0;
+            while (k < padrao.length && conteudo[i + k] == padrao[k]) k++;
+            if (k == padrao.length) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Verifica que as músicas de uma lista são as instâncias do catálogo do modelo, com o artista do registo.
+     */
+    private static void assertMusicasDoRegisto(SpotifUM modelo, List<Musica> musicas) {
+        for (Musica musica : musicas) {
+            assertSame(modelo.getMusica(modelo.getIdMusica(musica.getNome())), musica, musica.getNome());
+            assertSame(modelo.vistaArtistas().get(musica.getInterprete().getNome()), musica.getInterprete());
+        }
+    }
+
+    /**
+     * Verifica que os álbuns, as playlists e as bibliotecas usam as músicas e os utilizadores do registo.
+     */
+    private static void assertEntidadesPartilhadas(SpotifUM modelo) {
+        for (Album album : modelo.vistaAlbuns()) {
+            assertMusicasDoRegisto(modelo, album.getMusicas());
+        }
+        for (Playlist playlist : modelo.vistaPlaylists()) {
+            assertMusicasDoRegisto(modelo, playlist.getListaMusicas());
+            assertSame(modelo.vistaUtilizadores().get(playlist.getUtilizador().getEmail()), playlist.getUtilizador());
+        }
+        for (Utilizador utilizador : modelo.vistaUtilizadores().values()) {
+            for (Playlist playlist : utilizador.getBiblioteca().getPlaylist()) {
+                assertMusicasDoRegisto(modelo, playlist.getListaMusicas());
+            }
+            for (Album album : utilizador.getBiblioteca().getAlbuns()) {
+                assertMusicasDoRegisto(modelo, album.getMusicas());
+            }
+        }
+    }
+
+    @Test
+    void testEntidadesPartilhadas() throws Exception {
+        GestorFicheiros gestor = new GestorFicheiros();
+        SpotifUM antigo = gestor.carregarEstado(fixture("SpotifUM-antigo-reproducoes.dat").toString());
+        // no ficheiro antigo cada álbum e playlist tem as suas próprias cópias das músicas e dos utilizadores
+        assertEntidadesPartilhadas(antigo);
+        assertEquals(2, antigo.getMusicaPorNome("Life").getNumReproducoes());
+
+        Path ficheiro = Files.createTempFile("snapshot", ".dat");
+        ficheiro.toFile().deleteOnExit();
+        gestor.guardarEstado(antigo, ficheiro.toString());
+        SpotifUM novo = gestor.carregarEstado(ficheiro.toString());
+
+        assertEntidadesPartilhadas(novo);
+        for (Album album : novo.vistaAlbuns()) {
+            Album original = antigo.getAlbumPorNome(album.getNome());
+            assertEquals(original.getMusicas().size(), album.getMusicas().size());
+        }
+        assertEquals(2, novo.getMusicaPorNome("Life").getNumReproducoes());
+        assertEquals(antigo.capturarReproducoes().size(), novo.capturarReproducoes().size());
+    }
+}
@@ -0,0 +1,47 @@
+package Classes.Persistencia;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListaTextoMapeadaTest {
+
+    @Test
+    void testCodificarEDescodificar() {
+        List<String> linhas = Arrays.asList("Dó", null, "", "linha comprida ".repeat(20));
+        ListaTextoMapeada lista = new ListaTextoMapeada(ListaTextoMapeada.codificar(linhas));
+
+        assertFalse(lista.isDescodificada());
+        assertEquals(4, lista.size());
+        assertTrue(lista.isDescodificada());
+        assertEquals(linhas, lista);
+        assertEquals(lista, new ArrayList<>(linhas));
+        assertNull(lista.get(1));
+    }
+
+    @Test
+    void testListaVazia() {
+        ListaTextoMapeada lista = new ListaTextoMapeada(ListaTextoMapeada.codificar(new ArrayList<>()));
+        assertTrue(lista.isEmpty());
+    }
+
+    @Test
+    void testNaoAlteravel() {
+        ListaTextoMapeada lista = new ListaTextoMapeada(ListaTextoMapeada.codificar(Arrays.asList("a")));
+        assertThrows(UnsupportedOperationException.class, () -> lista.add("b"));
+        assertThrows(UnsupportedOperationException.class, () -> lista.set(0, "b"));
+    }
+
+    @Test
+    void testDadosCorrompidos() {
+        ByteBuffer dados = ListaTextoMapeada.codificar(Arrays.asList("texto"));
+        ListaTextoMapeada lista = new ListaTextoMapeada(dados.slice(0, dados.limit() - 2));
+        assertThrows(UncheckedIOException.class, lista::size);
+    }
+}
@@ -0,0 +1,103 @@
+package Classes.Playlists;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VetorPersistenteTest {
+
+    private VetorPersistente<String> vetor;
+
+    @BeforeEach
+    void setUp() {
+        vetor = VetorPersistente.de(Arrays.asList("a", "b", "c"));
+    }
+
+    @Test
+    void testAcrescentarNaoAlteraOriginal() {
+        VetorPersistente<String> novo = vetor.acrescentar("d");
+
+        assertEquals(Arrays.asList("a", "b", "c"), vetor);
+        assertEquals(Arrays.asList("a", "b", "c", "d"), novo);
+        assertEquals("d", novo.get(3));
+    }
+
+    @Test
+    void testInserirERemover() {
+        VetorPersistente<String> novo = vetor.inserir(0, "x").inserir(2, "y");
+        assertEquals(Arrays.asList("x", "a", "y", "b", "c"), novo);
+
+        assertEquals(Arrays.asList("x", "a", "b", "c"), novo.semPosicao(2));
+        assertEquals(Arrays.asList("x", "y", "b", "c"), novo.semElemento("a"));
+        assertSame(novo, novo.semElemento("z"));
+        assertEquals(Arrays.asList("x", "a", "y", "b", "c"), novo);
+    }
+
+    @Test
+    void testPosicoesInvalidas() {
+        assertThrows(IndexOutOfBoundsException.class, () -> vetor.get(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> vetor.inserir(4, "x"));
+        assertThrows(IndexOutOfBoundsException.class, () -> vetor.semPosicao(-1));
+        assertThrows(UnsupportedOperationException.class, () -> vetor.add("x"));
+    }
+
+    @Test
+    void testVetorVazio() {
+        VetorPersistente<String> vazio = new VetorPersistente<>();
+        assertTrue(vazio.isEmpty());
+        assertFalse(vazio.iterator().hasNext());
+        assertEquals(Arrays.asList("a"), vazio.acrescentar("a"));
+        assertTrue(vazio.acrescentar("a").semPosicao(0).isEmpty());
+    }
+
+    @Test
+    void testOperacoesAleatoriasComoArrayList() {
+        Random random = new Random(42);
+        List<Integer> esperado = new ArrayList<>();
+        VetorPersistente<Integer> atual = new VetorPersistente<>();
+
+        for (int i = 0; i < 5000; i++) {
+            int operacao = random.nextInt(4);
+            if (operacao < 2 || esperado.isEmpty()) {
+                esperado.add(i);
+                atual = atual.acrescentar(i);
+            } else if (operacao == 2) {
+                int posicao = random.nextInt(esperado.size() + 1);
+                esperado.add(posicao, i);
+                atual = atual.inserir(posicao, i);
+            } else {
+                int posicao = random.nextInt(esperado.size());
+                esperado.remove(posicao);
+                atual = atual.semPosicao(posicao);
+            }
+        }
+
+        assertEquals(esperado.size(), atual.size());
+        assertEquals(esperado, atual);
+        assertEquals(new ArrayList<>(esperado), new ArrayList<>(atual));
+    }
+
+    @Test
+    void testArvoreEquilibrada() {
+        VetorPersistente<Integer> atual = new VetorPersistente<>();
+        for (int i = 0; i < 4096; i++) {
+            atual = atual.acrescentar(i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            atual = atual.semPosicao(0);
+        }
+
+        // uma árvore AVL com n nós tem altura inferior a 1.45 * log2(n + 2)
+        int n = atual.size();
+        int limite = (int) Math.ceil(1.45 * Math.log(n + 2) / Math.log(2));
+        VetorPersistente<Integer> copia = VetorPersistente.de(atual);
+        assertEquals(atual, copia);
+        assertTrue(atual.altura() <= limite);
+    }
+}
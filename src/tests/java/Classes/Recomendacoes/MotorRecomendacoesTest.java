@@ -0,0 +1,103 @@
+package Classes.Recomendacoes;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MotorRecomendacoesTest {
+
+    private SessoesAudicao sessoes;
+
+    @BeforeEach
+    void setUp() {
+        // sessões {0,1,2}, {0,1}, {0,3}, {2,3}
+        sessoes = new SessoesAudicao(new int[]{0, 3, 5, 7, 9}, new int[]{0, 1, 2, 0, 1, 0, 3, 2, 3}, 12);
+    }
+
+    @Test
+    void testVizinhos() {
+        MotorRecomendacoes motor = MotorRecomendacoes.construir(sessoes, 5, 10, ForkJoinPool.commonPool());
+        assertEquals(5, motor.getNumeroMusicas());
+        assertEquals(12, motor.getNumeroReproducoes());
+        assertEquals(3, motor.getNumeroVizinhos(0));
+        assertEquals(1, motor.getVizinho(0, 0));
+        assertEquals(2 / Math.sqrt(3 * 2), motor.getSemelhanca(0, 0), 1e-6);
+        // 2 e 3 têm a mesma semelhança com 0: o de id menor primeiro
+        assertEquals(2, motor.getVizinho(0, 1));
+        assertEquals(3, motor.getVizinho(0, 2));
+        assertEquals(0, motor.getNumeroVizinhos(4));
+        assertEquals(0, motor.getNumeroVizinhos(7));
+    }
+
+    @Test
+    void testLimiteDeVizinhos() {
+        MotorRecomendacoes motor = MotorRecomendacoes.construir(sessoes, 5, 1, ForkJoinPool.commonPool());
+        assertEquals(1, motor.getNumeroVizinhos(0));
+        assertEquals(1, motor.getVizinho(0, 0));
+    }
+
+    @Test
+    void testRecomendar() {
+        MotorRecomendacoes motor = MotorRecomendacoes.construir(sessoes, 5, 10, ForkJoinPool.commonPool());
+        assertEquals(List.of(2, 3), motor.recomendar(new int[]{0, 1}, new double[]{1, 1}, 5));
+        assertEquals(List.of(2), motor.recomendar(new int[]{0, 1}, new double[]{1, 1}, 1));
+        assertEquals(List.of(2, 0), motor.recomendar(new int[]{3}, new double[]{1}, 5));
+        assertTrue(motor.recomendar(new int[]{4}, new double[]{1}, 5).isEmpty());
+    }
+
+    @Test
+    void testIgualAContagemExaustiva() {
+        Random aleatorio = new Random(5);
+        int numeroMusicas = 200;
+        List<Integer> inicios = new ArrayList<>(List.of(0));
+        List<Integer> musicas = new ArrayList<>();
+        for (int s = 0; s < 500; s++) {
+            int tamanho = 2 + aleatorio.nextInt(6);
+            List<Integer> sessao = new ArrayList<>();
+            while (sessao.size() < tamanho) {
+                int m = aleatorio.nextInt(numeroMusicas);
+                if (!sessao.contains(m)) sessao.add(m);
+            }
+            musicas.addAll(sessao);
+            inicios.add(musicas.size());
+        }
+        SessoesAudicao grandes = new SessoesAudicao(inicios.stream().mapToInt(i -> i).toArray(),
+                musicas.stream().mapToInt(i -> i).toArray(), musicas.size());
+        int vizinhos = 5;
+        MotorRecomendacoes motor = MotorRecomendacoes.construir(grandes, numeroMusicas, vizinhos, new ForkJoinPool(4));
+
+        int[][] conjuntas = new int[numeroMusicas][numeroMusicas];
+        int[] totais = new int[numeroMusicas];
+        for (int s = 0; s < grandes.tamanho(); s++) {
+            for (int a = 0; a < grandes.getNumeroMusicas(s); a++) {
+                totais[grandes.getMusica(s, a)]++;
+                for (int b = 0; b < grandes.getNumeroMusicas(s); b++) {
+                    if (a != b) conjuntas[grandes.getMusica(s, a)][grandes.getMusica(s, b)]++;
+                }
+            }
+        }
+        for (int m = 0; m < numeroMusicas; m++) {
+            List<Integer> candidatos = new ArrayList<>();
+            for (int o = 0; o < numeroMusicas; o++) {
+                if (conjuntas[m][o] > 0) candidatos.add(o);
+            }
+            final int musica = m;
+            candidatos.sort((a, b) -> {
+                int c = Double.compare(conjuntas[musica][b] / Math.sqrt((double) totais[musica] * totais[b]),
+                        conjuntas[musica][a] / Math.sqrt((double) totais[musica] * totais[a]));
+                return (c != 0) ? c : Integer.compare(a, b);
+            });
+            List<Integer> obtidos = new ArrayList<>();
+            for (int k = 0; k < motor.getNumeroVizinhos(m); k++) {
+                obtidos.add(motor.getVizinho(m, k));
+            }
+            assertEquals(candidatos.subList(0, Math.min(vizinhos, candidatos.size())), obtidos, "música " + m);
+        }
+    }
+}
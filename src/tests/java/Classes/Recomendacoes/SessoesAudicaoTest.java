@@ -0,0 +1,71 @@
+package Classes.Recomendacoes;
+
+import Classes.Historico.RegistoReproducoes;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessoesAudicaoTest {
+
+    private RegistoReproducoes registo;
+
+    @BeforeEach
+    void setUp() {
+        registo = new RegistoReproducoes();
+        registo.adicionar(0, 1, 0);
+        registo.adicionar(1, 5, 10);
+        registo.adicionar(0, 2, 100);
+        registo.adicionar(0, 1, 200);
+        registo.adicionar(1, 6, 20);
+        // pausa de mais de meia hora: nova sessão, que só tem uma música e é descartada
+        registo.adicionar(0, 3, 200 + SessoesAudicao.INTERVALO_SESSAO + 1);
+        registo.adicionar(2, 7, 50);
+    }
+
+    private static List<List<Integer>> listar(SessoesAudicao sessoes) {
+        List<List<Integer>> lista = new ArrayList<>();
+        for (int s = 0; s < sessoes.tamanho(); s++) {
+            List<Integer> musicas = new ArrayList<>();
+            for (int k = 0; k < sessoes.getNumeroMusicas(s); k++) {
+                musicas.add(sessoes.getMusica(s, k));
+            }
+            lista.add(musicas);
+        }
+        return lista;
+    }
+
+    @Test
+    void testExtrair() {
+        SessoesAudicao sessoes = SessoesAudicao.extrair(registo);
+        assertEquals(List.of(List.of(1, 2), List.of(5, 6)), listar(sessoes));
+        assertEquals(7, sessoes.getNumeroReproducoes());
+    }
+
+    @Test
+    void testSessaoDescartadaNaoEscondeMusicas() {
+        registo.adicionar(0, 3, 5000 + 2 * SessoesAudicao.INTERVALO_SESSAO);
+        registo.adicionar(0, 4, 5100 + 2 * SessoesAudicao.INTERVALO_SESSAO);
+        assertEquals(List.of(List.of(1, 2), List.of(3, 4), List.of(5, 6)), listar(SessoesAudicao.extrair(registo)));
+    }
+
+    @Test
+    void testSessoesLongasDivididas() {
+        RegistoReproducoes longo = new RegistoReproducoes();
+        for (int i = 0; i < SessoesAudicao.MAXIMO_MUSICAS + 3; i++) {
+            longo.adicionar(0, i, i);
+        }
+        SessoesAudicao sessoes = SessoesAudicao.extrair(longo);
+        assertEquals(2, sessoes.tamanho());
+        assertEquals(SessoesAudicao.MAXIMO_MUSICAS, sessoes.getNumeroMusicas(0));
+        assertEquals(3, sessoes.getNumeroMusicas(1));
+    }
+
+    @Test
+    void testRegistoVazio() {
+        assertEquals(0, SessoesAudicao.extrair(new RegistoReproducoes()).tamanho());
+    }
+}
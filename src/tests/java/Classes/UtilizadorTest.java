@@ -143,8 +143,10 @@ class UtilizadorTest {
     @Test
     void testGanharPontos() {
         int pontosAntes = utilizador.getPontos();
-        utilizador.ganharPontos(false);
-        assertTrue(utilizador.getPontos() > pontosAntes);
+        int ganhos = utilizador.ganharPontos(false);
+        assertTrue(ganhos > 0);
+        assertEquals(pontosAntes + ganhos, utilizador.getPontos());
+        assertEquals(0, new Utilizador().ganharPontos(false));
     }
 
     @Test
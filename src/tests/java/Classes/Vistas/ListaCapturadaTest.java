@@ -0,0 +1,69 @@
+package Classes.Vistas;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListaCapturadaTest {
+
+    private ArrayList<String> origem;
+    private int pedidos;
+
+    @BeforeEach
+    void setUp() {
+        origem = new ArrayList<>(Arrays.asList("a", "b", "c"));
+        pedidos = 0;
+    }
+
+    private List<String> capturar() {
+        ArrayList<String> lista = origem;
+        return new ListaCapturada<>(lista.size(), i -> {
+            pedidos++;
+            return lista.get(i);
+        });
+    }
+
+    @Test
+    void testTamanhoFixo() {
+        List<String> captura = capturar();
+        origem.add("d");
+
+        assertEquals(3, captura.size());
+        assertEquals(Arrays.asList("a", "b", "c"), captura);
+        assertThrows(IndexOutOfBoundsException.class, () -> captura.get(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> captura.get(-1));
+    }
+
+    @Test
+    void testElementosObtidosAMedida() {
+        List<String> captura = capturar();
+        assertEquals(0, pedidos);
+
+        Iterator<String> it = captura.iterator();
+        assertEquals("a", it.next());
+        assertEquals(1, pedidos);
+        assertEquals("c", captura.get(2));
+        assertEquals(2, pedidos);
+    }
+
+    @Test
+    void testSoLeitura() {
+        List<String> captura = capturar();
+        assertThrows(UnsupportedOperationException.class, () -> captura.add("x"));
+        assertThrows(UnsupportedOperationException.class, () -> captura.set(0, "x"));
+        assertThrows(UnsupportedOperationException.class, () -> captura.remove(0));
+        assertEquals(Arrays.asList("a", "b", "c"), origem);
+    }
+
+    @Test
+    void testTamanhoInvalido() {
+        assertThrows(IllegalArgumentException.class, () -> new ListaCapturada<String>(-1, i -> null));
+        assertTrue(new ListaCapturada<String>(0, i -> null).isEmpty());
+    }
+}
@@ -0,0 +1,60 @@
+package Servidor;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SaidaProtocoloTest {
+
+    private StringWriter destino;
+    private SaidaProtocolo saida;
+
+    @BeforeEach
+    void setUp() {
+        destino = new StringWriter();
+        saida = new SaidaProtocolo(destino);
+    }
+
+    @Test
+    void testRespostaVazia() throws Exception {
+        saida.terminar();
+        assertEquals("OK\n.\n", destino.toString());
+        assertFalse(saida.isIniciada());
+    }
+
+    @Test
+    void testLinhasComPontoDuplicado() throws Exception {
+        saida.append("a\n.b\n..c");
+        saida.terminar();
+        assertEquals("OK\na\n..b\n...c\n.\n", destino.toString());
+    }
+
+    @Test
+    void testPontoEntreEscritas() throws Exception {
+        saida.append("x\n");
+        saida.append('.');
+        saida.append("y.z\n", 0, 4);
+        saida.append(".");
+        saida.terminar();
+        assertEquals("OK\nx\n..y.z\n..\n.\n", destino.toString());
+    }
+
+    @Test
+    void testErroAntesDaResposta() throws Exception {
+        saida.erro("linha\numa");
+        assertEquals("ERRO linha uma\n", destino.toString());
+        assertFalse(saida.isIniciada());
+    }
+
+    @Test
+    void testRespostaInterrompida() throws Exception {
+        saida.append("parcial");
+        assertTrue(saida.isIniciada());
+        saida.interromper("falhou");
+        saida.terminar();
+        assertEquals("OK\nparcial\n.ERRO falhou\nOK\n.\n", destino.toString());
+    }
+}
@@ -0,0 +1,61 @@
+package Servidor;
+
+import Controller.Controller;
+import SpotifUM.SpotifUM;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServidorSessoesTest {
+
+    private ServidorSessoes servidor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        servidor = new ServidorSessoes(new Controller(new SpotifUM()), 0);
+        servidor.iniciar();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        // não usa parar(), que guardaria o estado no ficheiro do sistema
+        servidor.fecharSessoes(Duration.ZERO);
+    }
+
+    @Test
+    void testTerminarComSessoesAbertas() throws Exception {
+        try (Socket a = new Socket(InetAddress.getLoopbackAddress(), servidor.getPorta());
+             Socket b = new Socket(InetAddress.getLoopbackAddress(), servidor.getPorta())) {
+            BufferedReader entradaA = new BufferedReader(new InputStreamReader(a.getInputStream(), StandardCharsets.UTF_8));
+            Writer saidaA = new OutputStreamWriter(a.getOutputStream(), StandardCharsets.UTF_8);
+            saidaA.write("STATS PUBLICAS\n");
+            saidaA.flush();
+            assertEquals("OK", entradaA.readLine());
+            assertEquals("0", entradaA.readLine());
+            assertEquals(".", entradaA.readLine());
+            long limite = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (servidor.getNumeroSessoes() < 2 && System.nanoTime() < limite) {
+                Thread.sleep(10);
+            }
+            assertEquals(2, servidor.getNumeroSessoes());
+
+            servidor.fecharSessoes(Duration.ofSeconds(5));
+            assertEquals(0, servidor.getNumeroSessoes());
+            // as sessões à espera de pedidos terminam e fecham a ligação
+            assertNull(entradaA.readLine());
+            assertEquals(-1, b.getInputStream().read());
+            assertThrows(Exception.class, () -> new Socket(InetAddress.getLoopbackAddress(), servidor.getPorta()).close());
+        }
+    }
+}
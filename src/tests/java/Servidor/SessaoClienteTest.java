@@ -0,0 +1,84 @@
+package Servidor;
+
+import Classes.Artista;
+import Classes.Biblioteca;
+import Classes.Cargo;
+import Classes.Genero;
+import Classes.Musicas.Musica;
+import Classes.Planos.PlanoPremiumTop;
+import Classes.Utilizador;
+import Controller.Controller;
+import SpotifUM.SpotifUM;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessaoClienteTest {
+
+    private SpotifUM modelo;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        modelo = new SpotifUM();
+        Artista artista = new Artista("Artista", "Portugal");
+        modelo.adicionarArtista(artista);
+        modelo.adicionarMusica(new Musica("Fogo", artista, "Editora", List.of("letra"), List.of("melodia"),
+                Genero.POP, 180, 0));
+        modelo.registarUtilizador(new Utilizador("Ana", "ana@gmail.com", "Braga", "pw", 0, new PlanoPremiumTop(),
+                Cargo.USER, new Biblioteca()));
+    }
+
+    private static String atender(Controller controller, String pedidos) throws IOException {
+        StringWriter respostas = new StringWriter();
+        new SessaoCliente(controller).atender(new BufferedReader(new StringReader(pedidos)), respostas);
+        return respostas.toString();
+    }
+
+    @Test
+    void testPedidosInvalidos() throws Exception {
+        assertEquals("ERRO Comando desconhecido: foo\n", atender(new Controller(modelo), "foo bar\n"));
+        assertEquals("ERRO Pedido vazio ou com mais de " + SessaoCliente.MAXIMO_PEDIDO + " caracteres\n",
+                atender(new Controller(modelo), "\n"));
+        assertEquals("ERRO É preciso fazer LOGIN primeiro\n", atender(new Controller(modelo), "LIST PLAYLISTS\n"));
+        assertEquals("ERRO Credenciais inválidas\n", atender(new Controller(modelo), "LOGIN ana@gmail.com x\n"));
+    }
+
+    @Test
+    void testPedidoDemasiadoLongo() throws Exception {
+        String longo = "STATS " + "x".repeat(SessaoCliente.MAXIMO_PEDIDO) + "\r\n";
+        assertTrue(atender(new Controller(modelo), longo).startsWith("ERRO Pedido vazio"));
+    }
+
+    @Test
+    void testSessao() throws Exception {
+        String respostas = atender(new Controller(modelo),
+                "LOGIN ana@gmail.com pw\r\nstats publicas\nQUIT\nSTATS PUBLICAS\n");
+        // depois do QUIT não é lido mais nenhum pedido
+        assertEquals("OK\n.\nOK\n0\n.\nOK\n.\n", respostas);
+    }
+
+    @Test
+    void testFimDaEntradaSemQuit() throws Exception {
+        assertEquals("OK\n0\n.\n", atender(new Controller(modelo), "STATS PUBLICAS"));
+    }
+
+    @Test
+    void testErroDepoisDeComecarAResposta() throws Exception {
+        Controller controller = new Controller(modelo) {
+            @Override
+            public void ouvirMusica(String email, String nome, Appendable destino) throws IOException {
+                destino.append("primeira\n.segunda");
+                throw new IllegalStateException("falhou");
+            }
+        };
+        String respostas = atender(controller, "LOGIN ana@gmail.com pw\nPLAY Fogo\nSTATS PUBLICAS\n");
+        assertEquals("OK\n.\nOK\nprimeira\n..segunda\n.ERRO falhou\nOK\n0\n.\n", respostas);
+    }
+}
@@ -0,0 +1,341 @@
+package SpotifUM;
+
+import Classes.Album;
+import Classes.Artista;
+import Classes.Biblioteca;
+import Classes.Cargo;
+import Classes.Genero;
+import Classes.GestorFicheiros;
+import Classes.Historico.EventoReproducao;
+import Classes.Musicas.Musica;
+import Classes.Persistencia.GestorDurabilidade;
+import Classes.Planos.PlanoPremiumTop;
+import Classes.Playlists.Playlist;
+import Classes.Playlists.PlaylistConstruida;
+import Classes.Reproducao;
+import Classes.Utilizador;
+import Exceptions.MusicaInexistenteException;
+import Exceptions.PersistenciaException;
+import Exceptions.UtilizadorInexistenteException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpotifUMTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2025, 1, 1, 10, 0);
+
+    private SpotifUM modelo;
+    private Artista artista;
+    private Utilizador utilizador;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        modelo = new SpotifUM();
+        artista = new Artista("Artista", "Portugal");
+        modelo.adicionarArtista(artista);
+        Musica fogo = new Musica("Fogo", artista, "Editora", List.of("letra"), List.of("melodia"), Genero.POP, 180, 0);
+        Musica noite = new Musica("Noite", artista, "Editora", List.of("letra"), List.of("melodia"), Genero.ROCK, 200, 0);
+        modelo.adicionarMusica(fogo);
+        modelo.adicionarMusica(noite);
+        modelo.adicionarAlbum(new Album("Album", LocalDate.of(2024, 1, 1), artista, new ArrayList<>(List.of(fogo, noite))));
+        utilizador = new Utilizador("Ana", "ana@gmail.com", "Braga", "pw", 0, new PlanoPremiumTop(), Cargo.USER,
+                new Biblioteca());
+        modelo.registarUtilizador(utilizador);
+        modelo.adicionarPlaylist(new PlaylistConstruida("Minha", utilizador, LocalDate.of(2025, 1, 1), true,
+                new ArrayList<>(List.of(fogo))));
+        modelo.reproduzirMusicaSemSaida("ana@gmail.com", "Fogo", INICIO);
+        modelo.reproduzirMusicaSemSaida("ana@gmail.com", "Noite", INICIO.plusMinutes(3));
+    }
+
+    @Test
+    void testConstrutorDeCopia() {
+        SpotifUM copia = new SpotifUM(modelo);
+        assertNotNull(copia.getArtistaPorNome("Artista"));
+        assertEquals("Ana", copia.getUtilizadorPorEmail("ana@gmail.com").getNome());
+        assertNotNull(copia.getMusicaPorNome("Noite"));
+        assertNotNull(copia.getAlbumPorNome("Album"));
+        assertNotNull(copia.getPlaylistPorNome("Minha"));
+        assertEquals(2, copia.capturarReproducoes("ana@gmail.com").size());
+        assertTrue(copia.jaOuviuMusica("ana@gmail.com", "Fogo"));
+        assertEquals(List.of("Artista"), copia.sugerirArtistas("Artsta", 5));
+        assertTrue(copia.verificarEstatisticas().isEmpty());
+    }
+
+    @Test
+    void testCopiaIndependente() {
+        SpotifUM copia = new SpotifUM(modelo);
+        copia.adicionarArtista(new Artista("Outro", "Espanha"));
+        copia.reproduzirMusicaSemSaida("ana@gmail.com", "Fogo", INICIO.plusMinutes(6));
+        assertNull(modelo.getArtistaPorNome("Outro"));
+        assertEquals(2, modelo.getNumeroReproducoes());
+        assertEquals(3, copia.getNumeroReproducoes());
+    }
+
+    @Test
+    void testSetMusicasRemapeiaHistorico() {
+        ArrayList<Musica> novas = new ArrayList<>(List.of(
+                new Musica("Chuva", artista, "Editora", List.of("letra"), List.of("melodia"), Genero.JAZZ, 150, 0),
+                modelo.getMusicaPorNome("Noite"), modelo.getMusicaPorNome("Fogo")));
+        modelo.setMusicas(novas);
+
+        List<Reproducao> historico = modelo.capturarReproducoes("ana@gmail.com");
+        assertEquals("Fogo", historico.get(0).getMusica().getNome());
+        assertEquals("Noite", historico.get(1).getMusica().getNome());
+        assertTrue(modelo.jaOuviuMusica("ana@gmail.com", "Fogo"));
+        assertFalse(modelo.jaOuviuMusica("ana@gmail.com", "Chuva"));
+        assertTrue(modelo.verificarEstatisticas().isEmpty());
+    }
+
+    @Test
+    void testSetMusicasSemMusicaReproduzida() {
+        ArrayList<Musica> novas = new ArrayList<>(List.of(modelo.getMusicaPorNome("Noite")));
+        assertThrows(MusicaInexistenteException.class, () -> modelo.setMusicas(novas));
+        assertEquals(2, modelo.vistaMusicas().size());
+        assertEquals("Fogo", modelo.capturarReproducoes("ana@gmail.com").get(0).getMusica().getNome());
+    }
+
+    @Test
+    void testSetReproducoesInvalidasNaoAlteraHistorico() {
+        Musica fora = new Musica("Fora", artista, "Editora", List.of("letra"), List.of("melodia"), Genero.POP, 100, 0);
+        ArrayList<Reproducao> reproducoes = new ArrayList<>(List.of(
+                new Reproducao(utilizador, modelo.getMusicaPorNome("Noite"), INICIO.plusMinutes(10)),
+                new Reproducao(utilizador, fora, INICIO.plusMinutes(11))));
+        assertThrows(MusicaInexistenteException.class, () -> modelo.setReproducoes(reproducoes));
+        assertEquals(2, modelo.getNumeroReproducoes());
+        assertEquals("Fogo", modelo.capturarReproducoes("ana@gmail.com").get(0).getMusica().getNome());
+        assertTrue(modelo.jaOuviuMusica("ana@gmail.com", "Fogo"));
+
+        reproducoes.remove(1);
+        modelo.setReproducoes(reproducoes);
+        assertEquals(1, modelo.getNumeroReproducoes());
+        assertFalse(modelo.jaOuviuMusica("ana@gmail.com", "Fogo"));
+        assertTrue(modelo.verificarEstatisticas().isEmpty());
+    }
+
+    @Test
+    void testPontosGanhosDevolvidos() {
+        PrintStream consola = System.out;
+        ByteArrayOutputStream escrito = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(escrito));
+        try {
+            int antes = modelo.getUtilizadorPorEmail("ana@gmail.com").getPontos();
+            int ganhos = modelo.reproduzirMusicaSemSaida("ana@gmail.com", "Fogo", INICIO.plusMinutes(6));
+            int depois = modelo.getUtilizadorPorEmail("ana@gmail.com").getPontos();
+            assertEquals(antes + ganhos, depois);
+
+            String resultado = modelo.reproduzirMusica("ana@gmail.com", "Noite", INICIO.plusMinutes(9));
+            int ganhosNoite = modelo.getUtilizadorPorEmail("ana@gmail.com").getPontos() - depois;
+            assertTrue(resultado.startsWith("Pontos Ganhos: " + ganhosNoite + "\n"));
+            assertTrue(resultado.endsWith("Pontos atuais: " + (depois + ganhosNoite)));
+        } finally {
+            System.setOut(consola);
+        }
+        // o modelo não escreve na consola; cabe à vista mostrar os pontos
+        assertEquals(0, escrito.size());
+    }
+
+    /**
+     * Acrescenta a um modelo artistas, músicas e utilizadores dos três planos, para os testes dos lotes.
+     */
+    private static void povoar(SpotifUM destino, int utilizadores, int musicas) {
+        Genero[] generos = Genero.values();
+        for (int a = 0; a < 3; a++) {
+            destino.adicionarArtista(new Artista("Artista " + a, "Portugal"));
+        }
+        for (int m = 0; m < musicas; m++) {
+            destino.adicionarMusica(new Musica("Musica " + m, destino.getArtistaPorNome("Artista " + (m % 3)), "Editora",
+                    List.of("letra " + m), List.of("melodia " + m), generos[m % generos.length], 180, 0));
+        }
+        String[] planos = {"free", "premiumbase", "premiumtop"};
+        for (int u = 0; u < utilizadores; u++) {
+            destino.registarUtilizadorPorScript("u" + u + "@gmail.com", "U" + u, "Rua", "pw", planos[u % 3], "user");
+        }
+    }
+
+    private static List<EventoReproducao> gerarEventos(int numero, int utilizadores, int musicas) {
+        Random aleatorio = new Random(42);
+        List<EventoReproducao> eventos = new ArrayList<>();
+        for (int i = 0; i < numero; i++) {
+            double u = aleatorio.nextDouble();
+            double m = aleatorio.nextDouble();
+            eventos.add(new EventoReproducao("u" + (int) (u * u * utilizadores) + "@gmail.com",
+                    "Musica " + (int) (m * m * musicas), INICIO.plusSeconds(i)));
+        }
+        return eventos;
+    }
+
+    /**
+     * Compara o estado observável de dois modelos: pontos e planos, reproduções das músicas, histórico e
+     * estatísticas.
+     */
+    private static void assertMesmoEstado(SpotifUM esperado, SpotifUM obtido) {
+        for (Map.Entry<String, Utilizador> e : esperado.vistaUtilizadores().entrySet()) {
+            Utilizador outro = obtido.vistaUtilizadores().get(e.getKey());
+            assertNotNull(outro, e.getKey());
+            assertEquals(e.getValue().getPontos(), outro.getPontos(), e.getKey());
+            assertEquals(e.getValue().getPlanoSubscricao().getNomePlano(), outro.getPlanoSubscricao().getNomePlano());
+        }
+        List<Musica> musicasEsperadas = esperado.vistaMusicas();
+        List<Musica> musicasObtidas = obtido.vistaMusicas();
+        assertEquals(musicasEsperadas.size(), musicasObtidas.size());
+        for (int i = 0; i < musicasEsperadas.size(); i++) {
+            assertEquals(musicasEsperadas.get(i).getNumReproducoes(), musicasObtidas.get(i).getNumReproducoes());
+        }
+        List<Reproducao> historicoEsperado = esperado.capturarReproducoes();
+        List<Reproducao> historicoObtido = obtido.capturarReproducoes();
+        assertEquals(historicoEsperado.size(), historicoObtido.size());
+        for (int i = 0; i < historicoEsperado.size(); i++) {
+            assertEquals(historicoEsperado.get(i).getDataHora(), historicoObtido.get(i).getDataHora());
+            assertEquals(historicoEsperado.get(i).getMusica().getNome(), historicoObtido.get(i).getMusica().getNome());
+            assertEquals(historicoEsperado.get(i).getUtilizador().getEmail(),
+                    historicoObtido.get(i).getUtilizador().getEmail());
+        }
+        assertEquals(esperado.getTopMusicas(50), obtido.getTopMusicas(50));
+        assertEquals(esperado.getTopArtistas(50), obtido.getTopArtistas(50));
+        assertEquals(esperado.getTopGeneros(50), obtido.getTopGeneros(50));
+        assertEquals(esperado.getUtilizadorComMaisPontos().getEmail(), obtido.getUtilizadorComMaisPontos().getEmail());
+        assertTrue(obtido.verificarEstatisticas().isEmpty());
+    }
+
+    @Test
+    void testLoteIgualAReproducoesUmaAUma() {
+        SpotifUM sequencial = new SpotifUM();
+        SpotifUM lotes = new SpotifUM();
+        povoar(sequencial, 30, 40);
+        povoar(lotes, 30, 40);
+        List<EventoReproducao> eventos = gerarEventos(1000, 30, 40);
+        for (EventoReproducao e : eventos) {
+            sequencial.reproduzirMusicaSemSaida(e.getEmail(), e.getNomeMusica(), e.getDataHora());
+        }
+        for (int i = 0; i < eventos.size(); i += 64) {
+            lotes.reproduzirLote(eventos.subList(i, Math.min(eventos.size(), i + 64)));
+        }
+        assertMesmoEstado(sequencial, lotes);
+    }
+
+    @Test
+    void testLoteComEventoInvalido() {
+        List<EventoReproducao> eventos = new ArrayList<>(List.of(
+                new EventoReproducao("ana@gmail.com", "Fogo", INICIO.plusMinutes(10)),
+                new EventoReproducao("ana@gmail.com", "Noite", INICIO.plusMinutes(11)),
+                new EventoReproducao("ninguem@gmail.com", "Fogo", INICIO.plusMinutes(12)),
+                new EventoReproducao("ana@gmail.com", "Fogo", INICIO.plusMinutes(13))));
+        // os eventos anteriores ao inválido ficam registados, os seguintes não
+        assertThrows(UtilizadorInexistenteException.class, () -> modelo.reproduzirLote(eventos));
+        assertEquals(4, modelo.getNumeroReproducoes());
+        assertTrue(modelo.verificarEstatisticas().isEmpty());
+
+        eventos.set(0, new EventoReproducao("ana@gmail.com", "Nada", INICIO.plusMinutes(20)));
+        assertThrows(MusicaInexistenteException.class, () -> modelo.reproduzirLote(eventos));
+        assertEquals(4, modelo.getNumeroReproducoes());
+
+        // o mesmo erro que a reprodução uma a uma
+        assertThrows(UtilizadorInexistenteException.class,
+                () -> modelo.reproduzirMusicaSemSaida("ninguem@gmail.com", "Fogo", INICIO));
+    }
+
+    @Test
+    void testLoteRecuperadoDoDiario() throws Exception {
+        Path pasta = Files.createTempDirectory("lote");
+        pasta.toFile().deleteOnExit();
+        Path snapshot = pasta.resolve("SpotifUM.dat");
+        Path diario = pasta.resolve("SpotifUM.wal");
+        // sem checkpoints: a recuperação tem de reaplicar todas as operações do diário
+        GestorDurabilidade gestor = new GestorDurabilidade(snapshot, diario, Integer.MAX_VALUE, Long.MAX_VALUE);
+        SpotifUM original = gestor.recuperar();
+        povoar(original, 10, 12);
+        List<EventoReproducao> eventos = new ArrayList<>(gerarEventos(300, 10, 12));
+        original.reproduzirLote(eventos.subList(0, 150));
+        eventos.set(200, new EventoReproducao("ninguem@gmail.com", "Musica 0", INICIO));
+        assertThrows(UtilizadorInexistenteException.class, () -> original.reproduzirLote(eventos.subList(150, 300)));
+        assertEquals(200, original.getNumeroReproducoes());
+        assertFalse(Files.exists(snapshot));
+
+        SpotifUM recuperado = new GestorDurabilidade(snapshot, diario, Integer.MAX_VALUE, Long.MAX_VALUE).recuperar();
+        assertMesmoEstado(original, recuperado);
+    }
+
+    @Test
+    void testFalhaDoDiarioDeixaModeloSoDeLeitura() throws Exception {
+        Path pasta = Files.createTempDirectory("falha");
+        pasta.toFile().deleteOnExit();
+        Path snapshot = pasta.resolve("SpotifUM.dat");
+        Path diario = pasta.resolve("SpotifUM.wal");
+        boolean[] falhar = {false};
+        GestorDurabilidade gestor = new GestorDurabilidade(snapshot, diario, Integer.MAX_VALUE, Long.MAX_VALUE) {
+            @Override
+            public long registarLote(SpotifUM model, List<byte[]> operacoes) throws IOException {
+                if (falhar[0]) throw new IOException("Disco cheio");
+                return super.registarLote(model, operacoes);
+            }
+        };
+        SpotifUM original = gestor.recuperar();
+        povoar(original, 3, 4);
+
+        falhar[0] = true;
+        assertThrows(PersistenciaException.class, () -> original.reproduzirMusicaSemSaida("u0@gmail.com", "Musica 0", INICIO));
+        assertTrue(original.isSoLeitura());
+        // a reprodução ficou em memória, mas o modelo deixa de aceitar alterações e de gravar o estado
+        assertEquals(1, original.getNumeroReproducoes());
+        assertThrows(IllegalStateException.class, () -> original.reproduzirMusicaSemSaida("u1@gmail.com", "Musica 1", INICIO));
+        assertThrows(IllegalStateException.class, () -> original.adicionarArtista(new Artista("Outro", "Portugal")));
+        assertThrows(IOException.class, () -> gestor.fechar(original));
+        assertFalse(Files.exists(snapshot));
+
+        SpotifUM recuperado = new GestorDurabilidade(snapshot, diario, Integer.MAX_VALUE, Long.MAX_VALUE).recuperar();
+        assertFalse(recuperado.isSoLeitura());
+        assertEquals(0, recuperado.getNumeroReproducoes());
+        assertEquals(4, recuperado.getMusicas().size());
+        recuperado.reproduzirMusicaSemSaida("u0@gmail.com", "Musica 0", INICIO);
+        assertEquals(1, recuperado.getNumeroReproducoes());
+    }
+
+    @Test
+    void testRecomendacoesConstruidasAoCarregar() throws Exception {
+        povoar(modelo, 10, 12);
+        modelo.reproduzirLote(gerarEventos(500, 10, 12));
+        Path ficheiro = Files.createTempFile("snapshot", ".dat");
+        ficheiro.toFile().deleteOnExit();
+        GestorFicheiros gestor = new GestorFicheiros();
+        gestor.guardarEstado(modelo, ficheiro.toString());
+
+        SpotifUM carregado = gestor.carregarEstado(ficheiro.toString());
+        long limite = System.currentTimeMillis() + 10_000;
+        while (!carregado.isRecomendacoesProntas() && System.currentTimeMillis() < limite) {
+            Thread.sleep(10);
+        }
+        assertTrue(carregado.isRecomendacoesProntas());
+    }
+
+    @Test
+    void testPlaylistFavoritaEnquantoAsRecomendacoesSaoConstruidas() {
+        SpotifUM grande = new SpotifUM();
+        povoar(grande, 10, 12);
+        grande.reproduzirLote(gerarEventos(100_001, 10, 12));
+        assertFalse(grande.isRecomendacoesProntas());
+
+        Utilizador u = grande.getUtilizadorPorEmail("u0@gmail.com");
+        Iterable<Reproducao> historico = grande.capturarReproducoes("u0@gmail.com");
+        Genero favorito = grande.obterGeneroFavorito(u, historico);
+        // histórico grande sem tabela: a tabela é construída em segundo plano e a playlist usa o género favorito
+        Playlist playlist = grande.gerarPlaylistFavorita("Favoritas", u, historico, grande.vistaMusicas());
+        assertFalse(playlist.getListaMusicas().isEmpty());
+        for (Musica m : playlist.getListaMusicas()) {
+            assertEquals(favorito, m.getGenero());
+        }
+    }
+}